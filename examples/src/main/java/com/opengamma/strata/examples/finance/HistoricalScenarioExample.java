@@ -34,16 +34,15 @@ import com.opengamma.strata.calc.CalculationRules;
 import com.opengamma.strata.calc.CalculationRunner;
 import com.opengamma.strata.calc.Column;
 import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.marketdata.ChunkedScenarioMarketData;
 import com.opengamma.strata.calc.marketdata.MarketDataConfig;
 import com.opengamma.strata.calc.marketdata.MarketDataFilter;
-import com.opengamma.strata.calc.marketdata.MarketDataRequirements;
 import com.opengamma.strata.calc.marketdata.PerturbationMapping;
 import com.opengamma.strata.calc.marketdata.ScenarioDefinition;
 import com.opengamma.strata.calc.runner.CalculationFunctions;
 import com.opengamma.strata.collect.Messages;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.data.scenario.ScenarioArray;
-import com.opengamma.strata.data.scenario.ScenarioMarketData;
 import com.opengamma.strata.examples.marketdata.ExampleMarketDataBuilder;
 import com.opengamma.strata.market.ShiftType;
 import com.opengamma.strata.market.curve.Curve;
@@ -86,6 +85,7 @@ import com.opengamma.strata.product.swap.SwapTrade;
 public class HistoricalScenarioExample {
 
   private static final String MARKET_DATA_RESOURCE_ROOT = "example-historicalscenario-marketdata";
+  private static final int SCENARIO_CHUNK_SIZE = 100;
 
   public static void main(String[] args) {
     // setup calculation runner component, which needs life-cycle management
@@ -131,9 +131,9 @@ public class HistoricalScenarioExample {
     ReferenceData refData = ReferenceData.standard();
 
     // calculate the results
-    MarketDataRequirements reqs = MarketDataRequirements.of(rules, trades, columns, refData);
-    ScenarioMarketData scenarioMarketData =
-        marketDataFactory().createMultiScenario(reqs, MarketDataConfig.empty(), marketData, refData, historicalScenarios);
+    // the scenario market data is built in chunks, bounding the number of perturbed curves held in memory
+    ChunkedScenarioMarketData scenarioMarketData = ChunkedScenarioMarketData.of(
+        marketDataFactory(), MarketDataConfig.empty(), marketData, historicalScenarios, SCENARIO_CHUNK_SIZE);
     Results results = runner.calculateMultiScenario(rules, trades, columns, scenarioMarketData, refData);
 
     // the results contain the one measure requested (Present Value) for each scenario
@@ -5,6 +5,7 @@
  */
 package com.opengamma.strata.basics.date;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.Map;
@@ -17,18 +18,24 @@ import org.joda.beans.JodaBeanUtils;
 import org.joda.beans.MetaBean;
 import org.joda.beans.MetaProperty;
 import org.joda.beans.gen.BeanDefinition;
+import org.joda.beans.gen.ImmutableConstructor;
 import org.joda.beans.gen.PropertyDefinition;
 import org.joda.beans.impl.direct.DirectMetaBean;
 import org.joda.beans.impl.direct.DirectMetaProperty;
 import org.joda.beans.impl.direct.DirectMetaPropertyMap;
 import org.joda.beans.impl.direct.DirectPrivateBeanBuilder;
 
+import com.opengamma.strata.collect.ArgChecker;
+
 /**
  * A holiday calendar implementation that combines two other calendars.
  * <p>
  * This immutable implementation of {@link HolidayCalendar} stores two underlying calendars.
  * A date is a holiday if either calendar defines it as a holiday.
  * <p>
+ * Where both underlying calendars can be expressed in the bitmask form of {@link ImmutableHolidayCalendar},
+ * they are merged when this calendar is created, with the most recently used merged calendars cached.
+ * <p>
  * This implementation is intended for short-lived queries.
  * To combine two calendars for the long-term, such as in a static constant,
  * see {@link ImmutableHolidayCalendar#combined(ImmutableHolidayCalendar, ImmutableHolidayCalendar)}.
@@ -47,6 +54,35 @@ final class CombinedHolidayCalendar
    */
   @PropertyDefinition(validate = "notNull")
   private final HolidayCalendar calendar2;
+  /**
+   * The merged calendar, null if the underlying calendars cannot be merged.
+   * Not a Joda-Beans property.
+   */
+  private final transient ImmutableHolidayCalendar merged;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates an instance.
+   * 
+   * @param calendar1  the first calendar
+   * @param calendar2  the second calendar
+   */
+  @ImmutableConstructor
+  CombinedHolidayCalendar(HolidayCalendar calendar1, HolidayCalendar calendar2) {
+    this.calendar1 = ArgChecker.notNull(calendar1, "calendar1");
+    this.calendar2 = ArgChecker.notNull(calendar2, "calendar2");
+    this.merged = MergedHolidayCalendars.combined(calendar1, calendar2);
+  }
+
+  // ensure standard constructor is invoked
+  private Object readResolve() throws ObjectStreamException {
+    return new CombinedHolidayCalendar(calendar1, calendar2);
+  }
+
+  // gets the merged calendar, null if the underlying calendars cannot be merged
+  ImmutableHolidayCalendar getMerged() {
+    return merged;
+  }
 
   //-------------------------------------------------------------------------
   @Override
@@ -56,9 +92,69 @@ final class CombinedHolidayCalendar
 
   @Override
   public boolean isHoliday(LocalDate date) {
+    if (merged != null) {
+      return merged.isHoliday(date);
+    }
     return calendar1.isHoliday(date) || calendar2.isHoliday(date);
   }
 
+  // the remaining methods use the merged calendar where possible, as it operates a month at a time
+  @Override
+  public LocalDate shift(LocalDate date, int amount) {
+    if (merged != null) {
+      return merged.shift(date, amount);
+    }
+    return HolidayCalendar.super.shift(date, amount);
+  }
+
+  @Override
+  public LocalDate next(LocalDate date) {
+    if (merged != null) {
+      return merged.next(date);
+    }
+    return HolidayCalendar.super.next(date);
+  }
+
+  @Override
+  public LocalDate previous(LocalDate date) {
+    if (merged != null) {
+      return merged.previous(date);
+    }
+    return HolidayCalendar.super.previous(date);
+  }
+
+  @Override
+  public LocalDate nextSameOrLastInMonth(LocalDate date) {
+    if (merged != null) {
+      return merged.nextSameOrLastInMonth(date);
+    }
+    return HolidayCalendar.super.nextSameOrLastInMonth(date);
+  }
+
+  @Override
+  public boolean isLastBusinessDayOfMonth(LocalDate date) {
+    if (merged != null) {
+      return merged.isLastBusinessDayOfMonth(date);
+    }
+    return HolidayCalendar.super.isLastBusinessDayOfMonth(date);
+  }
+
+  @Override
+  public LocalDate lastBusinessDayOfMonth(LocalDate date) {
+    if (merged != null) {
+      return merged.lastBusinessDayOfMonth(date);
+    }
+    return HolidayCalendar.super.lastBusinessDayOfMonth(date);
+  }
+
+  @Override
+  public int daysBetween(LocalDate startInclusive, LocalDate endExclusive) {
+    if (merged != null) {
+      return merged.daysBetween(startInclusive, endExclusive);
+    }
+    return HolidayCalendar.super.daysBetween(startInclusive, endExclusive);
+  }
+
   @Override
   public String toString() {
     return "HolidayCalendar[" + getName() + ']';
@@ -82,20 +178,6 @@ final class CombinedHolidayCalendar
    */
   private static final long serialVersionUID = 1L;
 
-  /**
-   * Creates an instance.
-   * @param calendar1  the value of the property, not null
-   * @param calendar2  the value of the property, not null
-   */
-  CombinedHolidayCalendar(
-      HolidayCalendar calendar1,
-      HolidayCalendar calendar2) {
-    JodaBeanUtils.notNull(calendar1, "calendar1");
-    JodaBeanUtils.notNull(calendar2, "calendar2");
-    this.calendar1 = calendar1;
-    this.calendar2 = calendar2;
-  }
-
   @Override
   public CombinedHolidayCalendar.Meta metaBean() {
     return CombinedHolidayCalendar.Meta.INSTANCE;
@@ -235,6 +235,84 @@ public final class ImmutableHolidayCalendar
     return new ImmutableHolidayCalendar(newId, newWeekends, newStartYear, newLookup, false);
   }
 
+  /**
+   * Obtains a linked holiday calendar instance.
+   * <p>
+   * This links the two input calendars, such that a date is only a holiday if it is a holiday in both.
+   * It is intended for up-front occasional use rather than continuous use, as it can be relatively slow.
+   * 
+   * @param cal1  the first calendar
+   * @param cal2  the second calendar
+   * @return the linked calendar
+   */
+  public static ImmutableHolidayCalendar linked(ImmutableHolidayCalendar cal1, ImmutableHolidayCalendar cal2) {
+    if (cal1 == cal2) {
+      return ArgChecker.notNull(cal1, "cal1");
+    }
+    return merged(cal1.id.linkedWith(cal2.id), cal1, cal2, true);
+  }
+
+  // merges two calendars using bitwise operations across the union of the two supported ranges
+  // a month outside the range of one calendar is derived from the weekend days of that calendar,
+  // thus the result matches CombinedHolidayCalendar or LinkedHolidayCalendar for all dates
+  static ImmutableHolidayCalendar merged(
+      HolidayCalendarId id,
+      ImmutableHolidayCalendar cal1,
+      ImmutableHolidayCalendar cal2,
+      boolean linked) {
+
+    // use | to combine and & to link, because 1 = weekend day
+    int newWeekends = linked ? cal1.weekends & cal2.weekends : cal1.weekends | cal2.weekends;
+    if (cal1.lookup.length == 0 && cal2.lookup.length == 0) {
+      return new ImmutableHolidayCalendar(id, newWeekends, 0, new int[0], false);
+    }
+    int newStartYear = Math.min(cal1.lookupStartYear(), cal2.lookupStartYear());
+    int newEndYear = Math.max(cal1.lookupEndYear(), cal2.lookupEndYear());
+    int[] newLookup = new int[(newEndYear - newStartYear) * 12];
+    LocalDate firstOfMonth = LocalDate.of(newStartYear, 1, 1);
+    for (int i = 0; i < newLookup.length; i++) {
+      int month1 = cal1.monthLookup(firstOfMonth);
+      int month2 = cal2.monthLookup(firstOfMonth);
+      // use & to combine and | to link, because 1 = business day (not holiday)
+      newLookup[i] = linked ? month1 | month2 : month1 & month2;
+      firstOfMonth = firstOfMonth.plusMonths(1);
+    }
+    return new ImmutableHolidayCalendar(id, newWeekends, newStartYear, newLookup, false);
+  }
+
+  // the start year of the lookup, an empty lookup is ignored
+  private int lookupStartYear() {
+    return lookup.length == 0 ? Integer.MAX_VALUE : startYear;
+  }
+
+  // the end year of the lookup, exclusive, an empty lookup is ignored
+  private int lookupEndYear() {
+    return lookup.length == 0 ? Integer.MIN_VALUE : startYear + lookup.length / 12;
+  }
+
+  // the lookup for the month, using the weekends if the month is out of range
+  private int monthLookup(LocalDate firstOfMonth) {
+    int index = (firstOfMonth.getYear() - startYear) * 12 + firstOfMonth.getMonthValue() - 1;
+    if (index >= 0 && index < lookup.length) {
+      return lookup[index];
+    }
+    int month = (1 << firstOfMonth.lengthOfMonth()) - 1;
+    int firstDow = firstOfMonth.getDayOfWeek().ordinal();
+    for (int dow = 0; dow < 7; dow++) {
+      if ((weekends & (1 << dow)) != 0) {
+        int daysDiff = dow - firstDow;
+        int offset = (daysDiff < 0 ? daysDiff + 7 : daysDiff);
+        month &= ~(0b10000001000000100000010000001 << offset); // CSIGNORE
+      }
+    }
+    return month;
+  }
+
+  // returns true if the lookup array is empty
+  boolean isWeekendOnly() {
+    return lookup.length == 0;
+  }
+
   // creates an instance calculating the supported range
   static ImmutableHolidayCalendar of(
       HolidayCalendarId id,
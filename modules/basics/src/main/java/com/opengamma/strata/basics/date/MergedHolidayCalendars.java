@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.basics.date;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+
+/**
+ * Merges combined and linked holiday calendars into a single bitmask lookup.
+ * <p>
+ * Combined and linked calendars, such as 'GBLO+USNY', are created each time the identifier is resolved.
+ * Where both underlying calendars can be expressed as an {@link ImmutableHolidayCalendar}, they are
+ * merged eagerly using bitwise operations, allowing dates to be shifted a month at a time.
+ * <p>
+ * The most recently used merged calendars are cached, keyed on the identity of the underlying calendars.
+ * Using identity is necessary as {@code ImmutableHolidayCalendar} equality is based only on the identifier.
+ */
+final class MergedHolidayCalendars {
+
+  /**
+   * The maximum number of merged calendars to cache.
+   */
+  private static final int MAX_SIZE = 256;
+  /**
+   * The cache of merged calendars.
+   */
+  private static final Cache<Key, ImmutableHolidayCalendar> CACHE =
+      CacheBuilder.newBuilder().maximumSize(MAX_SIZE).build();
+  /**
+   * The weekend-only calendars, converted to immutable form.
+   */
+  private static final Map<HolidayCalendar, ImmutableHolidayCalendar> WEEKEND_ONLY = new ConcurrentHashMap<>();
+
+  /**
+   * Restricted constructor.
+   */
+  private MergedHolidayCalendars() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Merges two calendars to match {@link CombinedHolidayCalendar}.
+   *
+   * @param cal1  the first calendar
+   * @param cal2  the second calendar
+   * @return the merged calendar, null if the calendars cannot be merged
+   */
+  static ImmutableHolidayCalendar combined(HolidayCalendar cal1, HolidayCalendar cal2) {
+    return merged(cal1, cal2, false);
+  }
+
+  /**
+   * Merges two calendars to match {@link LinkedHolidayCalendar}.
+   *
+   * @param cal1  the first calendar
+   * @param cal2  the second calendar
+   * @return the merged calendar, null if the calendars cannot be merged
+   */
+  static ImmutableHolidayCalendar linked(HolidayCalendar cal1, HolidayCalendar cal2) {
+    return merged(cal1, cal2, true);
+  }
+
+  // merges the calendars, using the cache
+  private static ImmutableHolidayCalendar merged(HolidayCalendar cal1, HolidayCalendar cal2, boolean linked) {
+    ImmutableHolidayCalendar immutable1 = toImmutable(cal1);
+    ImmutableHolidayCalendar immutable2 = toImmutable(cal2);
+    if (immutable1 == null || immutable2 == null) {
+      return null;
+    }
+    // a merged calendar without a lookup table would be slower than the two underlying calendars
+    if (immutable1.isWeekendOnly() && immutable2.isWeekendOnly()) {
+      return null;
+    }
+    Key key = new Key(immutable1, immutable2, linked);
+    ImmutableHolidayCalendar cached = CACHE.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    HolidayCalendarId id = linked ? cal1.getId().linkedWith(cal2.getId()) : cal1.getId().combinedWith(cal2.getId());
+    ImmutableHolidayCalendar merged = ImmutableHolidayCalendar.merged(id, immutable1, immutable2, linked);
+    CACHE.put(key, merged);
+    return merged;
+  }
+
+  // converts the calendar to immutable form, null if not possible
+  private static ImmutableHolidayCalendar toImmutable(HolidayCalendar calendar) {
+    if (calendar instanceof ImmutableHolidayCalendar) {
+      return (ImmutableHolidayCalendar) calendar;
+    }
+    if (calendar instanceof CombinedHolidayCalendar) {
+      return ((CombinedHolidayCalendar) calendar).getMerged();
+    }
+    if (calendar instanceof LinkedHolidayCalendar) {
+      return ((LinkedHolidayCalendar) calendar).getMerged();
+    }
+    if (calendar instanceof WeekendHolidayCalendar) {
+      WeekendHolidayCalendar weekend = (WeekendHolidayCalendar) calendar;
+      return WEEKEND_ONLY.computeIfAbsent(weekend, cal -> ImmutableHolidayCalendar.of(
+          weekend.getId(), ImmutableSortedSet.of(), ImmutableSet.of(weekend.getDay1(), weekend.getDay2()), ImmutableSet.of()));
+    }
+    if (calendar instanceof NoHolidaysCalendar) {
+      return WEEKEND_ONLY.computeIfAbsent(calendar, cal -> ImmutableHolidayCalendar.of(
+          cal.getId(), ImmutableSortedSet.of(), ImmutableSet.of(), ImmutableSet.of()));
+    }
+    return null;
+  }
+
+  //-------------------------------------------------------------------------
+  // the key of the cache, using identity of the calendars
+  private static final class Key {
+    private final ImmutableHolidayCalendar calendar1;
+    private final ImmutableHolidayCalendar calendar2;
+    private final boolean linked;
+
+    private Key(ImmutableHolidayCalendar calendar1, ImmutableHolidayCalendar calendar2, boolean linked) {
+      this.calendar1 = calendar1;
+      this.calendar2 = calendar2;
+      this.linked = linked;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (obj instanceof Key) {
+        Key other = (Key) obj;
+        return calendar1 == other.calendar1 && calendar2 == other.calendar2 && linked == other.linked;
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = System.identityHashCode(calendar1);
+      hash = hash * 31 + System.identityHashCode(calendar2);
+      return hash * 31 + (linked ? 1 : 0);
+    }
+  }
+
+}
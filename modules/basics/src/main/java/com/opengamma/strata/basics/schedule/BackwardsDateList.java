@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.basics.schedule;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+
+/**
+ * Dedicated list implementation for looping backwards when generating a schedule, for performance.
+ * <p>
+ * Only those methods that are needed are implemented.
+ */
+final class BackwardsDateList extends AbstractList<LocalDate> {
+
+  /**
+   * The index of the first date.
+   */
+  private int first;
+  /**
+   * The dates, filled from the end.
+   */
+  private final LocalDate[] array;
+
+  /**
+   * Creates an instance.
+   *
+   * @param capacity  the maximum number of dates
+   */
+  BackwardsDateList(int capacity) {
+    this.array = new LocalDate[capacity];
+    this.first = array.length;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public LocalDate get(int index) {
+    return array[first + index];
+  }
+
+  @Override
+  public int size() {
+    return array.length - first;
+  }
+
+  // adds a date to the start of the list
+  void addFirst(LocalDate date) {
+    array[--first] = date;
+  }
+
+  // removes the date at the start of the list
+  void removeFirst() {
+    first++;
+  }
+
+}
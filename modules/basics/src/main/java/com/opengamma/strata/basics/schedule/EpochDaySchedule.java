@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.basics.schedule;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * A compact form of {@link Schedule}, holding the dates of each period as epoch-days.
+ * <p>
+ * The dates are held in primitive arrays, avoiding the indirection of {@link SchedulePeriod}
+ * and {@link LocalDate} in code that iterates over the periods of many schedules.
+ * The epoch-day is as defined by {@link LocalDate#toEpochDay()}.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class EpochDaySchedule {
+
+  /**
+   * The adjusted start dates.
+   */
+  private final int[] startDays;
+  /**
+   * The adjusted end dates.
+   */
+  private final int[] endDays;
+  /**
+   * The unadjusted start dates.
+   */
+  private final int[] unadjustedStartDays;
+  /**
+   * The unadjusted end dates.
+   */
+  private final int[] unadjustedEndDays;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from a schedule.
+   *
+   * @param schedule  the schedule
+   * @return the epoch-day schedule
+   */
+  public static EpochDaySchedule of(Schedule schedule) {
+    ArgChecker.notNull(schedule, "schedule");
+    int size = schedule.size();
+    int[] startDays = new int[size];
+    int[] endDays = new int[size];
+    int[] unadjustedStartDays = new int[size];
+    int[] unadjustedEndDays = new int[size];
+    for (int i = 0; i < size; i++) {
+      SchedulePeriod period = schedule.getPeriod(i);
+      startDays[i] = Math.toIntExact(period.getStartDate().toEpochDay());
+      endDays[i] = Math.toIntExact(period.getEndDate().toEpochDay());
+      unadjustedStartDays[i] = Math.toIntExact(period.getUnadjustedStartDate().toEpochDay());
+      unadjustedEndDays[i] = Math.toIntExact(period.getUnadjustedEndDate().toEpochDay());
+    }
+    return new EpochDaySchedule(startDays, endDays, unadjustedStartDays, unadjustedEndDays);
+  }
+
+  // restricted constructor
+  private EpochDaySchedule(int[] startDays, int[] endDays, int[] unadjustedStartDays, int[] unadjustedEndDays) {
+    this.startDays = startDays;
+    this.endDays = endDays;
+    this.unadjustedStartDays = unadjustedStartDays;
+    this.unadjustedEndDays = unadjustedEndDays;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of periods.
+   *
+   * @return the number of periods
+   */
+  public int size() {
+    return startDays.length;
+  }
+
+  /**
+   * Gets the adjusted start date of a period, as an epoch-day.
+   *
+   * @param index  the zero-based period index
+   * @return the epoch-day
+   * @throws IndexOutOfBoundsException if the index is invalid
+   */
+  public int getStartDay(int index) {
+    return startDays[index];
+  }
+
+  /**
+   * Gets the adjusted end date of a period, as an epoch-day.
+   *
+   * @param index  the zero-based period index
+   * @return the epoch-day
+   * @throws IndexOutOfBoundsException if the index is invalid
+   */
+  public int getEndDay(int index) {
+    return endDays[index];
+  }
+
+  /**
+   * Gets the unadjusted start date of a period, as an epoch-day.
+   *
+   * @param index  the zero-based period index
+   * @return the epoch-day
+   * @throws IndexOutOfBoundsException if the index is invalid
+   */
+  public int getUnadjustedStartDay(int index) {
+    return unadjustedStartDays[index];
+  }
+
+  /**
+   * Gets the unadjusted end date of a period, as an epoch-day.
+   *
+   * @param index  the zero-based period index
+   * @return the epoch-day
+   * @throws IndexOutOfBoundsException if the index is invalid
+   */
+  public int getUnadjustedEndDay(int index) {
+    return unadjustedEndDays[index];
+  }
+
+  /**
+   * Gets the number of days in a period, based on the adjusted dates.
+   *
+   * @param index  the zero-based period index
+   * @return the number of days
+   * @throws IndexOutOfBoundsException if the index is invalid
+   */
+  public int lengthInDays(int index) {
+    return endDays[index] - startDays[index];
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Finds the index of the period containing the specified date, based on the adjusted dates.
+   * <p>
+   * A period contains the date if the date is on or after the start date and before the end date,
+   * consistent with {@link SchedulePeriod#contains(LocalDate)}.
+   *
+   * @param date  the date to find
+   * @return the period index, -1 if the date is not within any period
+   */
+  public int findPeriodIndex(LocalDate date) {
+    long day = date.toEpochDay();
+    if (day < startDays[0] || day >= endDays[endDays.length - 1]) {
+      return -1;
+    }
+    int pos = Arrays.binarySearch(endDays, (int) day);
+    int index = pos >= 0 ? pos + 1 : -pos - 1;
+    return day >= startDays[index] ? index : -1;
+  }
+
+  /**
+   * Converts the schedule back to the standard form.
+   * <p>
+   * The frequency and roll convention are not retained by this class and must be specified.
+   *
+   * @param frequency  the frequency
+   * @param rollConvention  the roll convention
+   * @return the schedule
+   */
+  public Schedule toSchedule(Frequency frequency, RollConvention rollConvention) {
+    Schedule.Builder builder = Schedule.builder().frequency(frequency).rollConvention(rollConvention);
+    SchedulePeriod[] periods = new SchedulePeriod[startDays.length];
+    for (int i = 0; i < periods.length; i++) {
+      periods[i] = SchedulePeriod.of(
+          LocalDate.ofEpochDay(startDays[i]),
+          LocalDate.ofEpochDay(endDays[i]),
+          LocalDate.ofEpochDay(unadjustedStartDays[i]),
+          LocalDate.ofEpochDay(unadjustedEndDays[i]));
+    }
+    return builder.periods(periods).build();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj instanceof EpochDaySchedule) {
+      EpochDaySchedule other = (EpochDaySchedule) obj;
+      return Arrays.equals(startDays, other.startDays) &&
+          Arrays.equals(endDays, other.endDays) &&
+          Arrays.equals(unadjustedStartDays, other.unadjustedStartDays) &&
+          Arrays.equals(unadjustedEndDays, other.unadjustedEndDays);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = Arrays.hashCode(startDays);
+    hash = hash * 31 + Arrays.hashCode(endDays);
+    hash = hash * 31 + Arrays.hashCode(unadjustedStartDays);
+    return hash * 31 + Arrays.hashCode(unadjustedEndDays);
+  }
+
+  @Override
+  public String toString() {
+    return "EpochDaySchedule[size=" + startDays.length + "]";
+  }
+
+}
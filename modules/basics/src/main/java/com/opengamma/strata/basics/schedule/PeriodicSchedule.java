@@ -7,7 +7,6 @@ package com.opengamma.strata.basics.schedule;
 
 import java.io.Serializable;
 import java.time.LocalDate;
-import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -410,11 +409,17 @@ public final class PeriodicSchedule
    *  yields the first/last regular date that was specified
    * </ul>
    * 
+   * <p>
+   * If the reference data is a {@link ScheduleCachingReferenceData}, the schedule is obtained from its cache.
+   * 
    * @return the schedule
    * @param refData  the reference data, used to find the holiday calendars
    * @throws ScheduleException if the definition is invalid
    */
   public Schedule createSchedule(ReferenceData refData) {
+    if (refData instanceof ScheduleCachingReferenceData) {
+      return ((ScheduleCachingReferenceData) refData).schedule(this);
+    }
     LocalDate unadjStart = calculatedUnadjustedStartDate(refData);
     LocalDate unadjEnd = calculatedUnadjustedEndDate(refData);
     LocalDate regularStart = calculatedFirstRegularStartDate(unadjStart, refData);
@@ -617,7 +622,7 @@ public final class PeriodicSchedule
           schedule, "Date '{}' does not match roll convention '{}' when starting to roll backwards", end, rollConv);
     }
     // generate
-    BackwardsList dates = new BackwardsList(estimateNumberPeriods(start, end, frequency));
+    BackwardsDateList dates = new BackwardsDateList(estimateNumberPeriods(start, end, frequency));
     dates.addFirst(end);
     LocalDate temp = rollConv.previous(end, frequency);
     while (temp.isAfter(start)) {
@@ -633,36 +638,6 @@ public final class PeriodicSchedule
     return dates;
   }
 
-  // dedicated list implementation for backwards looping for performance
-  // only implements those methods that are needed
-  private static class BackwardsList extends AbstractList<LocalDate> {
-    private int first;
-    private LocalDate[] array;
-
-    BackwardsList(int capacity) {
-      this.array = new LocalDate[capacity];
-      this.first = array.length;
-    }
-
-    @Override
-    public LocalDate get(int index) {
-      return array[first + index];
-    }
-
-    @Override
-    public int size() {
-      return array.length - first;
-    }
-
-    void addFirst(LocalDate date) {
-      array[--first] = date;
-    }
-
-    void removeFirst() {
-      first++;
-    }
-  }
-
   // generate the schedule of dates forwards from the start, called when stub convention is not initial
   // start/end dates are regular start/end
   private static List<LocalDate> generateForwards(
@@ -316,6 +316,17 @@ public final class Schedule
         .orElseThrow(() -> new IllegalArgumentException("Date is not contained in any period"));
   }
 
+  /**
+   * Converts this schedule to a compact form holding the dates as epoch-days.
+   * <p>
+   * This is intended for code that iterates over the periods of many schedules.
+   *
+   * @return the epoch-day form of the schedule
+   */
+  public EpochDaySchedule toEpochDaySchedule() {
+    return EpochDaySchedule.of(this);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Merges this schedule to form a new schedule with a single 'Term' period.
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.basics.schedule;
+
+import java.io.Serializable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.ReferenceDataId;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Reference data that caches the schedules created by {@link PeriodicSchedule}.
+ * <p>
+ * Creating a schedule involves determining the roll convention and stubs and adjusting each date
+ * for business days. When many trades are resolved against the same reference data, for example
+ * all the standard swaps used in curve calibration, the same schedule definitions occur many times.
+ * <p>
+ * This class wraps the underlying reference data, which is used unchanged for all lookups.
+ * When passed to {@link PeriodicSchedule#createSchedule(ReferenceData)}, directly or via the
+ * {@code resolve} method of a trade or leg, the schedule is obtained from a cache keyed on
+ * the schedule definition. As the underlying reference data is fixed for the lifetime of this
+ * instance, the calendars used to adjust the dates are also fixed.
+ * <p>
+ * The cache holds the most recently used schedules up to a maximum size.
+ * Definitions that are invalid are not cached, thus the exception is thrown each time.
+ * When serialized, only the underlying reference data is retained.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class ScheduleCachingReferenceData
+    implements ReferenceData, Serializable {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+  /**
+   * The default maximum number of schedules to cache.
+   */
+  private static final int DEFAULT_MAX_SIZE = 10_000;
+
+  /**
+   * The underlying reference data.
+   */
+  private final transient ReferenceData underlying;
+  /**
+   * The maximum number of schedules to cache.
+   */
+  private final transient int maxSize;
+  /**
+   * The cache of schedules.
+   */
+  private final transient Cache<PeriodicSchedule, Schedule> cache;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance wrapping the underlying reference data, with a default cache size of 10,000.
+   *
+   * @param underlying  the underlying reference data
+   * @return the caching reference data
+   */
+  public static ScheduleCachingReferenceData of(ReferenceData underlying) {
+    return of(underlying, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Obtains an instance wrapping the underlying reference data, with the specified maximum cache size.
+   * <p>
+   * If the underlying reference data is already caching, then its underlying reference data is used.
+   *
+   * @param underlying  the underlying reference data
+   * @param maxSize  the maximum number of schedules to cache
+   * @return the caching reference data
+   */
+  public static ScheduleCachingReferenceData of(ReferenceData underlying, int maxSize) {
+    ArgChecker.notNull(underlying, "underlying");
+    ArgChecker.notNegativeOrZero(maxSize, "maxSize");
+    if (underlying instanceof ScheduleCachingReferenceData) {
+      return new ScheduleCachingReferenceData(((ScheduleCachingReferenceData) underlying).underlying, maxSize);
+    }
+    return new ScheduleCachingReferenceData(underlying, maxSize);
+  }
+
+  // restricted constructor
+  private ScheduleCachingReferenceData(ReferenceData underlying, int maxSize) {
+    this.underlying = underlying;
+    this.maxSize = maxSize;
+    this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+  }
+
+  // serialize only the underlying reference data
+  private Object writeReplace() {
+    return underlying;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the underlying reference data.
+   *
+   * @return the underlying reference data
+   */
+  public ReferenceData getUnderlying() {
+    return underlying;
+  }
+
+  /**
+   * Gets the number of schedules currently cached.
+   *
+   * @return the number of cached schedules
+   */
+  public int getCacheSize() {
+    return (int) cache.size();
+  }
+
+  /**
+   * Creates the schedule for the definition, using the cache.
+   *
+   * @param definition  the schedule definition
+   * @return the schedule
+   * @throws ScheduleException if the definition is invalid
+   */
+  Schedule schedule(PeriodicSchedule definition) {
+    Schedule cached = cache.getIfPresent(definition);
+    if (cached != null) {
+      return cached;
+    }
+    // calculated outside the lock, thus occasionally the same schedule is calculated twice
+    Schedule schedule = definition.createSchedule(underlying);
+    cache.put(definition, schedule);
+    return schedule;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean containsValue(ReferenceDataId<?> id) {
+    return underlying.containsValue(id);
+  }
+
+  @Override
+  public <T> T queryValueOrNull(ReferenceDataId<T> id) {
+    return underlying.queryValueOrNull(id);
+  }
+
+  /**
+   * Combines this reference data with another.
+   * <p>
+   * The result caches schedules in a new cache of the same maximum size,
+   * as the calendars may differ from those of this instance.
+   *
+   * @param other  the other reference data
+   * @return the combined reference data
+   */
+  @Override
+  public ReferenceData combinedWith(ReferenceData other) {
+    return new ScheduleCachingReferenceData(underlying.combinedWith(other), maxSize);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "ScheduleCachingReferenceData[" + underlying + "]";
+  }
+
+}
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.function.Predicate;
 
 import org.joda.beans.ser.JodaBeanSer;
 import org.junit.jupiter.api.Test;
@@ -474,6 +475,122 @@ public class ImmutableHolidayCalendarTest {
     assertThat(test.isHoliday(WED_2018_07_18)).isEqualTo(false);
   }
 
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_linked() {
+    ImmutableHolidayCalendar base1 =
+        ImmutableHolidayCalendar.of(TEST_ID, ImmutableList.of(MON_2014_07_14, WED_2014_07_16), SATURDAY, SUNDAY);
+    ImmutableHolidayCalendar base2 =
+        ImmutableHolidayCalendar.of(TEST_ID2, ImmutableList.of(WED_2014_07_16), FRIDAY, SATURDAY);
+
+    ImmutableHolidayCalendar test = ImmutableHolidayCalendar.linked(base1, base2);
+    assertThat(test.getId()).isEqualTo(base1.getId().linkedWith(base2.getId()));
+    assertThat(test.getName()).isEqualTo("Test1~Test2");
+    assertThat(test.getHolidays()).containsExactly(WED_2014_07_16);
+    assertThat(test.getWeekendDays()).containsExactly(SATURDAY);
+    assertThat(test.isHoliday(FRI_2014_07_11)).isEqualTo(false);
+    assertThat(test.isHoliday(SAT_2014_07_12)).isEqualTo(true);
+    assertThat(test.isHoliday(SUN_2014_07_13)).isEqualTo(false);
+    assertThat(test.isHoliday(MON_2014_07_14)).isEqualTo(false);
+    assertThat(test.isHoliday(WED_2014_07_16)).isEqualTo(true);
+  }
+
+  @Test
+  public void test_linked_same() {
+    ImmutableHolidayCalendar base =
+        ImmutableHolidayCalendar.of(TEST_ID, ImmutableList.of(MON_2014_07_14), SATURDAY, SUNDAY);
+
+    ImmutableHolidayCalendar test = ImmutableHolidayCalendar.linked(base, base);
+    assertThat(test).isSameAs(base);
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_combinedWith_merged() {
+    ImmutableHolidayCalendar base1 = ImmutableHolidayCalendar.of(
+        TEST_ID, ImmutableList.of(MON_2014_07_14, WED_2014_12_31, THU_2015_01_01), SATURDAY, SUNDAY);
+    ImmutableHolidayCalendar base2 = ImmutableHolidayCalendar.of(
+        TEST_ID2, ImmutableList.of(date(2017, 1, 2), date(2017, 6, 30)), FRIDAY, SATURDAY);
+
+    HolidayCalendar test = base1.combinedWith(base2);
+    ImmutableHolidayCalendar merged = ((CombinedHolidayCalendar) test).getMerged();
+    assertThat(merged).isNotNull();
+    assertThat(((CombinedHolidayCalendar) base1.combinedWith(base2)).getMerged()).isSameAs(merged);
+    assertMatchesReference(test, date -> base1.isHoliday(date) || base2.isHoliday(date));
+  }
+
+  @Test
+  public void test_linkedWith_merged() {
+    ImmutableHolidayCalendar base1 = ImmutableHolidayCalendar.of(
+        TEST_ID, ImmutableList.of(MON_2014_07_14, WED_2014_12_31, THU_2015_01_01), SATURDAY, SUNDAY);
+    ImmutableHolidayCalendar base2 = ImmutableHolidayCalendar.of(
+        TEST_ID2, ImmutableList.of(WED_2014_12_31, date(2017, 1, 2), date(2017, 6, 30)), FRIDAY, SATURDAY);
+
+    HolidayCalendar test = base1.linkedWith(base2);
+    ImmutableHolidayCalendar merged = ((LinkedHolidayCalendar) test).getMerged();
+    assertThat(merged).isNotNull();
+    assertThat(((LinkedHolidayCalendar) base1.linkedWith(base2)).getMerged()).isSameAs(merged);
+    assertMatchesReference(test, date -> base1.isHoliday(date) && base2.isHoliday(date));
+  }
+
+  @Test
+  public void test_combinedWith_merged_nested() {
+    ImmutableHolidayCalendar base1 =
+        ImmutableHolidayCalendar.of(TEST_ID, ImmutableList.of(MON_2014_07_14), SATURDAY, SUNDAY);
+    ImmutableHolidayCalendar base2 =
+        ImmutableHolidayCalendar.of(TEST_ID2, ImmutableList.of(WED_2014_07_16), SATURDAY, SUNDAY);
+
+    HolidayCalendar test = base1.combinedWith(base2).linkedWith(HolidayCalendars.FRI_SAT);
+    assertThat(((LinkedHolidayCalendar) test).getMerged()).isNotNull();
+    assertThat(((LinkedHolidayCalendar) base1.combinedWith(base2).linkedWith(HolidayCalendars.FRI_SAT)).getMerged())
+        .isSameAs(((LinkedHolidayCalendar) test).getMerged());
+    assertMatchesReference(
+        test, date -> (base1.isHoliday(date) || base2.isHoliday(date)) && HolidayCalendars.FRI_SAT.isHoliday(date));
+  }
+
+  @Test
+  public void test_combinedWith_notMerged() {
+    HolidayCalendar test = HolidayCalendars.FRI_SAT.combinedWith(HolidayCalendars.SAT_SUN);
+    assertThat(((CombinedHolidayCalendar) test).getMerged()).isNull();
+    HolidayCalendar test2 = HOLCAL_MON_WED.combinedWith(new HolidayCalendarTest.MockHolCal());
+    assertThat(((CombinedHolidayCalendar) test2).getMerged()).isNull();
+    assertThat(test2.shift(MON_2014_07_14, 2)).isEqualTo(THU_2014_07_17);
+  }
+
+  @Test
+  public void test_combinedWith_merged_serialization() {
+    HolidayCalendar test = HOLCAL_MON_WED.combinedWith(HOLCAL_YEAR_END);
+    assertSerialization(test);
+    assertThat(((CombinedHolidayCalendar) test).getMerged()).isNotNull();
+  }
+
+  // checks the calendar against the default implementations using the predicate
+  private static void assertMatchesReference(HolidayCalendar test, Predicate<LocalDate> holiday) {
+    HolidayCalendar reference = new HolidayCalendar() {
+      @Override
+      public boolean isHoliday(LocalDate date) {
+        return holiday.test(date);
+      }
+
+      @Override
+      public HolidayCalendarId getId() {
+        return test.getId();
+      }
+    };
+    LocalDate end = date(2019, 1, 1);
+    for (LocalDate date = date(2012, 1, 1); date.isBefore(end); date = date.plusDays(1)) {
+      assertThat(test.isHoliday(date)).as(date.toString()).isEqualTo(reference.isHoliday(date));
+      assertThat(test.shift(date, 3)).isEqualTo(reference.shift(date, 3));
+      assertThat(test.shift(date, -3)).isEqualTo(reference.shift(date, -3));
+      assertThat(test.next(date)).isEqualTo(reference.next(date));
+      assertThat(test.previous(date)).isEqualTo(reference.previous(date));
+      assertThat(test.nextSameOrLastInMonth(date)).isEqualTo(reference.nextSameOrLastInMonth(date));
+      assertThat(test.isLastBusinessDayOfMonth(date)).isEqualTo(reference.isLastBusinessDayOfMonth(date));
+      assertThat(test.lastBusinessDayOfMonth(date)).isEqualTo(reference.lastBusinessDayOfMonth(date));
+      assertThat(test.daysBetween(date, date.plusDays(40))).isEqualTo(reference.daysBetween(date, date.plusDays(40)));
+    }
+  }
+
   //-------------------------------------------------------------------------
   @Test
   public void test_isBusinessDay_outOfRange() {
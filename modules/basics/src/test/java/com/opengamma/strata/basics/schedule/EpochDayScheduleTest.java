@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.basics.schedule;
+
+import static com.opengamma.strata.basics.date.BusinessDayConventions.MODIFIED_FOLLOWING;
+import static com.opengamma.strata.basics.date.HolidayCalendarIds.GBLO;
+import static com.opengamma.strata.basics.schedule.Frequency.P3M;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.BusinessDayAdjustment;
+
+/**
+ * Test {@link EpochDaySchedule}.
+ */
+public class EpochDayScheduleTest {
+
+  private static final Schedule SCHEDULE = PeriodicSchedule.builder()
+      .startDate(date(2020, 1, 15))
+      .endDate(date(2022, 2, 15))
+      .frequency(P3M)
+      .businessDayAdjustment(BusinessDayAdjustment.of(MODIFIED_FOLLOWING, GBLO))
+      .stubConvention(StubConvention.SHORT_INITIAL)
+      .build()
+      .createSchedule(ReferenceData.standard());
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_of() {
+    EpochDaySchedule test = SCHEDULE.toEpochDaySchedule();
+    assertThat(test.size()).isEqualTo(SCHEDULE.size());
+    for (int i = 0; i < test.size(); i++) {
+      SchedulePeriod period = SCHEDULE.getPeriod(i);
+      assertThat(test.getStartDay(i)).isEqualTo(period.getStartDate().toEpochDay());
+      assertThat(test.getEndDay(i)).isEqualTo(period.getEndDate().toEpochDay());
+      assertThat(test.getUnadjustedStartDay(i)).isEqualTo(period.getUnadjustedStartDate().toEpochDay());
+      assertThat(test.getUnadjustedEndDay(i)).isEqualTo(period.getUnadjustedEndDate().toEpochDay());
+      assertThat(test.lengthInDays(i)).isEqualTo(period.lengthInDays());
+    }
+    assertThat(test.toSchedule(SCHEDULE.getFrequency(), SCHEDULE.getRollConvention())).isEqualTo(SCHEDULE);
+  }
+
+  @Test
+  public void test_findPeriodIndex() {
+    EpochDaySchedule test = EpochDaySchedule.of(SCHEDULE);
+    LocalDate start = SCHEDULE.getStartDate();
+    for (LocalDate date = start.minusDays(5); date.isBefore(SCHEDULE.getEndDate().plusDays(5)); date = date.plusDays(1)) {
+      int expected = -1;
+      for (int i = 0; i < SCHEDULE.size(); i++) {
+        if (SCHEDULE.getPeriod(i).contains(date)) {
+          expected = i;
+          break;
+        }
+      }
+      assertThat(test.findPeriodIndex(date)).as(date.toString()).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void coverage() {
+    EpochDaySchedule test = EpochDaySchedule.of(SCHEDULE);
+    assertThat(test)
+        .isEqualTo(test)
+        .isEqualTo(EpochDaySchedule.of(SCHEDULE))
+        .isNotEqualTo(EpochDaySchedule.of(SCHEDULE.mergeToTerm()))
+        .isNotEqualTo("")
+        .hasSameHashCodeAs(EpochDaySchedule.of(SCHEDULE));
+    assertThat(test.toString()).isEqualTo("EpochDaySchedule[size=" + SCHEDULE.size() + "]");
+  }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.basics.schedule;
+
+import static com.opengamma.strata.basics.date.BusinessDayConventions.MODIFIED_FOLLOWING;
+import static com.opengamma.strata.basics.date.HolidayCalendarIds.GBLO;
+import static com.opengamma.strata.basics.date.HolidayCalendarIds.USNY;
+import static com.opengamma.strata.basics.schedule.Frequency.P3M;
+import static com.opengamma.strata.basics.schedule.Frequency.P6M;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.BusinessDayAdjustment;
+import com.opengamma.strata.basics.date.HolidayCalendars;
+
+/**
+ * Test {@link ScheduleCachingReferenceData}.
+ */
+public class ScheduleCachingReferenceDataTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final BusinessDayAdjustment BDA = BusinessDayAdjustment.of(MODIFIED_FOLLOWING, GBLO.combinedWith(USNY));
+
+  private static PeriodicSchedule definition(LocalDate start, Frequency frequency) {
+    return PeriodicSchedule.builder()
+        .startDate(start)
+        .endDate(start.plusYears(5))
+        .frequency(frequency)
+        .businessDayAdjustment(BDA)
+        .stubConvention(StubConvention.SMART_INITIAL)
+        .build();
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_createSchedule() {
+    ScheduleCachingReferenceData test = ScheduleCachingReferenceData.of(REF_DATA);
+    assertThat(test.getUnderlying()).isSameAs(REF_DATA);
+    assertThat(test.getCacheSize()).isEqualTo(0);
+    PeriodicSchedule definition = definition(date(2020, 1, 15), P3M);
+    Schedule schedule = definition.createSchedule(test);
+    assertThat(schedule).isEqualTo(definition.createSchedule(REF_DATA));
+    assertThat(test.getCacheSize()).isEqualTo(1);
+    // an equal definition returns the cached instance
+    assertThat(definition(date(2020, 1, 15), P3M).createSchedule(test)).isSameAs(schedule);
+    assertThat(test.getCacheSize()).isEqualTo(1);
+    // a different definition is calculated
+    Schedule schedule2 = definition(date(2020, 1, 15), P6M).createSchedule(test);
+    assertThat(schedule2).isEqualTo(definition(date(2020, 1, 15), P6M).createSchedule(REF_DATA));
+    assertThat(test.getCacheSize()).isEqualTo(2);
+  }
+
+  @Test
+  public void test_maxSize() {
+    ScheduleCachingReferenceData test = ScheduleCachingReferenceData.of(REF_DATA, 10);
+    for (int i = 0; i < 30; i++) {
+      PeriodicSchedule definition = definition(date(2020, 1, 1).plusDays(i), P3M);
+      assertThat(definition.createSchedule(test)).isEqualTo(definition.createSchedule(REF_DATA));
+    }
+    assertThat(test.getCacheSize()).isEqualTo(10);
+  }
+
+  @Test
+  public void test_invalidNotCached() {
+    ScheduleCachingReferenceData test = ScheduleCachingReferenceData.of(REF_DATA);
+    PeriodicSchedule definition = PeriodicSchedule.builder()
+        .startDate(date(2020, 1, 15))
+        .endDate(date(2021, 2, 1))
+        .frequency(P3M)
+        .businessDayAdjustment(BDA)
+        .build();
+    assertThatExceptionOfType(ScheduleException.class).isThrownBy(() -> definition.createSchedule(test));
+    assertThatExceptionOfType(ScheduleException.class).isThrownBy(() -> definition.createSchedule(test));
+    assertThat(test.getCacheSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void test_lookupAndCombine() {
+    ScheduleCachingReferenceData test = ScheduleCachingReferenceData.of(REF_DATA);
+    assertThat(test.containsValue(GBLO)).isTrue();
+    assertThat(test.getValue(GBLO)).isEqualTo(REF_DATA.getValue(GBLO));
+    ReferenceData other = ReferenceData.of(ImmutableMap.of(GBLO, HolidayCalendars.NO_HOLIDAYS));
+    ReferenceData combined = ReferenceData.of(ImmutableMap.of()).combinedWith(test);
+    assertThat(combined.getValue(USNY)).isEqualTo(REF_DATA.getValue(USNY));
+    ReferenceData combined2 = test.combinedWith(other);
+    assertThat(combined2).isInstanceOf(ScheduleCachingReferenceData.class);
+    assertThat(combined2.getValue(GBLO)).isEqualTo(REF_DATA.getValue(GBLO));
+    assertThat(ScheduleCachingReferenceData.of(test).getUnderlying()).isSameAs(REF_DATA);
+    assertThat(test.toString()).startsWith("ScheduleCachingReferenceData[");
+  }
+
+  @Test
+  public void test_serialization() throws Exception {
+    ReferenceData underlying = ReferenceData.of(ImmutableMap.of(GBLO, HolidayCalendars.NO_HOLIDAYS));
+    ScheduleCachingReferenceData test = ScheduleCachingReferenceData.of(underlying);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(test);
+    }
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      assertThat(ois.readObject()).isEqualTo(underlying);
+    }
+  }
+
+}
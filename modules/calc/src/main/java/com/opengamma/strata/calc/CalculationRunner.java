@@ -10,8 +10,12 @@ import java.util.concurrent.ExecutorService;
 
 import com.opengamma.strata.basics.CalculationTarget;
 import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.calc.marketdata.ChunkedScenarioMarketData;
+import com.opengamma.strata.calc.runner.CalculationHandle;
 import com.opengamma.strata.calc.runner.CalculationListener;
+import com.opengamma.strata.calc.runner.CalculationSchedule;
 import com.opengamma.strata.calc.runner.CalculationTaskRunner;
+import com.opengamma.strata.calc.runner.CalculationTasks;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 
@@ -25,6 +29,8 @@ import com.opengamma.strata.data.scenario.ScenarioMarketData;
  * Once obtained, the {@code CalculationRunner} instance may be used to calculate results.
  * The four "calculate" methods handle the combination of single versus scenario market data,
  * and synchronous versus asynchronous.
+ * The asynchronous methods may also be passed a {@link CalculationSchedule}, defining the priority
+ * of the calculations and a timeout, returning a {@link CalculationHandle} that allows the run to be cancelled.
  * <p>
  * A calculation runner is typically obtained using the static methods on this interface.
  * The instance contains an executor thread-pool, thus care should be taken to ensure
@@ -158,6 +164,103 @@ public interface CalculationRunner extends AutoCloseable {
       ReferenceData refData,
       CalculationListener listener);
 
+  //-------------------------------------------------------------------------
+  /**
+   * Performs calculations asynchronously for a single set of market data, applying a schedule.
+   * <p>
+   * The calculations are ordered by the priority of the schedule, allowing latency-sensitive
+   * calculations to overtake those of other runs, such as an end-of-day batch.
+   * The returned handle allows the run to be cancelled.
+   * If the run is cancelled, or the timeout of the schedule elapses, each cell that has not yet been
+   * received by the listener is completed with a failure and the listener is notified that
+   * the calculations are complete.
+   * 
+   * @param calculationRules  the rules defining how the calculation is performed
+   * @param targets  the targets for which values of the measures will be calculated
+   * @param columns  the configuration for the columns that will be calculated,
+   *   including the measure and any column-specific overrides
+   * @param marketData  the market data to be used in the calculations
+   * @param refData  the reference data to be used in the calculations
+   * @param listener  listener that is invoked when individual results are calculated
+   * @param schedule  the schedule of the calculations
+   * @return the handle on the run
+   */
+  public default CalculationHandle calculateAsync(
+      CalculationRules calculationRules,
+      List<? extends CalculationTarget> targets,
+      List<Column> columns,
+      MarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener,
+      CalculationSchedule schedule) {
+
+    CalculationTasks tasks = CalculationTasks.of(calculationRules, targets, columns, refData);
+    return getTaskRunner().calculateAsync(tasks, marketData, refData, listener, schedule);
+  }
+
+  /**
+   * Performs calculations asynchronously for multiple scenarios, applying a schedule.
+   * <p>
+   * The calculations are ordered by the priority of the schedule, allowing latency-sensitive
+   * calculations to overtake those of other runs, such as an end-of-day batch.
+   * The returned handle allows the run to be cancelled.
+   * If the run is cancelled, or the timeout of the schedule elapses, each cell that has not yet been
+   * received by the listener is completed with a failure and the listener is notified that
+   * the calculations are complete.
+   * 
+   * @param calculationRules  the rules defining how the calculation is performed
+   * @param targets  the targets for which values of the measures will be calculated
+   * @param columns  the configuration for the columns that will be calculated,
+   *   including the measure and any column-specific overrides
+   * @param marketData  the market data to be used in the calculations
+   * @param refData  the reference data to be used in the calculations
+   * @param listener  listener that is invoked when individual results are calculated
+   * @param schedule  the schedule of the calculations
+   * @return the handle on the run
+   */
+  public default CalculationHandle calculateMultiScenarioAsync(
+      CalculationRules calculationRules,
+      List<? extends CalculationTarget> targets,
+      List<Column> columns,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener,
+      CalculationSchedule schedule) {
+
+    CalculationTasks tasks = CalculationTasks.of(calculationRules, targets, columns, refData);
+    return getTaskRunner().calculateMultiScenarioAsync(tasks, marketData, refData, listener, schedule);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Performs calculations for multiple scenarios, building the market data in chunks of scenarios.
+   * <p>
+   * This returns a grid of results based on the specified targets, columns, rules and market data.
+   * The grid will contain a row for each target and a column for each measure.
+   * <p>
+   * The market data for each chunk of scenarios is built on demand, and discarded once the
+   * calculations for the chunk are complete. This bounds the memory used by the market data
+   * when there are a large number of scenarios, such as a historical VaR lookback.
+   * 
+   * @param calculationRules  the rules defining how the calculation is performed
+   * @param targets  the targets for which values of the measures will be calculated
+   * @param columns  the configuration for the columns that will be calculated,
+   *   including the measure and any column-specific overrides
+   * @param marketData  the market data to be used in the calculations, built on demand in chunks
+   * @param refData  the reference data to be used in the calculations
+   * @return the grid of calculation results, based on the targets and columns
+   */
+  public default Results calculateMultiScenario(
+      CalculationRules calculationRules,
+      List<? extends CalculationTarget> targets,
+      List<Column> columns,
+      ChunkedScenarioMarketData marketData,
+      ReferenceData refData) {
+
+    CalculationTasks tasks = CalculationTasks.of(calculationRules, targets, columns, refData);
+    return getTaskRunner().calculateMultiScenario(tasks, marketData, refData);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets the underlying task runner.
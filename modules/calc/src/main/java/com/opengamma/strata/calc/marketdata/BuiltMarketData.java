@@ -5,6 +5,7 @@
  */
 package com.opengamma.strata.calc.marketdata;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -46,7 +47,7 @@ import com.opengamma.strata.data.ObservableId;
  */
 @BeanDefinition(builderScope = "private", constructorScope = "package")
 public final class BuiltMarketData
-    implements MarketData, ImmutableBean {
+    implements MarketData, ImmutableBean, Serializable {
 
   /**
    * The underlying market data.
@@ -128,6 +129,11 @@ public final class BuiltMarketData
     MetaBean.register(BuiltMarketData.Meta.INSTANCE);
   }
 
+  /**
+   * The serialization version id.
+   */
+  private static final long serialVersionUID = 1L;
+
   /**
    * Creates an instance.
    * @param underlying  the value of the property, not null
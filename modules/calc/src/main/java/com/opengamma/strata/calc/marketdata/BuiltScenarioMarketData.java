@@ -5,6 +5,7 @@
  */
 package com.opengamma.strata.calc.marketdata;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -52,7 +53,7 @@ import com.opengamma.strata.data.scenario.ScenarioMarketData;
  */
 @BeanDefinition(builderScope = "private", constructorScope = "package")
 public final class BuiltScenarioMarketData
-    implements ScenarioMarketData, ImmutableBean {
+    implements ScenarioMarketData, ImmutableBean, Serializable {
 
   /** An instance containing no market data. */
   private static final BuiltScenarioMarketData EMPTY = new BuiltScenarioMarketData(
@@ -184,6 +185,11 @@ public final class BuiltScenarioMarketData
     MetaBean.register(BuiltScenarioMarketData.Meta.INSTANCE);
   }
 
+  /**
+   * The serialization version id.
+   */
+  private static final long serialVersionUID = 1L;
+
   /**
    * Creates an instance.
    * @param underlying  the value of the property, not null
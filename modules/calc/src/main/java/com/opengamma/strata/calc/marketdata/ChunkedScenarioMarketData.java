@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.marketdata;
+
+import java.time.LocalDate;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.data.MarketData;
+
+/**
+ * Scenario market data that is built lazily in bounded chunks of scenarios.
+ * <p>
+ * Building the market data for a large number of scenarios at once, for example a long
+ * historical lookback, requires every perturbed curve for every scenario to be held in memory.
+ * This class instead holds the base market data and the scenario definition, and builds the
+ * market data for a contiguous range of scenarios on demand.
+ * <p>
+ * Each chunk is built by applying the {@linkplain ScenarioDefinition#subset(int, int) subset}
+ * of the scenario definition to the base market data using the market data factory.
+ * Once the calculations for a chunk are complete, the chunk can be garbage collected.
+ * <p>
+ * This class is immutable and thread-safe if the market data factory is.
+ */
+public final class ChunkedScenarioMarketData {
+
+  /**
+   * The factory used to build the market data for each chunk.
+   */
+  private final MarketDataFactory marketDataFactory;
+  /**
+   * The configuration needed to build non-observable market data.
+   */
+  private final MarketDataConfig marketDataConfig;
+  /**
+   * The base market data that is perturbed by the scenarios.
+   */
+  private final MarketData baseMarketData;
+  /**
+   * The scenario definition.
+   */
+  private final ScenarioDefinition scenarioDefinition;
+  /**
+   * The maximum number of scenarios in each chunk.
+   */
+  private final int chunkSize;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   * <p>
+   * The scenario definition must contain at least one scenario.
+   *
+   * @param marketDataFactory  the factory used to build the market data for each chunk
+   * @param marketDataConfig  the configuration needed to build non-observable market data
+   * @param baseMarketData  the base market data that is perturbed by the scenarios
+   * @param scenarioDefinition  the scenario definition
+   * @param chunkSize  the maximum number of scenarios built at the same time
+   * @return the chunked market data
+   */
+  public static ChunkedScenarioMarketData of(
+      MarketDataFactory marketDataFactory,
+      MarketDataConfig marketDataConfig,
+      MarketData baseMarketData,
+      ScenarioDefinition scenarioDefinition,
+      int chunkSize) {
+
+    return new ChunkedScenarioMarketData(
+        marketDataFactory, marketDataConfig, baseMarketData, scenarioDefinition, chunkSize);
+  }
+
+  // restricted constructor
+  private ChunkedScenarioMarketData(
+      MarketDataFactory marketDataFactory,
+      MarketDataConfig marketDataConfig,
+      MarketData baseMarketData,
+      ScenarioDefinition scenarioDefinition,
+      int chunkSize) {
+
+    this.marketDataFactory = ArgChecker.notNull(marketDataFactory, "marketDataFactory");
+    this.marketDataConfig = ArgChecker.notNull(marketDataConfig, "marketDataConfig");
+    this.baseMarketData = ArgChecker.notNull(baseMarketData, "baseMarketData");
+    this.scenarioDefinition = ArgChecker.notNull(scenarioDefinition, "scenarioDefinition");
+    this.chunkSize = ArgChecker.notNegativeOrZero(chunkSize, "chunkSize");
+    ArgChecker.isTrue(scenarioDefinition.getScenarioCount() > 0, "Scenario definition must contain at least one scenario");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the valuation date of the base market data.
+   *
+   * @return the valuation date
+   */
+  public LocalDate getValuationDate() {
+    return baseMarketData.getValuationDate();
+  }
+
+  /**
+   * Gets the scenario definition.
+   *
+   * @return the scenario definition
+   */
+  public ScenarioDefinition getScenarioDefinition() {
+    return scenarioDefinition;
+  }
+
+  /**
+   * Gets the total number of scenarios.
+   *
+   * @return the number of scenarios
+   */
+  public int getScenarioCount() {
+    return scenarioDefinition.getScenarioCount();
+  }
+
+  /**
+   * Gets the maximum number of scenarios in each chunk.
+   *
+   * @return the chunk size
+   */
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * Gets the number of chunks.
+   *
+   * @return the number of chunks
+   */
+  public int getChunkCount() {
+    return (getScenarioCount() + chunkSize - 1) / chunkSize;
+  }
+
+  /**
+   * Gets the index of the first scenario in the specified chunk.
+   *
+   * @param chunkIndex  the zero-based index of the chunk
+   * @return the index of the first scenario in the chunk
+   * @throws IllegalArgumentException if the chunk index is invalid
+   */
+  public int getChunkStart(int chunkIndex) {
+    ArgChecker.inRange(chunkIndex, 0, getChunkCount(), "chunkIndex");
+    return chunkIndex * chunkSize;
+  }
+
+  /**
+   * Gets the number of scenarios in the specified chunk.
+   * <p>
+   * This is the chunk size for all chunks except the last, which may be smaller.
+   *
+   * @param chunkIndex  the zero-based index of the chunk
+   * @return the number of scenarios in the chunk
+   * @throws IllegalArgumentException if the chunk index is invalid
+   */
+  public int getChunkScenarioCount(int chunkIndex) {
+    int start = getChunkStart(chunkIndex);
+    return Math.min(chunkSize, getScenarioCount() - start);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Builds the market data for the scenarios in the specified chunk.
+   * <p>
+   * Scenario {@code i} of the result is scenario {@code getChunkStart(chunkIndex) + i}
+   * of the scenario definition.
+   *
+   * @param chunkIndex  the zero-based index of the chunk
+   * @param requirements  the market data required for the calculations
+   * @param refData  the reference data
+   * @return the market data for the scenarios in the chunk
+   * @throws IllegalArgumentException if the chunk index is invalid
+   */
+  public BuiltScenarioMarketData buildChunk(
+      int chunkIndex,
+      MarketDataRequirements requirements,
+      ReferenceData refData) {
+
+    int start = getChunkStart(chunkIndex);
+    int end = start + getChunkScenarioCount(chunkIndex);
+    ScenarioDefinition chunkDefinition = scenarioDefinition.subset(start, end);
+    return marketDataFactory.createMultiScenario(
+        requirements, marketDataConfig, baseMarketData, refData, chunkDefinition);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return Messages.format(
+        "ChunkedScenarioMarketData[scenarios={}, chunkSize={}]", getScenarioCount(), chunkSize);
+  }
+
+}
@@ -18,6 +18,8 @@ import java.util.Set;
 import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.collect.MapStream;
+import com.opengamma.strata.collect.metrics.Metrics;
+import com.opengamma.strata.collect.metrics.MetricsListener;
 import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.collect.tuple.Pair;
 import com.opengamma.strata.data.MarketData;
@@ -231,7 +233,14 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
     if (marketDataFunction == null) {
       throw new IllegalStateException("No market data function available for market data ID of type " + idClass.getName());
     }
-    return Result.of(() -> marketDataFunction.build(id, marketDataConfig, suppliedData, refData));
+    MetricsListener metrics = Metrics.listener();
+    if (!Metrics.isEnabled(metrics)) {
+      return Result.of(() -> marketDataFunction.build(id, marketDataConfig, suppliedData, refData));
+    }
+    long start = System.nanoTime();
+    Result<MarketDataBox<?>> result = Result.of(() -> marketDataFunction.build(id, marketDataConfig, suppliedData, refData));
+    metrics.marketDataBuilt(id, result.isSuccess(), System.nanoTime() - start);
+    return result;
   }
 
   @SuppressWarnings("unchecked")
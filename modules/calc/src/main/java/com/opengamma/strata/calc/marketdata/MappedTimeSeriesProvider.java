@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.marketdata;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesStore;
+import com.opengamma.strata.data.ObservableId;
+
+/**
+ * A time-series provider that serves time-series from a memory-mapped binary file.
+ * <p>
+ * The file is written using {@link #write(Path, Map)} and is typically produced once,
+ * for example from CSV files of historical fixings. Opening the file only reads the index,
+ * with the time-series data held off-heap and read on demand.
+ * See {@link LocalDateDoubleTimeSeriesStore} for details of the format.
+ * <p>
+ * Each time-series is stored under a name derived from the standard identifier, field name
+ * and observable source of the {@link ObservableId}. As such, two identifiers of different types
+ * that share these three elements refer to the same time-series.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class MappedTimeSeriesProvider implements TimeSeriesProvider {
+
+  /**
+   * The underlying store.
+   */
+  private final LocalDateDoubleTimeSeriesStore store;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Writes the time-series to a file, suitable for use by this provider.
+   * <p>
+   * Any existing file will be replaced.
+   *
+   * @param file  the file to write
+   * @param timeSeries  the time-series to write
+   * @throws UncheckedIOException if an IO error occurs
+   * @throws IllegalArgumentException if two identifiers map to the same name
+   */
+  public static void write(Path file, Map<? extends ObservableId, ? extends LocalDateDoubleTimeSeries> timeSeries) {
+    ArgChecker.notNull(timeSeries, "timeSeries");
+    Map<String, LocalDateDoubleTimeSeries> named = new HashMap<>();
+    for (Entry<? extends ObservableId, ? extends LocalDateDoubleTimeSeries> entry : timeSeries.entrySet()) {
+      if (named.put(name(entry.getKey()), entry.getValue()) != null) {
+        throw new IllegalArgumentException("Duplicate time-series name for identifier: " + entry.getKey());
+      }
+    }
+    LocalDateDoubleTimeSeriesStore.write(file, named);
+  }
+
+  /**
+   * Obtains an instance by opening a file previously written by {@link #write(Path, Map)}.
+   *
+   * @param file  the file to open
+   * @return the provider
+   * @throws UncheckedIOException if an IO error occurs
+   * @throws IllegalArgumentException if the file is not in the expected format
+   */
+  public static MappedTimeSeriesProvider open(Path file) {
+    return new MappedTimeSeriesProvider(LocalDateDoubleTimeSeriesStore.open(file));
+  }
+
+  /**
+   * Obtains an instance from a store.
+   *
+   * @param store  the store
+   * @return the provider
+   */
+  public static MappedTimeSeriesProvider of(LocalDateDoubleTimeSeriesStore store) {
+    return new MappedTimeSeriesProvider(store);
+  }
+
+  // restricted constructor
+  private MappedTimeSeriesProvider(LocalDateDoubleTimeSeriesStore store) {
+    this.store = ArgChecker.notNull(store, "store");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the underlying store.
+   *
+   * @return the store
+   */
+  public LocalDateDoubleTimeSeriesStore getStore() {
+    return store;
+  }
+
+  @Override
+  public Result<LocalDateDoubleTimeSeries> provideTimeSeries(ObservableId identifier) {
+    Optional<LocalDateDoubleTimeSeries> found = store.find(name(identifier));
+    if (found.isPresent()) {
+      return Result.success(found.get());
+    }
+    return Result.failure(FailureReason.MISSING_DATA, "No time-series found in store for '{}'", identifier);
+  }
+
+  // the name of the time-series in the store
+  private static String name(ObservableId identifier) {
+    return identifier.getStandardId() + "/" + identifier.getFieldName() + "/" + identifier.getObservableSource();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "MappedTimeSeriesProvider[" + store + "]";
+  }
+
+}
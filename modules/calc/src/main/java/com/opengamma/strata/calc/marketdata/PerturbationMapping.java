@@ -115,6 +115,21 @@ public final class PerturbationMapping<T> implements ImmutableBean {
     return perturbation.getScenarioCount();
   }
 
+  /**
+   * Returns a mapping that applies a contiguous range of the perturbations in this mapping.
+   * <p>
+   * The filter is unchanged, the perturbation is replaced by its
+   * {@linkplain ScenarioPerturbation#subset(int, int) subset}.
+   *
+   * @param fromIndexInclusive  the index of the first scenario, inclusive
+   * @param toIndexExclusive  the index of the last scenario, exclusive
+   * @return a mapping for the specified range of scenarios
+   * @throws IllegalArgumentException if the range is invalid
+   */
+  public PerturbationMapping<T> subset(int fromIndexInclusive, int toIndexExclusive) {
+    return new PerturbationMapping<>(marketDataType, filter, perturbation.subset(fromIndexInclusive, toIndexExclusive));
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   /**
    * The meta-bean for {@code PerturbationMapping}.
@@ -296,6 +296,29 @@ public final class ScenarioDefinition implements ImmutableBean {
     return scenarioNames.size();
   }
 
+  /**
+   * Returns a scenario definition containing a contiguous range of the scenarios in this definition.
+   * <p>
+   * Each mapping is reduced to the perturbations for the selected scenarios, and the scenario names
+   * are retained. This allows the market data for a large number of scenarios to be built in chunks.
+   *
+   * @param fromIndexInclusive  the index of the first scenario, inclusive
+   * @param toIndexExclusive  the index of the last scenario, exclusive
+   * @return a scenario definition containing the specified range of scenarios
+   * @throws IllegalArgumentException if the range is invalid
+   */
+  public ScenarioDefinition subset(int fromIndexInclusive, int toIndexExclusive) {
+    ArgChecker.inRange(fromIndexInclusive, 0, getScenarioCount(), "fromIndexInclusive");
+    ArgChecker.inRangeInclusive(toIndexExclusive, fromIndexInclusive + 1, getScenarioCount(), "toIndexExclusive");
+    if (fromIndexInclusive == 0 && toIndexExclusive == getScenarioCount()) {
+      return this;
+    }
+    ImmutableList<PerturbationMapping<?>> subsetMappings = mappings.stream()
+        .map(mapping -> mapping.subset(fromIndexInclusive, toIndexExclusive))
+        .collect(toImmutableList());
+    return new ScenarioDefinition(subsetMappings, scenarioNames.subList(fromIndexInclusive, toIndexExclusive));
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   /**
    * The meta-bean for {@code ScenarioDefinition}.
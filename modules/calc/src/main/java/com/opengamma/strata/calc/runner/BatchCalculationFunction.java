@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.calc.CalculationRunner;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * A calculation function that can calculate measures for many targets at once.
+ * <p>
+ * The {@link CalculationRunner} invokes {@link CalculationFunction#calculate} once for each target.
+ * Implementing this interface allows the runner to group the tasks that use the same function and
+ * calculation parameters into batches, invoking {@link #calculateBatch} once for each batch.
+ * This allows work that does not depend on the target to be shared between the targets of the batch,
+ * such as creating the market data view or the rates provider for each scenario.
+ * <p>
+ * The targets of a batch are all of the {@linkplain #targetType() target type} of the function.
+ * Each batch is calculated on a single thread, and different batches may be calculated in parallel.
+ * If the batch throws an exception, the runner calculates each target of the batch separately,
+ * thus a single bad target does not cause the other targets of the batch to fail.
+ * <p>
+ * The default implementation of {@code calculate} invokes {@code calculateBatch} with a batch of one target.
+ *
+ * @param <T>  the type of target handled by this function
+ */
+public interface BatchCalculationFunction<T extends CalculationTarget>
+    extends CalculationFunction<T> {
+
+  /**
+   * Gets the maximum number of targets in a batch.
+   * <p>
+   * Larger batches share more work, but reduce the number of batches that can be calculated in parallel.
+   * The runner may use smaller batches, such that the targets are spread across all its threads.
+   * The default is 250.
+   *
+   * @return the maximum batch size
+   */
+  public default int maxBatchSize() {
+    return 250;
+  }
+
+  /**
+   * Calculates values of multiple measures for multiple targets using multiple sets of market data.
+   * <p>
+   * The list of measures contains one set for each target, in the same order as the targets.
+   * Each set must only contain measures that the function supports, as returned by {@link #supportedMeasures()}.
+   * The market data must provide at least the set of data requested by
+   * {@link #requirements(CalculationTarget, Set, CalculationParameters, ReferenceData)} for each target.
+   * <p>
+   * The result contains one map for each target, in the same order as the targets.
+   * Each map is as would be returned by
+   * {@link #calculate(CalculationTarget, Set, CalculationParameters, ScenarioMarketData, ReferenceData)}.
+   *
+   * @param targets  the targets of the calculation
+   * @param measures  the set of measures to calculate for each target
+   * @param parameters  the parameters that affect how the calculation is performed, shared by all targets
+   * @param marketData  the multi-scenario market data to be used in the calculation
+   * @param refData  the reference data to be used in the calculation
+   * @return the read-only list of maps of calculated values, keyed by their measure, one for each target
+   */
+  public abstract List<Map<Measure, Result<?>>> calculateBatch(
+      List<? extends T> targets,
+      List<Set<Measure>> measures,
+      CalculationParameters parameters,
+      ScenarioMarketData marketData,
+      ReferenceData refData);
+
+  @Override
+  public default Map<Measure, Result<?>> calculate(
+      T target,
+      Set<Measure> measures,
+      CalculationParameters parameters,
+      ScenarioMarketData marketData,
+      ReferenceData refData) {
+
+    return calculateBatch(ImmutableList.of(target), ImmutableList.of(measures), parameters, marketData, refData).get(0);
+  }
+
+}
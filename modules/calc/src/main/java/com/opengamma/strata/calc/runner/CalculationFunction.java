@@ -99,6 +99,26 @@ public interface CalculationFunction<T extends CalculationTarget> {
    */
   public abstract Currency naturalCurrency(T target, ReferenceData refData);
 
+  /**
+   * Returns a key that determines the market data requirements of the specified target.
+   * <p>
+   * When gathering requirements, the runner determines the requirements once for each distinct
+   * combination of function, key, measures, reporting currencies and parameters.
+   * Targets with equal keys must therefore have the same requirements, as returned by
+   * {@link #requirements(CalculationTarget, Set, CalculationParameters, ReferenceData)}.
+   * This should be overridden to return only the data that the requirements depend on,
+   * for example the currencies and indices of a swap, allowing trades that differ only
+   * in their identifier, notional or dates to share the requirements.
+   * <p>
+   * The default implementation returns the target, thus only equal targets share the requirements.
+   *
+   * @param target  the target of the calculation
+   * @return the key determining the market data requirements of the target
+   */
+  public default Object requirementsKey(T target) {
+    return target;
+  }
+
   /**
    * Determines the market data required by this function to perform its calculations.
    * <p>
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+/**
+ * A handle on a calculation run that has been started asynchronously.
+ * <p>
+ * This is returned by the scheduled "calculate" methods of {@link CalculationTaskRunner}.
+ * It allows the run to be cancelled, and its state to be queried.
+ * <p>
+ * When a run is cancelled or times out, every cell that has not yet been received by the listener
+ * is completed with a failure, and the listener is then notified that the calculations are complete.
+ * Calculations that have not started are not run, and the results of calculations
+ * that are in progress are discarded.
+ * <p>
+ * Implementations must be thread-safe.
+ */
+public interface CalculationHandle {
+
+  /**
+   * Cancels the run.
+   * <p>
+   * Each cell that has not yet been received by the listener is completed with a failure
+   * with reason {@link com.opengamma.strata.collect.result.FailureReason#CANCELLED CANCELLED}.
+   * This has no effect if the run is already done.
+   *
+   * @return true if the run was cancelled by this call, false if it was already done
+   */
+  public abstract boolean cancel();
+
+  /**
+   * Checks if the run is done.
+   * <p>
+   * A run is done when the listener has been notified that the calculations are complete,
+   * whether the run completed normally, was cancelled or timed out.
+   *
+   * @return true if the run is done
+   */
+  public abstract boolean isDone();
+
+  /**
+   * Checks if the run was cancelled.
+   *
+   * @return true if the run was cancelled before it completed normally
+   */
+  public abstract boolean isCancelled();
+
+  /**
+   * Checks if the run timed out.
+   *
+   * @return true if the timeout of the run elapsed before it completed normally
+   */
+  public abstract boolean isTimedOut();
+
+}
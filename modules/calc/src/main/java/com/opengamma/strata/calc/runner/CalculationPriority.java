@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Provides the priority of each cell in a grid of calculations.
+ * <p>
+ * The priority is used by {@link CalculationTaskRunner} to order calculations waiting to be run.
+ * Calculations with a higher priority are run before those with a lower priority,
+ * including calculations from other runs that are already waiting.
+ * Calculations of equal priority are run in the order they were submitted.
+ * <p>
+ * For example, calculations for the trades on a live blotter might be given a higher priority
+ * than an end-of-day batch, so that they do not wait for the batch to complete.
+ * <p>
+ * Where several cells are calculated together, the highest priority of the cells is used.
+ */
+@FunctionalInterface
+public interface CalculationPriority {
+
+  /**
+   * The normal priority, zero, used when no priority is specified.
+   */
+  public static final CalculationPriority NORMAL = of(0);
+
+  /**
+   * Obtains an instance where every cell has the same priority.
+   *
+   * @param priority  the priority, higher values are calculated first
+   * @return the priority
+   */
+  public static CalculationPriority of(int priority) {
+    return (target, column) -> priority;
+  }
+
+  /**
+   * Obtains an instance where the specified targets have a different priority to the other targets.
+   *
+   * @param targets  the targets to prioritize
+   * @param targetPriority  the priority of the specified targets
+   * @param otherPriority  the priority of the other targets
+   * @return the priority
+   */
+  public static CalculationPriority ofTargets(
+      Set<? extends CalculationTarget> targets,
+      int targetPriority,
+      int otherPriority) {
+
+    ArgChecker.notNull(targets, "targets");
+    Set<CalculationTarget> prioritized = ImmutableSet.copyOf(targets);
+    return (target, column) -> prioritized.contains(target) ? targetPriority : otherPriority;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the priority of the calculation of a cell.
+   * <p>
+   * Higher values are calculated first.
+   *
+   * @param target  the target of the cell, such as a trade
+   * @param column  the column of the cell
+   * @return the priority of the cell
+   */
+  public abstract int priority(CalculationTarget target, Column column);
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The scheduling of a calculation run, defining its priority and deadline.
+ * <p>
+ * This is passed to the scheduled "calculate" methods of {@link CalculationTaskRunner}.
+ * The priority determines the order in which the calculations are run relative to other
+ * waiting calculations, see {@link CalculationPriority}.
+ * <p>
+ * The timeout is the time allowed for the run, measured from the start of the run.
+ * When the timeout elapses, every cell that has not yet been received by the listener
+ * is completed with a failure with reason {@link com.opengamma.strata.collect.result.FailureReason#TIMEOUT TIMEOUT}.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class CalculationSchedule {
+
+  /**
+   * The default schedule, with normal priority and no timeout.
+   */
+  public static final CalculationSchedule DEFAULT = new CalculationSchedule(CalculationPriority.NORMAL, null);
+
+  /**
+   * The priority of the cells.
+   */
+  private final CalculationPriority priority;
+  /**
+   * The time allowed for the run, null if there is no limit.
+   */
+  private final Duration timeout;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance with the specified priority and no timeout.
+   *
+   * @param priority  the priority of the cells
+   * @return the schedule
+   */
+  public static CalculationSchedule of(CalculationPriority priority) {
+    return new CalculationSchedule(priority, null);
+  }
+
+  /**
+   * Obtains an instance with the specified priority and timeout.
+   *
+   * @param priority  the priority of the cells
+   * @param timeout  the time allowed for the run, measured from the start of the run
+   * @return the schedule
+   */
+  public static CalculationSchedule of(CalculationPriority priority, Duration timeout) {
+    ArgChecker.notNull(timeout, "timeout");
+    return new CalculationSchedule(priority, timeout);
+  }
+
+  // restricted constructor
+  private CalculationSchedule(CalculationPriority priority, Duration timeout) {
+    this.priority = ArgChecker.notNull(priority, "priority");
+    if (timeout != null) {
+      ArgChecker.isFalse(timeout.isNegative() || timeout.isZero(), "Timeout must be positive, but was {}", timeout);
+    }
+    this.timeout = timeout;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the priority of the cells.
+   *
+   * @return the priority
+   */
+  public CalculationPriority getPriority() {
+    return priority;
+  }
+
+  /**
+   * Gets the time allowed for the run, measured from the start of the run.
+   * <p>
+   * If empty, the run is not limited in time.
+   *
+   * @return the timeout, empty if there is no limit
+   */
+  public Optional<Duration> getTimeout() {
+    return Optional.ofNullable(timeout);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns a copy of this schedule with the specified priority.
+   *
+   * @param priority  the priority of the cells
+   * @return the schedule with the priority
+   */
+  public CalculationSchedule withPriority(CalculationPriority priority) {
+    return new CalculationSchedule(priority, timeout);
+  }
+
+  /**
+   * Returns a copy of this schedule with the specified timeout.
+   *
+   * @param timeout  the time allowed for the run, measured from the start of the run
+   * @return the schedule with the timeout
+   */
+  public CalculationSchedule withTimeout(Duration timeout) {
+    ArgChecker.notNull(timeout, "timeout");
+    return new CalculationSchedule(priority, timeout);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "CalculationSchedule[timeout=" + (timeout != null ? timeout : "none") + "]";
+  }
+
+}
@@ -9,7 +9,9 @@ import static com.opengamma.strata.collect.Guavate.toImmutableList;
 import static com.opengamma.strata.collect.Guavate.toImmutableMap;
 import static com.opengamma.strata.collect.Guavate.toImmutableSet;
 
+import java.io.Serializable;
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +28,7 @@ import org.joda.beans.impl.light.LightMetaBean;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.opengamma.strata.basics.CalculationTarget;
 import com.opengamma.strata.basics.ReferenceData;
@@ -36,6 +39,7 @@ import com.opengamma.strata.basics.currency.FxRate;
 import com.opengamma.strata.calc.Measure;
 import com.opengamma.strata.calc.marketdata.MarketDataRequirements;
 import com.opengamma.strata.calc.marketdata.MarketDataRequirementsBuilder;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.result.FailureReason;
 import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.data.FxRateId;
@@ -55,7 +59,7 @@ import com.opengamma.strata.data.scenario.ScenarioMarketData;
  * calculate a result for one or more columns in the grid of results.
  */
 @BeanDefinition(style = "light")
-public final class CalculationTask implements ImmutableBean {
+public final class CalculationTask implements ImmutableBean, Serializable {
 
   /**
    * The target for which the value will be calculated.
@@ -181,6 +185,30 @@ public final class CalculationTask implements ImmutableBean {
     return requirementsBuilder.build();
   }
 
+  /**
+   * Returns a key that determines the requirements of this task.
+   * <p>
+   * Tasks with equal keys have the same requirements.
+   * The key combines the function, the {@linkplain CalculationFunction#requirementsKey(CalculationTarget) key}
+   * of the target, the parameters, and the measure and reporting currency of each cell.
+   *
+   * @param refData  the reference data
+   * @return the key determining the requirements
+   */
+  Object requirementsKey(ReferenceData refData) {
+    ImmutableList.Builder<Object> key = ImmutableList.builder();
+    key.add(function, function.requirementsKey(target), parameters);
+    for (CalculationTaskCell cell : cells) {
+      key.add(cell.getMeasure());
+      if (cell.getMeasure().isCurrencyConvertible() && !cell.getReportingCurrency().isNone()) {
+        key.add(cell.reportingCurrency(this, refData));
+      } else {
+        key.add(cell.getReportingCurrency());
+      }
+    }
+    return key.build();
+  }
+
   /**
    * Determines the natural currency of the target.
    * <p>
@@ -208,18 +236,138 @@ public final class CalculationTask implements ImmutableBean {
     // calculate the results
     Map<Measure, Result<?>> results = calculate(marketData, refData);
 
-    // get a suitable FX provider
-    ScenarioFxRateProvider fxProvider = parameters.findParameter(FxRateLookup.class)
+    // convert and return the results
+    return createResults(results, fxProvider(marketData), refData);
+  }
+
+  /**
+   * Executes a batch of tasks, performing calculations for many targets using multiple sets of market data.
+   * <p>
+   * The tasks must all have the same function and parameters, as determined by {@code equals}.
+   * If the function is a {@link BatchCalculationFunction}, it is invoked once for all the targets.
+   * If the batch throws an exception, or the function is not a batch function, each task is executed separately.
+   *
+   * @param tasks  the tasks to execute, all with the same function and parameters
+   * @param marketData  the market data used in the calculation
+   * @param refData  the reference data
+   * @return results of the calculation for each task, in the same order as the tasks
+   */
+  public static List<CalculationResults> executeBatch(
+      List<CalculationTask> tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData) {
+
+    ArgChecker.notEmpty(tasks, "tasks");
+    CalculationTask first = tasks.get(0);
+    for (CalculationTask task : tasks) {
+      ArgChecker.isTrue(
+          task.function.equals(first.function) && task.parameters.equals(first.parameters),
+          "Tasks in a batch must have the same function and parameters");
+    }
+    if (tasks.size() == 1 || !(first.function instanceof BatchCalculationFunction)) {
+      return executeSeparately(tasks, marketData, refData);
+    }
+
+    // determine the targets that have at least one supported measure
+    Set<Measure> supportedMeasures = first.function.supportedMeasures();
+    List<CalculationTarget> targets = new ArrayList<>(tasks.size());
+    List<Set<Measure>> measures = new ArrayList<>(tasks.size());
+    int[] batchIndices = new int[tasks.size()];
+    for (int i = 0; i < tasks.size(); i++) {
+      CalculationTask task = tasks.get(i);
+      Set<Measure> taskMeasures = ImmutableSet.copyOf(Sets.intersection(task.getMeasures(), supportedMeasures));
+      batchIndices[i] = taskMeasures.isEmpty() ? -1 : targets.size();
+      if (!taskMeasures.isEmpty()) {
+        targets.add(task.target);
+        measures.add(taskMeasures);
+      }
+    }
+
+    // calculate the batch, falling back to separate calculation so that failures refer to the correct target
+    @SuppressWarnings("unchecked")
+    BatchCalculationFunction<CalculationTarget> function = (BatchCalculationFunction<CalculationTarget>) first.function;
+    try {
+      List<Map<Measure, Result<?>>> batchResults = targets.isEmpty() ?
+          ImmutableList.of() :
+          function.calculateBatch(targets, measures, first.parameters, marketData, refData);
+      if (batchResults.size() != targets.size()) {
+        return executeSeparately(tasks, marketData, refData);
+      }
+
+      // convert the results, using a normal loop for better stack traces
+      ScenarioFxRateProvider fxProvider = first.fxProvider(marketData);
+      ImmutableList.Builder<CalculationResults> resultBuilder = ImmutableList.builder();
+      for (int i = 0; i < tasks.size(); i++) {
+        CalculationTask task = tasks.get(i);
+        Set<Measure> requestedMeasures = task.getMeasures();
+        Map<Measure, Result<?>> results = batchIndices[i] < 0 ? ImmutableMap.of() : batchResults.get(batchIndices[i]);
+        if (!results.keySet().containsAll(requestedMeasures)) {
+          results = task.handleMissing(requestedMeasures, supportedMeasures, results);
+        }
+        resultBuilder.add(task.createResults(results, fxProvider, refData));
+      }
+      return resultBuilder.build();
+
+    } catch (RuntimeException ex) {
+      return executeSeparately(tasks, marketData, refData);
+    }
+  }
+
+  /**
+   * Executes each task separately, converting any exception to a failure result for each cell of the task.
+   * <p>
+   * This never throws an exception, ensuring that a result is received for every cell of the tasks.
+   *
+   * @param tasks  the tasks to execute
+   * @param marketData  the market data used in the calculation
+   * @param refData  the reference data
+   * @return results of the calculation for each task, in the same order as the tasks
+   */
+  static List<CalculationResults> executeSeparately(
+      List<CalculationTask> tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData) {
+
+    ImmutableList.Builder<CalculationResults> resultBuilder = ImmutableList.builder();
+    for (CalculationTask task : tasks) {
+      try {
+        resultBuilder.add(task.execute(marketData, refData));
+      } catch (RuntimeException ex) {
+        resultBuilder.add(task.failureResults(ex));
+      }
+    }
+    return resultBuilder.build();
+  }
+
+  // creates a failure result for each cell, without currency conversion
+  private CalculationResults failureResults(RuntimeException ex) {
+    Map<Measure, Result<?>> failures = handleFailure(ex);
+    ImmutableList.Builder<CalculationResult> resultBuilder = ImmutableList.builder();
+    for (CalculationTaskCell cell : cells) {
+      Result<?> failure = failures.get(cell.getMeasure());
+      resultBuilder.add(CalculationResult.of(cell.getRowIndex(), cell.getColumnIndex(), failure));
+    }
+    return CalculationResults.of(target, resultBuilder.build());
+  }
+
+  // get a suitable FX provider
+  private ScenarioFxRateProvider fxProvider(ScenarioMarketData marketData) {
+    return parameters.findParameter(FxRateLookup.class)
         .map(lookup -> LookupScenarioFxRateProvider.of(marketData, lookup))
         .orElse(ScenarioFxRateProvider.of(marketData));
+  }
+
+  // converts the calculated values to results, including conversion to the reporting currency
+  private CalculationResults createResults(
+      Map<Measure, Result<?>> results,
+      ScenarioFxRateProvider fxProvider,
+      ReferenceData refData) {
 
     // convert the results, using a normal loop for better stack traces
     ImmutableList.Builder<CalculationResult> resultBuilder = ImmutableList.builder();
     for (CalculationTaskCell cell : cells) {
       resultBuilder.add(cell.createResult(this, target, results, fxProvider, refData));
     }
-
-    // return the result
     return CalculationResults.of(target, resultBuilder.build());
   }
 
@@ -355,6 +503,11 @@ public final class CalculationTask implements ImmutableBean {
     MetaBean.register(META_BEAN);
   }
 
+  /**
+   * The serialization version id.
+   */
+  private static final long serialVersionUID = 1L;
+
   private CalculationTask(
       CalculationTarget target,
       CalculationFunction<CalculationTarget> function,
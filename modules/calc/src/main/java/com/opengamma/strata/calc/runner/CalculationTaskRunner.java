@@ -12,6 +12,8 @@ import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.calc.CalculationRules;
 import com.opengamma.strata.calc.CalculationRunner;
 import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.marketdata.ChunkedScenarioMarketData;
+import com.opengamma.strata.calc.marketdata.MarketDataRequirements;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 
@@ -38,6 +40,8 @@ import com.opengamma.strata.data.scenario.ScenarioMarketData;
  * Once obtained, the {@code CalculationTasks} instance may be used to calculate results.
  * The four "calculate" methods handle the combination of single versus scenario market data,
  * and synchronous versus asynchronous.
+ * The asynchronous methods may also be passed a {@link CalculationSchedule}, defining the priority
+ * of the calculations and a timeout, returning a {@link CalculationHandle} that allows the run to be cancelled.
  * <p>
  * A calculation runner is typically obtained using the static methods on this interface.
  * The instance contains an executor thread-pool, thus care should be taken to ensure
@@ -79,6 +83,25 @@ public interface CalculationTaskRunner extends AutoCloseable {
     return DefaultCalculationTaskRunner.of(executor);
   }
 
+  /**
+   * Creates a calculation task runner that partitions the tasks between worker processes.
+   * <p>
+   * Each worker is a JVM launched on the local machine using the class path of this JVM.
+   * The market data is sent once to each worker, and the results are sent back as each task completes.
+   * If a worker fails, the tasks it has not completed are calculated by the other workers.
+   * The available processors are shared between the workers.
+   * <p>
+   * The workers are launched when first needed, and must be stopped by closing the runner.
+   * It is recommended to use try-with-resources to manage the runner.
+   *
+   * @param workerCount  the number of worker processes
+   * @param jvmArgs  the additional arguments passed to the JVM of each worker, such as the maximum heap size
+   * @return the calculation task runner
+   */
+  public static CalculationTaskRunner ofWorkerProcesses(int workerCount, List<String> jvmArgs) {
+    return ProcessCalculationTaskRunner.of(workerCount, jvmArgs);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Performs calculations for a single set of market data.
@@ -161,6 +184,107 @@ public interface CalculationTaskRunner extends AutoCloseable {
       ReferenceData refData,
       CalculationListener listener);
 
+  //-------------------------------------------------------------------------
+  /**
+   * Performs calculations asynchronously for a single set of market data, applying a schedule.
+   * <p>
+   * This behaves as {@link #calculateAsync(CalculationTasks, MarketData, ReferenceData, CalculationListener)},
+   * with the calculations ordered by the priority of the schedule.
+   * The returned handle allows the run to be cancelled.
+   * If the run is cancelled, or the timeout of the schedule elapses, each cell that has not yet been
+   * received by the listener is completed with a failure and the listener is notified that
+   * the calculations are complete.
+   * <p>
+   * The default implementation ignores the priority and applies the cancellation and timeout to the listener,
+   * discarding results received after the run has been cancelled or timed out.
+   *
+   * @param tasks  the calculation tasks to invoke
+   * @param marketData  the market data to be used in the calculations
+   * @param refData  the reference data to be used in the calculations
+   * @param listener  listener that is invoked when individual results are calculated
+   * @param schedule  the schedule of the calculations
+   * @return the handle on the run
+   */
+  public default CalculationHandle calculateAsync(
+      CalculationTasks tasks,
+      MarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener,
+      CalculationSchedule schedule) {
+
+    ScheduledListener scheduledListener = new ScheduledListener(listener, tasks, schedule);
+    calculateAsync(tasks, marketData, refData, scheduledListener);
+    return scheduledListener;
+  }
+
+  /**
+   * Performs calculations asynchronously for multiple scenarios, applying a schedule.
+   * <p>
+   * This behaves as
+   * {@link #calculateMultiScenarioAsync(CalculationTasks, ScenarioMarketData, ReferenceData, CalculationListener)},
+   * with the calculations ordered by the priority of the schedule.
+   * The returned handle allows the run to be cancelled.
+   * If the run is cancelled, or the timeout of the schedule elapses, each cell that has not yet been
+   * received by the listener is completed with a failure and the listener is notified that
+   * the calculations are complete.
+   * <p>
+   * The default implementation ignores the priority and applies the cancellation and timeout to the listener,
+   * discarding results received after the run has been cancelled or timed out.
+   *
+   * @param tasks  the calculation tasks to invoke
+   * @param marketData  the market data to be used in the calculations
+   * @param refData  the reference data to be used in the calculations
+   * @param listener  listener that is invoked when individual results are calculated
+   * @param schedule  the schedule of the calculations
+   * @return the handle on the run
+   */
+  public default CalculationHandle calculateMultiScenarioAsync(
+      CalculationTasks tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener,
+      CalculationSchedule schedule) {
+
+    ScheduledListener scheduledListener = new ScheduledListener(listener, tasks, schedule);
+    calculateMultiScenarioAsync(tasks, marketData, refData, scheduledListener);
+    return scheduledListener;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Performs calculations for multiple scenarios, building the market data in chunks of scenarios.
+   * <p>
+   * This returns a grid of results based on the specified tasks and market data.
+   * The grid will contain a row for each target and a column for each measure.
+   * Each cell will contain multiple results, one for each scenario.
+   * <p>
+   * Unlike {@link #calculateMultiScenario(CalculationTasks, ScenarioMarketData, ReferenceData)},
+   * the market data for all scenarios is never held in memory at the same time.
+   * The market data for each chunk is built, the calculations for the chunk are performed,
+   * and the results are combined with those of the previous chunks before the next chunk is built.
+   * This is intended for large numbers of scenarios, such as a historical VaR lookback.
+   * <p>
+   * If any chunk produces a failure for a cell, the result for that cell is the failure.
+   * 
+   * @param tasks  the calculation tasks to invoke
+   * @param marketData  the market data to be used in the calculations, built on demand in chunks
+   * @param refData  the reference data to be used in the calculations
+   * @return the grid of calculation results, based on the tasks and market data
+   */
+  public default Results calculateMultiScenario(
+      CalculationTasks tasks,
+      ChunkedScenarioMarketData marketData,
+      ReferenceData refData) {
+
+    MarketDataRequirements requirements = tasks.requirements(refData);
+    ChunkedResultsBuilder builder = new ChunkedResultsBuilder();
+    for (int chunkIndex = 0; chunkIndex < marketData.getChunkCount(); chunkIndex++) {
+      ScenarioMarketData chunkMarketData = marketData.buildChunk(chunkIndex, requirements, refData);
+      builder.add(calculateMultiScenario(tasks, chunkMarketData, refData));
+    }
+    return builder.build();
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Closes any resources held by the component.
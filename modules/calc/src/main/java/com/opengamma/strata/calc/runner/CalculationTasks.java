@@ -8,7 +8,10 @@ package com.opengamma.strata.calc.runner;
 import static com.opengamma.strata.collect.Guavate.toImmutableList;
 
 import java.lang.invoke.MethodHandles;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.joda.beans.ImmutableBean;
 import org.joda.beans.JodaBeanUtils;
@@ -30,7 +33,6 @@ import com.opengamma.strata.calc.Column;
 import com.opengamma.strata.calc.Measure;
 import com.opengamma.strata.calc.ReportingCurrency;
 import com.opengamma.strata.calc.marketdata.MarketDataRequirements;
-import com.opengamma.strata.calc.marketdata.MarketDataRequirementsBuilder;
 import com.opengamma.strata.collect.Messages;
 
 /**
@@ -236,18 +238,24 @@ public final class CalculationTasks implements ImmutableBean {
    * Gets the market data that is required to perform the calculations.
    * <p>
    * This can be used to pass into the market data system to obtain and calibrate data.
+   * <p>
+   * The requirements of the tasks are determined in parallel.
+   * Tasks with the same function, measures, reporting currencies and parameters, and whose targets have the same
+   * {@linkplain CalculationFunction#requirementsKey(CalculationTarget) requirements key}, share the requirements.
    *
    * @param refData  the reference data
    * @return the market data required for all calculations
    * @throws RuntimeException if unable to obtain the requirements
    */
   public MarketDataRequirements requirements(ReferenceData refData) {
-    // use for loop not streams for shorter stack traces
-    MarketDataRequirementsBuilder builder = MarketDataRequirements.builder();
-    for (CalculationTask task : tasks) {
-      builder.addRequirements(task.requirements(refData));
-    }
-    return builder.build();
+    // the tasks are processed in parallel
+    // the requirements are only determined once for tasks with the same key, such as identical trades
+    // equal requirements are only combined once
+    ConcurrentHashMap<Object, MarketDataRequirements> requirementsByKey = new ConcurrentHashMap<>();
+    tasks.parallelStream()
+        .forEach(task -> requirementsByKey.computeIfAbsent(task.requirementsKey(refData), k -> task.requirements(refData)));
+    Set<MarketDataRequirements> distinct = new HashSet<>(requirementsByKey.values());
+    return MarketDataRequirements.combine(ImmutableList.copyOf(distinct));
   }
 
   //-------------------------------------------------------------------------
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.tuple.Pair;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * The worker process of a calculation runner that uses multiple processes.
+ * <p>
+ * The worker is launched by the calculation runner returned by
+ * {@link CalculationTaskRunner#ofWorkerProcesses(int, List)}, and should not be launched directly.
+ * It connects to the runner using a loopback socket, receives the market data once for each calculation,
+ * then calculates each task it is sent, sending the results back as each task completes.
+ * The worker exits when the connection is closed.
+ */
+public final class CalculationWorker {
+
+  /**
+   * The input from the runner.
+   */
+  private final DataInputStream in;
+  /**
+   * The output to the runner, shared by the calculation threads.
+   */
+  private final DataOutputStream out;
+  /**
+   * The executor used to calculate the tasks.
+   */
+  private final ExecutorService executor;
+  /**
+   * The reference data of the current calculation.
+   */
+  private ReferenceData refData;
+  /**
+   * The market data of the current calculation.
+   */
+  private ScenarioMarketData marketData;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Runs the worker.
+   * <p>
+   * The arguments are the port of the runner, the token identifying the runner,
+   * the identifier of the worker and the number of threads.
+   *
+   * @param args  the arguments
+   * @throws IOException if an IO error occurs
+   */
+  public static void main(String[] args) throws IOException {
+    int port = Integer.parseInt(args[0]);
+    String token = args[1];
+    int workerId = Integer.parseInt(args[2]);
+    int threads = Integer.parseInt(args[3]);
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      socket.setTcpNoDelay(true);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      out.writeUTF(token);
+      out.writeInt(workerId);
+      out.flush();
+      new CalculationWorker(in, out, threads).run();
+    }
+    System.exit(0);
+  }
+
+  // restricted constructor
+  private CalculationWorker(DataInputStream in, DataOutputStream out, int threads) {
+    this.in = in;
+    this.out = out;
+    this.executor = Executors.newFixedThreadPool(threads, r -> {
+      Thread t = new Thread(r, "CalculationWorker");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  //-------------------------------------------------------------------------
+  // reads and handles messages until the connection is closed
+  private void run() throws IOException {
+    while (true) {
+      byte type;
+      try {
+        type = in.readByte();
+      } catch (EOFException ex) {
+        return;
+      }
+      switch (type) {
+        case WorkerProtocol.MARKET_DATA:
+          Pair<?, ?> data = WorkerProtocol.deserialize(WorkerProtocol.readBytes(in), true, Pair.class);
+          refData = (ReferenceData) data.getFirst();
+          marketData = (ScenarioMarketData) data.getSecond();
+          break;
+        case WorkerProtocol.TASKS:
+          int count = in.readInt();
+          for (int i = 0; i < count; i++) {
+            int index = in.readInt();
+            CalculationTask task = WorkerProtocol.deserialize(WorkerProtocol.readBytes(in), false, CalculationTask.class);
+            ScenarioMarketData taskMarketData = marketData;
+            ReferenceData taskRefData = refData;
+            executor.execute(() -> calculate(index, task, taskMarketData, taskRefData));
+          }
+          break;
+        case WorkerProtocol.END:
+          refData = null;
+          marketData = null;
+          break;
+        default:
+          throw new IOException("Unknown message type: " + type);
+      }
+    }
+  }
+
+  // calculates the task and sends the results
+  // the runner waits for the results of every task, thus any failure is sent as a failure result for each cell
+  private void calculate(int index, CalculationTask task, ScenarioMarketData marketData, ReferenceData refData) {
+    byte[] bytes;
+    try {
+      bytes = WorkerProtocol.serialize(task.execute(marketData, refData), false);
+    } catch (Throwable ex) {
+      bytes = serializeFailure(task, ex);
+    }
+    try {
+      synchronized (out) {
+        out.writeByte(WorkerProtocol.RESULTS);
+        out.writeInt(index);
+        WorkerProtocol.writeBytes(out, bytes);
+        out.flush();
+      }
+    } catch (IOException ex) {
+      // the runner has gone, the main thread will see the connection close
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  // serializes failures for each cell of the task, used when the task cannot be calculated or its results sent
+  // if the cause itself cannot be serialized, only its description is sent
+  private static byte[] serializeFailure(CalculationTask task, Throwable cause) {
+    try {
+      Result<?> failure = Result.failure(FailureReason.ERROR, cause, "Calculation worker failed: {}", cause);
+      return WorkerProtocol.serialize(failureResults(task, failure), false);
+    } catch (IOException | RuntimeException ex) {
+      try {
+        Result<?> failure = Result.failure(FailureReason.ERROR, "Calculation worker failed: {}", cause);
+        return WorkerProtocol.serialize(failureResults(task, failure), false);
+      } catch (IOException ex2) {
+        throw new UncheckedIOException(ex2);
+      }
+    }
+  }
+
+  // the failure result for each cell of the task
+  private static CalculationResults failureResults(CalculationTask task, Result<?> failure) {
+    List<CalculationResult> failures = task.getCells().stream()
+        .map(cell -> CalculationResult.of(cell.getRowIndex(), cell.getColumnIndex(), failure))
+        .collect(toImmutableList());
+    return CalculationResults.of(task.getTarget(), failures);
+  }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.calc.ColumnHeader;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.CurrencyScenarioArray;
+import com.opengamma.strata.data.scenario.DoubleScenarioArray;
+import com.opengamma.strata.data.scenario.MultiCurrencyScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioArray;
+
+/**
+ * Mutable builder that combines the results of calculations performed on consecutive chunks of scenarios.
+ * <p>
+ * Each chunk of results has the same grid of targets and columns, with each cell containing
+ * a {@link ScenarioArray} for the scenarios in the chunk. The builder concatenates the arrays
+ * in each cell, retaining the primitive representation of the standard array types.
+ * <p>
+ * If any chunk contains a failure for a cell, the first failure is the result for that cell.
+ */
+final class ChunkedResultsBuilder {
+
+  /** The column headers, set when the first chunk is added. */
+  private List<ColumnHeader> columns;
+  /** The values of each cell, one list entry for each chunk. */
+  private List<List<Object>> cellValues;
+  /** The failure for each cell, null if there is no failure. */
+  private List<Result<?>> cellFailures;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Adds the results of the next chunk of scenarios.
+   *
+   * @param chunkResults  the results for the chunk
+   */
+  void add(Results chunkResults) {
+    if (columns == null) {
+      columns = chunkResults.getColumns();
+      int cellCount = chunkResults.getCells().size();
+      cellValues = new ArrayList<>(cellCount);
+      cellFailures = new ArrayList<>(cellCount);
+      for (int i = 0; i < cellCount; i++) {
+        cellValues.add(new ArrayList<>());
+        cellFailures.add(null);
+      }
+    }
+    List<Result<?>> cells = chunkResults.getCells();
+    ArgChecker.isTrue(cells.size() == cellValues.size(), "Chunk results must have the same number of cells");
+    for (int i = 0; i < cells.size(); i++) {
+      Result<?> cell = cells.get(i);
+      if (cellFailures.get(i) != null) {
+        continue;
+      }
+      if (cell.isFailure()) {
+        cellFailures.set(i, cell);
+        cellValues.get(i).clear();
+      } else {
+        cellValues.get(i).add(cell.getValue());
+      }
+    }
+  }
+
+  /**
+   * Builds the combined results.
+   *
+   * @return the results for all the scenarios
+   */
+  Results build() {
+    ArgChecker.notNull(columns, "columns");
+    ImmutableList.Builder<Result<?>> builder = ImmutableList.builder();
+    for (int i = 0; i < cellValues.size(); i++) {
+      Result<?> failure = cellFailures.get(i);
+      builder.add(failure != null ? failure : combine(cellValues.get(i)));
+    }
+    return Results.of(columns, builder.build());
+  }
+
+  //-------------------------------------------------------------------------
+  // combines the values for each chunk of a single cell
+  private static Result<?> combine(List<Object> values) {
+    Object first = values.get(0);
+    if (values.size() == 1) {
+      return Result.success(first);
+    }
+    if (!values.stream().allMatch(ScenarioArray.class::isInstance)) {
+      // values that do not vary by scenario can only be combined if they are the same in every chunk
+      if (values.stream().allMatch(first::equals)) {
+        return Result.success(first);
+      }
+      return Result.failure(
+          FailureReason.CALCULATION_FAILED,
+          "Unable to combine results for chunks of scenarios, expected ScenarioArray but found {}",
+          first.getClass().getName());
+    }
+    if (values.stream().allMatch(DoubleScenarioArray.class::isInstance)) {
+      DoubleArray combined = DoubleArray.EMPTY;
+      for (Object value : values) {
+        combined = combined.concat(((DoubleScenarioArray) value).getValues());
+      }
+      return Result.success(DoubleScenarioArray.of(combined));
+    }
+    if (values.stream().allMatch(CurrencyScenarioArray.class::isInstance)) {
+      Currency currency = ((CurrencyScenarioArray) first).getCurrency();
+      if (values.stream().allMatch(value -> ((CurrencyScenarioArray) value).getCurrency().equals(currency))) {
+        DoubleArray combined = DoubleArray.EMPTY;
+        for (Object value : values) {
+          combined = combined.concat(((CurrencyScenarioArray) value).getAmounts().getValues());
+        }
+        return Result.success(CurrencyScenarioArray.of(currency, combined));
+      }
+    }
+    if (values.stream().allMatch(MultiCurrencyScenarioArray.class::isInstance)) {
+      List<MultiCurrencyAmount> combined = values.stream()
+          .flatMap(value -> ((MultiCurrencyScenarioArray) value).stream())
+          .collect(Collectors.toList());
+      return Result.success(MultiCurrencyScenarioArray.of(combined));
+    }
+    List<Object> combined = values.stream()
+        .flatMap(value -> ((ScenarioArray<?>) value).stream())
+        .collect(Collectors.toList());
+    return Result.success(ScenarioArray.of(combined));
+  }
+
+}
@@ -6,22 +6,38 @@
 package com.opengamma.strata.calc.runner;
 
 import static com.opengamma.strata.collect.Guavate.toImmutableList;
+import static com.opengamma.strata.collect.Guavate.toImmutableSet;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.opengamma.strata.basics.CalculationTarget;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Measure;
 import com.opengamma.strata.calc.Results;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.metrics.Metrics;
+import com.opengamma.strata.collect.metrics.MetricsListener;
 import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.tuple.Pair;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.data.scenario.ScenarioArray;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
@@ -30,6 +46,14 @@ import com.opengamma.strata.data.scenario.ScenarioMarketData;
  * The default calculation task runner.
  * <p>
  * This uses a single instance of {@link ExecutorService}.
+ * <p>
+ * Tasks whose function is a {@link BatchCalculationFunction} are grouped by function and parameters,
+ * with each batch of tasks run as a single unit of work. The batches are sized such that the tasks
+ * of a group are spread across the threads of the executor, subject to the maximum batch size.
+ * <p>
+ * The units of work are held in a priority queue shared by all runs, with the executor
+ * running the unit of work with the highest priority each time a thread becomes available.
+ * This allows the calculations of a run with a high priority to overtake those of earlier runs.
  */
 final class DefaultCalculationTaskRunner implements CalculationTaskRunner {
 
@@ -38,6 +62,18 @@ final class DefaultCalculationTaskRunner implements CalculationTaskRunner {
    * This will typically be multi-threaded, but single or direct executors also work.
    */
   private final ExecutorService executor;
+  /**
+   * The number of threads of the executor, used to size the batches.
+   */
+  private final int parallelism;
+  /**
+   * The units of work waiting to be run, highest priority first.
+   */
+  private final PriorityBlockingQueue<QueuedWork> queue = new PriorityBlockingQueue<>();
+  /**
+   * The sequence used to run units of work of equal priority in the order they were submitted.
+   */
+  private final AtomicLong sequence = new AtomicLong();
 
   //-------------------------------------------------------------------------
   /**
@@ -90,6 +126,19 @@ final class DefaultCalculationTaskRunner implements CalculationTaskRunner {
    */
   private DefaultCalculationTaskRunner(ExecutorService executor) {
     this.executor = ArgChecker.notNull(executor, "executor");
+    this.parallelism = parallelism(executor);
+  }
+
+  // the number of threads of the executor, one if unknown, such as for a direct executor
+  private static int parallelism(ExecutorService executor) {
+    if (executor instanceof ThreadPoolExecutor) {
+      ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+      return pool.getCorePoolSize() > 0 ? pool.getCorePoolSize() : Runtime.getRuntime().availableProcessors();
+    }
+    if (executor instanceof ForkJoinPool) {
+      return ((ForkJoinPool) executor).getParallelism();
+    }
+    return 1;
   }
 
   //-------------------------------------------------------------------------
@@ -124,7 +173,7 @@ final class DefaultCalculationTaskRunner implements CalculationTaskRunner {
    * <p>
    * If this method is called with a {@code ScenarioArray} containing more than one value it throws an exception.
    */
-  private static Result<?> unwrapScenarioResult(Result<?> result) {
+  static Result<?> unwrapScenarioResult(Result<?> result) {
     if (result.isFailure()) {
       return result;
     }
@@ -154,6 +203,20 @@ final class DefaultCalculationTaskRunner implements CalculationTaskRunner {
     calculateMultiScenarioAsync(tasks, md, refData, unwrappingListener);
   }
 
+  @Override
+  public CalculationHandle calculateAsync(
+      CalculationTasks tasks,
+      MarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener,
+      CalculationSchedule schedule) {
+
+    // the listener is decorated to unwrap ScenarioArrays containing a single result
+    ScenarioMarketData md = ScenarioMarketData.of(1, marketData);
+    UnwrappingListener unwrappingListener = new UnwrappingListener(listener);
+    return calculateMultiScenarioAsync(tasks, md, refData, unwrappingListener, schedule);
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public Results calculateMultiScenario(
@@ -173,28 +236,155 @@ final class DefaultCalculationTaskRunner implements CalculationTaskRunner {
       ReferenceData refData,
       CalculationListener listener) {
 
+    run(tasks, marketData, refData, listener, CalculationPriority.NORMAL, () -> false);
+  }
+
+  @Override
+  public CalculationHandle calculateMultiScenarioAsync(
+      CalculationTasks tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener,
+      CalculationSchedule schedule) {
+
+    // the scheduled listener applies the cancellation and timeout
+    // once it is done, the remaining units of work of the run are skipped
+    ScheduledListener scheduledListener = new ScheduledListener(listener, tasks, schedule);
+    run(tasks, marketData, refData, scheduledListener, schedule.getPriority(), scheduledListener::isDone);
+    return scheduledListener;
+  }
+
+  // submits the tasks of a run
+  private void run(
+      CalculationTasks tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener,
+      CalculationPriority priority,
+      BooleanSupplier skip) {
+
     List<CalculationTask> taskList = tasks.getTasks();
     // the listener is invoked via this wrapper
     // the wrapper ensures thread-safety for the listener
     // it also calls the listener with single CalculationResult cells, not CalculationResults
+    MetricsListener metrics = Metrics.listener();
     Consumer<CalculationResults> consumer =
-        new ListenerWrapper(listener, taskList.size(), tasks.getTargets(), tasks.getColumns());
+        new ListenerWrapper(listener, taskList.size(), tasks.getTargets(), tasks.getColumns(), metrics);
 
     // run each task using the executor
-    taskList.forEach(task -> runTask(task, marketData, refData, consumer));
+    // tasks using a batch function are grouped by function and parameters, and run in batches
+    Map<Pair<CalculationFunction<?>, CalculationParameters>, List<CalculationTask>> batches = new LinkedHashMap<>();
+    for (CalculationTask task : taskList) {
+      if (task.getFunction() instanceof BatchCalculationFunction) {
+        batches.computeIfAbsent(Pair.of(task.getFunction(), task.getParameters()), k -> new ArrayList<>()).add(task);
+      } else {
+        runTask(task, priority(ImmutableList.of(task), tasks, priority), skip, marketData, refData, consumer, metrics);
+      }
+    }
+    for (List<CalculationTask> batchTasks : batches.values()) {
+      for (List<CalculationTask> batch : Lists.partition(batchTasks, batchSize(batchTasks))) {
+        runBatch(batch, priority(batch, tasks, priority), skip, marketData, refData, consumer, metrics);
+      }
+    }
+  }
+
+  // the size of the batches, spreading the tasks across the threads, up to the maximum batch size of the function
+  private int batchSize(List<CalculationTask> batchTasks) {
+    int maxBatchSize = Math.max(((BatchCalculationFunction<?>) batchTasks.get(0).getFunction()).maxBatchSize(), 1);
+    int spreadBatchSize = (batchTasks.size() + parallelism - 1) / parallelism;
+    return Math.max(Math.min(maxBatchSize, spreadBatchSize), 1);
+  }
+
+  // the highest priority of the cells of the tasks
+  private static int priority(List<CalculationTask> taskList, CalculationTasks tasks, CalculationPriority priority) {
+    if (priority == CalculationPriority.NORMAL) {
+      return 0;
+    }
+    int max = Integer.MIN_VALUE;
+    for (CalculationTask task : taskList) {
+      for (CalculationTaskCell cell : task.getCells()) {
+        max = Math.max(max, priority.priority(task.getTarget(), tasks.getColumns().get(cell.getColumnIndex())));
+      }
+    }
+    return max;
   }
 
   // submits a task to the executor to be run
   private void runTask(
       CalculationTask task,
+      int priority,
+      BooleanSupplier skip,
       ScenarioMarketData marketData,
       ReferenceData refData,
-      Consumer<CalculationResults> consumer) {
+      Consumer<CalculationResults> consumer,
+      MetricsListener metrics) {
 
     // the task is executed, with the result passed to the consumer
     // the consumer wraps the listener to ensure thread-safety
-    Supplier<CalculationResults> taskExecutor = () -> task.execute(marketData, refData);
-    CompletableFuture.supplyAsync(taskExecutor, executor).thenAccept(consumer);
+    Supplier<CalculationResults> taskExecutor =
+        instrument(() -> task.execute(marketData, refData), ImmutableList.of(task), metrics);
+    submit(priority, skip, () -> consumer.accept(taskExecutor.get()));
+  }
+
+  // submits a batch of tasks to the executor to be run
+  private void runBatch(
+      List<CalculationTask> batch,
+      int priority,
+      BooleanSupplier skip,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      Consumer<CalculationResults> consumer,
+      MetricsListener metrics) {
+
+    // the batch is executed, with the result of each task passed to the consumer
+    // if the batch fails, each task is executed separately, so that every cell receives a result
+    Supplier<List<CalculationResults>> batchExecutor = instrument(() -> {
+      try {
+        return CalculationTask.executeBatch(batch, marketData, refData);
+      } catch (RuntimeException ex) {
+        return CalculationTask.executeSeparately(batch, marketData, refData);
+      }
+    }, batch, metrics);
+    submit(priority, skip, () -> batchExecutor.get().forEach(consumer));
+  }
+
+  // adds the unit of work to the queue, and submits a request to the executor to run the next unit of work
+  // the executor runs the unit of work with the highest priority, which need not be the one just added
+  private void submit(int priority, BooleanSupplier skip, Runnable work) {
+    queue.add(new QueuedWork(priority, sequence.getAndIncrement(), skip, work));
+    CompletableFuture.runAsync(this::runNext, executor);
+  }
+
+  // runs the unit of work with the highest priority, unless its run is done
+  private void runNext() {
+    QueuedWork next = queue.poll();
+    if (next != null && !next.skip.getAsBoolean()) {
+      next.work.run();
+    }
+  }
+
+  // wraps the executor to report the queue wait and execution time of the tasks, if metrics are enabled
+  private static <R> Supplier<R> instrument(
+      Supplier<R> taskExecutor,
+      List<CalculationTask> tasks,
+      MetricsListener metrics) {
+
+    if (!Metrics.isEnabled(metrics)) {
+      return taskExecutor;
+    }
+    long submitted = System.nanoTime();
+    return () -> {
+      long started = System.nanoTime();
+      R result = taskExecutor.get();
+      long executionNanos = System.nanoTime() - started;
+      Set<String> measureNames = tasks.stream()
+          .flatMap(task -> task.getMeasures().stream())
+          .map(Measure::getName)
+          .collect(toImmutableSet());
+      String functionName = tasks.get(0).getFunction().getClass().getSimpleName();
+      metrics.calculationTask(functionName, measureNames, tasks.size(), started - submitted, executionNanos);
+      return result;
+    };
   }
 
   //-------------------------------------------------------------------------
@@ -204,18 +394,41 @@ final class DefaultCalculationTaskRunner implements CalculationTaskRunner {
   }
 
   //-------------------------------------------------------------------------
+  /**
+   * A unit of work waiting to be run, ordered by descending priority then by the order of submission.
+   */
+  private static final class QueuedWork implements Comparable<QueuedWork> {
+
+    private final int priority;
+    private final long sequence;
+    private final BooleanSupplier skip;
+    private final Runnable work;
+
+    private QueuedWork(int priority, long sequence, BooleanSupplier skip, Runnable work) {
+      this.priority = priority;
+      this.sequence = sequence;
+      this.skip = skip;
+      this.work = work;
+    }
+
+    @Override
+    public int compareTo(QueuedWork other) {
+      int cmp = Integer.compare(other.priority, priority);
+      return cmp != 0 ? cmp : Long.compare(sequence, other.sequence);
+    }
+  }
 
   //-------------------------------------------------------------------------
   /**
    * Listener that decorates another listener and unwraps {@link ScenarioArray} instances
    * containing a single value before passing the value to the delegate listener.
-   * This is used by the single scenario async method.
+   * This is used by the single scenario async method, and by {@link ProcessCalculationTaskRunner}.
    */
-  private static final class UnwrappingListener implements CalculationListener {
+  static final class UnwrappingListener implements CalculationListener {
 
     private final CalculationListener delegate;
 
-    private UnwrappingListener(CalculationListener delegate) {
+    UnwrappingListener(CalculationListener delegate) {
       this.delegate = delegate;
     }
 
@@ -18,6 +18,8 @@ import org.slf4j.LoggerFactory;
 import com.opengamma.strata.basics.CalculationTarget;
 import com.opengamma.strata.calc.Column;
 import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.metrics.Metrics;
+import com.opengamma.strata.collect.metrics.MetricsListener;
 
 /**
  * Wrapper around a listener for thread-safety.
@@ -40,6 +42,12 @@ final class ListenerWrapper implements Consumer<CalculationResults> {
   /** Queue of actions to perform on the delegate. */
   private final Queue<CalculationResults> queue = new LinkedList<>();
 
+  /** The metrics listener, notified of the delivery lag of each result. */
+  private final MetricsListener metrics;
+
+  /** Queue of the times at which the queued results were accepted, only used if metrics are enabled. */
+  private final Queue<Long> acceptedTimes = new LinkedList<>();
+
   /** Protects the queue and the executing flag. */
   private final Lock lock = new ReentrantLock();
 
@@ -70,8 +78,28 @@ final class ListenerWrapper implements Consumer<CalculationResults> {
    * @param columns  the columns for which values are being calculated
    */
   ListenerWrapper(CalculationListener listener, int tasksExpected, List<CalculationTarget> targets, List<Column> columns) {
+    this(listener, tasksExpected, targets, columns, Metrics.listener());
+  }
+
+  /**
+   * Creates an instance wrapping the specified listener, reporting the delivery lag to the metrics listener.
+   *
+   * @param listener  the underlying listener wrapped by this object
+   * @param tasksExpected  the number of tasks to be executed
+   * @param targets  the targets for which values are being calculated
+   * @param columns  the columns for which values are being calculated
+   * @param metrics  the metrics listener
+   */
+  ListenerWrapper(
+      CalculationListener listener,
+      int tasksExpected,
+      List<CalculationTarget> targets,
+      List<Column> columns,
+      MetricsListener metrics) {
+
     this.listener = ArgChecker.notNull(listener, "listener");
     this.tasksExpected = ArgChecker.notNegative(tasksExpected, "tasksExpected");
+    this.metrics = ArgChecker.notNull(metrics, "metrics");
 
     listenerLock.lock();
     try {
@@ -101,7 +129,10 @@ final class ListenerWrapper implements Consumer<CalculationResults> {
    */
   @Override
   public void accept(CalculationResults result) {
+    boolean metricsEnabled = Metrics.isEnabled(metrics);
+    long accepted = metricsEnabled ? System.nanoTime() : 0L;
     CalculationResults nextResult;
+    long nextAccepted;
 
     // Multiple calculation threads can try to acquire this lock at the same time.
     // The thread which acquires the lock will set the executing flag and proceed into
@@ -117,12 +148,16 @@ final class ListenerWrapper implements Consumer<CalculationResults> {
         // the queue and return. The other thread will ensure the queued results
         // are delivered.
         queue.add(result);
+        if (metricsEnabled) {
+          acceptedTimes.add(accepted);
+        }
         return;
       } else {
         // There is no thread invoking the listener. Set the executing flag to
         // ensure no other thread passes this point and invoke the listener.
         executing = true;
         nextResult = result;
+        nextAccepted = accepted;
       }
     } finally {
       lock.unlock();
@@ -148,6 +183,9 @@ final class ListenerWrapper implements Consumer<CalculationResults> {
       } finally {
         listenerLock.unlock();
       }
+      if (metricsEnabled) {
+        metrics.resultDelivered(System.nanoTime() - nextAccepted);
+      }
 
       // The following code must be executed whilst holding the lock to guarantee any changes
       // to the executing flag and to the state of the queue are visible to all threads
@@ -176,6 +214,7 @@ final class ListenerWrapper implements Consumer<CalculationResults> {
           // added a result to the queue and returned while this thread was invoking the listener.
           // This thread must deliver the results from the queue.
           nextResult = queue.remove();
+          nextAccepted = metricsEnabled ? acceptedTimes.remove() : 0L;
         }
       } finally {
         lock.unlock();
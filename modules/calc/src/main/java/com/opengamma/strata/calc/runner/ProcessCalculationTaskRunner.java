@@ -0,0 +1,520 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.runner.DefaultCalculationTaskRunner.UnwrappingListener;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.metrics.Metrics;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.tuple.Pair;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * Calculation task runner that partitions the tasks between worker processes.
+ * <p>
+ * The workers are JVMs launched on the local machine, using the same class path as this JVM,
+ * each running a {@link CalculationWorker} connected to this runner by a loopback socket.
+ * The workers are launched when first needed and reused until the runner is closed.
+ * <p>
+ * For each calculation, the reference data and market data are serialized and compressed once,
+ * then sent once to each worker. The tasks are split into chunks, and each worker takes the next chunk
+ * when it has sent the results of its previous chunk, thus faster workers calculate more tasks.
+ * The results are passed to the listener as each worker sends them.
+ * <p>
+ * If a worker fails, for example if its process exits or it stops sending results, the tasks it has not
+ * completed are calculated by the remaining workers, or by this JVM if no workers remain. The failed worker is replaced
+ * at the start of the next calculation. Tasks that cannot be serialized, such as those with a
+ * function that is neither serializable nor has a public no-arguments constructor, are calculated by this JVM.
+ * <p>
+ * Calculations are run on the workers one at a time.
+ */
+final class ProcessCalculationTaskRunner implements CalculationTaskRunner {
+
+  /**
+   * The logger.
+   */
+  private static final Logger log = LoggerFactory.getLogger(ProcessCalculationTaskRunner.class);
+  /**
+   * The number of tasks sent to a worker at once.
+   */
+  private static final int CHUNK_SIZE = 64;
+  /**
+   * The time allowed for a worker to connect after it is launched.
+   */
+  private static final int CONNECT_TIMEOUT_MILLIS = 60_000;
+  /**
+   * The time allowed for a worker to send the next results before it is treated as failed.
+   * This must exceed the time taken to calculate any single task.
+   */
+  private static final int RESULTS_TIMEOUT_MILLIS = 30 * 60_000;
+  /**
+   * The time a worker waits for a chunk before checking if all tasks are complete.
+   */
+  private static final long POLL_MILLIS = 10;
+
+  /**
+   * The number of worker processes.
+   */
+  private final int workerCount;
+  /**
+   * The number of calculation threads in each worker.
+   */
+  private final int threadsPerWorker;
+  /**
+   * The additional arguments passed to the JVM of each worker.
+   */
+  private final ImmutableList<String> jvmArgs;
+  /**
+   * Executes the threads that coordinate the calculations and communicate with the workers.
+   */
+  private final ExecutorService coordinator;
+  /**
+   * Executes the tasks that are calculated by this JVM.
+   */
+  private final ExecutorService localExecutor;
+  /**
+   * Ensures that calculations are run on the workers one at a time.
+   */
+  private final Lock lock = new ReentrantLock();
+  /**
+   * The running workers.
+   */
+  private final List<WorkerProcess> workers = new CopyOnWriteArrayList<>();
+  /**
+   * The identifier of the next worker, guarded by the lock.
+   */
+  private int nextWorkerId;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates a calculation task runner using worker processes.
+   * <p>
+   * The available processors are shared between the workers.
+   *
+   * @param workerCount  the number of worker processes
+   * @param jvmArgs  the additional arguments passed to the JVM of each worker, such as the maximum heap size
+   * @return the calculation task runner
+   */
+  static ProcessCalculationTaskRunner of(int workerCount, List<String> jvmArgs) {
+    ArgChecker.notNegativeOrZero(workerCount, "workerCount");
+    ArgChecker.noNulls(jvmArgs, "jvmArgs");
+    int threadsPerWorker = Math.max(Runtime.getRuntime().availableProcessors() / workerCount, 1);
+    return new ProcessCalculationTaskRunner(workerCount, threadsPerWorker, jvmArgs);
+  }
+
+  // restricted constructor
+  private ProcessCalculationTaskRunner(int workerCount, int threadsPerWorker, List<String> jvmArgs) {
+    this.workerCount = workerCount;
+    this.threadsPerWorker = threadsPerWorker;
+    this.jvmArgs = ImmutableList.copyOf(jvmArgs);
+    this.coordinator = Executors.newCachedThreadPool(threadFactory("ProcessCalculationTaskRunner-"));
+    this.localExecutor = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), threadFactory("ProcessCalculationTaskRunner-local-"));
+  }
+
+  // creates a factory of daemon threads
+  private static ThreadFactory threadFactory(String prefix) {
+    ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+    return r -> {
+      Thread t = defaultFactory.newThread(r);
+      t.setName(prefix + t.getName());
+      t.setDaemon(true);
+      return t;
+    };
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public Results calculate(
+      CalculationTasks tasks,
+      MarketData marketData,
+      ReferenceData refData) {
+
+    // perform the calculations, unwrapping the single scenario results
+    ScenarioMarketData md = ScenarioMarketData.of(1, marketData);
+    Results results = calculateMultiScenario(tasks, md, refData);
+    List<Result<?>> mappedResults = results.getCells().stream()
+        .map(r -> DefaultCalculationTaskRunner.unwrapScenarioResult(r))
+        .collect(toImmutableList());
+    return Results.of(results.getColumns(), mappedResults);
+  }
+
+  @Override
+  public void calculateAsync(
+      CalculationTasks tasks,
+      MarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener) {
+
+    ScenarioMarketData md = ScenarioMarketData.of(1, marketData);
+    calculateMultiScenarioAsync(tasks, md, refData, new UnwrappingListener(listener));
+  }
+
+  @Override
+  public Results calculateMultiScenario(
+      CalculationTasks tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData) {
+
+    ResultsListener listener = new ResultsListener();
+    calculateMultiScenarioAsync(tasks, marketData, refData, listener);
+    return listener.result();
+  }
+
+  @Override
+  public void calculateMultiScenarioAsync(
+      CalculationTasks tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener) {
+
+    List<CalculationTask> taskList = tasks.getTasks();
+    Consumer<CalculationResults> consumer =
+        new ListenerWrapper(listener, taskList.size(), tasks.getTargets(), tasks.getColumns(), Metrics.listener());
+    coordinator.execute(() -> distribute(taskList, marketData, refData, consumer));
+  }
+
+  //-------------------------------------------------------------------------
+  // sends the tasks to the workers, calculating the tasks that cannot be sent in this JVM
+  private void distribute(
+      List<CalculationTask> taskList,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      Consumer<CalculationResults> consumer) {
+
+    byte[] marketDataBytes = serialize(Pair.of(refData, marketData), true);
+    byte[][] taskBytes = new byte[taskList.size()][];
+    List<Integer> remoteIndices = new ArrayList<>();
+    for (int i = 0; i < taskList.size(); i++) {
+      if (marketDataBytes != null) {
+        taskBytes[i] = serialize(taskList.get(i), false);
+      }
+      if (taskBytes[i] != null) {
+        remoteIndices.add(i);
+      } else {
+        calculateLocally(taskList.get(i), marketData, refData, consumer);
+      }
+    }
+    if (remoteIndices.isEmpty()) {
+      return;
+    }
+    Distribution distribution = new Distribution(taskBytes, remoteIndices, consumer);
+    lock.lock();
+    try {
+      CompletableFuture<?>[] futures = startWorkers().stream()
+          .map(worker -> CompletableFuture.runAsync(
+              () -> calculateOnWorker(worker, marketDataBytes, distribution), coordinator))
+          .toArray(CompletableFuture[]::new);
+      CompletableFuture.allOf(futures).join();
+    } catch (RuntimeException ex) {
+      log.warn("Unable to calculate using workers: {}", ex.toString());
+    } finally {
+      lock.unlock();
+    }
+    // any remaining tasks could not be calculated by the workers
+    for (List<Integer> chunk : distribution.remaining()) {
+      for (int index : chunk) {
+        calculateLocally(taskList.get(index), marketData, refData, consumer);
+      }
+    }
+  }
+
+  // serializes the value, returning null if it cannot be serialized
+  private static byte[] serialize(Object value, boolean compress) {
+    try {
+      return WorkerProtocol.serialize(value, compress);
+    } catch (IOException ex) {
+      log.debug("Unable to serialize for calculation worker, calculating locally: {}", ex.toString());
+      return null;
+    }
+  }
+
+  // calculates a task in this JVM
+  private void calculateLocally(
+      CalculationTask task,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      Consumer<CalculationResults> consumer) {
+
+    // executing separately converts an exception to failure results, ensuring the results are passed to the consumer
+    List<CalculationTask> tasks = ImmutableList.of(task);
+    CompletableFuture
+        .supplyAsync(() -> CalculationTask.executeSeparately(tasks, marketData, refData).get(0), localExecutor)
+        .thenAccept(consumer);
+  }
+
+  // sends chunks of tasks to the worker until all tasks are complete or the worker fails
+  private void calculateOnWorker(WorkerProcess worker, byte[] marketDataBytes, Distribution distribution) {
+    Set<Integer> pending = new HashSet<>();
+    try {
+      worker.sendMarketData(marketDataBytes);
+      while (distribution.isIncomplete()) {
+        List<Integer> chunk = distribution.poll();
+        if (chunk != null) {
+          pending.addAll(chunk);
+          worker.sendTasks(chunk, distribution.taskBytes);
+          while (!pending.isEmpty()) {
+            Pair<Integer, CalculationResults> received = worker.receiveResults();
+            pending.remove(received.getFirst());
+            distribution.complete(received.getSecond());
+          }
+        }
+      }
+      worker.sendEnd();
+    } catch (IOException | RuntimeException ex) {
+      log.warn("Calculation worker {} failed, recalculating {} tasks: {}", worker.id, pending.size(), ex.toString());
+      worker.close();
+      distribution.requeue(pending);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      distribution.requeue(pending);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  // removes failed workers and launches workers to replace them, called with the lock held
+  private List<WorkerProcess> startWorkers() {
+    for (WorkerProcess worker : workers) {
+      if (!worker.isAlive()) {
+        worker.close();
+        workers.remove(worker);
+      }
+    }
+    if (workers.size() < workerCount) {
+      workers.addAll(launchWorkers(workerCount - workers.size()));
+    }
+    return ImmutableList.copyOf(workers);
+  }
+
+  // launches the workers, waiting for each to connect, returning those that connected
+  private List<WorkerProcess> launchWorkers(int count) {
+    String token = UUID.randomUUID().toString();
+    Map<Integer, Process> processes = new HashMap<>();
+    List<WorkerProcess> launched = new ArrayList<>();
+    try (ServerSocket server = new ServerSocket(0, count, InetAddress.getLoopbackAddress())) {
+      server.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+      for (int i = 0; i < count; i++) {
+        int workerId = nextWorkerId++;
+        ProcessBuilder builder = new ProcessBuilder(command(server.getLocalPort(), token, workerId))
+            .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+            .redirectError(ProcessBuilder.Redirect.INHERIT);
+        processes.put(workerId, builder.start());
+      }
+      while (!processes.isEmpty()) {
+        Socket socket = server.accept();
+        socket.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+        socket.setTcpNoDelay(true);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        boolean valid = token.equals(in.readUTF());
+        int workerId = in.readInt();
+        Process process = valid ? processes.remove(workerId) : null;
+        if (process == null) {
+          socket.close();
+        } else {
+          socket.setSoTimeout(RESULTS_TIMEOUT_MILLIS);
+          launched.add(new WorkerProcess(workerId, process, socket, in, out));
+        }
+      }
+    } catch (IOException ex) {
+      log.warn("Unable to launch calculation workers: {}", ex.toString());
+    } finally {
+      processes.values().forEach(Process::destroy);
+    }
+    return launched;
+  }
+
+  // the command that launches a worker
+  private List<String> command(int port, String token, int workerId) {
+    List<String> command = new ArrayList<>();
+    command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    command.addAll(jvmArgs);
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(CalculationWorker.class.getName());
+    command.add(Integer.toString(port));
+    command.add(token);
+    command.add(Integer.toString(workerId));
+    command.add(Integer.toString(threadsPerWorker));
+    return command;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void close() {
+    for (WorkerProcess worker : workers) {
+      worker.close();
+    }
+    workers.clear();
+    coordinator.shutdown();
+    localExecutor.shutdown();
+  }
+
+  @Override
+  public String toString() {
+    return "ProcessCalculationTaskRunner[workerCount=" + workerCount + ", threadsPerWorker=" + threadsPerWorker + "]";
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The state of a calculation being distributed between the workers.
+   */
+  private static final class Distribution {
+
+    private final byte[][] taskBytes;
+    private final Consumer<CalculationResults> consumer;
+    private final BlockingQueue<List<Integer>> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger outstanding;
+
+    private Distribution(byte[][] taskBytes, List<Integer> indices, Consumer<CalculationResults> consumer) {
+      this.taskBytes = taskBytes;
+      this.consumer = consumer;
+      this.queue.addAll(Lists.partition(indices, CHUNK_SIZE));
+      this.outstanding = new AtomicInteger(indices.size());
+    }
+
+    // checks if any tasks have not been completed, including tasks being calculated by other workers
+    private boolean isIncomplete() {
+      return outstanding.get() > 0;
+    }
+
+    // takes the next chunk, waiting briefly if there is none
+    private List<Integer> poll() throws InterruptedException {
+      return queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // completes a task
+    private void complete(CalculationResults results) {
+      outstanding.decrementAndGet();
+      consumer.accept(results);
+    }
+
+    // returns the tasks of a failed worker to the queue
+    private void requeue(Set<Integer> indices) {
+      if (!indices.isEmpty()) {
+        queue.add(ImmutableList.copyOf(indices));
+      }
+    }
+
+    // removes the chunks that were not calculated
+    private List<List<Integer>> remaining() {
+      List<List<Integer>> remaining = new ArrayList<>();
+      queue.drainTo(remaining);
+      return remaining;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * A worker process and its connection.
+   */
+  private static final class WorkerProcess {
+
+    private final int id;
+    private final Process process;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    private WorkerProcess(int id, Process process, Socket socket, DataInputStream in, DataOutputStream out) {
+      this.id = id;
+      this.process = process;
+      this.socket = socket;
+      this.in = in;
+      this.out = out;
+    }
+
+    // checks if the process is running and connected
+    private boolean isAlive() {
+      return process.isAlive() && !socket.isClosed();
+    }
+
+    // sends the reference data and market data
+    private void sendMarketData(byte[] marketDataBytes) throws IOException {
+      out.writeByte(WorkerProtocol.MARKET_DATA);
+      WorkerProtocol.writeBytes(out, marketDataBytes);
+      out.flush();
+    }
+
+    // sends a chunk of tasks
+    private void sendTasks(List<Integer> chunk, byte[][] taskBytes) throws IOException {
+      out.writeByte(WorkerProtocol.TASKS);
+      out.writeInt(chunk.size());
+      for (int index : chunk) {
+        out.writeInt(index);
+        WorkerProtocol.writeBytes(out, taskBytes[index]);
+      }
+      out.flush();
+    }
+
+    // ends the calculation
+    private void sendEnd() throws IOException {
+      out.writeByte(WorkerProtocol.END);
+      out.flush();
+    }
+
+    // receives the results of a task, with the index of the task
+    private Pair<Integer, CalculationResults> receiveResults() throws IOException {
+      byte type = in.readByte();
+      if (type != WorkerProtocol.RESULTS) {
+        throw new IOException("Unexpected message type: " + type);
+      }
+      int index = in.readInt();
+      CalculationResults results = WorkerProtocol.deserialize(WorkerProtocol.readBytes(in), false, CalculationResults.class);
+      return Pair.of(index, results);
+    }
+
+    // closes the connection and ends the process
+    private void close() {
+      try {
+        socket.close();
+      } catch (IOException ex) {
+        // ignore, the process is destroyed anyway
+      }
+      process.destroy();
+    }
+  }
+
+}
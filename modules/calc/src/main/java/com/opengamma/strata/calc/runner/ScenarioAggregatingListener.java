@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.ReportingCurrency;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.OffHeapCurrencyScenarioArray;
+import com.opengamma.strata.data.scenario.OffHeapScenarioAccumulator;
+import com.opengamma.strata.data.scenario.ScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioFxRateProvider;
+
+/**
+ * Calculation listener that aggregates a scenario measure across all targets as the results arrive.
+ * <p>
+ * This is used with the asynchronous methods of {@code CalculationRunner} to calculate portfolio-level
+ * measures, such as the profit and loss vector, value-at-risk and expected shortfall, without holding
+ * the results of every target. The results of a single column are added to a running total for each
+ * scenario, stored off-heap, thus the memory used is proportional to the number of scenarios
+ * rather than the number of targets multiplied by the number of scenarios.
+ * <p>
+ * The column should normally specify a {@link ReportingCurrency} matching the currency of this listener,
+ * in which case the engine converts each result before it is received. If the FX rates are also
+ * passed to this listener, results in other currencies are converted as they are added.
+ * Results that cannot be added, including failures, are retained in {@link ScenarioAggregation#getFailures()}
+ * and do not contribute to the total.
+ * <p>
+ * A listener instance should not be used for multiple sets of calculations.
+ */
+public final class ScenarioAggregatingListener
+    extends AggregatingCalculationListener<ScenarioAggregation> {
+
+  /**
+   * The index of the column to aggregate.
+   */
+  private final int columnIndex;
+  /**
+   * The reporting currency.
+   */
+  private final Currency reportingCurrency;
+  /**
+   * The FX rates, null if not available.
+   */
+  private final ScenarioFxRateProvider fxRateProvider;
+  /**
+   * The running total, null until the number of scenarios is known.
+   */
+  private OffHeapScenarioAccumulator accumulator;
+  /**
+   * The number of targets included in the total.
+   */
+  private int targetCount;
+  /**
+   * The results that could not be included in the total.
+   */
+  private final List<CalculationResult> failures = new ArrayList<>();
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains a listener aggregating the specified column in the reporting currency.
+   * <p>
+   * All results must be in the reporting currency, which is normally achieved by specifying
+   * the reporting currency on the column.
+   *
+   * @param columnIndex  the index of the column to aggregate
+   * @param reportingCurrency  the reporting currency
+   * @return the listener
+   */
+  public static ScenarioAggregatingListener of(int columnIndex, Currency reportingCurrency) {
+    ArgChecker.notNegative(columnIndex, "columnIndex");
+    ArgChecker.notNull(reportingCurrency, "reportingCurrency");
+    return new ScenarioAggregatingListener(columnIndex, reportingCurrency, null);
+  }
+
+  /**
+   * Obtains a listener aggregating the specified column, converting to the reporting currency using the FX rates.
+   * <p>
+   * The FX rates are typically obtained using {@code ScenarioFxRateProvider.of(marketData)}
+   * with the same market data as the calculations.
+   *
+   * @param columnIndex  the index of the column to aggregate
+   * @param reportingCurrency  the reporting currency
+   * @param fxRateProvider  the FX rates, one set per scenario
+   * @return the listener
+   */
+  public static ScenarioAggregatingListener of(
+      int columnIndex,
+      Currency reportingCurrency,
+      ScenarioFxRateProvider fxRateProvider) {
+
+    ArgChecker.notNegative(columnIndex, "columnIndex");
+    ArgChecker.notNull(reportingCurrency, "reportingCurrency");
+    ArgChecker.notNull(fxRateProvider, "fxRateProvider");
+    return new ScenarioAggregatingListener(columnIndex, reportingCurrency, fxRateProvider);
+  }
+
+  // restricted constructor
+  private ScenarioAggregatingListener(
+      int columnIndex,
+      Currency reportingCurrency,
+      ScenarioFxRateProvider fxRateProvider) {
+
+    this.columnIndex = columnIndex;
+    this.reportingCurrency = reportingCurrency;
+    this.fxRateProvider = fxRateProvider;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void calculationsStarted(List<CalculationTarget> targets, List<Column> columns) {
+    ArgChecker.isTrue(
+        columnIndex < columns.size(), "Column index {} is invalid, only {} columns", columnIndex, columns.size());
+  }
+
+  @Override
+  public void resultReceived(CalculationTarget target, CalculationResult result) {
+    if (result.getColumnIndex() != columnIndex) {
+      return;
+    }
+    Result<?> underlying = result.getResult();
+    if (underlying.isFailure()) {
+      failures.add(result);
+      return;
+    }
+    Object value = underlying.getValue();
+    if (!(value instanceof ScenarioArray)) {
+      failures.add(result.withResult(Result.failure(
+          FailureReason.INVALID,
+          "Unable to aggregate result, expected ScenarioArray but found {}",
+          value.getClass().getName())));
+      return;
+    }
+    // the add is atomic, thus a rejected result is reported as a failure without altering the total
+    ScenarioArray<?> array = (ScenarioArray<?>) value;
+    try {
+      accumulator(array.getScenarioCount()).add(array);
+      targetCount++;
+    } catch (RuntimeException ex) {
+      failures.add(result.withResult(Result.failure(
+          FailureReason.INVALID,
+          ex,
+          "Unable to aggregate result: {}",
+          ex.getMessage())));
+    }
+  }
+
+  // the accumulator, created on first use
+  private OffHeapScenarioAccumulator accumulator(int scenarioCount) {
+    if (accumulator == null) {
+      accumulator = fxRateProvider != null ?
+          OffHeapScenarioAccumulator.of(reportingCurrency, fxRateProvider) :
+          OffHeapScenarioAccumulator.of(reportingCurrency, scenarioCount);
+    }
+    return accumulator;
+  }
+
+  @Override
+  protected ScenarioAggregation createAggregateResult() {
+    OffHeapCurrencyScenarioArray total = accumulator != null ?
+        accumulator.toCurrencyScenarioArray() :
+        OffHeapCurrencyScenarioArray.of(reportingCurrency, DoubleArray.EMPTY);
+    return ScenarioAggregation.of(total, targetCount, failures);
+  }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.data.scenario.OffHeapCurrencyScenarioArray;
+
+/**
+ * The portfolio-level aggregation of a scenario measure, produced by {@link ScenarioAggregatingListener}.
+ * <p>
+ * This holds the total of the measure across all targets for each scenario, in the reporting currency.
+ * Typically the measure is the profit and loss of each scenario, thus the total is the portfolio
+ * profit and loss vector, from which the value-at-risk and expected shortfall are derived.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class ScenarioAggregation {
+
+  /**
+   * The total of each scenario across all targets.
+   */
+  private final OffHeapCurrencyScenarioArray total;
+  /**
+   * The number of targets included in the total.
+   */
+  private final int targetCount;
+  /**
+   * The results that could not be included in the total.
+   */
+  private final ImmutableList<CalculationResult> failures;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   *
+   * @param total  the total of each scenario across all targets
+   * @param targetCount  the number of targets included in the total
+   * @param failures  the results that could not be included in the total
+   * @return the aggregation
+   */
+  public static ScenarioAggregation of(
+      OffHeapCurrencyScenarioArray total,
+      int targetCount,
+      List<CalculationResult> failures) {
+
+    ArgChecker.notNull(total, "total");
+    ArgChecker.notNegative(targetCount, "targetCount");
+    ArgChecker.notNull(failures, "failures");
+    return new ScenarioAggregation(total, targetCount, ImmutableList.copyOf(failures));
+  }
+
+  // restricted constructor
+  private ScenarioAggregation(
+      OffHeapCurrencyScenarioArray total,
+      int targetCount,
+      ImmutableList<CalculationResult> failures) {
+
+    this.total = total;
+    this.targetCount = targetCount;
+    this.failures = failures;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the reporting currency.
+   *
+   * @return the currency
+   */
+  public Currency getCurrency() {
+    return total.getCurrency();
+  }
+
+  /**
+   * Gets the total of each scenario across all targets.
+   *
+   * @return the total
+   */
+  public OffHeapCurrencyScenarioArray getTotal() {
+    return total;
+  }
+
+  /**
+   * Gets the number of scenarios.
+   *
+   * @return the number of scenarios
+   */
+  public int getScenarioCount() {
+    return total.getScenarioCount();
+  }
+
+  /**
+   * Gets the number of targets included in the total.
+   *
+   * @return the number of targets
+   */
+  public int getTargetCount() {
+    return targetCount;
+  }
+
+  /**
+   * Gets the results that could not be included in the total.
+   * <p>
+   * These are the failed results, and any successful results that were not scenario arrays
+   * compatible with the reporting currency.
+   *
+   * @return the failures
+   */
+  public ImmutableList<CalculationResult> getFailures() {
+    return failures;
+  }
+
+  /**
+   * Checks if any results could not be included in the total.
+   *
+   * @return true if there are failures
+   */
+  public boolean hasFailures() {
+    return !failures.isEmpty();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the quantile of the total across all scenarios.
+   * <p>
+   * The level is the size of the lower tail, see {@link OffHeapCurrencyScenarioArray#quantile(double)}.
+   *
+   * @param level  the quantile level, between 0 and 1 exclusive
+   * @return the quantile
+   */
+  public CurrencyAmount quantile(double level) {
+    return total.quantile(level);
+  }
+
+  /**
+   * Calculates the value-at-risk at the specified confidence level.
+   * <p>
+   * The total is treated as profit and loss, thus the value-at-risk at 99% is the loss,
+   * expressed as a positive amount, of the 1% quantile.
+   *
+   * @param confidenceLevel  the confidence level, between 0 and 1 exclusive, such as 0.99
+   * @return the value-at-risk
+   */
+  public CurrencyAmount valueAtRisk(double confidenceLevel) {
+    ArgChecker.inRangeExclusive(confidenceLevel, 0d, 1d, "confidenceLevel");
+    return total.quantile(1d - confidenceLevel).negated();
+  }
+
+  /**
+   * Calculates the expected shortfall at the specified confidence level.
+   * <p>
+   * The total is treated as profit and loss, thus the expected shortfall at 97.5% is the mean loss,
+   * expressed as a positive amount, of the worst 2.5% of scenarios.
+   *
+   * @param confidenceLevel  the confidence level, between 0 and 1 exclusive, such as 0.975
+   * @return the expected shortfall
+   */
+  public CurrencyAmount expectedShortfall(double confidenceLevel) {
+    ArgChecker.inRangeExclusive(confidenceLevel, 0d, 1d, "confidenceLevel");
+    return total.expectedShortfall(1d - confidenceLevel).negated();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "ScenarioAggregation[currency=" + getCurrency() + ", scenarioCount=" + getScenarioCount() +
+        ", targetCount=" + targetCount + ", failureCount=" + failures.size() + "]";
+  }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+
+/**
+ * Listener that applies the cancellation and timeout of a scheduled calculation run.
+ * <p>
+ * This decorates the listener of the run, and is the {@link CalculationHandle} returned to the caller.
+ * Each cell is passed to the delegate listener at most once.
+ * When the run is cancelled or times out, a failure is passed to the delegate for each cell
+ * that has not yet been received, followed by {@link CalculationListener#calculationsComplete()}.
+ * Results received after that point are discarded.
+ * <p>
+ * The delegate may be invoked by the calculation threads, the thread cancelling the run
+ * or the timer thread, thus all calls to the delegate are made while holding a lock.
+ */
+final class ScheduledListener implements CalculationListener, CalculationHandle {
+
+  private static final Logger log = LoggerFactory.getLogger(ScheduledListener.class);
+
+  /** The timer used to apply the timeouts, shared by all runs. */
+  private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "CalculationTimeout");
+    t.setDaemon(true);
+    return t;
+  });
+
+  /** The wrapped listener. */
+  private final CalculationListener delegate;
+
+  /** The tasks of the run. */
+  private final CalculationTasks tasks;
+
+  /** The time allowed for the run, null if there is no limit. */
+  private final Duration timeout;
+
+  /** Protects the mutable state and the calls to the delegate. */
+  private final Lock lock = new ReentrantLock();
+
+  // Mutable state -----------------------------------------------------
+
+  /** The cells that have been passed to the delegate, indexed by row and column. */
+  private final boolean[] received;
+
+  /** Whether the delegate has been notified that the calculations started. */
+  private boolean started;
+
+  /** The reason the run was terminated early, null if it was not. */
+  private FailureReason terminatedReason;
+
+  /** The pending timeout, null if there is none. */
+  private ScheduledFuture<?> timer;
+
+  /** Whether the delegate has been notified that the calculations are complete. */
+  private volatile boolean complete;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates an instance.
+   *
+   * @param delegate  the listener of the run
+   * @param tasks  the tasks of the run
+   * @param schedule  the schedule of the run
+   */
+  ScheduledListener(CalculationListener delegate, CalculationTasks tasks, CalculationSchedule schedule) {
+    this.delegate = ArgChecker.notNull(delegate, "delegate");
+    this.tasks = ArgChecker.notNull(tasks, "tasks");
+    this.timeout = schedule.getTimeout().orElse(null);
+    this.received = new boolean[tasks.getTargets().size() * tasks.getColumns().size()];
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void calculationsStarted(List<CalculationTarget> targets, List<Column> columns) {
+    lock.lock();
+    try {
+      if (started) {
+        return;
+      }
+      started = true;
+      delegate.calculationsStarted(targets, columns);
+      if (timeout != null && !complete) {
+        timer = TIMER.schedule(() -> terminate(FailureReason.TIMEOUT), timeout.toNanos(), TimeUnit.NANOSECONDS);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void resultReceived(CalculationTarget target, CalculationResult result) {
+    lock.lock();
+    try {
+      int index = index(result.getRowIndex(), result.getColumnIndex());
+      if (complete || received[index]) {
+        return;
+      }
+      received[index] = true;
+      delegate.resultReceived(target, result);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void calculationsComplete() {
+    lock.lock();
+    try {
+      if (complete) {
+        return;
+      }
+      complete = true;
+      if (timer != null) {
+        timer.cancel(false);
+      }
+      delegate.calculationsComplete();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean cancel() {
+    return terminate(FailureReason.CANCELLED);
+  }
+
+  @Override
+  public boolean isDone() {
+    return complete;
+  }
+
+  @Override
+  public boolean isCancelled() {
+    return terminatedReason() == FailureReason.CANCELLED;
+  }
+
+  @Override
+  public boolean isTimedOut() {
+    return terminatedReason() == FailureReason.TIMEOUT;
+  }
+
+  // the reason the run was terminated early, read under the lock
+  private FailureReason terminatedReason() {
+    lock.lock();
+    try {
+      return terminatedReason;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  // fails every cell not yet received and completes the run, returning false if already complete
+  private boolean terminate(FailureReason reason) {
+    lock.lock();
+    try {
+      if (complete) {
+        return false;
+      }
+      terminatedReason = reason;
+      complete = true;
+      if (timer != null) {
+        timer.cancel(false);
+      }
+      if (!started) {
+        started = true;
+        delegate.calculationsStarted(tasks.getTargets(), tasks.getColumns());
+      }
+      for (CalculationTask task : tasks.getTasks()) {
+        for (CalculationTaskCell cell : task.getCells()) {
+          int index = index(cell.getRowIndex(), cell.getColumnIndex());
+          if (!received[index]) {
+            received[index] = true;
+            CalculationResult result = CalculationResult.of(cell.getRowIndex(), cell.getColumnIndex(), failure(reason));
+            try {
+              delegate.resultReceived(task.getTarget(), result);
+            } catch (RuntimeException ex) {
+              log.warn("Exception invoking listener.resultReceived", ex);
+            }
+          }
+        }
+      }
+      try {
+        delegate.calculationsComplete();
+      } catch (RuntimeException ex) {
+        log.warn("Exception invoking listener.calculationsComplete", ex);
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // the failure of a cell that was not received
+  private Result<?> failure(FailureReason reason) {
+    if (reason == FailureReason.TIMEOUT) {
+      return Result.failure(reason, "Calculation did not complete within the timeout of {}", timeout);
+    }
+    return Result.failure(reason, "Calculation was cancelled");
+  }
+
+  // the index of a cell
+  private int index(int rowIndex, int columnIndex) {
+    return rowIndex * tasks.getColumns().size() + columnIndex;
+  }
+
+}
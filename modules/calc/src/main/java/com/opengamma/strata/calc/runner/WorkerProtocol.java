@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The protocol between {@link ProcessCalculationTaskRunner} and {@link CalculationWorker}.
+ * <p>
+ * Each message starts with a single byte type. The coordinator sends:
+ * <ul>
+ * <li>{@link #MARKET_DATA} - the compressed reference data and market data used by the following tasks
+ * <li>{@link #TASKS} - the number of tasks, then the index and serialized form of each task
+ * <li>{@link #END} - the end of the calculation, allowing the worker to discard the market data
+ * </ul>
+ * The worker sends {@link #RESULTS}, the index of a task and the serialized form of its results,
+ * as each task completes.
+ * <p>
+ * Objects are sent using Java serialization.
+ * A calculation function that is not serializable is sent by the name of its class if it is public
+ * and has a public no-arguments constructor, as is the case for the standard functions.
+ * The worker creates a single instance of each such function.
+ */
+final class WorkerProtocol {
+
+  /**
+   * Message type sending the reference data and market data.
+   */
+  static final byte MARKET_DATA = 1;
+  /**
+   * Message type sending tasks.
+   */
+  static final byte TASKS = 2;
+  /**
+   * Message type ending the calculation.
+   */
+  static final byte END = 3;
+  /**
+   * Message type sending the results of a task.
+   */
+  static final byte RESULTS = 4;
+
+  /**
+   * Restricted constructor.
+   */
+  private WorkerProtocol() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Serializes the object.
+   * <p>
+   * Calculation functions that are not serializable are replaced by a reference to their class.
+   *
+   * @param value  the value to serialize
+   * @param compress  whether to compress the serialized form
+   * @return the serialized form
+   * @throws IOException if the value cannot be serialized
+   */
+  static byte[] serialize(Object value, boolean compress) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    OutputStream out = compress ? new DeflaterOutputStream(bytes) : bytes;
+    try (ObjectOutputStream objOut = new FunctionReplacingOutputStream(out)) {
+      objOut.writeObject(value);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Deserializes the object.
+   *
+   * @param <T>  the type of the object
+   * @param bytes  the serialized form
+   * @param compressed  whether the serialized form is compressed
+   * @param type  the type of the object
+   * @return the object
+   * @throws IOException if the object cannot be deserialized
+   */
+  static <T> T deserialize(byte[] bytes, boolean compressed, Class<T> type) throws IOException {
+    InputStream in = new ByteArrayInputStream(bytes);
+    try (ObjectInputStream objIn = new ObjectInputStream(compressed ? new InflaterInputStream(in) : in)) {
+      return type.cast(objIn.readObject());
+    } catch (ClassNotFoundException | ClassCastException ex) {
+      throw new InvalidObjectException(ex.toString());
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Writes a byte array prefixed by its length.
+   *
+   * @param out  the output stream
+   * @param bytes  the bytes to write
+   * @throws IOException if an IO error occurs
+   */
+  static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a byte array prefixed by its length.
+   *
+   * @param in  the input stream
+   * @return the bytes
+   * @throws IOException if an IO error occurs
+   */
+  static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Object output stream replacing calculation functions that are not serializable.
+   */
+  private static final class FunctionReplacingOutputStream extends ObjectOutputStream {
+
+    private FunctionReplacingOutputStream(OutputStream out) throws IOException {
+      super(out);
+      enableReplaceObject(true);
+    }
+
+    @Override
+    protected Object replaceObject(Object obj) throws IOException {
+      if (obj instanceof CalculationFunction && !(obj instanceof Serializable)) {
+        return FunctionReference.of(obj.getClass());
+      }
+      return obj;
+    }
+  }
+
+  /**
+   * A reference to a calculation function, by the name of its class.
+   */
+  private static final class FunctionReference implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    // the functions created on deserialization, keyed by class name
+    private static final ConcurrentHashMap<String, CalculationFunction<?>> FUNCTIONS = new ConcurrentHashMap<>();
+
+    private final String className;
+
+    // obtains a reference, checking the function can be created from its class
+    private static FunctionReference of(Class<?> functionClass) throws NotSerializableException {
+      try {
+        functionClass.getConstructor();
+      } catch (NoSuchMethodException ex) {
+        throw new NotSerializableException(functionClass.getName());
+      }
+      if (!Modifier.isPublic(functionClass.getModifiers())) {
+        throw new NotSerializableException(functionClass.getName());
+      }
+      return new FunctionReference(functionClass.getName());
+    }
+
+    private FunctionReference(String className) {
+      this.className = className;
+    }
+
+    // creates the function, or returns the function already created
+    private Object readResolve() throws ObjectStreamException {
+      try {
+        return FUNCTIONS.computeIfAbsent(className, name -> create(name));
+      } catch (RuntimeException ex) {
+        throw new InvalidObjectException("Unable to create calculation function: " + className + ": " + ex);
+      }
+    }
+
+    // creates an instance of the function
+    private static CalculationFunction<?> create(String className) {
+      try {
+        return (CalculationFunction<?>) Class.forName(className).getConstructor().newInstance();
+      } catch (ReflectiveOperationException ex) {
+        throw new IllegalStateException(ex);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.marketdata;
+
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.data.ImmutableMarketData;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.data.scenario.MarketDataBox;
+import com.opengamma.strata.data.scenario.ScenarioPerturbation;
+
+/**
+ * Test {@link ChunkedScenarioMarketData}.
+ */
+public class ChunkedScenarioMarketDataTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final LocalDate VAL_DATE = date(2011, 3, 8);
+  private static final TestObservableId ID = TestObservableId.of("a");
+  private static final MarketData BASE_DATA = ImmutableMarketData.builder(VAL_DATE).addValue(ID, 10d).build();
+  private static final MarketDataFactory FACTORY =
+      MarketDataFactory.of(ObservableDataProvider.none(), TimeSeriesProvider.none());
+  private static final MarketDataRequirements REQUIREMENTS = MarketDataRequirements.builder().addValues(ID).build();
+  private static final ScenarioDefinition SCENARIOS = ScenarioDefinition.ofMappings(
+      PerturbationMapping.of(MarketDataFilter.ofId(ID), new AbsoluteDoubleShift(1, 2, 3, 4, 5, 6, 7)));
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_of() {
+    ChunkedScenarioMarketData test =
+        ChunkedScenarioMarketData.of(FACTORY, MarketDataConfig.empty(), BASE_DATA, SCENARIOS, 3);
+    assertThat(test.getValuationDate()).isEqualTo(VAL_DATE);
+    assertThat(test.getScenarioDefinition()).isEqualTo(SCENARIOS);
+    assertThat(test.getScenarioCount()).isEqualTo(7);
+    assertThat(test.getChunkSize()).isEqualTo(3);
+    assertThat(test.getChunkCount()).isEqualTo(3);
+    assertThat(test.getChunkStart(0)).isEqualTo(0);
+    assertThat(test.getChunkStart(2)).isEqualTo(6);
+    assertThat(test.getChunkScenarioCount(0)).isEqualTo(3);
+    assertThat(test.getChunkScenarioCount(2)).isEqualTo(1);
+    assertThat(test.toString()).isEqualTo("ChunkedScenarioMarketData[scenarios=7, chunkSize=3]");
+  }
+
+  @Test
+  public void test_of_invalid() {
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ChunkedScenarioMarketData.of(FACTORY, MarketDataConfig.empty(), BASE_DATA, SCENARIOS, 0));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ChunkedScenarioMarketData.of(
+            FACTORY, MarketDataConfig.empty(), BASE_DATA, ScenarioDefinition.empty(), 2));
+  }
+
+  @Test
+  public void test_buildChunk() {
+    ChunkedScenarioMarketData test =
+        ChunkedScenarioMarketData.of(FACTORY, MarketDataConfig.empty(), BASE_DATA, SCENARIOS, 3);
+    BuiltScenarioMarketData chunk0 = test.buildChunk(0, REQUIREMENTS, REF_DATA);
+    assertThat(chunk0.getScenarioCount()).isEqualTo(3);
+    assertThat(chunk0.getValue(ID)).isEqualTo(MarketDataBox.ofScenarioValues(11d, 12d, 13d));
+    BuiltScenarioMarketData chunk2 = test.buildChunk(2, REQUIREMENTS, REF_DATA);
+    assertThat(chunk2.getScenarioCount()).isEqualTo(1);
+    assertThat(chunk2.getValue(ID).getValue(0)).isEqualTo(17d);
+    assertThatIllegalArgumentException().isThrownBy(() -> test.buildChunk(3, REQUIREMENTS, REF_DATA));
+  }
+
+  @Test
+  public void test_buildChunk_matchesAllScenarios() {
+    // the perturbation does not override subset, thus each chunk applies it in full and selects the range
+    BuiltScenarioMarketData all =
+        FACTORY.createMultiScenario(REQUIREMENTS, MarketDataConfig.empty(), BASE_DATA, REF_DATA, SCENARIOS);
+    for (int chunkSize = 1; chunkSize <= 7; chunkSize++) {
+      ChunkedScenarioMarketData test =
+          ChunkedScenarioMarketData.of(FACTORY, MarketDataConfig.empty(), BASE_DATA, SCENARIOS, chunkSize);
+      for (int chunkIndex = 0; chunkIndex < test.getChunkCount(); chunkIndex++) {
+        MarketDataBox<Double> chunk = test.buildChunk(chunkIndex, REQUIREMENTS, REF_DATA).getValue(ID);
+        for (int i = 0; i < chunk.getScenarioCount(); i++) {
+          assertThat(chunk.getValue(i)).isEqualTo(all.getValue(ID).getValue(test.getChunkStart(chunkIndex) + i));
+        }
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Perturbation that applies a shift to a double value.
+   */
+  private static final class AbsoluteDoubleShift implements ScenarioPerturbation<Double> {
+
+    private final double[] shiftAmount;
+
+    private AbsoluteDoubleShift(double... shiftAmount) {
+      this.shiftAmount = shiftAmount;
+    }
+
+    @Override
+    public MarketDataBox<Double> applyTo(MarketDataBox<Double> marketData, ReferenceData refData) {
+      return marketData.mapWithIndex(getScenarioCount(), (value, scenarioIndex) -> value + shiftAmount[scenarioIndex]);
+    }
+
+    @Override
+    public int getScenarioCount() {
+      return shiftAmount.length;
+    }
+
+    @Override
+    public Class<Double> getMarketDataType() {
+      return Double.class;
+    }
+  }
+
+}
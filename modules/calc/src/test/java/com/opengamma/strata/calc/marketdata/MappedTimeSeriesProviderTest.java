@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.marketdata;
+
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesStore;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.data.ObservableSource;
+
+/**
+ * Test {@link MappedTimeSeriesProvider}.
+ */
+public class MappedTimeSeriesProviderTest {
+
+  private static final TestObservableId ID1 = TestObservableId.of("1");
+  private static final TestObservableId ID2 = TestObservableId.of("2");
+  private static final TestObservableId ID1_SOURCE = TestObservableId.of("1", ObservableSource.of("Vendor"));
+  private static final LocalDateDoubleTimeSeries SERIES1 = LocalDateDoubleTimeSeries.builder()
+      .put(date(2020, 1, 2), 1d)
+      .put(date(2020, 3, 2), 2d)
+      .build();
+  private static final LocalDateDoubleTimeSeries SERIES2 = LocalDateDoubleTimeSeries.of(date(2020, 1, 2), 3d);
+
+  @Test
+  public void test_writeOpen(@TempDir Path tempDir) {
+    Path file = tempDir.resolve("series.bin");
+    MappedTimeSeriesProvider.write(file, ImmutableMap.of(ID1, SERIES1, ID2, SERIES2));
+    MappedTimeSeriesProvider test = MappedTimeSeriesProvider.open(file);
+    assertThat(test.getStore().size()).isEqualTo(2);
+
+    Result<LocalDateDoubleTimeSeries> result1 = test.provideTimeSeries(ID1);
+    assertThat(result1.isSuccess()).isTrue();
+    assertThat(result1.getValue().toBuilder().build()).isEqualTo(SERIES1);
+    assertThat(test.provideTimeSeries(ID2).getValue().toBuilder().build()).isEqualTo(SERIES2);
+
+    Result<LocalDateDoubleTimeSeries> missing = test.provideTimeSeries(ID1_SOURCE);
+    assertThat(missing.isFailure()).isTrue();
+    assertThat(missing.getFailure().getReason()).isEqualTo(FailureReason.MISSING_DATA);
+
+    MappedTimeSeriesProvider test2 = MappedTimeSeriesProvider.of(LocalDateDoubleTimeSeriesStore.open(file));
+    assertThat(test2.provideTimeSeries(ID2).isSuccess()).isTrue();
+    assertThat(test2.toString()).startsWith("MappedTimeSeriesProvider[");
+  }
+
+  @Test
+  public void test_write_duplicateName(@TempDir Path tempDir) {
+    Map<ObservableId, LocalDateDoubleTimeSeries> map = ImmutableMap.of(
+        ID1, SERIES1,
+        new TestObservableId("1", ObservableSource.NONE) {
+          private static final long serialVersionUID = 1L;
+        },
+        SERIES2);
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> MappedTimeSeriesProvider.write(tempDir.resolve("dup.bin"), map));
+  }
+
+}
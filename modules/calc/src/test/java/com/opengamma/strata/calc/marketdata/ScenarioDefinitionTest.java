@@ -115,6 +115,23 @@ public class ScenarioDefinitionTest {
         .withMessage("Scenario names must be unique but duplicates were found: foo");
   }
 
+  @Test
+  public void subset() {
+    List<PerturbationMapping<Object>> mappings = ImmutableList.of(MAPPING_A, MAPPING_B, MAPPING_C);
+    List<String> scenarioNames = ImmutableList.of("foo", "bar");
+    ScenarioDefinition scenarioDefinition = ScenarioDefinition.ofMappings(mappings, scenarioNames);
+    ScenarioDefinition test = scenarioDefinition.subset(1, 2);
+    assertThat(test.getScenarioCount()).isEqualTo(1);
+    assertThat(test.getScenarioNames()).containsExactly("bar");
+    assertThat(test.getMappings()).hasSize(3);
+    assertThat(test.getMappings().get(0).getFilter()).isEqualTo(FILTER_A);
+    assertThat(test.getMappings().get(0).getScenarioCount()).isEqualTo(1);
+    assertThat(scenarioDefinition.subset(0, 2)).isSameAs(scenarioDefinition);
+    assertThatIllegalArgumentException().isThrownBy(() -> scenarioDefinition.subset(1, 1));
+    assertThatIllegalArgumentException().isThrownBy(() -> scenarioDefinition.subset(0, 3));
+    assertThatIllegalArgumentException().isThrownBy(() -> scenarioDefinition.subset(-1, 1));
+  }
+
   //-------------------------------------------------------------------------
   private static final class TestPerturbation implements ScenarioPerturbation<Object> {
 
@@ -14,7 +14,10 @@ import static com.opengamma.strata.collect.TestHelper.coverBeanEquals;
 import static com.opengamma.strata.collect.TestHelper.coverImmutableBean;
 import static com.opengamma.strata.collect.TestHelper.date;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -475,6 +478,70 @@ public class CalculationTaskTest {
         .isEqualTo("CalculationTask[CalculationTaskCell[(1, 2), measure=PresentValue, currency=Specific:USD]]");
   }
 
+  //-------------------------------------------------------------------------
+  @Test
+  public void executeBatch() {
+    BatchFunction fn = new BatchFunction(10);
+    ScenarioMarketData marketData = ScenarioMarketData.empty();
+    List<CalculationTask> tasks = ImmutableList.of(
+        CalculationTask.of(new BatchTarget(1), fn, CalculationTaskCell.of(0, 0, TestingMeasures.PRESENT_VALUE, NATURAL)),
+        CalculationTask.of(new BatchTarget(2), fn, CalculationTaskCell.of(1, 0, TestingMeasures.PAR_RATE, NATURAL)),
+        CalculationTask.of(new BatchTarget(3), fn, CalculationTaskCell.of(2, 0, TestingMeasures.PRESENT_VALUE, NATURAL)));
+
+    List<CalculationResults> results = CalculationTask.executeBatch(tasks, marketData, REF_DATA);
+    assertThat(fn.getBatchSizes()).containsExactly(2);
+    assertThat(results).hasSize(3);
+    assertThat(results.get(0).getTarget()).isSameAs(tasks.get(0).getTarget());
+    assertThat(results.get(0).getCells().get(0).getResult()).hasValue(1d);
+    assertThat(results.get(1).getCells().get(0).getResult()).hasFailureMessageMatching(".*not supported.*");
+    assertThat(results.get(2).getCells().get(0).getResult()).hasValue(3d);
+    assertThat(results.get(2)).isEqualTo(tasks.get(2).execute(marketData, REF_DATA));
+  }
+
+  @Test
+  public void executeBatch_failure() {
+    BatchFunction fn = new BatchFunction(10);
+    List<CalculationTask> tasks = ImmutableList.of(
+        CalculationTask.of(new BatchTarget(1), fn, CalculationTaskCell.of(0, 0, TestingMeasures.PRESENT_VALUE, NATURAL)),
+        CalculationTask.of(new BatchTarget(-2), fn, CalculationTaskCell.of(1, 0, TestingMeasures.PRESENT_VALUE, NATURAL)));
+
+    // the batch fails, so each task is calculated separately
+    List<CalculationResults> results = CalculationTask.executeBatch(tasks, ScenarioMarketData.empty(), REF_DATA);
+    assertThat(fn.getBatchSizes()).containsExactly(2, 1, 1);
+    assertThat(results.get(0).getCells().get(0).getResult()).hasValue(1d);
+    assertThat(results.get(1).getCells().get(0).getResult())
+        .isFailure(FailureReason.CALCULATION_FAILED)
+        .hasFailureMessageMatching(".*Negative value.*");
+  }
+
+  @Test
+  public void executeBatch_equalFunctions() {
+    // functions are compared using equals, as when the runner groups the tasks
+    BatchFunction fn1 = new BatchFunction(10);
+    BatchFunction fn2 = new BatchFunction(10);
+    List<CalculationTask> tasks = ImmutableList.of(
+        CalculationTask.of(new BatchTarget(1), fn1, CalculationTaskCell.of(0, 0, TestingMeasures.PRESENT_VALUE, NATURAL)),
+        CalculationTask.of(new BatchTarget(2), fn2, CalculationTaskCell.of(1, 0, TestingMeasures.PRESENT_VALUE, NATURAL)));
+
+    List<CalculationResults> results = CalculationTask.executeBatch(tasks, ScenarioMarketData.empty(), REF_DATA);
+    assertThat(fn1.getBatchSizes()).containsExactly(2);
+    assertThat(fn2.getBatchSizes()).isEmpty();
+    assertThat(results.get(0).getCells().get(0).getResult()).hasValue(1d);
+    assertThat(results.get(1).getCells().get(0).getResult()).hasValue(2d);
+  }
+
+  @Test
+  public void executeBatch_invalid() {
+    CalculationTaskCell cell = CalculationTaskCell.of(0, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+    List<CalculationTask> tasks = ImmutableList.of(
+        CalculationTask.of(new BatchTarget(1), new BatchFunction(10), cell),
+        CalculationTask.of(new BatchTarget(2), new BatchFunction(20), cell));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> CalculationTask.executeBatch(tasks, ScenarioMarketData.empty(), REF_DATA));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> CalculationTask.executeBatch(ImmutableList.of(), ScenarioMarketData.empty(), REF_DATA));
+  }
+
   //-------------------------------------------------------------------------
   @Test
   public void coverage() {
@@ -494,6 +561,92 @@ public class CalculationTaskTest {
   static class TestTarget implements CalculationTarget {
   }
 
+  static final class BatchTarget implements CalculationTarget {
+    private final double value;
+
+    BatchTarget(double value) {
+      this.value = value;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Batch function that returns the value of each target, recording the size of each batch.
+   * Instances are equal if they have the same maximum batch size.
+   */
+  static final class BatchFunction implements BatchCalculationFunction<BatchTarget> {
+
+    private final int maxBatchSize;
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    BatchFunction(int maxBatchSize) {
+      this.maxBatchSize = maxBatchSize;
+    }
+
+    List<Integer> getBatchSizes() {
+      return batchSizes;
+    }
+
+    @Override
+    public Class<BatchTarget> targetType() {
+      return BatchTarget.class;
+    }
+
+    @Override
+    public Set<Measure> supportedMeasures() {
+      return ImmutableSet.of(TestingMeasures.PRESENT_VALUE);
+    }
+
+    @Override
+    public int maxBatchSize() {
+      return maxBatchSize;
+    }
+
+    @Override
+    public Currency naturalCurrency(BatchTarget target, ReferenceData refData) {
+      return USD;
+    }
+
+    @Override
+    public FunctionRequirements requirements(
+        BatchTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ReferenceData refData) {
+
+      return FunctionRequirements.empty();
+    }
+
+    @Override
+    public List<Map<Measure, Result<?>>> calculateBatch(
+        List<? extends BatchTarget> targets,
+        List<Set<Measure>> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      batchSizes.add(targets.size());
+      List<Map<Measure, Result<?>>> results = new ArrayList<>();
+      for (BatchTarget target : targets) {
+        if (target.value < 0) {
+          throw new IllegalArgumentException("Negative value");
+        }
+        results.add(ImmutableMap.of(TestingMeasures.PRESENT_VALUE, Result.success(target.value)));
+      }
+      return results;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof BatchFunction && ((BatchFunction) obj).maxBatchSize == maxBatchSize;
+    }
+
+    @Override
+    public int hashCode() {
+      return maxBatchSize;
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Function that returns a value that is not currency convertible.
@@ -6,28 +6,37 @@
 package com.opengamma.strata.calc.runner;
 
 import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.calc.ReportingCurrency.NATURAL;
 import static com.opengamma.strata.collect.TestHelper.coverImmutableBean;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.basics.CalculationTarget;
 import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.calc.CalculationRules;
 import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Measure;
 import com.opengamma.strata.calc.TestingMeasures;
 import com.opengamma.strata.calc.marketdata.MarketDataRequirements;
 import com.opengamma.strata.calc.marketdata.TestId;
 import com.opengamma.strata.calc.marketdata.TestObservableId;
 import com.opengamma.strata.calc.runner.CalculationTaskTest.TestFunction;
 import com.opengamma.strata.calc.runner.CalculationTaskTest.TestTarget;
+import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.data.MarketDataId;
 import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
 
 /**
  * Test {@link CalculationTasks}.
@@ -102,6 +111,22 @@ public class CalculationTasksTest {
     assertThat(timeSeries.iterator().next()).isEqualTo(timeSeriesId);
   }
 
+  @Test
+  public void test_requirements_sharedByKey() {
+    KeyFunction function = new KeyFunction();
+    List<CalculationTask> tasks = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      KeyTarget target = new KeyTarget(i % 3 == 0 ? "A" : "B");
+      tasks.add(CalculationTask.of(target, function, CalculationTaskCell.of(i, 0, TestingMeasures.PRESENT_VALUE, NATURAL)));
+    }
+    CalculationTasks test = CalculationTasks.of(tasks, ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE)));
+
+    MarketDataRequirements requirements = test.requirements(REF_DATA);
+    assertThat(requirements.getNonObservables()).containsOnly(TestId.of("A"), TestId.of("B"));
+    assertThat(requirements.getObservables()).isEmpty();
+    assertThat(function.getRequirementsCount()).isEqualTo(2);
+  }
+
   //-------------------------------------------------------------------------
   @Test
   public void testToString() {
@@ -115,4 +140,69 @@ public class CalculationTasksTest {
     assertThat(task.toString()).isEqualTo("CalculationTasks[grid=2x3]");
   }
 
+  //-------------------------------------------------------------------------
+  private static final class KeyTarget implements CalculationTarget {
+
+    private final String key;
+
+    private KeyTarget(String key) {
+      this.key = key;
+    }
+
+    private String getKey() {
+      return key;
+    }
+  }
+
+  private static final class KeyFunction implements CalculationFunction<KeyTarget> {
+
+    private final AtomicInteger requirementsCount = new AtomicInteger();
+
+    private int getRequirementsCount() {
+      return requirementsCount.get();
+    }
+
+    @Override
+    public Class<KeyTarget> targetType() {
+      return KeyTarget.class;
+    }
+
+    @Override
+    public Set<Measure> supportedMeasures() {
+      return ImmutableSet.of(TestingMeasures.PRESENT_VALUE);
+    }
+
+    @Override
+    public Currency naturalCurrency(KeyTarget target, ReferenceData refData) {
+      return USD;
+    }
+
+    @Override
+    public Object requirementsKey(KeyTarget target) {
+      return target.getKey();
+    }
+
+    @Override
+    public FunctionRequirements requirements(
+        KeyTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ReferenceData refData) {
+
+      requirementsCount.incrementAndGet();
+      return FunctionRequirements.builder().valueRequirements(TestId.of(target.getKey())).build();
+    }
+
+    @Override
+    public Map<Measure, Result<?>> calculate(
+        KeyTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      throw new UnsupportedOperationException();
+    }
+  }
+
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.collect.CollectProjectAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.calc.ColumnHeader;
+import com.opengamma.strata.calc.ColumnName;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.TestingMeasures;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.CurrencyScenarioArray;
+import com.opengamma.strata.data.scenario.DoubleScenarioArray;
+import com.opengamma.strata.data.scenario.MultiCurrencyScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioArray;
+
+/**
+ * Test {@link ChunkedResultsBuilder}.
+ */
+public class ChunkedResultsBuilderTest {
+
+  private static final List<ColumnHeader> COLUMNS =
+      ImmutableList.of(ColumnHeader.of(ColumnName.of("PV"), TestingMeasures.PRESENT_VALUE));
+
+  @Test
+  public void test_double() {
+    ChunkedResultsBuilder test = new ChunkedResultsBuilder();
+    test.add(results(DoubleScenarioArray.of(DoubleArray.of(1, 2))));
+    test.add(results(DoubleScenarioArray.of(DoubleArray.of(3))));
+    assertThat(test.build().get(0, 0)).hasValue(DoubleScenarioArray.of(DoubleArray.of(1, 2, 3)));
+  }
+
+  @Test
+  public void test_currency() {
+    ChunkedResultsBuilder test = new ChunkedResultsBuilder();
+    test.add(results(CurrencyScenarioArray.of(USD, DoubleArray.of(1, 2))));
+    test.add(results(CurrencyScenarioArray.of(USD, DoubleArray.of(3))));
+    assertThat(test.build().get(0, 0)).hasValue(CurrencyScenarioArray.of(USD, DoubleArray.of(1, 2, 3)));
+  }
+
+  @Test
+  public void test_currency_mixed() {
+    ChunkedResultsBuilder test = new ChunkedResultsBuilder();
+    test.add(results(CurrencyScenarioArray.of(USD, DoubleArray.of(1))));
+    test.add(results(CurrencyScenarioArray.of(GBP, DoubleArray.of(2))));
+    assertThat(test.build().get(0, 0))
+        .hasValue(ScenarioArray.of(CurrencyAmount.of(USD, 1), CurrencyAmount.of(GBP, 2)));
+  }
+
+  @Test
+  public void test_multiCurrency() {
+    MultiCurrencyAmount amount1 = MultiCurrencyAmount.of(CurrencyAmount.of(USD, 1));
+    MultiCurrencyAmount amount2 = MultiCurrencyAmount.of(CurrencyAmount.of(GBP, 2));
+    ChunkedResultsBuilder test = new ChunkedResultsBuilder();
+    test.add(results(MultiCurrencyScenarioArray.of(amount1)));
+    test.add(results(MultiCurrencyScenarioArray.of(amount2)));
+    assertThat(test.build().get(0, 0)).hasValue(MultiCurrencyScenarioArray.of(amount1, amount2));
+  }
+
+  @Test
+  public void test_generic() {
+    ChunkedResultsBuilder test = new ChunkedResultsBuilder();
+    test.add(results(ScenarioArray.of("a", "b")));
+    test.add(results(ScenarioArray.of("c")));
+    assertThat(test.build().get(0, 0)).hasValue(ScenarioArray.of("a", "b", "c"));
+  }
+
+  @Test
+  public void test_singleValue() {
+    ChunkedResultsBuilder test = new ChunkedResultsBuilder();
+    test.add(results("a"));
+    test.add(results("a"));
+    assertThat(test.build().get(0, 0)).hasValue("a");
+    ChunkedResultsBuilder test2 = new ChunkedResultsBuilder();
+    test2.add(results("a"));
+    test2.add(results("b"));
+    assertThat(test2.build().get(0, 0)).hasFailureMessageMatching(".*expected ScenarioArray.*");
+  }
+
+  @Test
+  public void test_failure() {
+    Result<?> failure = Result.failure(FailureReason.CALCULATION_FAILED, "Failed");
+    ChunkedResultsBuilder test = new ChunkedResultsBuilder();
+    test.add(results(DoubleScenarioArray.of(DoubleArray.of(1))));
+    test.add(Results.of(COLUMNS, ImmutableList.of(failure)));
+    test.add(results(DoubleScenarioArray.of(DoubleArray.of(3))));
+    Results built = test.build();
+    assertThat(built.get(0, 0)).isEqualTo(failure);
+    assertThat(built.getColumns()).isEqualTo(COLUMNS);
+  }
+
+  //-------------------------------------------------------------------------
+  private static Results results(Object value) {
+    return Results.of(COLUMNS, ImmutableList.of(Result.success(value)));
+  }
+
+}
@@ -12,13 +12,19 @@ import static com.opengamma.strata.collect.TestHelper.date;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -36,12 +42,30 @@ import com.opengamma.strata.calc.Column;
 import com.opengamma.strata.calc.Measure;
 import com.opengamma.strata.calc.Results;
 import com.opengamma.strata.calc.TestingMeasures;
+import com.opengamma.strata.calc.marketdata.ChunkedScenarioMarketData;
+import com.opengamma.strata.calc.marketdata.MarketDataConfig;
+import com.opengamma.strata.calc.marketdata.MarketDataFactory;
+import com.opengamma.strata.calc.marketdata.MarketDataFilter;
+import com.opengamma.strata.calc.marketdata.ObservableDataProvider;
+import com.opengamma.strata.calc.marketdata.PerturbationMapping;
+import com.opengamma.strata.calc.marketdata.ScenarioDefinition;
+import com.opengamma.strata.calc.marketdata.TestObservableId;
+import com.opengamma.strata.calc.marketdata.TimeSeriesProvider;
+import com.opengamma.strata.calc.runner.CalculationTaskTest.BatchFunction;
+import com.opengamma.strata.calc.runner.CalculationTaskTest.BatchTarget;
 import com.opengamma.strata.calc.runner.CalculationTaskTest.TestTarget;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.metrics.AggregatingMetricsListener;
+import com.opengamma.strata.collect.metrics.Metrics;
 import com.opengamma.strata.collect.result.FailureReason;
 import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.ImmutableMarketData;
 import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.data.scenario.DoubleScenarioArray;
+import com.opengamma.strata.data.scenario.MarketDataBox;
 import com.opengamma.strata.data.scenario.ScenarioArray;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
+import com.opengamma.strata.data.scenario.ScenarioPerturbation;
 
 /**
  * Test {@link CalculationTaskRunner} and {@link DefaultCalculationTaskRunner}.
@@ -157,6 +181,390 @@ public class DefaultCalculationTaskRunnerTest {
     assertThat(results.getColumns().get(0).getMeasure()).isEqualTo(TestingMeasures.PRESENT_VALUE);
   }
 
+  //-------------------------------------------------------------------------
+  @Test
+  public void calculateMultiScenarioChunked() {
+    TestObservableId id = TestObservableId.of("a");
+    MarketDataValueFunction fn = new MarketDataValueFunction(id);
+    CalculationTaskCell cell = CalculationTaskCell.of(0, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+    CalculationTask task = CalculationTask.of(TARGET, fn, cell);
+    Column column = Column.of(TestingMeasures.PRESENT_VALUE);
+    CalculationTasks tasks = CalculationTasks.of(ImmutableList.of(task), ImmutableList.of(column));
+
+    MarketData baseData = ImmutableMarketData.builder(VAL_DATE).addValue(id, 10d).build();
+    ScenarioDefinition scenarios = ScenarioDefinition.ofMappings(
+        PerturbationMapping.of(MarketDataFilter.ofId(id), new AbsoluteDoubleShift(1, 2, 3, 4, 5)));
+    MarketDataFactory factory = MarketDataFactory.of(ObservableDataProvider.none(), TimeSeriesProvider.none());
+    ChunkedScenarioMarketData marketData =
+        ChunkedScenarioMarketData.of(factory, MarketDataConfig.empty(), baseData, scenarios, 2);
+
+    // using the direct executor means there is no need to close/shutdown the runner
+    CalculationTaskRunner test = CalculationTaskRunner.of(MoreExecutors.newDirectExecutorService());
+    Results results = test.calculateMultiScenario(tasks, marketData, REF_DATA);
+    assertThat(results.getRowCount()).isEqualTo(1);
+    assertThat(results.get(0, 0)).hasValue(DoubleScenarioArray.of(DoubleArray.of(11, 12, 13, 14, 15)));
+    assertThat(fn.maxScenarioCount).isEqualTo(2);
+
+    // compare with the market data for all scenarios built at once
+    ScenarioMarketData allScenarios = factory.createMultiScenario(
+        tasks.requirements(REF_DATA), MarketDataConfig.empty(), baseData, REF_DATA, scenarios);
+    Results expected = test.calculateMultiScenario(tasks, allScenarios, REF_DATA);
+    assertThat(results).isEqualTo(expected);
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void calculateBatches() {
+    BatchFunction fn = new BatchFunction(2);
+    MarketDataValueFunction otherFn = new MarketDataValueFunction(TestObservableId.of("a"));
+    List<CalculationTask> taskList = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      CalculationTaskCell cell = CalculationTaskCell.of(i, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+      taskList.add(CalculationTask.of(new BatchTarget(i), fn, cell));
+    }
+    taskList.add(CalculationTask.of(TARGET, otherFn, CalculationTaskCell.of(5, 0, TestingMeasures.PRESENT_VALUE, NATURAL)));
+    CalculationTasks tasks = CalculationTasks.of(taskList, ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE)));
+    MarketData marketData = ImmutableMarketData.builder(VAL_DATE).addValue(TestObservableId.of("a"), 10d).build();
+
+    // using the direct executor means there is no need to close/shutdown the runner
+    CalculationTaskRunner test = CalculationTaskRunner.of(MoreExecutors.newDirectExecutorService());
+    Results results = test.calculate(tasks, marketData, REF_DATA);
+    assertThat(fn.getBatchSizes()).containsExactly(2, 2, 1);
+    for (int i = 0; i < 5; i++) {
+      assertThat(results.get(i, 0)).hasValue((double) i);
+    }
+    assertThat(results.get(5, 0)).hasValue(10d);
+  }
+
+  @Test
+  public void calculateBatches_spreadAcrossThreads() {
+    // the batches are smaller than the maximum batch size so that every thread is used
+    BatchFunction fn = new BatchFunction(250);
+    List<CalculationTask> taskList = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      CalculationTaskCell cell = CalculationTaskCell.of(i, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+      taskList.add(CalculationTask.of(new BatchTarget(i), fn, cell));
+    }
+    CalculationTasks tasks = CalculationTasks.of(taskList, ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE)));
+
+    try (CalculationTaskRunner test = CalculationTaskRunner.of(Executors.newFixedThreadPool(4))) {
+      Results results = test.calculate(tasks, MarketData.empty(VAL_DATE), REF_DATA);
+      assertThat(fn.getBatchSizes()).containsExactlyInAnyOrder(3, 3, 3, 1);
+      for (int i = 0; i < 10; i++) {
+        assertThat(results.get(i, 0)).hasValue((double) i);
+      }
+    }
+  }
+
+  @Test
+  public void calculateBatches_equalFunctions() {
+    // tasks with equal but not identical functions are calculated in the same batch
+    BatchFunction fn1 = new BatchFunction(10);
+    BatchFunction fn2 = new BatchFunction(10);
+    List<CalculationTask> taskList = ImmutableList.of(
+        CalculationTask.of(new BatchTarget(1), fn1, CalculationTaskCell.of(0, 0, TestingMeasures.PRESENT_VALUE, NATURAL)),
+        CalculationTask.of(new BatchTarget(2), fn2, CalculationTaskCell.of(1, 0, TestingMeasures.PRESENT_VALUE, NATURAL)));
+    CalculationTasks tasks = CalculationTasks.of(taskList, ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE)));
+
+    CalculationTaskRunner test = CalculationTaskRunner.of(MoreExecutors.newDirectExecutorService());
+    Results results = test.calculate(tasks, MarketData.empty(VAL_DATE), REF_DATA);
+    assertThat(fn1.getBatchSizes()).containsExactly(2);
+    assertThat(results.get(0, 0)).hasValue(1d);
+    assertThat(results.get(1, 0)).hasValue(2d);
+  }
+
+  @Test
+  public void calculateWithMetrics() {
+    BatchFunction fn = new BatchFunction(2);
+    MarketDataValueFunction otherFn = new MarketDataValueFunction(TestObservableId.of("a"));
+    List<CalculationTask> taskList = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      CalculationTaskCell cell = CalculationTaskCell.of(i, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+      taskList.add(CalculationTask.of(new BatchTarget(i), fn, cell));
+    }
+    taskList.add(CalculationTask.of(TARGET, otherFn, CalculationTaskCell.of(3, 0, TestingMeasures.PRESENT_VALUE, NATURAL)));
+    CalculationTasks tasks = CalculationTasks.of(taskList, ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE)));
+    MarketData marketData = ImmutableMarketData.builder(VAL_DATE).addValue(TestObservableId.of("a"), 10d).build();
+
+    AggregatingMetricsListener metrics = new AggregatingMetricsListener();
+    CalculationTaskRunner test = CalculationTaskRunner.of(MoreExecutors.newDirectExecutorService());
+    try {
+      Metrics.register(metrics);
+      test.calculate(tasks, marketData, REF_DATA);
+    } finally {
+      Metrics.unregister();
+    }
+    Map<String, LongSummaryStatistics> stats = metrics.getStatistics();
+    assertThat(stats.get("task:BatchFunction").getCount()).isEqualTo(2);
+    assertThat(stats.get("taskWait:BatchFunction").getCount()).isEqualTo(2);
+    assertThat(stats.get("task:MarketDataValueFunction").getCount()).isEqualTo(1);
+    assertThat(stats.get("delivery").getCount()).isEqualTo(4);
+
+    // no metrics once unregistered
+    metrics.clear();
+    test.calculate(tasks, marketData, REF_DATA);
+    assertThat(metrics.getStatistics()).isEmpty();
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  @Timeout(10)
+  public void calculateScheduled_priority() throws Exception {
+    OrderFunction fn = new OrderFunction();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      CalculationTaskRunner test = CalculationTaskRunner.of(executor);
+      MarketData marketData = MarketData.empty(VAL_DATE);
+      // occupy the only thread until the other runs have been submitted
+      test.calculateAsync(orderTasks(fn, -1), marketData, REF_DATA, new ResultsListener());
+      fn.awaitStarted();
+
+      ResultsListener batchListener = new ResultsListener();
+      test.calculateAsync(orderTasks(fn, 0, 1, 2, 3), marketData, REF_DATA, batchListener);
+      ResultsListener liveListener = new ResultsListener();
+      CalculationSchedule schedule = CalculationSchedule.of(CalculationPriority.of(10));
+      CalculationHandle handle = test.calculateAsync(orderTasks(fn, 100, 101), marketData, REF_DATA, liveListener, schedule);
+      fn.release();
+
+      assertThat(liveListener.result().get(1, 0)).hasValue(101);
+      assertThat(batchListener.result().get(3, 0)).hasValue(3);
+      assertThat(handle.isDone()).isTrue();
+      assertThat(handle.isCancelled()).isFalse();
+      assertThat(handle.isTimedOut()).isFalse();
+      assertThat(handle.cancel()).isFalse();
+      assertThat(fn.getOrder()).containsExactly(-1, 100, 101, 0, 1, 2, 3);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @Timeout(10)
+  public void calculateScheduled_priorityByTarget() throws Exception {
+    OrderFunction fn = new OrderFunction();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      CalculationTaskRunner test = CalculationTaskRunner.of(executor);
+      MarketData marketData = MarketData.empty(VAL_DATE);
+      test.calculateAsync(orderTasks(fn, -1), marketData, REF_DATA, new ResultsListener());
+      fn.awaitStarted();
+
+      CalculationTasks tasks = orderTasks(fn, 0, 1, 2, 3);
+      CalculationPriority priority = CalculationPriority.ofTargets(ImmutableSet.of(tasks.getTargets().get(2)), 1, 0);
+      ResultsListener listener = new ResultsListener();
+      test.calculateAsync(tasks, marketData, REF_DATA, listener, CalculationSchedule.of(priority));
+      fn.release();
+
+      assertThat(listener.result().get(2, 0)).hasValue(2);
+      assertThat(fn.getOrder()).containsExactly(-1, 2, 0, 1, 3);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @Timeout(10)
+  public void calculateScheduled_cancel() throws Exception {
+    OrderFunction fn = new OrderFunction();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      CalculationTaskRunner test = CalculationTaskRunner.of(executor);
+      MarketData marketData = MarketData.empty(VAL_DATE);
+      test.calculateAsync(orderTasks(fn, -1), marketData, REF_DATA, new ResultsListener());
+      fn.awaitStarted();
+
+      ResultsListener listener = new ResultsListener();
+      CalculationHandle handle =
+          test.calculateAsync(orderTasks(fn, 0, 1), marketData, REF_DATA, listener, CalculationSchedule.DEFAULT);
+      assertThat(handle.isDone()).isFalse();
+      assertThat(handle.cancel()).isTrue();
+      assertThat(handle.cancel()).isFalse();
+      assertThat(handle.isDone()).isTrue();
+      assertThat(handle.isCancelled()).isTrue();
+      assertThat(handle.isTimedOut()).isFalse();
+
+      // the listener is complete without waiting for the calculations
+      assertThat(listener.getFuture().isDone()).isTrue();
+      Results results = listener.result();
+      assertThat(results.get(0, 0)).isFailure(FailureReason.CANCELLED);
+      assertThat(results.get(1, 0)).isFailure(FailureReason.CANCELLED);
+
+      // the cancelled calculations are not run
+      fn.release();
+      executor.shutdown();
+      assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+      assertThat(fn.getOrder()).containsExactly(-1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @Timeout(10)
+  public void calculateScheduled_timeout() throws Exception {
+    OrderFunction fn = new OrderFunction();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      CalculationTaskRunner test = CalculationTaskRunner.of(executor);
+      MarketData marketData = MarketData.empty(VAL_DATE);
+      ResultsListener listener = new ResultsListener();
+      CalculationSchedule schedule = CalculationSchedule.DEFAULT.withTimeout(Duration.ofMillis(50));
+      CalculationHandle handle = test.calculateAsync(orderTasks(fn, 0, 1, 2), marketData, REF_DATA, listener, schedule);
+
+      // the calculations block until released, so the listener is completed by the timeout
+      Results results = listener.result();
+      assertThat(handle.isDone()).isTrue();
+      assertThat(handle.isTimedOut()).isTrue();
+      assertThat(handle.isCancelled()).isFalse();
+      for (int i = 0; i < 3; i++) {
+        assertThat(results.get(i, 0)).isFailure(FailureReason.TIMEOUT);
+      }
+
+      // the calculations in progress complete, but their results are discarded
+      fn.release();
+      executor.shutdown();
+      assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+      assertThat(fn.getOrder()).containsExactlyInAnyOrder(0, 1);
+      assertThat(listener.result()).isSameAs(results);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void calculateScheduled_defaultRunnerMethod() {
+    ScenarioArray<String> scenarioResult = ScenarioArray.of("foo");
+    ScenarioResultFunction fn = new ScenarioResultFunction(TestingMeasures.PRESENT_VALUE, scenarioResult);
+    CalculationTask task = CalculationTask.of(TARGET, fn, CalculationTaskCell.of(0, 0, TestingMeasures.PRESENT_VALUE, NATURAL));
+    CalculationTasks tasks = CalculationTasks.of(ImmutableList.of(task), ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE)));
+    MarketData marketData = MarketData.empty(VAL_DATE);
+
+    // the default method of the interface applies the schedule to the listener
+    CalculationTaskRunner delegate = CalculationTaskRunner.of(MoreExecutors.newDirectExecutorService());
+    CalculationTaskRunner test = new CalculationTaskRunner() {
+      @Override
+      public Results calculate(CalculationTasks tasks, MarketData marketData, ReferenceData refData) {
+        return delegate.calculate(tasks, marketData, refData);
+      }
+
+      @Override
+      public void calculateAsync(CalculationTasks tasks, MarketData marketData, ReferenceData refData, CalculationListener listener) {
+        delegate.calculateAsync(tasks, marketData, refData, listener);
+      }
+
+      @Override
+      public Results calculateMultiScenario(CalculationTasks tasks, ScenarioMarketData marketData, ReferenceData refData) {
+        return delegate.calculateMultiScenario(tasks, marketData, refData);
+      }
+
+      @Override
+      public void calculateMultiScenarioAsync(
+          CalculationTasks tasks,
+          ScenarioMarketData marketData,
+          ReferenceData refData,
+          CalculationListener listener) {
+
+        delegate.calculateMultiScenarioAsync(tasks, marketData, refData, listener);
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    ResultsListener listener = new ResultsListener();
+    CalculationHandle handle = test.calculateAsync(tasks, marketData, REF_DATA, listener, CalculationSchedule.DEFAULT);
+    assertThat(listener.result().get(0, 0)).hasValue("foo");
+    assertThat(handle.isDone()).isTrue();
+    assertThat(handle.cancel()).isFalse();
+  }
+
+  // creates tasks for the function, one for each target identifier
+  private static CalculationTasks orderTasks(OrderFunction fn, int... ids) {
+    List<CalculationTask> taskList = new ArrayList<>();
+    for (int i = 0; i < ids.length; i++) {
+      CalculationTaskCell cell = CalculationTaskCell.of(i, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+      taskList.add(CalculationTask.of(new OrderTarget(ids[i]), fn, cell));
+    }
+    return CalculationTasks.of(taskList, ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE)));
+  }
+
+  //-------------------------------------------------------------------------
+  private static final class OrderTarget implements CalculationTarget {
+
+    private final int id;
+
+    private OrderTarget(int id) {
+      this.id = id;
+    }
+  }
+
+  /**
+   * Function that records the order in which the targets are calculated,
+   * blocking each calculation until released.
+   */
+  private static final class OrderFunction implements CalculationFunction<OrderTarget> {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+
+    void awaitStarted() throws InterruptedException {
+      started.await();
+    }
+
+    void release() {
+      released.countDown();
+    }
+
+    List<Integer> getOrder() {
+      return order;
+    }
+
+    @Override
+    public Class<OrderTarget> targetType() {
+      return OrderTarget.class;
+    }
+
+    @Override
+    public Set<Measure> supportedMeasures() {
+      return MEASURES;
+    }
+
+    @Override
+    public Currency naturalCurrency(OrderTarget target, ReferenceData refData) {
+      return USD;
+    }
+
+    @Override
+    public FunctionRequirements requirements(
+        OrderTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ReferenceData refData) {
+
+      return FunctionRequirements.empty();
+    }
+
+    @Override
+    public Map<Measure, Result<?>> calculate(
+        OrderTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      started.countDown();
+      try {
+        released.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(ex);
+      }
+      order.add(target.id);
+      return ImmutableMap.of(TestingMeasures.PRESENT_VALUE, Result.success(target.id));
+    }
+  }
+
   //-------------------------------------------------------------------------
   private static final class ScenarioResultFunction implements CalculationFunction<TestTarget> {
 
@@ -205,6 +613,83 @@ public class DefaultCalculationTaskRunnerTest {
     }
   }
 
+  //-------------------------------------------------------------------------
+  private static final class MarketDataValueFunction implements CalculationFunction<TestTarget> {
+
+    private final TestObservableId id;
+    private int maxScenarioCount;
+
+    private MarketDataValueFunction(TestObservableId id) {
+      this.id = id;
+    }
+
+    @Override
+    public Class<TestTarget> targetType() {
+      return TestTarget.class;
+    }
+
+    @Override
+    public Set<Measure> supportedMeasures() {
+      return MEASURES;
+    }
+
+    @Override
+    public Currency naturalCurrency(TestTarget trade, ReferenceData refData) {
+      return USD;
+    }
+
+    @Override
+    public FunctionRequirements requirements(
+        TestTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ReferenceData refData) {
+
+      return FunctionRequirements.builder().valueRequirements(id).build();
+    }
+
+    @Override
+    public Map<Measure, Result<?>> calculate(
+        TestTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      maxScenarioCount = Math.max(maxScenarioCount, marketData.getScenarioCount());
+      MarketDataBox<Double> values = marketData.getValue(id);
+      DoubleScenarioArray result = DoubleScenarioArray.of(marketData.getScenarioCount(), i -> values.getValue(i));
+      return ImmutableMap.of(TestingMeasures.PRESENT_VALUE, Result.success(result));
+    }
+  }
+
+  /**
+   * Perturbation that applies a shift to a double value.
+   */
+  private static final class AbsoluteDoubleShift implements ScenarioPerturbation<Double> {
+
+    private final double[] shiftAmount;
+
+    private AbsoluteDoubleShift(double... shiftAmount) {
+      this.shiftAmount = shiftAmount;
+    }
+
+    @Override
+    public MarketDataBox<Double> applyTo(MarketDataBox<Double> marketData, ReferenceData refData) {
+      return marketData.mapWithIndex(getScenarioCount(), (value, scenarioIndex) -> value + shiftAmount[scenarioIndex]);
+    }
+
+    @Override
+    public int getScenarioCount() {
+      return shiftAmount.length;
+    }
+
+    @Override
+    public Class<Double> getMarketDataType() {
+      return Double.class;
+    }
+  }
+
   //-------------------------------------------------------------------------
   private static final class Listener implements CalculationListener {
 
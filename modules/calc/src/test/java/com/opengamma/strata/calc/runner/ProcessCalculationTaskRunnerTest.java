@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.calc.ReportingCurrency.NATURAL;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.TestingMeasures;
+import com.opengamma.strata.calc.marketdata.TestObservableId;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.ImmutableMarketData;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.data.scenario.DoubleScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * Test {@link ProcessCalculationTaskRunner}.
+ */
+@Timeout(120)
+public class ProcessCalculationTaskRunnerTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final LocalDate VAL_DATE = date(2011, 3, 8);
+  private static final TestObservableId QUOTE_ID = TestObservableId.of("quote");
+  private static final MarketData MARKET_DATA = ImmutableMarketData.builder(VAL_DATE).addValue(QUOTE_ID, 2d).build();
+  private static final String LOCAL_JVM = ManagementFactory.getRuntimeMXBean().getName();
+  private static final String CRASH_PROPERTY = "strata.test.crashWorker";
+  private static final int TASK_COUNT = 300;
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_calculate() {
+    CalculationTasks tasks = tasks(new ValueFunction());
+    Results expected = CalculationTaskRunner.of(MoreExecutors.newDirectExecutorService())
+        .calculate(tasks, MARKET_DATA, REF_DATA);
+    try (CalculationTaskRunner test = CalculationTaskRunner.ofWorkerProcesses(2, ImmutableList.of())) {
+      Results results = test.calculate(tasks, MARKET_DATA, REF_DATA);
+      for (int i = 0; i < TASK_COUNT; i++) {
+        assertThat(results.get(i, 0)).isEqualTo(expected.get(i, 0));
+      }
+      Set<Object> jvms = jvms(results);
+      assertThat(jvms).isNotEmpty().doesNotContain(LOCAL_JVM);
+
+      // the workers are reused for the next calculation
+      Results results2 = test.calculateMultiScenario(tasks, ScenarioMarketData.of(3, MARKET_DATA), REF_DATA);
+      assertThat(results2.get(10, 0).getValue()).isEqualTo(DoubleScenarioArray.of(DoubleArray.of(20d, 20d, 20d)));
+      Set<Object> jvms2 = new HashSet<>();
+      for (Object value : jvms(results2)) {
+        jvms2.add(((ScenarioArray<?>) value).get(0));
+      }
+      assertThat(jvms2).isNotEmpty().doesNotContain(LOCAL_JVM);
+    }
+  }
+
+  @Test
+  public void test_calculate_functionNotSent() {
+    CalculationTasks tasks = tasks(new LocalValueFunction());
+    try (CalculationTaskRunner test = CalculationTaskRunner.ofWorkerProcesses(1, ImmutableList.of())) {
+      Results results = test.calculate(tasks, MARKET_DATA, REF_DATA);
+      assertThat(results.get(10, 0).getValue()).isEqualTo(20d);
+      assertThat(jvms(results)).containsOnly(LOCAL_JVM);
+    }
+  }
+
+  @Test
+  public void test_calculate_workerFailure() {
+    CalculationTasks tasks = tasks(new ValueFunction());
+    List<String> jvmArgs = ImmutableList.of("-D" + CRASH_PROPERTY + "=true");
+    try (CalculationTaskRunner test = CalculationTaskRunner.ofWorkerProcesses(2, jvmArgs)) {
+      Results results = test.calculate(tasks, MARKET_DATA, REF_DATA);
+      for (int i = 0; i < TASK_COUNT; i++) {
+        assertThat(results.get(i, 0).getValue()).isEqualTo(2d * i);
+      }
+      assertThat(jvms(results)).containsOnly(LOCAL_JVM);
+    }
+  }
+
+  @Test
+  public void test_calculate_taskError() {
+    // an error thrown by a task on a worker is returned as a failure for each cell, rather than being lost
+    CalculationTasks tasks = tasks(new ErrorFunction());
+    try (CalculationTaskRunner test = CalculationTaskRunner.ofWorkerProcesses(1, ImmutableList.of())) {
+      Results results = test.calculate(tasks, MARKET_DATA, REF_DATA);
+      for (int i = 0; i < TASK_COUNT; i++) {
+        assertThat(results.get(i, 0).getFailure().getReason()).isEqualTo(FailureReason.ERROR);
+        assertThat(results.get(i, 1).getFailure().getMessage()).contains("Calculation worker failed", "Task error");
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  // creates tasks calculating the value and the JVM for each target
+  private static CalculationTasks tasks(CalculationFunction<ValueTarget> function) {
+    List<CalculationTask> tasks = new ArrayList<>();
+    for (int i = 0; i < TASK_COUNT; i++) {
+      tasks.add(CalculationTask.of(
+          new ValueTarget(i),
+          function,
+          CalculationTaskCell.of(i, 0, TestingMeasures.PRESENT_VALUE, NATURAL),
+          CalculationTaskCell.of(i, 1, TestingMeasures.PAR_RATE, NATURAL)));
+    }
+    List<Column> columns = ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE), Column.of(TestingMeasures.PAR_RATE));
+    return CalculationTasks.of(tasks, columns);
+  }
+
+  // the JVMs that calculated the results
+  private static Set<Object> jvms(Results results) {
+    Set<Object> jvms = new HashSet<>();
+    for (int i = 0; i < results.getRowCount(); i++) {
+      jvms.add(results.get(i, 1).getValue());
+    }
+    return jvms;
+  }
+
+  //-------------------------------------------------------------------------
+  static final class ValueTarget implements CalculationTarget, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double value;
+
+    ValueTarget(double value) {
+      this.value = value;
+    }
+
+    double getValue() {
+      return value;
+    }
+  }
+
+  /**
+   * Function that multiplies the target value by the quote, also returning the name of the JVM.
+   * <p>
+   * The function is sent to the workers by the name of its class.
+   * If the system property is set, the worker process exits.
+   */
+  public static class ValueFunction implements CalculationFunction<ValueTarget> {
+
+    @Override
+    public Class<ValueTarget> targetType() {
+      return ValueTarget.class;
+    }
+
+    @Override
+    public Set<Measure> supportedMeasures() {
+      return ImmutableSet.of(TestingMeasures.PRESENT_VALUE, TestingMeasures.PAR_RATE);
+    }
+
+    @Override
+    public Currency naturalCurrency(ValueTarget target, ReferenceData refData) {
+      return USD;
+    }
+
+    @Override
+    public FunctionRequirements requirements(
+        ValueTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ReferenceData refData) {
+
+      return FunctionRequirements.builder().valueRequirements(QUOTE_ID).build();
+    }
+
+    @Override
+    public Map<Measure, Result<?>> calculate(
+        ValueTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      if (Boolean.getBoolean(CRASH_PROPERTY)) {
+        Runtime.getRuntime().halt(1);
+      }
+      int scenarioCount = marketData.getScenarioCount();
+      DoubleScenarioArray values =
+          DoubleScenarioArray.of(scenarioCount, i -> target.getValue() * marketData.getValue(QUOTE_ID).getValue(i));
+      ScenarioArray<String> jvm = ScenarioArray.of(scenarioCount, i -> ManagementFactory.getRuntimeMXBean().getName());
+      return ImmutableMap.of(
+          TestingMeasures.PRESENT_VALUE, Result.success(values),
+          TestingMeasures.PAR_RATE, Result.success(jvm));
+    }
+  }
+
+  /**
+   * Function that throws an error, which is not caught by the task.
+   */
+  public static class ErrorFunction extends ValueFunction {
+
+    @Override
+    public Map<Measure, Result<?>> calculate(
+        ValueTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      throw new AssertionError("Task error");
+    }
+  }
+
+  /**
+   * Function that cannot be sent to the workers, as it is neither serializable nor public.
+   */
+  private static final class LocalValueFunction extends ValueFunction {
+  }
+
+}
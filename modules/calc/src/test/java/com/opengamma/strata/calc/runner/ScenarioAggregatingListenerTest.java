@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.data.Offset.offset;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.FxRateProvider;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.TestingMeasures;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.CurrencyScenarioArray;
+import com.opengamma.strata.data.scenario.DoubleScenarioArray;
+import com.opengamma.strata.data.scenario.MultiCurrencyScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioFxRateProvider;
+
+/**
+ * Test {@link ScenarioAggregatingListener}.
+ */
+public class ScenarioAggregatingListenerTest {
+
+  private static final double TOL = 1e-10;
+  private static final CalculationTarget TARGET = new CalculationTarget() {};
+  private static final ImmutableList<Column> COLUMNS =
+      ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE), Column.of(TestingMeasures.PAR_RATE));
+  private static final int SCENARIOS = 100;
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void aggregate() {
+    ScenarioAggregatingListener test = ScenarioAggregatingListener.of(0, USD);
+    test.calculationsStarted(ImmutableList.of(TARGET, TARGET, TARGET), COLUMNS);
+    // P&L of -50 to 49 in a shuffled order, plus a second trade adding 1 in every scenario
+    test.resultReceived(TARGET, result(0, 0, CurrencyScenarioArray.of(USD, DoubleArray.of(SCENARIOS, i -> (i * 37) % 100 - 50))));
+    test.resultReceived(TARGET, result(0, 1, DoubleScenarioArray.of(DoubleArray.filled(SCENARIOS, 0.01))));
+    test.resultReceived(TARGET, result(1, 0, CurrencyScenarioArray.of(USD, DoubleArray.filled(SCENARIOS, 1d))));
+    test.resultReceived(TARGET, CalculationResult.of(2, 0, Result.failure(FailureReason.ERROR, "Failed")));
+    test.calculationsComplete();
+
+    ScenarioAggregation aggregation = test.result();
+    assertThat(aggregation.getCurrency()).isEqualTo(USD);
+    assertThat(aggregation.getScenarioCount()).isEqualTo(SCENARIOS);
+    assertThat(aggregation.getTargetCount()).isEqualTo(2);
+    assertThat(aggregation.hasFailures()).isTrue();
+    assertThat(aggregation.getFailures()).hasSize(1);
+    assertThat(aggregation.getFailures().get(0).getRowIndex()).isEqualTo(2);
+    assertThat(aggregation.getTotal().sum().getAmount()).isCloseTo(50d, offset(TOL));
+    // sorted totals are -49 to 50
+    assertThat(aggregation.quantile(0.05)).isEqualTo(CurrencyAmount.of(USD, -45));
+    assertThat(aggregation.valueAtRisk(0.95)).isEqualTo(CurrencyAmount.of(USD, 45));
+    assertThat(aggregation.valueAtRisk(0.99)).isEqualTo(CurrencyAmount.of(USD, 49));
+    assertThat(aggregation.expectedShortfall(0.95).getAmount()).isCloseTo(47d, offset(TOL));
+    assertThatIllegalArgumentException().isThrownBy(() -> aggregation.valueAtRisk(1d));
+    assertThat(aggregation.toString())
+        .isEqualTo("ScenarioAggregation[currency=USD, scenarioCount=100, targetCount=2, failureCount=1]");
+  }
+
+  @Test
+  public void aggregate_convert() {
+    ScenarioFxRateProvider fxRateProvider = new ScenarioFxRateProvider() {
+      @Override
+      public int getScenarioCount() {
+        return 3;
+      }
+
+      @Override
+      public FxRateProvider fxRateProvider(int scenarioIndex) {
+        return (base, counter) -> base.equals(counter) ? 1d : (base.equals(GBP) ? 1.5d + scenarioIndex : 1d / (1.5d + scenarioIndex));
+      }
+    };
+    ScenarioAggregatingListener test = ScenarioAggregatingListener.of(0, USD, fxRateProvider);
+    test.calculationsStarted(ImmutableList.of(TARGET, TARGET, TARGET), COLUMNS);
+    test.resultReceived(TARGET, result(0, 0, CurrencyScenarioArray.of(GBP, DoubleArray.of(1, 2, 3))));
+    test.resultReceived(TARGET, result(1, 0, CurrencyScenarioArray.of(USD, DoubleArray.of(10, 20, 30))));
+    test.resultReceived(TARGET, result(2, 0, CurrencyAmount.of(USD, 1)));
+    test.resultReceived(TARGET, result(3, 0, CurrencyScenarioArray.of(USD, DoubleArray.of(10, 20))));
+    test.calculationsComplete();
+
+    ScenarioAggregation aggregation = test.result();
+    assertThat(aggregation.getTotal().getValues().toDoubleArray().equalWithTolerance(DoubleArray.of(11.5, 25, 40.5), TOL)).isTrue();
+    assertThat(aggregation.getTargetCount()).isEqualTo(2);
+    assertThat(aggregation.getFailures()).extracting(CalculationResult::getRowIndex).containsExactly(2, 3);
+    assertThat(aggregation.getFailures().get(0).getResult().getFailure().getReason()).isEqualTo(FailureReason.INVALID);
+  }
+
+  @Test
+  public void aggregate_mixedCurrencyRejected() {
+    ScenarioAggregatingListener test = ScenarioAggregatingListener.of(0, GBP);
+    test.calculationsStarted(ImmutableList.of(TARGET, TARGET), COLUMNS);
+    test.resultReceived(TARGET, result(0, 0, CurrencyScenarioArray.of(GBP, DoubleArray.of(1, 2, 3))));
+    // the GBP amounts could be aggregated, but the USD amounts cannot be converted without FX rates
+    MultiCurrencyScenarioArray mixed = MultiCurrencyScenarioArray.of(
+        ImmutableMap.of(GBP, DoubleArray.of(10, 20, 30), USD, DoubleArray.of(100, 200, 300)));
+    test.resultReceived(TARGET, result(1, 0, mixed));
+    test.calculationsComplete();
+
+    // the rejected result is a failure and does not contribute to the total
+    ScenarioAggregation aggregation = test.result();
+    assertThat(aggregation.getTotal().getValues().toDoubleArray()).isEqualTo(DoubleArray.of(1, 2, 3));
+    assertThat(aggregation.getTargetCount()).isEqualTo(1);
+    assertThat(aggregation.getFailures()).extracting(CalculationResult::getRowIndex).containsExactly(1);
+    assertThat(aggregation.getFailures().get(0).getResult().getFailure().getReason()).isEqualTo(FailureReason.INVALID);
+  }
+
+  @Test
+  public void aggregate_noResults() {
+    ScenarioAggregatingListener test = ScenarioAggregatingListener.of(1, GBP);
+    test.calculationsStarted(ImmutableList.of(), COLUMNS);
+    test.calculationsComplete();
+    ScenarioAggregation aggregation = test.result();
+    assertThat(aggregation.getScenarioCount()).isEqualTo(0);
+    assertThat(aggregation.getTargetCount()).isEqualTo(0);
+    assertThat(aggregation.hasFailures()).isFalse();
+  }
+
+  @Test
+  public void invalidColumn() {
+    ScenarioAggregatingListener test = ScenarioAggregatingListener.of(2, GBP);
+    assertThatIllegalArgumentException().isThrownBy(() -> test.calculationsStarted(ImmutableList.of(), COLUMNS));
+  }
+
+  // creates a successful result
+  private static CalculationResult result(int rowIndex, int columnIndex, Object value) {
+    return CalculationResult.of(rowIndex, columnIndex, Result.success(value));
+  }
+
+}
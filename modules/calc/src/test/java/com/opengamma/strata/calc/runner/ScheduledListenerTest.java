@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.calc.ReportingCurrency.NATURAL;
+import static com.opengamma.strata.collect.CollectProjectAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.TestingMeasures;
+import com.opengamma.strata.calc.runner.CalculationTaskTest.TestFunction;
+import com.opengamma.strata.calc.runner.CalculationTaskTest.TestTarget;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+
+/**
+ * Test {@link ScheduledListener}, {@link CalculationSchedule} and {@link CalculationPriority}.
+ */
+public class ScheduledListenerTest {
+
+  private static final TestTarget TARGET1 = new TestTarget();
+  private static final TestTarget TARGET2 = new TestTarget();
+  private static final Column COLUMN1 = Column.of(TestingMeasures.PRESENT_VALUE);
+  private static final Column COLUMN2 = Column.of(TestingMeasures.PAR_RATE);
+  private static final CalculationTasks TASKS = CalculationTasks.of(
+      ImmutableList.of(
+          CalculationTask.of(
+              TARGET1,
+              new TestFunction(),
+              CalculationTaskCell.of(0, 0, TestingMeasures.PRESENT_VALUE, NATURAL),
+              CalculationTaskCell.of(0, 1, TestingMeasures.PAR_RATE, NATURAL)),
+          CalculationTask.of(
+              TARGET2,
+              new TestFunction(),
+              CalculationTaskCell.of(1, 0, TestingMeasures.PRESENT_VALUE, NATURAL),
+              CalculationTaskCell.of(1, 1, TestingMeasures.PAR_RATE, NATURAL))),
+      ImmutableList.of(COLUMN1, COLUMN2));
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_complete() {
+    ResultsListener delegate = new ResultsListener();
+    ScheduledListener test = new ScheduledListener(delegate, TASKS, CalculationSchedule.DEFAULT);
+    test.calculationsStarted(TASKS.getTargets(), TASKS.getColumns());
+    for (int i = 0; i < 4; i++) {
+      test.resultReceived(TARGET1, CalculationResult.of(i / 2, i % 2, Result.success(i)));
+    }
+    assertThat(test.isDone()).isFalse();
+    test.calculationsComplete();
+    assertThat(test.isDone()).isTrue();
+    assertThat(test.isCancelled()).isFalse();
+    assertThat(test.isTimedOut()).isFalse();
+    assertThat(test.cancel()).isFalse();
+    assertThat(delegate.result().get(1, 1)).hasValue(3);
+  }
+
+  @Test
+  public void test_cancel() {
+    ResultsListener delegate = new ResultsListener();
+    ScheduledListener test = new ScheduledListener(delegate, TASKS, CalculationSchedule.DEFAULT);
+    test.calculationsStarted(TASKS.getTargets(), TASKS.getColumns());
+    test.resultReceived(TARGET1, CalculationResult.of(0, 1, Result.success(1)));
+    assertThat(test.cancel()).isTrue();
+    assertThat(test.isDone()).isTrue();
+    assertThat(test.isCancelled()).isTrue();
+    assertThat(delegate.getFuture().isDone()).isTrue();
+
+    // later results are discarded
+    test.resultReceived(TARGET2, CalculationResult.of(1, 0, Result.success(2)));
+    test.calculationsComplete();
+    Results results = delegate.result();
+    assertThat(results.get(0, 0)).isFailure(FailureReason.CANCELLED);
+    assertThat(results.get(0, 1)).hasValue(1);
+    assertThat(results.get(1, 0)).isFailure(FailureReason.CANCELLED);
+    assertThat(results.get(1, 1)).isFailure(FailureReason.CANCELLED);
+  }
+
+  @Test
+  public void test_cancel_beforeStarted() {
+    ResultsListener delegate = new ResultsListener();
+    ScheduledListener test = new ScheduledListener(delegate, TASKS, CalculationSchedule.DEFAULT);
+    assertThat(test.cancel()).isTrue();
+    test.calculationsStarted(TASKS.getTargets(), TASKS.getColumns());
+    assertThat(delegate.result().getRowCount()).isEqualTo(2);
+    assertThat(delegate.result().get(1, 1)).isFailure(FailureReason.CANCELLED);
+  }
+
+  @Test
+  @Timeout(5)
+  public void test_timeout() {
+    ResultsListener delegate = new ResultsListener();
+    CalculationSchedule schedule = CalculationSchedule.of(CalculationPriority.NORMAL, Duration.ofMillis(20));
+    ScheduledListener test = new ScheduledListener(delegate, TASKS, schedule);
+    test.calculationsStarted(TASKS.getTargets(), TASKS.getColumns());
+    test.resultReceived(TARGET1, CalculationResult.of(0, 0, Result.success(1)));
+    Results results = delegate.result();
+    assertThat(test.isDone()).isTrue();
+    assertThat(test.isTimedOut()).isTrue();
+    assertThat(test.isCancelled()).isFalse();
+    assertThat(results.get(0, 0)).hasValue(1);
+    assertThat(results.get(0, 1)).isFailure(FailureReason.TIMEOUT).hasFailureMessageMatching(".*PT0.02S.*");
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_schedule() {
+    CalculationSchedule test = CalculationSchedule.DEFAULT;
+    assertThat(test.getPriority()).isSameAs(CalculationPriority.NORMAL);
+    assertThat(test.getTimeout()).isEmpty();
+    CalculationSchedule test2 = test.withPriority(CalculationPriority.of(2)).withTimeout(Duration.ofSeconds(1));
+    assertThat(test2.getPriority().priority(TARGET1, COLUMN1)).isEqualTo(2);
+    assertThat(test2.getTimeout()).hasValue(Duration.ofSeconds(1));
+    assertThat(test2.toString()).isEqualTo("CalculationSchedule[timeout=PT1S]");
+    assertThatIllegalArgumentException().isThrownBy(() -> test.withTimeout(Duration.ZERO));
+    assertThatIllegalArgumentException().isThrownBy(() -> test.withTimeout(Duration.ofSeconds(-1)));
+  }
+
+  @Test
+  public void test_priority() {
+    assertThat(CalculationPriority.NORMAL.priority(TARGET1, COLUMN1)).isEqualTo(0);
+    CalculationPriority test = CalculationPriority.ofTargets(ImmutableSet.of(TARGET2), 5, 1);
+    assertThat(test.priority(TARGET1, COLUMN1)).isEqualTo(1);
+    assertThat(test.priority(TARGET2, COLUMN2)).isEqualTo(5);
+  }
+
+}
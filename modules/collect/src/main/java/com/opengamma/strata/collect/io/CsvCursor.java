@@ -0,0 +1,686 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.collect.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.OptionalInt;
+import java.util.function.Function;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.CharSource;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Unchecked;
+
+/**
+ * Low-allocation cursor over the rows of a CSV file.
+ * <p>
+ * This provides an alternative to {@link CsvIterator} for loading very large CSV files.
+ * See {@link CsvFile} for details of the CSV format, which is parsed identically.
+ * <p>
+ * Instead of creating a {@link CsvRow} containing a list of strings for each row, the cursor
+ * reads the file into a reusable character buffer and locates each field of the current row
+ * by offsets into the buffer. A string is only created when {@link #field(int)} is called.
+ * Numbers and dates can be parsed directly from the buffer using {@link #parseDouble(int)}
+ * and {@link #parseLocalDate(int)}, and header lookups can be resolved to an index once,
+ * before the rows are processed:
+ * <pre>
+ *  try (CsvCursor cursor = CsvCursor.of(source, true)) {
+ *    int dateIndex = cursor.headerIndex("Date");
+ *    int valueIndex = cursor.headerIndex("Value");
+ *    while (cursor.next()) {
+ *      LocalDate date = cursor.parseLocalDate(dateIndex);
+ *      double value = cursor.parseDouble(valueIndex);
+ *      // process the row
+ *    }
+ *  }
+ * </pre>
+ * The state of the cursor, including the buffer, is overwritten by each call to {@link #next()}.
+ * Use {@link #row()} to obtain an immutable copy of the current row when necessary.
+ * <p>
+ * This class is mutable and not thread-safe.
+ * It must be used in a try-with-resources block to ensure that the underlying CSV file is closed.
+ */
+public final class CsvCursor implements AutoCloseable {
+
+  /**
+   * The initial size of the buffer.
+   */
+  private static final int INITIAL_BUFFER_SIZE = 8192;
+  /**
+   * Powers of ten that can be represented exactly as a double.
+   */
+  private static final double[] EXACT_POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+      1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+  /**
+   * The maximum number of significant digits that can be held exactly in a double.
+   */
+  private static final int MAX_EXACT_DIGITS = 15;
+
+  /**
+   * The reader.
+   */
+  private final Reader reader;
+  /**
+   * The tokenizer, holding the field offsets of the current row.
+   */
+  private final CsvLineTokenizer tokenizer;
+  /**
+   * The header row, ordered as the headers appear in the file.
+   */
+  private final ImmutableList<String> headers;
+  /**
+   * The header map, transformed for case-insensitive searching.
+   */
+  private final ImmutableMap<String, Integer> searchHeaders;
+  /**
+   * The buffer of characters read from the file.
+   */
+  private char[] buf = new char[INITIAL_BUFFER_SIZE];
+  /**
+   * The number of valid characters in the buffer.
+   */
+  private int bufLength;
+  /**
+   * The position in the buffer of the start of the next line.
+   */
+  private int nextLineStart;
+  /**
+   * The start of the current line in the buffer.
+   */
+  private int lineStart;
+  /**
+   * The end of the current line in the buffer, exclusive of the line terminator.
+   */
+  private int lineEnd;
+  /**
+   * Whether the last line ended with CR, such that a following LF must be skipped.
+   */
+  private boolean skipLf;
+  /**
+   * Whether the end of the reader has been reached.
+   */
+  private boolean endOfInput;
+  /**
+   * The strings of the current row that have been materialized.
+   */
+  private String[] fieldStrings = new String[16];
+  /**
+   * The current line number in the source file.
+   */
+  private int currentLineNumber;
+  /**
+   * Whether the cursor is positioned on a row.
+   */
+  private boolean onRow;
+
+  //------------------------------------------------------------------------
+  /**
+   * Parses the specified source as a CSV file, using a comma as the separator.
+   *
+   * @param source  the source to read as CSV
+   * @param headerRow  whether the source has a header row, an empty source must still contain the header
+   * @return the CSV cursor
+   * @throws UncheckedIOException if an IO exception occurs
+   * @throws IllegalArgumentException if the file cannot be parsed
+   */
+  public static CsvCursor of(CharSource source, boolean headerRow) {
+    return of(source, headerRow, ',');
+  }
+
+  /**
+   * Parses the specified source as a CSV file where the separator is specified and might not be a comma.
+   *
+   * @param source  the source to read as CSV
+   * @param headerRow  whether the source has a header row, an empty source must still contain the header
+   * @param separator  the separator used to separate each field, typically a comma, but a tab is sometimes used
+   * @return the CSV cursor
+   * @throws UncheckedIOException if an IO exception occurs
+   * @throws IllegalArgumentException if the file cannot be parsed
+   */
+  public static CsvCursor of(CharSource source, boolean headerRow, char separator) {
+    ArgChecker.notNull(source, "source");
+    @SuppressWarnings("resource")
+    Reader reader = Unchecked.wrap(() -> source.openStream());
+    return create(reader, headerRow, separator);
+  }
+
+  /**
+   * Parses the specified reader as a CSV file where the separator is specified and might not be a comma.
+   * <p>
+   * The reader is read in blocks, thus there is no need for it to be buffered.
+   * The caller is responsible for closing the reader, such as by calling {@link #close()}.
+   *
+   * @param reader  the file reader
+   * @param headerRow  whether the source has a header row, an empty source must still contain the header
+   * @param separator  the separator used to separate each field, typically a comma, but a tab is sometimes used
+   * @return the CSV cursor
+   * @throws UncheckedIOException if an IO exception occurs
+   * @throws IllegalArgumentException if the file cannot be parsed
+   */
+  public static CsvCursor of(Reader reader, boolean headerRow, char separator) {
+    ArgChecker.notNull(reader, "reader");
+    return create(reader, headerRow, separator);
+  }
+
+  // create the cursor
+  private static CsvCursor create(Reader reader, boolean headerRow, char separator) {
+    try {
+      return new CsvCursor(reader, separator, headerRow);
+
+    } catch (RuntimeException ex) {
+      try {
+        reader.close();
+      } catch (IOException ex2) {
+        ex.addSuppressed(ex2);
+      }
+      throw ex;
+    }
+  }
+
+  //------------------------------------------------------------------------
+  /**
+   * Restricted constructor, reading the header row if necessary.
+   *
+   * @param reader  the reader
+   * @param separator  the separator
+   * @param headerRow  whether the source has a header row
+   */
+  private CsvCursor(Reader reader, char separator, boolean headerRow) {
+    this.reader = reader;
+    this.tokenizer = new CsvLineTokenizer(separator);
+    if (headerRow) {
+      if (!next()) {
+        throw new IllegalArgumentException("Could not read header row from empty CSV file");
+      }
+      this.headers = ImmutableList.copyOf(fieldStrings());
+      this.searchHeaders = CsvFile.buildSearchHeaders(headers);
+      this.onRow = false;
+    } else {
+      this.headers = ImmutableList.of();
+      this.searchHeaders = ImmutableMap.of();
+    }
+  }
+
+  //------------------------------------------------------------------------
+  /**
+   * Gets the header row.
+   * <p>
+   * If there is no header row, an empty list is returned.
+   *
+   * @return the header row
+   */
+  public ImmutableList<String> headers() {
+    return headers;
+  }
+
+  /**
+   * Checks if the header is present in the file.
+   * <p>
+   * Matching is case insensitive.
+   *
+   * @param header  the column header to match
+   * @return true if the header is present
+   */
+  public boolean containsHeader(String header) {
+    return searchHeaders.containsKey(header.toLowerCase(Locale.ENGLISH));
+  }
+
+  /**
+   * Checks if the headers are present in the file.
+   * <p>
+   * Matching is case insensitive.
+   *
+   * @param headers  the column headers to match
+   * @return true if all the headers are present
+   */
+  public boolean containsHeaders(Collection<String> headers) {
+    return headers.stream().allMatch(this::containsHeader);
+  }
+
+  /**
+   * Gets the index of the column with the specified header.
+   * <p>
+   * This returns the index of the first column where the header matches the specified header.
+   * Matching is case insensitive.
+   * The result is intended to be obtained once and then used for every row.
+   *
+   * @param header  the column header
+   * @return the index of the column
+   * @throws IllegalArgumentException if the header is not found
+   */
+  public int headerIndex(String header) {
+    Integer index = searchHeaders.get(header.toLowerCase(Locale.ENGLISH));
+    if (index == null) {
+      throw new IllegalArgumentException("Header not found: '" + header + "'");
+    }
+    return index;
+  }
+
+  /**
+   * Finds the index of the column with the specified header.
+   * <p>
+   * This returns the index of the first column where the header matches the specified header.
+   * Matching is case insensitive.
+   *
+   * @param header  the column header
+   * @return the index of the column, empty if not found
+   */
+  public OptionalInt findHeaderIndex(String header) {
+    Integer index = searchHeaders.get(header.toLowerCase(Locale.ENGLISH));
+    return index == null ? OptionalInt.empty() : OptionalInt.of(index);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Moves the cursor to the next row in the CSV file.
+   * <p>
+   * Blank lines and comment lines are skipped.
+   *
+   * @return true if the cursor is positioned on a row, false if the end of the file has been reached
+   * @throws UncheckedIOException if an IO exception occurs
+   */
+  public boolean next() {
+    while (readLine()) {
+      currentLineNumber++;
+      if (tokenizer.tokenize(buf, lineStart, lineEnd)) {
+        int fieldCount = tokenizer.fieldCount();
+        if (fieldStrings.length < fieldCount) {
+          fieldStrings = new String[Math.max(fieldCount, fieldStrings.length * 2)];
+        } else {
+          Arrays.fill(fieldStrings, 0, fieldCount, null);
+        }
+        onRow = true;
+        return true;
+      }
+    }
+    onRow = false;
+    return false;
+  }
+
+  /**
+   * Gets the line number in the source file of the current row.
+   *
+   * @return the line number
+   * @throws IllegalStateException if the cursor is not positioned on a row
+   */
+  public int lineNumber() {
+    checkOnRow();
+    return currentLineNumber;
+  }
+
+  /**
+   * Gets the number of fields in the current row.
+   * <p>
+   * This will never be less than the number of headers.
+   *
+   * @return the number of fields
+   * @throws IllegalStateException if the cursor is not positioned on a row
+   */
+  public int fieldCount() {
+    checkOnRow();
+    return Math.max(tokenizer.fieldCount(), headers.size());
+  }
+
+  /**
+   * Gets the length of the specified field in the current row.
+   * <p>
+   * This can be used to check whether a field is empty without creating a string.
+   *
+   * @param index  the field index
+   * @return the length of the field
+   * @throws IndexOutOfBoundsException if the field index is invalid
+   * @throws IllegalStateException if the cursor is not positioned on a row
+   */
+  public int fieldLength(int index) {
+    if (isPadding(index)) {
+      return 0;
+    }
+    return tokenizer.end(index) - tokenizer.start(index);
+  }
+
+  /**
+   * Gets the specified field in the current row.
+   * <p>
+   * The string is created on first access, and reused until the cursor moves.
+   *
+   * @param index  the field index
+   * @return the field, trimmed unless surrounded by quotes
+   * @throws IndexOutOfBoundsException if the field index is invalid
+   * @throws IllegalStateException if the cursor is not positioned on a row
+   */
+  public String field(int index) {
+    if (isPadding(index)) {
+      return "";
+    }
+    return fieldString(index);
+  }
+
+  // gets the string of a field that is known to be valid, caching the result
+  private String fieldString(int index) {
+    String str = fieldStrings[index];
+    if (str == null) {
+      int start = tokenizer.start(index);
+      int length = tokenizer.end(index) - start;
+      str = length == 0 ? "" : new String(buf, start, length);
+      fieldStrings[index] = str;
+    }
+    return str;
+  }
+
+  /**
+   * Checks if the specified field in the current row equals the specified string.
+   * <p>
+   * The comparison is performed without creating a string.
+   *
+   * @param index  the field index
+   * @param str  the string to compare to
+   * @return true if the field matches the string
+   * @throws IndexOutOfBoundsException if the field index is invalid
+   * @throws IllegalStateException if the cursor is not positioned on a row
+   */
+  public boolean fieldEquals(int index, String str) {
+    int length = fieldLength(index);
+    if (length != str.length()) {
+      return false;
+    }
+    int start = length == 0 ? 0 : tokenizer.start(index);
+    for (int i = 0; i < length; i++) {
+      if (buf[start + i] != str.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Parses the specified field in the current row as a {@code double}.
+   * <p>
+   * The format accepted is that of {@link Double#parseDouble(String)}.
+   * Simple decimal numbers, such as those typically found in market data files, are parsed
+   * directly from the buffer, producing exactly the same result as {@code Double.parseDouble}.
+   *
+   * @param index  the field index
+   * @return the parsed value
+   * @throws NumberFormatException if the field cannot be parsed
+   * @throws IndexOutOfBoundsException if the field index is invalid
+   * @throws IllegalStateException if the cursor is not positioned on a row
+   */
+  public double parseDouble(int index) {
+    int length = fieldLength(index);
+    if (length == 0) {
+      throw new NumberFormatException("Unable to parse double from empty field");
+    }
+    int start = tokenizer.start(index);
+    return parseDouble(buf, start, start + length);
+  }
+
+  // parses a double, using the fast path for simple numbers
+  // the fast path is exact because the mantissa and the power of ten are both exactly representable
+  // thus the single multiplication or division is correctly rounded, as per Double.parseDouble
+  private static double parseDouble(char[] chars, int start, int end) {
+    int pos = start;
+    boolean negative = false;
+    if (chars[pos] == '-' || chars[pos] == '+') {
+      negative = chars[pos] == '-';
+      pos++;
+    }
+    long mantissa = 0;
+    int significantDigits = 0;
+    int exponent = 0;
+    boolean anyDigits = false;
+    boolean decimalPoint = false;
+    for (; pos < end; pos++) {
+      char ch = chars[pos];
+      if (ch >= '0' && ch <= '9') {
+        anyDigits = true;
+        if (mantissa != 0 || ch != '0') {
+          significantDigits++;
+          if (significantDigits > MAX_EXACT_DIGITS) {
+            return Double.parseDouble(new String(chars, start, end - start));
+          }
+          mantissa = mantissa * 10 + (ch - '0');
+        }
+        if (decimalPoint) {
+          exponent--;
+        }
+      } else if (ch == '.' && !decimalPoint) {
+        decimalPoint = true;
+      } else {
+        break;
+      }
+    }
+    if (pos < end && anyDigits && (chars[pos] == 'e' || chars[pos] == 'E')) {
+      int expPos = pos + 1;
+      boolean negativeExp = false;
+      if (expPos < end && (chars[expPos] == '-' || chars[expPos] == '+')) {
+        negativeExp = chars[expPos] == '-';
+        expPos++;
+      }
+      int explicitExp = 0;
+      int expDigits = 0;
+      for (; expPos < end && chars[expPos] >= '0' && chars[expPos] <= '9' && expDigits < 4; expPos++, expDigits++) {
+        explicitExp = explicitExp * 10 + (chars[expPos] - '0');
+      }
+      if (expDigits > 0) {
+        exponent += negativeExp ? -explicitExp : explicitExp;
+        pos = expPos;
+      }
+    }
+    if (pos != end || !anyDigits) {
+      // unusual format or invalid, let the JDK decide
+      return Double.parseDouble(new String(chars, start, end - start));
+    }
+    if (mantissa == 0) {
+      return negative ? -0d : 0d;
+    }
+    if (exponent < -22 || exponent > 22) {
+      return Double.parseDouble(new String(chars, start, end - start));
+    }
+    double value = exponent >= 0 ?
+        mantissa * EXACT_POWERS_OF_TEN[exponent] :
+        mantissa / EXACT_POWERS_OF_TEN[-exponent];
+    return negative ? -value : value;
+  }
+
+  /**
+   * Parses the specified field in the current row as a {@code LocalDate} in ISO format 'yyyy-MM-dd'.
+   * <p>
+   * The date is parsed directly from the buffer.
+   *
+   * @param index  the field index
+   * @return the parsed date
+   * @throws DateTimeException if the field cannot be parsed
+   * @throws IndexOutOfBoundsException if the field index is invalid
+   * @throws IllegalStateException if the cursor is not positioned on a row
+   */
+  public LocalDate parseLocalDate(int index) {
+    LocalDate date = tryParseIsoDate(index);
+    return date != null ? date : LocalDate.parse(field(index));
+  }
+
+  /**
+   * Parses the specified field in the current row as a {@code LocalDate}, using a fallback for non-ISO formats.
+   * <p>
+   * If the field is in ISO format 'yyyy-MM-dd' it is parsed directly from the buffer.
+   * Otherwise, the field is converted to a string and passed to the fallback parser.
+   * This allows the fast path to be combined with the more lenient parsing used by loaders.
+   *
+   * @param index  the field index
+   * @param fallbackParser  the parser to use if the field is not in ISO format
+   * @return the parsed date
+   * @throws RuntimeException if the fallback parser throws an exception
+   * @throws IndexOutOfBoundsException if the field index is invalid
+   * @throws IllegalStateException if the cursor is not positioned on a row
+   */
+  public LocalDate parseLocalDate(int index, Function<String, LocalDate> fallbackParser) {
+    LocalDate date = tryParseIsoDate(index);
+    return date != null ? date : fallbackParser.apply(field(index));
+  }
+
+  // parses an ISO date directly from the buffer, returning null if not possible
+  private LocalDate tryParseIsoDate(int index) {
+    if (fieldLength(index) != 10) {
+      return null;
+    }
+    int start = tokenizer.start(index);
+    if (buf[start + 4] != '-' || buf[start + 7] != '-') {
+      return null;
+    }
+    int year = parseDigits(start, start + 4);
+    int month = parseDigits(start + 5, start + 7);
+    int day = parseDigits(start + 8, start + 10);
+    if (year < 0 || month < 0 || day < 0) {
+      return null;
+    }
+    try {
+      return LocalDate.of(year, month, day);
+    } catch (DateTimeException ex) {
+      // invalid date, such as February 30th, so let the slower parser produce the error
+      return null;
+    }
+  }
+
+  // parses a block of digits, returning -1 if not all digits
+  private int parseDigits(int start, int end) {
+    int value = 0;
+    for (int i = start; i < end; i++) {
+      char ch = buf[i];
+      if (ch < '0' || ch > '9') {
+        return -1;
+      }
+      value = value * 10 + (ch - '0');
+    }
+    return value;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns an immutable copy of the current row.
+   * <p>
+   * This creates a string for every field in the row.
+   *
+   * @return the current row
+   * @throws IllegalStateException if the cursor is not positioned on a row
+   */
+  public CsvRow row() {
+    checkOnRow();
+    return new CsvRow(headers, searchHeaders, currentLineNumber, ImmutableList.copyOf(fieldStrings()));
+  }
+
+  // the fields of the current row, excluding padding to the header size
+  private String[] fieldStrings() {
+    int fieldCount = tokenizer.fieldCount();
+    String[] strs = new String[fieldCount];
+    for (int i = 0; i < fieldCount; i++) {
+      strs[i] = fieldString(i);
+    }
+    return strs;
+  }
+
+  // checks if the field is beyond the end of the row but within the headers
+  private boolean isPadding(int index) {
+    checkOnRow();
+    int fieldCount = tokenizer.fieldCount();
+    if (index < 0 || index >= Math.max(fieldCount, headers.size())) {
+      throw new IndexOutOfBoundsException("Invalid field index: " + index);
+    }
+    return index >= fieldCount;
+  }
+
+  // checks the cursor is on a row
+  private void checkOnRow() {
+    if (!onRow) {
+      throw new IllegalStateException("CsvCursor is not positioned on a row");
+    }
+  }
+
+  // reads the next line into the buffer, setting the line start and end, returning false at the end of the input
+  // lines are separated by CR, LF or CRLF
+  private boolean readLine() {
+    int scanned = 0;
+    while (true) {
+      if (skipLf && nextLineStart < bufLength) {
+        skipLf = false;
+        if (buf[nextLineStart] == '\n') {
+          nextLineStart++;
+        }
+      }
+      if (!skipLf) {
+        for (int i = nextLineStart + scanned; i < bufLength; i++) {
+          char ch = buf[i];
+          if (ch == '\n' || ch == '\r') {
+            lineStart = nextLineStart;
+            lineEnd = i;
+            nextLineStart = i + 1;
+            skipLf = ch == '\r';
+            return true;
+          }
+        }
+        scanned = bufLength - nextLineStart;
+      }
+      if (endOfInput) {
+        if (nextLineStart < bufLength) {
+          lineStart = nextLineStart;
+          lineEnd = bufLength;
+          nextLineStart = bufLength;
+          return true;
+        }
+        return false;
+      }
+      fill();
+    }
+  }
+
+  // fills the buffer, discarding processed lines and expanding if necessary
+  private void fill() {
+    if (nextLineStart > 0) {
+      System.arraycopy(buf, nextLineStart, buf, 0, bufLength - nextLineStart);
+      bufLength -= nextLineStart;
+      nextLineStart = 0;
+    }
+    if (bufLength == buf.length) {
+      buf = Arrays.copyOf(buf, buf.length * 2);
+    }
+    int read = Unchecked.wrap(() -> reader.read(buf, bufLength, buf.length - bufLength));
+    if (read < 0) {
+      endOfInput = true;
+    } else {
+      bufLength += read;
+    }
+  }
+
+  /**
+   * Closes the underlying reader.
+   *
+   * @throws UncheckedIOException if an IO exception occurs
+   */
+  @Override
+  public void close() {
+    Unchecked.wrap(() -> reader.close());
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns a string describing the CSV cursor.
+   *
+   * @return the descriptive string
+   */
+  @Override
+  public String toString() {
+    return "CsvCursor" + headers.toString();
+  }
+
+}
@@ -320,8 +320,9 @@ public final class CsvFile {
       ImmutableMap<String, Integer> searchHeaders) {
 
     ImmutableList.Builder<CsvRow> rows = ImmutableList.builder();
+    CsvLineTokenizer tokenizer = new CsvLineTokenizer(separator);
     for (int i = lineIndex; i < lines.size(); i++) {
-      ImmutableList<String> fields = parseLine(lines.get(i), separator);
+      ImmutableList<String> fields = parseLine(lines.get(i), tokenizer);
       if (!fields.isEmpty()) {
         rows.add(new CsvRow(headers, searchHeaders, i + 1, fields));
       }
@@ -331,76 +332,23 @@ public final class CsvFile {
 
   // parse a single line
   static ImmutableList<String> parseLine(String line, char separator) {
-    if (line.length() == 0 || line.startsWith("#") || (line.startsWith(";") && separator != ';')) {
-      return ImmutableList.of();
-    }
-    ImmutableList.Builder<String> builder = ImmutableList.builder();
-    String terminated = line + separator;
-    // three modes of parsing - base, value and quote
-    // to match other lenient parsers, when quote mode finishes, the mode switches to value with the result combined
-    int pos = 0;
-    int startPos = 0;
-    String value = "";
-    boolean valueMode = false;
-    boolean quoteMode = false;
-    while (pos < terminated.length()) {
-      char ch = terminated.charAt(pos++);
-      if (quoteMode) {
-        // currently in quote mode
-        if (ch == '"' && pos < terminated.length() - 1 && terminated.charAt(pos) == '"') {
-          // two double quotes will become one
-          pos++;
-        } else if (ch == '"') {
-          // end of quoted section
-          value = terminated.substring(startPos, pos - 1).replace("\"\"", "\"");
-          startPos = pos;
-          quoteMode = false;
-        } else if (pos == terminated.length()) {
-          // end of string with quote not terminated properly
-          builder.add(terminated.substring(startPos, pos - 1).replace("\"\"", "\""));
-        }
-      } else if (valueMode) {
-        // currently in value mode
-        if (ch == separator) {
-          builder.add(value + terminated.substring(startPos, pos - 1).trim());
-          valueMode = false;
-          value = "";
-        }
-      } else if (ch == separator) {
-        // handle empty value
-        builder.add("");
-      } else if (ch == ' ') {
-        // ignore spaces after separators
-      } else if (ch == '=' && pos < terminated.length() - 1 && terminated.charAt(pos) == '"') {
-        // handle convention where ="xxx" means xxx by simply ignoring the equals
-      } else if (ch == '"') {
-        // quoted mode
-        startPos = pos;
-        quoteMode = true;
-        valueMode = true;
-      } else {
-        // non-quoted mode
-        startPos = pos - 1;
-        valueMode = true;
-      }
-    }
-    // check line has content
-    ImmutableList<String> fields = builder.build();
-    if (!hasContent(fields)) {
-      return ImmutableList.of();
-    }
-    return fields;
+    return parseLine(line, new CsvLineTokenizer(separator));
   }
 
-  // determines whether there is any content on a line
-  // this handles lines that contain separators but nothing else
-  private static boolean hasContent(ImmutableList<String> fields) {
-    for (String field : fields) {
-      if (!field.isEmpty()) {
-        return true;
-      }
+  // parse a single line, reusing the tokenizer
+  static ImmutableList<String> parseLine(String line, CsvLineTokenizer tokenizer) {
+    char[] buf = line.toCharArray();
+    if (!tokenizer.tokenize(buf, 0, buf.length)) {
+      return ImmutableList.of();
     }
-    return false;
+    int fieldCount = tokenizer.fieldCount();
+    ImmutableList.Builder<String> builder = ImmutableList.builderWithExpectedSize(fieldCount);
+    for (int i = 0; i < fieldCount; i++) {
+      int start = tokenizer.start(i);
+      int end = tokenizer.end(i);
+      builder.add(start == end ? "" : new String(buf, start, end - start));
+    }
+    return builder.build();
   }
 
   // build the search headers
@@ -37,6 +37,7 @@ import com.opengamma.strata.collect.Unchecked;
  * <p>
  * This class processes the CSV file row-by-row.
  * To load the entire CSV file into memory, use {@link CsvFile}.
+ * To process very large CSV files with minimal allocation, use {@link CsvCursor}.
  * <p>
  * This class must be used in a try-with-resources block to ensure that the underlying CSV file is closed:
  * <pre>
@@ -66,9 +67,9 @@ public final class CsvIterator implements AutoCloseable, PeekingIterator<CsvRow>
    */
   private final BufferedReader reader;
   /**
-   * The separator
+   * The tokenizer, reused for each line.
    */
-  private final char separator;
+  private final CsvLineTokenizer tokenizer;
   /**
    * The header row, ordered as the headers appear in the file.
    */
@@ -209,7 +210,7 @@ public final class CsvIterator implements AutoCloseable, PeekingIterator<CsvRow>
       int currentLineNumber) {
 
     this.reader = reader;
-    this.separator = separator;
+    this.tokenizer = new CsvLineTokenizer(separator);
     this.headers = headers;
     this.searchHeaders = searchHeaders;
     this.currentLineNumber = currentLineNumber;
@@ -317,7 +318,7 @@ public final class CsvIterator implements AutoCloseable, PeekingIterator<CsvRow>
       String line = null;
       while ((line = Unchecked.wrap(() -> reader.readLine())) != null) {
         currentLineNumber++;
-        ImmutableList<String> fields = CsvFile.parseLine(line, separator);
+        ImmutableList<String> fields = CsvFile.parseLine(line, tokenizer);
         if (!fields.isEmpty()) {
           nextRow = new CsvRow(headers, searchHeaders, currentLineNumber, fields);
           return true;
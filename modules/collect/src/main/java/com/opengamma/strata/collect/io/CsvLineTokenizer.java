@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.collect.io;
+
+import java.util.Arrays;
+
+/**
+ * Splits a single line of CSV into fields, operating directly on a character buffer.
+ * <p>
+ * The fields are located by start and end offsets into the buffer, avoiding the need to create strings.
+ * Quoted fields are unescaped in place, which is possible because the unescaped form is never
+ * longer than the escaped form. As such, the buffer is altered by tokenization.
+ * <p>
+ * The rules are those described in {@link CsvFile}.
+ * This class is mutable and intended to be reused for each line of a file.
+ */
+final class CsvLineTokenizer {
+
+  /**
+   * The separator.
+   */
+  private final char separator;
+  /**
+   * The start offset of each field, inclusive.
+   */
+  private int[] starts = new int[16];
+  /**
+   * The end offset of each field, exclusive.
+   */
+  private int[] ends = new int[16];
+  /**
+   * The number of fields on the current line.
+   */
+  private int fieldCount;
+
+  /**
+   * Creates an instance.
+   *
+   * @param separator  the separator
+   */
+  CsvLineTokenizer(char separator) {
+    this.separator = separator;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Tokenizes a line, held in the specified buffer.
+   * <p>
+   * The line must not contain the line terminator.
+   * If the line is a comment or has no content, then the field count will be zero.
+   *
+   * @param buf  the buffer, which is altered by this method
+   * @param lineStart  the start of the line in the buffer, inclusive
+   * @param lineEnd  the end of the line in the buffer, exclusive
+   * @return true if the line has content, false if it should be ignored
+   */
+  boolean tokenize(char[] buf, int lineStart, int lineEnd) {
+    fieldCount = 0;
+    if (lineStart == lineEnd) {
+      return false;
+    }
+    char first = buf[lineStart];
+    if (first == '#' || (first == ';' && separator != ';')) {
+      return false;
+    }
+    // three modes of parsing - base, value and quote
+    // the line is treated as though it is terminated by an additional separator
+    // to match other lenient parsers, when quote mode finishes, the mode switches to value with the result combined
+    int pos = lineStart;
+    int fieldStart = lineStart;
+    int write = lineStart;
+    int segmentStart = lineStart;
+    boolean valueMode = false;
+    boolean quoteMode = false;
+    boolean content = false;
+    while (pos <= lineEnd) {
+      char ch = pos == lineEnd ? separator : buf[pos];
+      pos++;
+      if (quoteMode) {
+        // currently in quote mode
+        if (ch == '"' && pos < lineEnd && buf[pos] == '"') {
+          // two double quotes will become one
+          buf[write++] = '"';
+          pos++;
+        } else if (ch == '"') {
+          // end of quoted section
+          segmentStart = pos;
+          quoteMode = false;
+        } else if (pos > lineEnd) {
+          // end of string with quote not terminated properly
+          content |= addField(fieldStart, write);
+        } else {
+          buf[write++] = ch;
+        }
+      } else if (valueMode) {
+        // currently in value mode, append the trimmed segment on reaching the separator
+        if (ch == separator) {
+          int segmentEnd = pos - 1;
+          while (segmentStart < segmentEnd && buf[segmentStart] <= ' ') {
+            segmentStart++;
+          }
+          while (segmentEnd > segmentStart && buf[segmentEnd - 1] <= ' ') {
+            segmentEnd--;
+          }
+          int length = segmentEnd - segmentStart;
+          System.arraycopy(buf, segmentStart, buf, write, length);
+          content |= addField(fieldStart, write + length);
+          valueMode = false;
+        }
+      } else if (ch == separator) {
+        // handle empty value
+        addField(pos - 1, pos - 1);
+      } else if (ch == ' ') {
+        // ignore spaces after separators
+      } else if (ch == '=' && pos < lineEnd && buf[pos] == '"') {
+        // handle convention where ="xxx" means xxx by simply ignoring the equals
+      } else if (ch == '"') {
+        // quoted mode
+        fieldStart = pos;
+        write = pos;
+        quoteMode = true;
+        valueMode = true;
+      } else {
+        // non-quoted mode
+        fieldStart = pos - 1;
+        write = pos - 1;
+        segmentStart = pos - 1;
+        valueMode = true;
+      }
+    }
+    if (!content) {
+      fieldCount = 0;
+    }
+    return content;
+  }
+
+  // adds a field, returning true if it has content
+  private boolean addField(int start, int end) {
+    if (fieldCount == starts.length) {
+      starts = Arrays.copyOf(starts, fieldCount * 2);
+      ends = Arrays.copyOf(ends, fieldCount * 2);
+    }
+    starts[fieldCount] = start;
+    ends[fieldCount] = end;
+    fieldCount++;
+    return end > start;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of fields on the last line that was tokenized.
+   *
+   * @return the number of fields
+   */
+  int fieldCount() {
+    return fieldCount;
+  }
+
+  /**
+   * Gets the start offset of the field, inclusive.
+   *
+   * @param index  the field index, which must be valid
+   * @return the start offset
+   */
+  int start(int index) {
+    return starts[index];
+  }
+
+  /**
+   * Gets the end offset of the field, exclusive.
+   *
+   * @param index  the field index, which must be valid
+   * @return the end offset
+   */
+  int end(int index) {
+    return ends[index];
+  }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.collect.metrics;
+
+import java.util.Locale;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+/**
+ * Metrics listener that aggregates the timings by key.
+ * <p>
+ * The statistics of each timing, the count, total, minimum and maximum in nanoseconds,
+ * are accumulated under a key formed from the step and the name of the item, for example:
+ * <ul>
+ * <li>{@code task:SwapTradeCalculationFunction} - the execution time of tasks using the function
+ * <li>{@code taskWait:SwapTradeCalculationFunction} - the queue wait of tasks using the function
+ * <li>{@code delivery} - the delivery lag of results to the calculation listener
+ * <li>{@code marketData:CurveId} - the time to build market data, by the type of identifier
+ * <li>{@code calibration:USD-Curves} - the time to calibrate a curve group
+ * <li>{@code calibrationEvaluations:USD-Curves} - the number of function evaluations to calibrate a curve group
+ * </ul>
+ * <p>
+ * This class is thread-safe.
+ */
+public final class AggregatingMetricsListener implements MetricsListener {
+
+  /**
+   * The statistics by key.
+   */
+  private final ConcurrentHashMap<String, LongSummaryStatistics> statistics = new ConcurrentHashMap<>();
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates an instance.
+   */
+  public AggregatingMetricsListener() {
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void calculationTask(
+      String functionName,
+      Set<String> measureNames,
+      int targetCount,
+      long queueWaitNanos,
+      long executionNanos) {
+
+    record("task:" + functionName, executionNanos);
+    record("taskWait:" + functionName, queueWaitNanos);
+  }
+
+  @Override
+  public void resultDelivered(long deliveryLagNanos) {
+    record("delivery", deliveryLagNanos);
+  }
+
+  @Override
+  public void marketDataBuilt(Object marketDataId, boolean success, long durationNanos) {
+    record("marketData:" + marketDataId.getClass().getSimpleName(), durationNanos);
+  }
+
+  @Override
+  public void curveGroupCalibrated(String groupName, int curveCount, int functionEvaluations, long durationNanos) {
+    record("calibration:" + groupName, durationNanos);
+    record("calibrationEvaluations:" + groupName, functionEvaluations);
+  }
+
+  // adds a value to the statistics of the key
+  private void record(String key, long value) {
+    statistics.compute(key, (k, stats) -> {
+      LongSummaryStatistics updated = stats != null ? stats : new LongSummaryStatistics();
+      updated.accept(value);
+      return updated;
+    });
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets a snapshot of the statistics, keyed and sorted by key.
+   *
+   * @return the statistics
+   */
+  public ImmutableSortedMap<String, LongSummaryStatistics> getStatistics() {
+    Map<String, LongSummaryStatistics> snapshot = new TreeMap<>();
+    for (String key : statistics.keySet()) {
+      statistics.computeIfPresent(key, (k, stats) -> {
+        LongSummaryStatistics copy = new LongSummaryStatistics();
+        copy.combine(stats);
+        snapshot.put(k, copy);
+        return stats;
+      });
+    }
+    return ImmutableSortedMap.copyOf(snapshot);
+  }
+
+  /**
+   * Clears the statistics.
+   */
+  public void clear() {
+    statistics.clear();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns a summary of the statistics, one line per key, with timings in milliseconds.
+   *
+   * @return the summary
+   */
+  @Override
+  public String toString() {
+    StringBuilder buf = new StringBuilder();
+    for (Map.Entry<String, LongSummaryStatistics> entry : getStatistics().entrySet()) {
+      LongSummaryStatistics stats = entry.getValue();
+      boolean isTiming = !entry.getKey().startsWith("calibrationEvaluations:");
+      buf.append(entry.getKey())
+          .append(": count=").append(stats.getCount())
+          .append(isTiming ? ", totalMs=" : ", total=").append(format(stats.getSum(), isTiming))
+          .append(isTiming ? ", maxMs=" : ", max=").append(format(stats.getMax(), isTiming))
+          .append(System.lineSeparator());
+    }
+    return buf.toString();
+  }
+
+  // formats nanoseconds as milliseconds
+  private static String format(long value, boolean isTiming) {
+    if (!isTiming) {
+      return Long.toString(value);
+    }
+    return String.format(Locale.ENGLISH, "%.3f", value / (double) TimeUnit.MILLISECONDS.toNanos(1));
+  }
+
+}
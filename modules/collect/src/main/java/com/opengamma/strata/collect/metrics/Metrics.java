@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.collect.metrics;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The registry of the metrics listener.
+ * <p>
+ * Instrumented code obtains the listener using {@link #listener()}. When no listener is registered,
+ * {@link #isEnabled()} is false and the instrumented code skips all timing, thus the overhead of
+ * the instrumentation is a single volatile read.
+ * <p>
+ * Only one listener can be registered at a time. To notify several listeners, register a listener
+ * that delegates to each of them.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class Metrics {
+
+  /**
+   * The listener used when metrics are disabled.
+   */
+  private static final MetricsListener DISABLED = new MetricsListener() {
+    @Override
+    public String toString() {
+      return "MetricsListener[disabled]";
+    }
+  };
+  /**
+   * The registered listener.
+   */
+  private static final AtomicReference<MetricsListener> LISTENER = new AtomicReference<>(DISABLED);
+
+  /**
+   * Restricted constructor.
+   */
+  private Metrics() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Registers the listener, replacing any listener already registered.
+   *
+   * @param listener  the listener
+   */
+  public static void register(MetricsListener listener) {
+    LISTENER.set(ArgChecker.notNull(listener, "listener"));
+  }
+
+  /**
+   * Unregisters the listener, disabling metrics.
+   */
+  public static void unregister() {
+    LISTENER.set(DISABLED);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Checks if metrics are enabled, which is the case when a listener is registered.
+   *
+   * @return true if metrics are enabled
+   */
+  public static boolean isEnabled() {
+    return LISTENER.get() != DISABLED;
+  }
+
+  /**
+   * Gets the registered listener.
+   * <p>
+   * If no listener is registered, this returns a listener that does nothing.
+   * Instrumented code should check {@link #isEnabled(MetricsListener)} before measuring timings.
+   *
+   * @return the listener
+   */
+  public static MetricsListener listener() {
+    return LISTENER.get();
+  }
+
+  /**
+   * Checks if the specified listener, obtained from {@link #listener()}, is enabled.
+   * <p>
+   * This allows instrumented code to read the listener once and check it without further volatile reads.
+   *
+   * @param listener  the listener
+   * @return true if the listener is not the disabled listener
+   */
+  public static boolean isEnabled(MetricsListener listener) {
+    return listener != DISABLED;
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.collect.metrics;
+
+import java.util.Set;
+
+/**
+ * Listener that is notified of the time taken by each step of a calculation.
+ * <p>
+ * A listener is registered using {@link Metrics#register(MetricsListener)}.
+ * The listener is invoked by the thread that performed the step, thus implementations
+ * must be thread-safe and fast, and must not throw exceptions.
+ * <p>
+ * The methods correspond to the steps that are instrumented:
+ * <ul>
+ * <li>{@link #calculationTask(String, Set, int, long, long)}
+ *  - the calculation of the measures of one or more targets by a calculation function
+ * <li>{@link #resultDelivered(long)}
+ *  - the delivery of the results of a task to the calculation listener
+ * <li>{@link #marketDataBuilt(Object, boolean, long)}
+ *  - the building of an item of market data by a market data function
+ * <li>{@link #curveGroupCalibrated(String, int, int, long)}
+ *  - the calibration of a group of curves
+ * </ul>
+ * All durations are in nanoseconds, measured using {@link System#nanoTime()}.
+ * <p>
+ * A listener can also forward the timings to another system, such as a metrics library or,
+ * when running on Java 11 or later, JDK Flight Recorder events.
+ * <p>
+ * The default implementation of each method does nothing.
+ */
+public interface MetricsListener {
+
+  /**
+   * Invoked when a calculation task completes.
+   * <p>
+   * The queue wait is the time from submitting the task to the executor until it started.
+   * When tasks are run in batches, the target count is the number of targets in the batch,
+   * and the measures are those of all the targets.
+   *
+   * @param functionName  the simple class name of the calculation function
+   * @param measureNames  the names of the measures calculated
+   * @param targetCount  the number of targets calculated by the task
+   * @param queueWaitNanos  the time the task spent waiting to be run
+   * @param executionNanos  the time taken to run the task
+   */
+  public default void calculationTask(
+      String functionName,
+      Set<String> measureNames,
+      int targetCount,
+      long queueWaitNanos,
+      long executionNanos) {
+  }
+
+  /**
+   * Invoked when the results of a task have been delivered to the calculation listener.
+   * <p>
+   * The lag is the time from the completion of the task until the listener has received the results.
+   * It includes the time spent waiting for other results to be delivered, as the listener is only
+   * invoked by one thread at a time.
+   *
+   * @param deliveryLagNanos  the time from completion of the task to delivery of the results
+   */
+  public default void resultDelivered(long deliveryLagNanos) {
+  }
+
+  /**
+   * Invoked when an item of market data has been built.
+   * <p>
+   * The time includes building the item for all scenarios, but not building the market data it depends on.
+   *
+   * @param marketDataId  the identifier of the market data, typically a {@code MarketDataId}
+   * @param success  true if the market data was built successfully, false if it failed
+   * @param durationNanos  the time taken to build the market data
+   */
+  public default void marketDataBuilt(Object marketDataId, boolean success, long durationNanos) {
+  }
+
+  /**
+   * Invoked when a group of curves has been calibrated.
+   * <p>
+   * The number of function evaluations is the number of times the root finder evaluated the calibration
+   * function, including the initial guess. This is not the number of iterations of the root finder,
+   * as an iteration may evaluate the function more than once, such as during a line search.
+   *
+   * @param groupName  the name of the curve group
+   * @param curveCount  the number of curves calibrated together
+   * @param functionEvaluations  the number of evaluations of the calibration function
+   * @param durationNanos  the time taken to find the curve parameters
+   */
+  public default void curveGroupCalibrated(
+      String groupName,
+      int curveCount,
+      int functionEvaluations,
+      long durationNanos) {
+  }
+
+}
@@ -0,0 +1,14 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+
+/**
+ * Instrumentation of calculations.
+ * <p>
+ * The calculation engine, market data building and curve calibration report timings to
+ * the {@link com.opengamma.strata.collect.metrics.MetricsListener} registered with
+ * {@link com.opengamma.strata.collect.metrics.Metrics}. No listener is registered by default.
+ */
+package com.opengamma.strata.collect.metrics;
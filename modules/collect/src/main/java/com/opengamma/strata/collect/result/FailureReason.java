@@ -78,6 +78,20 @@ public enum FailureReason implements NamedEnum {
    * This is used to indicate that a calculation failed.
    */
   CALCULATION_FAILED,
+  /**
+   * The operation did not complete in the time allowed.
+   * <p>
+   * This is used to indicate that a calculation was not performed, or its result was discarded,
+   * because the deadline of the calculation run had passed.
+   */
+  TIMEOUT,
+  /**
+   * The operation was cancelled.
+   * <p>
+   * This is used to indicate that a calculation was not performed, or its result was discarded,
+   * because the calculation run was cancelled.
+   */
+  CANCELLED,
   /**
    * Failure occurred for some other reason.
    * <p>
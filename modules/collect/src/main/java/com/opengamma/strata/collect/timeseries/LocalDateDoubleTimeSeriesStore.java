@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.collect.timeseries;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+
+/**
+ * A store of named time-series held in a memory-mapped binary file.
+ * <p>
+ * Loading a large number of long time-series from text files on every process start is slow
+ * and places all the data on the heap. This store instead uses a simple binary format that is
+ * memory-mapped when opened. Only the index of names is read eagerly, the dates and values
+ * are read on demand by the operating system and are held off-heap.
+ * <p>
+ * The time-series returned by {@link #find(String)} are backed directly by the mapped file.
+ * The file must not be altered while the store is in use.
+ * <p>
+ * The format of the file is as follows, with all numbers in big-endian order:
+ * <ul>
+ * <li>a header, consisting of the magic number, the format version and the number of time-series
+ * <li>an index, consisting of the name, number of points and data offset of each time-series
+ * <li>the data, consisting of each time-series as a block of {@code int} epoch-days followed by
+ *  a block of {@code double} values, with each block aligned to eight bytes
+ * </ul>
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class LocalDateDoubleTimeSeriesStore {
+
+  /**
+   * The magic number at the start of the file.
+   */
+  private static final int MAGIC = 0x4F475453;
+  /**
+   * The version of the format.
+   */
+  private static final int VERSION = 1;
+  /**
+   * The maximum size of a single mapped region of the file.
+   */
+  private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+  /**
+   * The file.
+   */
+  private final Path file;
+  /**
+   * The index of each time-series, keyed by name.
+   */
+  private final Map<String, Integer> index;
+  /**
+   * The number of points in each time-series.
+   */
+  private final int[] sizes;
+  /**
+   * The segment containing each time-series.
+   */
+  private final int[] segmentIndices;
+  /**
+   * The offset of each time-series within its segment.
+   */
+  private final int[] segmentOffsets;
+  /**
+   * The mapped segments of the file.
+   */
+  private final ByteBuffer[] segments;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Writes a set of named time-series to a file in the binary format.
+   * <p>
+   * Any existing file will be replaced.
+   *
+   * @param file  the file to write
+   * @param timeSeries  the time-series to write, keyed by name
+   * @throws UncheckedIOException if an IO error occurs
+   */
+  public static void write(Path file, Map<String, ? extends LocalDateDoubleTimeSeries> timeSeries) {
+    ArgChecker.notNull(file, "file");
+    ArgChecker.notNull(timeSeries, "timeSeries");
+    List<Entry<String, ? extends LocalDateDoubleTimeSeries>> entries = new ArrayList<>(timeSeries.entrySet());
+    // the size of the index does not depend on the offsets, so it can be determined first
+    long dataStart = align(writeIndex(entries, new long[entries.size()]).length);
+    long[] offsets = new long[entries.size()];
+    long offset = dataStart;
+    for (int i = 0; i < entries.size(); i++) {
+      offsets[i] = offset;
+      offset = seriesEnd(offset, entries.get(i).getValue().size());
+    }
+    byte[] index = writeIndex(entries, offsets);
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.write(index);
+      long position = writePadding(out, index.length, dataStart);
+      for (int i = 0; i < entries.size(); i++) {
+        LocalDateDoubleTimeSeries series = entries.get(i).getValue();
+        for (LocalDate date : series.dates().toArray(LocalDate[]::new)) {
+          out.writeInt(Math.toIntExact(date.toEpochDay()));
+        }
+        position += series.size() * Integer.BYTES;
+        position = writePadding(out, position, valuesOffset(offsets[i], series.size()));
+        for (double value : series.values().toArray()) {
+          out.writeDouble(value);
+        }
+        position += series.size() * Double.BYTES;
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  // writes the header and index
+  private static byte[] writeIndex(List<Entry<String, ? extends LocalDateDoubleTimeSeries>> entries, long[] offsets) {
+    try {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(baos);
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(entries.size());
+      for (int i = 0; i < entries.size(); i++) {
+        out.writeUTF(entries.get(i).getKey());
+        out.writeInt(entries.get(i).getValue().size());
+        out.writeLong(offsets[i]);
+      }
+      out.flush();
+      return baos.toByteArray();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  // writes padding from the current position to the target position
+  private static long writePadding(DataOutputStream out, long position, long target) throws IOException {
+    for (long i = position; i < target; i++) {
+      out.writeByte(0);
+    }
+    return target;
+  }
+
+  // the offset of the values, given the offset of the dates
+  private static long valuesOffset(long datesOffset, int size) {
+    return align(datesOffset + (long) size * Integer.BYTES);
+  }
+
+  // aligns to eight bytes
+  private static long align(long offset) {
+    return (offset + 7) & ~7L;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Opens a store from a file in the binary format.
+   * <p>
+   * The index of names is read, and the data is memory-mapped.
+   *
+   * @param file  the file to open
+   * @return the store
+   * @throws UncheckedIOException if an IO error occurs
+   * @throws IllegalArgumentException if the file is not in the expected format
+   */
+  public static LocalDateDoubleTimeSeriesStore open(Path file) {
+    return open(file, MAX_SEGMENT_SIZE);
+  }
+
+  // opens the file, specifying the maximum segment size for testing
+  static LocalDateDoubleTimeSeriesStore open(Path file, long maxSegmentSize) {
+    ArgChecker.notNull(file, "file");
+    try {
+      // read the index
+      Map<String, Integer> index = new HashMap<>();
+      int[] sizes;
+      long[] offsets;
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+          throw new IllegalArgumentException(Messages.format("File is not a time-series store: {}", file));
+        }
+        int count = in.readInt();
+        sizes = new int[count];
+        offsets = new long[count];
+        for (int i = 0; i < count; i++) {
+          String name = in.readUTF();
+          sizes[i] = in.readInt();
+          offsets[i] = in.readLong();
+          if (index.putIfAbsent(name, i) != null) {
+            throw new IllegalArgumentException(Messages.format("Duplicate time-series '{}' in store: {}", name, file));
+          }
+        }
+      }
+      // map the data, with each time-series contained entirely within one segment
+      int[] segmentIndices = new int[sizes.length];
+      int[] segmentOffsets = new int[sizes.length];
+      List<ByteBuffer> segments = new ArrayList<>();
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        int first = 0;
+        while (first < sizes.length) {
+          long segmentStart = offsets[first];
+          int last = first;
+          long segmentEnd = seriesEnd(offsets[first], sizes[first]);
+          if (segmentEnd - segmentStart > maxSegmentSize) {
+            throw new IllegalArgumentException(Messages.format("Time-series too large in store: {}", file));
+          }
+          while (last + 1 < sizes.length && seriesEnd(offsets[last + 1], sizes[last + 1]) - segmentStart <= maxSegmentSize) {
+            last++;
+            segmentEnd = seriesEnd(offsets[last], sizes[last]);
+          }
+          if (segmentEnd > channel.size()) {
+            throw new IllegalArgumentException(Messages.format("Time-series store is truncated: {}", file));
+          }
+          for (int i = first; i <= last; i++) {
+            segmentIndices[i] = segments.size();
+            segmentOffsets[i] = Math.toIntExact(offsets[i] - segmentStart);
+          }
+          segments.add(channel.map(MapMode.READ_ONLY, segmentStart, segmentEnd - segmentStart));
+          first = last + 1;
+        }
+      }
+      return new LocalDateDoubleTimeSeriesStore(
+          file, index, sizes, segmentIndices, segmentOffsets, segments.toArray(new ByteBuffer[0]));
+
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  // the end of the data of the time-series
+  private static long seriesEnd(long datesOffset, int size) {
+    return valuesOffset(datesOffset, size) + (long) size * Double.BYTES;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Restricted constructor.
+   */
+  private LocalDateDoubleTimeSeriesStore(
+      Path file,
+      Map<String, Integer> index,
+      int[] sizes,
+      int[] segmentIndices,
+      int[] segmentOffsets,
+      ByteBuffer[] segments) {
+
+    this.file = file;
+    this.index = index;
+    this.sizes = sizes;
+    this.segmentIndices = segmentIndices;
+    this.segmentOffsets = segmentOffsets;
+    this.segments = segments;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of time-series in the store.
+   *
+   * @return the number of time-series
+   */
+  public int size() {
+    return sizes.length;
+  }
+
+  /**
+   * Gets the names of the time-series in the store.
+   *
+   * @return the names
+   */
+  public ImmutableSet<String> names() {
+    return ImmutableSet.copyOf(index.keySet());
+  }
+
+  /**
+   * Checks if the store contains a time-series with the specified name.
+   *
+   * @param name  the name
+   * @return true if the store contains the time-series
+   */
+  public boolean contains(String name) {
+    return index.containsKey(name);
+  }
+
+  /**
+   * Finds the time-series with the specified name.
+   * <p>
+   * The result is backed by the memory-mapped file.
+   *
+   * @param name  the name
+   * @return the time-series, empty if not found
+   */
+  public Optional<LocalDateDoubleTimeSeries> find(String name) {
+    Integer seriesIndex = index.get(name);
+    if (seriesIndex == null) {
+      return Optional.empty();
+    }
+    int size = sizes[seriesIndex];
+    if (size == 0) {
+      return Optional.of(LocalDateDoubleTimeSeries.empty());
+    }
+    int datesOffset = segmentOffsets[seriesIndex];
+    int valuesOffset = Math.toIntExact(valuesOffset(datesOffset, size));
+    ByteBuffer segment = segments[segmentIndices[seriesIndex]];
+    return Optional.of(MappedLocalDateDoubleTimeSeries.of(segment, datesOffset, valuesOffset, size));
+  }
+
+  // the number of mapped segments, for testing
+  int segmentCount() {
+    return segments.length;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns a string describing the store.
+   *
+   * @return the descriptive string
+   */
+  @Override
+  public String toString() {
+    return Messages.format("LocalDateDoubleTimeSeriesStore[{}, size={}]", file, size());
+  }
+
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.collect.timeseries;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.NoSuchElementException;
+import java.util.OptionalDouble;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.function.ObjDoublePredicate;
+
+/**
+ * A time-series backed by a buffer, typically a memory-mapped file.
+ * <p>
+ * The dates are stored as a block of {@code int} epoch-days, in ascending order,
+ * followed by a block of {@code double} values. Access is via absolute reads of the buffer,
+ * thus the data is not copied onto the heap and multiple threads can read concurrently.
+ * <p>
+ * Operations that return a sub-series share the buffer.
+ * Operations that transform the series copy the data into a heap-based time-series.
+ * <p>
+ * Instances are created by {@link LocalDateDoubleTimeSeriesStore}.
+ * When serialized, the data is copied into a heap-based time-series.
+ */
+final class MappedLocalDateDoubleTimeSeries
+    implements LocalDateDoubleTimeSeries, Serializable {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The buffer.
+   */
+  private final transient ByteBuffer buffer;
+  /**
+   * The offset of the first date in the buffer.
+   */
+  private final transient int datesOffset;
+  /**
+   * The offset of the first value in the buffer.
+   */
+  private final transient int valuesOffset;
+  /**
+   * The number of points.
+   */
+  private final transient int size;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance, where the size must be greater than zero.
+   *
+   * @param buffer  the buffer, not altered by this class
+   * @param datesOffset  the offset of the first date in the buffer
+   * @param valuesOffset  the offset of the first value in the buffer
+   * @param size  the number of points
+   * @return the time-series
+   */
+  static MappedLocalDateDoubleTimeSeries of(ByteBuffer buffer, int datesOffset, int valuesOffset, int size) {
+    return new MappedLocalDateDoubleTimeSeries(buffer, datesOffset, valuesOffset, size);
+  }
+
+  // restricted constructor
+  private MappedLocalDateDoubleTimeSeries(ByteBuffer buffer, int datesOffset, int valuesOffset, int size) {
+    this.buffer = buffer;
+    this.datesOffset = datesOffset;
+    this.valuesOffset = valuesOffset;
+    this.size = size;
+  }
+
+  // serialize as a heap-based time-series
+  private Object writeReplace() {
+    return toBuilder().build();
+  }
+
+  //-------------------------------------------------------------------------
+  // the epoch-day at the index
+  private int epochDay(int index) {
+    return buffer.getInt(datesOffset + index * Integer.BYTES);
+  }
+
+  // the date at the index
+  private LocalDate date(int index) {
+    return LocalDate.ofEpochDay(epochDay(index));
+  }
+
+  // the value at the index
+  private double value(int index) {
+    return buffer.getDouble(valuesOffset + index * Double.BYTES);
+  }
+
+  // binary search for the date, returning the index if found or (-(insertion point) - 1)
+  private int findDatePosition(LocalDate date) {
+    long target = date.toEpochDay();
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midDay = epochDay(mid);
+      if (midDay < target) {
+        low = mid + 1;
+      } else if (midDay > target) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  // the index of the first date on or after the specified date
+  private int findInsertionPosition(LocalDate date) {
+    int pos = findDatePosition(date);
+    return pos >= 0 ? pos : -pos - 1;
+  }
+
+  // creates a series sharing the buffer
+  private LocalDateDoubleTimeSeries slice(int startInclusive, int endExclusive) {
+    if (startInclusive == endExclusive) {
+      return LocalDateDoubleTimeSeries.empty();
+    }
+    if (startInclusive == 0 && endExclusive == size) {
+      return this;
+    }
+    return new MappedLocalDateDoubleTimeSeries(
+        buffer,
+        datesOffset + startInclusive * Integer.BYTES,
+        valuesOffset + startInclusive * Double.BYTES,
+        endExclusive - startInclusive);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public boolean containsDate(LocalDate date) {
+    return findDatePosition(date) >= 0;
+  }
+
+  @Override
+  public OptionalDouble get(LocalDate date) {
+    int position = findDatePosition(date);
+    return position >= 0 ? OptionalDouble.of(value(position)) : OptionalDouble.empty();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public LocalDate getLatestDate() {
+    if (isEmpty()) {
+      throw new NoSuchElementException("Unable to return latest, time-series is empty");
+    }
+    return date(size - 1);
+  }
+
+  @Override
+  public double getLatestValue() {
+    if (isEmpty()) {
+      throw new NoSuchElementException("Unable to return latest, time-series is empty");
+    }
+    return value(size - 1);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public LocalDateDoubleTimeSeries subSeries(LocalDate startInclusive, LocalDate endExclusive) {
+    ArgChecker.notNull(startInclusive, "startInclusive");
+    ArgChecker.notNull(endExclusive, "endExclusive");
+    if (endExclusive.isBefore(startInclusive)) {
+      throw new IllegalArgumentException(
+          "Invalid sub series, end before start: " + startInclusive + " to " + endExclusive);
+    }
+    return slice(findInsertionPosition(startInclusive), findInsertionPosition(endExclusive));
+  }
+
+  @Override
+  public LocalDateDoubleTimeSeries headSeries(int numPoints) {
+    ArgChecker.notNegative(numPoints, "numPoints");
+    return slice(0, Math.min(numPoints, size));
+  }
+
+  @Override
+  public LocalDateDoubleTimeSeries tailSeries(int numPoints) {
+    ArgChecker.notNegative(numPoints, "numPoints");
+    return slice(Math.max(size - numPoints, 0), size);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public Stream<LocalDateDoublePoint> stream() {
+    return IntStream.range(0, size).mapToObj(i -> LocalDateDoublePoint.of(date(i), value(i)));
+  }
+
+  @Override
+  public Stream<LocalDate> dates() {
+    return IntStream.range(0, size).mapToObj(this::date);
+  }
+
+  @Override
+  public DoubleStream values() {
+    return IntStream.range(0, size).mapToDouble(this::value);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void forEach(ObjDoubleConsumer<LocalDate> action) {
+    ArgChecker.notNull(action, "action");
+    for (int i = 0; i < size; i++) {
+      action.accept(date(i), value(i));
+    }
+  }
+
+  @Override
+  public LocalDateDoubleTimeSeries mapDates(Function<? super LocalDate, ? extends LocalDate> mapper) {
+    return toBuilder().build().mapDates(mapper);
+  }
+
+  @Override
+  public LocalDateDoubleTimeSeries mapValues(DoubleUnaryOperator mapper) {
+    return toBuilder().build().mapValues(mapper);
+  }
+
+  @Override
+  public LocalDateDoubleTimeSeries filter(ObjDoublePredicate<LocalDate> predicate) {
+    ArgChecker.notNull(predicate, "predicate");
+    LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+    for (int i = 0; i < size; i++) {
+      LocalDate date = date(i);
+      double value = value(i);
+      if (predicate.test(date, value)) {
+        builder.put(date, value);
+      }
+    }
+    return builder.build();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public LocalDateDoubleTimeSeriesBuilder toBuilder() {
+    LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+    forEach(builder::put);
+    return builder;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Checks if this time-series is equal to another time-series.
+   * <p>
+   * Compares this time-series with another buffer-based time-series ensuring
+   * that the dates and values are the same.
+   *
+   * @param obj  the object to check, null returns false
+   * @return true if this is equal to the other time-series
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj instanceof MappedLocalDateDoubleTimeSeries) {
+      MappedLocalDateDoubleTimeSeries other = (MappedLocalDateDoubleTimeSeries) obj;
+      if (size != other.size) {
+        return false;
+      }
+      for (int i = 0; i < size; i++) {
+        if (epochDay(i) != other.epochDay(i) ||
+            Double.doubleToLongBits(value(i)) != Double.doubleToLongBits(other.value(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * A hash code for this time-series.
+   *
+   * @return a suitable hash code
+   */
+  @Override
+  public int hashCode() {
+    int hash = size;
+    for (int i = 0; i < size; i++) {
+      hash = 31 * hash + epochDay(i);
+      hash = 31 * hash + Double.hashCode(value(i));
+    }
+    return hash;
+  }
+
+  /**
+   * Returns a string representation of the time-series.
+   *
+   * @return the string
+   */
+  @Override
+  public String toString() {
+    return stream()
+        .map(LocalDateDoublePoint::toString)
+        .collect(Collectors.joining(", ", "[", "]"));
+  }
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.collect.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.OptionalInt;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.CharSource;
+import com.google.common.io.Files;
+
+/**
+ * Test {@link CsvCursor}.
+ */
+public class CsvCursorTest {
+
+  private static final String CSV1 = "" +
+      "h1,h2\n" +
+      "r11,r12\n" +
+      "r21,r22";
+
+  private static final String CSV2 = "" +
+      "# Comment about the file\n" +
+      "h1,h2\r\n" +
+      "#r11,r12\r\n" +
+      ";r11,r12\r" +
+      "\r\n" +
+      ",\n" +
+      "r21\n";
+
+  private static final String CSV_TRICKY = "" +
+      "a, b ,\" c \",=\"d\",\"e\"\"f\"\n" +
+      "\"g\"  h  ,\"unterminated, quote\n" +
+      "\"\"\"\",x,\n" +
+      " , , z \n" +
+      "=x,\"a\"\"\",\"\"\n" +
+      "a;b;c\n";
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_of_ioException() {
+    assertThatExceptionOfType(UncheckedIOException.class).isThrownBy(
+        () -> CsvCursor.of(Files.asCharSource(new File("src/test/resources"), StandardCharsets.UTF_8), false));
+  }
+
+  @Test
+  public void test_of_empty() {
+    try (CsvCursor cursor = CsvCursor.of(CharSource.wrap(""), false)) {
+      assertThat(cursor.headers()).isEmpty();
+      assertThat(cursor.next()).isFalse();
+      assertThat(cursor.next()).isFalse();
+      assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> cursor.field(0));
+    }
+    assertThatIllegalArgumentException().isThrownBy(() -> CsvCursor.of(CharSource.wrap(""), true));
+  }
+
+  @Test
+  public void test_of_simple_with_header() {
+    try (CsvCursor cursor = CsvCursor.of(CharSource.wrap(CSV1), true)) {
+      assertThat(cursor.headers()).containsExactly("h1", "h2");
+      assertThat(cursor.containsHeader("H1")).isTrue();
+      assertThat(cursor.containsHeader("h3")).isFalse();
+      assertThat(cursor.containsHeaders(ImmutableList.of("h1", "h2"))).isTrue();
+      assertThat(cursor.headerIndex("H2")).isEqualTo(1);
+      assertThat(cursor.findHeaderIndex("h2")).isEqualTo(OptionalInt.of(1));
+      assertThat(cursor.findHeaderIndex("h3")).isEqualTo(OptionalInt.empty());
+      assertThatIllegalArgumentException().isThrownBy(() -> cursor.headerIndex("h3"));
+      assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> cursor.lineNumber());
+
+      assertThat(cursor.next()).isTrue();
+      assertThat(cursor.lineNumber()).isEqualTo(2);
+      assertThat(cursor.fieldCount()).isEqualTo(2);
+      assertThat(cursor.field(0)).isEqualTo("r11");
+      assertThat(cursor.field(0)).isSameAs(cursor.field(0));
+      assertThat(cursor.fieldLength(1)).isEqualTo(3);
+      assertThat(cursor.fieldEquals(1, "r12")).isTrue();
+      assertThat(cursor.fieldEquals(1, "r13")).isFalse();
+      assertThat(cursor.fieldEquals(1, "r1")).isFalse();
+      assertThat(cursor.row()).isEqualTo(CsvFile.of(CharSource.wrap(CSV1), true).row(0));
+      assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() -> cursor.field(2));
+      assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() -> cursor.field(-1));
+
+      assertThat(cursor.next()).isTrue();
+      assertThat(cursor.lineNumber()).isEqualTo(3);
+      assertThat(cursor.field(0)).isEqualTo("r21");
+      assertThat(cursor.field(1)).isEqualTo("r22");
+      assertThat(cursor.next()).isFalse();
+      assertThat(cursor.toString()).isEqualTo("CsvCursor[h1, h2]");
+    }
+  }
+
+  @Test
+  public void test_of_comments_blankLines_lineEndings() {
+    try (CsvCursor cursor = CsvCursor.of(new StringReader(CSV2), true, ',')) {
+      assertThat(cursor.headers()).containsExactly("h1", "h2");
+      assertThat(cursor.next()).isTrue();
+      assertThat(cursor.lineNumber()).isEqualTo(7);
+      assertThat(cursor.fieldCount()).isEqualTo(2);
+      assertThat(cursor.field(0)).isEqualTo("r21");
+      assertThat(cursor.field(1)).isEqualTo("");
+      assertThat(cursor.fieldLength(1)).isEqualTo(0);
+      assertThat(cursor.fieldEquals(1, "")).isTrue();
+      assertThat(cursor.next()).isFalse();
+    }
+  }
+
+  @Test
+  public void test_matchesCsvFile() {
+    for (char separator : new char[] {',', ';'}) {
+      CsvFile expected = CsvFile.of(CharSource.wrap(CSV_TRICKY), false, separator);
+      List<CsvRow> actual = new ArrayList<>();
+      try (CsvCursor cursor = CsvCursor.of(CharSource.wrap(CSV_TRICKY), false, separator)) {
+        while (cursor.next()) {
+          actual.add(cursor.row());
+        }
+      }
+      assertThat(actual).isEqualTo(expected.rows());
+      assertThat(actual.get(0).lineNumber()).isEqualTo(expected.row(0).lineNumber());
+    }
+  }
+
+  @Test
+  public void test_largeFile_bufferBoundaries() {
+    StringBuilder buf = new StringBuilder("Key,Value\r\n");
+    for (int i = 0; i < 5000; i++) {
+      buf.append("key").append(i).append(',').append(i).append(".25").append(i % 3 == 0 ? "\r\n" : "\n");
+    }
+    // a long line forces the buffer to expand
+    buf.append("long,").append("1").append(new String(new char[20000]).replace('\0', '0')).append('\r');
+    try (CsvCursor cursor = CsvCursor.of(CharSource.wrap(buf), true)) {
+      int valueIndex = cursor.headerIndex("Value");
+      for (int i = 0; i < 5000; i++) {
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.lineNumber()).isEqualTo(i + 2);
+        assertThat(cursor.field(0)).isEqualTo("key" + i);
+        assertThat(cursor.parseDouble(valueIndex)).isEqualTo(i + 0.25d);
+      }
+      assertThat(cursor.next()).isTrue();
+      assertThat(cursor.fieldLength(valueIndex)).isEqualTo(20001);
+      assertThat(cursor.parseDouble(valueIndex)).isEqualTo(Double.POSITIVE_INFINITY);
+      assertThat(cursor.next()).isFalse();
+    }
+  }
+
+  @Test
+  public void test_paddedToHeaders() {
+    try (CsvCursor cursor = CsvCursor.of(CharSource.wrap("a,b,c\n1"), true)) {
+      assertThat(cursor.next()).isTrue();
+      assertThat(cursor.fieldCount()).isEqualTo(3);
+      assertThat(cursor.field(2)).isEqualTo("");
+      assertThat(cursor.fieldLength(2)).isEqualTo(0);
+      assertThat(cursor.row().fields()).containsExactly("1");
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_parseDouble() {
+    String[] values = {
+        "0", "-0", "0.0", "1", "-1", "+1", "1.", ".5", "-.5", "0.1", "0.065", "1e5", "1.5E-3", "-2.5e+10",
+        "123456789012345", "1234567890123456789", "0.000000000000000000000001", "1e300", "1e-300",
+        "NaN", "-Infinity", "1d", "0x1p3", "4.9e-324", "1.7976931348623157e308"};
+    try (CsvCursor cursor = CsvCursor.of(CharSource.wrap(String.join(",", values)), false)) {
+      assertThat(cursor.next()).isTrue();
+      for (int i = 0; i < values.length; i++) {
+        assertThat(Double.valueOf(cursor.parseDouble(i))).isEqualTo(Double.valueOf(values[i]));
+      }
+    }
+  }
+
+  @Test
+  public void test_parseDouble_matchesJdk() {
+    Random random = new Random(42);
+    List<String> values = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      values.add(Double.toString(random.nextGaussian() * Math.pow(10, random.nextInt(20) - 10)));
+      values.add(String.format(Locale.ENGLISH, "%.6f", random.nextDouble() * 1000));
+    }
+    try (CsvCursor cursor = CsvCursor.of(CharSource.wrap(String.join("\n", values)), false)) {
+      for (String value : values) {
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.parseDouble(0)).isEqualTo(Double.parseDouble(value));
+      }
+    }
+  }
+
+  @Test
+  public void test_parseDouble_invalid() {
+    try (CsvCursor cursor = CsvCursor.of(CharSource.wrap("a,b\n,.,1e,1.2.3,abc"), true)) {
+      assertThat(cursor.next()).isTrue();
+      for (int i = 0; i < 5; i++) {
+        int index = i;
+        assertThatExceptionOfType(NumberFormatException.class).isThrownBy(() -> cursor.parseDouble(index));
+      }
+    }
+  }
+
+  @Test
+  public void test_parseLocalDate() {
+    try (CsvCursor cursor = CsvCursor.of(CharSource.wrap("2020-03-31,2020-02-30,20200331,2020-0A-01"), false)) {
+      assertThat(cursor.next()).isTrue();
+      assertThat(cursor.parseLocalDate(0)).isEqualTo(LocalDate.of(2020, 3, 31));
+      assertThatExceptionOfType(DateTimeException.class).isThrownBy(() -> cursor.parseLocalDate(1));
+      assertThatExceptionOfType(DateTimeException.class).isThrownBy(() -> cursor.parseLocalDate(2));
+      assertThatExceptionOfType(DateTimeException.class).isThrownBy(() -> cursor.parseLocalDate(3));
+      assertThat(cursor.parseLocalDate(0, str -> LocalDate.MIN)).isEqualTo(LocalDate.of(2020, 3, 31));
+      assertThat(cursor.parseLocalDate(2, str -> LocalDate.of(2020, 3, Integer.parseInt(str.substring(6)))))
+          .isEqualTo(LocalDate.of(2020, 3, 31));
+    }
+  }
+
+}
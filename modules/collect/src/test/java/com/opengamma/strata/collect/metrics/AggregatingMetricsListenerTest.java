@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.collect.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.LongSummaryStatistics;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+
+/**
+ * Test {@link AggregatingMetricsListener} and {@link Metrics}.
+ */
+public class AggregatingMetricsListenerTest {
+
+  @Test
+  public void test_aggregation() {
+    AggregatingMetricsListener test = new AggregatingMetricsListener();
+    test.calculationTask("Fn", ImmutableSet.of("PresentValue"), 1, 100, 2_000_000);
+    test.calculationTask("Fn", ImmutableSet.of("PresentValue"), 5, 300, 4_000_000);
+    test.resultDelivered(50);
+    test.marketDataBuilt("id", true, 700);
+    test.curveGroupCalibrated("Group", 2, 6, 9_000);
+
+    ImmutableSortedMap<String, LongSummaryStatistics> stats = test.getStatistics();
+    assertThat(stats.keySet()).containsExactly(
+        "calibration:Group", "calibrationEvaluations:Group", "delivery", "marketData:String", "task:Fn", "taskWait:Fn");
+    assertThat(stats.get("task:Fn").getCount()).isEqualTo(2);
+    assertThat(stats.get("task:Fn").getSum()).isEqualTo(6_000_000);
+    assertThat(stats.get("task:Fn").getMax()).isEqualTo(4_000_000);
+    assertThat(stats.get("taskWait:Fn").getSum()).isEqualTo(400);
+    assertThat(stats.get("calibrationEvaluations:Group").getSum()).isEqualTo(6);
+    assertThat(test.toString()).contains("task:Fn: count=2, totalMs=6.000, maxMs=4.000");
+    assertThat(test.toString()).contains("calibrationEvaluations:Group: count=1, total=6, max=6");
+
+    // snapshot is not affected by later updates
+    test.resultDelivered(10);
+    assertThat(stats.get("delivery").getCount()).isEqualTo(1);
+    test.clear();
+    assertThat(test.getStatistics()).isEmpty();
+  }
+
+  @Test
+  public void test_concurrent() {
+    AggregatingMetricsListener test = new AggregatingMetricsListener();
+    IntStream.range(0, 10_000).parallel().forEach(i -> test.resultDelivered(i));
+    assertThat(test.getStatistics().get("delivery").getCount()).isEqualTo(10_000);
+    assertThat(test.getStatistics().get("delivery").getSum()).isEqualTo(10_000L * 9_999 / 2);
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_registry() {
+    assertThat(Metrics.isEnabled()).isFalse();
+    assertThat(Metrics.isEnabled(Metrics.listener())).isFalse();
+    AggregatingMetricsListener listener = new AggregatingMetricsListener();
+    try {
+      Metrics.register(listener);
+      assertThat(Metrics.isEnabled()).isTrue();
+      assertThat(Metrics.listener()).isSameAs(listener);
+      assertThat(Metrics.isEnabled(listener)).isTrue();
+    } finally {
+      Metrics.unregister();
+    }
+    assertThat(Metrics.isEnabled()).isFalse();
+    assertThatIllegalArgumentException().isThrownBy(() -> Metrics.register(null));
+  }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.collect.timeseries;
+
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.OptionalDouble;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Test {@link LocalDateDoubleTimeSeriesStore} and {@link MappedLocalDateDoubleTimeSeries}.
+ */
+public class LocalDateDoubleTimeSeriesStoreTest {
+
+  private static final LocalDate DATE_2015_01_02 = date(2015, 1, 2);
+  private static final LocalDate DATE_2015_02_05 = date(2015, 2, 5);
+  private static final LocalDate DATE_2015_03_06 = date(2015, 3, 6);
+  private static final LocalDate DATE_2015_04_07 = date(2015, 4, 7);
+  private static final LocalDate DATE_2015_05_08 = date(2015, 5, 8);
+
+  private static final LocalDateDoubleTimeSeries SERIES1 = LocalDateDoubleTimeSeries.builder()
+      .put(DATE_2015_01_02, 1d)
+      .put(DATE_2015_02_05, 2d)
+      .put(DATE_2015_03_06, 3d)
+      .put(DATE_2015_05_08, 5d)
+      .build();  // sparse
+  private static final LocalDateDoubleTimeSeries SERIES2 = LocalDateDoubleTimeSeries.of(DATE_2015_04_07, 0.25d);
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_writeOpen(@TempDir Path tempDir) {
+    Path file = tempDir.resolve("test.bin");
+    Map<String, LocalDateDoubleTimeSeries> map = new LinkedHashMap<>();
+    map.put("A", SERIES1);
+    map.put("B", SERIES2);
+    map.put("Empty", LocalDateDoubleTimeSeries.empty());
+    LocalDateDoubleTimeSeriesStore.write(file, map);
+
+    LocalDateDoubleTimeSeriesStore test = LocalDateDoubleTimeSeriesStore.open(file);
+    assertThat(test.size()).isEqualTo(3);
+    assertThat(test.names()).containsOnly("A", "B", "Empty");
+    assertThat(test.contains("A")).isTrue();
+    assertThat(test.contains("C")).isFalse();
+    assertThat(test.find("C")).isEmpty();
+    assertThat(test.find("Empty")).hasValue(LocalDateDoubleTimeSeries.empty());
+    assertThat(test.find("A").get().toBuilder().build()).isEqualTo(SERIES1);
+    assertThat(test.find("B").get().toBuilder().build()).isEqualTo(SERIES2);
+    assertThat(test.find("A").get()).isEqualTo(test.find("A").get());
+    assertThat(test.find("A").get().hashCode()).isEqualTo(test.find("A").get().hashCode());
+    assertThat(test.find("A").get()).isNotEqualTo(test.find("B").get());
+    assertThat(test.find("A").get()).isNotEqualTo(SERIES1);
+    assertThat(test.segmentCount()).isEqualTo(1);
+    assertThat(test.toString()).contains("size=3");
+  }
+
+  @Test
+  public void test_open_multipleSegments(@TempDir Path tempDir) {
+    Path file = tempDir.resolve("segments.bin");
+    Map<String, LocalDateDoubleTimeSeries> map = new LinkedHashMap<>();
+    for (int i = 0; i < 10; i++) {
+      map.put("S" + i, SERIES1.mapValues(v -> v * 2));
+    }
+    LocalDateDoubleTimeSeriesStore.write(file, map);
+    // each series occupies 48 bytes, so two fit in each segment
+    LocalDateDoubleTimeSeriesStore test = LocalDateDoubleTimeSeriesStore.open(file, 100);
+    assertThat(test.segmentCount()).isEqualTo(5);
+    for (int i = 0; i < 10; i++) {
+      assertThat(test.find("S" + i).get().toBuilder().build()).isEqualTo(SERIES1.mapValues(v -> v * 2));
+    }
+    assertThatIllegalArgumentException().isThrownBy(() -> LocalDateDoubleTimeSeriesStore.open(file, 40));
+  }
+
+  @Test
+  public void test_open_invalid(@TempDir Path tempDir) throws IOException {
+    Path file = tempDir.resolve("invalid.bin");
+    Files.write(file, "Not a time-series store".getBytes(StandardCharsets.UTF_8));
+    assertThatIllegalArgumentException().isThrownBy(() -> LocalDateDoubleTimeSeriesStore.open(file));
+    assertThatExceptionOfType(UncheckedIOException.class)
+        .isThrownBy(() -> LocalDateDoubleTimeSeriesStore.open(tempDir.resolve("missing.bin")));
+  }
+
+  @Test
+  public void test_open_truncated(@TempDir Path tempDir) throws IOException {
+    Path file = tempDir.resolve("truncated.bin");
+    LocalDateDoubleTimeSeriesStore.write(file, ImmutableMap.of("A", SERIES1));
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+    assertThatIllegalArgumentException().isThrownBy(() -> LocalDateDoubleTimeSeriesStore.open(file));
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_mappedSeries_query(@TempDir Path tempDir) {
+    LocalDateDoubleTimeSeries test = mapped(tempDir, SERIES1);
+    assertThat(test.size()).isEqualTo(4);
+    assertThat(test.isEmpty()).isFalse();
+    assertThat(test.containsDate(DATE_2015_02_05)).isTrue();
+    assertThat(test.containsDate(DATE_2015_04_07)).isFalse();
+    assertThat(test.get(DATE_2015_03_06)).isEqualTo(OptionalDouble.of(3d));
+    assertThat(test.get(DATE_2015_04_07)).isEqualTo(OptionalDouble.empty());
+    assertThat(test.getEarliestDate()).isEqualTo(DATE_2015_01_02);
+    assertThat(test.getEarliestValue()).isEqualTo(1d);
+    assertThat(test.getLatestDate()).isEqualTo(DATE_2015_05_08);
+    assertThat(test.getLatestValue()).isEqualTo(5d);
+    assertThat(test.dates()).containsExactlyElementsOf(SERIES1.dates()::iterator);
+    assertThat(test.values().toArray()).containsExactly(SERIES1.values().toArray());
+    assertThat(test.stream()).containsExactlyElementsOf(SERIES1.stream()::iterator);
+    assertThat(test.toString()).isEqualTo(SERIES1.toString());
+  }
+
+  @Test
+  public void test_mappedSeries_subSeries(@TempDir Path tempDir) {
+    LocalDateDoubleTimeSeries test = mapped(tempDir, SERIES1);
+    assertThat(test.subSeries(DATE_2015_02_05, DATE_2015_05_08).toBuilder().build())
+        .isEqualTo(SERIES1.subSeries(DATE_2015_02_05, DATE_2015_05_08));
+    assertThat(test.subSeries(DATE_2015_04_07, DATE_2015_04_07)).isEqualTo(LocalDateDoubleTimeSeries.empty());
+    assertThat(test.subSeries(LocalDate.MIN, LocalDate.MAX)).isSameAs(test);
+    assertThatIllegalArgumentException().isThrownBy(() -> test.subSeries(DATE_2015_05_08, DATE_2015_02_05));
+    assertThat(test.headSeries(2).toBuilder().build()).isEqualTo(SERIES1.headSeries(2));
+    assertThat(test.headSeries(0)).isEqualTo(LocalDateDoubleTimeSeries.empty());
+    assertThat(test.headSeries(10)).isSameAs(test);
+    assertThat(test.tailSeries(3).toBuilder().build()).isEqualTo(SERIES1.tailSeries(3));
+    assertThat(test.tailSeries(3).getEarliestValue()).isEqualTo(2d);
+    assertThat(test.tailSeries(0)).isEqualTo(LocalDateDoubleTimeSeries.empty());
+    assertThat(test.tailSeries(10)).isSameAs(test);
+    assertThatIllegalArgumentException().isThrownBy(() -> test.headSeries(-1));
+  }
+
+  @Test
+  public void test_mappedSeries_transform(@TempDir Path tempDir) {
+    LocalDateDoubleTimeSeries test = mapped(tempDir, SERIES1);
+    assertThat(test.mapValues(v -> v * 2)).isEqualTo(SERIES1.mapValues(v -> v * 2));
+    assertThat(test.mapDates(d -> d.plusYears(1))).isEqualTo(SERIES1.mapDates(d -> d.plusYears(1)));
+    assertThat(test.filter((d, v) -> v > 2)).isEqualTo(SERIES1.filter((d, v) -> v > 2));
+    LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+    test.forEach(builder::put);
+    assertThat(builder.build()).isEqualTo(SERIES1);
+  }
+
+  @Test
+  public void test_mappedSeries_latest_empty() {
+    LocalDateDoubleTimeSeries test = MappedLocalDateDoubleTimeSeries.of(ByteBuffer.allocate(0), 0, 0, 0);
+    assertThat(test.isEmpty()).isTrue();
+    assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(() -> test.getLatestDate());
+    assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(() -> test.getLatestValue());
+  }
+
+  @Test
+  public void test_mappedSeries_serialization(@TempDir Path tempDir) throws Exception {
+    LocalDateDoubleTimeSeries test = mapped(tempDir, SERIES1);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(baos)) {
+      out.writeObject(test);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      assertThat(in.readObject()).isEqualTo(SERIES1);
+    }
+  }
+
+  // writes and reads the series
+  private LocalDateDoubleTimeSeries mapped(Path tempDir, LocalDateDoubleTimeSeries series) {
+    Path file = tempDir.resolve("mapped.bin");
+    LocalDateDoubleTimeSeriesStore.write(file, ImmutableMap.of("A", series));
+    LocalDateDoubleTimeSeries mapped = LocalDateDoubleTimeSeriesStore.open(file).find("A").get();
+    assertThat(mapped).isInstanceOf(MappedLocalDateDoubleTimeSeries.class);
+    return mapped;
+  }
+
+}
@@ -15,6 +15,7 @@ import org.joda.beans.gen.BeanDefinition;
 import org.joda.beans.impl.light.LightMetaBean;
 
 import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.collect.ArgChecker;
 
 /**
  * A scenario perturbation that returns its input unchanged and has a scenario count of one.
@@ -46,6 +47,15 @@ final class NoOpScenarioPerturbation<T>
     return (Class<T>) Object.class;
   }
 
+  @Override
+  public ScenarioPerturbation<T> subset(int fromIndexInclusive, int toIndexExclusive) {
+    ArgChecker.notNegative(fromIndexInclusive, "fromIndexInclusive");
+    ArgChecker.isTrue(
+        toIndexExclusive > fromIndexInclusive, "toIndexExclusive must be greater than {}", fromIndexInclusive);
+    // The input is returned unchanged for every scenario
+    return this;
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   /**
    * The meta-bean for {@code NoOpScenarioPerturbation}.
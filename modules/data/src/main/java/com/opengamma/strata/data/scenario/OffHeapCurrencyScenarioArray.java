@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.data.scenario;
+
+import java.io.Serializable;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.Stream;
+
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * A currency-convertible scenario array for a single currency, holding one amount for each scenario off-heap.
+ * <p>
+ * This is an alternative to {@link CurrencyScenarioArray} for large numbers of scenarios.
+ * The amounts are held in a direct buffer outside the Java heap, see {@link OffHeapDoubleScenarioArray}.
+ * The calculation runner is able to convert the currency of the values if required.
+ * <p>
+ * When serialized, the amounts are copied into a {@link CurrencyScenarioArray}.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class OffHeapCurrencyScenarioArray
+    implements ScenarioArray<CurrencyAmount>, ScenarioFxConvertible<OffHeapCurrencyScenarioArray>, Serializable {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The currency.
+   */
+  private final transient Currency currency;
+  /**
+   * The values, one per scenario.
+   */
+  private final transient OffHeapDoubleScenarioArray values;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from the specified currency and off-heap values.
+   *
+   * @param currency  the currency of the values
+   * @param values  the values, one for each scenario
+   * @return an instance with the specified currency and values
+   */
+  public static OffHeapCurrencyScenarioArray of(Currency currency, OffHeapDoubleScenarioArray values) {
+    ArgChecker.notNull(currency, "currency");
+    ArgChecker.notNull(values, "values");
+    return new OffHeapCurrencyScenarioArray(currency, values);
+  }
+
+  /**
+   * Obtains an instance from the specified currency and array of values.
+   *
+   * @param currency  the currency of the values
+   * @param values  the values, one for each scenario
+   * @return an instance with the specified currency and values
+   */
+  public static OffHeapCurrencyScenarioArray of(Currency currency, DoubleArray values) {
+    return of(currency, OffHeapDoubleScenarioArray.of(values));
+  }
+
+  /**
+   * Obtains an instance from a heap-based scenario array.
+   *
+   * @param array  the scenario array
+   * @return an instance with the same currency and values
+   */
+  public static OffHeapCurrencyScenarioArray of(CurrencyScenarioArray array) {
+    ArgChecker.notNull(array, "array");
+    return of(array.getCurrency(), array.getAmounts().getValues());
+  }
+
+  /**
+   * Obtains an instance using a function to create the entries.
+   * <p>
+   * The function is passed the scenario index and returns the value for that index.
+   *
+   * @param currency  the currency of the values
+   * @param size  the number of elements
+   * @param valueFunction  the function used to obtain each value
+   * @return an instance initialized using the function
+   * @throws IllegalArgumentException is size is zero or less
+   */
+  public static OffHeapCurrencyScenarioArray of(Currency currency, int size, IntToDoubleFunction valueFunction) {
+    return of(currency, OffHeapDoubleScenarioArray.of(size, valueFunction));
+  }
+
+  // restricted constructor
+  private OffHeapCurrencyScenarioArray(Currency currency, OffHeapDoubleScenarioArray values) {
+    this.currency = currency;
+    this.values = values;
+  }
+
+  // serialize as a heap-based array
+  private Object writeReplace() {
+    return toCurrencyScenarioArray();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the currency.
+   *
+   * @return the currency
+   */
+  public Currency getCurrency() {
+    return currency;
+  }
+
+  /**
+   * Gets the values, one per scenario.
+   *
+   * @return the values
+   */
+  public OffHeapDoubleScenarioArray getValues() {
+    return values;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public int getScenarioCount() {
+    return values.getScenarioCount();
+  }
+
+  @Override
+  public CurrencyAmount get(int scenarioIndex) {
+    return CurrencyAmount.of(currency, values.getDouble(scenarioIndex));
+  }
+
+  @Override
+  public Stream<CurrencyAmount> stream() {
+    return values.doubleStream().mapToObj(value -> CurrencyAmount.of(currency, value));
+  }
+
+  @Override
+  public OffHeapCurrencyScenarioArray convertedTo(Currency reportingCurrency, ScenarioFxRateProvider fxRateProvider) {
+    if (currency.equals(reportingCurrency)) {
+      return this;
+    }
+    int size = values.getScenarioCount();
+    if (fxRateProvider.getScenarioCount() != size) {
+      throw new IllegalArgumentException(Messages.format(
+          "Expected {} FX rates but received {}", size, fxRateProvider.getScenarioCount()));
+    }
+    return of(
+        reportingCurrency,
+        size,
+        i -> values.getDouble(i) * fxRateProvider.fxRate(currency, reportingCurrency, i));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the sum of the amounts across all scenarios.
+   *
+   * @return the sum
+   */
+  public CurrencyAmount sum() {
+    return CurrencyAmount.of(currency, values.sum());
+  }
+
+  /**
+   * Calculates the quantile of the amounts across all scenarios.
+   * <p>
+   * See {@link OffHeapDoubleScenarioArray#quantile(double)}.
+   *
+   * @param level  the quantile level, between 0 and 1 exclusive
+   * @return the quantile
+   * @throws IllegalArgumentException if the level is invalid
+   */
+  public CurrencyAmount quantile(double level) {
+    return CurrencyAmount.of(currency, values.quantile(level));
+  }
+
+  /**
+   * Calculates the expected shortfall of the amounts across all scenarios.
+   * <p>
+   * See {@link OffHeapDoubleScenarioArray#expectedShortfall(double)}.
+   *
+   * @param level  the quantile level, between 0 and 1 exclusive
+   * @return the expected shortfall
+   * @throws IllegalArgumentException if the level is invalid
+   */
+  public CurrencyAmount expectedShortfall(double level) {
+    return CurrencyAmount.of(currency, values.expectedShortfall(level));
+  }
+
+  /**
+   * Copies the amounts onto the heap as a standard scenario array.
+   *
+   * @return the scenario array
+   */
+  public CurrencyScenarioArray toCurrencyScenarioArray() {
+    return CurrencyScenarioArray.of(currency, values.toDoubleArray());
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj instanceof OffHeapCurrencyScenarioArray) {
+      OffHeapCurrencyScenarioArray other = (OffHeapCurrencyScenarioArray) obj;
+      return currency.equals(other.currency) && values.equals(other.values);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return currency.hashCode() * 31 + values.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "OffHeapCurrencyScenarioArray[currency=" + currency + ", scenarioCount=" + getScenarioCount() + "]";
+  }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.data.scenario;
+
+import java.io.Serializable;
+import java.nio.DoubleBuffer;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * A scenario array holding one {@code double} value for each scenario, stored off-heap.
+ * <p>
+ * This is an alternative to {@link DoubleScenarioArray} for large numbers of scenarios.
+ * The values are held in a direct buffer outside the Java heap, thus a large result set
+ * does not count towards the heap size or add to garbage collection pauses.
+ * The memory is released when the instance is garbage collected.
+ * <p>
+ * The array provides reductions across the scenarios, such as {@link #quantile(double)},
+ * which avoid copying the values onto the heap other than temporarily where sorting is needed.
+ * Use {@link OffHeapScenarioAccumulator} to aggregate the values of many trades
+ * without creating an array per trade.
+ * <p>
+ * When serialized, the values are copied into a {@link DoubleScenarioArray}.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class OffHeapDoubleScenarioArray
+    implements ScenarioArray<Double>, Serializable {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The values, one per scenario, not altered once created.
+   */
+  private final transient DoubleBuffer values;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from the specified array of values.
+   *
+   * @param values  the values, one value for each scenario
+   * @return an instance with the specified values
+   */
+  public static OffHeapDoubleScenarioArray of(DoubleArray values) {
+    ArgChecker.notNull(values, "values");
+    DoubleBuffer buffer = ScenarioStatistics.allocate(values.size());
+    buffer.put(values.toArrayUnsafe()).rewind();
+    return new OffHeapDoubleScenarioArray(buffer);
+  }
+
+  /**
+   * Obtains an instance from a heap-based scenario array.
+   *
+   * @param array  the scenario array
+   * @return an instance with the same values
+   */
+  public static OffHeapDoubleScenarioArray of(DoubleScenarioArray array) {
+    ArgChecker.notNull(array, "array");
+    return of(array.getValues());
+  }
+
+  /**
+   * Obtains an instance using a function to create the entries.
+   * <p>
+   * The function is passed the scenario index and returns the value for that index.
+   *
+   * @param size  the number of elements
+   * @param valueFunction  the function used to obtain each value
+   * @return an instance initialized using the function
+   * @throws IllegalArgumentException is size is zero or less
+   */
+  public static OffHeapDoubleScenarioArray of(int size, IntToDoubleFunction valueFunction) {
+    ArgChecker.notNegativeOrZero(size, "size");
+    ArgChecker.notNull(valueFunction, "valueFunction");
+    DoubleBuffer buffer = ScenarioStatistics.allocate(size);
+    for (int i = 0; i < size; i++) {
+      buffer.put(i, valueFunction.applyAsDouble(i));
+    }
+    return new OffHeapDoubleScenarioArray(buffer);
+  }
+
+  /**
+   * Obtains an instance from a buffer, which must not be altered after this call.
+   *
+   * @param values  the values
+   * @return an instance with the specified values
+   */
+  static OffHeapDoubleScenarioArray ofUnsafe(DoubleBuffer values) {
+    return new OffHeapDoubleScenarioArray(values);
+  }
+
+  // restricted constructor
+  private OffHeapDoubleScenarioArray(DoubleBuffer values) {
+    this.values = values;
+  }
+
+  // serialize as a heap-based array
+  private Object writeReplace() {
+    return toDoubleScenarioArray();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public int getScenarioCount() {
+    return values.limit();
+  }
+
+  @Override
+  public Double get(int scenarioIndex) {
+    return getDouble(scenarioIndex);
+  }
+
+  /**
+   * Gets the value at the specified scenario index, without boxing.
+   *
+   * @param scenarioIndex  the zero-based index of the scenario
+   * @return the value at the specified index
+   * @throws IndexOutOfBoundsException if the index is invalid
+   */
+  public double getDouble(int scenarioIndex) {
+    return values.get(scenarioIndex);
+  }
+
+  @Override
+  public Stream<Double> stream() {
+    return doubleStream().boxed();
+  }
+
+  /**
+   * Returns a stream of the values, without boxing.
+   *
+   * @return a stream of the values
+   */
+  public DoubleStream doubleStream() {
+    return IntStream.range(0, values.limit()).mapToDouble(values::get);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the sum of the values across all scenarios.
+   *
+   * @return the sum
+   */
+  public double sum() {
+    return ScenarioStatistics.sum(values);
+  }
+
+  /**
+   * Calculates the quantile of the values across all scenarios.
+   * <p>
+   * The level is the size of the lower tail, such that 0.01 selects the value
+   * below which 1% of the scenarios lie, using the 'index above' convention.
+   * The index is rounded with a small tolerance, such that a level derived by subtraction,
+   * such as {@code 1 - 0.95}, selects the same value as the exact level.
+   *
+   * @param level  the quantile level, between 0 and 1 exclusive
+   * @return the quantile
+   * @throws IllegalArgumentException if the level is invalid
+   */
+  public double quantile(double level) {
+    return ScenarioStatistics.quantile(values, level);
+  }
+
+  /**
+   * Calculates the expected shortfall of the values across all scenarios.
+   * <p>
+   * This is the mean of the values in the lower tail of the specified size,
+   * consistent with {@link #quantile(double)}.
+   *
+   * @param level  the quantile level, between 0 and 1 exclusive
+   * @return the expected shortfall
+   * @throws IllegalArgumentException if the level is invalid
+   */
+  public double expectedShortfall(double level) {
+    return ScenarioStatistics.expectedShortfall(values, level);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Copies the values onto the heap.
+   *
+   * @return the values
+   */
+  public DoubleArray toDoubleArray() {
+    double[] array = new double[values.limit()];
+    values.duplicate().get(array, 0, array.length);
+    return DoubleArray.ofUnsafe(array);
+  }
+
+  /**
+   * Copies the values onto the heap as a standard scenario array.
+   *
+   * @return the scenario array
+   */
+  public DoubleScenarioArray toDoubleScenarioArray() {
+    return DoubleScenarioArray.of(toDoubleArray());
+  }
+
+  // a read-only view of the values
+  DoubleBuffer buffer() {
+    return values.asReadOnlyBuffer();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj instanceof OffHeapDoubleScenarioArray) {
+      OffHeapDoubleScenarioArray other = (OffHeapDoubleScenarioArray) obj;
+      return values.equals(other.values);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return values.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "OffHeapDoubleScenarioArray[scenarioCount=" + values.limit() + "]";
+  }
+
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.data.scenario;
+
+import java.nio.DoubleBuffer;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Accumulates scenario values across many trades, storing the running total off-heap.
+ * <p>
+ * This allows the scenario values of a large portfolio to be aggregated as they are calculated,
+ * without retaining an array per trade. Once all the values have been added, the total is
+ * available as a scenario array, and the sum, quantile and expected shortfall across scenarios
+ * can be calculated directly.
+ * <p>
+ * An accumulator is either for plain {@code double} values, or for amounts in a reporting currency.
+ * When accumulating amounts, the amounts of other currencies are converted using the FX rates of
+ * each scenario, which must be provided unless all amounts are in the reporting currency.
+ * No intermediate converted array is created.
+ * <p>
+ * The supported scenario arrays are {@link DoubleScenarioArray}, {@link OffHeapDoubleScenarioArray},
+ * {@link CurrencyScenarioArray}, {@link OffHeapCurrencyScenarioArray} and {@link MultiCurrencyScenarioArray}.
+ * Other scenario arrays whose elements are {@code Double}, {@code CurrencyAmount} or {@code MultiCurrencyAmount}
+ * are also supported, with the values being read one by one.
+ * <p>
+ * This class is mutable and thread-safe, with all operations synchronized.
+ */
+public final class OffHeapScenarioAccumulator {
+
+  /**
+   * The reporting currency, null if accumulating plain values.
+   */
+  private final Currency currency;
+  /**
+   * The FX rates, null if not available.
+   */
+  private final ScenarioFxRateProvider fxRateProvider;
+  /**
+   * The running total, one value per scenario.
+   */
+  private final DoubleBuffer total;
+  /**
+   * The values of the array being added, only added to the total once the whole array is valid.
+   */
+  private final DoubleBuffer pending;
+  /**
+   * The number of arrays added.
+   */
+  private long count;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates an accumulator for plain {@code double} values.
+   *
+   * @param scenarioCount  the number of scenarios
+   * @return the accumulator
+   */
+  public static OffHeapScenarioAccumulator of(int scenarioCount) {
+    ArgChecker.notNegativeOrZero(scenarioCount, "scenarioCount");
+    return new OffHeapScenarioAccumulator(null, null, scenarioCount);
+  }
+
+  /**
+   * Creates an accumulator for amounts, where all amounts are in the reporting currency.
+   *
+   * @param reportingCurrency  the reporting currency
+   * @param scenarioCount  the number of scenarios
+   * @return the accumulator
+   */
+  public static OffHeapScenarioAccumulator of(Currency reportingCurrency, int scenarioCount) {
+    ArgChecker.notNull(reportingCurrency, "reportingCurrency");
+    ArgChecker.notNegativeOrZero(scenarioCount, "scenarioCount");
+    return new OffHeapScenarioAccumulator(reportingCurrency, null, scenarioCount);
+  }
+
+  /**
+   * Creates an accumulator for amounts, converting to the reporting currency using the FX rates.
+   *
+   * @param reportingCurrency  the reporting currency
+   * @param fxRateProvider  the FX rates, one set per scenario
+   * @return the accumulator
+   */
+  public static OffHeapScenarioAccumulator of(Currency reportingCurrency, ScenarioFxRateProvider fxRateProvider) {
+    ArgChecker.notNull(reportingCurrency, "reportingCurrency");
+    ArgChecker.notNull(fxRateProvider, "fxRateProvider");
+    ArgChecker.notNegativeOrZero(fxRateProvider.getScenarioCount(), "scenarioCount");
+    return new OffHeapScenarioAccumulator(reportingCurrency, fxRateProvider, fxRateProvider.getScenarioCount());
+  }
+
+  // restricted constructor
+  private OffHeapScenarioAccumulator(Currency currency, ScenarioFxRateProvider fxRateProvider, int scenarioCount) {
+    this.currency = currency;
+    this.fxRateProvider = fxRateProvider;
+    this.total = ScenarioStatistics.allocate(scenarioCount);
+    this.pending = ScenarioStatistics.allocate(scenarioCount);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the reporting currency, empty if accumulating plain values.
+   *
+   * @return the reporting currency
+   */
+  public Optional<Currency> getCurrency() {
+    return Optional.ofNullable(currency);
+  }
+
+  /**
+   * Gets the number of scenarios.
+   *
+   * @return the number of scenarios
+   */
+  public int getScenarioCount() {
+    return total.limit();
+  }
+
+  /**
+   * Gets the number of scenario arrays that have been added.
+   *
+   * @return the number of arrays added
+   */
+  public synchronized long getCount() {
+    return count;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Adds a scenario array to the total.
+   * <p>
+   * The add is atomic. If an exception is thrown, the total is unchanged.
+   *
+   * @param array  the scenario array
+   * @return this accumulator, for chaining
+   * @throws IllegalArgumentException if the array has the wrong number of scenarios,
+   *  or its values are not compatible with the accumulator
+   */
+  public synchronized OffHeapScenarioAccumulator add(ScenarioArray<?> array) {
+    ArgChecker.notNull(array, "array");
+    if (array.getScenarioCount() != total.limit()) {
+      throw new IllegalArgumentException(Messages.format(
+          "Expected {} scenarios but received {}", total.limit(), array.getScenarioCount()));
+    }
+    // the values are summed into the pending buffer, which is only added to the total once all are valid
+    for (int i = 0; i < pending.limit(); i++) {
+      pending.put(i, 0d);
+    }
+    if (array instanceof DoubleScenarioArray) {
+      addValues(((DoubleScenarioArray) array).getValues());
+    } else if (array instanceof OffHeapDoubleScenarioArray) {
+      addValues(((OffHeapDoubleScenarioArray) array).buffer());
+    } else if (array instanceof CurrencyScenarioArray) {
+      CurrencyScenarioArray amounts = (CurrencyScenarioArray) array;
+      addAmounts(amounts.getCurrency(), amounts.getAmounts().getValues());
+    } else if (array instanceof OffHeapCurrencyScenarioArray) {
+      OffHeapCurrencyScenarioArray amounts = (OffHeapCurrencyScenarioArray) array;
+      addAmounts(amounts.getCurrency(), amounts.getValues().buffer());
+    } else if (array instanceof MultiCurrencyScenarioArray) {
+      MultiCurrencyScenarioArray amounts = (MultiCurrencyScenarioArray) array;
+      for (Entry<Currency, DoubleArray> entry : amounts.getAmounts().getValues().entrySet()) {
+        addAmounts(entry.getKey(), entry.getValue());
+      }
+    } else {
+      for (int i = 0; i < total.limit(); i++) {
+        addValue(i, array.get(i));
+      }
+    }
+    for (int i = 0; i < total.limit(); i++) {
+      total.put(i, total.get(i) + pending.get(i));
+    }
+    count++;
+    return this;
+  }
+
+  // adds plain values to the pending values
+  private void addValues(DoubleArray values) {
+    checkPlain();
+    for (int i = 0; i < pending.limit(); i++) {
+      pending.put(i, pending.get(i) + values.get(i));
+    }
+  }
+
+  // adds plain values to the pending values
+  private void addValues(DoubleBuffer values) {
+    checkPlain();
+    for (int i = 0; i < pending.limit(); i++) {
+      pending.put(i, pending.get(i) + values.get(i));
+    }
+  }
+
+  // adds amounts in a single currency to the pending values
+  private void addAmounts(Currency amountCurrency, DoubleArray values) {
+    checkConvertible(amountCurrency);
+    if (amountCurrency.equals(currency)) {
+      for (int i = 0; i < pending.limit(); i++) {
+        pending.put(i, pending.get(i) + values.get(i));
+      }
+    } else {
+      for (int i = 0; i < pending.limit(); i++) {
+        pending.put(i, pending.get(i) + values.get(i) * fxRateProvider.fxRate(amountCurrency, currency, i));
+      }
+    }
+  }
+
+  // adds amounts in a single currency to the pending values
+  private void addAmounts(Currency amountCurrency, DoubleBuffer values) {
+    checkConvertible(amountCurrency);
+    if (amountCurrency.equals(currency)) {
+      for (int i = 0; i < pending.limit(); i++) {
+        pending.put(i, pending.get(i) + values.get(i));
+      }
+    } else {
+      for (int i = 0; i < pending.limit(); i++) {
+        pending.put(i, pending.get(i) + values.get(i) * fxRateProvider.fxRate(amountCurrency, currency, i));
+      }
+    }
+  }
+
+  // adds a single value of unknown type to the pending values
+  private void addValue(int scenarioIndex, Object value) {
+    if (value instanceof Double) {
+      checkPlain();
+      pending.put(scenarioIndex, pending.get(scenarioIndex) + (Double) value);
+    } else if (value instanceof CurrencyAmount) {
+      addAmount(scenarioIndex, (CurrencyAmount) value);
+    } else if (value instanceof MultiCurrencyAmount) {
+      for (CurrencyAmount amount : ((MultiCurrencyAmount) value).getAmounts()) {
+        addAmount(scenarioIndex, amount);
+      }
+    } else {
+      throw new IllegalArgumentException(Messages.format(
+          "Unable to accumulate scenario value of type {}", value == null ? "null" : value.getClass().getName()));
+    }
+  }
+
+  // adds a single amount to the pending values
+  private void addAmount(int scenarioIndex, CurrencyAmount amount) {
+    checkConvertible(amount.getCurrency());
+    double converted = amount.getCurrency().equals(currency) ?
+        amount.getAmount() :
+        amount.getAmount() * fxRateProvider.fxRate(amount.getCurrency(), currency, scenarioIndex);
+    pending.put(scenarioIndex, pending.get(scenarioIndex) + converted);
+  }
+
+  // checks that plain values can be added
+  private void checkPlain() {
+    if (currency != null) {
+      throw new IllegalArgumentException(Messages.format(
+          "Unable to accumulate plain values when accumulating amounts in {}", currency));
+    }
+  }
+
+  // checks that amounts in the currency can be added
+  private void checkConvertible(Currency amountCurrency) {
+    if (currency == null) {
+      throw new IllegalArgumentException(Messages.format(
+          "Unable to accumulate amounts in {} when accumulating plain values", amountCurrency));
+    }
+    if (!amountCurrency.equals(currency) && fxRateProvider == null) {
+      throw new IllegalArgumentException(Messages.format(
+          "Unable to convert amounts in {} to {} as no FX rates were provided", amountCurrency, currency));
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the sum of the total across all scenarios.
+   *
+   * @return the sum
+   */
+  public synchronized double sum() {
+    return ScenarioStatistics.sum(total);
+  }
+
+  /**
+   * Calculates the quantile of the total across all scenarios.
+   * <p>
+   * See {@link OffHeapDoubleScenarioArray#quantile(double)}.
+   *
+   * @param level  the quantile level, between 0 and 1 exclusive
+   * @return the quantile
+   * @throws IllegalArgumentException if the level is invalid
+   */
+  public synchronized double quantile(double level) {
+    return ScenarioStatistics.quantile(total, level);
+  }
+
+  /**
+   * Calculates the expected shortfall of the total across all scenarios.
+   * <p>
+   * See {@link OffHeapDoubleScenarioArray#expectedShortfall(double)}.
+   *
+   * @param level  the quantile level, between 0 and 1 exclusive
+   * @return the expected shortfall
+   * @throws IllegalArgumentException if the level is invalid
+   */
+  public synchronized double expectedShortfall(double level) {
+    return ScenarioStatistics.expectedShortfall(total, level);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns a copy of the total as an off-heap scenario array.
+   *
+   * @return the total
+   */
+  public synchronized OffHeapDoubleScenarioArray toDoubleScenarioArray() {
+    DoubleBuffer copy = ScenarioStatistics.allocate(total.limit());
+    copy.put(total.duplicate()).rewind();
+    return OffHeapDoubleScenarioArray.ofUnsafe(copy);
+  }
+
+  /**
+   * Returns a copy of the total as an off-heap scenario array of amounts in the reporting currency.
+   *
+   * @return the total
+   * @throws IllegalStateException if accumulating plain values
+   */
+  public OffHeapCurrencyScenarioArray toCurrencyScenarioArray() {
+    if (currency == null) {
+      throw new IllegalStateException("Accumulator does not have a reporting currency");
+    }
+    return OffHeapCurrencyScenarioArray.of(currency, toDoubleScenarioArray());
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "OffHeapScenarioAccumulator[" + (currency != null ? "currency=" + currency + ", " : "") +
+        "scenarioCount=" + total.limit() + "]";
+  }
+
+}
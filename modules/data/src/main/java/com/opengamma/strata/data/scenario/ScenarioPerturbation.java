@@ -6,6 +6,7 @@
 package com.opengamma.strata.data.scenario;
 
 import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.collect.ArgChecker;
 
 /**
  * A perturbation that can be applied to a market data box to create market data
@@ -63,4 +64,28 @@ public interface ScenarioPerturbation<T> {
    */
   public abstract Class<T> getMarketDataType();
 
+  //-------------------------------------------------------------------------
+  /**
+   * Returns a perturbation that generates data for a contiguous range of the scenarios of this perturbation.
+   * <p>
+   * This allows scenario market data to be generated in bounded chunks rather than all at once.
+   * Scenario {@code i} of the returned perturbation is scenario {@code fromIndexInclusive + i} of this perturbation.
+   * <p>
+   * The default implementation applies this perturbation to all scenarios and then selects the range.
+   * Implementations that hold per-scenario data should override this to generate only the selected scenarios.
+   *
+   * @param fromIndexInclusive  the index of the first scenario, inclusive
+   * @param toIndexExclusive  the index of the last scenario, exclusive
+   * @return a perturbation that generates data for the specified range of scenarios
+   * @throws IllegalArgumentException if the range is invalid
+   */
+  public default ScenarioPerturbation<T> subset(int fromIndexInclusive, int toIndexExclusive) {
+    ArgChecker.inRange(fromIndexInclusive, 0, getScenarioCount(), "fromIndexInclusive");
+    ArgChecker.inRangeInclusive(toIndexExclusive, fromIndexInclusive + 1, getScenarioCount(), "toIndexExclusive");
+    if (fromIndexInclusive == 0 && toIndexExclusive == getScenarioCount()) {
+      return this;
+    }
+    return SubsetScenarioPerturbation.of(this, fromIndexInclusive, toIndexExclusive);
+  }
+
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.data.scenario;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Reductions over a buffer of scenario values.
+ * <p>
+ * The quantile and expected shortfall match the 'index above' method of strata-math,
+ * {@code IndexAboveQuantileMethod}, where the level is the size of the lower tail.
+ * For example, with 1,000 scenarios of profit and loss, the 1% quantile is the tenth worst value
+ * and the 1% expected shortfall is the mean of the ten worst values.
+ */
+final class ScenarioStatistics {
+
+  /**
+   * The tolerance used when rounding the quantile index.
+   */
+  private static final double INDEX_TOLERANCE = 1e-9;
+
+  /**
+   * Restricted constructor.
+   */
+  private ScenarioStatistics() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Allocates a zeroed off-heap buffer.
+   *
+   * @param size  the number of values
+   * @return the buffer
+   */
+  static DoubleBuffer allocate(int size) {
+    ArgChecker.notNegative(size, "size");
+    ArgChecker.isTrue(size <= Integer.MAX_VALUE / Double.BYTES, "Scenario count too large for off-heap buffer: {}", size);
+    return ByteBuffer.allocateDirect(size * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+  }
+
+  /**
+   * Sums the values in the buffer.
+   *
+   * @param buffer  the buffer
+   * @return the sum
+   */
+  static double sum(DoubleBuffer buffer) {
+    double total = 0d;
+    for (int i = 0; i < buffer.limit(); i++) {
+      total += buffer.get(i);
+    }
+    return total;
+  }
+
+  /**
+   * Calculates the quantile of the values in the buffer.
+   *
+   * @param buffer  the buffer
+   * @param level  the quantile level, between 0 and 1 exclusive
+   * @return the quantile
+   */
+  static double quantile(DoubleBuffer buffer, double level) {
+    double[] sorted = sorted(buffer, level);
+    return sorted[index(level, sorted.length) - 1];
+  }
+
+  /**
+   * Calculates the expected shortfall of the values in the buffer.
+   * <p>
+   * This is the mean of the values in the lower tail, weighting the last value by the fraction
+   * of it that falls within the tail.
+   *
+   * @param buffer  the buffer
+   * @param level  the quantile level, between 0 and 1 exclusive
+   * @return the expected shortfall
+   */
+  static double expectedShortfall(DoubleBuffer buffer, double level) {
+    double[] sorted = sorted(buffer, level);
+    int size = sorted.length;
+    double fractionalIndex = level * size;
+    int index = index(level, size);
+    double total = 0d;
+    for (int i = 0; i < index - 1; i++) {
+      total += sorted[i];
+    }
+    total += sorted[index - 1] * (fractionalIndex - index + 1);
+    return total / fractionalIndex;
+  }
+
+  // copies the values to the heap and sorts them
+  private static double[] sorted(DoubleBuffer buffer, double level) {
+    ArgChecker.inRangeExclusive(level, 0d, 1d, "level");
+    ArgChecker.isTrue(buffer.limit() > 0, "Quantile requires at least one scenario");
+    double[] values = new double[buffer.limit()];
+    buffer.duplicate().get(values, 0, values.length);
+    Arrays.sort(values);
+    return values;
+  }
+
+  // the one-based index of the quantile, bounded by the size
+  // a small tolerance avoids rounding up when the level is derived, such as 1 - 0.95
+  private static int index(double level, int size) {
+    return Math.min(Math.max((int) Math.ceil(level * size - INDEX_TOLERANCE), 1), size);
+  }
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.data.scenario;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.joda.beans.ImmutableBean;
+import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.MetaBean;
+import org.joda.beans.TypedMetaBean;
+import org.joda.beans.gen.BeanDefinition;
+import org.joda.beans.gen.ImmutableValidator;
+import org.joda.beans.gen.PropertyDefinition;
+import org.joda.beans.impl.light.LightMetaBean;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * A scenario perturbation that generates data for a contiguous range of the scenarios of another perturbation.
+ * <p>
+ * This is the fallback used by {@link ScenarioPerturbation#subset(int, int)}.
+ * The underlying perturbation is applied in full and the requested range is then selected.
+ * 
+ * @param <T>  the type of the market data handled by the perturbation
+ */
+@BeanDefinition(style = "light")
+final class SubsetScenarioPerturbation<T>
+    implements ScenarioPerturbation<T>, ImmutableBean, Serializable {
+
+  /**
+   * The underlying perturbation.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final ScenarioPerturbation<T> underlying;
+  /**
+   * The index of the first scenario of the underlying perturbation, inclusive.
+   */
+  @PropertyDefinition
+  private final int fromIndex;
+  /**
+   * The index of the last scenario of the underlying perturbation, exclusive.
+   */
+  @PropertyDefinition
+  private final int toIndex;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   * 
+   * @param <T>  the type of the market data handled by the perturbation
+   * @param underlying  the underlying perturbation
+   * @param fromIndexInclusive  the index of the first scenario, inclusive
+   * @param toIndexExclusive  the index of the last scenario, exclusive
+   * @return the perturbation
+   */
+  static <T> SubsetScenarioPerturbation<T> of(
+      ScenarioPerturbation<T> underlying,
+      int fromIndexInclusive,
+      int toIndexExclusive) {
+
+    return new SubsetScenarioPerturbation<>(underlying, fromIndexInclusive, toIndexExclusive);
+  }
+
+  @ImmutableValidator
+  private void validate() {
+    ArgChecker.inRange(fromIndex, 0, underlying.getScenarioCount(), "fromIndex");
+    ArgChecker.inRangeInclusive(toIndex, fromIndex + 1, underlying.getScenarioCount(), "toIndex");
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public MarketDataBox<T> applyTo(MarketDataBox<T> marketData, ReferenceData refData) {
+    MarketDataBox<T> perturbed = underlying.applyTo(marketData, refData);
+    if (perturbed.isSingleValue()) {
+      return perturbed;
+    }
+    List<T> values = IntStream.range(fromIndex, toIndex)
+        .mapToObj(perturbed::getValue)
+        .collect(Collectors.toList());
+    return MarketDataBox.ofScenarioValues(values);
+  }
+
+  @Override
+  public int getScenarioCount() {
+    return toIndex - fromIndex;
+  }
+
+  @Override
+  public Class<T> getMarketDataType() {
+    return underlying.getMarketDataType();
+  }
+
+  @Override
+  public ScenarioPerturbation<T> subset(int fromIndexInclusive, int toIndexExclusive) {
+    ArgChecker.inRange(fromIndexInclusive, 0, getScenarioCount(), "fromIndexInclusive");
+    ArgChecker.inRangeInclusive(toIndexExclusive, fromIndexInclusive + 1, getScenarioCount(), "toIndexExclusive");
+    return underlying.subset(fromIndex + fromIndexInclusive, fromIndex + toIndexExclusive);
+  }
+
+  //------------------------- AUTOGENERATED START -------------------------
+  /**
+   * The meta-bean for {@code SubsetScenarioPerturbation}.
+   */
+  private static final MetaBean META_BEAN =
+      LightMetaBean.of(
+          SubsetScenarioPerturbation.class,
+          MethodHandles.lookup(),
+          new String[] {
+              "underlying",
+              "fromIndex",
+              "toIndex"},
+          new Object[0]);
+
+  /**
+   * The meta-bean for {@code SubsetScenarioPerturbation}.
+   * @return the meta-bean, not null
+   */
+  public static MetaBean meta() {
+    return META_BEAN;
+  }
+
+  static {
+    MetaBean.register(META_BEAN);
+  }
+
+  /**
+   * The serialization version id.
+   */
+  private static final long serialVersionUID = 1L;
+
+  private SubsetScenarioPerturbation(
+      ScenarioPerturbation<T> underlying,
+      int fromIndex,
+      int toIndex) {
+    JodaBeanUtils.notNull(underlying, "underlying");
+    this.underlying = underlying;
+    this.fromIndex = fromIndex;
+    this.toIndex = toIndex;
+    validate();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public TypedMetaBean<SubsetScenarioPerturbation<T>> metaBean() {
+    return (TypedMetaBean<SubsetScenarioPerturbation<T>>) META_BEAN;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the underlying perturbation.
+   * @return the value of the property, not null
+   */
+  public ScenarioPerturbation<T> getUnderlying() {
+    return underlying;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the index of the first scenario of the underlying perturbation, inclusive.
+   * @return the value of the property
+   */
+  public int getFromIndex() {
+    return fromIndex;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the index of the last scenario of the underlying perturbation, exclusive.
+   * @return the value of the property
+   */
+  public int getToIndex() {
+    return toIndex;
+  }
+
+  //-----------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj != null && obj.getClass() == this.getClass()) {
+      SubsetScenarioPerturbation<?> other = (SubsetScenarioPerturbation<?>) obj;
+      return JodaBeanUtils.equal(underlying, other.underlying) &&
+          (fromIndex == other.fromIndex) &&
+          (toIndex == other.toIndex);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = getClass().hashCode();
+    hash = hash * 31 + JodaBeanUtils.hashCode(underlying);
+    hash = hash * 31 + JodaBeanUtils.hashCode(fromIndex);
+    hash = hash * 31 + JodaBeanUtils.hashCode(toIndex);
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder buf = new StringBuilder(128);
+    buf.append("SubsetScenarioPerturbation{");
+    buf.append("underlying").append('=').append(JodaBeanUtils.toString(underlying)).append(',').append(' ');
+    buf.append("fromIndex").append('=').append(JodaBeanUtils.toString(fromIndex)).append(',').append(' ');
+    buf.append("toIndex").append('=').append(JodaBeanUtils.toString(toIndex));
+    buf.append('}');
+    return buf.toString();
+  }
+
+  //-------------------------- AUTOGENERATED END --------------------------
+}
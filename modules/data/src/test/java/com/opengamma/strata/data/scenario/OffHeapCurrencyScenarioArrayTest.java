@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.data.scenario;
+
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Test {@link OffHeapCurrencyScenarioArray}.
+ */
+public class OffHeapCurrencyScenarioArrayTest {
+
+  @Test
+  public void create() {
+    DoubleArray values = DoubleArray.of(1, 2, 3);
+    OffHeapCurrencyScenarioArray test = OffHeapCurrencyScenarioArray.of(GBP, values);
+    assertThat(test.getCurrency()).isEqualTo(GBP);
+    assertThat(test.getValues().toDoubleArray()).isEqualTo(values);
+    assertThat(test.getScenarioCount()).isEqualTo(3);
+    assertThat(test.get(0)).isEqualTo(CurrencyAmount.of(GBP, 1));
+    assertThat(test.stream().collect(toList())).containsExactly(
+        CurrencyAmount.of(GBP, 1), CurrencyAmount.of(GBP, 2), CurrencyAmount.of(GBP, 3));
+    assertThat(test.toCurrencyScenarioArray()).isEqualTo(CurrencyScenarioArray.of(GBP, values));
+    assertThat(OffHeapCurrencyScenarioArray.of(CurrencyScenarioArray.of(GBP, values))).isEqualTo(test);
+    assertThat(OffHeapCurrencyScenarioArray.of(GBP, 3, i -> i + 1)).isEqualTo(test);
+  }
+
+  @Test
+  public void reductions() {
+    OffHeapCurrencyScenarioArray test = OffHeapCurrencyScenarioArray.of(GBP, DoubleArray.of(-4, 2, -1, 3));
+    assertThat(test.sum()).isEqualTo(CurrencyAmount.of(GBP, 0));
+    assertThat(test.quantile(0.25)).isEqualTo(CurrencyAmount.of(GBP, -4));
+    assertThat(test.expectedShortfall(0.5)).isEqualTo(CurrencyAmount.of(GBP, -2.5));
+  }
+
+  @Test
+  public void convert() {
+    FxRateScenarioArray rates = FxRateScenarioArray.of(GBP, USD, DoubleArray.of(1.61, 1.62, 1.63));
+    ScenarioFxRateProvider fxProvider = new TestScenarioFxRateProvider(rates);
+    OffHeapCurrencyScenarioArray test = OffHeapCurrencyScenarioArray.of(GBP, DoubleArray.of(1, 2, 3));
+    CurrencyScenarioArray expected = CurrencyScenarioArray.of(GBP, DoubleArray.of(1, 2, 3)).convertedTo(USD, fxProvider);
+    assertThat(test.convertedTo(USD, fxProvider).toCurrencyScenarioArray()).isEqualTo(expected);
+    assertThat(test.convertedTo(GBP, fxProvider)).isSameAs(test);
+    ScenarioFxRateProvider wrongSize =
+        new TestScenarioFxRateProvider(FxRateScenarioArray.of(GBP, USD, DoubleArray.of(1.61, 1.62)));
+    assertThatIllegalArgumentException().isThrownBy(() -> test.convertedTo(USD, wrongSize));
+  }
+
+  @Test
+  public void coverage() {
+    OffHeapCurrencyScenarioArray test = OffHeapCurrencyScenarioArray.of(GBP, DoubleArray.of(1, 2, 3));
+    assertThat(test)
+        .isEqualTo(test)
+        .isEqualTo(OffHeapCurrencyScenarioArray.of(GBP, DoubleArray.of(1, 2, 3)))
+        .isNotEqualTo(OffHeapCurrencyScenarioArray.of(USD, DoubleArray.of(1, 2, 3)))
+        .isNotEqualTo("")
+        .hasSameHashCodeAs(OffHeapCurrencyScenarioArray.of(GBP, DoubleArray.of(1, 2, 3)));
+    assertThat(test.toString()).isEqualTo("OffHeapCurrencyScenarioArray[currency=GBP, scenarioCount=3]");
+  }
+
+}
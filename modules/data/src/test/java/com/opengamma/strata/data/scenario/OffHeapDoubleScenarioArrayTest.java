@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.data.scenario;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.data.Offset.offset;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Test {@link OffHeapDoubleScenarioArray}.
+ */
+public class OffHeapDoubleScenarioArrayTest {
+
+  private static final double TOL = 1e-12;
+
+  @Test
+  public void create() {
+    DoubleArray values = DoubleArray.of(1, 2, 3);
+    OffHeapDoubleScenarioArray test = OffHeapDoubleScenarioArray.of(values);
+    assertThat(test.getScenarioCount()).isEqualTo(3);
+    assertThat(test.get(0)).isEqualTo(1d);
+    assertThat(test.getDouble(2)).isEqualTo(3d);
+    assertThat(test.stream().collect(toList())).containsExactly(1d, 2d, 3d);
+    assertThat(test.doubleStream().toArray()).containsExactly(1d, 2d, 3d);
+    assertThat(test.toDoubleArray()).isEqualTo(values);
+    assertThat(test.toDoubleScenarioArray()).isEqualTo(DoubleScenarioArray.of(values));
+    assertThat(test.toString()).isEqualTo("OffHeapDoubleScenarioArray[scenarioCount=3]");
+  }
+
+  @Test
+  public void create_fromFunction() {
+    OffHeapDoubleScenarioArray test = OffHeapDoubleScenarioArray.of(3, i -> (i + 1) * 2);
+    assertThat(test.toDoubleArray()).isEqualTo(DoubleArray.of(2, 4, 6));
+    assertThat(test).isEqualTo(OffHeapDoubleScenarioArray.of(DoubleScenarioArray.of(DoubleArray.of(2, 4, 6))));
+    assertThatIllegalArgumentException().isThrownBy(() -> OffHeapDoubleScenarioArray.of(0, i -> i));
+  }
+
+  @Test
+  public void reductions() {
+    // values 1 to 100 in a shuffled order
+    OffHeapDoubleScenarioArray test = OffHeapDoubleScenarioArray.of(100, i -> (i * 37) % 100 + 1);
+    assertThat(test.sum()).isCloseTo(5050d, offset(TOL));
+    assertThat(test.quantile(0.05)).isEqualTo(5d);
+    assertThat(test.quantile(0.051)).isEqualTo(6d);
+    assertThat(test.quantile(0.001)).isEqualTo(1d);
+    // a level derived by subtraction is slightly above 0.05, but selects the same value
+    assertThat(test.quantile(1d - 0.95)).isEqualTo(5d);
+    assertThat(test.expectedShortfall(1d - 0.95)).isCloseTo(3d, offset(TOL));
+    assertThat(test.expectedShortfall(0.05)).isCloseTo(3d, offset(TOL));
+    // 5 whole values plus half of the sixth
+    assertThat(test.expectedShortfall(0.055)).isCloseTo((15d + 3d) / 5.5d, offset(TOL));
+    assertThat(test.expectedShortfall(0.001)).isCloseTo(1d, offset(TOL));
+    assertThatIllegalArgumentException().isThrownBy(() -> test.quantile(0d));
+    assertThatIllegalArgumentException().isThrownBy(() -> test.expectedShortfall(1d));
+  }
+
+  @Test
+  public void coverage() {
+    OffHeapDoubleScenarioArray test = OffHeapDoubleScenarioArray.of(DoubleArray.of(1, 2, 3));
+    OffHeapDoubleScenarioArray test2 = OffHeapDoubleScenarioArray.of(DoubleArray.of(1, 2, 4));
+    assertThat(test)
+        .isEqualTo(test)
+        .isEqualTo(OffHeapDoubleScenarioArray.of(DoubleArray.of(1, 2, 3)))
+        .isNotEqualTo(test2)
+        .isNotEqualTo("")
+        .hasSameHashCodeAs(OffHeapDoubleScenarioArray.of(DoubleArray.of(1, 2, 3)));
+  }
+
+  @Test
+  public void serialization() throws Exception {
+    OffHeapDoubleScenarioArray test = OffHeapDoubleScenarioArray.of(DoubleArray.of(1, 2, 3));
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(test);
+    }
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      assertThat(ois.readObject()).isEqualTo(DoubleScenarioArray.of(DoubleArray.of(1, 2, 3)));
+    }
+  }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.data.scenario;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.data.Offset.offset;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Test {@link OffHeapScenarioAccumulator}.
+ */
+public class OffHeapScenarioAccumulatorTest {
+
+  private static final double TOL = 1e-12;
+  private static final FxRateScenarioArray RATES = FxRateScenarioArray.of(GBP, USD, DoubleArray.of(1.61, 1.62, 1.63));
+  private static final ScenarioFxRateProvider FX_PROVIDER = new TestScenarioFxRateProvider(RATES);
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void plainValues() {
+    OffHeapScenarioAccumulator test = OffHeapScenarioAccumulator.of(3);
+    test.add(DoubleScenarioArray.of(DoubleArray.of(1, 2, 3)))
+        .add(OffHeapDoubleScenarioArray.of(DoubleArray.of(10, 20, 30)))
+        .add(ScenarioArray.of(100d, 200d, 300d));
+    assertThat(test.getCurrency()).isEmpty();
+    assertThat(test.getScenarioCount()).isEqualTo(3);
+    assertThat(test.getCount()).isEqualTo(3);
+    assertThat(test.toDoubleScenarioArray().toDoubleArray()).isEqualTo(DoubleArray.of(111, 222, 333));
+    assertThat(test.sum()).isCloseTo(666d, offset(TOL));
+    assertThat(test.quantile(0.3)).isEqualTo(111d);
+    assertThat(test.expectedShortfall(0.5)).isCloseTo((111d + 222d * 0.5d) / 1.5d, offset(TOL));
+    assertThatIllegalStateException().isThrownBy(() -> test.toCurrencyScenarioArray());
+    assertThatIllegalArgumentException().isThrownBy(() -> test.add(CurrencyScenarioArray.of(GBP, DoubleArray.of(1, 2, 3))));
+    assertThat(test.toString()).isEqualTo("OffHeapScenarioAccumulator[scenarioCount=3]");
+  }
+
+  @Test
+  public void amounts_singleCurrency() {
+    OffHeapScenarioAccumulator test = OffHeapScenarioAccumulator.of(GBP, 3);
+    test.add(CurrencyScenarioArray.of(GBP, DoubleArray.of(1, 2, 3)))
+        .add(OffHeapCurrencyScenarioArray.of(GBP, DoubleArray.of(10, 20, 30)))
+        .add(ScenarioArray.of(CurrencyAmount.of(GBP, 100), CurrencyAmount.of(GBP, 200), CurrencyAmount.of(GBP, 300)));
+    assertThat(test.getCurrency()).hasValue(GBP);
+    assertThat(test.toCurrencyScenarioArray()).isEqualTo(OffHeapCurrencyScenarioArray.of(GBP, DoubleArray.of(111, 222, 333)));
+    assertThatIllegalArgumentException().isThrownBy(() -> test.add(CurrencyScenarioArray.of(USD, DoubleArray.of(1, 2, 3))));
+    assertThatIllegalArgumentException().isThrownBy(() -> test.add(DoubleScenarioArray.of(DoubleArray.of(1, 2, 3))));
+    assertThatIllegalArgumentException().isThrownBy(() -> test.add(DoubleScenarioArray.of(DoubleArray.of(1, 2))));
+    assertThatIllegalArgumentException().isThrownBy(() -> test.add(ScenarioArray.of("A", "B", "C")));
+  }
+
+  @Test
+  public void amounts_converted() {
+    OffHeapScenarioAccumulator test = OffHeapScenarioAccumulator.of(USD, FX_PROVIDER);
+    CurrencyScenarioArray gbp = CurrencyScenarioArray.of(GBP, DoubleArray.of(1, 2, 3));
+    CurrencyScenarioArray usd = CurrencyScenarioArray.of(USD, DoubleArray.of(10, 20, 30));
+    MultiCurrencyScenarioArray multi = MultiCurrencyScenarioArray.of(
+        ImmutableMap.of(GBP, DoubleArray.of(4, 5, 6), USD, DoubleArray.of(7, 8, 9)));
+    test.add(gbp)
+        .add(OffHeapCurrencyScenarioArray.of(usd))
+        .add(multi)
+        .add(ScenarioArray.of(MultiCurrencyAmount.of(CurrencyAmount.of(GBP, 1)), MultiCurrencyAmount.empty(), MultiCurrencyAmount.empty()));
+    DoubleArray expected = gbp.convertedTo(USD, FX_PROVIDER).getAmounts().getValues()
+        .plus(usd.getAmounts().getValues())
+        .plus(multi.convertedTo(USD, FX_PROVIDER).getAmounts().getValues())
+        .plus(DoubleArray.of(1.61, 0, 0));
+    assertThat(test.toDoubleScenarioArray().toDoubleArray().equalWithTolerance(expected, TOL)).isTrue();
+    assertThat(test.getCount()).isEqualTo(4);
+    assertThatIllegalArgumentException().isThrownBy(() -> test.add(CurrencyScenarioArray.of(EUR, DoubleArray.of(1, 2, 3))));
+  }
+
+  @Test
+  public void add_rejectedLeavesTotalUnchanged() {
+    OffHeapScenarioAccumulator amounts = OffHeapScenarioAccumulator.of(GBP, 3);
+    amounts.add(CurrencyScenarioArray.of(GBP, DoubleArray.of(1, 2, 3)));
+    // the GBP amounts are valid, but the USD amounts cannot be converted
+    MultiCurrencyScenarioArray multi = MultiCurrencyScenarioArray.of(
+        ImmutableMap.of(GBP, DoubleArray.of(4, 5, 6), USD, DoubleArray.of(7, 8, 9)));
+    assertThatIllegalArgumentException().isThrownBy(() -> amounts.add(multi));
+    assertThat(amounts.toDoubleScenarioArray().toDoubleArray()).isEqualTo(DoubleArray.of(1, 2, 3));
+    assertThat(amounts.getCount()).isEqualTo(1);
+
+    OffHeapScenarioAccumulator values = OffHeapScenarioAccumulator.of(3);
+    values.add(DoubleScenarioArray.of(DoubleArray.of(1, 2, 3)));
+    assertThatIllegalArgumentException().isThrownBy(() -> values.add(ScenarioArray.of(10d, 20d, "C")));
+    assertThat(values.toDoubleScenarioArray().toDoubleArray()).isEqualTo(DoubleArray.of(1, 2, 3));
+    values.add(ScenarioArray.of(10d, 20d, 30d));
+    assertThat(values.toDoubleScenarioArray().toDoubleArray()).isEqualTo(DoubleArray.of(11, 22, 33));
+    assertThat(values.getCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void parallel() {
+    OffHeapScenarioAccumulator test = OffHeapScenarioAccumulator.of(100);
+    IntStream.range(0, 1000).parallel()
+        .forEach(trade -> test.add(OffHeapDoubleScenarioArray.of(100, scenario -> scenario + trade)));
+    OffHeapDoubleScenarioArray total = test.toDoubleScenarioArray();
+    for (int i = 0; i < 100; i++) {
+      assertThat(total.getDouble(i)).isEqualTo(1000d * i + 999d * 1000d / 2d);
+    }
+    assertThat(test.getCount()).isEqualTo(1000);
+  }
+
+}
@@ -7,6 +7,7 @@ package com.opengamma.strata.data.scenario;
 
 import static com.opengamma.strata.collect.TestHelper.coverImmutableBean;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 import org.joda.beans.ImmutableBean;
 import org.junit.jupiter.api.Test;
@@ -30,6 +31,33 @@ public class ScenarioPerturbationTest {
     assertThat(test.applyTo(box2, REF_DATA)).isEqualTo(box2);
   }
 
+  @Test
+  public void test_none_subset() {
+    ScenarioPerturbation<Double> test = ScenarioPerturbation.none();
+    assertThat(test.subset(2, 5)).isSameAs(test);
+    assertThatIllegalArgumentException().isThrownBy(() -> test.subset(-1, 5));
+    assertThatIllegalArgumentException().isThrownBy(() -> test.subset(2, 2));
+  }
+
+  @Test
+  public void test_subset() {
+    ScenarioPerturbation<Double> base = new TestShift(1d, 2d, 3d, 4d);
+    assertThat(base.subset(0, 4)).isSameAs(base);
+    ScenarioPerturbation<Double> test = base.subset(1, 3);
+    assertThat(test.getScenarioCount()).isEqualTo(2);
+    assertThat(test.getMarketDataType()).isEqualTo(Double.class);
+    MarketDataBox<Double> box = MarketDataBox.ofSingleValue(10d);
+    assertThat(test.applyTo(box, REF_DATA)).isEqualTo(MarketDataBox.ofScenarioValues(12d, 13d));
+    ScenarioPerturbation<Double> nested = test.subset(1, 2);
+    assertThat(nested.getScenarioCount()).isEqualTo(1);
+    assertThat(nested.applyTo(box, REF_DATA).getValue(0)).isEqualTo(13d);
+    assertThatIllegalArgumentException().isThrownBy(() -> base.subset(2, 2));
+    assertThatIllegalArgumentException().isThrownBy(() -> base.subset(2, 5));
+    assertThatIllegalArgumentException().isThrownBy(() -> base.subset(-1, 4));
+    assertThatIllegalArgumentException().isThrownBy(() -> test.subset(-1, 1));
+    assertThatIllegalArgumentException().isThrownBy(() -> test.subset(0, 3));
+  }
+
 //  public void test_generics() {
 //    // Number perturbation should be able to alter a Double box, returning a Number box
 //    ScenarioPerturbation<Number> test = ScenarioPerturbation.none();
@@ -43,6 +71,32 @@ public class ScenarioPerturbationTest {
   public void coverage() {
     ScenarioPerturbation<Double> test = ScenarioPerturbation.none();
     coverImmutableBean((ImmutableBean) test);
+    coverImmutableBean(SubsetScenarioPerturbation.of(new TestShift(1d, 2d, 3d), 1, 2));
+  }
+
+  //-------------------------------------------------------------------------
+  private static final class TestShift implements ScenarioPerturbation<Double> {
+
+    private final double[] shifts;
+
+    private TestShift(double... shifts) {
+      this.shifts = shifts;
+    }
+
+    @Override
+    public MarketDataBox<Double> applyTo(MarketDataBox<Double> marketData, ReferenceData refData) {
+      return marketData.mapWithIndex(getScenarioCount(), (value, scenarioIndex) -> value + shifts[scenarioIndex]);
+    }
+
+    @Override
+    public int getScenarioCount() {
+      return shifts.length;
+    }
+
+    @Override
+    public Class<Double> getMarketDataType() {
+      return Double.class;
+    }
   }
 
 }
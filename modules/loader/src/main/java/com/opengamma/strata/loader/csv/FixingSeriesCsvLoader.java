@@ -20,8 +20,7 @@ import com.opengamma.strata.basics.index.Index;
 import com.opengamma.strata.basics.index.PriceIndex;
 import com.opengamma.strata.collect.MapStream;
 import com.opengamma.strata.collect.Messages;
-import com.opengamma.strata.collect.io.CsvFile;
-import com.opengamma.strata.collect.io.CsvRow;
+import com.opengamma.strata.collect.io.CsvCursor;
 import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.collect.io.UnicodeBom;
 import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
@@ -114,18 +113,24 @@ public final class FixingSeriesCsvLoader {
   // loads a single fixing series CSV file
   private static ImmutableMap<ObservableId, LocalDateDoubleTimeSeries> parseSingle(CharSource resource) {
     Map<ObservableId, LocalDateDoubleTimeSeriesBuilder> builders = new HashMap<>();
-    try {
-      CsvFile csv = CsvFile.of(resource, true);
-      for (CsvRow row : csv.rows()) {
-        String referenceStr = row.getField(REFERENCE_FIELD);
-        String dateStr = row.getField(DATE_FIELD);
-        String valueStr = row.getField(VALUE_FIELD);
-
-        Index index = LoaderUtils.findIndex(referenceStr);
-        ObservableId id = IndexQuoteId.of(index);
-        double value = Double.parseDouble(valueStr);
+    try (CsvCursor csv = CsvCursor.of(resource, true)) {
+      int referenceIndex = csv.headerIndex(REFERENCE_FIELD);
+      int dateIndex = csv.headerIndex(DATE_FIELD);
+      int valueIndex = csv.headerIndex(VALUE_FIELD);
+      // files are typically grouped by reference, so the index is only looked up when it changes
+      String referenceStr = null;
+      Index index = null;
+      LocalDateDoubleTimeSeriesBuilder builder = null;
+      while (csv.next()) {
+        if (referenceStr == null || !csv.fieldEquals(referenceIndex, referenceStr)) {
+          referenceStr = csv.field(referenceIndex);
+          index = LoaderUtils.findIndex(referenceStr);
+          builder = builders.computeIfAbsent(IndexQuoteId.of(index), k -> LocalDateDoubleTimeSeries.builder());
+        }
+        double value = csv.parseDouble(valueIndex);
         LocalDate date;
         if (index instanceof PriceIndex) {
+          String dateStr = csv.field(dateIndex);
           try {
             YearMonth ym = LoaderUtils.parseYearMonth(dateStr);
             date = ym.atEndOfMonth();
@@ -137,10 +142,8 @@ public final class FixingSeriesCsvLoader {
             }
           }
         } else {
-          date = LoaderUtils.parseDate(dateStr);
+          date = csv.parseLocalDate(dateIndex, LoaderUtils::parseDate);
         }
-
-        LocalDateDoubleTimeSeriesBuilder builder = builders.computeIfAbsent(id, k -> LocalDateDoubleTimeSeries.builder());
         builder.put(date, value);
       }
     } catch (RuntimeException ex) {
@@ -21,8 +21,7 @@ import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.io.CharSource;
 import com.opengamma.strata.basics.StandardId;
 import com.opengamma.strata.collect.Messages;
-import com.opengamma.strata.collect.io.CsvFile;
-import com.opengamma.strata.collect.io.CsvRow;
+import com.opengamma.strata.collect.io.CsvCursor;
 import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.collect.io.UnicodeBom;
 import com.opengamma.strata.data.FieldName;
@@ -211,20 +210,22 @@ public final class QuotesCsvLoader {
       CharSource resource,
       Map<LocalDate, ImmutableMap.Builder<QuoteId, Double>> mutableMap) {
 
-    try {
-      CsvFile csv = CsvFile.of(resource, true);
-      for (CsvRow row : csv.rows()) {
-        String dateText = row.getField(DATE_FIELD);
-        LocalDate date = LoaderUtils.parseDate(dateText);
+    try (CsvCursor csv = CsvCursor.of(resource, true)) {
+      int dateIndex = csv.headerIndex(DATE_FIELD);
+      int symbologyIndex = csv.headerIndex(SYMBOLOGY_FIELD);
+      int tickerIndex = csv.headerIndex(TICKER_FIELD);
+      int fieldNameIndex = csv.headerIndex(FIELD_NAME_FIELD);
+      int valueIndex = csv.headerIndex(VALUE_FIELD);
+      while (csv.next()) {
+        LocalDate date = csv.parseLocalDate(dateIndex, LoaderUtils::parseDate);
         if (datePredicate.test(date)) {
-          String symbologyStr = row.getField(SYMBOLOGY_FIELD);
-          String tickerStr = row.getField(TICKER_FIELD);
-          String fieldNameStr = row.getField(FIELD_NAME_FIELD);
-          String valueStr = row.getField(VALUE_FIELD);
-
-          double value = Double.valueOf(valueStr);
+          String symbologyStr = csv.field(symbologyIndex);
+          String tickerStr = csv.field(tickerIndex);
+          double value = csv.parseDouble(valueIndex);
           StandardId id = StandardId.of(symbologyStr, tickerStr);
-          FieldName fieldName = fieldNameStr.isEmpty() ? FieldName.MARKET_VALUE : FieldName.of(fieldNameStr);
+          FieldName fieldName = csv.fieldLength(fieldNameIndex) == 0 ?
+              FieldName.MARKET_VALUE :
+              FieldName.of(csv.field(fieldNameIndex));
 
           ImmutableMap.Builder<QuoteId, Double> builderForDate = mutableMap.computeIfAbsent(date, k -> ImmutableMap.builder());
           builderForDate.put(QuoteId.of(id, fieldName), value);
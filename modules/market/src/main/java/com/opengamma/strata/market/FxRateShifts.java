@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.basics.currency.CurrencyPair;
 import com.opengamma.strata.basics.currency.FxRate;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.data.scenario.MarketDataBox;
 import com.opengamma.strata.data.scenario.ScenarioPerturbation;
@@ -102,6 +103,13 @@ public final class FxRateShifts
     return FxRate.class;
   }
 
+  @Override
+  public FxRateShifts subset(int fromIndexInclusive, int toIndexExclusive) {
+    ArgChecker.inRange(fromIndexInclusive, 0, getScenarioCount(), "fromIndexInclusive");
+    ArgChecker.inRangeInclusive(toIndexExclusive, fromIndexInclusive + 1, getScenarioCount(), "toIndexExclusive");
+    return new FxRateShifts(shiftType, shiftAmount.subArray(fromIndexInclusive, toIndexExclusive), currencyPair);
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   /**
    * The meta-bean for {@code FxRateShifts}.
@@ -23,6 +23,7 @@ import org.joda.beans.impl.direct.DirectMetaPropertyMap;
 import org.joda.beans.impl.direct.DirectPrivateBeanBuilder;
 
 import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.data.scenario.MarketDataBox;
 import com.opengamma.strata.data.scenario.ScenarioPerturbation;
@@ -102,6 +103,13 @@ public final class GenericDoubleShifts
     return Double.class;
   }
 
+  @Override
+  public GenericDoubleShifts subset(int fromIndexInclusive, int toIndexExclusive) {
+    ArgChecker.inRange(fromIndexInclusive, 0, getScenarioCount(), "fromIndexInclusive");
+    ArgChecker.inRangeInclusive(toIndexExclusive, fromIndexInclusive + 1, getScenarioCount(), "toIndexExclusive");
+    return new GenericDoubleShifts(shiftType, shiftAmount.subArray(fromIndexInclusive, toIndexExclusive), spread);
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   /**
    * The meta-bean for {@code GenericDoubleShifts}.
@@ -29,6 +29,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.Guavate;
 import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.collect.tuple.ObjIntPair;
@@ -159,6 +160,17 @@ public final class PointShifts
     return ParameterizedData.class;
   }
 
+  @Override
+  public PointShifts subset(int fromIndexInclusive, int toIndexExclusive) {
+    ArgChecker.inRange(fromIndexInclusive, 0, getScenarioCount(), "fromIndexInclusive");
+    ArgChecker.inRangeInclusive(toIndexExclusive, fromIndexInclusive + 1, getScenarioCount(), "toIndexExclusive");
+    DoubleMatrix subsetShifts = DoubleMatrix.ofArrayObjects(
+        toIndexExclusive - fromIndexInclusive,
+        shifts.columnCount(),
+        i -> shifts.row(fromIndexInclusive + i));
+    return new PointShifts(shiftType, subsetShifts, nodeIndices);
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   /**
    * The meta-bean for {@code PointShifts}.
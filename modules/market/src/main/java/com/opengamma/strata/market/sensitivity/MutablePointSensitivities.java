@@ -189,17 +189,23 @@ public final class MutablePointSensitivities
    */
   @Override
   public MutablePointSensitivities normalize() {
+    if (sensitivities.isEmpty()) {
+      return this;
+    }
     sensitivities.sort(PointSensitivity::compareKey);
-    PointSensitivity previous = sensitivities.get(0);
+    // merge in a single pass, compacting the list in place
+    int last = 0;
     for (int i = 1; i < sensitivities.size(); i++) {
+      PointSensitivity previous = sensitivities.get(last);
       PointSensitivity current = sensitivities.get(i);
       if (current.compareKey(previous) == 0) {
-        sensitivities.set(i - 1, previous.withSensitivity(previous.getSensitivity() + current.getSensitivity()));
-        sensitivities.remove(i);
-        i--;
+        sensitivities.set(last, previous.withSensitivity(previous.getSensitivity() + current.getSensitivity()));
+      } else {
+        last++;
+        sensitivities.set(last, current);
       }
-      previous = current;
     }
+    sensitivities.subList(last + 1, sensitivities.size()).clear();
     return this;
   }
 
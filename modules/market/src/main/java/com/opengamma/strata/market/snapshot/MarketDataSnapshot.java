@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.market.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.joda.beans.Bean;
+import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerDeserializers;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteSource;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+
+/**
+ * A binary snapshot of market data, such as calibrated curves, surfaces, sensitivities and time series.
+ * <p>
+ * A snapshot is a set of beans, each identified by a unique key, typically the name of a curve or surface.
+ * Snapshots are written using {@link MarketDataSnapshotWriter} and read using this class.
+ * <p>
+ * Each entry is stored independently using the Joda-Beans referencing binary format.
+ * The format is much more compact than XML or JSON and avoids parsing text, while storing property names
+ * so that data written by an earlier version of a bean can still be read.
+ * Deserialization is lenient, thus properties that have since been removed are ignored,
+ * and properties that have since been added take their default value where the bean permits.
+ * <p>
+ * Reading a snapshot only parses the index of entries. Each entry is deserialized when it is first
+ * requested and then cached, thus a process that only needs a few curves from a large snapshot
+ * does not pay the cost of deserializing the rest. A snapshot read from a file is memory-mapped,
+ * thus the bytes of the entries that are not requested are not read either.
+ * <p>
+ * The file format is as follows:
+ * <ul>
+ * <li>header - magic number (int), format version (int)
+ * <li>entries - the binary form of each bean, back to back
+ * <li>index - number of entries (int), then for each entry the key (modified UTF-8),
+ *  the offset from the start of the file (long) and the length (int)
+ * <li>trailer - offset of the index (long), magic number (int)
+ * </ul>
+ * <p>
+ * This class is thread-safe.
+ */
+public final class MarketDataSnapshot {
+
+  /**
+   * The magic number identifying the format.
+   */
+  static final int MAGIC = 0x53544D53;  // 'STMS'
+  /**
+   * The version of the format.
+   */
+  static final int VERSION = 1;
+  /**
+   * The size of the header in bytes.
+   */
+  static final int HEADER_SIZE = 8;
+  /**
+   * The size of the trailer in bytes.
+   */
+  private static final int TRAILER_SIZE = 12;
+  /**
+   * The serializer, reading leniently to handle changes to the beans since the snapshot was written.
+   */
+  private static final JodaBeanSer SERIALIZER = JodaBeanSer.COMPACT.withDeserializers(SerDeserializers.LENIENT);
+
+  /**
+   * The bytes of the snapshot, only accessed using absolute positions.
+   */
+  private final ByteBuffer buffer;
+  /**
+   * The index, mapping each key to the offset and length of the entry.
+   */
+  private final ImmutableMap<String, long[]> index;
+  /**
+   * The entries that have been deserialized.
+   */
+  private final ConcurrentHashMap<String, Bean> loaded = new ConcurrentHashMap<>();
+
+  //-------------------------------------------------------------------------
+  /**
+   * Reads a snapshot from a file.
+   * <p>
+   * The file is memory-mapped, and only the index is parsed, with entries deserialized on demand.
+   * The file must not be modified while the snapshot is in use.
+   *
+   * @param file  the file to read
+   * @return the snapshot
+   * @throws IllegalArgumentException if the file is not a valid snapshot
+   * @throws UncheckedIOException if an IO error occurs
+   */
+  public static MarketDataSnapshot read(Path file) {
+    ArgChecker.notNull(file, "file");
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Invalid market data snapshot, file is too large");
+      }
+      // the mapping remains valid after the channel is closed
+      return new MarketDataSnapshot(channel.map(MapMode.READ_ONLY, 0, size));
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Reads a snapshot from a byte source.
+   * <p>
+   * Only the index is parsed, with entries deserialized on demand.
+   *
+   * @param source  the source to read
+   * @return the snapshot
+   * @throws IllegalArgumentException if the source is not a valid snapshot
+   * @throws UncheckedIOException if an IO error occurs
+   */
+  public static MarketDataSnapshot of(ByteSource source) {
+    ArgChecker.notNull(source, "source");
+    try {
+      return new MarketDataSnapshot(ByteBuffer.wrap(source.read()));
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  // creates an instance, parsing the index
+  private MarketDataSnapshot(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.index = parseIndex(buffer);
+  }
+
+  // parses the index from the end of the file
+  private static ImmutableMap<String, long[]> parseIndex(ByteBuffer buf) {
+    int fileSize = buf.limit();
+    if (fileSize < HEADER_SIZE + TRAILER_SIZE) {
+      throw new IllegalArgumentException("Invalid market data snapshot, file is too short");
+    }
+    if (buf.getInt(0) != MAGIC || buf.getInt(fileSize - 4) != MAGIC) {
+      throw new IllegalArgumentException("Invalid market data snapshot, magic number not found");
+    }
+    int version = buf.getInt(4);
+    if (version != VERSION) {
+      throw new IllegalArgumentException(
+          Messages.format("Invalid market data snapshot, unsupported version {}", version));
+    }
+    long indexOffset = buf.getLong(fileSize - TRAILER_SIZE);
+    int indexEnd = fileSize - TRAILER_SIZE;
+    if (indexOffset < HEADER_SIZE || indexOffset > indexEnd) {
+      throw new IllegalArgumentException("Invalid market data snapshot, index offset out of range");
+    }
+    try (DataInputStream in = new DataInputStream(
+        new ByteArrayInputStream(copy(buf, (int) indexOffset, indexEnd - (int) indexOffset)))) {
+      int size = in.readInt();
+      ImmutableMap.Builder<String, long[]> builder = ImmutableMap.builder();
+      for (int i = 0; i < size; i++) {
+        String key = in.readUTF();
+        long offset = in.readLong();
+        int length = in.readInt();
+        if (offset < HEADER_SIZE || length < 0 || offset + length > indexOffset) {
+          throw new IllegalArgumentException(
+              Messages.format("Invalid market data snapshot, entry '{}' out of range", key));
+        }
+        builder.put(key, new long[] {offset, length});
+      }
+      return builder.build();
+    } catch (IOException ex) {
+      throw new IllegalArgumentException("Invalid market data snapshot, index is corrupt", ex);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of entries in the snapshot.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return index.size();
+  }
+
+  /**
+   * Gets the keys of the entries in the snapshot, in the order they were written.
+   *
+   * @return the keys
+   */
+  public ImmutableSet<String> keys() {
+    return index.keySet();
+  }
+
+  /**
+   * Checks if the snapshot contains the specified key.
+   *
+   * @param key  the key to find
+   * @return true if the snapshot contains the key
+   */
+  public boolean contains(String key) {
+    return index.containsKey(key);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Finds the entry with the specified key.
+   * <p>
+   * The entry is deserialized on first access and then cached.
+   *
+   * @param <T>  the type of the entry
+   * @param key  the key to find
+   * @param type  the expected type of the entry
+   * @return the entry, empty if not found
+   * @throws ClassCastException if the entry is not of the expected type
+   * @throws IllegalArgumentException if the entry cannot be deserialized
+   */
+  public <T> Optional<T> find(String key, Class<T> type) {
+    ArgChecker.notNull(key, "key");
+    ArgChecker.notNull(type, "type");
+    if (!index.containsKey(key)) {
+      return Optional.empty();
+    }
+    return Optional.of(type.cast(loaded.computeIfAbsent(key, this::load)));
+  }
+
+  /**
+   * Gets the entry with the specified key.
+   * <p>
+   * The entry is deserialized on first access and then cached.
+   *
+   * @param <T>  the type of the entry
+   * @param key  the key to find
+   * @param type  the expected type of the entry
+   * @return the entry
+   * @throws IllegalArgumentException if the key is not found or the entry cannot be deserialized
+   * @throws ClassCastException if the entry is not of the expected type
+   */
+  public <T> T get(String key, Class<T> type) {
+    return find(key, type).orElseThrow(
+        () -> new IllegalArgumentException(Messages.format("Market data snapshot does not contain key '{}'", key)));
+  }
+
+  // deserializes an entry
+  private Bean load(String key) {
+    long[] entry = index.get(key);
+    byte[] bytes = copy(buffer, (int) entry[0], (int) entry[1]);
+    try {
+      return SERIALIZER.binReader().read(bytes, Bean.class);
+    } catch (RuntimeException ex) {
+      throw new IllegalArgumentException(
+          Messages.format("Market data snapshot entry '{}' could not be read: {}", key, ex.getMessage()), ex);
+    }
+  }
+
+  // copies a range of the buffer, the buffer is duplicated so concurrent copies do not interfere
+  private static byte[] copy(ByteBuffer buffer, int offset, int length) {
+    byte[] bytes = new byte[length];
+    ByteBuffer range = buffer.duplicate();
+    range.position(offset);
+    range.get(bytes);
+    return bytes;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "MarketDataSnapshot[size=" + index.size() + "]";
+  }
+
+}
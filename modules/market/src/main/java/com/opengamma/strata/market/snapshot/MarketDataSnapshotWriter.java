@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.market.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.joda.beans.Bean;
+import org.joda.beans.ser.JodaBeanSer;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+
+/**
+ * Writer for the binary market data snapshot format.
+ * <p>
+ * Each entry is written to the underlying stream as soon as {@link #write(String, Bean)} is called,
+ * thus a large snapshot does not need to be held in memory in serialized form.
+ * The index of entries is written when the writer is closed.
+ * See {@link MarketDataSnapshot} for details of the format.
+ * <p>
+ * This class is mutable and not thread-safe.
+ */
+public final class MarketDataSnapshotWriter implements AutoCloseable {
+
+  /**
+   * The serializer, using the referencing binary format to avoid repeating duplicate objects.
+   */
+  private static final JodaBeanSer SERIALIZER = JodaBeanSer.COMPACT;
+
+  /**
+   * The output stream.
+   */
+  private final DataOutputStream out;
+  /**
+   * The keys written so far.
+   */
+  private final List<String> keys = new ArrayList<>();
+  /**
+   * The unique keys written so far.
+   */
+  private final Set<String> uniqueKeys = new HashSet<>();
+  /**
+   * The offsets of the entries written so far.
+   */
+  private final List<Long> offsets = new ArrayList<>();
+  /**
+   * The lengths of the entries written so far.
+   */
+  private final List<Integer> lengths = new ArrayList<>();
+  /**
+   * The current position in the stream.
+   */
+  private long position;
+  /**
+   * Whether the writer has been closed.
+   */
+  private boolean closed;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Writes a set of market data values to a file in the binary snapshot format.
+   * <p>
+   * Any existing file will be replaced.
+   *
+   * @param file  the file to write
+   * @param values  the values to write, keyed by name
+   * @throws UncheckedIOException if an IO error occurs
+   */
+  public static void write(Path file, Map<String, ? extends Bean> values) {
+    ArgChecker.notNull(values, "values");
+    try (MarketDataSnapshotWriter writer = of(file)) {
+      for (Entry<String, ? extends Bean> entry : values.entrySet()) {
+        writer.write(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Creates a writer that writes to a file.
+   * <p>
+   * Any existing file will be replaced.
+   * The writer must be closed to complete the snapshot.
+   *
+   * @param file  the file to write
+   * @return the writer
+   * @throws UncheckedIOException if an IO error occurs
+   */
+  public static MarketDataSnapshotWriter of(Path file) {
+    ArgChecker.notNull(file, "file");
+    try {
+      return new MarketDataSnapshotWriter(Files.newOutputStream(file));
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Creates a writer that writes to an output stream.
+   * <p>
+   * The writer must be closed to complete the snapshot, which also closes the stream.
+   *
+   * @param out  the output stream
+   * @return the writer
+   * @throws UncheckedIOException if an IO error occurs
+   */
+  public static MarketDataSnapshotWriter of(OutputStream out) {
+    ArgChecker.notNull(out, "out");
+    return new MarketDataSnapshotWriter(out);
+  }
+
+  // creates an instance, writing the header
+  private MarketDataSnapshotWriter(OutputStream out) {
+    this.out = new DataOutputStream(new BufferedOutputStream(out));
+    try {
+      this.out.writeInt(MarketDataSnapshot.MAGIC);
+      this.out.writeInt(MarketDataSnapshot.VERSION);
+      this.position = MarketDataSnapshot.HEADER_SIZE;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Writes a single market data value.
+   * <p>
+   * The value is serialized independently of all other values, allowing it to be read lazily.
+   *
+   * @param key  the key of the value, unique within the snapshot
+   * @param value  the value
+   * @return this writer, for chaining
+   * @throws IllegalArgumentException if the key has already been written
+   * @throws IllegalStateException if the writer has been closed
+   * @throws UncheckedIOException if an IO error occurs
+   */
+  public MarketDataSnapshotWriter write(String key, Bean value) {
+    ArgChecker.notNull(key, "key");
+    ArgChecker.notNull(value, "value");
+    if (closed) {
+      throw new IllegalStateException("Snapshot writer has been closed");
+    }
+    if (!uniqueKeys.add(key)) {
+      throw new IllegalArgumentException(Messages.format("Duplicate key '{}' in snapshot", key));
+    }
+    byte[] bytes = SERIALIZER.binWriterReferencing().write(value);
+    try {
+      out.write(bytes);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    keys.add(key);
+    offsets.add(position);
+    lengths.add(bytes.length);
+    position += bytes.length;
+    return this;
+  }
+
+  /**
+   * Completes the snapshot, writing the index and closing the stream.
+   * <p>
+   * Closing a closed writer has no effect.
+   *
+   * @throws UncheckedIOException if an IO error occurs
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try (DataOutputStream stream = out) {
+      long indexOffset = position;
+      stream.writeInt(keys.size());
+      for (int i = 0; i < keys.size(); i++) {
+        stream.writeUTF(keys.get(i));
+        stream.writeLong(offsets.get(i));
+        stream.writeInt(lengths.get(i));
+      }
+      stream.writeLong(indexOffset);
+      stream.writeInt(MarketDataSnapshot.MAGIC);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+}
@@ -0,0 +1,13 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+
+/**
+ * Binary snapshots of market data.
+ * <p>
+ * A snapshot holds calibrated market data, such as curves, surfaces, sensitivities and time-series,
+ * in a compact binary form that can be passed between processes and loaded lazily.
+ */
+package com.opengamma.strata.market.snapshot;
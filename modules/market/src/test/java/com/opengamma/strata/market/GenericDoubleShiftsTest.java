@@ -8,6 +8,7 @@ package com.opengamma.strata.market;
 import static com.opengamma.strata.collect.TestHelper.coverBeanEquals;
 import static com.opengamma.strata.collect.TestHelper.coverImmutableBean;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 import org.junit.jupiter.api.Test;
 
@@ -70,6 +71,18 @@ public class GenericDoubleShiftsTest {
     assertThat(computedAbsolute).isEqualTo(expectedAbsolute);
   }
 
+  @Test
+  public void test_subset() {
+    GenericDoubleShifts base = GenericDoubleShifts.of(ShiftType.ABSOLUTE, SHIFT_AMOUNT, SPREAD);
+    GenericDoubleShifts test = base.subset(1, 3);
+    assertThat(test).isEqualTo(GenericDoubleShifts.of(ShiftType.ABSOLUTE, DoubleArray.of(2d, -5d), SPREAD));
+    MarketDataBox<Double> marketData = MarketDataBox.ofSingleValue(3d);
+    assertThat(test.applyTo(marketData, REF_DATA).getValue(1)).isEqualTo(base.applyTo(marketData, REF_DATA).getValue(2));
+    assertThatIllegalArgumentException().isThrownBy(() -> base.subset(-1, 2));
+    assertThatIllegalArgumentException().isThrownBy(() -> base.subset(2, 2));
+    assertThatIllegalArgumentException().isThrownBy(() -> base.subset(1, 4));
+  }
+
   //-------------------------------------------------------------------------
   @Test
   public void coverage() {
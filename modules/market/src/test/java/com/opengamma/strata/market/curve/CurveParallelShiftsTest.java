@@ -8,6 +8,7 @@ package com.opengamma.strata.market.curve;
 import static com.opengamma.strata.collect.TestHelper.coverBeanEquals;
 import static com.opengamma.strata.collect.TestHelper.coverImmutableBean;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 import org.junit.jupiter.api.Test;
 
@@ -59,6 +60,15 @@ public class CurveParallelShiftsTest {
   }
 
   //-------------------------------------------------------------------------
+  @Test
+  public void test_subset() {
+    CurveParallelShifts base = CurveParallelShifts.absolute(1d, 2d, 4d);
+    assertThat(base.subset(1, 3)).isEqualTo(CurveParallelShifts.absolute(2d, 4d));
+    assertThatIllegalArgumentException().isThrownBy(() -> base.subset(-1, 1));
+    assertThatIllegalArgumentException().isThrownBy(() -> base.subset(1, 1));
+    assertThatIllegalArgumentException().isThrownBy(() -> base.subset(2, 4));
+  }
+
   @Test
   public void coverage() {
     CurveParallelShifts test = CurveParallelShifts.absolute(1d, 2d, 4d);
@@ -9,6 +9,7 @@ import static com.opengamma.strata.collect.TestHelper.coverBeanEquals;
 import static com.opengamma.strata.collect.TestHelper.coverImmutableBean;
 import static com.opengamma.strata.collect.TestHelper.date;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 import java.util.List;
 
@@ -180,6 +181,28 @@ public class PointShiftsTest {
   }
 
   //-------------------------------------------------------------------------
+  @Test
+  public void subset() {
+    PointShifts shift = PointShifts.builder(ShiftType.ABSOLUTE)
+        .addShift(0, TNR_1M, 0.1)
+        .addShift(1, TNR_1M, 0.2)
+        .addShift(1, TNR_3M, 0.3)
+        .addShift(2, TNR_3M, 0.4)
+        .build();
+    PointShifts test = shift.subset(1, 3);
+    PointShifts expected = PointShifts.builder(ShiftType.ABSOLUTE)
+        .addShift(0, TNR_1M, 0.2)
+        .addShift(0, TNR_3M, 0.3)
+        .addShift(1, TNR_3M, 0.4)
+        .build();
+    assertThat(test.getScenarioCount()).isEqualTo(2);
+    assertThat(test.getShifts()).isEqualTo(expected.getShifts());
+    assertThat(test.getNodeIndices()).isEqualTo(shift.getNodeIndices());
+    assertThatIllegalArgumentException().isThrownBy(() -> shift.subset(-1, 2));
+    assertThatIllegalArgumentException().isThrownBy(() -> shift.subset(2, 1));
+    assertThatIllegalArgumentException().isThrownBy(() -> shift.subset(1, 4));
+  }
+
   @Test
   public void coverage() {
     PointShifts test = PointShifts.builder(ShiftType.RELATIVE)
@@ -169,6 +169,22 @@ public class MutablePointSensitivitiesTest {
     assertThat(test.getSensitivities()).containsExactly(CS1, CS2, CS3.withSensitivity(35d));
   }
 
+  @Test
+  public void test_normalize_multipleMerges() {
+    MutablePointSensitivities test = new MutablePointSensitivities();
+    test.addAll(Lists.newArrayList(CS3, CS2, CS1, CS3B, CS1, CS3, CS3B));
+    test.normalize();
+    assertThat(test.getSensitivities())
+        .containsExactly(CS1.withSensitivity(24d), CS2, CS3.withSensitivity(70d));
+  }
+
+  @Test
+  public void test_normalize_empty() {
+    MutablePointSensitivities test = new MutablePointSensitivities();
+    test.normalize();
+    assertThat(test.getSensitivities()).isEmpty();
+  }
+
   //-------------------------------------------------------------------------
   @Test
   public void test_toImmutable() {
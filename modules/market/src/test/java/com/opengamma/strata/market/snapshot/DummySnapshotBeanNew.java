@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.market.snapshot;
+
+import java.lang.invoke.MethodHandles;
+
+import org.joda.beans.ImmutableBean;
+import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.MetaBean;
+import org.joda.beans.TypedMetaBean;
+import org.joda.beans.gen.BeanDefinition;
+import org.joda.beans.gen.PropertyDefinition;
+import org.joda.beans.impl.light.LightMetaBean;
+
+/**
+ * A newer schema of a bean, used to test reading snapshots written before the bean changed.
+ */
+@BeanDefinition(style = "light")
+public final class DummySnapshotBeanNew implements ImmutableBean {
+
+  /**
+   * The name.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final String name;
+  /**
+   * The value.
+   */
+  @PropertyDefinition
+  private final double value;
+  /**
+   * The property that is added in the newer schema, null if read from an older snapshot.
+   */
+  @PropertyDefinition
+  private final String added;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   * 
+   * @param name  the name
+   * @param value  the value
+   * @param added  the added property
+   * @return the bean
+   */
+  public static DummySnapshotBeanNew of(String name, double value, String added) {
+    return new DummySnapshotBeanNew(name, value, added);
+  }
+
+  //------------------------- AUTOGENERATED START -------------------------
+  /**
+   * The meta-bean for {@code DummySnapshotBeanNew}.
+   */
+  private static final TypedMetaBean<DummySnapshotBeanNew> META_BEAN =
+      LightMetaBean.of(
+          DummySnapshotBeanNew.class,
+          MethodHandles.lookup(),
+          new String[] {
+              "name",
+              "value",
+              "added"},
+          new Object[0]);
+
+  /**
+   * The meta-bean for {@code DummySnapshotBeanNew}.
+   * @return the meta-bean, not null
+   */
+  public static TypedMetaBean<DummySnapshotBeanNew> meta() {
+    return META_BEAN;
+  }
+
+  static {
+    MetaBean.register(META_BEAN);
+  }
+
+  private DummySnapshotBeanNew(
+      String name,
+      double value,
+      String added) {
+    JodaBeanUtils.notNull(name, "name");
+    this.name = name;
+    this.value = value;
+    this.added = added;
+  }
+
+  @Override
+  public TypedMetaBean<DummySnapshotBeanNew> metaBean() {
+    return META_BEAN;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the name.
+   * @return the value of the property, not null
+   */
+  public String getName() {
+    return name;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the value.
+   * @return the value of the property
+   */
+  public double getValue() {
+    return value;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the property that is added in the newer schema, null if read from an older snapshot.
+   * @return the value of the property
+   */
+  public String getAdded() {
+    return added;
+  }
+
+  //-----------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj != null && obj.getClass() == this.getClass()) {
+      DummySnapshotBeanNew other = (DummySnapshotBeanNew) obj;
+      return JodaBeanUtils.equal(name, other.name) &&
+          JodaBeanUtils.equal(value, other.value) &&
+          JodaBeanUtils.equal(added, other.added);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = getClass().hashCode();
+    hash = hash * 31 + JodaBeanUtils.hashCode(name);
+    hash = hash * 31 + JodaBeanUtils.hashCode(value);
+    hash = hash * 31 + JodaBeanUtils.hashCode(added);
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder buf = new StringBuilder(128);
+    buf.append("DummySnapshotBeanNew{");
+    buf.append("name").append('=').append(JodaBeanUtils.toString(name)).append(',').append(' ');
+    buf.append("value").append('=').append(JodaBeanUtils.toString(value)).append(',').append(' ');
+    buf.append("added").append('=').append(JodaBeanUtils.toString(added));
+    buf.append('}');
+    return buf.toString();
+  }
+
+  //-------------------------- AUTOGENERATED END --------------------------
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.market.snapshot;
+
+import java.lang.invoke.MethodHandles;
+
+import org.joda.beans.ImmutableBean;
+import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.MetaBean;
+import org.joda.beans.TypedMetaBean;
+import org.joda.beans.gen.BeanDefinition;
+import org.joda.beans.gen.PropertyDefinition;
+import org.joda.beans.impl.light.LightMetaBean;
+
+/**
+ * An older schema of a bean, used to test reading snapshots written before the bean changed.
+ */
+@BeanDefinition(style = "light")
+public final class DummySnapshotBeanOld implements ImmutableBean {
+
+  /**
+   * The name.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final String name;
+  /**
+   * The value.
+   */
+  @PropertyDefinition
+  private final double value;
+  /**
+   * The property that is removed in the newer schema.
+   */
+  @PropertyDefinition
+  private final String removed;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   * 
+   * @param name  the name
+   * @param value  the value
+   * @param removed  the removed property
+   * @return the bean
+   */
+  public static DummySnapshotBeanOld of(String name, double value, String removed) {
+    return new DummySnapshotBeanOld(name, value, removed);
+  }
+
+  //------------------------- AUTOGENERATED START -------------------------
+  /**
+   * The meta-bean for {@code DummySnapshotBeanOld}.
+   */
+  private static final TypedMetaBean<DummySnapshotBeanOld> META_BEAN =
+      LightMetaBean.of(
+          DummySnapshotBeanOld.class,
+          MethodHandles.lookup(),
+          new String[] {
+              "name",
+              "value",
+              "removed"},
+          new Object[0]);
+
+  /**
+   * The meta-bean for {@code DummySnapshotBeanOld}.
+   * @return the meta-bean, not null
+   */
+  public static TypedMetaBean<DummySnapshotBeanOld> meta() {
+    return META_BEAN;
+  }
+
+  static {
+    MetaBean.register(META_BEAN);
+  }
+
+  private DummySnapshotBeanOld(
+      String name,
+      double value,
+      String removed) {
+    JodaBeanUtils.notNull(name, "name");
+    this.name = name;
+    this.value = value;
+    this.removed = removed;
+  }
+
+  @Override
+  public TypedMetaBean<DummySnapshotBeanOld> metaBean() {
+    return META_BEAN;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the name.
+   * @return the value of the property, not null
+   */
+  public String getName() {
+    return name;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the value.
+   * @return the value of the property
+   */
+  public double getValue() {
+    return value;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the property that is removed in the newer schema.
+   * @return the value of the property
+   */
+  public String getRemoved() {
+    return removed;
+  }
+
+  //-----------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj != null && obj.getClass() == this.getClass()) {
+      DummySnapshotBeanOld other = (DummySnapshotBeanOld) obj;
+      return JodaBeanUtils.equal(name, other.name) &&
+          JodaBeanUtils.equal(value, other.value) &&
+          JodaBeanUtils.equal(removed, other.removed);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = getClass().hashCode();
+    hash = hash * 31 + JodaBeanUtils.hashCode(name);
+    hash = hash * 31 + JodaBeanUtils.hashCode(value);
+    hash = hash * 31 + JodaBeanUtils.hashCode(removed);
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder buf = new StringBuilder(128);
+    buf.append("DummySnapshotBeanOld{");
+    buf.append("name").append('=').append(JodaBeanUtils.toString(name)).append(',').append(' ');
+    buf.append("value").append('=').append(JodaBeanUtils.toString(value)).append(',').append(' ');
+    buf.append("removed").append('=').append(JodaBeanUtils.toString(removed));
+    buf.append('}');
+    return buf.toString();
+  }
+
+  //-------------------------- AUTOGENERATED END --------------------------
+}
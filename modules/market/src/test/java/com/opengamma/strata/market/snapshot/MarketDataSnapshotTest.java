@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.market.snapshot;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.basics.date.DayCounts.ACT_365F;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static com.opengamma.strata.market.curve.interpolator.CurveInterpolators.LINEAR;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.joda.beans.Bean;
+import org.joda.beans.ser.JodaBeanSer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.io.ByteSource;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.market.curve.CurveName;
+import com.opengamma.strata.market.curve.Curves;
+import com.opengamma.strata.market.curve.InterpolatedNodalCurve;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
+import com.opengamma.strata.market.surface.DefaultSurfaceMetadata;
+import com.opengamma.strata.market.surface.InterpolatedNodalSurface;
+import com.opengamma.strata.market.surface.interpolator.GridSurfaceInterpolator;
+
+/**
+ * Test {@link MarketDataSnapshot} and {@link MarketDataSnapshotWriter}.
+ */
+public class MarketDataSnapshotTest {
+
+  private static final int SIZE = 50;
+  private static final DoubleArray TIMES = DoubleArray.of(SIZE, i -> 0.25 * (i + 1));
+  private static final InterpolatedNodalCurve CURVE_USD = InterpolatedNodalCurve.of(
+      Curves.zeroRates(CurveName.of("USD-Disc"), ACT_365F),
+      TIMES,
+      DoubleArray.of(SIZE, i -> 0.01 + 0.0001 * i),
+      LINEAR);
+  private static final InterpolatedNodalCurve CURVE_EUR = InterpolatedNodalCurve.of(
+      Curves.zeroRates(CurveName.of("EUR-Disc"), ACT_365F),
+      TIMES,
+      DoubleArray.of(SIZE, i -> 0.005 + 0.0002 * i),
+      LINEAR);
+  private static final InterpolatedNodalSurface SURFACE = InterpolatedNodalSurface.of(
+      DefaultSurfaceMetadata.of("Vols"),
+      DoubleArray.of(0d, 0d, 0d, 2d, 2d, 2d, 4d, 4d, 4d),
+      DoubleArray.of(0d, 3d, 4d, 0d, 3d, 4d, 0d, 3d, 4d),
+      DoubleArray.of(0.2, 0.21, 0.22, 0.19, 0.2, 0.21, 0.18, 0.19, 0.2),
+      GridSurfaceInterpolator.of(LINEAR, LINEAR));
+  private static final CurrencyParameterSensitivities SENSITIVITIES = CurrencyParameterSensitivities.of(
+      CurrencyParameterSensitivity.of(CURVE_USD.getName(), USD, DoubleArray.of(SIZE, i -> 100d * i)),
+      CurrencyParameterSensitivity.of(CURVE_EUR.getName(), EUR, DoubleArray.of(SIZE, i -> -50d * i)));
+  private static final LocalDateDoubleTimeSeries SERIES = LocalDateDoubleTimeSeries.builder()
+      .put(date(2020, 1, 2), 0.011)
+      .put(date(2020, 1, 3), 0.012)
+      .put(date(2020, 1, 6), 0.013)
+      .build();
+
+  private static Map<String, Bean> values() {
+    Map<String, Bean> values = new LinkedHashMap<>();
+    values.put("USD-Disc", CURVE_USD);
+    values.put("EUR-Disc", CURVE_EUR);
+    values.put("Vols", SURFACE);
+    values.put("Sensitivities", SENSITIVITIES);
+    values.put("Fixings", (Bean) SERIES);
+    return values;
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_roundTrip_file(@TempDir Path tempDir) {
+    Path file = tempDir.resolve("snapshot.bin");
+    MarketDataSnapshotWriter.write(file, values());
+
+    MarketDataSnapshot test = MarketDataSnapshot.read(file);
+    assertThat(test.size()).isEqualTo(5);
+    assertThat(test.keys()).containsExactly("USD-Disc", "EUR-Disc", "Vols", "Sensitivities", "Fixings");
+    assertThat(test.contains("Vols")).isTrue();
+    assertThat(test.contains("GBP-Disc")).isFalse();
+    assertThat(test.get("USD-Disc", InterpolatedNodalCurve.class)).isEqualTo(CURVE_USD);
+    assertThat(test.get("EUR-Disc", InterpolatedNodalCurve.class)).isEqualTo(CURVE_EUR);
+    assertThat(test.get("Vols", InterpolatedNodalSurface.class)).isEqualTo(SURFACE);
+    assertThat(test.get("Sensitivities", CurrencyParameterSensitivities.class)).isEqualTo(SENSITIVITIES);
+    assertThat(test.get("Fixings", LocalDateDoubleTimeSeries.class)).isEqualTo(SERIES);
+    assertThat(test.find("GBP-Disc", InterpolatedNodalCurve.class)).isEmpty();
+    assertThat(test.toString()).isEqualTo("MarketDataSnapshot[size=5]");
+  }
+
+  @Test
+  public void test_roundTrip_stream() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (MarketDataSnapshotWriter writer = MarketDataSnapshotWriter.of(out)) {
+      writer.write("USD-Disc", CURVE_USD).write("Vols", SURFACE);
+    }
+    MarketDataSnapshot test = MarketDataSnapshot.of(ByteSource.wrap(out.toByteArray()));
+    assertThat(test.keys()).containsExactly("USD-Disc", "Vols");
+    InterpolatedNodalCurve curve = test.get("USD-Disc", InterpolatedNodalCurve.class);
+    assertThat(curve).isEqualTo(CURVE_USD);
+    // cached after first access
+    assertThat(test.get("USD-Disc", InterpolatedNodalCurve.class)).isSameAs(curve);
+  }
+
+  @Test
+  public void test_empty() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MarketDataSnapshotWriter.of(out).close();
+    MarketDataSnapshot test = MarketDataSnapshot.of(ByteSource.wrap(out.toByteArray()));
+    assertThat(test.size()).isEqualTo(0);
+    assertThat(test.keys()).isEmpty();
+  }
+
+  @Test
+  public void test_smallerThanXml() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (MarketDataSnapshotWriter writer = MarketDataSnapshotWriter.of(out)) {
+      writer.write("Sensitivities", SENSITIVITIES);
+    }
+    String xml = JodaBeanSer.COMPACT.xmlWriter().write(SENSITIVITIES);
+    assertThat(out.size()).isLessThan(xml.getBytes(StandardCharsets.UTF_8).length / 2);
+  }
+
+  @Test
+  public void test_read_olderSchema(@TempDir Path tempDir) throws Exception {
+    // simulate a bean changing after the snapshot was written by renaming the type in the binary form
+    // the names have the same length, thus the offsets in the index remain valid
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (MarketDataSnapshotWriter writer = MarketDataSnapshotWriter.of(out)) {
+      writer.write("USD-Disc", CURVE_USD).write("Bean", DummySnapshotBeanOld.of("Test", 1.5d, "Removed"));
+    }
+    byte[] bytes = replace(
+        out.toByteArray(), DummySnapshotBeanOld.class.getName(), DummySnapshotBeanNew.class.getName());
+    Path file = tempDir.resolve("older.bin");
+    Files.write(file, bytes);
+
+    MarketDataSnapshot test = MarketDataSnapshot.read(file);
+    DummySnapshotBeanNew bean = test.get("Bean", DummySnapshotBeanNew.class);
+    assertThat(bean.getName()).isEqualTo("Test");
+    assertThat(bean.getValue()).isEqualTo(1.5d);
+    assertThat(bean.getAdded()).isNull();
+    assertThat(test.get("USD-Disc", InterpolatedNodalCurve.class)).isEqualTo(CURVE_USD);
+  }
+
+  // replaces every occurrence of the text in the bytes, the texts must have the same length
+  private static byte[] replace(byte[] bytes, String text, String replacement) {
+    byte[] search = text.getBytes(StandardCharsets.UTF_8);
+    byte[] replace = replacement.getBytes(StandardCharsets.UTF_8);
+    assertThat(replace).hasSameSizeAs(search);
+    byte[] result = bytes.clone();
+    int count = 0;
+    for (int i = 0; i <= result.length - search.length; i++) {
+      if (Arrays.equals(Arrays.copyOfRange(result, i, i + search.length), search)) {
+        System.arraycopy(replace, 0, result, i, replace.length);
+        count++;
+      }
+    }
+    assertThat(count).isPositive();
+    return result;
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_write_duplicateKey() {
+    MarketDataSnapshotWriter writer = MarketDataSnapshotWriter.of(new ByteArrayOutputStream());
+    writer.write("USD-Disc", CURVE_USD);
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> writer.write("USD-Disc", CURVE_EUR))
+        .withMessageContaining("USD-Disc");
+  }
+
+  @Test
+  public void test_write_closed() {
+    MarketDataSnapshotWriter writer = MarketDataSnapshotWriter.of(new ByteArrayOutputStream());
+    writer.close();
+    writer.close();
+    assertThatIllegalStateException().isThrownBy(() -> writer.write("USD-Disc", CURVE_USD));
+  }
+
+  @Test
+  public void test_get_missingKey() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (MarketDataSnapshotWriter writer = MarketDataSnapshotWriter.of(out)) {
+      writer.write("USD-Disc", CURVE_USD);
+    }
+    MarketDataSnapshot test = MarketDataSnapshot.of(ByteSource.wrap(out.toByteArray()));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> test.get("EUR-Disc", InterpolatedNodalCurve.class))
+        .withMessageContaining("EUR-Disc");
+  }
+
+  @Test
+  public void test_read_invalid(@TempDir Path tempDir) throws Exception {
+    Path file = tempDir.resolve("invalid.bin");
+    Files.write(file, "Not a snapshot at all".getBytes(StandardCharsets.UTF_8));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> MarketDataSnapshot.read(file))
+        .withMessageContaining("magic number");
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> MarketDataSnapshot.of(ByteSource.wrap(new byte[4])))
+        .withMessageContaining("too short");
+  }
+
+  @Test
+  public void test_read_truncated() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (MarketDataSnapshotWriter writer = MarketDataSnapshotWriter.of(out)) {
+      writer.write("USD-Disc", CURVE_USD);
+    }
+    byte[] bytes = out.toByteArray();
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> MarketDataSnapshot.of(ByteSource.wrap(Arrays.copyOf(bytes, bytes.length - 20))));
+  }
+
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.differentiation;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * A double value that records the operations applied to it for algorithmic differentiation.
+ * <p>
+ * An active value is created as an input of a {@link Tape}, or as the result of an operation
+ * on other active values. Each operation records a node on the tape, allowing the derivatives
+ * of the result with respect to the inputs to be obtained by a reverse sweep of the tape.
+ * <p>
+ * A constant is a value that is not recorded on a tape, see {@link #constant(double)}.
+ * Operations that only involve constants are not recorded, and produce a constant.
+ * <p>
+ * This class is immutable. The tape it is recorded on is not thread-safe, thus operations on
+ * active values recorded on the same tape must be performed by a single thread.
+ */
+public final class ActiveDouble {
+
+  /**
+   * The constant zero.
+   */
+  public static final ActiveDouble ZERO = constant(0d);
+  /**
+   * The constant one.
+   */
+  public static final ActiveDouble ONE = constant(1d);
+
+  /**
+   * The tape the value is recorded on, null if constant.
+   */
+  private final Tape tape;
+  /**
+   * The index of the node on the tape, -1 if constant.
+   */
+  private final int index;
+  /**
+   * The value.
+   */
+  private final double value;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains a constant, which is not recorded on a tape.
+   *
+   * @param value  the value
+   * @return the constant
+   */
+  public static ActiveDouble constant(double value) {
+    return new ActiveDouble(null, -1, value);
+  }
+
+  // creates an instance, used by the tape
+  ActiveDouble(Tape tape, int index, double value) {
+    this.tape = tape;
+    this.index = index;
+    this.value = value;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the value.
+   *
+   * @return the value
+   */
+  public double getValue() {
+    return value;
+  }
+
+  /**
+   * Checks if the value is recorded on a tape.
+   *
+   * @return true if active, false if constant
+   */
+  public boolean isActive() {
+    return tape != null;
+  }
+
+  // the tape, null if constant
+  Tape getTape() {
+    return tape;
+  }
+
+  // the index on the tape, -1 if constant
+  int getIndex() {
+    return index;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the sum of this value and the other value.
+   *
+   * @param other  the other value
+   * @return the sum
+   */
+  public ActiveDouble plus(ActiveDouble other) {
+    return binary(value + other.value, 1d, other, 1d);
+  }
+
+  /**
+   * Returns the sum of this value and the specified amount.
+   *
+   * @param amount  the amount
+   * @return the sum
+   */
+  public ActiveDouble plus(double amount) {
+    return unary(value + amount, 1d);
+  }
+
+  /**
+   * Returns the difference of this value and the other value.
+   *
+   * @param other  the other value
+   * @return the difference
+   */
+  public ActiveDouble minus(ActiveDouble other) {
+    return binary(value - other.value, 1d, other, -1d);
+  }
+
+  /**
+   * Returns the difference of this value and the specified amount.
+   *
+   * @param amount  the amount
+   * @return the difference
+   */
+  public ActiveDouble minus(double amount) {
+    return unary(value - amount, 1d);
+  }
+
+  /**
+   * Returns the product of this value and the other value.
+   *
+   * @param other  the other value
+   * @return the product
+   */
+  public ActiveDouble multipliedBy(ActiveDouble other) {
+    return binary(value * other.value, other.value, other, value);
+  }
+
+  /**
+   * Returns the product of this value and the specified factor.
+   *
+   * @param factor  the factor
+   * @return the product
+   */
+  public ActiveDouble multipliedBy(double factor) {
+    return unary(value * factor, factor);
+  }
+
+  /**
+   * Returns the quotient of this value and the other value.
+   *
+   * @param other  the other value
+   * @return the quotient
+   */
+  public ActiveDouble dividedBy(ActiveDouble other) {
+    double result = value / other.value;
+    return binary(result, 1d / other.value, other, -result / other.value);
+  }
+
+  /**
+   * Returns the quotient of this value and the specified divisor.
+   *
+   * @param divisor  the divisor
+   * @return the quotient
+   */
+  public ActiveDouble dividedBy(double divisor) {
+    return unary(value / divisor, 1d / divisor);
+  }
+
+  /**
+   * Returns the negation of this value.
+   *
+   * @return the negated value
+   */
+  public ActiveDouble negated() {
+    return unary(-value, -1d);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the exponential of this value.
+   *
+   * @return the exponential
+   */
+  public ActiveDouble exp() {
+    double result = Math.exp(value);
+    return unary(result, result);
+  }
+
+  /**
+   * Returns the natural logarithm of this value.
+   *
+   * @return the logarithm
+   */
+  public ActiveDouble log() {
+    return unary(Math.log(value), 1d / value);
+  }
+
+  /**
+   * Returns the square root of this value.
+   *
+   * @return the square root
+   */
+  public ActiveDouble sqrt() {
+    double result = Math.sqrt(value);
+    return unary(result, 0.5 / result);
+  }
+
+  /**
+   * Returns this value raised to the specified power.
+   *
+   * @param power  the power
+   * @return the value raised to the power
+   */
+  public ActiveDouble pow(double power) {
+    double result = Math.pow(value, power);
+    return unary(result, power * Math.pow(value, power - 1d));
+  }
+
+  /**
+   * Returns the maximum of this value and the specified amount.
+   * <p>
+   * Where the two are equal, the derivative is that of this value.
+   *
+   * @param amount  the amount
+   * @return the maximum
+   */
+  public ActiveDouble max(double amount) {
+    return value >= amount ? this : constant(amount);
+  }
+
+  /**
+   * Returns the maximum of this value and the other value.
+   * <p>
+   * Where the two are equal, the derivative is that of this value.
+   *
+   * @param other  the other value
+   * @return the maximum
+   */
+  public ActiveDouble max(ActiveDouble other) {
+    return value >= other.value ? this : other;
+  }
+
+  /**
+   * Returns the result of a function of this value.
+   * <p>
+   * This allows any differentiable function to be applied, such as a cumulative distribution function,
+   * given the value of the function and its first derivative at this value.
+   *
+   * @param result  the value of the function at this value
+   * @param derivative  the first derivative of the function at this value
+   * @return the result of the function
+   */
+  public ActiveDouble function(double result, double derivative) {
+    return unary(result, derivative);
+  }
+
+  //-------------------------------------------------------------------------
+  // records the result of a function of this value
+  private ActiveDouble unary(double result, double partial) {
+    if (tape == null) {
+      return constant(result);
+    }
+    return new ActiveDouble(tape, tape.record(index, partial), result);
+  }
+
+  // records the result of a function of this value and the other value
+  private ActiveDouble binary(double result, double partial, ActiveDouble other, double otherPartial) {
+    if (other.tape == null) {
+      return unary(result, partial);
+    }
+    if (tape == null) {
+      return other.unary(result, otherPartial);
+    }
+    ArgChecker.isTrue(tape == other.tape, "Values must be recorded on the same tape");
+    return new ActiveDouble(tape, tape.record(index, partial, other.index, otherPartial), result);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return isActive() ? "ActiveDouble[" + value + ", node=" + index + "]" : "ActiveDouble[" + value + "]";
+  }
+
+}
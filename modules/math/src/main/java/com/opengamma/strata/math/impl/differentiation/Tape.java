@@ -0,0 +1,388 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.differentiation;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * The tape used to record operations for reverse-mode algorithmic differentiation.
+ * <p>
+ * Each operation on an active {@link ActiveDouble} records a node on the tape, holding the indices of
+ * its arguments and the partial derivatives with respect to them. The derivatives of an output with respect
+ * to every input are then obtained by a single reverse sweep of the tape, whose cost is a small multiple
+ * of the cost of computing the output, independent of the number of inputs.
+ * <p>
+ * A tape is typically started for the current thread using try-with-resources:
+ * <pre>
+ *  try (Tape tape = Tape.start()) {
+ *    ActiveDouble x = tape.input(2d);
+ *    ActiveDouble y = x.multipliedBy(x).exp();
+ *    DoubleArray dydx = tape.gradient(y, x);
+ *  }
+ * </pre>
+ * Each thread has its own current tape, see {@link #current()}, thus calculations on different
+ * threads can be differentiated independently. A tape must only be used by a single thread.
+ * <p>
+ * Checkpointing allows the memory used by the tape to be bounded. The section of the tape recorded since a mark
+ * can be replaced by a single node holding the derivatives of its outputs with respect to the earlier nodes,
+ * see {@link #checkpoint(int, List)}. Alternatively, the tape can be rewound to a mark once the derivatives
+ * of a section are no longer needed, see {@link #rewind(int)}.
+ */
+public final class Tape implements AutoCloseable {
+
+  /**
+   * The tape of each thread.
+   */
+  private static final ThreadLocal<Tape> CURRENT = new ThreadLocal<>();
+  /**
+   * The initial capacity of the tape.
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * The tape that was current when this tape was started, null if none.
+   */
+  private final Tape previous;
+  /**
+   * The start of the arguments of each node, with an extra element marking the end of the last node.
+   */
+  private int[] argStarts = new int[INITIAL_CAPACITY + 1];
+  /**
+   * The index of the node of each argument.
+   */
+  private int[] args = new int[INITIAL_CAPACITY * 2];
+  /**
+   * The partial derivative with respect to each argument.
+   */
+  private double[] partials = new double[INITIAL_CAPACITY * 2];
+  /**
+   * The number of nodes.
+   */
+  private int size;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Starts a new tape, making it the current tape of this thread.
+   * <p>
+   * The tape must be closed when no longer needed, which restores the tape that was
+   * previously current, if any. It is recommended to use try-with-resources.
+   *
+   * @return the tape
+   */
+  public static Tape start() {
+    Tape tape = new Tape(CURRENT.get());
+    CURRENT.set(tape);
+    return tape;
+  }
+
+  /**
+   * Gets the current tape of this thread.
+   *
+   * @return the tape
+   * @throws IllegalStateException if no tape has been started on this thread
+   */
+  public static Tape current() {
+    Tape tape = CURRENT.get();
+    if (tape == null) {
+      throw new IllegalStateException("No tape has been started on this thread");
+    }
+    return tape;
+  }
+
+  /**
+   * Finds the current tape of this thread.
+   *
+   * @return the tape, empty if no tape has been started on this thread
+   */
+  public static Optional<Tape> findCurrent() {
+    return Optional.ofNullable(CURRENT.get());
+  }
+
+  // restricted constructor
+  private Tape(Tape previous) {
+    this.previous = previous;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates an input of the differentiation.
+   * <p>
+   * The derivatives of outputs with respect to the input can be obtained from the tape.
+   *
+   * @param value  the value of the input
+   * @return the input
+   */
+  public ActiveDouble input(double value) {
+    return new ActiveDouble(this, record(), value);
+  }
+
+  /**
+   * Creates inputs of the differentiation.
+   *
+   * @param values  the values of the inputs
+   * @return the inputs
+   */
+  public List<ActiveDouble> inputs(DoubleArray values) {
+    ImmutableList.Builder<ActiveDouble> builder = ImmutableList.builder();
+    for (int i = 0; i < values.size(); i++) {
+      builder.add(input(values.get(i)));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Gets the number of nodes recorded on the tape.
+   *
+   * @return the number of nodes
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Marks the current position of the tape.
+   * <p>
+   * The mark can be used to checkpoint or rewind the nodes recorded after this point.
+   *
+   * @return the mark
+   */
+  public int mark() {
+    return size;
+  }
+
+  /**
+   * Rewinds the tape to the mark, discarding the nodes recorded after it.
+   * <p>
+   * Values created after the mark must not be used once the tape has been rewound.
+   *
+   * @param mark  the mark
+   */
+  public void rewind(int mark) {
+    ArgChecker.inRangeInclusive(mark, 0, size, "mark");
+    size = mark;
+  }
+
+  /**
+   * Replaces the section of the tape recorded after the mark by a single node for each output.
+   * <p>
+   * The derivatives of each output with respect to the nodes recorded before the mark are obtained
+   * by a reverse sweep of the section, which is then discarded. Each output is recorded again with
+   * these derivatives, thus the derivatives obtained from the tape are unchanged, but the memory used by
+   * the section is released. This is effective when a section records many intermediate nodes,
+   * but depends on few earlier nodes, such as the calculation of model parameters from market data.
+   * <p>
+   * Values created after the mark, other than the returned outputs, must not be used once checkpointed.
+   *
+   * @param mark  the mark
+   * @param outputs  the outputs of the section
+   * @return the outputs, recorded as a single node each
+   */
+  public List<ActiveDouble> checkpoint(int mark, List<ActiveDouble> outputs) {
+    ArgChecker.inRangeInclusive(mark, 0, size, "mark");
+    List<Map<Integer, Double>> jacobian = outputs.stream()
+        .map(output -> sectionDerivatives(mark, output))
+        .collect(toImmutableList());
+    size = mark;
+    ImmutableList.Builder<ActiveDouble> builder = ImmutableList.builder();
+    for (int i = 0; i < outputs.size(); i++) {
+      ActiveDouble output = outputs.get(i);
+      if (!output.isActive() || output.getIndex() < mark) {
+        builder.add(output);
+      } else {
+        builder.add(new ActiveDouble(this, record(jacobian.get(i)), output.getValue()));
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Replaces the section of the tape recorded after the mark by a single node for the output.
+   * <p>
+   * See {@link #checkpoint(int, List)}.
+   *
+   * @param mark  the mark
+   * @param output  the output of the section
+   * @return the output, recorded as a single node
+   */
+  public ActiveDouble checkpoint(int mark, ActiveDouble output) {
+    return checkpoint(mark, ImmutableList.of(output)).get(0);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the derivatives of the output with respect to the inputs.
+   * <p>
+   * This performs a single reverse sweep of the tape.
+   * The derivative with respect to an input that the output does not depend on is zero.
+   *
+   * @param output  the output
+   * @param inputs  the inputs
+   * @return the derivatives of the output with respect to each input
+   */
+  public DoubleArray gradient(ActiveDouble output, List<ActiveDouble> inputs) {
+    double[] adjoints = adjoints(output);
+    double[] gradient = new double[inputs.size()];
+    for (int i = 0; i < gradient.length; i++) {
+      ActiveDouble input = inputs.get(i);
+      if (input.isActive()) {
+        ArgChecker.isTrue(input.getTape() == this, "Input was not recorded on this tape");
+        int index = input.getIndex();
+        gradient[i] = index < adjoints.length ? adjoints[index] : 0d;
+      }
+    }
+    return DoubleArray.ofUnsafe(gradient);
+  }
+
+  /**
+   * Computes the derivatives of the output with respect to the inputs.
+   * <p>
+   * This performs a single reverse sweep of the tape.
+   *
+   * @param output  the output
+   * @param inputs  the inputs
+   * @return the derivatives of the output with respect to each input
+   */
+  public DoubleArray gradient(ActiveDouble output, ActiveDouble... inputs) {
+    return gradient(output, Arrays.asList(inputs));
+  }
+
+  // the adjoint of each node up to the output
+  private double[] adjoints(ActiveDouble output) {
+    if (!output.isActive()) {
+      return new double[0];
+    }
+    ArgChecker.isTrue(output.getTape() == this, "Output was not recorded on this tape");
+    int outputIndex = output.getIndex();
+    ArgChecker.isTrue(outputIndex < size, "Output was discarded by rewinding the tape");
+    double[] adjoints = new double[outputIndex + 1];
+    adjoints[outputIndex] = 1d;
+    for (int node = outputIndex; node >= 0; node--) {
+      double adjoint = adjoints[node];
+      if (adjoint != 0d) {
+        for (int k = argStarts[node]; k < argStarts[node + 1]; k++) {
+          adjoints[args[k]] += adjoint * partials[k];
+        }
+      }
+    }
+    return adjoints;
+  }
+
+  // the derivatives of the output with respect to the nodes before the mark, keyed by node
+  private Map<Integer, Double> sectionDerivatives(int mark, ActiveDouble output) {
+    Map<Integer, Double> derivatives = new LinkedHashMap<>();
+    if (!output.isActive() || output.getIndex() < mark) {
+      return derivatives;
+    }
+    ArgChecker.isTrue(output.getTape() == this, "Output was not recorded on this tape");
+    int outputIndex = output.getIndex();
+    double[] adjoints = new double[outputIndex + 1 - mark];
+    adjoints[outputIndex - mark] = 1d;
+    for (int node = outputIndex; node >= mark; node--) {
+      double adjoint = adjoints[node - mark];
+      if (adjoint != 0d) {
+        for (int k = argStarts[node]; k < argStarts[node + 1]; k++) {
+          int arg = args[k];
+          if (arg >= mark) {
+            adjoints[arg - mark] += adjoint * partials[k];
+          } else {
+            derivatives.merge(arg, adjoint * partials[k], Double::sum);
+          }
+        }
+      }
+    }
+    return derivatives;
+  }
+
+  //-------------------------------------------------------------------------
+  // records a node with no arguments
+  int record() {
+    ensureCapacity(0);
+    argStarts[size + 1] = argStarts[size];
+    return size++;
+  }
+
+  // records a node with one argument
+  int record(int arg, double partial) {
+    ensureCapacity(1);
+    int start = argStarts[size];
+    args[start] = arg;
+    partials[start] = partial;
+    argStarts[size + 1] = start + 1;
+    return size++;
+  }
+
+  // records a node with two arguments
+  int record(int arg1, double partial1, int arg2, double partial2) {
+    ensureCapacity(2);
+    int start = argStarts[size];
+    args[start] = arg1;
+    partials[start] = partial1;
+    args[start + 1] = arg2;
+    partials[start + 1] = partial2;
+    argStarts[size + 1] = start + 2;
+    return size++;
+  }
+
+  // records a node with the arguments and partial derivatives in the map
+  private int record(Map<Integer, Double> derivatives) {
+    ensureCapacity(derivatives.size());
+    int start = argStarts[size];
+    int k = start;
+    for (Map.Entry<Integer, Double> entry : derivatives.entrySet()) {
+      args[k] = entry.getKey();
+      partials[k] = entry.getValue();
+      k++;
+    }
+    argStarts[size + 1] = k;
+    return size++;
+  }
+
+  // ensures there is space for a node with the number of arguments
+  private void ensureCapacity(int argCount) {
+    if (size + 2 > argStarts.length) {
+      argStarts = Arrays.copyOf(argStarts, argStarts.length * 2);
+    }
+    int required = argStarts[size] + argCount;
+    if (required > args.length) {
+      int capacity = Math.max(required, args.length * 2);
+      args = Arrays.copyOf(args, capacity);
+      partials = Arrays.copyOf(partials, capacity);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Closes the tape, restoring the tape that was current when it was started.
+   * <p>
+   * The tape must be closed on the thread that started it.
+   */
+  @Override
+  public void close() {
+    if (CURRENT.get() == this) {
+      if (previous != null) {
+        CURRENT.set(previous);
+      } else {
+        CURRENT.remove();
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Tape[size=" + size + "]";
+  }
+
+}
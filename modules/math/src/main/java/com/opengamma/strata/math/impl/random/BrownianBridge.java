@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Brownian bridge construction of a Brownian motion path from standard normal numbers.
+ * <p>
+ * The first normal number determines the value at the last time. Each subsequent number determines
+ * the value at the time midway between two times that are already known, conditional on those values.
+ * The path has the same distribution as the incremental construction, but the largest scale movements
+ * depend on the first numbers. Used with the {@link SobolSequenceGenerator}, whose first dimensions
+ * are the most evenly distributed, this greatly reduces the effective dimension of a simulation.
+ * <p>
+ * Reference: Jaeckel, P. "Monte Carlo Methods in Finance", Wiley, 2002.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class BrownianBridge {
+
+  /**
+   * The times.
+   */
+  private final DoubleArray times;
+  /**
+   * The index of the time determined by each normal number.
+   */
+  private final int[] bridgeIndex;
+  /**
+   * The index of the first time of the range in which the time is, the left neighbour being the time before.
+   */
+  private final int[] leftIndex;
+  /**
+   * The index of the right neighbour of the range in which the time is, the time after the range.
+   */
+  private final int[] rightIndex;
+  /**
+   * The weight of the value at the left neighbour.
+   */
+  private final double[] leftWeight;
+  /**
+   * The weight of the value at the right neighbour.
+   */
+  private final double[] rightWeight;
+  /**
+   * The standard deviation conditional on the neighbours.
+   */
+  private final double[] stdDev;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance for the specified times.
+   * <p>
+   * The path starts at zero at time zero.
+   * The times must be strictly positive and strictly increasing.
+   *
+   * @param times  the times
+   * @return the Brownian bridge
+   */
+  public static BrownianBridge of(DoubleArray times) {
+    ArgChecker.isTrue(times.size() > 0, "Times must not be empty");
+    ArgChecker.isTrue(times.get(0) > 0, "Times must be strictly positive");
+    for (int i = 1; i < times.size(); i++) {
+      ArgChecker.isTrue(times.get(i) > times.get(i - 1), "Times must be strictly increasing");
+    }
+    return new BrownianBridge(times);
+  }
+
+  /**
+   * Obtains an instance for equally spaced times.
+   *
+   * @param timeToExpiry  the time of the last step
+   * @param stepCount  the number of steps
+   * @return the Brownian bridge
+   */
+  public static BrownianBridge ofEquallySpaced(double timeToExpiry, int stepCount) {
+    ArgChecker.notNegativeOrZero(timeToExpiry, "timeToExpiry");
+    ArgChecker.notNegativeOrZero(stepCount, "stepCount");
+    return of(DoubleArray.of(stepCount, i -> timeToExpiry * (i + 1) / stepCount));
+  }
+
+  // restricted constructor
+  private BrownianBridge(DoubleArray times) {
+    int size = times.size();
+    double[] t = times.toArrayUnsafe();
+    this.times = times;
+    this.bridgeIndex = new int[size];
+    this.leftIndex = new int[size];
+    this.rightIndex = new int[size];
+    this.leftWeight = new double[size];
+    this.rightWeight = new double[size];
+    this.stdDev = new double[size];
+    // whether the value at each time is known
+    boolean[] populated = new boolean[size];
+    populated[size - 1] = true;
+    bridgeIndex[0] = size - 1;
+    stdDev[0] = Math.sqrt(t[size - 1]);
+    int j = 0;
+    for (int i = 1; i < size; i++) {
+      // find the next range of times not yet populated, from j to k - 1
+      while (populated[j]) {
+        j = j + 1 < size ? j + 1 : 0;
+      }
+      int k = j;
+      while (!populated[k]) {
+        k++;
+      }
+      // the middle of the range
+      int l = j + ((k - 1 - j) >> 1);
+      populated[l] = true;
+      bridgeIndex[i] = l;
+      leftIndex[i] = j;
+      rightIndex[i] = k;
+      double leftTime = j == 0 ? 0d : t[j - 1];
+      leftWeight[i] = (t[k] - t[l]) / (t[k] - leftTime);
+      rightWeight[i] = (t[l] - leftTime) / (t[k] - leftTime);
+      stdDev[i] = Math.sqrt((t[l] - leftTime) * (t[k] - t[l]) / (t[k] - leftTime));
+      j = k + 1;
+      if (j >= size) {
+        j = 0;
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the times.
+   *
+   * @return the times
+   */
+  public DoubleArray getTimes() {
+    return times;
+  }
+
+  /**
+   * Gets the number of times, which is the number of normal numbers required for each path.
+   *
+   * @return the number of times
+   */
+  public int size() {
+    return times.size();
+  }
+
+  /**
+   * Constructs the path.
+   * <p>
+   * The normal numbers are read from the specified offset, allowing a block of points
+   * from {@link SobolSequenceGenerator#fill(double[])} to be used directly.
+   * The path is the value of the Brownian motion at each time.
+   *
+   * @param normals  the standard normal numbers
+   * @param offset  the index of the first normal number to use
+   * @param path  the array to populate with the path, the same size as the number of times
+   */
+  public void path(double[] normals, int offset, double[] path) {
+    int size = times.size();
+    ArgChecker.isTrue(path.length == size, "Path size {} must match number of times {}", path.length, size);
+    ArgChecker.isTrue(offset >= 0 && offset + size <= normals.length, "Insufficient normal numbers");
+    path[size - 1] = stdDev[0] * normals[offset];
+    for (int i = 1; i < size; i++) {
+      int j = leftIndex[i];
+      int k = rightIndex[i];
+      int l = bridgeIndex[i];
+      double left = j == 0 ? 0d : leftWeight[i] * path[j - 1];
+      path[l] = left + rightWeight[i] * path[k] + stdDev[i] * normals[offset + i];
+    }
+  }
+
+  /**
+   * Constructs the path.
+   * <p>
+   * The path is the value of the Brownian motion at each time.
+   *
+   * @param normals  the standard normal numbers, the same size as the number of times
+   * @return the path
+   */
+  public DoubleArray path(DoubleArray normals) {
+    ArgChecker.isTrue(
+        normals.size() == times.size(), "Normals size {} must match number of times {}", normals.size(), times.size());
+    double[] path = new double[times.size()];
+    path(normals.toArrayUnsafe(), 0, path);
+    return DoubleArray.ofUnsafe(path);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "BrownianBridge[times=" + times + "]";
+  }
+
+}
@@ -29,4 +29,17 @@ public interface RandomNumberGenerator {
    */
   public abstract List<double[]> getVectors(int arraySize, int listSize);
 
+  /**
+   * Fills an array with random numbers.
+   * <p>
+   * This is equivalent to {@link #getVector(int)} with the size of the array,
+   * allowing the array to be reused for each block of random numbers.
+   * 
+   * @param array  the array to fill
+   */
+  public default void fill(double[] array) {
+    double[] vector = getVector(array.length);
+    System.arraycopy(vector, 0, array, 0, array.length);
+  }
+
 }
@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.math.impl.cern.Probability;
+
+/**
+ * Generator of the Sobol low-discrepancy sequence, for quasi-Monte Carlo simulation.
+ * <p>
+ * Each point of the sequence has a fixed dimension, typically the number of time steps multiplied by the
+ * number of risk factors. The points fill the unit hypercube more evenly than pseudo-random numbers,
+ * thus the error of a simulation typically falls faster with the number of points.
+ * The numbers are either uniform, strictly between zero and one, or mapped to standard normal numbers
+ * using the inverse cumulative distribution. When the normal numbers drive a Brownian motion,
+ * construct the path using {@link BrownianBridge} so that the first dimensions, which are the most evenly
+ * distributed, determine the largest scale movements of the path.
+ * <p>
+ * The points are generated in Gray code order using the method of Antonov and Saleev.
+ * The first point, which is zero in all dimensions, is skipped.
+ * The primitive polynomials are enumerated in order of degree, and the initial direction numbers
+ * follow Joe and Kuo. The dimension is limited to those for which the direction numbers are tabulated.
+ * As each point can be computed directly, the generator can skip ahead by any number of points,
+ * allowing blocks of points to be generated in parallel.
+ * <p>
+ * This class is mutable and not thread-safe.
+ */
+public final class SobolSequenceGenerator
+    implements RandomNumberGenerator {
+
+  /**
+   * The maximum dimension, being the first dimension and those with initial direction numbers.
+   */
+  public static final int MAX_DIMENSION = 21;
+  /**
+   * The number of bits in each direction number.
+   */
+  private static final int BITS = 32;
+  /**
+   * The scale to convert 32 bits to a double.
+   */
+  private static final double SCALE = 0x1.0p-32;
+  /**
+   * The maximum number of points.
+   */
+  private static final long MAX_INDEX = (1L << BITS) - 1;
+  /**
+   * The initial direction numbers of the dimensions after the first, from Joe and Kuo.
+   */
+  private static final int[][] INITIAL_DIRECTIONS = {
+      {1},
+      {1, 3},
+      {1, 3, 1},
+      {1, 1, 1},
+      {1, 1, 3, 3},
+      {1, 3, 5, 13},
+      {1, 1, 5, 5, 17},
+      {1, 1, 5, 5, 5},
+      {1, 1, 7, 11, 19},
+      {1, 1, 5, 1, 1},
+      {1, 1, 1, 3, 11},
+      {1, 3, 5, 5, 31},
+      {1, 3, 3, 9, 7, 49},
+      {1, 1, 1, 15, 21, 21},
+      {1, 3, 1, 13, 27, 49},
+      {1, 1, 1, 15, 7, 5},
+      {1, 3, 1, 15, 13, 25},
+      {1, 1, 5, 5, 19, 61},
+      {1, 3, 7, 11, 23, 15, 103},
+      {1, 3, 7, 13, 13, 15, 69}};
+  /**
+   * The primitive polynomials of the dimensions after the first.
+   */
+  private static final long[] POLYNOMIALS = primitivePolynomials(MAX_DIMENSION - 1);
+
+  /**
+   * The dimension.
+   */
+  private final int dimension;
+  /**
+   * Whether to generate normal numbers rather than uniform numbers.
+   */
+  private final boolean normal;
+  /**
+   * The direction numbers, by dimension and bit.
+   */
+  private final int[][] directions;
+  /**
+   * The current point, as unsigned integers.
+   */
+  private final int[] current;
+  /**
+   * The index of the current point, zero before the first point is generated.
+   */
+  private long index;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains a generator of uniform numbers, strictly between zero and one.
+   *
+   * @param dimension  the dimension of each point, from 1 to {@link #MAX_DIMENSION}
+   * @return the generator
+   */
+  public static SobolSequenceGenerator ofUniform(int dimension) {
+    return new SobolSequenceGenerator(dimension, false);
+  }
+
+  /**
+   * Obtains a generator of standard normal numbers.
+   *
+   * @param dimension  the dimension of each point, from 1 to {@link #MAX_DIMENSION}
+   * @return the generator
+   */
+  public static SobolSequenceGenerator ofNormal(int dimension) {
+    return new SobolSequenceGenerator(dimension, true);
+  }
+
+  // restricted constructor
+  private SobolSequenceGenerator(int dimension, boolean normal) {
+    ArgChecker.inRangeInclusive(dimension, 1, MAX_DIMENSION, "dimension");
+    this.dimension = dimension;
+    this.normal = normal;
+    this.directions = new int[dimension][];
+    for (int i = 0; i < dimension; i++) {
+      directions[i] = directions(i);
+    }
+    this.current = new int[dimension];
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the dimension of each point.
+   *
+   * @return the dimension
+   */
+  public int getDimension() {
+    return dimension;
+  }
+
+  /**
+   * Gets the index of the last point generated, zero if no points have been generated.
+   *
+   * @return the index
+   */
+  public long getIndex() {
+    return index;
+  }
+
+  /**
+   * Skips ahead by the specified number of points.
+   * <p>
+   * This takes time proportional to the dimension, not the number of points skipped.
+   * For example, a simulation of 10,000 paths can give the task generating paths 5,000 to 9,999
+   * a generator that has skipped 5,000 points.
+   *
+   * @param count  the number of points to skip
+   * @return this generator, for chaining
+   */
+  public SobolSequenceGenerator skip(long count) {
+    ArgChecker.notNegative(count, "count");
+    long target = index + count;
+    ArgChecker.isTrue(target <= MAX_INDEX, "Sobol sequence limited to {} points", MAX_INDEX);
+    long gray = target ^ (target >>> 1);
+    for (int i = 0; i < dimension; i++) {
+      int value = 0;
+      for (int bit = 0; bit < BITS; bit++) {
+        if ((gray & (1L << bit)) != 0) {
+          value ^= directions[i][bit];
+        }
+      }
+      current[i] = value;
+    }
+    index = target;
+    return this;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the next points, as a single array.
+   * <p>
+   * The size must be a multiple of the dimension. For example, if the dimension is 10 and the size is 30,
+   * the result contains the next three points.
+   *
+   * @param size  the size of the resulting array
+   * @return the array of numbers
+   */
+  @Override
+  public double[] getVector(int size) {
+    ArgChecker.notNegative(size, "size");
+    double[] result = new double[size];
+    fill(result);
+    return result;
+  }
+
+  /**
+   * Gets the next points, as a list of arrays.
+   * <p>
+   * The size of each array must be a multiple of the dimension.
+   *
+   * @param arraySize  the size of each resulting array
+   * @param listSize  the size of the list
+   * @return the list of arrays of numbers
+   */
+  @Override
+  public List<double[]> getVectors(int arraySize, int listSize) {
+    ArgChecker.notNegative(arraySize, "arraySize");
+    ArgChecker.notNegative(listSize, "listSize");
+    List<double[]> result = new ArrayList<>(listSize);
+    for (int i = 0; i < listSize; i++) {
+      result.add(getVector(arraySize));
+    }
+    return result;
+  }
+
+  /**
+   * Fills an array with the next points.
+   * <p>
+   * The size of the array must be a multiple of the dimension.
+   * The points are stored one after another.
+   *
+   * @param array  the array to fill
+   */
+  @Override
+  public void fill(double[] array) {
+    ArgChecker.isTrue(
+        array.length % dimension == 0, "Array size {} must be a multiple of the dimension {}", array.length, dimension);
+    int pointCount = array.length / dimension;
+    ArgChecker.isTrue(index + pointCount <= MAX_INDEX, "Sobol sequence limited to {} points", MAX_INDEX);
+    for (int point = 0; point < pointCount; point++) {
+      // the direction of the lowest zero bit of the index
+      int bit = Long.numberOfTrailingZeros(~index);
+      int offset = point * dimension;
+      for (int i = 0; i < dimension; i++) {
+        current[i] ^= directions[i][bit];
+        double uniform = Integer.toUnsignedLong(current[i]) * SCALE;
+        array[offset + i] = normal ? Probability.normalInverse(uniform) : uniform;
+      }
+      index++;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  // the direction numbers of a dimension
+  private static int[] directions(int dimension) {
+    int[] result = new int[BITS];
+    if (dimension == 0) {
+      for (int bit = 0; bit < BITS; bit++) {
+        result[bit] = 1 << (BITS - 1 - bit);
+      }
+      return result;
+    }
+    long polynomial = POLYNOMIALS[dimension - 1];
+    int degree = (int) (polynomial >>> 32);
+    int coefficients = (int) polynomial;
+    for (int bit = 0; bit < degree; bit++) {
+      result[bit] = initialDirection(dimension, bit + 1) << (BITS - 1 - bit);
+    }
+    for (int bit = degree; bit < BITS; bit++) {
+      int value = result[bit - degree] ^ (result[bit - degree] >>> degree);
+      for (int k = 1; k < degree; k++) {
+        if (((coefficients >>> (degree - 1 - k)) & 1) != 0) {
+          value ^= result[bit - k];
+        }
+      }
+      result[bit] = value;
+    }
+    return result;
+  }
+
+  // the initial direction number, which is odd and less than 2^bitCount
+  private static int initialDirection(int dimension, int bitCount) {
+    return INITIAL_DIRECTIONS[dimension - 1][bitCount - 1];
+  }
+
+  // the primitive polynomials in order of degree, each encoded as the degree in the upper 32 bits
+  // and the coefficients other than the highest and lowest in the lower 32 bits
+  private static long[] primitivePolynomials(int count) {
+    long[] result = new long[count];
+    int found = 0;
+    for (int degree = 1; found < count; degree++) {
+      for (int coefficients = 0; coefficients < (1 << (degree - 1)) && found < count; coefficients++) {
+        if (isPrimitive(degree, coefficients)) {
+          result[found++] = ((long) degree << 32) | coefficients;
+        }
+      }
+    }
+    return result;
+  }
+
+  // checks if the polynomial over GF(2) is primitive, being that x has order 2^degree - 1
+  private static boolean isPrimitive(int degree, int coefficients) {
+    long polynomial = (1L << degree) | ((long) coefficients << 1) | 1L;
+    long order = (1L << degree) - 1;
+    if (powerOfX(order, polynomial, degree) != 1) {
+      return false;
+    }
+    long remaining = order;
+    for (long factor = 2; factor * factor <= remaining; factor++) {
+      if (remaining % factor == 0) {
+        if (powerOfX(order / factor, polynomial, degree) == 1) {
+          return false;
+        }
+        while (remaining % factor == 0) {
+          remaining /= factor;
+        }
+      }
+    }
+    return remaining == 1 || powerOfX(order / remaining, polynomial, degree) != 1;
+  }
+
+  // x to the power, modulo the polynomial
+  private static long powerOfX(long power, long polynomial, int degree) {
+    long result = 1;
+    long base = reduce(2, polynomial, degree);
+    for (long remaining = power; remaining > 0; remaining >>>= 1) {
+      if ((remaining & 1) != 0) {
+        result = multiply(result, base, polynomial, degree);
+      }
+      base = multiply(base, base, polynomial, degree);
+    }
+    return result;
+  }
+
+  // multiplies two polynomials, modulo the polynomial
+  private static long multiply(long a, long b, long polynomial, int degree) {
+    long product = 0;
+    for (int bit = 0; bit < degree; bit++) {
+      if ((b & (1L << bit)) != 0) {
+        product ^= a << bit;
+      }
+    }
+    return reduce(product, polynomial, degree);
+  }
+
+  // reduces a polynomial, modulo the polynomial
+  private static long reduce(long value, long polynomial, int degree) {
+    long result = value;
+    for (int bit = 63 - Long.numberOfLeadingZeros(result); bit >= degree; bit--) {
+      if ((result & (1L << bit)) != 0) {
+        result ^= polynomial << (bit - degree);
+      }
+    }
+    return result;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "SobolSequenceGenerator[dimension=" + dimension + ", " + (normal ? "normal" : "uniform") + "]";
+  }
+
+}
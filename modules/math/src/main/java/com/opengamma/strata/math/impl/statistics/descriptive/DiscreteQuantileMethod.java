@@ -21,18 +21,27 @@ public abstract class DiscreteQuantileMethod
 
   @Override
   protected QuantileResult quantile(double level, DoubleArray sample, boolean isExtrapolated) {
-    ArgChecker.isTrue(level > 0, "Quantile should be above 0.");
-    ArgChecker.isTrue(level < 1, "Quantile should be below 1.");
-    int sampleSize = sampleCorrection(sample.size());
+    int index = (int) sampleRank(level, sample.size(), isExtrapolated);
     double[] order = createIndexArray(sample.size());
     double[] s = sample.toArray();
     DoubleArrayMath.sortPairs(s, order);
-    int index = (int) checkIndex(index(level * sampleSize), sample.size(), isExtrapolated);
     int[] ind = new int[1];
     ind[0] = (int) order[index - 1];
     return QuantileResult.of(s[index - 1], ind, DoubleArray.of(1));
   }
 
+  @Override
+  protected boolean isRankBased() {
+    return true;
+  }
+
+  @Override
+  protected double sampleRank(double level, int size, boolean isExtrapolated) {
+    ArgChecker.isTrue(level > 0, "Quantile should be above 0.");
+    ArgChecker.isTrue(level < 1, "Quantile should be below 1.");
+    return checkIndex(index(level * sampleCorrection(size)), size, isExtrapolated);
+  }
+
   @Override
   protected QuantileResult expectedShortfall(double level, DoubleArray sample) {
     ArgChecker.isTrue(level > 0, "Quantile should be above 0.");
@@ -24,10 +24,7 @@ public abstract class InterpolationQuantileMethod
 
   @Override
   protected QuantileResult quantile(double level, DoubleArray sample, boolean isExtrapolated) {
-    ArgChecker.isTrue(level > 0, "Quantile should be above 0.");
-    ArgChecker.isTrue(level < 1, "Quantile should be below 1.");
-    int sampleSize = sampleCorrection(sample.size());
-    double adjustedLevel = checkIndex(level * sampleSize + indexCorrection(), sample.size(), isExtrapolated);
+    double adjustedLevel = sampleRank(level, sample.size(), isExtrapolated);
     double[] order = createIndexArray(sample.size());
     double[] s = sample.toArray();
     DoubleArrayMath.sortPairs(s, order);
@@ -41,6 +38,18 @@ public abstract class InterpolationQuantileMethod
         DoubleArray.of(lowerWeight, upperWeight));
   }
 
+  @Override
+  protected boolean isRankBased() {
+    return true;
+  }
+
+  @Override
+  protected double sampleRank(double level, int size, boolean isExtrapolated) {
+    ArgChecker.isTrue(level > 0, "Quantile should be above 0.");
+    ArgChecker.isTrue(level < 1, "Quantile should be below 1.");
+    return checkIndex(level * sampleCorrection(size) + indexCorrection(), size, isExtrapolated);
+  }
+
   @Override
   protected QuantileResult expectedShortfall(double level, DoubleArray sample) {
     ArgChecker.isTrue(level > 0, "Quantile should be above 0.");
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.statistics.descriptive;
+
+import java.util.Arrays;
+
+/**
+ * Selection of order statistics from an unsorted sample.
+ * <p>
+ * This partially sorts an array such that the values at a set of ranks are those that would be found
+ * if the whole array was sorted. Each step partitions the array around a pivot, and only the parts that
+ * contain a requested rank are partitioned further. If the partitioning performs badly, the remaining
+ * part is sorted, bounding the cost as for introsort.
+ * <p>
+ * The values are ordered as by {@link Double#compare(double, double)}, consistent with {@link Arrays#sort(double[])},
+ * such that NaN is greater than any other value, and -0.0 is less than 0.0.
+ */
+final class OrderStatistics {
+
+  /**
+   * The size below which a part of the array is sorted rather than partitioned.
+   */
+  private static final int SORT_THRESHOLD = 32;
+
+  /**
+   * Restricted constructor.
+   */
+  private OrderStatistics() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Partially sorts the values such that the values required by the ranks are in their sorted positions.
+   * <p>
+   * The ranks start from 1. For a rank that is not an integer, the values at the adjacent ranks are selected.
+   *
+   * @param values  the values, modified by this method
+   * @param ranks  the ranks, from 1 to the number of values inclusive
+   */
+  static void select(double[] values, double[] ranks) {
+    int[] positions = new int[ranks.length * 2];
+    for (int i = 0; i < ranks.length; i++) {
+      positions[i * 2] = (int) Math.floor(ranks[i]) - 1;
+      positions[i * 2 + 1] = (int) Math.ceil(ranks[i]) - 1;
+    }
+    int[] distinct = Arrays.stream(positions).sorted().distinct().toArray();
+    int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(values.length));
+    select(values, 0, values.length - 1, distinct, 0, distinct.length - 1, depthLimit);
+  }
+
+  /**
+   * Obtains the value at the rank from values partially sorted by {@link #select(double[], double[])}.
+   * <p>
+   * The ranks start from 1. For a rank that is not an integer, the value is linearly interpolated.
+   *
+   * @param values  the partially sorted values
+   * @param rank  the rank, from 1 to the number of values inclusive
+   * @return the value
+   */
+  static double valueAtRank(double[] values, double rank) {
+    int lowerIndex = (int) Math.floor(rank);
+    int upperIndex = (int) Math.ceil(rank);
+    double lowerWeight = upperIndex - rank;
+    double upperWeight = 1d - lowerWeight;
+    return lowerWeight * values[lowerIndex - 1] + upperWeight * values[upperIndex - 1];
+  }
+
+  //-------------------------------------------------------------------------
+  // selects the positions between the first and last position indices within the part between low and high
+  private static void select(double[] values, int low, int high, int[] positions, int first, int last, int depth) {
+    int lo = low;
+    int firstPos = first;
+    int remainingDepth = depth;
+    while (firstPos <= last) {
+      if (high - lo < SORT_THRESHOLD || remainingDepth == 0) {
+        Arrays.sort(values, lo, high + 1);
+        return;
+      }
+      remainingDepth--;
+      double pivot = medianOfThree(values[lo], values[(lo + high) >>> 1], values[high]);
+      // three-way partition, less than pivot in [lo, lt), equal in [lt, gt], greater in (gt, high]
+      int lt = lo;
+      int gt = high;
+      int i = lo;
+      while (i <= gt) {
+        int cmp = Double.compare(values[i], pivot);
+        if (cmp < 0) {
+          swap(values, lt++, i++);
+        } else if (cmp > 0) {
+          swap(values, i, gt--);
+        } else {
+          i++;
+        }
+      }
+      int leftEnd = firstPos;
+      while (leftEnd <= last && positions[leftEnd] < lt) {
+        leftEnd++;
+      }
+      int rightStart = leftEnd;
+      while (rightStart <= last && positions[rightStart] <= gt) {
+        rightStart++;
+      }
+      if (leftEnd > firstPos) {
+        select(values, lo, lt - 1, positions, firstPos, leftEnd - 1, remainingDepth);
+      }
+      lo = gt + 1;
+      firstPos = rightStart;
+    }
+  }
+
+  // the median of three values, ordered as by Double.compare
+  private static double medianOfThree(double a, double b, double c) {
+    double lower = Double.compare(a, b) <= 0 ? a : b;
+    double upper = Double.compare(a, b) <= 0 ? b : a;
+    if (Double.compare(c, lower) <= 0) {
+      return lower;
+    }
+    return Double.compare(c, upper) >= 0 ? upper : c;
+  }
+
+  // swaps two values
+  private static void swap(double[] values, int i, int j) {
+    double temp = values[i];
+    values[i] = values[j];
+    values[j] = temp;
+  }
+
+}
@@ -143,6 +143,65 @@ public abstract class QuantileCalculationMethod {
     return quantileWithExtrapolationFromSorted(level, sample.sorted());
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Compute the quantile estimation for several levels.
+   * <p>
+   * The quantile levels are in decimal, i.e. 99% = 0.99 and 0 < level < 1 should be satisfied.
+   * The result is the same as calling {@link #quantileFromUnsorted(double, DoubleArray)} for each level.
+   * <p>
+   * If index value computed from any level is outside of the sample data range,
+   * {@code IllegalArgumentException} is thrown.
+   * <p>
+   * The sample observations are supposed to be unsorted. Rather than sorting the data,
+   * the sample is copied once and only the sample values required by the levels are selected.
+   *
+   * @param levels  the quantile levels
+   * @param sample  the sample observations
+   * @return the quantile estimations, one for each level
+   */
+  public DoubleArray quantilesFromUnsorted(DoubleArray levels, DoubleArray sample) {
+    return quantiles(levels, sample, false);
+  }
+
+  /**
+   * Compute the quantile estimation for several levels.
+   * <p>
+   * The quantile levels are in decimal, i.e. 99% = 0.99 and 0 < level < 1 should be satisfied.
+   * The result is the same as calling {@link #quantileWithExtrapolationFromUnsorted(double, DoubleArray)}
+   * for each level.
+   * <p>
+   * If index value computed from a level is outside of the sample data range, the nearest data point is used, i.e.,
+   * quantile is computed with flat extrapolation.
+   * <p>
+   * The sample observations are supposed to be unsorted. Rather than sorting the data,
+   * the sample is copied once and only the sample values required by the levels are selected.
+   *
+   * @param levels  the quantile levels
+   * @param sample  the sample observations
+   * @return the quantile estimations, one for each level
+   */
+  public DoubleArray quantilesWithExtrapolationFromUnsorted(DoubleArray levels, DoubleArray sample) {
+    return quantiles(levels, sample, true);
+  }
+
+  // selects the sample values at the ranks of all the levels from a single copy of the sample
+  // if the method is not rank-based, each level is estimated separately
+  private DoubleArray quantiles(DoubleArray levels, DoubleArray sample, boolean isExtrapolated) {
+    if (!isRankBased()) {
+      return isExtrapolated ?
+          levels.map(level -> quantileWithExtrapolationFromUnsorted(level, sample)) :
+          levels.map(level -> quantileFromUnsorted(level, sample));
+    }
+    double[] ranks = new double[levels.size()];
+    for (int i = 0; i < ranks.length; i++) {
+      ranks[i] = sampleRank(levels.get(i), sample.size(), isExtrapolated);
+    }
+    double[] values = sample.toArray();
+    OrderStatistics.select(values, ranks);
+    return DoubleArray.of(ranks.length, i -> OrderStatistics.valueAtRank(values, ranks[i]));
+  }
+
   //-------------------------------------------------------------------------
 
   /**
@@ -239,6 +298,40 @@ public abstract class QuantileCalculationMethod {
    */
   protected abstract QuantileResult expectedShortfall(double level, DoubleArray sample);
 
+  /**
+   * Checks if the quantile estimation is determined by the rank in the sorted sample.
+   * <p>
+   * If true, {@link #sampleRank(double, int, boolean)} is implemented. This allows several quantiles
+   * to be estimated at once by selection, and quantiles to be estimated from a {@link QuantileSketch}.
+   * <p>
+   * This implementation returns false.
+   * Subclasses that override {@code sampleRank} should also override this method to return true.
+   *
+   * @return true if the estimation is determined by the rank
+   */
+  protected boolean isRankBased() {
+    return false;
+  }
+
+  /**
+   * Computes the rank of the quantile estimation in the sorted sample.
+   * <p>
+   * The rank starts from 1, such that the quantile is the sorted sample value at the rank.
+   * If the rank is not an integer, the quantile is linearly interpolated between the sample values
+   * at the adjacent ranks. This is only invoked if {@link #isRankBased()} returns true.
+   * <p>
+   * This implementation throws {@code UnsupportedOperationException}.
+   * Subclasses whose estimate is determined by the rank should override it.
+   *
+   * @param level  the quantile level
+   * @param size  the sample size
+   * @param isExtrapolated  extrapolated if true, not extrapolated otherwise
+   * @return the rank, from 1 to the sample size inclusive
+   */
+  protected double sampleRank(double level, int size, boolean isExtrapolated) {
+    throw new UnsupportedOperationException("Quantile method is not based on the rank in the sorted sample");
+  }
+
   /**
    * Check the index is within the sample data range.
    * <p>
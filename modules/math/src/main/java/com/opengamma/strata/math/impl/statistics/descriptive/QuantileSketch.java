@@ -0,0 +1,399 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.statistics.descriptive;
+
+import java.io.Serializable;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.DoubleArrayMath;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * A mergeable sketch of a sample, used to estimate quantiles.
+ * <p>
+ * The sketch summarizes the sample as a set of centroids, each being the mean and weight of a group of
+ * adjacent sample values, as described for the merging t-digest by Dunning and Ertl.
+ * Centroids near the tails hold few values and centroids near the median hold many, thus extreme
+ * quantiles, as used for value-at-risk, are estimated accurately in a fixed amount of memory.
+ * <p>
+ * Sketches of partial samples, such as those of separate portfolios or separate processes, can be merged.
+ * The merged sketch estimates the quantiles of the combined sample.
+ * <p>
+ * The quantiles are estimated using the rank of a {@link QuantileCalculationMethod}, such as
+ * {@link IndexAboveQuantileMethod} or {@link SampleInterpolationQuantileMethod}, with the value at the rank
+ * interpolated between the centroids. While the number of values is no more than the compression,
+ * each value is retained as a centroid and the estimate matches the quantile method exactly.
+ * Methods that are not based on the rank, such as {@link ExponentiallyWeightedInterpolationQuantileMethod},
+ * are rejected, as the sketch does not retain the order of the sample.
+ * <p>
+ * This class is mutable and not thread-safe.
+ */
+public final class QuantileSketch
+    implements Serializable {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+  /**
+   * The default compression.
+   */
+  private static final int DEFAULT_COMPRESSION = 200;
+  /**
+   * The size of the buffer, as a multiple of the compression.
+   */
+  private static final int BUFFER_FACTOR = 5;
+
+  /**
+   * The compression, controlling the number of centroids.
+   */
+  private final int compression;
+  /**
+   * The centroid means, sorted.
+   */
+  private double[] means;
+  /**
+   * The centroid weights.
+   */
+  private double[] weights;
+  /**
+   * The number of centroids.
+   */
+  private int centroidCount;
+  /**
+   * The means of the values added since the centroids were last merged.
+   */
+  private final double[] bufferMeans;
+  /**
+   * The weights of the values added since the centroids were last merged.
+   */
+  private final double[] bufferWeights;
+  /**
+   * The number of buffered values.
+   */
+  private int bufferCount;
+  /**
+   * The total weight, being the number of values in the sample.
+   */
+  private long count;
+  /**
+   * The minimum value.
+   */
+  private double min = Double.POSITIVE_INFINITY;
+  /**
+   * The maximum value.
+   */
+  private double max = Double.NEGATIVE_INFINITY;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates an empty sketch with the default compression of 200.
+   *
+   * @return the sketch
+   */
+  public static QuantileSketch create() {
+    return new QuantileSketch(DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * Creates an empty sketch with the specified compression.
+   * <p>
+   * The number of centroids is approximately half the compression.
+   * A larger compression uses more memory and estimates the quantiles more accurately.
+   *
+   * @param compression  the compression, at least 10
+   * @return the sketch
+   */
+  public static QuantileSketch of(int compression) {
+    ArgChecker.isTrue(compression >= 10, "Compression must be at least 10, but was {}", compression);
+    return new QuantileSketch(compression);
+  }
+
+  /**
+   * Creates a sketch of the sample with the default compression of 200.
+   *
+   * @param sample  the sample observations
+   * @return the sketch
+   */
+  public static QuantileSketch of(DoubleArray sample) {
+    QuantileSketch sketch = create();
+    sketch.addAll(sample);
+    return sketch;
+  }
+
+  // restricted constructor
+  private QuantileSketch(int compression) {
+    this.compression = compression;
+    this.means = new double[0];
+    this.weights = new double[0];
+    this.bufferMeans = new double[compression * BUFFER_FACTOR];
+    this.bufferWeights = new double[compression * BUFFER_FACTOR];
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the compression.
+   *
+   * @return the compression
+   */
+  public int getCompression() {
+    return compression;
+  }
+
+  /**
+   * Gets the number of values in the sample.
+   *
+   * @return the number of values
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the minimum value in the sample.
+   *
+   * @return the minimum
+   * @throws IllegalArgumentException if the sketch is empty
+   */
+  public double getMin() {
+    ArgChecker.isTrue(count > 0, "Sketch is empty");
+    return min;
+  }
+
+  /**
+   * Gets the maximum value in the sample.
+   *
+   * @return the maximum
+   * @throws IllegalArgumentException if the sketch is empty
+   */
+  public double getMax() {
+    ArgChecker.isTrue(count > 0, "Sketch is empty");
+    return max;
+  }
+
+  /**
+   * Gets the number of centroids summarizing the sample.
+   *
+   * @return the number of centroids
+   */
+  public int getCentroidCount() {
+    compress();
+    return centroidCount;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Adds a value to the sample.
+   *
+   * @param value  the value
+   * @return this sketch, for chaining
+   */
+  public QuantileSketch add(double value) {
+    ArgChecker.isFalse(Double.isNaN(value), "Value must not be NaN");
+    addCentroid(value, 1d);
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+    count++;
+    return this;
+  }
+
+  /**
+   * Adds the values to the sample.
+   *
+   * @param values  the values
+   * @return this sketch, for chaining
+   */
+  public QuantileSketch addAll(DoubleArray values) {
+    values.forEach((i, value) -> add(value));
+    return this;
+  }
+
+  /**
+   * Merges another sketch into this sketch.
+   * <p>
+   * This sketch then summarizes the combination of both samples.
+   * The other sketch is not altered, other than to merge its own buffered values.
+   *
+   * @param other  the other sketch
+   * @return this sketch, for chaining
+   */
+  public QuantileSketch merge(QuantileSketch other) {
+    ArgChecker.notNull(other, "other");
+    ArgChecker.isFalse(other == this, "Sketch cannot be merged with itself");
+    other.compress();
+    for (int i = 0; i < other.centroidCount; i++) {
+      addCentroid(other.means[i], other.weights[i]);
+    }
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+    count += other.count;
+    return this;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Estimates the quantile of the sample.
+   * <p>
+   * The rank is determined by the quantile method, see {@link QuantileCalculationMethod#quantileFromUnsorted}.
+   * If index value computed from the level is outside of the sample data range,
+   * {@code IllegalArgumentException} is thrown.
+   *
+   * @param level  the quantile level
+   * @param method  the quantile method
+   * @return the quantile estimation
+   * @throws IllegalArgumentException if the method is not based on the rank in the sorted sample
+   */
+  public double quantile(double level, QuantileCalculationMethod method) {
+    return valueAtRank(checkRankBased(method).sampleRank(level, sampleSize(), false));
+  }
+
+  /**
+   * Estimates the quantile of the sample, with flat extrapolation.
+   * <p>
+   * The rank is determined by the quantile method, see
+   * {@link QuantileCalculationMethod#quantileWithExtrapolationFromUnsorted}.
+   * If index value computed from the level is outside of the sample data range, the nearest data point is used.
+   *
+   * @param level  the quantile level
+   * @param method  the quantile method
+   * @return the quantile estimation
+   * @throws IllegalArgumentException if the method is not based on the rank in the sorted sample
+   */
+  public double quantileWithExtrapolation(double level, QuantileCalculationMethod method) {
+    return valueAtRank(checkRankBased(method).sampleRank(level, sampleSize(), true));
+  }
+
+  /**
+   * Estimates the quantiles of the sample for several levels, with flat extrapolation.
+   *
+   * @param levels  the quantile levels
+   * @param method  the quantile method
+   * @return the quantile estimations, one for each level
+   * @throws IllegalArgumentException if the method is not based on the rank in the sorted sample
+   */
+  public DoubleArray quantilesWithExtrapolation(DoubleArray levels, QuantileCalculationMethod method) {
+    checkRankBased(method);
+    return levels.map(level -> quantileWithExtrapolation(level, method));
+  }
+
+  // checks the method is based on the rank, as the sketch does not retain the order of the sample
+  private static QuantileCalculationMethod checkRankBased(QuantileCalculationMethod method) {
+    ArgChecker.notNull(method, "method");
+    ArgChecker.isTrue(
+        method.isRankBased(),
+        "Quantile method {} is not based on the rank in the sorted sample",
+        method.getClass().getSimpleName());
+    return method;
+  }
+
+  // the sample size, checking it is compatible with the quantile methods
+  private int sampleSize() {
+    ArgChecker.isTrue(count > 0, "Sketch is empty");
+    ArgChecker.isTrue(count <= Integer.MAX_VALUE, "Sketch too large for quantile method: {}", count);
+    return (int) count;
+  }
+
+  // the value at the rank, starting from 1, interpolating linearly between the centroids
+  // the centroid holding weight w starting after cumulative weight c is centred at rank c + (w + 1) / 2
+  // the minimum and maximum are at ranks 1 and count, thus a centroid of one value is exact
+  private double valueAtRank(double rank) {
+    compress();
+    double previousRank = 1d;
+    double previousValue = min;
+    double cumulative = 0d;
+    for (int i = 0; i < centroidCount; i++) {
+      double centreRank = cumulative + (weights[i] + 1d) / 2d;
+      if (rank <= centreRank) {
+        return interpolate(previousRank, previousValue, centreRank, means[i], rank);
+      }
+      previousRank = centreRank;
+      previousValue = means[i];
+      cumulative += weights[i];
+    }
+    return interpolate(previousRank, previousValue, count, max, rank);
+  }
+
+  // linear interpolation
+  private static double interpolate(double x1, double y1, double x2, double y2, double x) {
+    if (x2 <= x1) {
+      return y2;
+    }
+    return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+  }
+
+  //-------------------------------------------------------------------------
+  // adds a centroid to the buffer, merging if the buffer is full
+  private void addCentroid(double mean, double weight) {
+    if (bufferCount == bufferMeans.length) {
+      compress();
+    }
+    bufferMeans[bufferCount] = mean;
+    bufferWeights[bufferCount] = weight;
+    bufferCount++;
+  }
+
+  // merges the buffer into the centroids
+  // the centroids are retained unmerged while there are no more than the compression
+  // otherwise adjacent centroids are merged subject to the size limit of the k1 scale function
+  private void compress() {
+    if (bufferCount == 0) {
+      return;
+    }
+    int size = centroidCount + bufferCount;
+    double[] allMeans = new double[size];
+    double[] allWeights = new double[size];
+    System.arraycopy(means, 0, allMeans, 0, centroidCount);
+    System.arraycopy(weights, 0, allWeights, 0, centroidCount);
+    System.arraycopy(bufferMeans, 0, allMeans, centroidCount, bufferCount);
+    System.arraycopy(bufferWeights, 0, allWeights, centroidCount, bufferCount);
+    bufferCount = 0;
+    DoubleArrayMath.sortPairs(allMeans, allWeights);
+    if (size <= compression) {
+      means = allMeans;
+      weights = allWeights;
+      centroidCount = size;
+      return;
+    }
+    double total = 0d;
+    for (int i = 0; i < size; i++) {
+      total += allWeights[i];
+    }
+    int merged = 0;
+    double weightSoFar = 0d;
+    double weightLimit = total * quantileLimit(0d);
+    for (int i = 1; i < size; i++) {
+      double proposed = allWeights[merged] + allWeights[i];
+      if (weightSoFar + proposed <= weightLimit) {
+        allMeans[merged] += (allMeans[i] - allMeans[merged]) * allWeights[i] / proposed;
+        allWeights[merged] = proposed;
+      } else {
+        weightSoFar += allWeights[merged];
+        weightLimit = total * quantileLimit(weightSoFar / total);
+        merged++;
+        allMeans[merged] = allMeans[i];
+        allWeights[merged] = allWeights[i];
+      }
+    }
+    centroidCount = merged + 1;
+    means = new double[centroidCount];
+    weights = new double[centroidCount];
+    System.arraycopy(allMeans, 0, means, 0, centroidCount);
+    System.arraycopy(allWeights, 0, weights, 0, centroidCount);
+  }
+
+  // the quantile one unit of the k1 scale function above the quantile
+  // k(q) = compression / (2 pi) * asin(2q - 1)
+  private double quantileLimit(double quantile) {
+    double k = compression / (2d * Math.PI) * Math.asin(2d * quantile - 1d) + 1d;
+    double angle = Math.min(k * 2d * Math.PI / compression, Math.PI / 2d);
+    return (Math.sin(angle) + 1d) / 2d;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "QuantileSketch[count=" + count + ", compression=" + compression + "]";
+  }
+
+}
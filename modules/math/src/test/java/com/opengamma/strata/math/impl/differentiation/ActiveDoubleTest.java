@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.differentiation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Test {@link ActiveDouble}.
+ */
+public class ActiveDoubleTest {
+
+  private static final double TOL = 1e-12;
+  private static final double X = 1.3;
+  private static final double Y = 0.7;
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_constant() {
+    ActiveDouble test = ActiveDouble.constant(2d);
+    assertThat(test.isActive()).isFalse();
+    assertThat(test.getValue()).isEqualTo(2d);
+    ActiveDouble result = test.multipliedBy(ActiveDouble.ONE.plus(3d)).exp();
+    assertThat(result.isActive()).isFalse();
+    assertThat(result.getValue()).isEqualTo(Math.exp(8d));
+    assertThat(test.toString()).isEqualTo("ActiveDouble[2.0]");
+  }
+
+  @Test
+  public void test_unary() {
+    assertUnary(x -> x.plus(2d), 1d);
+    assertUnary(x -> x.minus(2d), 1d);
+    assertUnary(x -> x.multipliedBy(2d), 2d);
+    assertUnary(x -> x.dividedBy(2d), 0.5);
+    assertUnary(x -> x.negated(), -1d);
+    assertUnary(x -> x.exp(), Math.exp(X));
+    assertUnary(x -> x.log(), 1d / X);
+    assertUnary(x -> x.sqrt(), 0.5 / Math.sqrt(X));
+    assertUnary(x -> x.pow(3d), 3d * X * X);
+    assertUnary(x -> x.max(0d), 1d);
+    assertUnary(x -> x.max(2d), 0d);
+    assertUnary(x -> x.function(Math.sin(X), Math.cos(X)), Math.cos(X));
+  }
+
+  @Test
+  public void test_binary() {
+    assertBinary(x -> y -> x.plus(y), 1d, 1d);
+    assertBinary(x -> y -> x.minus(y), 1d, -1d);
+    assertBinary(x -> y -> x.multipliedBy(y), Y, X);
+    assertBinary(x -> y -> x.dividedBy(y), 1d / Y, -X / (Y * Y));
+    assertBinary(x -> y -> x.max(y), 1d, 0d);
+    assertBinary(x -> y -> y.max(x), 1d, 0d);
+  }
+
+  @Test
+  public void test_composite() {
+    // f(x, y) = x * exp(x * y) / y
+    try (Tape tape = Tape.start()) {
+      ActiveDouble x = tape.input(X);
+      ActiveDouble y = tape.input(Y);
+      ActiveDouble f = x.multipliedBy(x.multipliedBy(y).exp()).dividedBy(y);
+      double exp = Math.exp(X * Y);
+      assertThat(f.getValue()).isCloseTo(X * exp / Y, offset(TOL));
+      DoubleArray gradient = tape.gradient(f, x, y);
+      assertThat(gradient.get(0)).isCloseTo((1d + X * Y) * exp / Y, offset(TOL));
+      assertThat(gradient.get(1)).isCloseTo(X * X * exp / Y - X * exp / (Y * Y), offset(TOL));
+    }
+  }
+
+  @Test
+  public void test_differentTapes() {
+    try (Tape tape1 = Tape.start(); Tape tape2 = Tape.start()) {
+      ActiveDouble x = tape1.input(X);
+      ActiveDouble y = tape2.input(Y);
+      assertThatIllegalArgumentException().isThrownBy(() -> x.plus(y));
+      assertThatIllegalArgumentException().isThrownBy(() -> tape2.gradient(x, y));
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  // checks the value and derivative of a function of one active value
+  private static void assertUnary(Function<ActiveDouble, ActiveDouble> function, double expectedDerivative) {
+    try (Tape tape = Tape.start()) {
+      ActiveDouble x = tape.input(X);
+      ActiveDouble result = function.apply(x);
+      assertThat(result.getValue()).isCloseTo(function.apply(ActiveDouble.constant(X)).getValue(), offset(TOL));
+      assertThat(tape.gradient(result, x).get(0)).isCloseTo(expectedDerivative, offset(TOL));
+    }
+  }
+
+  // checks the derivatives of a function of two active values, and of one active value and a constant
+  private static void assertBinary(
+      Function<ActiveDouble, Function<ActiveDouble, ActiveDouble>> function,
+      double expectedDerivativeX,
+      double expectedDerivativeY) {
+
+    try (Tape tape = Tape.start()) {
+      ActiveDouble x = tape.input(X);
+      ActiveDouble y = tape.input(Y);
+      ActiveDouble result = function.apply(x).apply(y);
+      DoubleArray gradient = tape.gradient(result, x, y);
+      assertThat(gradient.get(0)).isCloseTo(expectedDerivativeX, offset(TOL));
+      assertThat(gradient.get(1)).isCloseTo(expectedDerivativeY, offset(TOL));
+      ActiveDouble resultX = function.apply(x).apply(ActiveDouble.constant(Y));
+      assertThat(tape.gradient(resultX, x).get(0)).isCloseTo(expectedDerivativeX, offset(TOL));
+      ActiveDouble resultY = function.apply(ActiveDouble.constant(X)).apply(y);
+      assertThat(tape.gradient(resultY, y).get(0)).isCloseTo(expectedDerivativeY, offset(TOL));
+    }
+  }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.differentiation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Test {@link Tape}.
+ */
+public class TapeTest {
+
+  private static final double TOL = 1e-12;
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_current() {
+    assertThat(Tape.findCurrent()).isEmpty();
+    assertThatIllegalStateException().isThrownBy(() -> Tape.current());
+    try (Tape outer = Tape.start()) {
+      assertThat(Tape.current()).isSameAs(outer);
+      try (Tape inner = Tape.start()) {
+        assertThat(Tape.current()).isSameAs(inner);
+      }
+      assertThat(Tape.current()).isSameAs(outer);
+    }
+    assertThat(Tape.findCurrent()).isEmpty();
+  }
+
+  @Test
+  public void test_threadLocal() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (Tape tape = Tape.start()) {
+      Future<Boolean> other = executor.submit(() -> Tape.findCurrent().isPresent());
+      assertThat(other.get()).isFalse();
+      assertThat(Tape.current()).isSameAs(tape);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void test_gradient() {
+    try (Tape tape = Tape.start()) {
+      List<ActiveDouble> inputs = tape.inputs(DoubleArray.of(1d, 2d, 3d));
+      ActiveDouble sum = ActiveDouble.ZERO;
+      for (int i = 0; i < 3; i++) {
+        sum = sum.plus(inputs.get(i).multipliedBy(inputs.get(i)));
+      }
+      assertThat(tape.size()).isEqualTo(9);
+      assertThat(tape.gradient(sum, inputs)).isEqualTo(DoubleArray.of(2d, 4d, 6d));
+      // the derivative with respect to an input created after the output is zero
+      ActiveDouble later = tape.input(4d);
+      assertThat(tape.gradient(sum, later)).isEqualTo(DoubleArray.of(0d));
+      // the derivatives of a constant are zero
+      assertThat(tape.gradient(ActiveDouble.ONE, inputs)).isEqualTo(DoubleArray.of(0d, 0d, 0d));
+      assertThat(tape.toString()).isEqualTo("Tape[size=10]");
+    }
+  }
+
+  @Test
+  public void test_growth() {
+    try (Tape tape = Tape.start()) {
+      ActiveDouble x = tape.input(1.0001);
+      ActiveDouble product = x;
+      for (int i = 1; i < 1000; i++) {
+        product = product.multipliedBy(x);
+      }
+      assertThat(tape.size()).isEqualTo(1000);
+      assertThat(tape.gradient(product, x).get(0)).isCloseTo(1000d * Math.pow(1.0001, 999), offset(1e-9));
+    }
+  }
+
+  @Test
+  public void test_rewind() {
+    try (Tape tape = Tape.start()) {
+      ActiveDouble x = tape.input(2d);
+      int mark = tape.mark();
+      for (int path = 0; path < 3; path++) {
+        ActiveDouble y = x.multipliedBy(path).exp();
+        assertThat(tape.gradient(y, x).get(0)).isCloseTo(path * Math.exp(2d * path), offset(TOL));
+        tape.rewind(mark);
+        assertThat(tape.size()).isEqualTo(1);
+      }
+      assertThatIllegalArgumentException().isThrownBy(() -> tape.rewind(2));
+    }
+  }
+
+  @Test
+  public void test_checkpoint() {
+    try (Tape tape = Tape.start()) {
+      ActiveDouble x = tape.input(0.5);
+      ActiveDouble y = tape.input(1.5);
+      ActiveDouble base = x.multipliedBy(y);
+      int mark = tape.mark();
+      // the section depends on x and the base
+      ActiveDouble a = base.exp().multipliedBy(x).plus(base.log());
+      ActiveDouble b = base.sqrt().dividedBy(x);
+      ActiveDouble c = y;
+      ActiveDouble z = a.multipliedBy(b);
+      DoubleArray expected = tape.gradient(z, x, y);
+      int sizeBefore = tape.size();
+
+      List<ActiveDouble> checkpointed = tape.checkpoint(mark, ImmutableList.of(a, b, c, ActiveDouble.ONE));
+      assertThat(tape.size()).isEqualTo(mark + 2).isLessThan(sizeBefore);
+      assertThat(checkpointed.get(0).getValue()).isEqualTo(a.getValue());
+      assertThat(checkpointed.get(1).getValue()).isEqualTo(b.getValue());
+      assertThat(checkpointed.get(2)).isSameAs(c);
+      assertThat(checkpointed.get(3)).isSameAs(ActiveDouble.ONE);
+      ActiveDouble zCheckpointed = checkpointed.get(0).multipliedBy(checkpointed.get(1));
+      DoubleArray test = tape.gradient(zCheckpointed, x, y);
+      assertThat(test.get(0)).isCloseTo(expected.get(0), offset(TOL));
+      assertThat(test.get(1)).isCloseTo(expected.get(1), offset(TOL));
+    }
+  }
+
+  @Test
+  public void test_checkpoint_single() {
+    try (Tape tape = Tape.start()) {
+      ActiveDouble x = tape.input(0.5);
+      int mark = tape.mark();
+      ActiveDouble y = x.exp().multipliedBy(x).exp();
+      ActiveDouble test = tape.checkpoint(mark, y);
+      assertThat(tape.size()).isEqualTo(2);
+      assertThat(tape.gradient(test, x).get(0)).isCloseTo(y.getValue() * Math.exp(0.5) * 1.5, offset(TOL));
+    }
+  }
+
+}
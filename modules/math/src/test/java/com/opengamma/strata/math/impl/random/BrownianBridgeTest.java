@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.data.Offset.offset;
+
+import org.junit.jupiter.api.Test;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Test {@link BrownianBridge}.
+ */
+public class BrownianBridgeTest {
+
+  private static final double TOL = 1e-12;
+
+  @Test
+  public void test_covariance() {
+    // the path is linear in the normals, so the covariance of the path is the sum of the squared coefficients
+    for (int size : new int[] {1, 2, 3, 5, 8, 13, 17}) {
+      DoubleArray times = DoubleArray.of(size, i -> 0.1 * (i + 1) + 0.01 * i * i);
+      BrownianBridge test = BrownianBridge.of(times);
+      assertThat(test.size()).isEqualTo(size);
+      double[][] coefficients = new double[size][];
+      for (int i = 0; i < size; i++) {
+        int index = i;
+        coefficients[i] = test.path(DoubleArray.of(size, j -> j == index ? 1d : 0d)).toArray();
+      }
+      for (int i = 0; i < size; i++) {
+        for (int j = 0; j < size; j++) {
+          double covariance = 0;
+          for (int k = 0; k < size; k++) {
+            covariance += coefficients[k][i] * coefficients[k][j];
+          }
+          assertThat(covariance).isCloseTo(Math.min(times.get(i), times.get(j)), offset(TOL));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void test_firstNormalDeterminesTerminalValue() {
+    BrownianBridge test = BrownianBridge.ofEquallySpaced(4d, 8);
+    DoubleArray path = test.path(DoubleArray.of(1.5, 0, 0, 0, 0, 0, 0, 0));
+    assertThat(path.get(7)).isCloseTo(3d, offset(TOL));
+    assertThat(path.get(3)).isCloseTo(1.5d, offset(TOL));
+  }
+
+  @Test
+  public void test_path_offset() {
+    BrownianBridge test = BrownianBridge.ofEquallySpaced(1d, 4);
+    double[] normals = {9, 0.1, -0.2, 0.3, 0.4, 9};
+    double[] path = new double[4];
+    test.path(normals, 1, path);
+    assertThat(path).containsExactly(test.path(DoubleArray.of(0.1, -0.2, 0.3, 0.4)).toArray());
+  }
+
+  @Test
+  public void test_invalid() {
+    assertThatIllegalArgumentException().isThrownBy(() -> BrownianBridge.of(DoubleArray.EMPTY));
+    assertThatIllegalArgumentException().isThrownBy(() -> BrownianBridge.of(DoubleArray.of(0, 1)));
+    assertThatIllegalArgumentException().isThrownBy(() -> BrownianBridge.of(DoubleArray.of(1, 1)));
+    assertThatIllegalArgumentException().isThrownBy(() -> BrownianBridge.ofEquallySpaced(1, 4).path(DoubleArray.of(1)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> BrownianBridge.ofEquallySpaced(1, 4).path(new double[5], 2, new double[4]));
+  }
+
+}
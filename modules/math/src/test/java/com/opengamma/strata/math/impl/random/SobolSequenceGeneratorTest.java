@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.data.Offset.offset;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.opengamma.strata.math.impl.cern.Probability;
+
+/**
+ * Test {@link SobolSequenceGenerator}.
+ */
+public class SobolSequenceGeneratorTest {
+
+  @Test
+  public void test_firstPoints() {
+    SobolSequenceGenerator test = SobolSequenceGenerator.ofUniform(3);
+    assertThat(test.getDimension()).isEqualTo(3);
+    assertThat(test.getVector(3)).containsExactly(0.5, 0.5, 0.5);
+    assertThat(test.getVector(3)).containsExactly(0.75, 0.25, 0.25);
+    assertThat(test.getVector(3)).containsExactly(0.25, 0.75, 0.75);
+    assertThat(test.getIndex()).isEqualTo(3);
+  }
+
+  @Test
+  public void test_stratified() {
+    // each dimension of the first 2^k - 1 points is a permutation of the non-zero multiples of 2^-k
+    int dimension = SobolSequenceGenerator.MAX_DIMENSION;
+    int count = (1 << 10) - 1;
+    SobolSequenceGenerator test = SobolSequenceGenerator.ofUniform(dimension);
+    double[] points = test.getVector(dimension * count);
+    for (int i = 0; i < dimension; i++) {
+      double[] values = new double[count];
+      for (int j = 0; j < count; j++) {
+        values[j] = points[j * dimension + i];
+      }
+      Arrays.sort(values);
+      for (int j = 0; j < count; j++) {
+        assertThat(values[j]).isEqualTo((j + 1) / 1024d);
+      }
+    }
+  }
+
+  @Test
+  public void test_skip() {
+    int dimension = SobolSequenceGenerator.MAX_DIMENSION;
+    SobolSequenceGenerator sequential = SobolSequenceGenerator.ofUniform(dimension);
+    double[] all = sequential.getVector(dimension * 300);
+    SobolSequenceGenerator skipped = SobolSequenceGenerator.ofUniform(dimension).skip(250);
+    assertThat(skipped.getIndex()).isEqualTo(250);
+    double[] block = new double[dimension * 50];
+    skipped.fill(block);
+    for (int i = 0; i < block.length; i++) {
+      assertThat(block[i]).isEqualTo(all[dimension * 250 + i]);
+    }
+  }
+
+  @Test
+  public void test_joeKuo() {
+    // dimension, degree s, polynomial a and initial direction numbers m, from the new-joe-kuo-6.21201 table
+    int[][] table = {
+        {2, 1, 0, 1},
+        {3, 2, 1, 1, 3},
+        {5, 3, 2, 1, 1, 1},
+        {8, 5, 2, 1, 1, 5, 5, 17},
+        {13, 5, 14, 1, 3, 5, 5, 31},
+        {14, 6, 1, 1, 3, 3, 9, 7, 49},
+        {19, 6, 25, 1, 1, 5, 5, 19, 61},
+        {20, 7, 1, 1, 3, 7, 11, 23, 15, 103},
+        {21, 7, 4, 1, 3, 7, 13, 13, 15, 69}};
+    int dimension = SobolSequenceGenerator.MAX_DIMENSION;
+    int count = 1000;
+    double[] points = SobolSequenceGenerator.ofUniform(dimension).getVector(dimension * count);
+    for (int[] row : table) {
+      long[] directions = joeKuoDirections(row[1], row[2], Arrays.copyOfRange(row, 3, row.length));
+      // indices beyond 2^s depend on the polynomial as well as the initial direction numbers
+      for (int index = 1 << row[1]; index <= count; index += 7) {
+        long gray = index ^ (index >>> 1);
+        long expected = 0;
+        for (int bit = 0; bit < 32; bit++) {
+          if ((gray & (1L << bit)) != 0) {
+            expected ^= directions[bit];
+          }
+        }
+        assertThat(points[(index - 1) * dimension + row[0] - 1]).isEqualTo(expected * 0x1.0p-32);
+      }
+    }
+  }
+
+  // the direction numbers scaled by 2^32, using the recurrence of Joe and Kuo on the integers m
+  private static long[] joeKuoDirections(int s, int a, int[] initial) {
+    long[] m = new long[33];
+    for (int i = 1; i <= 32; i++) {
+      if (i <= s) {
+        m[i] = initial[i - 1];
+      } else {
+        long value = m[i - s] ^ (m[i - s] << s);
+        for (int k = 1; k < s; k++) {
+          value ^= (((a >>> (s - 1 - k)) & 1L) << k) * m[i - k];
+        }
+        m[i] = value;
+      }
+    }
+    long[] result = new long[32];
+    for (int i = 1; i <= 32; i++) {
+      result[i - 1] = m[i] << (32 - i);
+    }
+    return result;
+  }
+
+  @Test
+  public void test_normal() {
+    SobolSequenceGenerator uniform = SobolSequenceGenerator.ofUniform(5);
+    SobolSequenceGenerator normal = SobolSequenceGenerator.ofNormal(5);
+    double[] uniforms = uniform.getVector(5 * 100);
+    double[] normals = normal.getVectors(5, 100).stream().flatMapToDouble(Arrays::stream).toArray();
+    for (int i = 0; i < uniforms.length; i++) {
+      assertThat(normals[i]).isCloseTo(Probability.normalInverse(uniforms[i]), offset(1e-14));
+    }
+    // the mean of the normal numbers is close to zero
+    double[] many = SobolSequenceGenerator.ofNormal(2).getVector(2 * ((1 << 14) - 1));
+    assertThat(Arrays.stream(many).average().getAsDouble()).isCloseTo(0d, offset(1e-3));
+  }
+
+  @Test
+  public void test_invalid() {
+    assertThatIllegalArgumentException().isThrownBy(() -> SobolSequenceGenerator.ofUniform(0));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> SobolSequenceGenerator.ofUniform(SobolSequenceGenerator.MAX_DIMENSION + 1));
+    assertThatIllegalArgumentException().isThrownBy(() -> SobolSequenceGenerator.ofUniform(3).getVector(4));
+    assertThatIllegalArgumentException().isThrownBy(() -> SobolSequenceGenerator.ofUniform(3).skip(-1));
+    assertThatIllegalArgumentException().isThrownBy(() -> SobolSequenceGenerator.ofUniform(3).skip(1L << 32));
+  }
+
+}
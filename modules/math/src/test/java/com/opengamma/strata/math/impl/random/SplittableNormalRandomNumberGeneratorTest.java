@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.data.Offset.offset;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test {@link SplittableNormalRandomNumberGenerator}.
+ */
+public class SplittableNormalRandomNumberGeneratorTest {
+
+  @Test
+  public void test_deterministic() {
+    double[] first = SplittableNormalRandomNumberGenerator.of(42).getVector(100);
+    double[] second = SplittableNormalRandomNumberGenerator.of(42).getVector(100);
+    double[] other = SplittableNormalRandomNumberGenerator.of(43).getVector(100);
+    assertThat(first).containsExactly(second);
+    assertThat(first).isNotEqualTo(other);
+  }
+
+  @Test
+  public void test_distribution() {
+    double[] values = SplittableNormalRandomNumberGenerator.of(2d, 3d, 1).getVector(200_000);
+    double mean = 0;
+    for (double value : values) {
+      mean += value;
+    }
+    mean /= values.length;
+    double variance = 0;
+    for (double value : values) {
+      variance += (value - mean) * (value - mean);
+    }
+    variance /= values.length - 1;
+    assertThat(mean).isCloseTo(2d, offset(0.03));
+    assertThat(Math.sqrt(variance)).isCloseTo(3d, offset(0.03));
+  }
+
+  @Test
+  public void test_jump() {
+    SplittableNormalRandomNumberGenerator base = SplittableNormalRandomNumberGenerator.of(7);
+    SplittableNormalRandomNumberGenerator jumped = base.copy().jump(250);
+    double[] all = base.getVector(300);
+    double[] block = jumped.getVector(50);
+    for (int i = 0; i < 50; i++) {
+      assertThat(block[i]).isEqualTo(all[250 + i]);
+    }
+  }
+
+  @Test
+  public void test_split() {
+    List<SplittableNormalRandomNumberGenerator> streams = SplittableNormalRandomNumberGenerator.of(11).split(3);
+    List<SplittableNormalRandomNumberGenerator> again = SplittableNormalRandomNumberGenerator.of(11).split(3);
+    assertThat(streams).hasSize(3);
+    double[] stream0 = streams.get(0).getVector(20);
+    double[] stream1 = streams.get(1).getVector(20);
+    assertThat(stream0).isNotEqualTo(stream1);
+    // independent of the order in which streams are used
+    assertThat(again.get(1).getVector(20)).containsExactly(stream1);
+    assertThat(again.get(0).getVector(20)).containsExactly(stream0);
+  }
+
+  @Test
+  public void test_fill() {
+    double[] expected = SplittableNormalRandomNumberGenerator.of(5).getVector(10);
+    double[] array = new double[12];
+    SplittableNormalRandomNumberGenerator.of(5).fill(array, 1, 11);
+    assertThat(array[0]).isEqualTo(0d);
+    assertThat(array[11]).isEqualTo(0d);
+    for (int i = 0; i < 10; i++) {
+      assertThat(array[i + 1]).isEqualTo(expected[i]);
+    }
+    double[] whole = new double[10];
+    SplittableNormalRandomNumberGenerator.of(5).fill(whole);
+    assertThat(whole).containsExactly(expected);
+    List<double[]> vectors = SplittableNormalRandomNumberGenerator.of(5).getVectors(5, 2);
+    assertThat(vectors.get(1)[0]).isEqualTo(expected[5]);
+  }
+
+  @Test
+  public void test_invalid() {
+    SplittableNormalRandomNumberGenerator generator = SplittableNormalRandomNumberGenerator.of(1);
+    assertThatIllegalArgumentException().isThrownBy(() -> SplittableNormalRandomNumberGenerator.of(0, -1, 1));
+    assertThatIllegalArgumentException().isThrownBy(() -> generator.jump(-1));
+    assertThatIllegalArgumentException().isThrownBy(() -> generator.fill(new double[2], 1, 3));
+    assertThatIllegalArgumentException().isThrownBy(() -> generator.getVectors(-1, 4));
+  }
+
+}
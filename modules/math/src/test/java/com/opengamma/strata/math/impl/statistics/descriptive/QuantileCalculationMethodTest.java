@@ -790,6 +790,82 @@ public class QuantileCalculationMethodTest {
         .isCloseTo(0.9948, offset(TOL));
   }
 
+  //-------------------------------------------------------------------------
+  @Test
+  public void quantiles_multiple_levels() {
+    QuantileCalculationMethod[] methods = {
+        QUANTILE_INDEX_ABOVE, QUANTILE_NEAREST_INDEX, QUANTILE_SAMPLE1_NEAREST_INDEX, QUANTILE_SAMPLE_INTERPOLATION,
+        QUANTILE_SAMPLE1_INTERPOLATION, QUANTILE_MIDWAY_INTERPOLATION, ExcelInterpolationQuantileMethod.DEFAULT,
+        new ExponentiallyWeightedInterpolationQuantileMethod(0.99)};
+    DoubleArray levels = DoubleArray.of(LEVEL1, LEVEL2, LEVEL3, 0.01, 0.5, 0.025, LEVEL1);
+    for (QuantileCalculationMethod method : methods) {
+      for (DoubleArray sample : new DoubleArray[] {UNSORTED_100, UNSORTED_123}) {
+        DoubleArray computed = method.quantilesWithExtrapolationFromUnsorted(levels, sample);
+        for (int i = 0; i < levels.size(); i++) {
+          assertThat(computed.get(i))
+              .isCloseTo(method.quantileWithExtrapolationFromUnsorted(levels.get(i), sample), offset(TOL));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void quantiles_multiple_levels_large() {
+    DoubleArray sample = DoubleArray.of(10_000, i -> Math.sin(i * 7.3) * (i % 97) + (i % 13 == 0 ? 5 : 0));
+    DoubleArray levels = DoubleArray.of(0.001, 0.01, 0.025, 0.05, 0.5, 0.95, 0.975, 0.99);
+    DoubleArray computed = QUANTILE_SAMPLE_INTERPOLATION.quantilesFromUnsorted(levels, sample);
+    DoubleArray computedAbove = QUANTILE_INDEX_ABOVE.quantilesFromUnsorted(levels, sample);
+    for (int i = 0; i < levels.size(); i++) {
+      assertThat(computed.get(i))
+          .isCloseTo(QUANTILE_SAMPLE_INTERPOLATION.quantileFromUnsorted(levels.get(i), sample), offset(TOL));
+      assertThat(computedAbove.get(i))
+          .isCloseTo(QUANTILE_INDEX_ABOVE.quantileFromUnsorted(levels.get(i), sample), offset(TOL));
+    }
+  }
+
+  @Test
+  public void quantiles_multiple_levels_nan() {
+    // NaN is ordered above all other values, as when the sample is sorted
+    DoubleArray sample = UNSORTED_100.with(3, Double.NaN).with(40, Double.NaN).with(77, Double.NaN);
+    DoubleArray levels = DoubleArray.of(0.01, 0.25, 0.5, 0.96, 0.975, 0.99);
+    for (QuantileCalculationMethod method : new QuantileCalculationMethod[] {QUANTILE_INDEX_ABOVE, QUANTILE_SAMPLE_INTERPOLATION}) {
+      DoubleArray computed = method.quantilesWithExtrapolationFromUnsorted(levels, sample);
+      DoubleArray expected = levels.map(level -> method.quantileWithExtrapolationFromUnsorted(level, sample));
+      assertThat(computed).isEqualTo(expected);
+    }
+    DoubleArray large = DoubleArray.of(1000, i -> i % 10 == 0 ? Double.NaN : Math.sin(i * 7.3));
+    DoubleArray largeLevels = DoubleArray.of(0.01, 0.5, 0.85, 0.95);
+    assertThat(QUANTILE_INDEX_ABOVE.quantilesFromUnsorted(largeLevels, large))
+        .isEqualTo(largeLevels.map(level -> QUANTILE_INDEX_ABOVE.quantileFromUnsorted(level, large)));
+  }
+
+  @Test
+  public void quantiles_multiple_levels_notRankBased() {
+    // a method that does not implement the rank estimates each level separately
+    QuantileCalculationMethod method = new QuantileCalculationMethod() {
+      @Override
+      protected QuantileResult quantile(double level, DoubleArray sample, boolean isExtrapolated) {
+        return QUANTILE_SAMPLE_INTERPOLATION.quantile(level, sample, isExtrapolated);
+      }
+
+      @Override
+      protected QuantileResult expectedShortfall(double level, DoubleArray sample) {
+        return QUANTILE_SAMPLE_INTERPOLATION.expectedShortfall(level, sample);
+      }
+    };
+    DoubleArray levels = DoubleArray.of(LEVEL1, LEVEL2, 0.5);
+    assertThat(method.quantilesFromUnsorted(levels, UNSORTED_100))
+        .isEqualTo(QUANTILE_SAMPLE_INTERPOLATION.quantilesFromUnsorted(levels, UNSORTED_100));
+    assertThat(method.quantilesWithExtrapolationFromUnsorted(levels, UNSORTED_100))
+        .isEqualTo(QUANTILE_SAMPLE_INTERPOLATION.quantilesWithExtrapolationFromUnsorted(levels, UNSORTED_100));
+  }
+
+  @Test
+  public void quantiles_multiple_levels_outside_range() {
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> QUANTILE_SAMPLE1_INTERPOLATION.quantilesFromUnsorted(DoubleArray.of(0.5, LEVEL4), UNSORTED_100));
+  }
+
   //-------------------------------------------------------------------------
   @Test
   public void quantile_weights_indices_test() {
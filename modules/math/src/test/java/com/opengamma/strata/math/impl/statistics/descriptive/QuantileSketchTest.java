@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.statistics.descriptive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.data.Offset.offset;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Test {@link QuantileSketch}.
+ */
+public class QuantileSketchTest {
+
+  private static final QuantileCalculationMethod[] METHODS = {
+      IndexAboveQuantileMethod.DEFAULT,
+      NearestIndexQuantileMethod.DEFAULT,
+      SampleInterpolationQuantileMethod.DEFAULT,
+      SamplePlusOneInterpolationQuantileMethod.DEFAULT,
+      MidwayInterpolationQuantileMethod.DEFAULT};
+  private static final DoubleArray LEVELS = DoubleArray.of(0.01, 0.025, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99);
+  private static final double TOL = 1e-12;
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_exact_smallSample() {
+    DoubleArray sample = sample(150, 1);
+    QuantileSketch test = QuantileSketch.of(sample);
+    assertThat(test.getCount()).isEqualTo(150);
+    assertThat(test.getCentroidCount()).isEqualTo(150);
+    assertThat(test.getMin()).isEqualTo(sample.min());
+    assertThat(test.getMax()).isEqualTo(sample.max());
+    for (QuantileCalculationMethod method : METHODS) {
+      for (int i = 0; i < LEVELS.size(); i++) {
+        double level = LEVELS.get(i);
+        assertThat(test.quantileWithExtrapolation(level, method))
+            .isCloseTo(method.quantileWithExtrapolationFromUnsorted(level, sample), offset(TOL));
+      }
+    }
+  }
+
+  @Test
+  public void test_approximate_largeSample() {
+    DoubleArray sample = sample(100_000, 2);
+    QuantileSketch test = QuantileSketch.of(200).addAll(sample);
+    assertThat(test.getCount()).isEqualTo(100_000);
+    assertThat(test.getCentroidCount()).isLessThan(200);
+    DoubleArray computed = test.quantilesWithExtrapolation(LEVELS, SampleInterpolationQuantileMethod.DEFAULT);
+    for (int i = 0; i < LEVELS.size(); i++) {
+      assertThat(fractionBelow(sample, computed.get(i))).isCloseTo(LEVELS.get(i), offset(0.001));
+    }
+    // tails are more accurate
+    assertThat(fractionBelow(sample, computed.get(0))).isCloseTo(LEVELS.get(0), offset(0.0003));
+  }
+
+  @Test
+  public void test_merge() {
+    DoubleArray sample1 = sample(40_000, 3);
+    DoubleArray sample2 = sample(60_000, 4).map(v -> v + 0.5);
+    QuantileSketch test = QuantileSketch.create().addAll(sample1);
+    QuantileSketch other = QuantileSketch.create().addAll(sample2);
+    test.merge(other);
+    assertThat(test.getCount()).isEqualTo(100_000);
+    assertThat(other.getCount()).isEqualTo(60_000);
+    assertThat(test.getMin()).isEqualTo(Math.min(sample1.min(), sample2.min()));
+    assertThat(test.getMax()).isEqualTo(Math.max(sample1.max(), sample2.max()));
+    DoubleArray combined = sample1.concat(sample2);
+    for (int i = 0; i < LEVELS.size(); i++) {
+      double level = LEVELS.get(i);
+      assertThat(fractionBelow(combined, test.quantileWithExtrapolation(level, IndexAboveQuantileMethod.DEFAULT)))
+          .isCloseTo(level, offset(0.001));
+    }
+  }
+
+  @Test
+  public void test_merge_exact() {
+    DoubleArray sample1 = sample(50, 5);
+    DoubleArray sample2 = sample(70, 6);
+    QuantileSketch test = QuantileSketch.of(sample1).merge(QuantileSketch.of(sample2));
+    DoubleArray combined = sample1.concat(sample2);
+    for (int i = 0; i < LEVELS.size(); i++) {
+      double level = LEVELS.get(i);
+      assertThat(test.quantileWithExtrapolation(level, MidwayInterpolationQuantileMethod.DEFAULT))
+          .isCloseTo(MidwayInterpolationQuantileMethod.DEFAULT.quantileWithExtrapolationFromUnsorted(level, combined),
+              offset(TOL));
+    }
+  }
+
+  @Test
+  public void test_invalid() {
+    assertThatIllegalArgumentException().isThrownBy(() -> QuantileSketch.of(5));
+    assertThatIllegalArgumentException().isThrownBy(() -> QuantileSketch.create().add(Double.NaN));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> QuantileSketch.create().quantile(0.5, IndexAboveQuantileMethod.DEFAULT));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> QuantileSketch.of(sample(100, 7)).quantile(0.0001, SampleInterpolationQuantileMethod.DEFAULT));
+    QuantileSketch sketch = QuantileSketch.create();
+    assertThatIllegalArgumentException().isThrownBy(() -> sketch.merge(sketch));
+    // the sketch does not retain the order of the sample, as required by exponential weighting
+    ExponentiallyWeightedInterpolationQuantileMethod weighted = new ExponentiallyWeightedInterpolationQuantileMethod(0.99);
+    QuantileSketch full = QuantileSketch.of(sample(100, 7));
+    assertThatIllegalArgumentException().isThrownBy(() -> full.quantile(0.5, weighted));
+    assertThatIllegalArgumentException().isThrownBy(() -> full.quantileWithExtrapolation(0.5, weighted));
+    assertThatIllegalArgumentException().isThrownBy(() -> full.quantilesWithExtrapolation(DoubleArray.of(0.5), weighted));
+  }
+
+  //-------------------------------------------------------------------------
+  // the accuracy of the estimate is measured by the fraction of the sample below it
+  private static double fractionBelow(DoubleArray sample, double value) {
+    return sample.stream().filter(v -> v < value).count() / (double) sample.size();
+  }
+
+  private static DoubleArray sample(int size, long seed) {
+    Random random = new Random(seed);
+    return DoubleArray.of(size, i -> random.nextGaussian());
+  }
+
+}
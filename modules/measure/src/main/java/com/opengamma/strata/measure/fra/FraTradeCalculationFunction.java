@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.opengamma.strata.basics.ReferenceData;
@@ -108,6 +109,13 @@ public class FraTradeCalculationFunction
   }
 
   //-------------------------------------------------------------------------
+  @Override
+  public Object requirementsKey(FraTrade trade) {
+    // the requirements only depend on the currency and indices
+    Fra product = trade.getProduct();
+    return ImmutableList.of(product.getCurrency(), product.getIndex(), product.getIndexInterpolated());
+  }
+
   @Override
   public FunctionRequirements requirements(
       FraTrade trade,
@@ -39,6 +39,7 @@ import com.opengamma.strata.market.explain.ExplainMap;
 import com.opengamma.strata.market.param.CrossGammaParameterSensitivities;
 import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
 import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
+import com.opengamma.strata.market.sensitivity.MutablePointSensitivities;
 import com.opengamma.strata.market.sensitivity.PointSensitivities;
 import com.opengamma.strata.measure.rate.RatesMarketData;
 import com.opengamma.strata.measure.rate.RatesScenarioMarketData;
@@ -216,6 +217,60 @@ final class SwapMeasureCalculations {
     return MARKET_QUOTE_SENS.sensitivity(parameterSensitivity, ratesProvider).multipliedBy(ONE_BASIS_POINT);
   }
 
+  //-------------------------------------------------------------------------
+  // calculates calibrated bucketed PV01 of a portfolio for all scenarios
+  ScenarioArray<CurrencyParameterSensitivities> pv01CalibratedBucketed(
+      List<ResolvedSwapTrade> trades,
+      RatesScenarioMarketData marketData) {
+
+    return ScenarioArray.of(
+        marketData.getScenarioCount(),
+        i -> pv01CalibratedBucketed(trades, marketData.scenario(i).ratesProvider()));
+  }
+
+  // calibrated bucketed PV01 of a portfolio for one scenario
+  CurrencyParameterSensitivities pv01CalibratedBucketed(
+      List<ResolvedSwapTrade> trades,
+      RatesProvider ratesProvider) {
+
+    PointSensitivities pointSensitivity = portfolioPointSensitivity(trades, ratesProvider);
+    return ratesProvider.parameterSensitivity(pointSensitivity).multipliedBy(ONE_BASIS_POINT);
+  }
+
+  //-------------------------------------------------------------------------
+  // calculates market quote bucketed PV01 of a portfolio for all scenarios
+  ScenarioArray<CurrencyParameterSensitivities> pv01MarketQuoteBucketed(
+      List<ResolvedSwapTrade> trades,
+      RatesScenarioMarketData marketData) {
+
+    return ScenarioArray.of(
+        marketData.getScenarioCount(),
+        i -> pv01MarketQuoteBucketed(trades, marketData.scenario(i).ratesProvider()));
+  }
+
+  // market quote bucketed PV01 of a portfolio for one scenario
+  CurrencyParameterSensitivities pv01MarketQuoteBucketed(
+      List<ResolvedSwapTrade> trades,
+      RatesProvider ratesProvider) {
+
+    PointSensitivities pointSensitivity = portfolioPointSensitivity(trades, ratesProvider);
+    CurrencyParameterSensitivities parameterSensitivity = ratesProvider.parameterSensitivity(pointSensitivity);
+    return MARKET_QUOTE_SENS.sensitivity(parameterSensitivity, ratesProvider).multipliedBy(ONE_BASIS_POINT);
+  }
+
+  // the point sensitivity of the portfolio, merging the sensitivities of the trades to the same point
+  // this ensures the projection onto the curve parameters is performed once, rather than once per trade
+  private PointSensitivities portfolioPointSensitivity(
+      List<ResolvedSwapTrade> trades,
+      RatesProvider ratesProvider) {
+
+    MutablePointSensitivities combined = new MutablePointSensitivities();
+    for (ResolvedSwapTrade trade : trades) {
+      combined.addAll(tradePricer.presentValueSensitivity(trade, ratesProvider).getSensitivities());
+    }
+    return combined.normalize().build();
+  }
+
   //-------------------------------------------------------------------------
   // calculates semi-parallel gamma PV01 for all scenarios
   ScenarioArray<CurrencyParameterSensitivities> pv01SemiParallelGammaBucketed(
@@ -5,7 +5,9 @@
  */
 package com.opengamma.strata.measure.swap;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -15,11 +17,12 @@ import com.google.common.collect.ImmutableSet;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.calc.Measure;
-import com.opengamma.strata.calc.runner.CalculationFunction;
+import com.opengamma.strata.calc.runner.BatchCalculationFunction;
 import com.opengamma.strata.calc.runner.CalculationParameters;
 import com.opengamma.strata.calc.runner.FunctionRequirements;
 import com.opengamma.strata.collect.result.FailureReason;
 import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.tuple.Pair;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 import com.opengamma.strata.measure.AdvancedMeasures;
 import com.opengamma.strata.measure.Measures;
@@ -55,10 +58,13 @@ import com.opengamma.strata.product.swap.SwapTrade;
  *   <li>{@linkplain AdvancedMeasures#PV01_SINGLE_NODE_GAMMA_BUCKETED PV01 single node gamma bucketed}
  * </ul>
  * <p>
+ * When run as a batch, the market data view, and thus the rates provider of each scenario,
+ * is shared between all the trades of the batch.
+ * <p>
  * The "natural" currency is the currency of the swaption, which is limited to be single-currency.
  */
 public class SwapTradeCalculationFunction
-    implements CalculationFunction<SwapTrade> {
+    implements BatchCalculationFunction<SwapTrade> {
 
   /**
    * The calculations by measure.
@@ -114,6 +120,13 @@ public class SwapTradeCalculationFunction
   }
 
   //-------------------------------------------------------------------------
+  @Override
+  public Object requirementsKey(SwapTrade trade) {
+    // the requirements only depend on the currencies and indices
+    Swap product = trade.getProduct();
+    return Pair.of(product.allPaymentCurrencies(), product.allIndices());
+  }
+
   @Override
   public FunctionRequirements requirements(
       SwapTrade trade,
@@ -154,6 +167,31 @@ public class SwapTradeCalculationFunction
     return results;
   }
 
+  @Override
+  public List<Map<Measure, Result<?>>> calculateBatch(
+      List<? extends SwapTrade> trades,
+      List<Set<Measure>> measures,
+      CalculationParameters parameters,
+      ScenarioMarketData scenarioMarketData,
+      ReferenceData refData) {
+
+    // use lookup to query market data, sharing the rates provider of each scenario between trades
+    RatesMarketDataLookup ratesLookup = parameters.getParameter(RatesMarketDataLookup.class);
+    RatesScenarioMarketData marketData = ratesLookup.marketDataView(scenarioMarketData);
+
+    // loop around trades, resolving each trade once for all measures and all scenarios
+    List<Map<Measure, Result<?>>> batchResults = new ArrayList<>(trades.size());
+    for (int i = 0; i < trades.size(); i++) {
+      ResolvedSwapTrade resolved = trades.get(i).resolve(refData);
+      Map<Measure, Result<?>> results = new HashMap<>();
+      for (Measure measure : measures.get(i)) {
+        results.put(measure, calculate(measure, resolved, marketData));
+      }
+      batchResults.add(results);
+    }
+    return batchResults;
+  }
+
   // calculate one measure
   private Result<?> calculate(
       Measure measure,
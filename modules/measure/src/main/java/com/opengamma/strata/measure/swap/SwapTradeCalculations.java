@@ -5,6 +5,8 @@
  */
 package com.opengamma.strata.measure.swap;
 
+import java.util.List;
+
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
 import com.opengamma.strata.data.scenario.DoubleScenarioArray;
 import com.opengamma.strata.data.scenario.MultiCurrencyScenarioArray;
@@ -289,6 +291,100 @@ public class SwapTradeCalculations {
     return calc.pv01MarketQuoteBucketed(trade, ratesProvider);
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the present value sensitivity of a portfolio across one or more scenarios.
+   * <p>
+   * This is the sensitivity of the total present value of the trades
+   * to a one basis point shift in the calibrated curves.
+   * The result is provided for each affected curve and currency, bucketed by curve node.
+   * <p>
+   * The result is the sum of {@link #pv01CalibratedBucketed(ResolvedSwapTrade, RatesMarketDataLookup, ScenarioMarketData)}
+   * for each trade. The point sensitivities of the trades are aggregated before being projected onto the
+   * curve parameters, which is much faster than calculating the sensitivity of each trade separately.
+   * 
+   * @param trades  the trades
+   * @param lookup  the lookup used to query the market data
+   * @param marketData  the market data
+   * @return the present value sensitivity of the portfolio, one entry per scenario
+   */
+  public ScenarioArray<CurrencyParameterSensitivities> pv01CalibratedBucketed(
+      List<ResolvedSwapTrade> trades,
+      RatesMarketDataLookup lookup,
+      ScenarioMarketData marketData) {
+
+    return calc.pv01CalibratedBucketed(trades, lookup.marketDataView(marketData));
+  }
+
+  /**
+   * Calculates the present value sensitivity of a portfolio for a single set of market data.
+   * <p>
+   * This is the sensitivity of the total present value of the trades
+   * to a one basis point shift in the calibrated curves.
+   * The result is provided for each affected curve and currency, bucketed by curve node.
+   * <p>
+   * The result is the sum of {@link #pv01CalibratedBucketed(ResolvedSwapTrade, RatesProvider)}
+   * for each trade. The point sensitivities of the trades are aggregated before being projected onto the
+   * curve parameters, which is much faster than calculating the sensitivity of each trade separately.
+   * 
+   * @param trades  the trades
+   * @param ratesProvider  the market data
+   * @return the present value sensitivity of the portfolio
+   */
+  public CurrencyParameterSensitivities pv01CalibratedBucketed(
+      List<ResolvedSwapTrade> trades,
+      RatesProvider ratesProvider) {
+
+    return calc.pv01CalibratedBucketed(trades, ratesProvider);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the present value sensitivity of a portfolio across one or more scenarios.
+   * <p>
+   * This is the sensitivity of the total present value of the trades
+   * to a one basis point shift in the market quotes used to calibrate the curves.
+   * The result is provided for each affected curve and currency, bucketed by curve node.
+   * <p>
+   * The result is the sum of {@link #pv01MarketQuoteBucketed(ResolvedSwapTrade, RatesMarketDataLookup, ScenarioMarketData)}
+   * for each trade. The point sensitivities of the trades are aggregated before being projected onto the
+   * curve parameters and market quotes, which is much faster than calculating the sensitivity of each trade separately.
+   * 
+   * @param trades  the trades
+   * @param lookup  the lookup used to query the market data
+   * @param marketData  the market data
+   * @return the present value sensitivity of the portfolio, one entry per scenario
+   */
+  public ScenarioArray<CurrencyParameterSensitivities> pv01MarketQuoteBucketed(
+      List<ResolvedSwapTrade> trades,
+      RatesMarketDataLookup lookup,
+      ScenarioMarketData marketData) {
+
+    return calc.pv01MarketQuoteBucketed(trades, lookup.marketDataView(marketData));
+  }
+
+  /**
+   * Calculates the present value sensitivity of a portfolio for a single set of market data.
+   * <p>
+   * This is the sensitivity of the total present value of the trades
+   * to a one basis point shift in the market quotes used to calibrate the curves.
+   * The result is provided for each affected curve and currency, bucketed by curve node.
+   * <p>
+   * The result is the sum of {@link #pv01MarketQuoteBucketed(ResolvedSwapTrade, RatesProvider)}
+   * for each trade. The point sensitivities of the trades are aggregated before being projected onto the
+   * curve parameters and market quotes, which is much faster than calculating the sensitivity of each trade separately.
+   * 
+   * @param trades  the trades
+   * @param ratesProvider  the market data
+   * @return the present value sensitivity of the portfolio
+   */
+  public CurrencyParameterSensitivities pv01MarketQuoteBucketed(
+      List<ResolvedSwapTrade> trades,
+      RatesProvider ratesProvider) {
+
+    return calc.pv01MarketQuoteBucketed(trades, ratesProvider);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Calculates par rate across one or more scenarios.
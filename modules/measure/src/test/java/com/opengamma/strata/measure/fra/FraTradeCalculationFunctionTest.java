@@ -21,6 +21,7 @@ import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
 import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.basics.index.IborIndices;
 import com.opengamma.strata.calc.Measure;
 import com.opengamma.strata.calc.runner.CalculationParameters;
 import com.opengamma.strata.calc.runner.FunctionRequirements;
@@ -82,6 +83,19 @@ public class FraTradeCalculationFunctionTest {
     assertThat(function.naturalCurrency(TRADE, REF_DATA)).isEqualTo(CURRENCY);
   }
 
+  @Test
+  public void test_requirementsKey() {
+    FraTradeCalculationFunction function = new FraTradeCalculationFunction();
+    FraTrade otherNotional = TRADE.toBuilder()
+        .product(TRADE.getProduct().toBuilder().notional(2_000_000).build())
+        .build();
+    FraTrade otherIndex = TRADE.toBuilder()
+        .product(TRADE.getProduct().toBuilder().indexInterpolated(IborIndices.GBP_LIBOR_6M).build())
+        .build();
+    assertThat(function.requirementsKey(otherNotional)).isEqualTo(function.requirementsKey(TRADE));
+    assertThat(function.requirementsKey(otherIndex)).isNotEqualTo(function.requirementsKey(TRADE));
+  }
+
   @Test
   public void test_simpleMeasures() {
     FraTradeCalculationFunction function = new FraTradeCalculationFunction();
@@ -10,7 +10,12 @@ import static com.opengamma.strata.collect.TestHelper.date;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.Test;
 
@@ -22,9 +27,18 @@ import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
 import com.opengamma.strata.basics.date.Tenor;
 import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.calc.Column;
 import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.ReportingCurrency;
+import com.opengamma.strata.calc.Results;
 import com.opengamma.strata.calc.runner.CalculationParameters;
+import com.opengamma.strata.calc.runner.CalculationTask;
+import com.opengamma.strata.calc.runner.CalculationTaskCell;
+import com.opengamma.strata.calc.runner.CalculationTaskRunner;
+import com.opengamma.strata.calc.runner.CalculationTasks;
 import com.opengamma.strata.calc.runner.FunctionRequirements;
+import com.opengamma.strata.collect.metrics.Metrics;
+import com.opengamma.strata.collect.metrics.MetricsListener;
 import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.data.scenario.DoubleScenarioArray;
 import com.opengamma.strata.data.scenario.MultiCurrencyScenarioArray;
@@ -82,6 +96,17 @@ public class SwapTradeCalculationFunctionTest {
     assertThat(function.naturalCurrency(TRADE, REF_DATA)).isEqualTo(CURRENCY);
   }
 
+  @Test
+  public void test_requirementsKey() {
+    SwapTradeCalculationFunction function = new SwapTradeCalculationFunction();
+    SwapTrade sameIndices = FixedIborSwapConventions.GBP_FIXED_6M_LIBOR_6M
+        .createTrade(date(2017, 3, 15), Tenor.TENOR_5Y, BuySell.SELL, 2_000_000, 0.02, REF_DATA);
+    SwapTrade otherIndices = FixedIborSwapConventions.USD_FIXED_6M_LIBOR_3M
+        .createTrade(date(2016, 6, 30), Tenor.TENOR_10Y, BuySell.BUY, 1_000_000, 0.01, REF_DATA);
+    assertThat(function.requirementsKey(sameIndices)).isEqualTo(function.requirementsKey(TRADE));
+    assertThat(function.requirementsKey(otherIndices)).isNotEqualTo(function.requirementsKey(TRADE));
+  }
+
   @Test
   public void test_simpleMeasures() {
     SwapTradeCalculationFunction function = new SwapTradeCalculationFunction();
@@ -124,6 +149,62 @@ public class SwapTradeCalculationFunctionTest {
             Measures.RESOLVED_TARGET, Result.success(RTRADE));
   }
 
+  @Test
+  public void test_calculateBatch() {
+    SwapTradeCalculationFunction function = new SwapTradeCalculationFunction();
+    ScenarioMarketData md = marketData();
+    SwapTrade trade2 = FixedIborSwapConventions.GBP_FIXED_6M_LIBOR_6M
+        .createTrade(date(2016, 6, 30), Tenor.TENOR_5Y, BuySell.SELL, 2_000_000, 0.015, REF_DATA);
+    Set<Measure> measures1 = ImmutableSet.of(Measures.PRESENT_VALUE, Measures.PAR_RATE);
+    Set<Measure> measures2 = ImmutableSet.of(Measures.PRESENT_VALUE);
+    List<Map<Measure, Result<?>>> test = function.calculateBatch(
+        ImmutableList.of(TRADE, trade2), ImmutableList.of(measures1, measures2), PARAMS, md, REF_DATA);
+    assertThat(test).hasSize(2);
+    assertThat(test.get(0)).isEqualTo(function.calculate(TRADE, measures1, PARAMS, md, REF_DATA));
+    assertThat(test.get(1)).isEqualTo(function.calculate(trade2, measures2, PARAMS, md, REF_DATA));
+  }
+
+  @Test
+  public void test_calculateBatch_spreadAcrossThreads() {
+    // a small portfolio of swaps is split into batches so that every thread of the runner is used
+    SwapTradeCalculationFunction function = new SwapTradeCalculationFunction();
+    List<CalculationTask> taskList = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      SwapTrade trade = FixedIborSwapConventions.GBP_FIXED_6M_LIBOR_6M
+          .createTrade(date(2016, 6, 30), Tenor.TENOR_5Y, BuySell.BUY, 1_000_000, 0.01 + i * 0.001, REF_DATA);
+      CalculationTaskCell cell = CalculationTaskCell.of(i, 0, Measures.PAR_RATE, ReportingCurrency.NATURAL);
+      taskList.add(CalculationTask.of(trade, function, PARAMS, ImmutableList.of(cell)));
+    }
+    CalculationTasks tasks = CalculationTasks.of(taskList, ImmutableList.of(Column.of(Measures.PAR_RATE)));
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    MetricsListener metrics = new MetricsListener() {
+      @Override
+      public void calculationTask(
+          String functionName,
+          Set<String> measureNames,
+          int targetCount,
+          long queueWaitNanos,
+          long executionNanos) {
+
+        batchSizes.add(targetCount);
+      }
+    };
+
+    ScenarioMarketData md = marketData();
+    try (CalculationTaskRunner runner = CalculationTaskRunner.of(Executors.newFixedThreadPool(4))) {
+      Metrics.register(metrics);
+      Results results = runner.calculateMultiScenario(tasks, md, REF_DATA);
+      assertThat(batchSizes).containsExactlyInAnyOrder(3, 3, 3, 1);
+      for (int i = 0; i < 10; i++) {
+        SwapTrade trade = (SwapTrade) taskList.get(i).getTarget();
+        Set<Measure> measures = ImmutableSet.of(Measures.PAR_RATE);
+        assertThat(results.get(i, 0)).isEqualTo(function.calculate(trade, measures, PARAMS, md, REF_DATA).get(Measures.PAR_RATE));
+      }
+    } finally {
+      Metrics.unregister();
+    }
+  }
+
   @Test
   public void test_pv01() {
     SwapTradeCalculationFunction function = new SwapTradeCalculationFunction();
@@ -148,9 +229,13 @@ public class SwapTradeCalculationFunctionTest {
   //-------------------------------------------------------------------------
   static ScenarioMarketData marketData() {
     Curve curve = ConstantCurve.of(Curves.discountFactors("Test", ACT_360), 0.99);
+    return marketData(curve, curve);
+  }
+
+  static ScenarioMarketData marketData(Curve discountCurve, Curve forwardCurve) {
     TestMarketDataMap md = new TestMarketDataMap(
         VAL_DATE,
-        ImmutableMap.of(DISCOUNT_CURVE_ID, curve, FORWARD_CURVE_ID, curve),
+        ImmutableMap.of(DISCOUNT_CURVE_ID, discountCurve, FORWARD_CURVE_ID, forwardCurve),
         ImmutableMap.of());
     return md;
   }
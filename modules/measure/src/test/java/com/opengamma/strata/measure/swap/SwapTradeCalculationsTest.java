@@ -5,30 +5,47 @@
  */
 package com.opengamma.strata.measure.swap;
 
+import static com.opengamma.strata.basics.date.DayCounts.ACT_360;
+import static com.opengamma.strata.collect.TestHelper.date;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.basics.date.Tenor;
+import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.data.scenario.DoubleScenarioArray;
 import com.opengamma.strata.data.scenario.MultiCurrencyScenarioArray;
 import com.opengamma.strata.data.scenario.ScenarioArray;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 import com.opengamma.strata.market.amount.CashFlows;
+import com.opengamma.strata.market.curve.ConstantCurve;
+import com.opengamma.strata.market.curve.Curve;
+import com.opengamma.strata.market.curve.CurveInfoType;
+import com.opengamma.strata.market.curve.CurveName;
+import com.opengamma.strata.market.curve.CurveParameterSize;
+import com.opengamma.strata.market.curve.Curves;
+import com.opengamma.strata.market.curve.JacobianCalibrationMatrix;
 import com.opengamma.strata.market.explain.ExplainMap;
 import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
 import com.opengamma.strata.market.sensitivity.PointSensitivities;
 import com.opengamma.strata.measure.rate.RatesMarketDataLookup;
 import com.opengamma.strata.pricer.rate.RatesProvider;
 import com.opengamma.strata.pricer.swap.DiscountingSwapTradePricer;
+import com.opengamma.strata.product.common.BuySell;
 import com.opengamma.strata.product.swap.ResolvedSwapTrade;
+import com.opengamma.strata.product.swap.type.FixedIborSwapConventions;
 
 /**
  * Test {@link SwapTradeCalculations}.
  */
 public class SwapTradeCalculationsTest {
 
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
   private static final ResolvedSwapTrade RTRADE = SwapTradeCalculationFunctionTest.RTRADE;
   private static final RatesMarketDataLookup RATES_LOOKUP = SwapTradeCalculationFunctionTest.RATES_LOOKUP;
 
@@ -78,4 +95,56 @@ public class SwapTradeCalculationsTest {
         .isEqualTo(ScenarioArray.of(ImmutableList.of(expectedPv01CalBucketed)));
   }
 
+  @Test
+  public void test_pv01_portfolio() {
+    ScenarioMarketData md = SwapTradeCalculationFunctionTest.marketData();
+    RatesProvider provider = RATES_LOOKUP.marketDataView(md.scenario(0)).ratesProvider();
+    List<ResolvedSwapTrade> trades = ImmutableList.of(RTRADE, RTRADE);
+    CurrencyParameterSensitivities single = SwapTradeCalculations.DEFAULT.pv01CalibratedBucketed(RTRADE, provider);
+    CurrencyParameterSensitivities expected = single.combinedWith(single);
+
+    CurrencyParameterSensitivities computed = SwapTradeCalculations.DEFAULT.pv01CalibratedBucketed(trades, provider);
+    assertThat(computed.equalWithTolerance(expected, 1e-8)).isTrue();
+    ScenarioArray<CurrencyParameterSensitivities> computedScenarios =
+        SwapTradeCalculations.DEFAULT.pv01CalibratedBucketed(trades, RATES_LOOKUP, md);
+    assertThat(computedScenarios.getScenarioCount()).isEqualTo(1);
+    assertThat(computedScenarios.get(0)).isEqualTo(computed);
+    assertThat(SwapTradeCalculations.DEFAULT.pv01CalibratedBucketed(ImmutableList.of(), provider))
+        .isEqualTo(CurrencyParameterSensitivities.empty());
+  }
+
+  @Test
+  public void test_pv01MarketQuote_portfolio() {
+    // the market quote sensitivity requires the curves to have calibration information
+    ScenarioMarketData md = SwapTradeCalculationFunctionTest.marketData(
+        calibratedCurve(CurveName.of("Discount")), calibratedCurve(CurveName.of("Forward")));
+    RatesProvider provider = RATES_LOOKUP.marketDataView(md.scenario(0)).ratesProvider();
+    ResolvedSwapTrade trade2 = FixedIborSwapConventions.GBP_FIXED_6M_LIBOR_6M
+        .createTrade(date(2016, 6, 30), Tenor.TENOR_5Y, BuySell.SELL, 2_000_000, 0.015, REF_DATA)
+        .resolve(REF_DATA);
+    List<ResolvedSwapTrade> trades = ImmutableList.of(RTRADE, trade2, RTRADE);
+    CurrencyParameterSensitivities expected = CurrencyParameterSensitivities.empty();
+    for (ResolvedSwapTrade trade : trades) {
+      expected = expected.combinedWith(SwapTradeCalculations.DEFAULT.pv01MarketQuoteBucketed(trade, provider));
+    }
+
+    CurrencyParameterSensitivities computed = SwapTradeCalculations.DEFAULT.pv01MarketQuoteBucketed(trades, provider);
+    assertThat(computed.equalWithTolerance(expected, 1e-8)).isTrue();
+    assertThat(computed.equalWithTolerance(
+        SwapTradeCalculations.DEFAULT.pv01CalibratedBucketed(trades, provider).multipliedBy(0.5d), 1e-8)).isTrue();
+    ScenarioArray<CurrencyParameterSensitivities> computedScenarios =
+        SwapTradeCalculations.DEFAULT.pv01MarketQuoteBucketed(trades, RATES_LOOKUP, md);
+    assertThat(computedScenarios.getScenarioCount()).isEqualTo(1);
+    assertThat(computedScenarios.get(0)).isEqualTo(computed);
+    assertThat(SwapTradeCalculations.DEFAULT.pv01MarketQuoteBucketed(ImmutableList.of(), provider))
+        .isEqualTo(CurrencyParameterSensitivities.empty());
+  }
+
+  // a constant curve whose market quote sensitivity is half its parameter sensitivity
+  private static Curve calibratedCurve(CurveName curveName) {
+    JacobianCalibrationMatrix jacobian = JacobianCalibrationMatrix.of(
+        ImmutableList.of(CurveParameterSize.of(curveName, 1)), DoubleMatrix.of(1, 1, 0.5d));
+    return ConstantCurve.of(Curves.discountFactors(curveName, ACT_360).withInfo(CurveInfoType.JACOBIAN, jacobian), 0.99);
+  }
+
 }
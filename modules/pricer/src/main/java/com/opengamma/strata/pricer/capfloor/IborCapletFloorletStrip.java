@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.capfloor;
+
+import static com.opengamma.strata.market.model.SabrParameterType.ALPHA;
+import static com.opengamma.strata.market.model.SabrParameterType.BETA;
+import static com.opengamma.strata.market.model.SabrParameterType.NU;
+import static com.opengamma.strata.market.model.SabrParameterType.RHO;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.value.ValueDerivatives;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.sensitivity.PointSensitivities;
+import com.opengamma.strata.market.sensitivity.PointSensitivity;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.capfloor.IborCapletFloorletPeriod;
+import com.opengamma.strata.product.capfloor.ResolvedIborCapFloorLeg;
+import com.opengamma.strata.product.common.PutCall;
+
+/**
+ * The caplets/floorlets of a cap/floor, with the market data needed to price them.
+ * <p>
+ * The expiries, forward rates and discount factors of the caplets/floorlets are computed once,
+ * so that the cap/floor can be repriced efficiently as the volatilities are modified during calibration.
+ * The present value and sensitivities match those of {@link VolatilityIborCapletFloorletPeriodPricer}
+ * and {@link SabrIborCapletFloorletPeriodPricer}.
+ * <p>
+ * The caplets/floorlets are held in the order of the cap/floor, which is the order of the fixing dates.
+ */
+final class IborCapletFloorletStrip {
+
+  /**
+   * The currency.
+   */
+  private final Currency currency;
+  /**
+   * The fixing date-times.
+   */
+  private final ZonedDateTime[] fixingDateTimes;
+  /**
+   * The expiries, as relative times.
+   */
+  private final double[] expiries;
+  /**
+   * The strikes.
+   */
+  private final double[] strikes;
+  /**
+   * The put/call flags.
+   */
+  private final PutCall[] putCalls;
+  /**
+   * The notionals.
+   */
+  private final double[] notionals;
+  /**
+   * The year fractions.
+   */
+  private final double[] yearFractions;
+  /**
+   * The flags indicating that the payment has been made before the valuation date.
+   */
+  private final boolean[] paid;
+  /**
+   * The forward rates, zero if paid.
+   */
+  private final double[] forwards;
+  /**
+   * The discount factors to the payment dates, zero if paid.
+   */
+  private final double[] discountFactors;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from a cap/floor.
+   * <p>
+   * The volatilities are only used to compute the relative time to expiry,
+   * thus they can be modified subsequently as long as the day count is unchanged.
+   *
+   * @param cap  the cap/floor
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the volatilities
+   * @return the strip
+   */
+  static IborCapletFloorletStrip of(
+      ResolvedIborCapFloorLeg cap,
+      RatesProvider ratesProvider,
+      IborCapletFloorletVolatilities volatilities) {
+
+    return new IborCapletFloorletStrip(cap, ratesProvider, volatilities);
+  }
+
+  // creates an instance
+  private IborCapletFloorletStrip(
+      ResolvedIborCapFloorLeg cap,
+      RatesProvider ratesProvider,
+      IborCapletFloorletVolatilities volatilities) {
+
+    List<IborCapletFloorletPeriod> periods = cap.getCapletFloorletPeriods();
+    int size = periods.size();
+    this.currency = cap.getCurrency();
+    this.fixingDateTimes = new ZonedDateTime[size];
+    this.expiries = new double[size];
+    this.strikes = new double[size];
+    this.putCalls = new PutCall[size];
+    this.notionals = new double[size];
+    this.yearFractions = new double[size];
+    this.paid = new boolean[size];
+    this.forwards = new double[size];
+    this.discountFactors = new double[size];
+    for (int i = 0; i < size; i++) {
+      IborCapletFloorletPeriod period = periods.get(i);
+      fixingDateTimes[i] = period.getFixingDateTime();
+      expiries[i] = volatilities.relativeTime(period.getFixingDateTime());
+      strikes[i] = period.getStrike();
+      putCalls[i] = period.getPutCall();
+      notionals[i] = period.getNotional();
+      yearFractions[i] = period.getYearFraction();
+      paid[i] = ratesProvider.getValuationDate().isAfter(period.getPaymentDate());
+      if (!paid[i]) {
+        forwards[i] = ratesProvider.iborIndexRates(period.getIndex()).rate(period.getIborRate().getObservation());
+        discountFactors[i] = ratesProvider.discountFactor(currency, period.getPaymentDate());
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of caplets/floorlets.
+   *
+   * @return the size
+   */
+  int size() {
+    return expiries.length;
+  }
+
+  /**
+   * Finds the index of the first caplet/floorlet whose fixing is after the specified date-time.
+   * <p>
+   * The caplets/floorlets before the index are those whose fixing is on or before the date-time.
+   *
+   * @param dateTime  the date-time
+   * @return the index, the size if all the fixings are on or before the date-time
+   */
+  int firstIndexAfter(ZonedDateTime dateTime) {
+    int index = 0;
+    while (index < fixingDateTimes.length && !fixingDateTimes[index].isAfter(dateTime)) {
+      index++;
+    }
+    return index;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the present value of a range of the caplets/floorlets.
+   *
+   * @param volatilities  the volatilities
+   * @param fromIndex  the index of the first caplet/floorlet, inclusive
+   * @param toIndex  the index of the last caplet/floorlet, exclusive
+   * @return the present value
+   */
+  double presentValue(IborCapletFloorletVolatilities volatilities, int fromIndex, int toIndex) {
+    double pv = 0d;
+    for (int i = fromIndex; i < toIndex; i++) {
+      if (paid[i]) {
+        continue;
+      }
+      double expiry = expiries[i];
+      double df = discountFactors[i];
+      if (expiry < 0d) { // Option has expired already
+        double sign = putCalls[i].isCall() ? 1d : -1d;
+        double payoff = Math.max(sign * (forwards[i] - strikes[i]), 0d);
+        pv += df * payoff * yearFractions[i] * notionals[i];
+      } else {
+        double volatility = volatilities.volatility(expiry, strikes[i], forwards[i]);
+        double price = df * yearFractions[i] * volatilities.price(expiry, putCalls[i], strikes[i], forwards[i], volatility);
+        pv += price * notionals[i];
+      }
+    }
+    return pv;
+  }
+
+  /**
+   * Calculates the present value sensitivity to the volatilities of a range of the caplets/floorlets.
+   *
+   * @param volatilities  the volatilities
+   * @param fromIndex  the index of the first caplet/floorlet, inclusive
+   * @param toIndex  the index of the last caplet/floorlet, exclusive
+   * @return the point sensitivities
+   */
+  PointSensitivities presentValueSensitivityModelParamsVolatility(
+      IborCapletFloorletVolatilities volatilities,
+      int fromIndex,
+      int toIndex) {
+
+    List<PointSensitivity> sensitivities = new ArrayList<>();
+    for (int i = fromIndex; i < toIndex; i++) {
+      double expiry = expiries[i];
+      if (paid[i] || expiry <= 0d) { // Option has expired already or at expiry
+        continue;
+      }
+      double volatility = volatilities.volatility(expiry, strikes[i], forwards[i]);
+      double vega = discountFactors[i] * yearFractions[i] *
+          volatilities.priceVega(expiry, putCalls[i], strikes[i], forwards[i], volatility);
+      sensitivities.add(IborCapletFloorletSensitivity.of(
+          volatilities.getName(), expiry, strikes[i], forwards[i], currency, vega * notionals[i]));
+    }
+    return PointSensitivities.of(sensitivities);
+  }
+
+  /**
+   * Calculates the present value sensitivity to the SABR model parameters of a range of the caplets/floorlets.
+   *
+   * @param volatilities  the volatilities
+   * @param fromIndex  the index of the first caplet/floorlet, inclusive
+   * @param toIndex  the index of the last caplet/floorlet, exclusive
+   * @return the point sensitivities
+   */
+  PointSensitivities presentValueSensitivityModelParamsSabr(
+      SabrIborCapletFloorletVolatilities volatilities,
+      int fromIndex,
+      int toIndex) {
+
+    List<PointSensitivity> sensitivities = new ArrayList<>();
+    for (int i = fromIndex; i < toIndex; i++) {
+      double expiry = expiries[i];
+      if (paid[i] || expiry < 0d) { // option expired already
+        continue;
+      }
+      double factor = notionals[i] * yearFractions[i];
+      ValueDerivatives volatilityAdj = volatilities.volatilityAdjoint(expiry, strikes[i], forwards[i]);
+      DoubleArray derivative = volatilityAdj.getDerivatives();
+      double vega = discountFactors[i] * factor *
+          volatilities.priceVega(expiry, putCalls[i], strikes[i], forwards[i], volatilityAdj.getValue());
+      IborCapletFloorletVolatilitiesName name = volatilities.getName();
+      sensitivities.add(IborCapletFloorletSabrSensitivity.of(name, expiry, ALPHA, currency, vega * derivative.get(2)));
+      sensitivities.add(IborCapletFloorletSabrSensitivity.of(name, expiry, BETA, currency, vega * derivative.get(3)));
+      sensitivities.add(IborCapletFloorletSabrSensitivity.of(name, expiry, RHO, currency, vega * derivative.get(4)));
+      sensitivities.add(IborCapletFloorletSabrSensitivity.of(name, expiry, NU, currency, vega * derivative.get(5)));
+    }
+    return PointSensitivities.of(sensitivities);
+  }
+
+}
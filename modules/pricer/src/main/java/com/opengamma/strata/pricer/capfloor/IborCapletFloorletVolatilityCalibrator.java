@@ -11,8 +11,13 @@ import static com.opengamma.strata.market.ValueType.STRIKE;
 
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.basics.index.IborIndex;
@@ -121,6 +126,36 @@ abstract class IborCapletFloorletVolatilityCalibrator {
     }
   }
 
+  // runs independent calibration tasks, in parallel if an executor is specified, returning the results in order
+  protected static <R> List<R> runTasks(Executor executor, int count, IntFunction<R> taskFn) {
+    List<R> results = new ArrayList<>(count);
+    if (executor == null || count <= 1) {
+      for (int i = 0; i < count; i++) {
+        results.add(taskFn.apply(i));
+      }
+      return results;
+    }
+    List<CompletableFuture<R>> futures = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int index = i;
+      futures.add(CompletableFuture.supplyAsync(() -> taskFn.apply(index), executor));
+    }
+    try {
+      for (CompletableFuture<R> future : futures) {
+        results.add(future.join());
+      }
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      if (ex.getCause() instanceof Error) {
+        throw (Error) ex.getCause();
+      }
+      throw ex;
+    }
+    return results;
+  }
+
   // function creating volatilities object from surface
   protected Function<Surface, IborCapletFloorletVolatilities> volatilitiesFunction(
       IborCapletFloorletVolatilityDefinition definition,
@@ -14,6 +14,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -56,6 +57,10 @@ import com.opengamma.strata.product.capfloor.ResolvedIborCapFloorLeg;
  * <p>
  * The calibration to SABR is computed once the option volatility date is converted to prices. Thus we should note that 
  * the error values in {@code RawOptionData} are applied in the price space rather than the volatility space.
+ * <p>
+ * The forward rates, discount factors and expiries of the caplets are computed once before the bootstrapping.
+ * By default the caps are priced sequentially in each iteration of the least square fit, 
+ * but {@link #withExecutor(Executor)} can be used to price the caps of the different strikes in parallel.
  */
 public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloorletVolatilityCalibrator {
 
@@ -90,6 +95,10 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
    * SABR pricer for caplet/floorlet.
    */
   private final SabrIborCapletFloorletPeriodPricer sabrPeriodPricer;
+  /**
+   * The executor used to price the caps of the different strikes, null to run on the calling thread.
+   */
+  private final Executor executor;
 
   //-------------------------------------------------------------------------
   /**
@@ -111,7 +120,7 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
       ReferenceData referenceData) {
 
     NonLinearLeastSquare solver = new NonLinearLeastSquare(SV_COMMONS, OG_ALGEBRA, epsilon);
-    return new SabrIborCapletFloorletVolatilityBootstrapper(pricer, sabrPeriodPricer, solver, referenceData);
+    return new SabrIborCapletFloorletVolatilityBootstrapper(pricer, sabrPeriodPricer, solver, referenceData, null);
   }
 
   // private constructor
@@ -119,11 +128,26 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
       VolatilityIborCapFloorLegPricer pricer,
       SabrIborCapletFloorletPeriodPricer sabrPeriodPricer,
       NonLinearLeastSquare solver,
-      ReferenceData referenceData) {
+      ReferenceData referenceData,
+      Executor executor) {
 
     super(pricer, referenceData);
     this.sabrPeriodPricer = ArgChecker.notNull(sabrPeriodPricer, "sabrPeriodPricer");
     this.solver = ArgChecker.notNull(solver, "solver");
+    this.executor = executor;
+  }
+
+  /**
+   * Returns a copy of this bootstrapper that prices the caps of the different strikes using the specified executor.
+   * <p>
+   * The result of the calibration does not depend on whether an executor is used.
+   * 
+   * @param executor  the executor used to price the caps
+   * @return the bootstrapper
+   */
+  public SabrIborCapletFloorletVolatilityBootstrapper withExecutor(Executor executor) {
+    return new SabrIborCapletFloorletVolatilityBootstrapper(
+        getLegPricer(), sabrPeriodPricer, solver, getReferenceData(), ArgChecker.notNull(executor, "executor"));
   }
 
   //-------------------------------------------------------------------------
@@ -216,6 +240,10 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
         alphaCurve, betaCurve, rhoCurve, nuCurve, shiftCurve, bsDefinition.getSabrVolatilityFormula());
     SabrParametersIborCapletFloorletVolatilities vols =
         SabrParametersIborCapletFloorletVolatilities.of(bsDefinition.getName(), index, calibrationDateTime, sabrParams);
+    List<IborCapletFloorletStrip> strips = new ArrayList<>(capList.size());
+    for (ResolvedIborCapFloorLeg cap : capList) {
+      strips.add(IborCapletFloorletStrip.of(cap, ratesProvider, vols));
+    }
     double totalChiSq = 0d;
     ZonedDateTime prevExpiry = calibrationDateTime.minusDays(1L); // included if calibrationDateTime == fixingDateTime
     for (int i = 0; i < nExpiries; ++i) {
@@ -224,12 +252,16 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
       UncoupledParameterTransforms transform = new UncoupledParameterTransforms(start, TRANSFORMS, fixed);
       int nCaplets = startIndex[i + 1] - startIndex[i];
       int currentStart = startIndex[i];
+      int[] splits = new int[nCaplets];
+      for (int n = 0; n < nCaplets; ++n) {
+        splits[n] = strips.get(currentStart + n).firstIndexAfter(prevExpiry);
+      }
       Function<DoubleArray, DoubleArray> valueFunction = createPriceFunction(
-          ratesProvider, vols, prevExpiry, capList, priceList, startIndex, nExpiries, i, nCaplets, betaFix);
+          vols, strips, splits, priceList, startIndex, nExpiries, i, nCaplets, betaFix);
       Function<DoubleArray, DoubleMatrix> jacobianFunction = createJacobianFunction(
-          ratesProvider, vols, prevExpiry, capList, priceList, index.getCurrency(), startIndex, nExpiries, i, nCaplets, betaFix);
+          vols, strips, splits, priceList, index.getCurrency(), startIndex, nExpiries, i, nCaplets, betaFix);
       NonLinearTransformFunction transFunc = new NonLinearTransformFunction(valueFunction, jacobianFunction, transform);
-      DoubleArray adjustedPrices = adjustedPrices(ratesProvider, vols, prevExpiry, capList, priceList, startIndex, i, nCaplets);
+      DoubleArray adjustedPrices = adjustedPrices(vols, strips, splits, priceList, startIndex, i, nCaplets);
       DoubleArray errors = DoubleArray.of(nCaplets, n -> errorList.get(currentStart + n));
       LeastSquareResults res = solver.solve(adjustedPrices, errors, transFunc.getFittingFunction(),
           transFunc.getFittingJacobian(), transform.transform(start));
@@ -275,10 +307,9 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
 
   // price function
   private Function<DoubleArray, DoubleArray> createPriceFunction(
-      RatesProvider ratesProvider,
       SabrParametersIborCapletFloorletVolatilities volatilities,
-      ZonedDateTime prevExpiry,
-      List<ResolvedIborCapFloorLeg> capList,
+      List<IborCapletFloorletStrip> strips,
+      int[] splits,
       List<Double> priceList,
       int[] startIndex,
       int nExpiries,
@@ -291,11 +322,11 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
       @Override
       public DoubleArray apply(DoubleArray x) {
         SabrParametersIborCapletFloorletVolatilities volsNew = updateParameters(volatilities, nExpiries, timeIndex, betaFixed, x);
-        return DoubleArray.of(nCaplets,
-            n -> capList.get(currentStart + n).getCapletFloorletPeriods().stream()
-                .filter(p -> p.getFixingDateTime().isAfter(prevExpiry))
-                .mapToDouble(p -> sabrPeriodPricer.presentValue(p, ratesProvider, volsNew).getAmount())
-                .sum() / priceList.get(currentStart + n));
+        List<Double> prices = runTasks(executor, nCaplets, n -> {
+          IborCapletFloorletStrip strip = strips.get(currentStart + n);
+          return strip.presentValue(volsNew, splits[n], strip.size()) / priceList.get(currentStart + n);
+        });
+        return DoubleArray.of(nCaplets, n -> prices.get(n));
       }
     };
     return priceFunction;
@@ -303,10 +334,9 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
 
   // node sensitivity function
   private Function<DoubleArray, DoubleMatrix> createJacobianFunction(
-      RatesProvider ratesProvider,
       SabrParametersIborCapletFloorletVolatilities volatilities,
-      ZonedDateTime prevExpiry,
-      List<ResolvedIborCapFloorLeg> capList,
+      List<IborCapletFloorletStrip> strips,
+      int[] splits,
       List<Double> priceList,
       Currency currency,
       int[] startIndex,
@@ -324,29 +354,26 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
       @Override
       public DoubleMatrix apply(DoubleArray x) {
         SabrParametersIborCapletFloorletVolatilities volsNew = updateParameters(volatilities, nExpiries, timeIndex, betaFixed, x);
-        double[][] jacobian = new double[nCaplets][4];
-        for (int i = 0; i < nCaplets; ++i) {
-          PointSensitivities point = capList.get(currentStart + i).getCapletFloorletPeriods().stream()
-              .filter(p -> p.getFixingDateTime().isAfter(prevExpiry))
-              .map(p -> sabrPeriodPricer.presentValueSensitivityModelParamsSabr(p, ratesProvider, volsNew))
-              .reduce((c1, c2) -> c1.combinedWith(c2))
-              .get()
-              .build();
+        List<double[]> jacobian = runTasks(executor, nCaplets, i -> {
+          IborCapletFloorletStrip strip = strips.get(currentStart + i);
+          PointSensitivities point = strip.presentValueSensitivityModelParamsSabr(volsNew, splits[i], strip.size());
           double targetPrice = priceList.get(currentStart + i);
           CurrencyParameterSensitivities sensi = volsNew.parameterSensitivity(point);
-          jacobian[i][0] = sensi.getSensitivity(alphaCurve.getName(), currency).getSensitivity().get(timeIndex) / targetPrice;
+          double[] row = new double[4];
+          row[0] = sensi.getSensitivity(alphaCurve.getName(), currency).getSensitivity().get(timeIndex) / targetPrice;
           if (betaFixed) {
-            jacobian[i][1] = 0d;
-            jacobian[i][2] = sensi.getSensitivity(rhoCurve.getName(), currency).getSensitivity().get(timeIndex) / targetPrice;
+            row[1] = 0d;
+            row[2] = sensi.getSensitivity(rhoCurve.getName(), currency).getSensitivity().get(timeIndex) / targetPrice;
 
           } else {
-            jacobian[i][1] = sensi.getSensitivity(betaCurve.getName(), currency).getSensitivity().get(timeIndex) / targetPrice;
-            jacobian[i][2] = 0d;
+            row[1] = sensi.getSensitivity(betaCurve.getName(), currency).getSensitivity().get(timeIndex) / targetPrice;
+            row[2] = 0d;
 
           }
-          jacobian[i][3] = sensi.getSensitivity(nuCurve.getName(), currency).getSensitivity().get(timeIndex) / targetPrice;
-        }
-        return DoubleMatrix.ofUnsafe(jacobian);
+          row[3] = sensi.getSensitivity(nuCurve.getName(), currency).getSensitivity().get(timeIndex) / targetPrice;
+          return row;
+        });
+        return DoubleMatrix.ofUnsafe(jacobian.toArray(new double[nCaplets][]));
       }
     };
     return jacobianFunction;
@@ -375,10 +402,9 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
 
   // sum of caplet prices which are not fixed
   private DoubleArray adjustedPrices(
-      RatesProvider ratesProvider,
       IborCapletFloorletVolatilities vols,
-      ZonedDateTime prevExpiry,
-      List<ResolvedIborCapFloorLeg> capList,
+      List<IborCapletFloorletStrip> strips,
+      int[] splits,
       List<Double> priceList,
       int[] startIndex,
       int timeIndex,
@@ -389,10 +415,8 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
     }
     int currentStart = startIndex[timeIndex];
     return DoubleArray.of(nCaplets,
-        n -> (priceList.get(currentStart + n) - capList.get(currentStart + n).getCapletFloorletPeriods().stream()
-            .filter(p -> !p.getFixingDateTime().isAfter(prevExpiry))
-            .mapToDouble(p -> sabrPeriodPricer.presentValue(p, ratesProvider, vols).getAmount())
-            .sum()) / priceList.get(currentStart + n));
+        n -> (priceList.get(currentStart + n) - strips.get(currentStart + n).presentValue(vols, 0, splits[n])) /
+            priceList.get(currentStart + n));
   }
 
 }
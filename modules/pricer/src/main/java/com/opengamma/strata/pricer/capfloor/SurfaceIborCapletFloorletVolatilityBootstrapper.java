@@ -12,6 +12,7 @@ import java.time.Period;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 import com.opengamma.strata.basics.ReferenceData;
@@ -46,6 +47,11 @@ import com.opengamma.strata.product.capfloor.ResolvedIborCapFloorLeg;
  * returned otherwise. 
  * On the other hand, if the shift curve is present in {@code SurfaceIborCapletFloorletBootstrapVolatilityDefinition}, 
  * Black caplet volatilities are returned for any input volatility type. 
+ * <p>
+ * The forward rates, discount factors and expiries of the caplets are computed once before the bootstrapping.
+ * The caplet volatilities for the different strikes of an expiry are calibrated independently of each other.
+ * By default the strikes are calibrated sequentially, but {@link #withExecutor(Executor)} can be used
+ * to calibrate them in parallel.
  */
 public class SurfaceIborCapletFloorletVolatilityBootstrapper extends IborCapletFloorletVolatilityCalibrator {
 
@@ -55,6 +61,11 @@ public class SurfaceIborCapletFloorletVolatilityBootstrapper extends IborCapletF
   public static final SurfaceIborCapletFloorletVolatilityBootstrapper DEFAULT = of(
       VolatilityIborCapFloorLegPricer.DEFAULT, ReferenceData.standard());
 
+  /**
+   * The executor used to calibrate the strikes, null to run on the calling thread.
+   */
+  private final Executor executor;
+
   //-------------------------------------------------------------------------
   /**
    * Creates an instance.
@@ -67,12 +78,30 @@ public class SurfaceIborCapletFloorletVolatilityBootstrapper extends IborCapletF
       VolatilityIborCapFloorLegPricer pricer,
       ReferenceData referenceData) {
 
-    return new SurfaceIborCapletFloorletVolatilityBootstrapper(pricer, referenceData);
+    return new SurfaceIborCapletFloorletVolatilityBootstrapper(pricer, referenceData, null);
   }
 
   // private constructor
-  private SurfaceIborCapletFloorletVolatilityBootstrapper(VolatilityIborCapFloorLegPricer pricer, ReferenceData referenceData) {
+  private SurfaceIborCapletFloorletVolatilityBootstrapper(
+      VolatilityIborCapFloorLegPricer pricer,
+      ReferenceData referenceData,
+      Executor executor) {
+
     super(pricer, referenceData);
+    this.executor = executor;
+  }
+
+  /**
+   * Returns a copy of this bootstrapper that calibrates the strikes of each expiry using the specified executor.
+   * <p>
+   * The result of the calibration does not depend on whether an executor is used.
+   * 
+   * @param executor  the executor used to calibrate the strikes
+   * @return the bootstrapper
+   */
+  public SurfaceIborCapletFloorletVolatilityBootstrapper withExecutor(Executor executor) {
+    return new SurfaceIborCapletFloorletVolatilityBootstrapper(
+        getLegPricer(), getReferenceData(), ArgChecker.notNull(executor, "executor"));
   }
 
   //-------------------------------------------------------------------------
@@ -120,7 +149,7 @@ public class SurfaceIborCapletFloorletVolatilityBootstrapper extends IborCapletF
     IborCapletFloorletVolatilities vols;
     int start;
     ZonedDateTime prevExpiry;
-    DoubleArray initialVol = DoubleArray.copyOf(volList);
+    DoubleArray initialVol;
     if (bsDefinition.getShiftCurve().isPresent()) {
       Curve shiftCurve = bsDefinition.getShiftCurve().get();
       DoubleArray strikeShifted = DoubleArray.of(nTotal, n -> strikeList.get(n) + shiftCurve.yValue(timeList.get(n)));
@@ -130,6 +159,8 @@ public class SurfaceIborCapletFloorletVolatilityBootstrapper extends IborCapletF
         initialVol = DoubleArray.of(nTotal, n -> volList.get(n) /
             (ratesProvider.iborIndexRates(index).rate(capList.get(n).getFinalPeriod().getIborRate().getObservation()) +
                 shiftCurve.yValue(timeList.get(n))));
+      } else {
+        initialVol = DoubleArray.copyOf(volList);
       }
       InterpolatedNodalSurface surface = InterpolatedNodalSurface.of(
           metadata, DoubleArray.copyOf(timeList), strikeShifted, initialVol, bsDefinition.getInterpolator());
@@ -138,19 +169,33 @@ public class SurfaceIborCapletFloorletVolatilityBootstrapper extends IborCapletF
       start = 0;
       prevExpiry = calibrationDateTime.minusDays(1L); // included if calibrationDateTime == fixingDateTime
     } else {
+      initialVol = DoubleArray.copyOf(volList);
       InterpolatedNodalSurface surface = InterpolatedNodalSurface.of(
           metadata, DoubleArray.copyOf(timeList), DoubleArray.copyOf(strikeList), initialVol, bsDefinition.getInterpolator());
       vols = volatilitiesFunction.apply(surface);
       start = 1;
       prevExpiry = capList.get(startIndex[1] - 1).getFinalFixingDateTime();
     }
+    List<IborCapletFloorletStrip> strips = new ArrayList<>(nTotal);
+    for (int j = 0; j < nTotal; ++j) {
+      strips.add(IborCapletFloorletStrip.of(capList.get(j), ratesProvider, vols));
+    }
     for (int i = start; i < nExpiries; ++i) {
-      for (int j = startIndex[i]; j < startIndex[i + 1]; ++j) {
-        Function<Double, double[]> func = getValueVegaFunction(capList.get(j), ratesProvider, vols, prevExpiry, j);
+      IborCapletFloorletVolatilities baseVols = vols;
+      ZonedDateTime baseExpiry = prevExpiry;
+      boolean first = i == 0;
+      int currentStart = startIndex[i];
+      List<Double> capletVols = runTasks(executor, startIndex[i + 1] - currentStart, n -> {
+        int j = currentStart + n;
+        IborCapletFloorletStrip strip = strips.get(j);
+        int split = strip.firstIndexAfter(baseExpiry);
+        Function<Double, double[]> func = getValueVegaFunction(strip, split, baseVols, j);
         GenericImpliedVolatiltySolver solver = new GenericImpliedVolatiltySolver(func);
-        double priceFixed = i == 0 ? 0d : priceFixed(capList.get(j), ratesProvider, vols, prevExpiry);
-        double capletVol = solver.impliedVolatility(priceList.get(j) - priceFixed, initialVol.get(j));
-        vols = vols.withParameter(j, capletVol);
+        double priceFixed = first ? 0d : strip.presentValue(baseVols, 0, split);
+        return solver.impliedVolatility(priceList.get(j) - priceFixed, initialVol.get(j));
+      });
+      for (int n = 0; n < capletVols.size(); ++n) {
+        vols = vols.withParameter(currentStart + n, capletVols.get(n));
       }
       prevExpiry = capList.get(startIndex[i + 1] - 1).getFinalFixingDateTime();
     }
@@ -158,29 +203,19 @@ public class SurfaceIborCapletFloorletVolatilityBootstrapper extends IborCapletF
   }
 
   //-------------------------------------------------------------------------
-  // price and vega function
+  // price and vega function of the caplets after the split index
   private Function<Double, double[]> getValueVegaFunction(
-      ResolvedIborCapFloorLeg cap,
-      RatesProvider ratesProvider,
+      IborCapletFloorletStrip strip,
+      int split,
       IborCapletFloorletVolatilities vols,
-      ZonedDateTime prevExpiry,
       int nodeIndex) {
 
-    VolatilityIborCapletFloorletPeriodPricer periodPricer = getLegPricer().getPeriodPricer();
     Function<Double, double[]> priceAndVegaFunction = new Function<Double, double[]>() {
       @Override
       public double[] apply(Double x) {
         IborCapletFloorletVolatilities newVols = vols.withParameter(nodeIndex, x);
-        double price = cap.getCapletFloorletPeriods().stream()
-            .filter(p -> p.getFixingDateTime().isAfter(prevExpiry))
-            .mapToDouble(p -> periodPricer.presentValue(p, ratesProvider, newVols).getAmount())
-            .sum();
-        PointSensitivities point = cap.getCapletFloorletPeriods().stream()
-            .filter(p -> p.getFixingDateTime().isAfter(prevExpiry))
-            .map(p -> periodPricer.presentValueSensitivityModelParamsVolatility(p, ratesProvider, newVols))
-            .reduce((c1, c2) -> c1.combinedWith(c2))
-            .get()
-            .build();
+        double price = strip.presentValue(newVols, split, strip.size());
+        PointSensitivities point = strip.presentValueSensitivityModelParamsVolatility(newVols, split, strip.size());
         CurrencyParameterSensitivities sensi = newVols.parameterSensitivity(point);
         double vega = sensi.getSensitivities().get(0).getSensitivity().get(nodeIndex);
         return new double[] {price, vega};
@@ -189,18 +224,4 @@ public class SurfaceIborCapletFloorletVolatilityBootstrapper extends IborCapletF
     return priceAndVegaFunction;
   }
 
-  // sum of caplet prices which are already fixed
-  private double priceFixed(
-      ResolvedIborCapFloorLeg cap,
-      RatesProvider ratesProvider,
-      IborCapletFloorletVolatilities vols,
-      ZonedDateTime prevExpiry) {
-
-    VolatilityIborCapletFloorletPeriodPricer periodPricer = getLegPricer().getPeriodPricer();
-    return cap.getCapletFloorletPeriods().stream()
-        .filter(p -> !p.getFixingDateTime().isAfter(prevExpiry))
-        .mapToDouble(p -> periodPricer.presentValue(p, ratesProvider, vols).getAmount())
-        .sum();
-  }
-
 }
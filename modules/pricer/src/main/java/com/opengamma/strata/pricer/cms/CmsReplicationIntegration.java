@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.cms;
+
+import org.joda.convert.FromString;
+import org.joda.convert.ToString;
+
+import com.opengamma.strata.collect.named.EnumNames;
+import com.opengamma.strata.collect.named.NamedEnum;
+
+/**
+ * The numerical integration used in CMS replication.
+ * <p>
+ * This specifies how {@code SabrExtrapolationReplicationCmsPeriodPricer} integrates the replication integrals.
+ * The integration is either 'adaptive' or 'Gauss-Legendre'.
+ */
+public enum CmsReplicationIntegration implements NamedEnum {
+
+  /**
+   * Adaptive.
+   * <p>
+   * The integrals are computed by adaptive Runge-Kutta integration with tight tolerances.
+   * Each integral, including those for each sensitivity, is computed separately.
+   */
+  ADAPTIVE,
+  /**
+   * Gauss-Legendre.
+   * <p>
+   * The integrals are computed using fixed 16-point Gauss-Legendre nodes on panels in the logarithm
+   * of the shifted strike. The panels are one standard deviation wide next to the forward, doubling
+   * in width away from it, with a panel boundary at the cut-off strike.
+   * The integrals required by a sensitivity calculation share the same nodes, so that the SABR function
+   * is evaluated once per node. This is significantly faster than adaptive integration,
+   * with present values typically agreeing to better than one part in 10^8.
+   */
+  GAUSS_LEGENDRE;
+
+  // helper for name conversions
+  private static final EnumNames<CmsReplicationIntegration> NAMES = EnumNames.of(CmsReplicationIntegration.class);
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from the specified name.
+   * <p>
+   * Parsing handles the mixed case form produced by {@link #toString()} and
+   * the upper and lower case variants of the enum constant name.
+   *
+   * @param name  the name to parse
+   * @return the type
+   * @throws IllegalArgumentException if the name is not known
+   */
+  @FromString
+  public static CmsReplicationIntegration of(String name) {
+    return NAMES.parse(name);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the formatted name of the type.
+   *
+   * @return the formatted string representing the type
+   */
+  @ToString
+  @Override
+  public String toString() {
+    return NAMES.format(this);
+  }
+
+}
@@ -41,6 +41,22 @@ public class SabrExtrapolationReplicationCmsLegPricer {
     this.cmsPeriodPricer = ArgChecker.notNull(cmsPeriodPricer, "cmsPeriodPricer");
   }
 
+  /**
+   * Creates an instance specifying the numerical integration used in the replication.
+   * <p>
+   * The integration replaces that of the period pricer.
+   * Use {@link CmsReplicationIntegration#GAUSS_LEGENDRE} for faster pricing of large books.
+   * 
+   * @param cmsPeriodPricer  the pricer for {@link CmsPeriod}
+   * @param integration  the numerical integration used in the replication
+   */
+  public SabrExtrapolationReplicationCmsLegPricer(
+      SabrExtrapolationReplicationCmsPeriodPricer cmsPeriodPricer,
+      CmsReplicationIntegration integration) {
+
+    this.cmsPeriodPricer = ArgChecker.notNull(cmsPeriodPricer, "cmsPeriodPricer").withIntegration(integration);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Calculates the present value of the CMS leg.
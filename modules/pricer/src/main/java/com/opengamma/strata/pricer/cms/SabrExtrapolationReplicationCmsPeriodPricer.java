@@ -13,6 +13,8 @@ import static com.opengamma.strata.market.model.SabrParameterType.RHO;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.OptionalDouble;
+import java.util.TreeSet;
+import java.util.function.DoubleFunction;
 import java.util.function.Function;
 
 import org.slf4j.Logger;
@@ -50,7 +52,8 @@ import com.opengamma.strata.product.swap.SwapLegType;
  *  The extrapolation is done on call prices above a certain strike. See {@link SabrExtrapolationRightFunction} for
  *  more details on the extrapolation method.
  *  <p>
- *  The replication requires numerical integration. This is completed by {@link RungeKuttaIntegrator1D}.
+ *  The replication requires numerical integration. By default, this is completed by {@link RungeKuttaIntegrator1D}.
+ *  Alternatively, fixed Gauss-Legendre nodes can be used, see {@link CmsReplicationIntegration}.
  *  <p>
  *  The consistency between {@code RatesProvider} and {@code SabrParametersSwaptionVolatilities} is not checked in this 
  *  class, but validated only once in {@link SabrExtrapolationReplicationCmsLegPricer}.
@@ -99,6 +102,27 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
    * For expiry below that value, the forward rate is used for present value.
    */
   private static final double MIN_TIME = 1e-4;
+  /**
+   * The positive abscissas of the 16 point Gauss-Legendre rule used in each panel of the fixed integration.
+   * The rule is symmetric, thus the negative abscissas are implied.
+   */
+  private static final double[] GAUSS_LEGENDRE_ABSCISSAS = {
+      0.0950125098376374402, 0.2816035507792589132, 0.4580167776572273863, 0.6178762444026437484,
+      0.7554044083550030339, 0.8656312023878317439, 0.9445750230732325761, 0.9894009349916499326};
+  /**
+   * The weights of the 16 point Gauss-Legendre rule, matching the abscissas.
+   */
+  private static final double[] GAUSS_LEGENDRE_WEIGHTS = {
+      0.1894506104550684963, 0.1826034150449235889, 0.1691565193950025382, 0.1495959888165767321,
+      0.1246289712555338721, 0.0951585116824927848, 0.0622535239386478929, 0.0271524594117540949};
+  /**
+   * The minimum width of the panels of the fixed integration, in terms of the logarithm of the shifted strike.
+   */
+  private static final double MIN_PANEL_WIDTH = 1e-4;
+  /**
+   * The maximum width of the panels of the fixed integration, in terms of the logarithm of the shifted strike.
+   */
+  private static final double MAX_PANEL_WIDTH = 1d;
 
   /**
    * Pricer for the underlying swap.
@@ -116,6 +140,10 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
    * This must be greater than 0 in order to ensure that the call price converges to 0 for infinite strike.
    */
   private final double mu;
+  /**
+   * The numerical integration used in the replication.
+   */
+  private final CmsReplicationIntegration integration;
 
   //-------------------------------------------------------------------------
   /**
@@ -131,7 +159,25 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
       double cutOffStrike,
       double mu) {
 
-    return new SabrExtrapolationReplicationCmsPeriodPricer(swapPricer, cutOffStrike, mu);
+    return new SabrExtrapolationReplicationCmsPeriodPricer(swapPricer, cutOffStrike, mu, CmsReplicationIntegration.ADAPTIVE);
+  }
+
+  /**
+   * Obtains the pricer specifying the numerical integration.
+   * 
+   * @param swapPricer  the pricer for underlying swap
+   * @param cutOffStrike  the cut-off strike value
+   * @param mu  the tail thickness
+   * @param integration  the numerical integration used in the replication
+   * @return the pricer
+   */
+  public static SabrExtrapolationReplicationCmsPeriodPricer of(
+      DiscountingSwapProductPricer swapPricer,
+      double cutOffStrike,
+      double mu,
+      CmsReplicationIntegration integration) {
+
+    return new SabrExtrapolationReplicationCmsPeriodPricer(swapPricer, cutOffStrike, mu, integration);
   }
 
   /**
@@ -148,11 +194,36 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
   private SabrExtrapolationReplicationCmsPeriodPricer(
       DiscountingSwapProductPricer swapPricer,
       double cutOffStrike,
-      double mu) {
+      double mu,
+      CmsReplicationIntegration integration) {
 
     this.swapPricer = ArgChecker.notNull(swapPricer, "swapPricer");
     this.cutOffStrike = cutOffStrike;
     this.mu = ArgChecker.notNegativeOrZero(mu, "mu");
+    this.integration = ArgChecker.notNull(integration, "integration");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the numerical integration used in the replication.
+   * 
+   * @return the integration
+   */
+  public CmsReplicationIntegration getIntegration() {
+    return integration;
+  }
+
+  /**
+   * Returns a copy of this pricer using the specified numerical integration.
+   * 
+   * @param integration  the numerical integration used in the replication
+   * @return the pricer
+   */
+  public SabrExtrapolationReplicationCmsPeriodPricer withIntegration(CmsReplicationIntegration integration) {
+    if (integration == this.integration) {
+      return this;
+    }
+    return new SabrExtrapolationReplicationCmsPeriodPricer(swapPricer, cutOffStrike, mu, integration);
   }
 
   //-------------------------------------------------------------------------
@@ -208,7 +279,10 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
     double integralPart = 0d;
     Function<Double, Double> integrant = intProv.integrant();
     try {
-      if (intProv.getPutCall().isCall()) {
+      if (integration == CmsReplicationIntegration.GAUSS_LEGENDRE) {
+        integralPart = dfPayment * integrateGaussLegendre(
+            intProv, x -> new double[] {intProv.integrantValue(x)}, swaptionVolatilities, forward, expiryTime, tenor)[0];
+      } else if (intProv.getPutCall().isCall()) {
         integralPart = dfPayment *
             integrateCall(integrator, integrant, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
       } else {
@@ -333,7 +407,13 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
     Function<Double, Double> integrant = intProv.integrant();
     Function<Double, Double> integrantDelta = intProv.integrantDelta();
     try {
-      if (intProv.getPutCall().isCall()) {
+      if (integration == CmsReplicationIntegration.GAUSS_LEGENDRE) {
+        // the price and delta integrants share the SABR evaluation at each node
+        double[] integrals = integrateGaussLegendre(
+            intProv, intProv::integrantPriceAndDelta, swaptionVolatilities, forward, expiryTime, tenor);
+        integralPartPrice = integrals[0];
+        integralPart = dfPayment * integrals[1];
+      } else if (intProv.getPutCall().isCall()) {
         integralPartPrice =
             integrateCall(integrator, integrant, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
         integralPart = dfPayment *
@@ -404,8 +484,23 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
     double[] strikePartPrice = intProv.getSabrExtrapolation()
         .priceAdjointSabr(Math.max(0d, strikeCpn + shift), intProv.getPutCall()) // handle tiny but negative number
         .getDerivatives().multipliedBy(factor2).toArray();
-    RungeKuttaIntegrator1D integrator = new RungeKuttaIntegrator1D(ABS_TOL, REL_TOL_VEGA, NUM_ITER);
     double[] totalSensi = new double[4];
+    if (integration == CmsReplicationIntegration.GAUSS_LEGENDRE) {
+      // the four integrants share the SABR evaluation at each node
+      double[] integrals;
+      try {
+        integrals = integrateGaussLegendre(
+            intProv, intProv::integrantVegas, swaptionVolatilities, forward, expiryTime, tenor);
+      } catch (Exception e) {
+        throw new MathException(e);
+      }
+      for (int loopparameter = 0; loopparameter < 4; loopparameter++) {
+        totalSensi[loopparameter] = (strikePartPrice[loopparameter] + dfPayment * integrals[loopparameter]) *
+            cmsPeriod.getNotional() * cmsPeriod.getYearFraction();
+      }
+      return sabrSensitivity(swaptionVolatilities.getName(), expiryTime, tenor, ccy, totalSensi);
+    }
+    RungeKuttaIntegrator1D integrator = new RungeKuttaIntegrator1D(ABS_TOL, REL_TOL_VEGA, NUM_ITER);
     for (int loopparameter = 0; loopparameter < 4; loopparameter++) {
       double integralPart = 0d;
       Function<Double, Double> integrant = intProv.integrantVega(loopparameter);
@@ -422,7 +517,17 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
       totalSensi[loopparameter] =
           (strikePartPrice[loopparameter] + integralPart) * cmsPeriod.getNotional() * cmsPeriod.getYearFraction();
     }
-    SwaptionVolatilitiesName name = swaptionVolatilities.getName();
+    return sabrSensitivity(swaptionVolatilities.getName(), expiryTime, tenor, ccy, totalSensi);
+  }
+
+  // creates the sensitivity to the four SABR parameters
+  private PointSensitivityBuilder sabrSensitivity(
+      SwaptionVolatilitiesName name,
+      double expiryTime,
+      double tenor,
+      Currency ccy,
+      double[] totalSensi) {
+
     return PointSensitivityBuilder.of(
         SwaptionSabrSensitivity.of(name, expiryTime, tenor, ALPHA, ccy, totalSensi[0]),
         SwaptionSabrSensitivity.of(name, expiryTime, tenor, BETA, ccy, totalSensi[1]),
@@ -491,7 +596,11 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
     double firstPart;
     double thirdPart;
     Function<Double, Double> integrant = intProv.integrantDualDelta();
-    if (intProv.getPutCall().isCall()) {
+    if (integration == CmsReplicationIntegration.GAUSS_LEGENDRE) {
+      firstPart = -kpkpp[0] * intProv.bs(strike);
+      thirdPart = integrateGaussLegendre(
+          intProv, x -> new double[] {intProv.integrantDualDeltaValue(x)}, swaptionVolatilities, forward, expiryTime, tenor)[0];
+    } else if (intProv.getPutCall().isCall()) {
       firstPart = -kpkpp[0] * intProv.bs(strike);
       thirdPart = integrateCall(integrator, integrant, swaptionVolatilities, forward, strike, expiryTime, tenor);
     } else {
@@ -554,6 +663,120 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
     return res;
   }
 
+  // integrates using fixed Gauss-Legendre nodes, over the same range as the adaptive integration
+  // the integrants are evaluated together at each node, the first is used to truncate the range for a call
+  private double[] integrateGaussLegendre(
+      CmsIntegrantProvider intProv,
+      DoubleFunction<double[]> integrants,
+      SabrSwaptionVolatilities swaptionVolatilities,
+      double forward,
+      double expiryTime,
+      double tenor) {
+
+    double strike = intProv.getStrike();
+    double shift = intProv.getShift();
+    double vol = swaptionVolatilities.volatility(expiryTime, tenor, forward, forward);
+    double stdDev = vol * Math.sqrt(expiryTime);
+    if (intProv.getPutCall().isPut()) {
+      double[] res = integratePanels(integrants, -shift + ZERO_SHIFT, strike, forward, shift, stdDev);
+      for (int i = 0; i < res.length; i++) {
+        res[i] = -res[i];
+      }
+      return res;
+    }
+    double upper0 = Math.max(
+        forward * Math.exp(6d * vol * Math.sqrt(expiryTime)),
+        Math.max(cutOffStrike, 2d * strike));  // To ensure that the integral covers a good part of the smile
+    double upper = Math.min(upper0, 1d); // To ensure that we don't miss the meaningful part
+    double[] res = integratePanels(integrants, strike, upper, forward, shift, stdDev);
+    double error = integrants.apply(upper)[0] * upper / res[0];
+    int count = 0;
+    while (Math.abs(error) > REL_TOL && count < MAX_COUNT) {
+      double[] tail = integratePanels(integrants, upper, 2d * upper, forward, shift, stdDev);
+      for (int i = 0; i < res.length; i++) {
+        res[i] += tail[i];
+      }
+      upper *= 2d;
+      error = integrants.apply(upper)[0] * upper / res[0];
+      ++count;
+      if (count == MAX_COUNT) {
+        log.info("Maximum iteration count, " + MAX_COUNT + ", has been reached. Relative error is greater than " +
+            REL_TOL);
+      }
+    }
+    return res;
+  }
+
+  // integrates on panels in the logarithm of the shifted strike, with boundaries at the forward and cut-off strike
+  // the panels are one standard deviation wide next to the forward, doubling in width away from the forward
+  private double[] integratePanels(
+      DoubleFunction<double[]> integrants,
+      double lower,
+      double upper,
+      double forward,
+      double shift,
+      double stdDev) {
+
+    if (upper < lower) {
+      double[] res = integratePanels(integrants, upper, lower, forward, shift, stdDev);
+      for (int i = 0; i < res.length; i++) {
+        res[i] = -res[i];
+      }
+      return res;
+    }
+    double logLower = Math.log(Math.max(lower + shift, ZERO_SHIFT));
+    double logUpper = Math.log(Math.max(upper + shift, ZERO_SHIFT));
+    double logForward = Math.log(Math.max(forward + shift, ZERO_SHIFT));
+    double width = Math.max(stdDev, MIN_PANEL_WIDTH);
+    TreeSet<Double> boundaries = new TreeSet<>();
+    boundaries.add(logForward);
+    for (double distance = width; logForward - distance > logLower; distance *= 2d) {
+      boundaries.add(logForward - distance);
+    }
+    for (double distance = width; logForward + distance < logUpper; distance *= 2d) {
+      boundaries.add(logForward + distance);
+    }
+    if (cutOffStrike + shift > ZERO_SHIFT) {
+      boundaries.add(Math.log(cutOffStrike + shift));
+    }
+    boundaries.add(logUpper);
+    double[] res = null;
+    double panelLower = lower;
+    double logPanelLower = logLower;
+    for (double logBoundary : boundaries.subSet(logLower, false, logUpper, true)) {
+      int nbPanels = (int) Math.ceil((logBoundary - logPanelLower) / MAX_PANEL_WIDTH);
+      double step = (logBoundary - logPanelLower) / nbPanels;
+      for (int i = 1; i <= nbPanels; i++) {
+        double panelUpper = logBoundary == logUpper && i == nbPanels ? upper : Math.exp(logPanelLower + i * step) - shift;
+        res = integratePanel(integrants, panelLower, panelUpper, res);
+        panelLower = panelUpper;
+      }
+      logPanelLower = logBoundary;
+    }
+    // the range is empty in terms of the shifted strike
+    return res != null ? res : integratePanel(integrants, lower, upper, null);
+  }
+
+  // integrates on a single panel, adding to the result which is created if null
+  private static double[] integratePanel(DoubleFunction<double[]> integrants, double lower, double upper, double[] res) {
+    double halfWidth = 0.5 * (upper - lower);
+    double mid = 0.5 * (upper + lower);
+    double[] total = res;
+    for (int i = 0; i < GAUSS_LEGENDRE_ABSCISSAS.length; i++) {
+      double offset = halfWidth * GAUSS_LEGENDRE_ABSCISSAS[i];
+      double[] valuesLower = integrants.apply(mid - offset);
+      double[] valuesUpper = integrants.apply(mid + offset);
+      if (total == null) {
+        total = new double[valuesLower.length];
+      }
+      double weight = halfWidth * GAUSS_LEGENDRE_WEIGHTS[i];
+      for (int j = 0; j < total.length; j++) {
+        total[j] += weight * (valuesLower[j] + valuesUpper[j]);
+      }
+    }
+    return total;
+  }
+
   /**
    * Explains the present value of the CMS period.
    * <p>
@@ -650,6 +873,15 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
       return shift;
     }
 
+    /**
+     * Gets the factor field.
+     * 
+     * @return the factor
+     */
+    protected double getFactor() {
+      return factor;
+    }
+
     /**
      * Gets the sabrExtrapolation field.
      * 
@@ -703,13 +935,39 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
       return new Function<Double, Double>() {
         @Override
         public Double apply(Double x) {
-          double[] kD = kpkpp(x);
-          // Implementation note: kD[0] contains the first derivative of k; kD[1] the second derivative of k.
-          return factor * (kD[1] * (x - strike) + 2d * kD[0]) * bs(x);
+          return integrantValue(x);
         }
       };
     }
 
+    /**
+     * The integrant used in price replication.
+     * 
+     * @param x  the swap rate
+     * @return the integrant value
+     */
+    double integrantValue(double x) {
+      double[] kD = kpkpp(x);
+      // Implementation note: kD[0] contains the first derivative of k; kD[1] the second derivative of k.
+      return factor * (kD[1] * (x - strike) + 2d * kD[0]) * bs(x);
+    }
+
+    /**
+     * The integrant sensitivities to the four SABR parameters.
+     * <p>
+     * The SABR function is evaluated once for all four parameters.
+     * 
+     * @param x  the swap rate
+     * @return the vega integrant values
+     */
+    double[] integrantVegas(double x) {
+      double[] kD = kpkpp(x);
+      // Implementation note: kD[0] contains the first derivative of k; kD[1] the second derivative of k.
+      double xShifted = Math.max(x + shift, 0d); // handle tiny but negative number
+      DoubleArray priceDerivativeSabr = getSabrExtrapolation().priceAdjointSabr(xShifted, putCall).getDerivatives();
+      return priceDerivativeSabr.multipliedBy(factor * (kD[1] * (x - strike) + 2d * kD[0])).toArrayUnsafe();
+    }
+
     /**
      * Obtains the integrant sensitivity to the i-th SABR parameter.
      * 
@@ -738,13 +996,23 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
       return new Function<Double, Double>() {
         @Override
         public Double apply(Double x) {
-          double[] kD = kpkpp(x);
-          // Implementation note: kD[0] contains the first derivative of k; kD[1] the second derivative of k.
-          return -kD[1] * bs(x);
+          return integrantDualDeltaValue(x);
         }
       };
     }
 
+    /**
+     * The integrant sensitivity to strike.
+     * 
+     * @param x  the swap rate
+     * @return the dual delta integrant value
+     */
+    double integrantDualDeltaValue(double x) {
+      double[] kD = kpkpp(x);
+      // Implementation note: kD[0] contains the first derivative of k; kD[1] the second derivative of k.
+      return -kD[1] * bs(x);
+    }
+
     /**
      * The approximation of the discount factor as function of the swap rate.
      * 
@@ -888,6 +1156,23 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
       };
     }
 
+    /**
+     * The integrants used in price replication and for the sensitivity to forward.
+     * <p>
+     * The SABR function is evaluated once for both integrants.
+     * The price integrant matches {@link #integrant()} and the delta integrant matches {@link #integrantDelta()}.
+     * 
+     * @param x  the swap rate
+     * @return the price and delta integrant values
+     */
+    double[] integrantPriceAndDelta(double x) {
+      double[] kD = kpkpp(x);
+      // Implementation note: kD[0] contains the first derivative of k; kD[1] the second derivative of k.
+      double[] bs = bsbsp(x);
+      double kFactor = kD[1] * (x - getStrike()) + 2d * kD[0];
+      return new double[] {getFactor() * kFactor * bs[0], kFactor * (nnp[1] * bs[0] + nnp[0] * bs[1])};
+    }
+
     /**
      * The Black price and its derivative with respect to the forward.
      * 
@@ -0,0 +1,536 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.credit;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.joda.beans.Bean;
+import org.joda.beans.BeanBuilder;
+import org.joda.beans.ImmutableBean;
+import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.MetaBean;
+import org.joda.beans.MetaProperty;
+import org.joda.beans.gen.BeanDefinition;
+import org.joda.beans.gen.ImmutableValidator;
+import org.joda.beans.gen.PropertyDefinition;
+import org.joda.beans.impl.direct.DirectMetaBean;
+import org.joda.beans.impl.direct.DirectMetaProperty;
+import org.joda.beans.impl.direct.DirectMetaPropertyMap;
+import org.joda.beans.impl.direct.DirectPrivateBeanBuilder;
+
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
+
+/**
+ * The credit risk of the trades referencing a single legal entity.
+ * <p>
+ * This aggregates the risk measures of all the trades priced against the credit curve of a legal entity
+ * and currency, see {@link CreditPortfolioRiskCalculator}. For CDS index trades, the legal entity is
+ * the CDS index ID.
+ */
+@BeanDefinition(builderScope = "private")
+public final class CreditEntityRisk
+    implements ImmutableBean, Serializable {
+
+  /**
+   * The legal entity ID.
+   * <p>
+   * This is the CDS index ID for CDS index trades.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final StandardId legalEntityId;
+  /**
+   * The currency of the credit curve.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final Currency currency;
+  /**
+   * The bucketed CS01.
+   * <p>
+   * This is the sensitivity of the present value to the par spreads of the bucket CDSs of the credit curve.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final CurrencyParameterSensitivity bucketedCs01;
+  /**
+   * The parallel CS01.
+   * <p>
+   * This is the sensitivity of the present value to a parallel shift of the par spreads of the bucket CDSs.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final CurrencyAmount parallelCs01;
+  /**
+   * The recovery01.
+   * <p>
+   * This is the sensitivity of the present value to the recovery rate.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final CurrencyAmount recovery01;
+  /**
+   * The jump-to-default.
+   * <p>
+   * This is the change in value of the trades in case of immediate default of the legal entity.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final CurrencyAmount jumpToDefault;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   *
+   * @param legalEntityId  the legal entity ID
+   * @param currency  the currency
+   * @param bucketedCs01  the bucketed CS01
+   * @param parallelCs01  the parallel CS01
+   * @param recovery01  the recovery01
+   * @param jumpToDefault  the jump-to-default
+   * @return the instance
+   */
+  public static CreditEntityRisk of(
+      StandardId legalEntityId,
+      Currency currency,
+      CurrencyParameterSensitivity bucketedCs01,
+      CurrencyAmount parallelCs01,
+      CurrencyAmount recovery01,
+      CurrencyAmount jumpToDefault) {
+
+    return new CreditEntityRisk(legalEntityId, currency, bucketedCs01, parallelCs01, recovery01, jumpToDefault);
+  }
+
+  @ImmutableValidator
+  private void validate() {
+    ArgChecker.isTrue(bucketedCs01.getCurrency().equals(currency), "Bucketed CS01 must be in the curve currency");
+    ArgChecker.isTrue(parallelCs01.getCurrency().equals(currency), "Parallel CS01 must be in the curve currency");
+    ArgChecker.isTrue(recovery01.getCurrency().equals(currency), "Recovery01 must be in the curve currency");
+    ArgChecker.isTrue(jumpToDefault.getCurrency().equals(currency), "Jump-to-default must be in the curve currency");
+  }
+
+  //------------------------- AUTOGENERATED START -------------------------
+  /**
+   * The meta-bean for {@code CreditEntityRisk}.
+   * @return the meta-bean, not null
+   */
+  public static CreditEntityRisk.Meta meta() {
+    return CreditEntityRisk.Meta.INSTANCE;
+  }
+
+  static {
+    MetaBean.register(CreditEntityRisk.Meta.INSTANCE);
+  }
+
+  /**
+   * The serialization version id.
+   */
+  private static final long serialVersionUID = 1L;
+
+  private CreditEntityRisk(
+      StandardId legalEntityId,
+      Currency currency,
+      CurrencyParameterSensitivity bucketedCs01,
+      CurrencyAmount parallelCs01,
+      CurrencyAmount recovery01,
+      CurrencyAmount jumpToDefault) {
+    JodaBeanUtils.notNull(legalEntityId, "legalEntityId");
+    JodaBeanUtils.notNull(currency, "currency");
+    JodaBeanUtils.notNull(bucketedCs01, "bucketedCs01");
+    JodaBeanUtils.notNull(parallelCs01, "parallelCs01");
+    JodaBeanUtils.notNull(recovery01, "recovery01");
+    JodaBeanUtils.notNull(jumpToDefault, "jumpToDefault");
+    this.legalEntityId = legalEntityId;
+    this.currency = currency;
+    this.bucketedCs01 = bucketedCs01;
+    this.parallelCs01 = parallelCs01;
+    this.recovery01 = recovery01;
+    this.jumpToDefault = jumpToDefault;
+    validate();
+  }
+
+  @Override
+  public CreditEntityRisk.Meta metaBean() {
+    return CreditEntityRisk.Meta.INSTANCE;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the legal entity ID.
+   * <p>
+   * This is the CDS index ID for CDS index trades.
+   * @return the value of the property, not null
+   */
+  public StandardId getLegalEntityId() {
+    return legalEntityId;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the currency of the credit curve.
+   * @return the value of the property, not null
+   */
+  public Currency getCurrency() {
+    return currency;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the bucketed CS01.
+   * <p>
+   * This is the sensitivity of the present value to the par spreads of the bucket CDSs of the credit curve.
+   * @return the value of the property, not null
+   */
+  public CurrencyParameterSensitivity getBucketedCs01() {
+    return bucketedCs01;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the parallel CS01.
+   * <p>
+   * This is the sensitivity of the present value to a parallel shift of the par spreads of the bucket CDSs.
+   * @return the value of the property, not null
+   */
+  public CurrencyAmount getParallelCs01() {
+    return parallelCs01;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the recovery01.
+   * <p>
+   * This is the sensitivity of the present value to the recovery rate.
+   * @return the value of the property, not null
+   */
+  public CurrencyAmount getRecovery01() {
+    return recovery01;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the jump-to-default.
+   * <p>
+   * This is the change in value of the trades in case of immediate default of the legal entity.
+   * @return the value of the property, not null
+   */
+  public CurrencyAmount getJumpToDefault() {
+    return jumpToDefault;
+  }
+
+  //-----------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj != null && obj.getClass() == this.getClass()) {
+      CreditEntityRisk other = (CreditEntityRisk) obj;
+      return JodaBeanUtils.equal(legalEntityId, other.legalEntityId) &&
+          JodaBeanUtils.equal(currency, other.currency) &&
+          JodaBeanUtils.equal(bucketedCs01, other.bucketedCs01) &&
+          JodaBeanUtils.equal(parallelCs01, other.parallelCs01) &&
+          JodaBeanUtils.equal(recovery01, other.recovery01) &&
+          JodaBeanUtils.equal(jumpToDefault, other.jumpToDefault);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = getClass().hashCode();
+    hash = hash * 31 + JodaBeanUtils.hashCode(legalEntityId);
+    hash = hash * 31 + JodaBeanUtils.hashCode(currency);
+    hash = hash * 31 + JodaBeanUtils.hashCode(bucketedCs01);
+    hash = hash * 31 + JodaBeanUtils.hashCode(parallelCs01);
+    hash = hash * 31 + JodaBeanUtils.hashCode(recovery01);
+    hash = hash * 31 + JodaBeanUtils.hashCode(jumpToDefault);
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder buf = new StringBuilder(224);
+    buf.append("CreditEntityRisk{");
+    buf.append("legalEntityId").append('=').append(JodaBeanUtils.toString(legalEntityId)).append(',').append(' ');
+    buf.append("currency").append('=').append(JodaBeanUtils.toString(currency)).append(',').append(' ');
+    buf.append("bucketedCs01").append('=').append(JodaBeanUtils.toString(bucketedCs01)).append(',').append(' ');
+    buf.append("parallelCs01").append('=').append(JodaBeanUtils.toString(parallelCs01)).append(',').append(' ');
+    buf.append("recovery01").append('=').append(JodaBeanUtils.toString(recovery01)).append(',').append(' ');
+    buf.append("jumpToDefault").append('=').append(JodaBeanUtils.toString(jumpToDefault));
+    buf.append('}');
+    return buf.toString();
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * The meta-bean for {@code CreditEntityRisk}.
+   */
+  public static final class Meta extends DirectMetaBean {
+    /**
+     * The singleton instance of the meta-bean.
+     */
+    static final Meta INSTANCE = new Meta();
+
+    /**
+     * The meta-property for the {@code legalEntityId} property.
+     */
+    private final MetaProperty<StandardId> legalEntityId = DirectMetaProperty.ofImmutable(
+        this, "legalEntityId", CreditEntityRisk.class, StandardId.class);
+    /**
+     * The meta-property for the {@code currency} property.
+     */
+    private final MetaProperty<Currency> currency = DirectMetaProperty.ofImmutable(
+        this, "currency", CreditEntityRisk.class, Currency.class);
+    /**
+     * The meta-property for the {@code bucketedCs01} property.
+     */
+    private final MetaProperty<CurrencyParameterSensitivity> bucketedCs01 = DirectMetaProperty.ofImmutable(
+        this, "bucketedCs01", CreditEntityRisk.class, CurrencyParameterSensitivity.class);
+    /**
+     * The meta-property for the {@code parallelCs01} property.
+     */
+    private final MetaProperty<CurrencyAmount> parallelCs01 = DirectMetaProperty.ofImmutable(
+        this, "parallelCs01", CreditEntityRisk.class, CurrencyAmount.class);
+    /**
+     * The meta-property for the {@code recovery01} property.
+     */
+    private final MetaProperty<CurrencyAmount> recovery01 = DirectMetaProperty.ofImmutable(
+        this, "recovery01", CreditEntityRisk.class, CurrencyAmount.class);
+    /**
+     * The meta-property for the {@code jumpToDefault} property.
+     */
+    private final MetaProperty<CurrencyAmount> jumpToDefault = DirectMetaProperty.ofImmutable(
+        this, "jumpToDefault", CreditEntityRisk.class, CurrencyAmount.class);
+    /**
+     * The meta-properties.
+     */
+    private final Map<String, MetaProperty<?>> metaPropertyMap$ = new DirectMetaPropertyMap(
+        this, null,
+        "legalEntityId",
+        "currency",
+        "bucketedCs01",
+        "parallelCs01",
+        "recovery01",
+        "jumpToDefault");
+
+    /**
+     * Restricted constructor.
+     */
+    private Meta() {
+    }
+
+    @Override
+    protected MetaProperty<?> metaPropertyGet(String propertyName) {
+      switch (propertyName.hashCode()) {
+        case 866287159:  // legalEntityId
+          return legalEntityId;
+        case 575402001:  // currency
+          return currency;
+        case 363627034:  // bucketedCs01
+          return bucketedCs01;
+        case -1785856744:  // parallelCs01
+          return parallelCs01;
+        case 851244118:  // recovery01
+          return recovery01;
+        case -61460808:  // jumpToDefault
+          return jumpToDefault;
+      }
+      return super.metaPropertyGet(propertyName);
+    }
+
+    @Override
+    public BeanBuilder<? extends CreditEntityRisk> builder() {
+      return new CreditEntityRisk.Builder();
+    }
+
+    @Override
+    public Class<? extends CreditEntityRisk> beanType() {
+      return CreditEntityRisk.class;
+    }
+
+    @Override
+    public Map<String, MetaProperty<?>> metaPropertyMap() {
+      return metaPropertyMap$;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The meta-property for the {@code legalEntityId} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<StandardId> legalEntityId() {
+      return legalEntityId;
+    }
+
+    /**
+     * The meta-property for the {@code currency} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<Currency> currency() {
+      return currency;
+    }
+
+    /**
+     * The meta-property for the {@code bucketedCs01} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<CurrencyParameterSensitivity> bucketedCs01() {
+      return bucketedCs01;
+    }
+
+    /**
+     * The meta-property for the {@code parallelCs01} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<CurrencyAmount> parallelCs01() {
+      return parallelCs01;
+    }
+
+    /**
+     * The meta-property for the {@code recovery01} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<CurrencyAmount> recovery01() {
+      return recovery01;
+    }
+
+    /**
+     * The meta-property for the {@code jumpToDefault} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<CurrencyAmount> jumpToDefault() {
+      return jumpToDefault;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    protected Object propertyGet(Bean bean, String propertyName, boolean quiet) {
+      switch (propertyName.hashCode()) {
+        case 866287159:  // legalEntityId
+          return ((CreditEntityRisk) bean).getLegalEntityId();
+        case 575402001:  // currency
+          return ((CreditEntityRisk) bean).getCurrency();
+        case 363627034:  // bucketedCs01
+          return ((CreditEntityRisk) bean).getBucketedCs01();
+        case -1785856744:  // parallelCs01
+          return ((CreditEntityRisk) bean).getParallelCs01();
+        case 851244118:  // recovery01
+          return ((CreditEntityRisk) bean).getRecovery01();
+        case -61460808:  // jumpToDefault
+          return ((CreditEntityRisk) bean).getJumpToDefault();
+      }
+      return super.propertyGet(bean, propertyName, quiet);
+    }
+
+    @Override
+    protected void propertySet(Bean bean, String propertyName, Object newValue, boolean quiet) {
+      metaProperty(propertyName);
+      if (quiet) {
+        return;
+      }
+      throw new UnsupportedOperationException("Property cannot be written: " + propertyName);
+    }
+
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * The bean-builder for {@code CreditEntityRisk}.
+   */
+  private static final class Builder extends DirectPrivateBeanBuilder<CreditEntityRisk> {
+
+    private StandardId legalEntityId;
+    private Currency currency;
+    private CurrencyParameterSensitivity bucketedCs01;
+    private CurrencyAmount parallelCs01;
+    private CurrencyAmount recovery01;
+    private CurrencyAmount jumpToDefault;
+
+    /**
+     * Restricted constructor.
+     */
+    private Builder() {
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public Object get(String propertyName) {
+      switch (propertyName.hashCode()) {
+        case 866287159:  // legalEntityId
+          return legalEntityId;
+        case 575402001:  // currency
+          return currency;
+        case 363627034:  // bucketedCs01
+          return bucketedCs01;
+        case -1785856744:  // parallelCs01
+          return parallelCs01;
+        case 851244118:  // recovery01
+          return recovery01;
+        case -61460808:  // jumpToDefault
+          return jumpToDefault;
+        default:
+          throw new NoSuchElementException("Unknown property: " + propertyName);
+      }
+    }
+
+    @Override
+    public Builder set(String propertyName, Object newValue) {
+      switch (propertyName.hashCode()) {
+        case 866287159:  // legalEntityId
+          this.legalEntityId = (StandardId) newValue;
+          break;
+        case 575402001:  // currency
+          this.currency = (Currency) newValue;
+          break;
+        case 363627034:  // bucketedCs01
+          this.bucketedCs01 = (CurrencyParameterSensitivity) newValue;
+          break;
+        case -1785856744:  // parallelCs01
+          this.parallelCs01 = (CurrencyAmount) newValue;
+          break;
+        case 851244118:  // recovery01
+          this.recovery01 = (CurrencyAmount) newValue;
+          break;
+        case -61460808:  // jumpToDefault
+          this.jumpToDefault = (CurrencyAmount) newValue;
+          break;
+        default:
+          throw new NoSuchElementException("Unknown property: " + propertyName);
+      }
+      return this;
+    }
+
+    @Override
+    public CreditEntityRisk build() {
+      return new CreditEntityRisk(
+          legalEntityId,
+          currency,
+          bucketedCs01,
+          parallelCs01,
+          recovery01,
+          jumpToDefault);
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public String toString() {
+      StringBuilder buf = new StringBuilder(224);
+      buf.append("CreditEntityRisk.Builder{");
+      buf.append("legalEntityId").append('=').append(JodaBeanUtils.toString(legalEntityId)).append(',').append(' ');
+      buf.append("currency").append('=').append(JodaBeanUtils.toString(currency)).append(',').append(' ');
+      buf.append("bucketedCs01").append('=').append(JodaBeanUtils.toString(bucketedCs01)).append(',').append(' ');
+      buf.append("parallelCs01").append('=').append(JodaBeanUtils.toString(parallelCs01)).append(',').append(' ');
+      buf.append("recovery01").append('=').append(JodaBeanUtils.toString(recovery01)).append(',').append(' ');
+      buf.append("jumpToDefault").append('=').append(JodaBeanUtils.toString(jumpToDefault));
+      buf.append('}');
+      return buf.toString();
+    }
+
+  }
+
+  //-------------------------- AUTOGENERATED END --------------------------
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.credit;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.tuple.Pair;
+import com.opengamma.strata.market.curve.CurveInfoType;
+import com.opengamma.strata.market.curve.CurveName;
+import com.opengamma.strata.market.curve.NodalCurve;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
+import com.opengamma.strata.market.param.ParameterMetadata;
+import com.opengamma.strata.market.param.ResolvedTradeParameterMetadata;
+import com.opengamma.strata.pricer.common.PriceType;
+import com.opengamma.strata.product.ResolvedTrade;
+import com.opengamma.strata.product.credit.ResolvedCdsIndexTrade;
+import com.opengamma.strata.product.credit.ResolvedCdsTrade;
+
+/**
+ * Calculator of the credit risk of a portfolio of CDS and CDS index trades, aggregated by legal entity.
+ * <p>
+ * The trades are grouped by the credit curve they are priced against, identified by the legal entity
+ * and currency. For CDS index trades, the legal entity is the CDS index ID.
+ * For each group, the bucketed CS01, parallel CS01, recovery01 and jump-to-default are computed
+ * and summed over the trades of the group.
+ * <p>
+ * The CS01 is computed by bump-and-reprice, as in {@link FiniteDifferenceSpreadSensitivityCalculator}.
+ * However, each bumped credit curve is calibrated once per legal entity, then all the trades of the legal entity
+ * are repriced against it. Thus the number of calibrations is independent of the number of trades,
+ * whereas computing the CS01 trade by trade calibrates every bumped curve for each trade.
+ * The results are the same as the sum of the trade by trade results.
+ * <p>
+ * The CDS trades used in the curve calibration are reused as bucket CDS by this calculator.
+ * Thus the credit curves must store {@link ResolvedTradeParameterMetadata}.
+ */
+public class CreditPortfolioRiskCalculator {
+
+  /**
+   * Default implementation.
+   * <p>
+   * The bump amount is one basis point.
+   */
+  public static final CreditPortfolioRiskCalculator DEFAULT =
+      new CreditPortfolioRiskCalculator(AccrualOnDefaultFormula.ORIGINAL_ISDA, 1.0e-4);
+  /**
+   * The curve name of the bucketed CS01, consistent with {@link SpreadSensitivityCalculator}.
+   */
+  private static final CurveName CS01_NAME = CurveName.of("impliedSpreads");
+
+  /**
+   * The CDS trade pricer.
+   */
+  private final IsdaCdsTradePricer cdsPricer;
+  /**
+   * The CDS index trade pricer.
+   */
+  private final IsdaHomogenousCdsIndexTradePricer cdsIndexPricer;
+  /**
+   * The credit curve calibrator.
+   */
+  private final IsdaCompliantCreditCurveCalibrator calibrator;
+  /**
+   * The bump amount for the finite difference method.
+   */
+  private final double bumpAmount;
+
+  /**
+   * Constructor with accrual-on-default formula and bump amount specified.
+   *
+   * @param formula  the accrual-on-default formula
+   * @param bumpAmount  the bump amount
+   */
+  public CreditPortfolioRiskCalculator(AccrualOnDefaultFormula formula, double bumpAmount) {
+    this.cdsPricer = new IsdaCdsTradePricer(formula);
+    this.cdsIndexPricer = new IsdaHomogenousCdsIndexTradePricer(formula);
+    this.calibrator = new FastCreditCurveCalibrator(formula);
+    this.bumpAmount = ArgChecker.notZero(bumpAmount, 1.0e-10, "bumpAmount");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the credit risk of the CDS trades, aggregated by legal entity.
+   * <p>
+   * The relevant credit curves must be stored in {@code RatesProvider}.
+   *
+   * @param trades  the CDS trades
+   * @param ratesProvider  the rates provider
+   * @param refData  the reference data
+   * @return the credit risk of each legal entity, in the order the legal entities first appear in the trades
+   */
+  public ImmutableList<CreditEntityRisk> calculate(
+      List<ResolvedCdsTrade> trades,
+      CreditRatesProvider ratesProvider,
+      ReferenceData refData) {
+
+    return calculate(trades, ImmutableList.of(), ratesProvider, refData);
+  }
+
+  /**
+   * Computes the credit risk of the CDS and CDS index trades, aggregated by legal entity.
+   * <p>
+   * The CDS index trades are priced using a single credit curve, which is coherent to the pricer
+   * {@link IsdaHomogenousCdsIndexTradePricer}. The relevant credit curves must be stored in {@code RatesProvider}.
+   *
+   * @param trades  the CDS trades
+   * @param indexTrades  the CDS index trades
+   * @param ratesProvider  the rates provider
+   * @param refData  the reference data
+   * @return the credit risk of each legal entity, in the order the legal entities first appear in the trades
+   */
+  public ImmutableList<CreditEntityRisk> calculate(
+      List<ResolvedCdsTrade> trades,
+      List<ResolvedCdsIndexTrade> indexTrades,
+      CreditRatesProvider ratesProvider,
+      ReferenceData refData) {
+
+    Map<Pair<StandardId, Currency>, EntityTrades> entities = new LinkedHashMap<>();
+    for (ResolvedCdsTrade trade : trades) {
+      StandardId legalEntityId = trade.getProduct().getLegalEntityId();
+      EntityTrades entity = entities.computeIfAbsent(
+          Pair.of(legalEntityId, trade.getProduct().getCurrency()), key -> new EntityTrades());
+      entity.add(trade, 1d);
+      entity.recovery01 += cdsPricer.recovery01OnSettle(trade, ratesProvider, refData).getAmount();
+      entity.jumpToDefault +=
+          cdsPricer.jumpToDefault(trade, ratesProvider, refData).getAmounts().getOrDefault(legalEntityId, 0d);
+    }
+    for (ResolvedCdsIndexTrade trade : indexTrades) {
+      StandardId indexId = trade.getProduct().getCdsIndexId();
+      Pair<StandardId, Currency> key = Pair.of(indexId, trade.getProduct().getCurrency());
+      EntityTrades entity = entities.computeIfAbsent(key, k -> new EntityTrades());
+      entity.add(trade.toSingleNameCds(), indexFactor(key, ratesProvider));
+      entity.recovery01 += cdsIndexPricer.recovery01OnSettle(trade, ratesProvider, refData).getAmount();
+      entity.jumpToDefault +=
+          cdsIndexPricer.jumpToDefault(trade, ratesProvider, refData).getAmounts().getOrDefault(indexId, 0d);
+    }
+    ImmutableList.Builder<CreditEntityRisk> builder = ImmutableList.builder();
+    for (Map.Entry<Pair<StandardId, Currency>, EntityTrades> entry : entities.entrySet()) {
+      Pair<StandardId, Currency> key = entry.getKey();
+      builder.add(entityRisk(key.getFirst(), key.getSecond(), entry.getValue(), ratesProvider, refData));
+    }
+    return builder.build();
+  }
+
+  //-------------------------------------------------------------------------
+  // computes the credit risk of the trades of a single legal entity
+  private CreditEntityRisk entityRisk(
+      StandardId legalEntityId,
+      Currency currency,
+      EntityTrades entity,
+      CreditRatesProvider ratesProvider,
+      ReferenceData refData) {
+
+    ImmutableCreditRatesProvider immutableRatesProvider = ratesProvider.toImmutableCreditRatesProvider();
+    CreditDiscountFactors creditCurve =
+        ratesProvider.survivalProbabilities(legalEntityId, currency).getSurvivalProbabilities();
+    List<ResolvedTrade> bucketTrades = bucketTrades(creditCurve);
+    List<ResolvedCdsTrade> bucketCds = bucketTrades.stream()
+        .map(CreditPortfolioRiskCalculator::toSingleNameCds)
+        .collect(toImmutableList());
+    int nBucket = bucketCds.size();
+    DoubleArray impSp = DoubleArray.of(nBucket, n -> cdsPricer.parSpread(bucketCds.get(n), ratesProvider, refData));
+
+    // each curve is calibrated once, then all the trades of the legal entity are repriced against it
+    double pvBase = presentValue(entity, impSp, bucketCds, legalEntityId, currency, immutableRatesProvider, refData);
+    double[] bucketed = new double[nBucket];
+    for (int i = 0; i < nBucket; ++i) {
+      double[] bumpedSp = impSp.toArray();
+      bumpedSp[i] += bumpAmount;
+      double pvBumped = presentValue(
+          entity, DoubleArray.ofUnsafe(bumpedSp), bucketCds, legalEntityId, currency, immutableRatesProvider, refData);
+      bucketed[i] = (pvBumped - pvBase) / bumpAmount;
+    }
+    DoubleArray parallelSp = impSp.map(sp -> sp + bumpAmount);
+    double pvParallel =
+        presentValue(entity, parallelSp, bucketCds, legalEntityId, currency, immutableRatesProvider, refData);
+
+    List<ResolvedTradeParameterMetadata> metadata = bucketTrades.stream()
+        .map(t -> ResolvedTradeParameterMetadata.of(t, bucketCdsLabel(t)))
+        .collect(toImmutableList());
+    return CreditEntityRisk.of(
+        legalEntityId,
+        currency,
+        CurrencyParameterSensitivity.of(CS01_NAME, metadata, currency, DoubleArray.ofUnsafe(bucketed)),
+        CurrencyAmount.of(currency, (pvParallel - pvBase) / bumpAmount),
+        CurrencyAmount.of(currency, entity.recovery01),
+        CurrencyAmount.of(currency, entity.jumpToDefault));
+  }
+
+  // calibrates the credit curve to the spreads, then computes the total present value of the trades
+  private double presentValue(
+      EntityTrades entity,
+      DoubleArray spreads,
+      List<ResolvedCdsTrade> bucketCds,
+      StandardId legalEntityId,
+      Currency currency,
+      ImmutableCreditRatesProvider ratesProvider,
+      ReferenceData refData) {
+
+    LocalDate valuationDate = ratesProvider.getValuationDate();
+    NodalCurve creditCurve = calibrator.calibrate(
+        bucketCds,
+        spreads,
+        DoubleArray.filled(bucketCds.size()),
+        CurveName.of("impliedCreditCurve"),
+        valuationDate,
+        ratesProvider.discountFactors(currency),
+        ratesProvider.recoveryRates(legalEntityId),
+        refData);
+    IsdaCreditDiscountFactors df = IsdaCreditDiscountFactors.of(currency, valuationDate, creditCurve);
+    CreditRatesProvider calibratedProvider = ratesProvider.toBuilder()
+        .creditCurves(ImmutableMap.of(
+            Pair.of(legalEntityId, currency), LegalEntitySurvivalProbabilities.of(legalEntityId, df)))
+        .build();
+    double pv = 0d;
+    for (int i = 0; i < entity.trades.size(); ++i) {
+      double tradePv = cdsPricer.presentValueOnSettle(
+          entity.trades.get(i), calibratedProvider, PriceType.DIRTY, refData).getAmount();
+      pv += tradePv * entity.factors.get(i);
+    }
+    return pv;
+  }
+
+  // extract the bucket trades from the credit curve
+  private static ImmutableList<ResolvedTrade> bucketTrades(CreditDiscountFactors creditCurve) {
+    int nNodes = creditCurve.getParameterCount();
+    ImmutableList.Builder<ResolvedTrade> builder = ImmutableList.builder();
+    for (int i = 0; i < nNodes; ++i) {
+      ParameterMetadata metadata = creditCurve.getParameterMetadata(i);
+      ArgChecker.isTrue(metadata instanceof ResolvedTradeParameterMetadata,
+          "ParameterMetadata of credit curve must be ResolvedTradeParameterMetadata");
+      ResolvedTrade trade = ((ResolvedTradeParameterMetadata) metadata).getTrade();
+      ArgChecker.isTrue(trade instanceof ResolvedCdsTrade || trade instanceof ResolvedCdsIndexTrade,
+          "ResolvedTrade must be ResolvedCdsTrade or ResolvedCdsIndexTrade");
+      builder.add(trade);
+    }
+    return builder.build();
+  }
+
+  // the single-name CDS equivalent to the bucket trade
+  private static ResolvedCdsTrade toSingleNameCds(ResolvedTrade trade) {
+    return trade instanceof ResolvedCdsIndexTrade ?
+        ((ResolvedCdsIndexTrade) trade).toSingleNameCds() :
+        (ResolvedCdsTrade) trade;
+  }
+
+  // the label of the bucket trade, consistent with SpreadSensitivityCalculator
+  private static String bucketCdsLabel(ResolvedTrade trade) {
+    return toSingleNameCds(trade).getProduct().getProtectionEndDate().toString();
+  }
+
+  // the index factor of the credit curve of the CDS index
+  private static double indexFactor(Pair<StandardId, Currency> key, CreditRatesProvider ratesProvider) {
+    CreditDiscountFactors creditCurve =
+        ratesProvider.survivalProbabilities(key.getFirst(), key.getSecond()).getSurvivalProbabilities();
+    ArgChecker.isTrue(creditCurve instanceof IsdaCreditDiscountFactors,
+        "Credit curve of CDS index must be IsdaCreditDiscountFactors");
+    return ((IsdaCreditDiscountFactors) creditCurve).getCurve().getMetadata().getInfo(CurveInfoType.CDS_INDEX_FACTOR);
+  }
+
+  //-------------------------------------------------------------------------
+  // the trades of a legal entity, with the single-name equivalent of CDS index trades weighted by the index factor
+  private static final class EntityTrades {
+    private final List<ResolvedCdsTrade> trades = new ArrayList<>();
+    private final List<Double> factors = new ArrayList<>();
+    private double recovery01;
+    private double jumpToDefault;
+
+    private void add(ResolvedCdsTrade trade, double factor) {
+      trades.add(trade);
+      factors.add(factor);
+    }
+  }
+
+}
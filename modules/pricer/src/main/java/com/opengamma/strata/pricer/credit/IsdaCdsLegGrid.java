@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.credit;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.date.DayCount;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.product.credit.CreditCouponPaymentPeriod;
+import com.opengamma.strata.product.credit.ResolvedCds;
+
+/**
+ * The precomputed integration grid of the legs of a CDS.
+ * <p>
+ * Pricing a CDS under the ISDA standard model requires the year fractions of the coupon dates,
+ * and the integration schedule formed by combining the nodes of the discount curve and the credit curve.
+ * These depend only on the schedule of the CDS, the valuation date, the day count and the nodes of the curves.
+ * They do not depend on the values of the curves, the notional, the coupon rate or the reference entity.
+ * <p>
+ * As such, a single grid can be reused for all CDSs that share the same standard schedule,
+ * such as those with the same IMM dates and maturity, provided the curves have the same nodes.
+ * This is typically the case for credit curves calibrated to the standard tenors.
+ * The grid does not depend on the accrual-on-default formula, thus can be shared between pricers.
+ * <p>
+ * Instances are created by
+ * {@link IsdaCdsProductPricer#legGrid(ResolvedCds, CreditRatesProvider, com.opengamma.strata.basics.ReferenceData)}.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class IsdaCdsLegGrid {
+
+  /**
+   * The CDS that the grid was created from, used to match the schedule.
+   */
+  private final ResolvedCds template;
+  /**
+   * The valuation date.
+   */
+  private final LocalDate valuationDate;
+  /**
+   * The day count of the discount curve.
+   */
+  private final DayCount dayCount;
+  /**
+   * The day count of the credit curve.
+   */
+  private final DayCount creditDayCount;
+  /**
+   * The nodes of the discount curve.
+   */
+  private final DoubleArray discountCurveNodes;
+  /**
+   * The nodes of the credit curve.
+   */
+  private final DoubleArray creditCurveNodes;
+  /**
+   * The step-in date.
+   */
+  private final LocalDate stepinDate;
+  /**
+   * The effective start date.
+   */
+  private final LocalDate effectiveStartDate;
+  /**
+   * The accrued year fraction at the step-in date.
+   */
+  private final double accruedYearFraction;
+  /**
+   * The integration schedule of the protection leg.
+   */
+  private final DoubleArray protectionSchedule;
+  /**
+   * The year fraction of each coupon that is not yet paid.
+   */
+  private final DoubleArray couponYearFractions;
+  /**
+   * The relative time of the payment date of each coupon that is not yet paid.
+   */
+  private final DoubleArray paymentTimes;
+  /**
+   * The relative time of the effective end date of each coupon that is not yet paid.
+   */
+  private final DoubleArray survivalTimes;
+  /**
+   * The integration knots of the accrual-on-default of each coupon that has not expired, empty if not applicable.
+   */
+  private final ImmutableList<DoubleArray> accrualKnots;
+  /**
+   * The relative time of the effective start date of each coupon that has not expired.
+   */
+  private final DoubleArray accrualEffectiveStartTimes;
+  /**
+   * The year fraction of each coupon that has not expired.
+   */
+  private final DoubleArray accrualYearFractions;
+  /**
+   * The year fraction of each coupon that has not expired, based on the day count of the curves.
+   */
+  private final DoubleArray accrualCurveYearFractions;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates the grid.
+   * <p>
+   * The CDS must not have expired.
+   *
+   * @param cds  the product
+   * @param discountFactors  the discount factors
+   * @param survivalProbabilities  the survival probabilities
+   * @param stepinDate  the step-in date
+   * @param effectiveStartDate  the effective start date
+   * @return the grid
+   */
+  static IsdaCdsLegGrid of(
+      ResolvedCds cds,
+      CreditDiscountFactors discountFactors,
+      LegalEntitySurvivalProbabilities survivalProbabilities,
+      LocalDate stepinDate,
+      LocalDate effectiveStartDate) {
+
+    CreditDiscountFactors survivalDiscountFactors = survivalProbabilities.getSurvivalProbabilities();
+    DoubleArray discountCurveNodes = discountFactors.getParameterKeys();
+    DoubleArray creditCurveNodes = survivalProbabilities.getParameterKeys();
+    DoubleArray protectionSchedule = DoublesScheduleGenerator.getIntegrationsPoints(
+        discountFactors.relativeYearFraction(effectiveStartDate),
+        discountFactors.relativeYearFraction(cds.getProtectionEndDate()),
+        discountCurveNodes,
+        creditCurveNodes);
+    // coupons of the premium leg
+    List<CreditCouponPaymentPeriod> coupons = cds.getPaymentPeriods();
+    double[] couponYearFractions = new double[coupons.size()];
+    double[] paymentTimes = new double[coupons.size()];
+    double[] survivalTimes = new double[coupons.size()];
+    int nCoupons = 0;
+    for (CreditCouponPaymentPeriod coupon : coupons) {
+      if (stepinDate.isBefore(coupon.getEndDate())) {
+        couponYearFractions[nCoupons] = coupon.getYearFraction();
+        paymentTimes[nCoupons] = discountFactors.relativeYearFraction(coupon.getPaymentDate());
+        survivalTimes[nCoupons] = survivalDiscountFactors.relativeYearFraction(coupon.getEffectiveEndDate());
+        nCoupons++;
+      }
+    }
+    // accrual-on-default
+    ImmutableList.Builder<DoubleArray> accrualKnots = ImmutableList.builder();
+    double[] accrualEffectiveStartTimes = new double[coupons.size()];
+    double[] accrualYearFractions = new double[coupons.size()];
+    double[] accrualCurveYearFractions = new double[coupons.size()];
+    int nAccruals = 0;
+    if (cds.getPaymentOnDefault().isAccruedInterest()) {
+      // This is needed so that the code is consistent with ISDA C when the Markit `fix' is used.
+      LocalDate start = coupons.size() == 1 ? effectiveStartDate : cds.getAccrualStartDate();
+      DoubleArray integrationSchedule = DoublesScheduleGenerator.getIntegrationsPoints(
+          discountFactors.relativeYearFraction(start),
+          discountFactors.relativeYearFraction(cds.getProtectionEndDate()),
+          discountCurveNodes,
+          creditCurveNodes);
+      for (CreditCouponPaymentPeriod coupon : coupons) {
+        LocalDate couponStart = coupon.getEffectiveStartDate().isBefore(effectiveStartDate) ?
+            effectiveStartDate :
+            coupon.getEffectiveStartDate();
+        if (couponStart.isBefore(coupon.getEffectiveEndDate())) {
+          accrualKnots.add(DoublesScheduleGenerator.truncateSetInclusive(
+              discountFactors.relativeYearFraction(couponStart),
+              discountFactors.relativeYearFraction(coupon.getEffectiveEndDate()),
+              integrationSchedule));
+          accrualEffectiveStartTimes[nAccruals] = discountFactors.relativeYearFraction(coupon.getEffectiveStartDate());
+          accrualYearFractions[nAccruals] = coupon.getYearFraction();
+          accrualCurveYearFractions[nAccruals] =
+              discountFactors.getDayCount().relativeYearFraction(coupon.getStartDate(), coupon.getEndDate());
+          nAccruals++;
+        }
+      }
+    }
+    return new IsdaCdsLegGrid(
+        cds,
+        discountFactors.getValuationDate(),
+        discountFactors.getDayCount(),
+        survivalDiscountFactors.getDayCount(),
+        discountCurveNodes,
+        creditCurveNodes,
+        stepinDate,
+        effectiveStartDate,
+        cds.accruedYearFraction(stepinDate),
+        protectionSchedule,
+        DoubleArray.copyOf(couponYearFractions, 0, nCoupons),
+        DoubleArray.copyOf(paymentTimes, 0, nCoupons),
+        DoubleArray.copyOf(survivalTimes, 0, nCoupons),
+        accrualKnots.build(),
+        DoubleArray.copyOf(accrualEffectiveStartTimes, 0, nAccruals),
+        DoubleArray.copyOf(accrualYearFractions, 0, nAccruals),
+        DoubleArray.copyOf(accrualCurveYearFractions, 0, nAccruals));
+  }
+
+  // restricted constructor
+  private IsdaCdsLegGrid(
+      ResolvedCds template,
+      LocalDate valuationDate,
+      DayCount dayCount,
+      DayCount creditDayCount,
+      DoubleArray discountCurveNodes,
+      DoubleArray creditCurveNodes,
+      LocalDate stepinDate,
+      LocalDate effectiveStartDate,
+      double accruedYearFraction,
+      DoubleArray protectionSchedule,
+      DoubleArray couponYearFractions,
+      DoubleArray paymentTimes,
+      DoubleArray survivalTimes,
+      ImmutableList<DoubleArray> accrualKnots,
+      DoubleArray accrualEffectiveStartTimes,
+      DoubleArray accrualYearFractions,
+      DoubleArray accrualCurveYearFractions) {
+
+    this.template = template;
+    this.valuationDate = valuationDate;
+    this.dayCount = dayCount;
+    this.creditDayCount = creditDayCount;
+    this.discountCurveNodes = discountCurveNodes;
+    this.creditCurveNodes = creditCurveNodes;
+    this.stepinDate = stepinDate;
+    this.effectiveStartDate = effectiveStartDate;
+    this.accruedYearFraction = accruedYearFraction;
+    this.protectionSchedule = protectionSchedule;
+    this.couponYearFractions = couponYearFractions;
+    this.paymentTimes = paymentTimes;
+    this.survivalTimes = survivalTimes;
+    this.accrualKnots = accrualKnots;
+    this.accrualEffectiveStartTimes = accrualEffectiveStartTimes;
+    this.accrualYearFractions = accrualYearFractions;
+    this.accrualCurveYearFractions = accrualCurveYearFractions;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Checks if this grid can be used to price the specified CDS against the specified curves.
+   * <p>
+   * This is true if the CDS has the same schedule as the CDS the grid was created from,
+   * and the curves have the same valuation date, day counts and nodes as those the grid was created from.
+   *
+   * @param cds  the product
+   * @param discountFactors  the discount factors
+   * @param survivalProbabilities  the survival probabilities
+   * @return true if the grid can be used
+   */
+  public boolean isApplicable(
+      ResolvedCds cds,
+      CreditDiscountFactors discountFactors,
+      LegalEntitySurvivalProbabilities survivalProbabilities) {
+
+    return valuationDate.equals(discountFactors.getValuationDate()) &&
+        valuationDate.equals(survivalProbabilities.getValuationDate()) &&
+        dayCount.equals(discountFactors.getDayCount()) &&
+        creditDayCount.equals(survivalProbabilities.getSurvivalProbabilities().getDayCount()) &&
+        discountCurveNodes.equals(discountFactors.getParameterKeys()) &&
+        creditCurveNodes.equals(survivalProbabilities.getParameterKeys()) &&
+        isSameSchedule(cds);
+  }
+
+  // checks if the CDS has the same schedule as the template, ignoring notional, coupon rate and reference entity
+  private boolean isSameSchedule(ResolvedCds cds) {
+    if (cds == template) {
+      return true;
+    }
+    if (!cds.getProtectionEndDate().equals(template.getProtectionEndDate()) ||
+        !cds.getDayCount().equals(template.getDayCount()) ||
+        cds.getPaymentOnDefault() != template.getPaymentOnDefault() ||
+        cds.getProtectionStart() != template.getProtectionStart() ||
+        !cds.getStepinDateOffset().equals(template.getStepinDateOffset()) ||
+        cds.getPaymentPeriods().size() != template.getPaymentPeriods().size()) {
+      return false;
+    }
+    for (int i = 0; i < cds.getPaymentPeriods().size(); i++) {
+      CreditCouponPaymentPeriod period = cds.getPaymentPeriods().get(i);
+      CreditCouponPaymentPeriod other = template.getPaymentPeriods().get(i);
+      if (!period.getStartDate().equals(other.getStartDate()) ||
+          !period.getEndDate().equals(other.getEndDate()) ||
+          !period.getEffectiveStartDate().equals(other.getEffectiveStartDate()) ||
+          !period.getEffectiveEndDate().equals(other.getEffectiveEndDate()) ||
+          !period.getPaymentDate().equals(other.getPaymentDate()) ||
+          period.getYearFraction() != other.getYearFraction()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the valuation date.
+   *
+   * @return the valuation date
+   */
+  public LocalDate getValuationDate() {
+    return valuationDate;
+  }
+
+  /**
+   * Gets the step-in date.
+   *
+   * @return the step-in date
+   */
+  public LocalDate getStepinDate() {
+    return stepinDate;
+  }
+
+  /**
+   * Gets the effective start date.
+   *
+   * @return the effective start date
+   */
+  public LocalDate getEffectiveStartDate() {
+    return effectiveStartDate;
+  }
+
+  // the accrued year fraction at the step-in date
+  double getAccruedYearFraction() {
+    return accruedYearFraction;
+  }
+
+  // the integration schedule of the protection leg
+  DoubleArray getProtectionSchedule() {
+    return protectionSchedule;
+  }
+
+  // the year fraction of each coupon that is not yet paid
+  DoubleArray getCouponYearFractions() {
+    return couponYearFractions;
+  }
+
+  // the relative time of the payment date of each coupon that is not yet paid
+  DoubleArray getPaymentTimes() {
+    return paymentTimes;
+  }
+
+  // the relative time of the effective end date of each coupon that is not yet paid
+  DoubleArray getSurvivalTimes() {
+    return survivalTimes;
+  }
+
+  // the integration knots of the accrual-on-default of each coupon that has not expired
+  ImmutableList<DoubleArray> getAccrualKnots() {
+    return accrualKnots;
+  }
+
+  // the relative time of the effective start date of each coupon that has not expired
+  DoubleArray getAccrualEffectiveStartTimes() {
+    return accrualEffectiveStartTimes;
+  }
+
+  // the year fraction of each coupon that has not expired
+  DoubleArray getAccrualYearFractions() {
+    return accrualYearFractions;
+  }
+
+  // the year fraction of each coupon that has not expired, based on the day count of the curves
+  DoubleArray getAccrualCurveYearFractions() {
+    return accrualCurveYearFractions;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return Messages.format(
+        "IsdaCdsLegGrid[valuationDate={}, protectionEndDate={}, coupons={}, protectionNodes={}]",
+        valuationDate,
+        template.getProtectionEndDate(),
+        couponYearFractions.size(),
+        protectionSchedule.size());
+  }
+
+}
@@ -10,6 +10,10 @@ import static com.opengamma.strata.math.impl.util.Epsilon.epsilonP;
 import static com.opengamma.strata.math.impl.util.Epsilon.epsilonPP;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.ReferenceData;
@@ -120,10 +124,24 @@ public class IsdaCdsProductPricer {
     LocalDate effectiveStartDate = cds.calculateEffectiveStartDate(stepinDate);
     double recoveryRate = recoveryRate(cds, ratesProvider);
     Pair<CreditDiscountFactors, LegalEntitySurvivalProbabilities> rates = reduceDiscountFactors(cds, ratesProvider);
-    double protectionLeg =
-        protectionLeg(cds, rates.getFirst(), rates.getSecond(), referenceDate, effectiveStartDate, recoveryRate);
-    double rpv01 = riskyAnnuity(
-        cds, rates.getFirst(), rates.getSecond(), referenceDate, stepinDate, effectiveStartDate, priceType);
+    IsdaCdsLegGrid grid = IsdaCdsLegGrid.of(cds, rates.getFirst(), rates.getSecond(), stepinDate, effectiveStartDate);
+    return price(grid, rates.getFirst(), rates.getSecond(), fractionalSpread, referenceDate, priceType, recoveryRate);
+  }
+
+  // internal price computation using the grid
+  private double price(
+      IsdaCdsLegGrid grid,
+      CreditDiscountFactors discountFactors,
+      LegalEntitySurvivalProbabilities survivalProbabilities,
+      double fractionalSpread,
+      LocalDate referenceDate,
+      PriceType priceType,
+      double recoveryRate) {
+
+    double protectionFull =
+        protectionFull(grid.getProtectionSchedule(), discountFactors, survivalProbabilities, referenceDate);
+    double protectionLeg = (1d - recoveryRate) * protectionFull;
+    double rpv01 = riskyAnnuity(grid, discountFactors, survivalProbabilities, referenceDate, priceType);
     return protectionLeg - rpv01 * fractionalSpread;
   }
 
@@ -249,10 +267,11 @@ public class IsdaCdsProductPricer {
     LocalDate effectiveStartDate = cds.calculateEffectiveStartDate(stepinDate);
     double recoveryRate = recoveryRate(cds, ratesProvider);
     Pair<CreditDiscountFactors, LegalEntitySurvivalProbabilities> rates = reduceDiscountFactors(cds, ratesProvider);
-    double protectionLeg =
-        protectionLeg(cds, rates.getFirst(), rates.getSecond(), referenceDate, effectiveStartDate, recoveryRate);
-    double riskyAnnuity =
-        riskyAnnuity(cds, rates.getFirst(), rates.getSecond(), referenceDate, stepinDate, effectiveStartDate, PriceType.CLEAN);
+    // both legs are priced from a single grid
+    IsdaCdsLegGrid grid = IsdaCdsLegGrid.of(cds, rates.getFirst(), rates.getSecond(), stepinDate, effectiveStartDate);
+    double protectionLeg = (1d - recoveryRate) *
+        protectionFull(grid.getProtectionSchedule(), rates.getFirst(), rates.getSecond(), referenceDate);
+    double riskyAnnuity = riskyAnnuity(grid, rates.getFirst(), rates.getSecond(), referenceDate, PriceType.CLEAN);
     return protectionLeg / riskyAnnuity;
   }
 
@@ -279,10 +298,11 @@ public class IsdaCdsProductPricer {
     LocalDate effectiveStartDate = cds.calculateEffectiveStartDate(stepinDate);
     double recoveryRate = recoveryRate(cds, ratesProvider);
     Pair<CreditDiscountFactors, LegalEntitySurvivalProbabilities> rates = reduceDiscountFactors(cds, ratesProvider);
-    double protectionLeg =
-        protectionLeg(cds, rates.getFirst(), rates.getSecond(), referenceDate, effectiveStartDate, recoveryRate);
+    IsdaCdsLegGrid grid = IsdaCdsLegGrid.of(cds, rates.getFirst(), rates.getSecond(), stepinDate, effectiveStartDate);
+    double protectionLeg = (1d - recoveryRate) *
+        protectionFull(grid.getProtectionSchedule(), rates.getFirst(), rates.getSecond(), referenceDate);
     double riskyAnnuityInv = 1d /
-        riskyAnnuity(cds, rates.getFirst(), rates.getSecond(), referenceDate, stepinDate, effectiveStartDate, PriceType.CLEAN);
+        riskyAnnuity(grid, rates.getFirst(), rates.getSecond(), referenceDate, PriceType.CLEAN);
 
     PointSensitivityBuilder protectionLegSensi =
         protectionLegSensitivity(cds, rates.getFirst(), rates.getSecond(), referenceDate, effectiveStartDate, recoveryRate)
@@ -294,6 +314,135 @@ public class IsdaCdsProductPricer {
     return protectionLegSensi.combinedWith(riskyAnnuitySensi);
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Creates the precomputed integration grid of the legs of the CDS product.
+   * <p>
+   * The grid holds the coupon times and the integration schedules of the protection leg and the
+   * accrual-on-default, which depend only on the schedule of the CDS and the nodes of the curves.
+   * The grid can then be reused for any CDS with the same schedule priced against curves with the same nodes,
+   * see {@link IsdaCdsLegGrid#isApplicable(ResolvedCds, CreditDiscountFactors, LegalEntitySurvivalProbabilities)}.
+   * 
+   * @param cds  the product
+   * @param ratesProvider  the rates provider
+   * @param refData  the reference data
+   * @return the grid
+   * @throws IllegalArgumentException if the CDS has expired
+   */
+  public IsdaCdsLegGrid legGrid(
+      ResolvedCds cds,
+      CreditRatesProvider ratesProvider,
+      ReferenceData refData) {
+
+    ArgChecker.isFalse(isExpired(cds, ratesProvider), "CDS already expired");
+    LocalDate stepinDate = cds.getStepinDateOffset().adjust(ratesProvider.getValuationDate(), refData);
+    LocalDate effectiveStartDate = cds.calculateEffectiveStartDate(stepinDate);
+    Pair<CreditDiscountFactors, LegalEntitySurvivalProbabilities> rates = reduceDiscountFactors(cds, ratesProvider);
+    return IsdaCdsLegGrid.of(cds, rates.getFirst(), rates.getSecond(), stepinDate, effectiveStartDate);
+  }
+
+  /**
+   * Calculates the price of the CDS product using a precomputed grid.
+   * <p>
+   * This is equivalent to {@link #price(ResolvedCds, CreditRatesProvider, LocalDate, PriceType, ReferenceData)},
+   * but reuses the grid rather than rebuilding the schedules.
+   * 
+   * @param cds  the product
+   * @param ratesProvider  the rates provider
+   * @param grid  the grid, created by {@link #legGrid(ResolvedCds, CreditRatesProvider, ReferenceData)}
+   * @param referenceDate  the reference date
+   * @param priceType  the price type
+   * @return the price
+   * @throws IllegalArgumentException if the grid is not applicable to the CDS and the curves
+   */
+  public double price(
+      ResolvedCds cds,
+      CreditRatesProvider ratesProvider,
+      IsdaCdsLegGrid grid,
+      LocalDate referenceDate,
+      PriceType priceType) {
+
+    if (isExpired(cds, ratesProvider)) {
+      return 0d;
+    }
+    double recoveryRate = recoveryRate(cds, ratesProvider);
+    Pair<CreditDiscountFactors, LegalEntitySurvivalProbabilities> rates = reduceDiscountFactors(cds, ratesProvider);
+    ArgChecker.isTrue(grid.isApplicable(cds, rates.getFirst(), rates.getSecond()),
+        "Grid is not applicable to the CDS and curves: {}", grid);
+    return price(grid, rates.getFirst(), rates.getSecond(), cds.getFixedRate(), referenceDate, priceType, recoveryRate);
+  }
+
+  /**
+   * Calculates the present value of the CDS product using a precomputed grid.
+   * <p>
+   * This is equivalent to {@link #presentValue(ResolvedCds, CreditRatesProvider, LocalDate, PriceType, ReferenceData)},
+   * but reuses the grid rather than rebuilding the schedules.
+   * 
+   * @param cds  the product
+   * @param ratesProvider  the rates provider
+   * @param grid  the grid, created by {@link #legGrid(ResolvedCds, CreditRatesProvider, ReferenceData)}
+   * @param referenceDate  the reference date
+   * @param priceType  the price type
+   * @return the present value
+   * @throws IllegalArgumentException if the grid is not applicable to the CDS and the curves
+   */
+  public CurrencyAmount presentValue(
+      ResolvedCds cds,
+      CreditRatesProvider ratesProvider,
+      IsdaCdsLegGrid grid,
+      LocalDate referenceDate,
+      PriceType priceType) {
+
+    double price = price(cds, ratesProvider, grid, referenceDate, priceType);
+    return CurrencyAmount.of(cds.getCurrency(), cds.getBuySell().normalize(cds.getNotional()) * price);
+  }
+
+  /**
+   * Calculates the present value of a portfolio of CDS products.
+   * <p>
+   * The result is the same as calling
+   * {@link #presentValue(ResolvedCds, CreditRatesProvider, LocalDate, PriceType, ReferenceData)} for each CDS.
+   * The integration grid is created once and shared by all the products with the same schedule whose
+   * credit curves have the same nodes, typically single-name CDSs on the same standard IMM schedule and maturity.
+   * As such, the portfolio should be ordered to keep the products with the same schedule together.
+   * 
+   * @param cdsList  the products
+   * @param ratesProvider  the rates provider
+   * @param referenceDate  the reference date
+   * @param priceType  the price type
+   * @param refData  the reference data
+   * @return the present values, in the same order as the products
+   */
+  public List<CurrencyAmount> presentValue(
+      List<ResolvedCds> cdsList,
+      CreditRatesProvider ratesProvider,
+      LocalDate referenceDate,
+      PriceType priceType,
+      ReferenceData refData) {
+
+    // the grids are keyed by the nodes of the credit curve, as the discount curve is typically shared
+    Map<DoubleArray, IsdaCdsLegGrid> grids = new HashMap<>();
+    List<CurrencyAmount> result = new ArrayList<>(cdsList.size());
+    for (ResolvedCds cds : cdsList) {
+      double price = 0d;
+      if (!isExpired(cds, ratesProvider)) {
+        double recoveryRate = recoveryRate(cds, ratesProvider);
+        Pair<CreditDiscountFactors, LegalEntitySurvivalProbabilities> rates = reduceDiscountFactors(cds, ratesProvider);
+        DoubleArray creditCurveNodes = rates.getSecond().getParameterKeys();
+        IsdaCdsLegGrid grid = grids.get(creditCurveNodes);
+        if (grid == null || !grid.isApplicable(cds, rates.getFirst(), rates.getSecond())) {
+          LocalDate stepinDate = cds.getStepinDateOffset().adjust(ratesProvider.getValuationDate(), refData);
+          LocalDate effectiveStartDate = cds.calculateEffectiveStartDate(stepinDate);
+          grid = IsdaCdsLegGrid.of(cds, rates.getFirst(), rates.getSecond(), stepinDate, effectiveStartDate);
+          grids.put(creditCurveNodes, grid);
+        }
+        price = price(grid, rates.getFirst(), rates.getSecond(), cds.getFixedRate(), referenceDate, priceType, recoveryRate);
+      }
+      result.add(CurrencyAmount.of(cds.getCurrency(), cds.getBuySell().normalize(cds.getNotional()) * price));
+    }
+    return result;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Calculates the price of the protection leg, which is the protection leg present value per unit notional.
@@ -521,6 +670,15 @@ public class IsdaCdsProductPricer {
         discountFactors.relativeYearFraction(cds.getProtectionEndDate()),
         discountFactors.getParameterKeys(),
         survivalProbabilities.getParameterKeys());
+    return protectionFull(integrationSchedule, discountFactors, survivalProbabilities, referenceDate);
+  }
+
+  // computes protection leg pv per unit notional from the integration schedule
+  private double protectionFull(
+      DoubleArray integrationSchedule,
+      CreditDiscountFactors discountFactors,
+      LegalEntitySurvivalProbabilities survivalProbabilities,
+      LocalDate referenceDate) {
 
     double pv = 0d;
     double ht0 = survivalProbabilities.zeroRate(integrationSchedule.get(0)) * integrationSchedule.get(0);
@@ -563,62 +721,64 @@ public class IsdaCdsProductPricer {
       LocalDate effectiveStartDate,
       PriceType priceType) {
 
+    IsdaCdsLegGrid grid = IsdaCdsLegGrid.of(cds, discountFactors, survivalProbabilities, stepinDate, effectiveStartDate);
+    return riskyAnnuity(grid, discountFactors, survivalProbabilities, referenceDate, priceType);
+  }
+
+  // computes risky annuity using the grid
+  private double riskyAnnuity(
+      IsdaCdsLegGrid grid,
+      CreditDiscountFactors discountFactors,
+      LegalEntitySurvivalProbabilities survivalProbabilities,
+      LocalDate referenceDate,
+      PriceType priceType) {
+
+    CreditDiscountFactors survivalDiscountFactors = survivalProbabilities.getSurvivalProbabilities();
+    DoubleArray yearFractions = grid.getCouponYearFractions();
+    DoubleArray paymentTimes = grid.getPaymentTimes();
+    DoubleArray survivalTimes = grid.getSurvivalTimes();
     double pv = 0d;
-    for (CreditCouponPaymentPeriod coupon : cds.getPaymentPeriods()) {
-      if (stepinDate.isBefore(coupon.getEndDate())) {
-        double q = survivalProbabilities.survivalProbability(coupon.getEffectiveEndDate());
-        double p = discountFactors.discountFactor(coupon.getPaymentDate());
-        pv += coupon.getYearFraction() * p * q;
-      }
+    for (int i = 0; i < yearFractions.size(); i++) {
+      double q = survivalDiscountFactors.discountFactor(survivalTimes.get(i));
+      double p = discountFactors.discountFactor(paymentTimes.get(i));
+      pv += yearFractions.get(i) * p * q;
     }
 
-    if (cds.getPaymentOnDefault().isAccruedInterest()) {
-      // This is needed so that the code is consistent with ISDA C when the Markit `fix' is used. 
-      LocalDate start = cds.getPaymentPeriods().size() == 1 ? effectiveStartDate : cds.getAccrualStartDate();
-      DoubleArray integrationSchedule = DoublesScheduleGenerator.getIntegrationsPoints(
-          discountFactors.relativeYearFraction(start),
-          discountFactors.relativeYearFraction(cds.getProtectionEndDate()),
-          discountFactors.getParameterKeys(),
-          survivalProbabilities.getParameterKeys());
-      for (CreditCouponPaymentPeriod coupon : cds.getPaymentPeriods()) {
-        pv += singlePeriodAccrualOnDefault(
-            coupon, effectiveStartDate, integrationSchedule, discountFactors, survivalProbabilities);
-      }
+    List<DoubleArray> accrualKnots = grid.getAccrualKnots();
+    for (int i = 0; i < accrualKnots.size(); i++) {
+      pv += singlePeriodAccrualOnDefault(
+          accrualKnots.get(i),
+          grid.getAccrualEffectiveStartTimes().get(i),
+          grid.getAccrualYearFractions().get(i),
+          grid.getAccrualCurveYearFractions().get(i),
+          discountFactors,
+          survivalProbabilities);
     }
     // roll to the cash settle date
     double df = discountFactors.discountFactor(referenceDate);
     pv /= df;
 
     if (priceType.isCleanPrice()) {
-      pv -= cds.accruedYearFraction(stepinDate);
+      pv -= grid.getAccruedYearFraction();
     }
 
     return pv;
   }
 
-  // computes accrual-on-default pv per unit notional for a single payment period
+  // computes accrual-on-default pv per unit notional for a single payment period that has not expired
   private double singlePeriodAccrualOnDefault(
-      CreditCouponPaymentPeriod coupon,
-      LocalDate effectiveStartDate,
-      DoubleArray integrationSchedule,
+      DoubleArray knots,
+      double effStart,
+      double yearFraction,
+      double yearFractionCurve,
       CreditDiscountFactors discountFactors,
       LegalEntitySurvivalProbabilities survivalProbabilities) {
 
-    LocalDate start =
-        coupon.getEffectiveStartDate().isBefore(effectiveStartDate) ? effectiveStartDate : coupon.getEffectiveStartDate();
-    if (!start.isBefore(coupon.getEffectiveEndDate())) {
-      return 0d; // this coupon has already expired
-    }
-
-    DoubleArray knots = DoublesScheduleGenerator.truncateSetInclusive(discountFactors.relativeYearFraction(start),
-        discountFactors.relativeYearFraction(coupon.getEffectiveEndDate()), integrationSchedule);
-
     double t0Knot = knots.get(0);
     double ht0 = survivalProbabilities.zeroRate(t0Knot) * t0Knot;
     double rt0 = discountFactors.zeroRate(t0Knot) * t0Knot;
     double b0 = Math.exp(-rt0 - ht0);
 
-    double effStart = discountFactors.relativeYearFraction(coupon.getEffectiveStartDate());
     double t0 = t0Knot - effStart + omega;
     double pv = 0d;
     final int nItems = knots.size();
@@ -657,9 +817,7 @@ public class IsdaCdsProductPricer {
       b0 = b1;
     }
 
-    double yearFractionCurve =
-        discountFactors.getDayCount().relativeYearFraction(coupon.getStartDate(), coupon.getEndDate());
-    return coupon.getYearFraction() * pv / yearFractionCurve;
+    return yearFraction * pv / yearFractionCurve;
   }
 
   //-------------------------------------------------------------------------
@@ -22,6 +22,8 @@ import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.Messages;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.collect.metrics.Metrics;
+import com.opengamma.strata.collect.metrics.MetricsListener;
 import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.data.MarketDataFxRateProvider;
@@ -274,7 +276,8 @@ public final class RatesCurveCalibrator {
 
       // calibrate
       RatesProviderGenerator providerGenerator = ImmutableRatesProviderGenerator.of(providerCombined, groupDefnBound, refData);
-      DoubleArray calibratedGroupParams = calibrateGroup(providerGenerator, trades, initialGuesses, orderGroup);
+      DoubleArray calibratedGroupParams =
+          calibrateGroup(groupDefnBound, providerGenerator, trades, initialGuesses, orderGroup);
       ImmutableRatesProvider calibratedProvider = providerGenerator.generate(calibratedGroupParams);
 
       // use calibration to build Jacobian matrices
@@ -305,6 +308,7 @@ public final class RatesCurveCalibrator {
   //-------------------------------------------------------------------------
   // calibrates a single group
   private DoubleArray calibrateGroup(
+      RatesCurveGroupDefinition groupDefn,
       RatesProviderGenerator providerGenerator,
       ImmutableList<ResolvedTrade> trades,
       ImmutableList<Double> initialGuesses,
@@ -317,7 +321,24 @@ public final class RatesCurveCalibrator {
 
     // calibrate
     DoubleArray initialGuess = DoubleArray.copyOf(initialGuesses);
-    return rootFinder.findRoot(valueCalculator, derivativeCalculator, initialGuess);
+    MetricsListener metrics = Metrics.listener();
+    if (!Metrics.isEnabled(metrics)) {
+      return rootFinder.findRoot(valueCalculator, derivativeCalculator, initialGuess);
+    }
+    // count the evaluations of the calibration function, as the root finder does not report its iterations
+    int[] evaluations = new int[1];
+    Function<DoubleArray, DoubleArray> countingCalculator = params -> {
+      evaluations[0]++;
+      return valueCalculator.apply(params);
+    };
+    long start = System.nanoTime();
+    DoubleArray result = rootFinder.findRoot(countingCalculator, derivativeCalculator, initialGuess);
+    metrics.curveGroupCalibrated(
+        groupDefn.getName().getName(),
+        curveOrder.size(),
+        evaluations[0],
+        System.nanoTime() - start);
+    return result;
   }
 
   //-------------------------------------------------------------------------
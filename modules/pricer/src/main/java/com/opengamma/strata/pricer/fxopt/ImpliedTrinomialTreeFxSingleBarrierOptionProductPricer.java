@@ -9,7 +9,10 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.math.DoubleMath;
 import com.opengamma.strata.basics.currency.Currency;
@@ -54,9 +57,8 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
    * Default number of time steps.
    */
   private static final int NUM_STEPS_DEFAULT = 51;
-
   /**
-   * Default implementation.
+   * Default implementation, which does not cache calibrated trees.
    */
   public static final ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer DEFAULT =
       new ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer(NUM_STEPS_DEFAULT);
@@ -65,21 +67,48 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
    * Number of time steps.
    */
   private final ImpliedTrinomialTreeFxOptionCalibrator calibrator;
+  /**
+   * The cache of calibrated trees, null if caching is disabled.
+   */
+  private final Cache<TreeKey, RecombiningTrinomialTreeData> treeCache;
 
   /**
-   * Pricer with the default number of time steps.
+   * Pricer with the default number of time steps, which does not cache calibrated trees.
    */
   public ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer() {
     this(NUM_STEPS_DEFAULT);
   }
 
   /**
-   * Pricer with the specified number of time steps.
+   * Pricer with the specified number of time steps, which does not cache calibrated trees.
    * 
    * @param nSteps  number of time steps
    */
   public ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer(int nSteps) {
+    this(nSteps, 0);
+  }
+
+  /**
+   * Pricer with the specified number of time steps and size of tree cache.
+   * <p>
+   * The calibrated tree depends only on the rates, the volatilities, the currency pair and the expiry.
+   * Calibrated trees may therefore be cached, allowing a tree to be shared between measures and between
+   * options with the same expiry. The cache holds the most recently used trees, up to the specified size.
+   * A size of zero disables the cache.
+   * <p>
+   * The cache keeps the market data of each tree reachable, and each lookup hashes the discount factors
+   * and volatilities. Caching only pays when the same market data is priced repeatedly, such as several
+   * measures of one portfolio, thus a caching pricer should be created for that calculation rather than
+   * shared for the life of the application. When each call has different market data, as in a scenario
+   * run, caching should not be used.
+   * 
+   * @param nSteps  number of time steps
+   * @param treeCacheSize  the maximum number of calibrated trees to cache, zero to disable caching
+   */
+  public ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer(int nSteps, int treeCacheSize) {
+    ArgChecker.notNegative(treeCacheSize, "treeCacheSize");
     this.calibrator = new ImpliedTrinomialTreeFxOptionCalibrator(nSteps);
+    this.treeCache = treeCacheSize > 0 ? CacheBuilder.newBuilder().maximumSize(treeCacheSize).build() : null;
   }
 
   //-------------------------------------------------------------------------
@@ -92,6 +121,48 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
     return calibrator;
   }
 
+  /**
+   * Calibrates the trinomial tree for the FX barrier option product.
+   * <p>
+   * The tree is calibrated to Black volatilities using the underlying vanilla option.
+   * If caching is enabled, a previously calibrated tree is returned if the rates, volatilities,
+   * currency pair and time to expiry match.
+   * 
+   * @param option  the option product
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the trinomial tree data
+   */
+  public RecombiningTrinomialTreeData calibrateTrinomialTree(
+      ResolvedFxSingleBarrierOption option,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    ResolvedFxVanillaOption underlyingOption = option.getUnderlyingOption();
+    if (treeCache == null) {
+      return calibrator.calibrateTrinomialTree(underlyingOption, ratesProvider, volatilities);
+    }
+    // the key consists of the inputs that the calibration depends on
+    CurrencyPair currencyPair = underlyingOption.getUnderlying().getCurrencyPair();
+    double timeToExpiry = volatilities.relativeTime(underlyingOption.getExpiry());
+    TreeKey key = new TreeKey(
+        currencyPair,
+        timeToExpiry,
+        ratesProvider.fxRate(currencyPair),
+        ratesProvider.discountFactors(currencyPair.getBase()),
+        ratesProvider.discountFactors(currencyPair.getCounter()),
+        volatilities);
+    RecombiningTrinomialTreeData cached = treeCache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    // calibrate outside the lock, two threads may calibrate the same tree but the result is the same
+    RecombiningTrinomialTreeData treeData =
+        calibrator.calibrateTrinomialTree(timeToExpiry, currencyPair, ratesProvider, volatilities);
+    treeCache.put(key, treeData);
+    return treeData;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Calculates the price of the FX barrier option product.
@@ -114,8 +185,7 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
       RatesProvider ratesProvider,
       BlackFxOptionVolatilities volatilities) {
 
-    RecombiningTrinomialTreeData treeData =
-        calibrator.calibrateTrinomialTree(option.getUnderlyingOption(), ratesProvider, volatilities);
+    RecombiningTrinomialTreeData treeData = calibrateTrinomialTree(option, ratesProvider, volatilities);
     return price(option, ratesProvider, volatilities, treeData);
   }
 
@@ -165,8 +235,7 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
       RatesProvider ratesProvider,
       BlackFxOptionVolatilities volatilities) {
 
-    RecombiningTrinomialTreeData treeData =
-        calibrator.calibrateTrinomialTree(option.getUnderlyingOption(), ratesProvider, volatilities);
+    RecombiningTrinomialTreeData treeData = calibrateTrinomialTree(option, ratesProvider, volatilities);
     return presentValue(option, ratesProvider, volatilities, treeData);
   }
 
@@ -215,8 +284,7 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
       RatesProvider ratesProvider,
       BlackFxOptionVolatilities volatilities) {
 
-    RecombiningTrinomialTreeData baseTreeData =
-        calibrator.calibrateTrinomialTree(option.getUnderlyingOption(), ratesProvider, volatilities);
+    RecombiningTrinomialTreeData baseTreeData = calibrateTrinomialTree(option, ratesProvider, volatilities);
     return presentValueSensitivityRates(option, ratesProvider, volatilities, baseTreeData);
   }
 
@@ -260,7 +328,10 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
           Map<Currency, Curve> mapBumped = new HashMap<>(baseCurves);
           mapBumped.put(entry.getKey(), dscBumped);
           ImmutableRatesProvider providerDscBumped = immRatesProvider.toBuilder().discountCurves(mapBumped).build();
-          double pvBumped = presentValue(option, providerDscBumped, volatilities).getAmount();
+          // the bumped tree is used once, so is not cached
+          RecombiningTrinomialTreeData bumpedTreeData =
+              calibrator.calibrateTrinomialTree(underlyingOption, providerDscBumped, volatilities);
+          double pvBumped = presentValue(option, providerDscBumped, volatilities, bumpedTreeData).getAmount();
           return (pvBumped - pvBase.getAmount()) / shift;
         });
         result = result.combinedWith(curve.createParameterSensitivity(pvBase.getCurrency(), sensitivity));
@@ -286,8 +357,7 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
       RatesProvider ratesProvider,
       BlackFxOptionVolatilities volatilities) {
 
-    RecombiningTrinomialTreeData treeData =
-        calibrator.calibrateTrinomialTree(option.getUnderlyingOption(), ratesProvider, volatilities);
+    RecombiningTrinomialTreeData treeData = calibrateTrinomialTree(option, ratesProvider, volatilities);
     return currencyExposure(option, ratesProvider, volatilities, treeData);
   }
 
@@ -417,4 +487,57 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
         Math.abs(option.getUnderlying().getBaseCurrencyPayment().getAmount());
   }
 
+  //-------------------------------------------------------------------------
+  // the key of the tree cache
+  private static final class TreeKey {
+    private final CurrencyPair currencyPair;
+    private final double timeToExpiry;
+    private final double fxRate;
+    private final DiscountFactors baseDiscountFactors;
+    private final DiscountFactors counterDiscountFactors;
+    private final BlackFxOptionVolatilities volatilities;
+    private final int hashCode;
+
+    private TreeKey(
+        CurrencyPair currencyPair,
+        double timeToExpiry,
+        double fxRate,
+        DiscountFactors baseDiscountFactors,
+        DiscountFactors counterDiscountFactors,
+        BlackFxOptionVolatilities volatilities) {
+
+      this.currencyPair = currencyPair;
+      this.timeToExpiry = timeToExpiry;
+      this.fxRate = fxRate;
+      this.baseDiscountFactors = baseDiscountFactors;
+      this.counterDiscountFactors = counterDiscountFactors;
+      this.volatilities = volatilities;
+      this.hashCode = Objects.hash(
+          currencyPair, timeToExpiry, fxRate, baseDiscountFactors, counterDiscountFactors, volatilities);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (obj instanceof TreeKey) {
+        TreeKey other = (TreeKey) obj;
+        return hashCode == other.hashCode &&
+            currencyPair.equals(other.currencyPair) &&
+            Double.compare(timeToExpiry, other.timeToExpiry) == 0 &&
+            Double.compare(fxRate, other.fxRate) == 0 &&
+            baseDiscountFactors.equals(other.baseDiscountFactors) &&
+            counterDiscountFactors.equals(other.counterDiscountFactors) &&
+            volatilities.equals(other.volatilities);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import java.util.Arrays;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.product.common.PutCall;
+
+/**
+ * The payoff of an arithmetic average price option, paid at the last time of the path.
+ * <p>
+ * The average is the arithmetic mean of the values at every time of the path,
+ * thus the times of the path generator are the fixing times of the option.
+ */
+public final class AsianOptionPathPayoff
+    implements PathPayoff {
+
+  /**
+   * The strike.
+   */
+  private final double strike;
+  /**
+   * Whether the option is a call.
+   */
+  private final boolean isCall;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   *
+   * @param strike  the strike
+   * @param putCall  whether the option is a put or call
+   * @return the payoff
+   */
+  public static AsianOptionPathPayoff of(double strike, PutCall putCall) {
+    ArgChecker.notNull(putCall, "putCall");
+    return new AsianOptionPathPayoff(strike, putCall.isCall());
+  }
+
+  // restricted constructor
+  private AsianOptionPathPayoff(double strike, boolean isCall) {
+    this.strike = strike;
+    this.isCall = isCall;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public double presentValue(double[] values, double[] discountFactors) {
+    double intrinsic = intrinsic(values);
+    return intrinsic > 0d ? discountFactors[values.length - 1] * intrinsic : 0d;
+  }
+
+  @Override
+  public boolean isAdjointSupported() {
+    return true;
+  }
+
+  @Override
+  public double presentValueAdjoint(double[] values, double[] discountFactors, double[] valuesBar) {
+    double intrinsic = intrinsic(values);
+    if (intrinsic <= 0d) {
+      Arrays.fill(valuesBar, 0d);
+      return 0d;
+    }
+    double discountFactor = discountFactors[values.length - 1];
+    Arrays.fill(valuesBar, (isCall ? discountFactor : -discountFactor) / values.length);
+    return discountFactor * intrinsic;
+  }
+
+  // the intrinsic value of the average
+  private double intrinsic(double[] values) {
+    double sum = 0d;
+    for (double value : values) {
+      sum += value;
+    }
+    double average = sum / values.length;
+    return isCall ? average - strike : strike - average;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "AsianOptionPathPayoff[strike=" + strike + ", " + (isCall ? "call" : "put") + "]";
+  }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import java.util.function.Function;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Path generator for the Black-Scholes model with deterministic rates.
+ * <p>
+ * The underlying follows a geometric Brownian motion with constant volatility.
+ * The drift is given by the interest rate less the dividend rate, which for an FX rate is the
+ * foreign interest rate. Each step is exact, thus no discretization error arises however far apart the times are.
+ * <p>
+ * The interest rate and dividend rate must be zero-coupon continuously compounded rates,
+ * as functions from year fraction to zero rate, matching {@code LocalVolatilityCalculator}.
+ */
+public final class BlackPathGenerator
+    implements PathGenerator {
+
+  /**
+   * The times.
+   */
+  private final DoubleArray times;
+  /**
+   * The spot.
+   */
+  private final double spot;
+  /**
+   * The deterministic part of the log-return of each step.
+   */
+  private final double[] drifts;
+  /**
+   * The standard deviation of the log-return of each step.
+   */
+  private final double[] stdDevs;
+  /**
+   * The discount factor at each time.
+   */
+  private final double[] discountFactors;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   *
+   * @param times  the times, strictly positive and strictly increasing
+   * @param spot  the spot
+   * @param volatility  the volatility
+   * @param interestRate  the interest rate
+   * @param dividendRate  the dividend rate
+   * @return the path generator
+   */
+  public static BlackPathGenerator of(
+      DoubleArray times,
+      double spot,
+      double volatility,
+      Function<Double, Double> interestRate,
+      Function<Double, Double> dividendRate) {
+
+    ArgChecker.notNegativeOrZero(spot, "spot");
+    ArgChecker.notNegative(volatility, "volatility");
+    ArgChecker.notNull(interestRate, "interestRate");
+    ArgChecker.notNull(dividendRate, "dividendRate");
+    validateTimes(times);
+    return new BlackPathGenerator(times, spot, volatility, interestRate, dividendRate);
+  }
+
+  // restricted constructor
+  private BlackPathGenerator(
+      DoubleArray times,
+      double spot,
+      double volatility,
+      Function<Double, Double> interestRate,
+      Function<Double, Double> dividendRate) {
+
+    int size = times.size();
+    this.times = times;
+    this.spot = spot;
+    this.drifts = new double[size];
+    this.stdDevs = new double[size];
+    this.discountFactors = new double[size];
+    double previousTime = 0d;
+    double previousRateTime = 0d;
+    double previousDividendTime = 0d;
+    for (int i = 0; i < size; i++) {
+      double time = times.get(i);
+      double dt = time - previousTime;
+      double rateTime = interestRate.apply(time) * time;
+      double dividendTime = dividendRate.apply(time) * time;
+      drifts[i] = (rateTime - previousRateTime) - (dividendTime - previousDividendTime) - 0.5 * volatility * volatility * dt;
+      stdDevs[i] = volatility * Math.sqrt(dt);
+      discountFactors[i] = Math.exp(-rateTime);
+      previousTime = time;
+      previousRateTime = rateTime;
+      previousDividendTime = dividendTime;
+    }
+  }
+
+  // checks the times are strictly positive and strictly increasing
+  static void validateTimes(DoubleArray times) {
+    ArgChecker.notNull(times, "times");
+    ArgChecker.isTrue(times.size() > 0, "Times must not be empty");
+    ArgChecker.isTrue(times.get(0) > 0, "Times must be strictly positive");
+    for (int i = 1; i < times.size(); i++) {
+      ArgChecker.isTrue(times.get(i) > times.get(i - 1), "Times must be strictly increasing");
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public DoubleArray getTimes() {
+    return times;
+  }
+
+  @Override
+  public boolean isTangentSupported() {
+    return true;
+  }
+
+  @Override
+  public void generatePath(double[] normals, int offset, double[] values, double[] discountFactors, double[] tangents) {
+    double logValue = 0d;
+    for (int i = 0; i < drifts.length; i++) {
+      logValue += drifts[i] + stdDevs[i] * normals[offset + i];
+      double ratio = Math.exp(logValue);
+      values[i] = spot * ratio;
+      if (tangents != null) {
+        tangents[i] = ratio;
+      }
+    }
+    System.arraycopy(this.discountFactors, 0, discountFactors, 0, drifts.length);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "BlackPathGenerator[spot=" + spot + ", steps=" + times.size() + "]";
+  }
+
+}
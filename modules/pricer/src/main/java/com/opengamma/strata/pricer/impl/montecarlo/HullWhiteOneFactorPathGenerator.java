@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import java.util.function.Function;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParameters;
+
+/**
+ * Path generator for the Hull-White one-factor model with piecewise constant volatility.
+ * <p>
+ * The short rate is the sum of a deterministic function of time, fitting the initial discount curve,
+ * and the state {@code x}, which follows an Ornstein-Uhlenbeck process starting at zero under the
+ * risk-neutral measure. The values of the path are the state at each time, with each step being exact.
+ * <p>
+ * The discount factors of the path are stochastic, being the exponential of minus the integral of the short rate.
+ * The integral of the state is approximated by the trapezium rule, and the deterministic part is calibrated to the
+ * variance of that approximation, such that the expected discount factor at each time equals that of the
+ * initial curve exactly, whatever the spacing of the times.
+ * <p>
+ * The interest rate must be a zero-coupon continuously compounded rate, as a function from year fraction to zero rate.
+ */
+public final class HullWhiteOneFactorPathGenerator
+    implements PathGenerator {
+
+  /**
+   * The mean reversion below which it is treated as zero.
+   */
+  private static final double SMALL_MEAN_REVERSION = 1e-10;
+
+  /**
+   * The times.
+   */
+  private final DoubleArray times;
+  /**
+   * The decay of the state over each step.
+   */
+  private final double[] decays;
+  /**
+   * The standard deviation of the change in the state over each step.
+   */
+  private final double[] stdDevs;
+  /**
+   * The length of each step.
+   */
+  private final double[] steps;
+  /**
+   * The deterministic discount factor at each time, including the convexity adjustment.
+   */
+  private final double[] adjustedDiscountFactors;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   *
+   * @param times  the times, strictly positive and strictly increasing
+   * @param parameters  the Hull-White model parameters
+   * @param interestRate  the interest rate of the initial discount curve
+   * @return the path generator
+   */
+  public static HullWhiteOneFactorPathGenerator of(
+      DoubleArray times,
+      HullWhiteOneFactorPiecewiseConstantParameters parameters,
+      Function<Double, Double> interestRate) {
+
+    ArgChecker.notNull(parameters, "parameters");
+    ArgChecker.notNull(interestRate, "interestRate");
+    BlackPathGenerator.validateTimes(times);
+    return new HullWhiteOneFactorPathGenerator(times, parameters, interestRate);
+  }
+
+  // restricted constructor
+  private HullWhiteOneFactorPathGenerator(
+      DoubleArray times,
+      HullWhiteOneFactorPiecewiseConstantParameters parameters,
+      Function<Double, Double> interestRate) {
+
+    int size = times.size();
+    double meanReversion = parameters.getMeanReversion();
+    this.times = times;
+    this.decays = new double[size];
+    this.stdDevs = new double[size];
+    this.steps = new double[size];
+    this.adjustedDiscountFactors = new double[size];
+    // variance of the state, covariance of the state and integral, variance of the integral
+    double varianceState = 0d;
+    double covariance = 0d;
+    double varianceIntegral = 0d;
+    double previousTime = 0d;
+    for (int i = 0; i < size; i++) {
+      double time = times.get(i);
+      double dt = time - previousTime;
+      double decay = Math.exp(-meanReversion * dt);
+      double stepVariance = stepVariance(parameters, previousTime, time);
+      double half = 0.5 * dt;
+      varianceIntegral += half * half * ((1d + decay) * (1d + decay) * varianceState + stepVariance) +
+          dt * (1d + decay) * covariance;
+      covariance = decay * covariance + half * (decay * (1d + decay) * varianceState + stepVariance);
+      varianceState = decay * decay * varianceState + stepVariance;
+      decays[i] = decay;
+      stdDevs[i] = Math.sqrt(stepVariance);
+      steps[i] = dt;
+      adjustedDiscountFactors[i] = Math.exp(-interestRate.apply(time) * time - 0.5 * varianceIntegral);
+      previousTime = time;
+    }
+  }
+
+  // the variance of the state at the end time, given the state at the start time
+  private static double stepVariance(HullWhiteOneFactorPiecewiseConstantParameters parameters, double start, double end) {
+    double meanReversion = parameters.getMeanReversion();
+    DoubleArray volatilityTimes = parameters.getVolatilityTime();
+    DoubleArray volatilities = parameters.getVolatility();
+    double variance = 0d;
+    for (int j = 0; j < volatilities.size(); j++) {
+      double low = Math.max(start, volatilityTimes.get(j));
+      double high = Math.min(end, volatilityTimes.get(j + 1));
+      if (high > low) {
+        double volatility = volatilities.get(j);
+        double integral = Math.abs(meanReversion) < SMALL_MEAN_REVERSION ?
+            high - low :
+            (Math.exp(-2d * meanReversion * (end - high)) - Math.exp(-2d * meanReversion * (end - low))) /
+                (2d * meanReversion);
+        variance += volatility * volatility * integral;
+      }
+    }
+    return variance;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public DoubleArray getTimes() {
+    return times;
+  }
+
+  @Override
+  public boolean isTangentSupported() {
+    return false;
+  }
+
+  @Override
+  public void generatePath(double[] normals, int offset, double[] values, double[] discountFactors, double[] tangents) {
+    if (tangents != null) {
+      throw new UnsupportedOperationException("Hull-White path generator does not support tangents");
+    }
+    double state = 0d;
+    double integral = 0d;
+    for (int i = 0; i < decays.length; i++) {
+      double next = decays[i] * state + stdDevs[i] * normals[offset + i];
+      integral += 0.5 * steps[i] * (state + next);
+      state = next;
+      values[i] = state;
+      discountFactors[i] = adjustedDiscountFactors[i] * Math.exp(-integral);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "HullWhiteOneFactorPathGenerator[steps=" + times.size() + "]";
+  }
+
+}
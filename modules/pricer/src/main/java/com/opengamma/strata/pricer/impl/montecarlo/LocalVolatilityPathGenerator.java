@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import java.util.function.Function;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.surface.Surface;
+
+/**
+ * Path generator for a local volatility model with deterministic rates.
+ * <p>
+ * The underlying follows a diffusion whose volatility depends on the time and the level of the underlying,
+ * typically the surface produced by {@code DupireLocalVolatilityCalculator}, spanned by time and strike.
+ * The log of the underlying is stepped using the Euler scheme, thus the times should be sufficiently close.
+ * <p>
+ * Evaluating the local volatility surface is relatively expensive. The surface is therefore sampled once,
+ * at the middle of each step and on a grid of levels evenly spaced in log-moneyness, and is linearly interpolated
+ * in log-moneyness with flat extrapolation when generating paths.
+ * <p>
+ * The interest rate and dividend rate must be zero-coupon continuously compounded rates,
+ * as functions from year fraction to zero rate, matching {@code LocalVolatilityCalculator}.
+ */
+public final class LocalVolatilityPathGenerator
+    implements PathGenerator {
+
+  /**
+   * The default number of levels in the grid.
+   */
+  private static final int DEFAULT_GRID_SIZE = 201;
+  /**
+   * The default range of the grid, in log-moneyness either side of the spot.
+   */
+  private static final double DEFAULT_GRID_RANGE = 2.5d;
+
+  /**
+   * The times.
+   */
+  private final DoubleArray times;
+  /**
+   * The spot.
+   */
+  private final double spot;
+  /**
+   * The lowest log-moneyness of the grid.
+   */
+  private final double gridStart;
+  /**
+   * The spacing of the grid in log-moneyness.
+   */
+  private final double gridSpacing;
+  /**
+   * The sampled local volatility, by step and level.
+   */
+  private final double[][] volatilities;
+  /**
+   * The deterministic drift of the log-return of each step, excluding the volatility term.
+   */
+  private final double[] drifts;
+  /**
+   * The length of each step.
+   */
+  private final double[] steps;
+  /**
+   * The discount factor at each time.
+   */
+  private final double[] discountFactors;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance with a default grid.
+   * <p>
+   * The grid has 201 levels from 2.5 below to 2.5 above the log of the spot.
+   *
+   * @param times  the times, strictly positive and strictly increasing
+   * @param spot  the spot
+   * @param localVolatility  the local volatility surface, spanned by time and level of the underlying
+   * @param interestRate  the interest rate
+   * @param dividendRate  the dividend rate
+   * @return the path generator
+   */
+  public static LocalVolatilityPathGenerator of(
+      DoubleArray times,
+      double spot,
+      Surface localVolatility,
+      Function<Double, Double> interestRate,
+      Function<Double, Double> dividendRate) {
+
+    return of(times, spot, localVolatility, interestRate, dividendRate, DEFAULT_GRID_SIZE, DEFAULT_GRID_RANGE);
+  }
+
+  /**
+   * Obtains an instance with the specified grid.
+   *
+   * @param times  the times, strictly positive and strictly increasing
+   * @param spot  the spot
+   * @param localVolatility  the local volatility surface, spanned by time and level of the underlying
+   * @param interestRate  the interest rate
+   * @param dividendRate  the dividend rate
+   * @param gridSize  the number of levels in the grid
+   * @param gridRange  the range of the grid, in log-moneyness either side of the spot
+   * @return the path generator
+   */
+  public static LocalVolatilityPathGenerator of(
+      DoubleArray times,
+      double spot,
+      Surface localVolatility,
+      Function<Double, Double> interestRate,
+      Function<Double, Double> dividendRate,
+      int gridSize,
+      double gridRange) {
+
+    ArgChecker.notNegativeOrZero(spot, "spot");
+    ArgChecker.notNull(localVolatility, "localVolatility");
+    ArgChecker.notNull(interestRate, "interestRate");
+    ArgChecker.notNull(dividendRate, "dividendRate");
+    ArgChecker.isTrue(gridSize >= 2, "Grid size must be at least 2");
+    ArgChecker.notNegativeOrZero(gridRange, "gridRange");
+    BlackPathGenerator.validateTimes(times);
+    return new LocalVolatilityPathGenerator(
+        times, spot, localVolatility, interestRate, dividendRate, gridSize, gridRange);
+  }
+
+  // restricted constructor
+  private LocalVolatilityPathGenerator(
+      DoubleArray times,
+      double spot,
+      Surface localVolatility,
+      Function<Double, Double> interestRate,
+      Function<Double, Double> dividendRate,
+      int gridSize,
+      double gridRange) {
+
+    int size = times.size();
+    this.times = times;
+    this.spot = spot;
+    this.gridStart = -gridRange;
+    this.gridSpacing = 2d * gridRange / (gridSize - 1);
+    this.volatilities = new double[size][gridSize];
+    this.drifts = new double[size];
+    this.steps = new double[size];
+    this.discountFactors = new double[size];
+    double previousTime = 0d;
+    double previousRateTime = 0d;
+    double previousDividendTime = 0d;
+    for (int i = 0; i < size; i++) {
+      double time = times.get(i);
+      double rateTime = interestRate.apply(time) * time;
+      double dividendTime = dividendRate.apply(time) * time;
+      drifts[i] = (rateTime - previousRateTime) - (dividendTime - previousDividendTime);
+      steps[i] = time - previousTime;
+      discountFactors[i] = Math.exp(-rateTime);
+      double middleTime = 0.5 * (previousTime + time);
+      for (int j = 0; j < gridSize; j++) {
+        volatilities[i][j] = localVolatility.zValue(middleTime, spot * Math.exp(gridStart + j * gridSpacing));
+      }
+      previousTime = time;
+      previousRateTime = rateTime;
+      previousDividendTime = dividendTime;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public DoubleArray getTimes() {
+    return times;
+  }
+
+  @Override
+  public boolean isTangentSupported() {
+    return true;
+  }
+
+  @Override
+  public void generatePath(double[] normals, int offset, double[] values, double[] discountFactors, double[] tangents) {
+    int gridSize = volatilities[0].length;
+    double logMoneyness = 0d;
+    // the derivative of the log-moneyness with respect to the log of the spot
+    double logTangent = 1d;
+    for (int i = 0; i < drifts.length; i++) {
+      double position = (logMoneyness - gridStart) / gridSpacing;
+      double volatility;
+      double volatilityDerivative;
+      if (position <= 0d) {
+        volatility = volatilities[i][0];
+        volatilityDerivative = 0d;
+      } else if (position >= gridSize - 1) {
+        volatility = volatilities[i][gridSize - 1];
+        volatilityDerivative = 0d;
+      } else {
+        int index = (int) position;
+        double weight = position - index;
+        volatility = volatilities[i][index] * (1d - weight) + volatilities[i][index + 1] * weight;
+        volatilityDerivative = (volatilities[i][index + 1] - volatilities[i][index]) / gridSpacing;
+      }
+      double dt = steps[i];
+      double sqrtDt = Math.sqrt(dt);
+      double normal = normals[offset + i];
+      logTangent *= 1d + volatilityDerivative * (sqrtDt * normal - volatility * dt);
+      logMoneyness += drifts[i] - 0.5 * volatility * volatility * dt + volatility * sqrtDt * normal;
+      double ratio = Math.exp(logMoneyness);
+      values[i] = spot * ratio;
+      if (tangents != null) {
+        tangents[i] = ratio * logTangent;
+      }
+    }
+    System.arraycopy(this.discountFactors, 0, discountFactors, 0, drifts.length);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "LocalVolatilityPathGenerator[spot=" + spot + ", steps=" + times.size() + "]";
+  }
+
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import java.util.stream.IntStream;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.math.impl.random.BrownianBridge;
+import com.opengamma.strata.math.impl.random.SobolSequenceGenerator;
+import com.opengamma.strata.math.impl.random.SplittableNormalRandomNumberGenerator;
+
+/**
+ * Monte Carlo engine, pricing a path-dependent payoff by simulation of a one-factor model.
+ * <p>
+ * The paths are split into blocks of fixed size. Each block has its own stream of normal numbers,
+ * obtained by jumping ahead in the pseudo-random sequence, or skipping ahead in the Sobol sequence.
+ * The blocks may be simulated in parallel, but the block results are always combined in order,
+ * thus the result depends only on the seed and number of paths, not on the number of threads.
+ * <p>
+ * When using the Sobol sequence, the paths are constructed using a {@link BrownianBridge}.
+ * If the path has more times than {@link SobolSequenceGenerator#MAX_DIMENSION}, the remaining dimensions
+ * are padded with pseudo-random numbers, which the bridge uses for the smallest scale movements of the path.
+ * <p>
+ * The delta is calculated pathwise: the payoff derivative with respect to the values of the path,
+ * from {@link PathPayoff#presentValueAdjoint(double[], double[], double[])}, is multiplied by the derivative
+ * of the values with respect to the initial value, from the tangents of the {@link PathGenerator}.
+ * This is unbiased for payoffs that are continuous in the path, such as vanilla and Asian options.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class MonteCarloEngine {
+
+  /**
+   * The number of paths in each block.
+   */
+  private static final int BLOCK_SIZE = 1024;
+
+  /**
+   * The number of paths.
+   */
+  private final int pathCount;
+  /**
+   * The seed of the pseudo-random numbers, only used to pad the Sobol sequence.
+   */
+  private final long seed;
+  /**
+   * Whether to use the Sobol sequence rather than pseudo-random numbers.
+   */
+  private final boolean sobol;
+  /**
+   * Whether to simulate blocks in parallel.
+   */
+  private final boolean parallel;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an engine using pseudo-random numbers.
+   * <p>
+   * The blocks of paths are simulated in parallel.
+   *
+   * @param pathCount  the number of paths, at least two
+   * @param seed  the seed
+   * @return the engine
+   */
+  public static MonteCarloEngine ofPseudoRandom(int pathCount, long seed) {
+    ArgChecker.isTrue(pathCount > 1, "Path count must be at least two");
+    return new MonteCarloEngine(pathCount, seed, false, true);
+  }
+
+  /**
+   * Obtains an engine using the Sobol low-discrepancy sequence.
+   * <p>
+   * The blocks of paths are simulated in parallel.
+   *
+   * @param pathCount  the number of paths, at least two
+   * @return the engine
+   */
+  public static MonteCarloEngine ofSobol(int pathCount) {
+    ArgChecker.isTrue(pathCount > 1, "Path count must be at least two");
+    return new MonteCarloEngine(pathCount, 0L, true, true);
+  }
+
+  // restricted constructor
+  private MonteCarloEngine(int pathCount, long seed, boolean sobol, boolean parallel) {
+    this.pathCount = pathCount;
+    this.seed = seed;
+    this.sobol = sobol;
+    this.parallel = parallel;
+  }
+
+  /**
+   * Returns a copy of this engine that simulates in parallel, or not.
+   * <p>
+   * The result is the same either way.
+   *
+   * @param parallel  whether to simulate blocks of paths in parallel
+   * @return the engine
+   */
+  public MonteCarloEngine withParallel(boolean parallel) {
+    return new MonteCarloEngine(pathCount, seed, sobol, parallel);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of paths.
+   *
+   * @return the number of paths
+   */
+  public int getPathCount() {
+    return pathCount;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the present value of the payoff.
+   *
+   * @param generator  the path generator
+   * @param payoff  the payoff
+   * @return the result
+   */
+  public MonteCarloResult presentValue(PathGenerator generator, PathPayoff payoff) {
+    Moments moments = simulate(generator, payoff, false);
+    return MonteCarloResult.of(moments.mean(0), moments.standardError(0), pathCount);
+  }
+
+  /**
+   * Calculates the present value of the payoff and the pathwise delta.
+   * <p>
+   * The delta is the derivative of the present value with respect to the initial value of the path generator.
+   *
+   * @param generator  the path generator, which must support tangents
+   * @param payoff  the payoff, which must support the adjoint
+   * @return the result
+   */
+  public MonteCarloResult presentValueWithDelta(PathGenerator generator, PathPayoff payoff) {
+    ArgChecker.isTrue(generator.isTangentSupported(), "Path generator does not support tangents: {}", generator);
+    ArgChecker.isTrue(payoff.isAdjointSupported(), "Path payoff does not support the adjoint: {}", payoff);
+    Moments moments = simulate(generator, payoff, true);
+    return MonteCarloResult.of(
+        moments.mean(0), moments.standardError(0), moments.mean(1), moments.standardError(1), pathCount);
+  }
+
+  //-------------------------------------------------------------------------
+  // simulates all blocks and combines the results in block order
+  private Moments simulate(PathGenerator generator, PathPayoff payoff, boolean withDelta) {
+    ArgChecker.notNull(generator, "generator");
+    ArgChecker.notNull(payoff, "payoff");
+    DoubleArray times = generator.getTimes();
+    BrownianBridge bridge = sobol ? BrownianBridge.of(times) : null;
+    int blockCount = (pathCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    IntStream blocks = IntStream.range(0, blockCount);
+    Moments[] blockMoments = (parallel ? blocks.parallel() : blocks)
+        .mapToObj(block -> simulateBlock(generator, payoff, bridge, block, withDelta))
+        .toArray(Moments[]::new);
+    Moments total = new Moments();
+    for (Moments moments : blockMoments) {
+      total.add(moments);
+    }
+    return total;
+  }
+
+  // simulates a single block of paths
+  private Moments simulateBlock(
+      PathGenerator generator,
+      PathPayoff payoff,
+      BrownianBridge bridge,
+      int block,
+      boolean withDelta) {
+
+    int size = generator.getTimes().size();
+    int start = block * BLOCK_SIZE;
+    int count = Math.min(BLOCK_SIZE, pathCount - start);
+    double[] normals = new double[count * size];
+    if (sobol) {
+      sobolNormals(normals, size, start, count);
+      bridgeIncrements(bridge, normals, size);
+    } else {
+      SplittableNormalRandomNumberGenerator.of(seed).jump((long) start * size).fill(normals);
+    }
+    double[] values = new double[size];
+    double[] discountFactors = new double[size];
+    double[] tangents = withDelta ? new double[size] : null;
+    double[] valuesBar = withDelta ? new double[size] : null;
+    Moments moments = new Moments();
+    for (int path = 0; path < count; path++) {
+      generator.generatePath(normals, path * size, values, discountFactors, tangents);
+      if (withDelta) {
+        double pv = payoff.presentValueAdjoint(values, discountFactors, valuesBar);
+        double delta = 0d;
+        for (int i = 0; i < size; i++) {
+          delta += valuesBar[i] * tangents[i];
+        }
+        moments.add(pv, delta);
+      } else {
+        moments.add(payoff.presentValue(values, discountFactors), 0d);
+      }
+    }
+    return moments;
+  }
+
+  // fills the normals of each path from the Sobol sequence, padding with pseudo-random numbers if necessary
+  private void sobolNormals(double[] normals, int size, int start, int count) {
+    int sobolSize = Math.min(size, SobolSequenceGenerator.MAX_DIMENSION);
+    if (sobolSize == size) {
+      SobolSequenceGenerator.ofNormal(size).skip(start).fill(normals);
+      return;
+    }
+    int padSize = size - sobolSize;
+    double[] sobolPart = new double[count * sobolSize];
+    double[] padPart = new double[count * padSize];
+    SobolSequenceGenerator.ofNormal(sobolSize).skip(start).fill(sobolPart);
+    SplittableNormalRandomNumberGenerator.of(seed).jump((long) start * padSize).fill(padPart);
+    for (int path = 0; path < count; path++) {
+      System.arraycopy(sobolPart, path * sobolSize, normals, path * size, sobolSize);
+      System.arraycopy(padPart, path * padSize, normals, path * size + sobolSize, padSize);
+    }
+  }
+
+  // replaces each point of the Sobol sequence by the normalized increments of the Brownian bridge path
+  private static void bridgeIncrements(BrownianBridge bridge, double[] normals, int size) {
+    double[] times = bridge.getTimes().toArrayUnsafe();
+    double[] path = new double[size];
+    for (int offset = 0; offset < normals.length; offset += size) {
+      bridge.path(normals, offset, path);
+      double previousTime = 0d;
+      double previousValue = 0d;
+      for (int i = 0; i < size; i++) {
+        normals[offset + i] = (path[i] - previousValue) / Math.sqrt(times[i] - previousTime);
+        previousTime = times[i];
+        previousValue = path[i];
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "MonteCarloEngine[pathCount=" + pathCount + ", " + (sobol ? "sobol" : "seed=" + seed) + "]";
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The means of the present value and delta, and the sums of squared deviations from the means.
+   * <p>
+   * The moments are accumulated using the method of Welford, and combined using the method of Chan et al.
+   * This avoids the cancellation of the sum of squares less the squared mean when the mean is large
+   * relative to the spread.
+   */
+  private static final class Moments {
+    private long count;
+    private final double[] means = new double[2];
+    private final double[] squaredDeviations = new double[2];
+
+    // adds the values of a path
+    private void add(double presentValue, double delta) {
+      count++;
+      add(0, presentValue);
+      add(1, delta);
+    }
+
+    // adds a single value
+    private void add(int index, double value) {
+      double deviation = value - means[index];
+      means[index] += deviation / count;
+      squaredDeviations[index] += deviation * (value - means[index]);
+    }
+
+    // adds the moments of another block
+    private void add(Moments other) {
+      if (other.count == 0) {
+        return;
+      }
+      long total = count + other.count;
+      for (int i = 0; i < 2; i++) {
+        double deviation = other.means[i] - means[i];
+        means[i] += deviation * other.count / total;
+        squaredDeviations[i] += other.squaredDeviations[i] + deviation * deviation * count * other.count / total;
+      }
+      count = total;
+    }
+
+    // the mean
+    private double mean(int index) {
+      return means[index];
+    }
+
+    // the standard error of the mean
+    private double standardError(int index) {
+      return Math.sqrt(squaredDeviations[index] / (count - 1) / count);
+    }
+  }
+
+}
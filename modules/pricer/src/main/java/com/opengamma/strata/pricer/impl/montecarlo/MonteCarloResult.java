@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import java.util.OptionalDouble;
+
+/**
+ * The result of a Monte Carlo simulation.
+ * <p>
+ * The standard error is the sample standard deviation of the path values divided by the square root
+ * of the number of paths. When the paths are generated from a low-discrepancy sequence, the actual error
+ * is typically much smaller than the standard error.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class MonteCarloResult {
+
+  /**
+   * The present value.
+   */
+  private final double presentValue;
+  /**
+   * The standard error of the present value.
+   */
+  private final double standardError;
+  /**
+   * The pathwise delta, empty if not calculated.
+   */
+  private final OptionalDouble delta;
+  /**
+   * The standard error of the pathwise delta, empty if not calculated.
+   */
+  private final OptionalDouble deltaStandardError;
+  /**
+   * The number of paths.
+   */
+  private final int pathCount;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance without delta.
+   *
+   * @param presentValue  the present value
+   * @param standardError  the standard error of the present value
+   * @param pathCount  the number of paths
+   * @return the result
+   */
+  public static MonteCarloResult of(double presentValue, double standardError, int pathCount) {
+    return new MonteCarloResult(presentValue, standardError, OptionalDouble.empty(), OptionalDouble.empty(), pathCount);
+  }
+
+  /**
+   * Obtains an instance with delta.
+   *
+   * @param presentValue  the present value
+   * @param standardError  the standard error of the present value
+   * @param delta  the pathwise delta
+   * @param deltaStandardError  the standard error of the pathwise delta
+   * @param pathCount  the number of paths
+   * @return the result
+   */
+  public static MonteCarloResult of(
+      double presentValue,
+      double standardError,
+      double delta,
+      double deltaStandardError,
+      int pathCount) {
+
+    return new MonteCarloResult(
+        presentValue, standardError, OptionalDouble.of(delta), OptionalDouble.of(deltaStandardError), pathCount);
+  }
+
+  // restricted constructor
+  private MonteCarloResult(
+      double presentValue,
+      double standardError,
+      OptionalDouble delta,
+      OptionalDouble deltaStandardError,
+      int pathCount) {
+
+    this.presentValue = presentValue;
+    this.standardError = standardError;
+    this.delta = delta;
+    this.deltaStandardError = deltaStandardError;
+    this.pathCount = pathCount;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the present value, the mean of the path values.
+   *
+   * @return the present value
+   */
+  public double getPresentValue() {
+    return presentValue;
+  }
+
+  /**
+   * Gets the standard error of the present value.
+   *
+   * @return the standard error
+   */
+  public double getStandardError() {
+    return standardError;
+  }
+
+  /**
+   * Gets the pathwise delta, the derivative of the present value with respect to the initial value.
+   *
+   * @return the delta, empty if not calculated
+   */
+  public OptionalDouble getDelta() {
+    return delta;
+  }
+
+  /**
+   * Gets the standard error of the pathwise delta.
+   *
+   * @return the standard error of the delta, empty if not calculated
+   */
+  public OptionalDouble getDeltaStandardError() {
+    return deltaStandardError;
+  }
+
+  /**
+   * Gets the number of paths.
+   *
+   * @return the number of paths
+   */
+  public int getPathCount() {
+    return pathCount;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "MonteCarloResult[presentValue=" + presentValue + ", standardError=" + standardError +
+        (delta.isPresent() ? ", delta=" + delta.getAsDouble() : "") + ", pathCount=" + pathCount + "]";
+  }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Generator of the paths of a one-factor model for Monte Carlo simulation.
+ * <p>
+ * Each path is driven by one independent standard normal number per time, being the normalized
+ * increment of the Brownian motion from the previous time. The path consists of the value of the model state
+ * at each time, typically the underlying price, and the discount factor from each time to the valuation date.
+ * <p>
+ * The discount factors of a path may be stochastic, such as for an interest rate model, in which case
+ * the present value of a cash flow is the expectation of the cash flow multiplied by the discount factor.
+ * <p>
+ * Implementations must be immutable and thread-safe, as paths are generated by several threads at once.
+ */
+public interface PathGenerator {
+
+  /**
+   * Gets the times of the path, as year fractions from the valuation date.
+   * <p>
+   * The times are strictly positive and strictly increasing.
+   *
+   * @return the times
+   */
+  public abstract DoubleArray getTimes();
+
+  /**
+   * Checks if the derivatives of the path with respect to the initial value are available.
+   * <p>
+   * If true, tangents may be requested from {@link #generatePath(double[], int, double[], double[], double[])}.
+   *
+   * @return true if the tangents are available
+   */
+  public abstract boolean isTangentSupported();
+
+  /**
+   * Generates a path.
+   * <p>
+   * The normal numbers are read from the offset, one per time.
+   * The arrays to populate each have one element per time, and are reused from path to path.
+   * The tangents are the derivatives of the values with respect to the initial value,
+   * such as the spot, used to calculate pathwise Greeks.
+   *
+   * @param normals  the standard normal numbers
+   * @param offset  the index of the first normal number to use
+   * @param values  the array to populate with the value of the state at each time
+   * @param discountFactors  the array to populate with the discount factor at each time
+   * @param tangents  the array to populate with the tangent at each time, null if not required
+   * @throws UnsupportedOperationException if tangents are requested but not supported
+   */
+  public abstract void generatePath(
+      double[] normals,
+      int offset,
+      double[] values,
+      double[] discountFactors,
+      double[] tangents);
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+/**
+ * The payoff of a product, valued along a single path of a Monte Carlo simulation.
+ * <p>
+ * The path is generated by a {@link PathGenerator}, with the value of the model state and the discount factor
+ * at each time. The payoff returns the present value of the path, thus cash flows are multiplied by the discount
+ * factor of the time at which they are paid.
+ * <p>
+ * Implementations must be immutable and thread-safe.
+ */
+public interface PathPayoff {
+
+  /**
+   * Calculates the present value of the path.
+   *
+   * @param values  the value of the state at each time
+   * @param discountFactors  the discount factor at each time
+   * @return the present value
+   */
+  public abstract double presentValue(double[] values, double[] discountFactors);
+
+  /**
+   * Checks if the derivatives of the present value with respect to the values are available.
+   * <p>
+   * If true, {@link #presentValueAdjoint(double[], double[], double[])} is implemented.
+   * A payoff that is discontinuous in the values, such as a barrier option, should return false,
+   * as the pathwise Greeks would exclude the discontinuity and thus be biased.
+   * <p>
+   * The default implementation returns false.
+   *
+   * @return true if the derivatives are available
+   */
+  public default boolean isAdjointSupported() {
+    return false;
+  }
+
+  /**
+   * Calculates the present value of the path and its derivatives with respect to the values.
+   * <p>
+   * The derivatives are written to {@code valuesBar}, which is used by the engine to calculate pathwise Greeks.
+   * <p>
+   * This is only invoked if {@link #isAdjointSupported()} returns true.
+   * The default implementation throws {@code UnsupportedOperationException}.
+   *
+   * @param values  the value of the state at each time
+   * @param discountFactors  the discount factor at each time
+   * @param valuesBar  the array to populate with the derivative of the present value with respect to each value
+   * @return the present value
+   */
+  public default double presentValueAdjoint(double[] values, double[] discountFactors, double[] valuesBar) {
+    throw new UnsupportedOperationException("Pathwise derivatives not available for " + getClass().getSimpleName());
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.product.common.PutCall;
+import com.opengamma.strata.product.option.SimpleConstantContinuousBarrier;
+
+/**
+ * The payoff of a single barrier European option, paid at the last time of the path.
+ * <p>
+ * The barrier is monitored at every time of the path. A continuously monitored barrier is approximated
+ * by using many times. Alternatively, the barrier level may be shifted towards the spot by the factor
+ * {@code exp(0.5826 * volatility * sqrt(dt))}, as described by Broadie, Glasserman and Kou, to correct
+ * for the crossings missed between the times.
+ * <p>
+ * The payoff is discontinuous at the barrier, thus a pathwise derivative would be biased and the adjoint
+ * is not supported. The delta may instead be calculated by bumping the spot and repricing with the same
+ * random numbers.
+ */
+public final class SingleBarrierOptionPathPayoff
+    implements PathPayoff {
+
+  /**
+   * The strike.
+   */
+  private final double strike;
+  /**
+   * Whether the option is a call.
+   */
+  private final boolean isCall;
+  /**
+   * The barrier level.
+   */
+  private final double barrierLevel;
+  /**
+   * Whether the barrier is down, rather than up.
+   */
+  private final boolean isDown;
+  /**
+   * Whether the barrier is knock-in, rather than knock-out.
+   */
+  private final boolean isKnockIn;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   *
+   * @param strike  the strike
+   * @param putCall  whether the option is a put or call
+   * @param barrier  the barrier
+   * @return the payoff
+   */
+  public static SingleBarrierOptionPathPayoff of(double strike, PutCall putCall, SimpleConstantContinuousBarrier barrier) {
+    ArgChecker.notNull(putCall, "putCall");
+    ArgChecker.notNull(barrier, "barrier");
+    return new SingleBarrierOptionPathPayoff(strike, putCall.isCall(), barrier);
+  }
+
+  // restricted constructor
+  private SingleBarrierOptionPathPayoff(double strike, boolean isCall, SimpleConstantContinuousBarrier barrier) {
+    this.strike = strike;
+    this.isCall = isCall;
+    this.barrierLevel = barrier.getBarrierLevel();
+    this.isDown = barrier.getBarrierType().isDown();
+    this.isKnockIn = barrier.getKnockType().isKnockIn();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public double presentValue(double[] values, double[] discountFactors) {
+    int last = values.length - 1;
+    if (!isAlive(values)) {
+      return 0d;
+    }
+    return discountFactors[last] * Math.max(isCall ? values[last] - strike : strike - values[last], 0d);
+  }
+
+  // checks if the option is alive at expiry
+  private boolean isAlive(double[] values) {
+    boolean hit = false;
+    for (int i = 0; i < values.length && !hit; i++) {
+      hit = isDown ? values[i] <= barrierLevel : values[i] >= barrierLevel;
+    }
+    return hit == isKnockIn;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "SingleBarrierOptionPathPayoff[strike=" + strike + ", " + (isCall ? "call" : "put") +
+        ", barrier=" + barrierLevel + "]";
+  }
+
+}
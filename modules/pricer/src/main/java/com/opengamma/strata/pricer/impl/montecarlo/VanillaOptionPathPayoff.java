@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import java.util.Arrays;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.product.common.PutCall;
+
+/**
+ * The payoff of a European vanilla option, paid at the last time of the path.
+ * <p>
+ * The option is exercised on the value at the last time of the path.
+ */
+public final class VanillaOptionPathPayoff
+    implements PathPayoff {
+
+  /**
+   * The strike.
+   */
+  private final double strike;
+  /**
+   * Whether the option is a call.
+   */
+  private final boolean isCall;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   *
+   * @param strike  the strike
+   * @param putCall  whether the option is a put or call
+   * @return the payoff
+   */
+  public static VanillaOptionPathPayoff of(double strike, PutCall putCall) {
+    ArgChecker.notNull(putCall, "putCall");
+    return new VanillaOptionPathPayoff(strike, putCall.isCall());
+  }
+
+  // restricted constructor
+  private VanillaOptionPathPayoff(double strike, boolean isCall) {
+    this.strike = strike;
+    this.isCall = isCall;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public double presentValue(double[] values, double[] discountFactors) {
+    int last = values.length - 1;
+    return discountFactors[last] * Math.max(isCall ? values[last] - strike : strike - values[last], 0d);
+  }
+
+  @Override
+  public boolean isAdjointSupported() {
+    return true;
+  }
+
+  @Override
+  public double presentValueAdjoint(double[] values, double[] discountFactors, double[] valuesBar) {
+    int last = values.length - 1;
+    double intrinsic = isCall ? values[last] - strike : strike - values[last];
+    Arrays.fill(valuesBar, 0d);
+    if (intrinsic <= 0d) {
+      return 0d;
+    }
+    valuesBar[last] = isCall ? discountFactors[last] : -discountFactors[last];
+    return discountFactors[last] * intrinsic;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "VanillaOptionPathPayoff[strike=" + strike + ", " + (isCall ? "call" : "put") + "]";
+  }
+
+}
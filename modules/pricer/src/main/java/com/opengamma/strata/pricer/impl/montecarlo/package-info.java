@@ -0,0 +1,13 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+
+/**
+ * Monte Carlo simulation.
+ * <p>
+ * Path generators simulate the underlying model, payoffs value each path,
+ * and the engine averages the values over many paths in parallel.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
@@ -7,7 +7,11 @@ package com.opengamma.strata.pricer.impl.tree;
 
 import static com.opengamma.strata.math.MathUtils.pow2;
 
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.math.impl.differentiation.ActiveDouble;
 
 /**
  * Cox-Ross-Rubinstein lattice specification.
@@ -28,4 +32,24 @@ public final class CoxRossRubinsteinLatticeSpecification implements LatticeSpeci
     return DoubleArray.of(upFactor, 1d, downFactor, upProbability, middleProbability, downProbability);
   }
 
+  @Override
+  public boolean isAdjointSupported() {
+    return true;
+  }
+
+  @Override
+  public List<ActiveDouble> getParametersTrinomial(ActiveDouble volatility, ActiveDouble interestRate, double dt) {
+    ActiveDouble dx = volatility.multipliedBy(Math.sqrt(2d * dt));
+    ActiveDouble upFactor = dx.exp();
+    ActiveDouble downFactor = dx.negated().exp();
+    ActiveDouble factor1 = interestRate.multipliedBy(0.5 * dt).exp();
+    ActiveDouble factor2 = dx.multipliedBy(0.5).exp();
+    ActiveDouble factor3 = dx.multipliedBy(-0.5).exp();
+    ActiveDouble denominator = factor3.minus(factor2);
+    ActiveDouble upProbability = factor1.minus(factor3).dividedBy(denominator).pow(2d);
+    ActiveDouble downProbability = factor2.minus(factor1).dividedBy(denominator).pow(2d);
+    ActiveDouble middleProbability = upProbability.plus(downProbability).negated().plus(1d);
+    return ImmutableList.of(upFactor, ActiveDouble.ONE, downFactor, upProbability, middleProbability, downProbability);
+  }
+
 }
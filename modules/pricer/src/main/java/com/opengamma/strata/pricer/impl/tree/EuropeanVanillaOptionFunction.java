@@ -24,6 +24,8 @@ import org.joda.beans.impl.direct.DirectPrivateBeanBuilder;
 
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.math.impl.differentiation.ActiveDouble;
 import com.opengamma.strata.product.common.PutCall;
 
 /**
@@ -84,6 +86,63 @@ public final class EuropeanVanillaOptionFunction
     return DoubleArray.ofUnsafe(values);
   }
 
+  @Override
+  public void fillPayoffAtExpiryTrinomial(double[] stateValue, double[] values) {
+    int nNodes = 2 * numberOfSteps + 1;
+    for (int i = 0; i < nNodes; ++i) {
+      values[i] = Math.max(sign * (stateValue[i] - strike), 0d);
+    }
+  }
+
+  @Override
+  public boolean isAdjointSupported() {
+    return true;
+  }
+
+  @Override
+  public void fillPayoffAtExpiryTrinomial(ActiveDouble[] stateValue, ActiveDouble[] values) {
+    int nNodes = 2 * numberOfSteps + 1;
+    for (int i = 0; i < nNodes; ++i) {
+      values[i] = stateValue[i].minus(strike).multipliedBy(sign).max(0d);
+    }
+  }
+
+  @Override
+  public void updateOptionValues(
+      double discountFactor,
+      double upProbability,
+      double middleProbability,
+      double downProbability,
+      double[] stateValue,
+      double[] values,
+      double spot,
+      double downFactor,
+      double middleFactor,
+      int i) {
+
+    // node j only depends on nodes j, j+1 and j+2 of the next layer, thus can be overwritten in ascending order
+    int nNodes = 2 * i + 1;
+    for (int j = 0; j < nNodes; ++j) {
+      values[j] = discountFactor * (upProbability * values[j + 2] + middleProbability * values[j + 1] +
+          downProbability * values[j]);
+    }
+  }
+
+  @Override
+  public void updateOptionValues(
+      double discountFactor,
+      DoubleMatrix transitionProbability,
+      DoubleArray stateValue,
+      double[] values,
+      int i) {
+
+    int nNodes = 2 * i + 1;
+    for (int j = 0; j < nNodes; ++j) {
+      values[j] = discountFactor * (transitionProbability.get(j, 2) * values[j + 2] +
+          transitionProbability.get(j, 1) * values[j + 1] + transitionProbability.get(j, 0) * values[j]);
+    }
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   /**
    * The meta-bean for {@code EuropeanVanillaOptionFunction}.
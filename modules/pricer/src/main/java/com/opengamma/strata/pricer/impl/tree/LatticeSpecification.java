@@ -5,7 +5,10 @@
  */
 package com.opengamma.strata.pricer.impl.tree;
 
+import java.util.List;
+
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.math.impl.differentiation.ActiveDouble;
 
 /**
  * Lattice specification interface.
@@ -32,4 +35,40 @@ public interface LatticeSpecification {
    */
   public abstract DoubleArray getParametersTrinomial(double volatility, double interestRate, double dt);
 
+  /**
+   * Checks if algorithmic differentiation is supported.
+   * <p>
+   * If true, {@link #getParametersTrinomial(ActiveDouble, ActiveDouble, double)} records the exact operations.
+   * <p>
+   * The default implementation returns false.
+   * 
+   * @return true if algorithmic differentiation is supported
+   */
+  public default boolean isAdjointSupported() {
+    return false;
+  }
+
+  /**
+   * Computes parameters for uniform trinomial tree, recording the operations for algorithmic differentiation.
+   * <p>
+   * The parameters are represented in the same order as {@link #getParametersTrinomial(double, double, double)}.
+   * <p>
+   * This is only invoked if {@link #isAdjointSupported()} returns true.
+   * The default implementation throws an exception.
+   * 
+   * @param volatility  the volatility 
+   * @param interestRate  the interest rate
+   * @param dt  the time step
+   * @return the trinomial tree parameters
+   * @throws UnsupportedOperationException if algorithmic differentiation is not supported
+   */
+  public default List<ActiveDouble> getParametersTrinomial(
+      ActiveDouble volatility,
+      ActiveDouble interestRate,
+      double dt) {
+
+    throw new UnsupportedOperationException(
+        "Algorithmic differentiation is not supported by " + getClass().getSimpleName());
+  }
+
 }
@@ -9,6 +9,7 @@ import java.util.Arrays;
 
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.math.impl.differentiation.ActiveDouble;
 
 /**
  * Option function interface used in trinomial tree option pricing.
@@ -131,4 +132,187 @@ public interface OptionFunction {
         transitionProbability.get(j, 1) * value.get(j + 1) + transitionProbability.get(j, 0) * value.get(j)));
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Computes payoff at expiry for trinomial tree, writing the result into the specified array.
+   * <p>
+   * This is equivalent to {@link #getPayoffAtExpiryTrinomial(DoubleArray)}, but avoids allocation.
+   * The first {@code 2 * n + 1} elements of {@code stateValue} are used, where {@code n} is the number of steps,
+   * and the payoff values are written to the same elements of {@code values}.
+   * <p>
+   * The default implementation delegates to {@link #getPayoffAtExpiryTrinomial(DoubleArray)}.
+   * 
+   * @param stateValue  the state values, not altered
+   * @param values  the array to write the payoff values to
+   */
+  public default void fillPayoffAtExpiryTrinomial(double[] stateValue, double[] values) {
+    int nNodes = 2 * getNumberOfSteps() + 1;
+    DoubleArray payoff = getPayoffAtExpiryTrinomial(DoubleArray.ofUnsafe(Arrays.copyOf(stateValue, nNodes)));
+    System.arraycopy(payoff.toArrayUnsafe(), 0, values, 0, nNodes);
+  }
+
+  /**
+   * Computes the option values in the intermediate nodes, updating the specified array in place.
+   * <p>
+   * This is equivalent to
+   * {@link #getNextOptionValues(double, double, double, double, DoubleArray, double, double, double, int)},
+   * but avoids allocation. On input, the first (2*i+3) elements of {@code values} are the option values
+   * in the (i+1)-th layer. On output, the first (2*i+1) elements are the option values in the i-th layer.
+   * The state values in the i-th layer are the first (2*i+1) elements of {@code stateValue}.
+   * <p>
+   * The default implementation delegates to
+   * {@link #getNextOptionValues(double, double, double, double, DoubleArray, double, double, double, int)}.
+   * 
+   * @param discountFactor  the discount factor between the two layers
+   * @param upProbability  the up probability
+   * @param middleProbability  the middle probability
+   * @param downProbability  the down probability
+   * @param stateValue  the state values in the i-th layer, not altered
+   * @param values  the option values, updated in place
+   * @param spot  the spot
+   * @param downFactor  the down factor
+   * @param middleFactor  the middle factor
+   * @param i  the step number for which the next option values are computed
+   */
+  public default void updateOptionValues(
+      double discountFactor,
+      double upProbability,
+      double middleProbability,
+      double downProbability,
+      double[] stateValue,
+      double[] values,
+      double spot,
+      double downFactor,
+      double middleFactor,
+      int i) {
+
+    DoubleArray next = getNextOptionValues(
+        discountFactor,
+        upProbability,
+        middleProbability,
+        downProbability,
+        DoubleArray.ofUnsafe(Arrays.copyOf(values, 2 * i + 3)),
+        spot,
+        downFactor,
+        middleFactor,
+        i);
+    System.arraycopy(next.toArrayUnsafe(), 0, values, 0, 2 * i + 1);
+  }
+
+  /**
+   * Computes the option values in the intermediate nodes, updating the specified array in place.
+   * <p>
+   * This is equivalent to {@link #getNextOptionValues(double, DoubleMatrix, DoubleArray, DoubleArray, int)},
+   * but avoids allocation. On input, the first (2*i+3) elements of {@code values} are the option values
+   * in the (i+1)-th layer. On output, the first (2*i+1) elements are the option values in the i-th layer.
+   * <p>
+   * The default implementation delegates to
+   * {@link #getNextOptionValues(double, DoubleMatrix, DoubleArray, DoubleArray, int)}.
+   * 
+   * @param discountFactor  the discount factor between the two layers
+   * @param transitionProbability  the transition probability
+   * @param stateValue  the state value
+   * @param values  the option values, updated in place
+   * @param i  the step number for which the next option values are computed
+   */
+  public default void updateOptionValues(
+      double discountFactor,
+      DoubleMatrix transitionProbability,
+      DoubleArray stateValue,
+      double[] values,
+      int i) {
+
+    DoubleArray next = getNextOptionValues(
+        discountFactor, transitionProbability, stateValue, DoubleArray.ofUnsafe(Arrays.copyOf(values, 2 * i + 3)), i);
+    System.arraycopy(next.toArrayUnsafe(), 0, values, 0, 2 * i + 1);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Checks if algorithmic differentiation is supported.
+   * <p>
+   * If true, the methods taking {@link ActiveDouble} compute the option values consistently with
+   * the other methods, including any early exercise or path-dependence of the option.
+   * <p>
+   * The default implementation returns false.
+   * 
+   * @return true if algorithmic differentiation is supported
+   */
+  public default boolean isAdjointSupported() {
+    return false;
+  }
+
+  /**
+   * Checks if the active state values of the intermediate layers are required.
+   * <p>
+   * The state values of each layer depend on the inputs, thus recording them for algorithmic differentiation
+   * adds nodes to the tape for every node of the tree. If false, the state values are not computed,
+   * and null is passed to {@link #updateOptionValues(ActiveDouble, ActiveDouble, ActiveDouble, ActiveDouble,
+   * ActiveDouble[], ActiveDouble[], int)}. The state values at expiry are always computed.
+   * <p>
+   * The default implementation returns false, as the default implementation of that method does not use them.
+   * 
+   * @return true if the active state values of the intermediate layers are required
+   */
+  public default boolean isActiveStateValueRequired() {
+    return false;
+  }
+
+  /**
+   * Computes payoff at expiry for trinomial tree, recording the operations for algorithmic differentiation.
+   * <p>
+   * This is equivalent to {@link #fillPayoffAtExpiryTrinomial(double[], double[])}, but the state values
+   * and payoff values are active values, see {@link ActiveDouble}.
+   * <p>
+   * This is only invoked if {@link #isAdjointSupported()} returns true.
+   * The default implementation throws an exception.
+   * 
+   * @param stateValue  the state values, not altered
+   * @param values  the array to write the payoff values to
+   * @throws UnsupportedOperationException if algorithmic differentiation is not supported
+   */
+  public default void fillPayoffAtExpiryTrinomial(ActiveDouble[] stateValue, ActiveDouble[] values) {
+    throw new UnsupportedOperationException(
+        "Algorithmic differentiation is not supported by " + getClass().getSimpleName());
+  }
+
+  /**
+   * Computes the option values in the intermediate nodes, recording the operations for algorithmic differentiation.
+   * <p>
+   * This is equivalent to
+   * {@link #updateOptionValues(double, double, double, double, double[], double[], double, double, double, int)},
+   * but the inputs and option values are active values, see {@link ActiveDouble}.
+   * <p>
+   * The default implementation computes the discounted expectation of the option values in the (i+1)-th layer,
+   * which is suitable for options without early exercise or path-dependence.
+   * Other options must override this method, and {@link #isActiveStateValueRequired()} if the state values are used.
+   * 
+   * @param discountFactor  the discount factor between the two layers
+   * @param upProbability  the up probability
+   * @param middleProbability  the middle probability
+   * @param downProbability  the down probability
+   * @param stateValue  the state values in the i-th layer, not altered,
+   *  null unless {@link #isActiveStateValueRequired()} returns true
+   * @param values  the option values, updated in place
+   * @param i  the step number for which the next option values are computed
+   */
+  public default void updateOptionValues(
+      ActiveDouble discountFactor,
+      ActiveDouble upProbability,
+      ActiveDouble middleProbability,
+      ActiveDouble downProbability,
+      ActiveDouble[] stateValue,
+      ActiveDouble[] values,
+      int i) {
+
+    // node j only depends on nodes j, j+1 and j+2 of the next layer, thus can be overwritten in ascending order
+    int nNodes = 2 * i + 1;
+    for (int j = 0; j < nNodes; ++j) {
+      values[j] = upProbability.multipliedBy(values[j + 2])
+          .plus(middleProbability.multipliedBy(values[j + 1]))
+          .plus(downProbability.multipliedBy(values[j]))
+          .multipliedBy(discountFactor);
+    }
+  }
+
 }
@@ -10,6 +10,7 @@ import java.util.Arrays;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.math.impl.differentiation.ActiveDouble;
 import com.opengamma.strata.product.option.BarrierType;
 
 /**
@@ -129,23 +130,226 @@ abstract class SingleBarrierKnockoutFunction implements OptionFunction {
     return DoubleArray.ofUnsafe(res);
   }
 
+  //-------------------------------------------------------------------------
+  @Override
+  public void fillPayoffAtExpiryTrinomial(double[] stateValue, double[] values) {
+    int nNodes = 2 * getNumberOfSteps() + 1;
+    double rebate = getRebate(getNumberOfSteps());
+    double barrierLevel = getBarrierLevel(getNumberOfSteps());
+    boolean isDown = getBarrierType().isDown();
+    Arrays.fill(values, 0, nNodes, rebate);
+    int index = getLowerBoundIndex(stateValue, nNodes, barrierLevel);
+    ArgChecker.isTrue(index > -1 && index < nNodes - 1, "barrier is covered by tree");
+    int iMin = isDown ? index + 1 : 0;
+    int iMmax = !isDown ? index + 1 : nNodes;
+    for (int i = iMin; i < iMmax; ++i) {
+      values[i] = Math.max(getSign() * (stateValue[i] - getStrike()), 0d);
+    }
+    // modification if barrier lies between two consecutive nodes 
+    double bd = barrierLevel - stateValue[index];
+    double ub = stateValue[index + 1] - barrierLevel;
+    double ud = stateValue[index + 1] - stateValue[index];
+    if (isDown) {
+      values[index + 1] = 0.5 * values[index + 1] + 0.5 * (bd * rebate + ub * values[index + 1]) / ud;
+    } else {
+      values[index] = barrierLevel == stateValue[index] ?
+          rebate :
+          0.5 * values[index] + 0.5 * (ub * rebate + bd * values[index]) / ud;
+    }
+  }
+
+  @Override
+  public void updateOptionValues(
+      double discountFactor,
+      double upProbability,
+      double middleProbability,
+      double downProbability,
+      double[] stateValue,
+      double[] values,
+      double spot,
+      double downFactor,
+      double middleFactor,
+      int i) {
+
+    int nNodes = 2 * i + 1;
+    double barrierLevel = getBarrierLevel(i);
+    double rebate = getRebate(i);
+    boolean isDown = getBarrierType().isDown();
+    // node j only depends on nodes j, j+1 and j+2 of the next layer, thus can be overwritten in ascending order
+    for (int j = 0; j < nNodes; ++j) {
+      if ((isDown && stateValue[j] <= barrierLevel) || (!isDown && stateValue[j] >= barrierLevel)) {
+        values[j] = rebate;
+      } else {
+        values[j] = discountFactor *
+            (upProbability * values[j + 2] + middleProbability * values[j + 1] + downProbability * values[j]);
+      }
+    }
+    adjustAtBarrier(stateValue, values, nNodes, barrierLevel, rebate, isDown);
+  }
+
+  @Override
+  public void updateOptionValues(
+      double discountFactor,
+      DoubleMatrix transitionProbability,
+      DoubleArray stateValue,
+      double[] values,
+      int i) {
+
+    int nNodes = 2 * i + 1;
+    double barrierLevel = getBarrierLevel(i);
+    double rebate = getRebate(i);
+    boolean isDown = getBarrierType().isDown();
+    double[] state = stateValue.toArrayUnsafe();
+    for (int j = 0; j < nNodes; ++j) {
+      if ((isDown && state[j] <= barrierLevel) || (!isDown && state[j] >= barrierLevel)) {
+        values[j] = rebate;
+      } else {
+        double upProb = transitionProbability.get(j, 2);
+        double middleProb = transitionProbability.get(j, 1);
+        double downProb = transitionProbability.get(j, 0);
+        values[j] = discountFactor * (upProb * values[j + 2] + middleProb * values[j + 1] + downProb * values[j]);
+      }
+    }
+    adjustAtBarrier(state, values, nNodes, barrierLevel, rebate, isDown);
+  }
+
+  // modification if barrier lies between two consecutive nodes 
+  private void adjustAtBarrier(
+      double[] stateValue,
+      double[] values,
+      int nNodes,
+      double barrierLevel,
+      double rebate,
+      boolean isDown) {
+
+    int index = getLowerBoundIndex(stateValue, nNodes, barrierLevel);
+    if (index > -1 && index < nNodes - 1) {
+      double bd = barrierLevel - stateValue[index];
+      double ub = stateValue[index + 1] - barrierLevel;
+      double ud = stateValue[index + 1] - stateValue[index];
+      if (isDown) {
+        values[index + 1] = 0.5 * values[index + 1] + 0.5 * (bd * rebate + ub * values[index + 1]) / ud;
+      } else {
+        values[index] = 0.5 * values[index] + 0.5 * (ub * rebate + bd * values[index]) / ud;
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean isAdjointSupported() {
+    return true;
+  }
+
+  @Override
+  public boolean isActiveStateValueRequired() {
+    return true;
+  }
+
+  @Override
+  public void fillPayoffAtExpiryTrinomial(ActiveDouble[] stateValue, ActiveDouble[] values) {
+    int nNodes = 2 * getNumberOfSteps() + 1;
+    ActiveDouble rebate = ActiveDouble.constant(getRebate(getNumberOfSteps()));
+    double barrierLevel = getBarrierLevel(getNumberOfSteps());
+    boolean isDown = getBarrierType().isDown();
+    Arrays.fill(values, 0, nNodes, rebate);
+    int index = getLowerBoundIndex(stateValue, nNodes, barrierLevel);
+    ArgChecker.isTrue(index > -1 && index < nNodes - 1, "barrier is covered by tree");
+    int iMin = isDown ? index + 1 : 0;
+    int iMmax = !isDown ? index + 1 : nNodes;
+    for (int i = iMin; i < iMmax; ++i) {
+      values[i] = stateValue[i].minus(getStrike()).multipliedBy(getSign()).max(0d);
+    }
+    if (!isDown && barrierLevel == stateValue[index].getValue()) {
+      values[index] = rebate;
+    } else {
+      adjustAtBarrier(stateValue, values, index, barrierLevel, rebate, isDown);
+    }
+  }
+
+  @Override
+  public void updateOptionValues(
+      ActiveDouble discountFactor,
+      ActiveDouble upProbability,
+      ActiveDouble middleProbability,
+      ActiveDouble downProbability,
+      ActiveDouble[] stateValue,
+      ActiveDouble[] values,
+      int i) {
+
+    int nNodes = 2 * i + 1;
+    double barrierLevel = getBarrierLevel(i);
+    ActiveDouble rebate = ActiveDouble.constant(getRebate(i));
+    boolean isDown = getBarrierType().isDown();
+    // node j only depends on nodes j, j+1 and j+2 of the next layer, thus can be overwritten in ascending order
+    for (int j = 0; j < nNodes; ++j) {
+      double state = stateValue[j].getValue();
+      if ((isDown && state <= barrierLevel) || (!isDown && state >= barrierLevel)) {
+        values[j] = rebate;
+      } else {
+        values[j] = upProbability.multipliedBy(values[j + 2])
+            .plus(middleProbability.multipliedBy(values[j + 1]))
+            .plus(downProbability.multipliedBy(values[j]))
+            .multipliedBy(discountFactor);
+      }
+    }
+    int index = getLowerBoundIndex(stateValue, nNodes, barrierLevel);
+    if (index > -1 && index < nNodes - 1) {
+      adjustAtBarrier(stateValue, values, index, barrierLevel, rebate, isDown);
+    }
+  }
+
+  // modification if barrier lies between the two consecutive nodes from the index, for active values
+  private static void adjustAtBarrier(
+      ActiveDouble[] stateValue,
+      ActiveDouble[] values,
+      int index,
+      double barrierLevel,
+      ActiveDouble rebate,
+      boolean isDown) {
+
+    ActiveDouble bd = stateValue[index].negated().plus(barrierLevel);
+    ActiveDouble ub = stateValue[index + 1].minus(barrierLevel);
+    ActiveDouble ud = stateValue[index + 1].minus(stateValue[index]);
+    int adjusted = isDown ? index + 1 : index;
+    ActiveDouble rebateWeight = isDown ? bd : ub;
+    ActiveDouble valueWeight = isDown ? ub : bd;
+    ActiveDouble interpolated = rebateWeight.multipliedBy(rebate)
+        .plus(valueWeight.multipliedBy(values[adjusted]))
+        .dividedBy(ud);
+    values[adjusted] = values[adjusted].plus(interpolated).multipliedBy(0.5);
+  }
+
+  // the first n elements of the set are used
+  private int getLowerBoundIndex(ActiveDouble[] set, int n, double value) {
+    double[] values = new double[n];
+    for (int i = 0; i < n; ++i) {
+      values[i] = set[i].getValue();
+    }
+    return getLowerBoundIndex(values, n, value);
+  }
+
   //-------------------------------------------------------------------------
   private int getLowerBoundIndex(DoubleArray set, double value) {
-    int n = set.size();
-    if (value < set.get(0)) {
+    return getLowerBoundIndex(set.toArrayUnsafe(), set.size(), value);
+  }
+
+  // the first n elements of the set are used
+  private int getLowerBoundIndex(double[] set, int n, double value) {
+    if (value < set[0]) {
       return -1;
     }
-    if (value > set.get(n - 1)) {
+    if (value > set[n - 1]) {
       return n - 1;
     }
-    int index = Arrays.binarySearch(set.toArrayUnsafe(), value);
+    int index = Arrays.binarySearch(set, 0, n, value);
     if (index >= 0) {
       // Fast break out if it's an exact match.
       return index;
     }
     index = -(index + 1);
     index--;
-    if (value == -0. && index < n - 1 && set.get(index + 1) == 0.) {
+    if (value == -0. && index < n - 1 && set[index + 1] == 0.) {
       ++index;
     }
     return index;
@@ -5,7 +5,11 @@
  */
 package com.opengamma.strata.pricer.impl.tree;
 
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.math.impl.differentiation.ActiveDouble;
 
 /**
  * Trigeorgis lattice specification.
@@ -27,4 +31,27 @@ public final class TrigeorgisLatticeSpecification implements LatticeSpecificatio
     double downProbability = 0.5 * (part - mudt / dx);
     return DoubleArray.of(upFactor, 1d, downFactor, upProbability, middleProbability, downProbability);
   }
+
+  @Override
+  public boolean isAdjointSupported() {
+    return true;
+  }
+
+  @Override
+  public List<ActiveDouble> getParametersTrinomial(ActiveDouble volatility, ActiveDouble interestRate, double dt) {
+    ActiveDouble volSq = volatility.multipliedBy(volatility);
+    ActiveDouble mu = interestRate.minus(volSq.multipliedBy(0.5));
+    ActiveDouble mudt = mu.multipliedBy(dt);
+    ActiveDouble mudtSq = mudt.multipliedBy(mudt);
+    ActiveDouble dx = volatility.multipliedBy(Math.sqrt(3d * dt));
+    ActiveDouble upFactor = dx.exp();
+    ActiveDouble downFactor = dx.negated().exp();
+    ActiveDouble part = volSq.multipliedBy(dt).plus(mudtSq).dividedBy(dx).dividedBy(dx);
+    ActiveDouble drift = mudt.dividedBy(dx);
+    ActiveDouble upProbability = part.plus(drift).multipliedBy(0.5);
+    ActiveDouble middleProbability = part.negated().plus(1d);
+    ActiveDouble downProbability = part.minus(drift).multipliedBy(0.5);
+    return ImmutableList.of(upFactor, ActiveDouble.ONE, downFactor, upProbability, middleProbability, downProbability);
+  }
+
 }
@@ -5,9 +5,15 @@
  */
 package com.opengamma.strata.pricer.impl.tree;
 
+import java.util.List;
+import java.util.Optional;
+
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.value.ValueDerivatives;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.math.impl.differentiation.ActiveDouble;
+import com.opengamma.strata.math.impl.differentiation.Tape;
 import com.opengamma.strata.pricer.fxopt.RecombiningTrinomialTreeData;
 
 /**
@@ -17,6 +23,16 @@ import com.opengamma.strata.pricer.fxopt.RecombiningTrinomialTreeData;
  * and the option to price is specified by {@code OptionFunction}. 
  * <p>
  * Option pricing with non-uniform tree is realised by specifying {@code RecombiningTrinomialTreeData}.
+ * <p>
+ * The backward induction is performed in place, using two arrays sized to the final layer of the tree,
+ * one for the option values and one for the state values. No arrays are allocated per time step
+ * as long as the {@code OptionFunction} implements the in-place methods, see
+ * {@link OptionFunction#updateOptionValues(double, double, double, double, double[], double[], double, double, double, int)}.
+ * The price, delta, gamma and theta are all derived from the same sweep.
+ * <p>
+ * The derivatives of the price with respect to the spot, volatility, interest rate and dividend rate
+ * can also be computed by algorithmic differentiation of the backward induction, see
+ * {@link #optionPriceAdjoint(OptionFunction, LatticeSpecification, double, double, double, double)}.
  */
 public class TrinomialTree {
 
@@ -42,6 +58,34 @@ public class TrinomialTree {
       double interestRate,
       double dividendRate) {
 
+    return optionPriceGreeks(function, lattice, spot, volatility, interestRate, dividendRate).getValue();
+  }
+
+  /**
+   * Compute option price, delta, gamma and theta under the specified trinomial lattice.
+   * <p>
+   * It is assumed that the volatility, interest rate and continuous dividend rate are constant 
+   * over the lifetime of the option.
+   * <p>
+   * The Greeks are approximated by the option values in the first layer of the tree, see
+   * {@link #optionPriceGreeks(OptionFunction, RecombiningTrinomialTreeData)}.
+   * 
+   * @param function  the option
+   * @param lattice  the lattice specification
+   * @param spot  the spot
+   * @param volatility  the volatility
+   * @param interestRate  the interest rate
+   * @param dividendRate  the dividend rate
+   * @return the option price, and the delta, gamma and theta in that order
+   */
+  public ValueDerivatives optionPriceGreeks(
+      OptionFunction function,
+      LatticeSpecification lattice,
+      double spot,
+      double volatility,
+      double interestRate,
+      double dividendRate) {
+
     int nSteps = function.getNumberOfSteps();
     double timeToExpiry = function.getTimeToExpiry();
     double dt = timeToExpiry / (double) nSteps;
@@ -57,14 +101,181 @@ public class TrinomialTree {
     ArgChecker.isTrue(midProbability > 0d, "midProbability should be greater than 0");
     ArgChecker.isTrue(midProbability < 1d, "midProbability should be smaller than 1");
     ArgChecker.isTrue(downProbability > 0d, "downProbability should be greater than 0");
-    DoubleArray values = function.getPayoffAtExpiryTrinomial(spot, downFactor, middleFactor);
-    for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(discount, upProbability, midProbability, downProbability, values, spot,
-          downFactor, middleFactor, i);
+    int nNodes = 2 * nSteps + 1;
+    // the powers are tabulated so that each state value is spot * downFactor^(i-k) * middleFactor^k
+    // the exponent of downFactor ranges from -nSteps to nSteps, offset by nSteps in the table
+    double[] downPowers = new double[nNodes];
+    double[] middlePowers = new double[nNodes];
+    for (int k = 0; k < nNodes; ++k) {
+      downPowers[k] = Math.pow(downFactor, k - nSteps);
+      middlePowers[k] = Math.pow(middleFactor, k);
+    }
+    double[] stateValue = new double[nNodes];
+    double[] values = new double[nNodes];
+    fillStateValues(stateValue, spot, downPowers, middlePowers, nSteps, nSteps);
+    function.fillPayoffAtExpiryTrinomial(stateValue, values);
+    for (int i = nSteps - 1; i > 0; --i) {
+      fillStateValues(stateValue, spot, downPowers, middlePowers, nSteps, i);
+      function.updateOptionValues(discount, upProbability, midProbability, downProbability, stateValue, values,
+          spot, downFactor, middleFactor, i);
     }
-    return values.get(0);
+    // the first layer is retained before the final step overwrites it
+    double value0 = values[0];
+    double value1 = values[1];
+    double value2 = values[2];
+    double state0 = stateValue[0];
+    double state1 = stateValue[1];
+    double state2 = stateValue[2];
+    fillStateValues(stateValue, spot, downPowers, middlePowers, nSteps, 0);
+    function.updateOptionValues(discount, upProbability, midProbability, downProbability, stateValue, values,
+        spot, downFactor, middleFactor, 0);
+    return priceGreeks(values[0], spot, dt, value0, value1, value2, state0, state1, state2);
   }
 
+  // the state values of the i-th layer
+  private static void fillStateValues(
+      double[] stateValue,
+      double spot,
+      double[] downPowers,
+      double[] middlePowers,
+      int nSteps,
+      int i) {
+
+    int nNodes = 2 * i + 1;
+    for (int k = 0; k < nNodes; ++k) {
+      stateValue[k] = spot * downPowers[nSteps + i - k] * middlePowers[k];
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Compute option price and its derivatives with respect to the model inputs under the specified trinomial lattice.
+   * <p>
+   * It is assumed that the volatility, interest rate and continuous dividend rate are constant 
+   * over the lifetime of the option.
+   * <p>
+   * The derivatives are computed by algorithmic differentiation of the backward induction, thus all four
+   * are obtained from a single reverse sweep, rather than by repricing the option for each input.
+   * The option function and lattice must support algorithmic differentiation,
+   * see {@link OptionFunction#isAdjointSupported()} and {@link LatticeSpecification#isAdjointSupported()}.
+   * 
+   * @param function  the option
+   * @param lattice  the lattice specification
+   * @param spot  the spot
+   * @param volatility  the volatility
+   * @param interestRate  the interest rate
+   * @param dividendRate  the dividend rate
+   * @return the option price, and its derivatives with respect to spot, volatility, interest rate
+   *  and dividend rate in that order
+   */
+  public ValueDerivatives optionPriceAdjoint(
+      OptionFunction function,
+      LatticeSpecification lattice,
+      double spot,
+      double volatility,
+      double interestRate,
+      double dividendRate) {
+
+    try (Tape tape = Tape.start()) {
+      List<ActiveDouble> inputs = tape.inputs(DoubleArray.of(spot, volatility, interestRate, dividendRate));
+      ActiveDouble price = optionPrice(function, lattice, inputs.get(0), inputs.get(1), inputs.get(2), inputs.get(3));
+      return ValueDerivatives.of(price.getValue(), tape.gradient(price, inputs));
+    }
+  }
+
+  /**
+   * Price an option under the specified trinomial lattice, recording the operations for algorithmic differentiation.
+   * <p>
+   * This is equivalent to {@link #optionPrice(OptionFunction, LatticeSpecification, double, double, double, double)},
+   * but the inputs and price are active values, allowing the pricing to form part of a larger differentiated
+   * calculation. The active inputs must be recorded on the current tape, see {@link Tape#current()}.
+   * The section of the tape that computes the lattice parameters is checkpointed.
+   * <p>
+   * The option function and lattice must support algorithmic differentiation,
+   * see {@link OptionFunction#isAdjointSupported()} and {@link LatticeSpecification#isAdjointSupported()}.
+   * 
+   * @param function  the option
+   * @param lattice  the lattice specification
+   * @param spot  the spot
+   * @param volatility  the volatility
+   * @param interestRate  the interest rate
+   * @param dividendRate  the dividend rate
+   * @return the option price
+   */
+  public ActiveDouble optionPrice(
+      OptionFunction function,
+      LatticeSpecification lattice,
+      ActiveDouble spot,
+      ActiveDouble volatility,
+      ActiveDouble interestRate,
+      ActiveDouble dividendRate) {
+
+    ArgChecker.isTrue(function.isAdjointSupported(), "Algorithmic differentiation is not supported: {}", function);
+    ArgChecker.isTrue(lattice.isAdjointSupported(), "Algorithmic differentiation is not supported: {}", lattice);
+    int nSteps = function.getNumberOfSteps();
+    double timeToExpiry = function.getTimeToExpiry();
+    double dt = timeToExpiry / (double) nSteps;
+    Optional<Tape> tape = Tape.findCurrent();
+    int mark = tape.map(Tape::mark).orElse(0);
+    ActiveDouble discount = interestRate.multipliedBy(-dt).exp();
+    List<ActiveDouble> params = ImmutableList.<ActiveDouble>builder()
+        .add(discount)
+        .addAll(lattice.getParametersTrinomial(volatility, interestRate.minus(dividendRate), dt))
+        .build();
+    // the parameters are few, but computed from many intermediate nodes
+    if (tape.isPresent()) {
+      params = tape.get().checkpoint(mark, params);
+    }
+    discount = params.get(0);
+    ActiveDouble middleFactor = params.get(2);
+    ActiveDouble downFactor = params.get(3);
+    ActiveDouble upProbability = params.get(4);
+    ActiveDouble midProbability = params.get(5);
+    ActiveDouble downProbability = params.get(6);
+    ArgChecker.isTrue(upProbability.getValue() > 0d, "upProbability should be greater than 0");
+    ArgChecker.isTrue(upProbability.getValue() < 1d, "upProbability should be smaller than 1");
+    ArgChecker.isTrue(midProbability.getValue() > 0d, "midProbability should be greater than 0");
+    ArgChecker.isTrue(midProbability.getValue() < 1d, "midProbability should be smaller than 1");
+    ArgChecker.isTrue(downProbability.getValue() > 0d, "downProbability should be greater than 0");
+    int nNodes = 2 * nSteps + 1;
+    ActiveDouble[] downPowers = new ActiveDouble[nNodes];
+    ActiveDouble[] middlePowers = new ActiveDouble[nNodes];
+    for (int k = 0; k < nNodes; ++k) {
+      downPowers[k] = downFactor.pow(k - nSteps);
+      middlePowers[k] = middleFactor.pow(k);
+    }
+    ActiveDouble[] stateValue = new ActiveDouble[nNodes];
+    ActiveDouble[] values = new ActiveDouble[nNodes];
+    fillStateValues(stateValue, spot, downPowers, middlePowers, nSteps, nSteps);
+    function.fillPayoffAtExpiryTrinomial(stateValue, values);
+    // the state values of the intermediate layers would add a tape node for every node of the tree
+    ActiveDouble[] layerStateValue = function.isActiveStateValueRequired() ? stateValue : null;
+    for (int i = nSteps - 1; i >= 0; --i) {
+      if (layerStateValue != null) {
+        fillStateValues(layerStateValue, spot, downPowers, middlePowers, nSteps, i);
+      }
+      function.updateOptionValues(
+          discount, upProbability, midProbability, downProbability, layerStateValue, values, i);
+    }
+    return values[0];
+  }
+
+  // the active state values of the i-th layer
+  private static void fillStateValues(
+      ActiveDouble[] stateValue,
+      ActiveDouble spot,
+      ActiveDouble[] downPowers,
+      ActiveDouble[] middlePowers,
+      int nSteps,
+      int i) {
+
+    int nNodes = 2 * i + 1;
+    for (int k = 0; k < nNodes; ++k) {
+      stateValue[k] = spot.multipliedBy(downPowers[nSteps + i - k]).multipliedBy(middlePowers[k]);
+    }
+  }
+
+  //-------------------------------------------------------------------------
   /**
    * Price an option under the specified trinomial tree gird.
    * 
@@ -76,14 +287,7 @@ public class TrinomialTree {
       OptionFunction function,
       RecombiningTrinomialTreeData data) {
 
-    int nSteps = data.getNumberOfSteps();
-    ArgChecker.isTrue(nSteps == function.getNumberOfSteps(), "mismatch in number of steps");
-    DoubleArray values = function.getPayoffAtExpiryTrinomial(data.getStateValueAtLayer(nSteps));
-    for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(
-          data.getDiscountFactorAtLayer(i), data.getProbabilityAtLayer(i), data.getStateValueAtLayer(i), values, i);
-    }
-    return values.get(0);
+    return optionPriceGreeks(function, data).getValue();
   }
 
   /**
@@ -100,21 +304,74 @@ public class TrinomialTree {
       OptionFunction function,
       RecombiningTrinomialTreeData data) {
 
+    ValueDerivatives greeks = optionPriceGreeks(function, data);
+    return ValueDerivatives.of(greeks.getValue(), DoubleArray.of(greeks.getDerivative(0)));
+  }
+
+  /**
+   * Compute option price, delta, gamma and theta under the specified trinomial tree gird.
+   * <p>
+   * The Greeks are approximated by the option values and state values in the first layer of the tree.
+   * The delta and gamma are the first and second derivatives of the price with respect to spot.
+   * The theta is the derivative of the price with respect to the valuation time, thus is the negative of
+   * the derivative with respect to time to expiry. It is derived from the middle node of the first layer,
+   * adjusted to second order by the delta and gamma where the state value of that node differs from spot.
+   * 
+   * @param function  the option
+   * @param data  the trinomial tree data
+   * @return the option price, and the delta, gamma and theta in that order
+   */
+  public ValueDerivatives optionPriceGreeks(
+      OptionFunction function,
+      RecombiningTrinomialTreeData data) {
+
     int nSteps = data.getNumberOfSteps();
     ArgChecker.isTrue(nSteps == function.getNumberOfSteps(), "mismatch in number of steps");
-    DoubleArray values = function.getPayoffAtExpiryTrinomial(data.getStateValueAtLayer(nSteps));
-    double delta = 0d;
-    for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(
+    double[] values = new double[2 * nSteps + 1];
+    function.fillPayoffAtExpiryTrinomial(data.getStateValueAtLayer(nSteps).toArrayUnsafe(), values);
+    for (int i = nSteps - 1; i > 0; --i) {
+      function.updateOptionValues(
           data.getDiscountFactorAtLayer(i), data.getProbabilityAtLayer(i), data.getStateValueAtLayer(i), values, i);
-      if (i == 1) {
-        DoubleArray stateValue = data.getStateValueAtLayer(1);
-        double d1 = (values.get(2) - values.get(1)) / (stateValue.get(2) - stateValue.get(1));
-        double d2 = (values.get(1) - values.get(0)) / (stateValue.get(1) - stateValue.get(0));
-        delta = 0.5 * (d1 + d2);
-      }
     }
-    return ValueDerivatives.of(values.get(0), DoubleArray.of(delta));
+    // the first layer is retained before the final step overwrites it
+    DoubleArray stateValue = data.getStateValueAtLayer(1);
+    double value0 = values[0];
+    double value1 = values[1];
+    double value2 = values[2];
+    function.updateOptionValues(
+        data.getDiscountFactorAtLayer(0), data.getProbabilityAtLayer(0), data.getStateValueAtLayer(0), values, 0);
+    return priceGreeks(
+        values[0],
+        data.getSpot(),
+        data.getTime(1),
+        value0,
+        value1,
+        value2,
+        stateValue.get(0),
+        stateValue.get(1),
+        stateValue.get(2));
+  }
+
+  //-------------------------------------------------------------------------
+  // the Greeks from the option values and state values in the first layer
+  private static ValueDerivatives priceGreeks(
+      double price,
+      double spot,
+      double dt,
+      double value0,
+      double value1,
+      double value2,
+      double state0,
+      double state1,
+      double state2) {
+
+    double d1 = (value2 - value1) / (state2 - state1);
+    double d2 = (value1 - value0) / (state1 - state0);
+    double delta = 0.5 * (d1 + d2);
+    double gamma = 2d * (d1 - d2) / (state2 - state0);
+    double shift = state1 - spot;
+    double theta = (value1 - price - delta * shift - 0.5 * gamma * shift * shift) / dt;
+    return ValueDerivatives.of(price, DoubleArray.of(delta, gamma, theta));
   }
 
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.sensitivity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
+
+/**
+ * Runs the independent bumps of a finite difference calculation.
+ * <p>
+ * Each bump is identified by an index. If no executor is specified the bumps are run
+ * sequentially on the calling thread, otherwise they are submitted to the executor
+ * and the calling thread waits for all of them to complete.
+ */
+final class BumpTasks {
+
+  /**
+   * Restricted constructor.
+   */
+  private BumpTasks() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Runs the bumps, returning the results in index order.
+   * <p>
+   * If a bump fails, the exception is rethrown on the calling thread.
+   *
+   * @param <R>  the type of the result
+   * @param executor  the executor, null to run on the calling thread
+   * @param count  the number of bumps
+   * @param bumpFn  the function to run a single bump
+   * @return the results, one per bump
+   */
+  static <R> List<R> run(Executor executor, int count, IntFunction<R> bumpFn) {
+    List<R> results = new ArrayList<>(count);
+    if (executor == null || count <= 1) {
+      for (int i = 0; i < count; i++) {
+        results.add(bumpFn.apply(i));
+      }
+      return results;
+    }
+    List<CompletableFuture<R>> futures = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int index = i;
+      futures.add(CompletableFuture.supplyAsync(() -> bumpFn.apply(index), executor));
+    }
+    try {
+      for (CompletableFuture<R> future : futures) {
+        results.add(future.join());
+      }
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      if (ex.getCause() instanceof Error) {
+        throw (Error) ex.getCause();
+      }
+      throw ex;
+    }
+    return results;
+  }
+
+}
@@ -9,10 +9,13 @@ import static com.opengamma.strata.collect.Guavate.toImmutableList;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
@@ -22,6 +25,7 @@ import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.index.Index;
 import com.opengamma.strata.basics.index.PriceIndex;
 import com.opengamma.strata.basics.index.RateIndex;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.collect.tuple.Pair;
@@ -53,6 +57,11 @@ import com.opengamma.strata.pricer.rate.RatesProvider;
  * By default the gamma is computed using a one basis-point shift and a forward finite difference.
  * The results themselves are not scaled (they represent the second order derivative).
  * <p>
+ * The bumps of the curve parameters are independent of one another.
+ * By default they are run sequentially, but {@link #withExecutor(Executor)} can be used
+ * to run them in parallel. When computing the gamma of a portfolio, the list-based
+ * method builds each bumped rates provider once and uses it for every trade.
+ * <p>
  * Reference: Interest Rate Cross-gamma for Single and Multiple Curves. OpenGamma quantitative research 15, July 14
  */
 public final class CurveGammaCalculator {
@@ -66,6 +75,18 @@ public final class CurveGammaCalculator {
    * The first order finite difference calculator.
    */
   private final VectorFieldFirstOrderDifferentiator fd;
+  /**
+   * The finite difference type.
+   */
+  private final FiniteDifferenceType fdType;
+  /**
+   * The shift to be applied to the curves.
+   */
+  private final double shift;
+  /**
+   * The executor used to run the bumps, null to run on the calling thread.
+   */
+  private final Executor executor;
 
   //-------------------------------------------------------------------------
   /**
@@ -106,9 +127,31 @@ public final class CurveGammaCalculator {
    * @param shift  the shift to be applied to the curves
    */
   private CurveGammaCalculator(FiniteDifferenceType fdType, double shift) {
+    this(fdType, shift, null);
+  }
+
+  // creates an instance with an executor
+  private CurveGammaCalculator(FiniteDifferenceType fdType, double shift, Executor executor) {
+    this.fdType = fdType;
+    this.shift = shift;
+    this.executor = executor;
     this.fd = new VectorFieldFirstOrderDifferentiator(fdType, shift);
   }
 
+  /**
+   * Returns a copy of this calculator that runs the bumps using the specified executor.
+   * <p>
+   * Each bump of a curve parameter is independent, thus the bumps may be run in parallel.
+   * The calling thread blocks until all the bumps are complete.
+   * The sensitivity function must be thread-safe.
+   * 
+   * @param executor  the executor used to run the bumps
+   * @return the calculator
+   */
+  public CurveGammaCalculator withExecutor(Executor executor) {
+    return new CurveGammaCalculator(fdType, shift, ArgChecker.notNull(executor, "executor"));
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Computes intra-curve cross gamma by applying finite difference method to curve delta.
@@ -127,63 +170,130 @@ public final class CurveGammaCalculator {
       RatesProvider ratesProvider,
       Function<ImmutableRatesProvider, CurrencyParameterSensitivities> sensitivitiesFn) {
 
+    return calculateCrossGammaIntraCurve(ratesProvider, ImmutableList.of(sensitivitiesFn), (fn, prov) -> fn.apply(prov))
+        .get(0);
+  }
+
+  /**
+   * Computes intra-curve cross gamma by applying finite difference method to curve delta for each of a list of trades.
+   * <p>
+   * This computes the intra-curve cross gamma, i.e., the second order sensitivities to individual curves. 
+   * Thus the sensitivity of a curve delta to another curve is not produced.
+   * <p>
+   * Each bumped rates provider is built once and used to compute the delta of every trade
+   * that is sensitive to the bumped curve.
+   * <p>
+   * The sensitivities are computed for discount curves, and forward curves for {@code RateIndex} and {@code PriceIndex}. 
+   * This implementation works only for single currency trades. 
+   * 
+   * @param <T>  the type of the trade
+   * @param ratesProvider  the rates provider
+   * @param trades  the trades
+   * @param sensitivitiesFn  the sensitivity function of a trade
+   * @return the cross gamma of each trade, in the same order as the trades
+   */
+  public <T> List<CrossGammaParameterSensitivities> calculateCrossGammaIntraCurve(
+      RatesProvider ratesProvider,
+      List<T> trades,
+      BiFunction<? super T, ImmutableRatesProvider, CurrencyParameterSensitivities> sensitivitiesFn) {
+
     ImmutableRatesProvider immProv = ratesProvider.toImmutableRatesProvider();
-    CurrencyParameterSensitivities baseDelta = sensitivitiesFn.apply(immProv); // used to check target sensitivity exits
-    CrossGammaParameterSensitivities result = CrossGammaParameterSensitivities.empty();
+    List<Function<ImmutableRatesProvider, CurrencyParameterSensitivities>> tradeFns = trades.stream()
+        .map(trade -> (Function<ImmutableRatesProvider, CurrencyParameterSensitivities>) prov ->
+            sensitivitiesFn.apply(trade, prov))
+        .collect(toImmutableList());
+    // used to check target sensitivity exits
+    List<CurrencyParameterSensitivities> baseDeltas =
+        BumpTasks.run(executor, tradeFns.size(), t -> tradeFns.get(t).apply(immProv));
+    CrossGammaParameterSensitivities[] result = new CrossGammaParameterSensitivities[tradeFns.size()];
+    Arrays.fill(result, CrossGammaParameterSensitivities.empty());
     // discount curve
     for (Entry<Currency, Curve> entry : immProv.getDiscountCurves().entrySet()) {
       Currency currency = entry.getKey();
-      Curve curve = entry.getValue();
-      if (baseDelta.findSensitivity(curve.getName(), currency).isPresent()) {
-        CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-            curve, currency, c -> immProv.toBuilder().discountCurve(currency, c).build(), sensitivitiesFn);
-        result = result.combinedWith(gammaSingle);
-      } else if (curve.split().size() > 1) {
-        ImmutableList<Curve> curves = curve.split();
-        int nCurves = curves.size();
-        for (int i = 0; i < nCurves; ++i) {
-          int currentIndex = i;
-          Curve underlyingCurve = curves.get(currentIndex);
-          if (baseDelta.findSensitivity(underlyingCurve.getName(), currency).isPresent()) {
-            CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-                underlyingCurve,
-                currency,
-                c -> immProv.toBuilder().discountCurve(currency, curve.withUnderlyingCurve(currentIndex, c)).build(),
-                sensitivitiesFn);
-            result = result.combinedWith(gammaSingle);
-          }
-        }
-      }
+      computeGammaIntraCurve(
+          entry.getValue(),
+          currency,
+          c -> immProv.toBuilder().discountCurve(currency, c).build(),
+          tradeFns,
+          baseDeltas,
+          result);
     }
     // forward curve
     for (Entry<Index, Curve> entry : immProv.getIndexCurves().entrySet()) {
       Index index = entry.getKey();
       if (index instanceof RateIndex || index instanceof PriceIndex) {
-        Currency currency = getCurrency(index);
-        Curve curve = entry.getValue();
-        if (baseDelta.findSensitivity(curve.getName(), currency).isPresent()) {
-          CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-              curve, currency, c -> immProv.toBuilder().indexCurve(index, c).build(), sensitivitiesFn);
-          result = result.combinedWith(gammaSingle);
-        } else if (curve.split().size() > 1) {
-          ImmutableList<Curve> curves = curve.split();
-          int nCurves = curves.size();
-          for (int i = 0; i < nCurves; ++i) {
-            int currentIndex = i;
-            Curve underlyingCurve = curves.get(currentIndex);
-            if (baseDelta.findSensitivity(underlyingCurve.getName(), currency).isPresent()) {
-              CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-                  underlyingCurve,
-                  currency,
-                  c -> immProv.toBuilder().indexCurve(index, curve.withUnderlyingCurve(currentIndex, c)).build(),
-                  sensitivitiesFn);
-              result = result.combinedWith(gammaSingle);
-            }
-          }
-        }
+        computeGammaIntraCurve(
+            entry.getValue(),
+            getCurrency(index),
+            c -> immProv.toBuilder().indexCurve(index, c).build(),
+            tradeFns,
+            baseDeltas,
+            result);
       }
     }
-    return result;
+    return ImmutableList.copyOf(result);
+  }
+
+  // computes the gamma of each trade that is sensitive to the curve, or to one of its underlying curves
+  private void computeGammaIntraCurve(
+      Curve curve,
+      Currency currency,
+      Function<Curve, ImmutableRatesProvider> ratesProviderFn,
+      List<Function<ImmutableRatesProvider, CurrencyParameterSensitivities>> sensitivitiesFns,
+      List<CurrencyParameterSensitivities> baseDeltas,
+      CrossGammaParameterSensitivities[] result) {
+
+    List<Integer> curveTrades = new ArrayList<>();
+    List<Integer> otherTrades = new ArrayList<>();
+    for (int t = 0; t < baseDeltas.size(); t++) {
+      if (baseDeltas.get(t).findSensitivity(curve.getName(), currency).isPresent()) {
+        curveTrades.add(t);
+      } else {
+        otherTrades.add(t);
+      }
+    }
+    combineGammaForCurve(curve, currency, ratesProviderFn, sensitivitiesFns, curveTrades, result);
+    if (!otherTrades.isEmpty() && curve.split().size() > 1) {
+      ImmutableList<Curve> curves = curve.split();
+      int nCurves = curves.size();
+      for (int i = 0; i < nCurves; ++i) {
+        int currentIndex = i;
+        Curve underlyingCurve = curves.get(currentIndex);
+        List<Integer> underlyingTrades = otherTrades.stream()
+            .filter(t -> baseDeltas.get(t).findSensitivity(underlyingCurve.getName(), currency).isPresent())
+            .collect(toImmutableList());
+        combineGammaForCurve(
+            underlyingCurve,
+            currency,
+            c -> ratesProviderFn.apply(curve.withUnderlyingCurve(currentIndex, c)),
+            sensitivitiesFns,
+            underlyingTrades,
+            result);
+      }
+    }
+  }
+
+  // computes the gamma of the selected trades, combining it into the result of each trade
+  private void combineGammaForCurve(
+      Curve curve,
+      Currency currency,
+      Function<Curve, ImmutableRatesProvider> ratesProviderFn,
+      List<Function<ImmutableRatesProvider, CurrencyParameterSensitivities>> sensitivitiesFns,
+      List<Integer> tradeIndices,
+      CrossGammaParameterSensitivities[] result) {
+
+    if (tradeIndices.isEmpty()) {
+      return;
+    }
+    List<Function<ImmutableRatesProvider, CurrencyParameterSensitivities>> selectedFns = tradeIndices.stream()
+        .map(sensitivitiesFns::get)
+        .collect(toImmutableList());
+    List<CrossGammaParameterSensitivity> gammas =
+        computeGammaForCurves(curve.getName(), curve, currency, ratesProviderFn, selectedFns);
+    for (int k = 0; k < tradeIndices.size(); k++) {
+      int t = tradeIndices.get(k);
+      result[t] = result[t].combinedWith(gammas.get(k));
+    }
   }
 
   //-------------------------------------------------------------------------
@@ -373,60 +483,104 @@ public final class CurveGammaCalculator {
     throw new IllegalArgumentException("unsupported index");
   }
 
-  // compute the second order sensitivity to Curve
-  CrossGammaParameterSensitivity computeGammaForCurve(
+  // compute the second order sensitivity to Curve for each sensitivity function
+  private <P> List<CrossGammaParameterSensitivity> computeGammaForCurves(
+      CurveName curveName,
       Curve curve,
       Currency sensitivityCurrency,
-      Function<Curve, ImmutableRatesProvider> ratesProviderFn,
-      Function<ImmutableRatesProvider, CurrencyParameterSensitivities> sensitivitiesFn) {
+      Function<Curve, P> ratesProviderFn,
+      List<? extends Function<P, CurrencyParameterSensitivities>> sensitivitiesFns) {
 
-    Function<DoubleArray, DoubleArray> function = new Function<DoubleArray, DoubleArray>() {
-      @Override
-      public DoubleArray apply(DoubleArray t) {
-        Curve newCurve = replaceParameters(curve, t);
-        ImmutableRatesProvider newRates = ratesProviderFn.apply(newCurve);
-        CurrencyParameterSensitivities sensiMulti = sensitivitiesFn.apply(newRates);
-        return sensiMulti.getSensitivity(newCurve.getName(), sensitivityCurrency).getSensitivity();
-      }
-    };
-    int nParams = curve.getParameterCount();
-    DoubleMatrix sensi = fd.differentiate(function).apply(DoubleArray.of(nParams, n -> curve.getParameter(n)));
-    List<ParameterMetadata> metadata = IntStream.range(0, nParams)
-        .mapToObj(i -> curve.getParameterMetadata(i))
+    List<Function<P, DoubleArray>> functions = sensitivitiesFns.stream()
+        .map(fn -> (Function<P, DoubleArray>) prov ->
+            fn.apply(prov).getSensitivity(curveName, sensitivityCurrency).getSensitivity())
+        .collect(toImmutableList());
+    List<DoubleMatrix> sensi = differentiate(curve, ratesProviderFn, functions);
+    List<ParameterMetadata> metadata = parameterMetadata(curve);
+    return sensi.stream()
+        .map(matrix -> CrossGammaParameterSensitivity.of(curveName, metadata, sensitivityCurrency, matrix))
         .collect(toImmutableList());
-    return CrossGammaParameterSensitivity.of(curve.getName(), metadata, sensitivityCurrency, sensi);
   }
 
   // computes the sensitivity of baseDeltaSingle to Curve
-  CrossGammaParameterSensitivity computeGammaForCurve(
+  private CrossGammaParameterSensitivity computeGammaForCurve(
       CurrencyParameterSensitivity baseDeltaSingle,
       Curve curve,
       Function<Curve, ImmutableRatesProvider> ratesProviderFn,
       Function<ImmutableRatesProvider, CurrencyParameterSensitivities> sensitivitiesFn) {
 
-    Function<DoubleArray, DoubleArray> function = new Function<DoubleArray, DoubleArray>() {
-      @Override
-      public DoubleArray apply(DoubleArray t) {
-        Curve newCurve = replaceParameters(curve, t);
-        ImmutableRatesProvider newRates = ratesProviderFn.apply(newCurve);
-        CurrencyParameterSensitivities sensiMulti = sensitivitiesFn.apply(newRates);
-        return sensiMulti.getSensitivity(baseDeltaSingle.getMarketDataName(), baseDeltaSingle.getCurrency()).getSensitivity();
-      }
-    };
-    int nParams = curve.getParameterCount();
-    DoubleMatrix sensi = fd.differentiate(function).apply(DoubleArray.of(nParams, n -> curve.getParameter(n)));
-    List<ParameterMetadata> metadata = IntStream.range(0, nParams)
-        .mapToObj(i -> curve.getParameterMetadata(i))
-        .collect(toImmutableList());
+    Function<ImmutableRatesProvider, DoubleArray> function = prov -> sensitivitiesFn.apply(prov)
+        .getSensitivity(baseDeltaSingle.getMarketDataName(), baseDeltaSingle.getCurrency())
+        .getSensitivity();
+    DoubleMatrix sensi = differentiate(curve, ratesProviderFn, ImmutableList.of(function)).get(0);
     return CrossGammaParameterSensitivity.of(
         baseDeltaSingle.getMarketDataName(),
         baseDeltaSingle.getParameterMetadata(),
         curve.getName(),
-        metadata,
+        parameterMetadata(curve),
         baseDeltaSingle.getCurrency(),
         sensi);
   }
 
+  // differentiates each function with respect to the curve parameters
+  // each bumped provider is built once and passed to all the functions
+  private <P> List<DoubleMatrix> differentiate(
+      Curve curve,
+      Function<Curve, P> ratesProviderFn,
+      List<? extends Function<P, DoubleArray>> functions) {
+
+    int nParams = curve.getParameterCount();
+    DoubleArray x = DoubleArray.of(nParams, n -> curve.getParameter(n));
+    boolean central = fdType == FiniteDifferenceType.CENTRAL;
+    double bump = fdType == FiniteDifferenceType.BACKWARD ? -shift : shift;
+    // central uses pairs of up and down bumps, otherwise the base point is followed by one bump per parameter
+    int nPoints = central ? 2 * nParams : nParams + 1;
+    List<List<DoubleArray>> values = BumpTasks.run(executor, nPoints, k -> {
+      DoubleArray point;
+      if (central) {
+        int j = k / 2;
+        point = x.with(j, k % 2 == 0 ? x.get(j) + shift : x.get(j) - shift);
+      } else {
+        point = k == 0 ? x : x.with(k - 1, x.get(k - 1) + bump);
+      }
+      P newRates = ratesProviderFn.apply(replaceParameters(curve, point));
+      return functions.stream()
+          .map(fn -> fn.apply(newRates))
+          .collect(toImmutableList());
+    });
+    ImmutableList.Builder<DoubleMatrix> result = ImmutableList.builder();
+    for (int f = 0; f < functions.size(); f++) {
+      int m = values.get(0).get(f).size();
+      double[][] res = new double[m][nParams];
+      for (int j = 0; j < nParams; j++) {
+        DoubleArray first = values.get(central ? 2 * j : 0).get(f);
+        DoubleArray second = values.get(central ? 2 * j + 1 : j + 1).get(f);
+        for (int i = 0; i < m; i++) {
+          switch (fdType) {
+            case FORWARD:
+              res[i][j] = (second.get(i) - first.get(i)) / shift;
+              break;
+            case BACKWARD:
+              res[i][j] = (first.get(i) - second.get(i)) / shift;
+              break;
+            default:
+              res[i][j] = (first.get(i) - second.get(i)) / (2 * shift);
+              break;
+          }
+        }
+      }
+      result.add(DoubleMatrix.ofUnsafe(res));
+    }
+    return result.build();
+  }
+
+  // the parameter metadata of the curve
+  private List<ParameterMetadata> parameterMetadata(Curve curve) {
+    return IntStream.range(0, curve.getParameterCount())
+        .mapToObj(i -> curve.getParameterMetadata(i))
+        .collect(toImmutableList());
+  }
+
   private CrossGammaParameterSensitivity combineSensitivities(
       CurrencyParameterSensitivity baseDeltaSingle,
       CrossGammaParameterSensitivities blockCrossGamma) {
@@ -523,21 +677,8 @@ public final class CurveGammaCalculator {
       Function<Curve, ImmutableLegalEntityDiscountingProvider> ratesProviderFn,
       Function<ImmutableLegalEntityDiscountingProvider, CurrencyParameterSensitivities> sensitivitiesFn) {
 
-    Function<DoubleArray, DoubleArray> function = new Function<DoubleArray, DoubleArray>() {
-      @Override
-      public DoubleArray apply(DoubleArray t) {
-        Curve newCurve = curve.withPerturbation((i, v, m) -> t.get(i));
-        ImmutableLegalEntityDiscountingProvider newRates = ratesProviderFn.apply(newCurve);
-        CurrencyParameterSensitivities sensiMulti = sensitivitiesFn.apply(newRates);
-        return sensiMulti.getSensitivity(curveName, sensitivityCurrency).getSensitivity();
-      }
-    };
-    int nParams = curve.getParameterCount();
-    DoubleMatrix sensi = fd.differentiate(function).apply(DoubleArray.of(nParams, n -> curve.getParameter(n)));
-    List<ParameterMetadata> metadata = IntStream.range(0, nParams)
-        .mapToObj(i -> curve.getParameterMetadata(i))
-        .collect(toImmutableList());
-    return CrossGammaParameterSensitivity.of(curveName, metadata, sensitivityCurrency, sensi);
+    return computeGammaForCurves(curveName, curve, sensitivityCurrency, ratesProviderFn, ImmutableList.of(sensitivitiesFn))
+        .get(0);
   }
 
   private ImmutableLegalEntityDiscountingProvider replaceIssuerCurve(
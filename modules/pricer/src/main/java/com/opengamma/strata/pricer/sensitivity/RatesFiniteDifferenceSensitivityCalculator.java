@@ -5,17 +5,26 @@
  */
 package com.opengamma.strata.pricer.sensitivity;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import org.joda.beans.MetaProperty;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Doubles;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.tuple.Pair;
 import com.opengamma.strata.market.curve.Curve;
@@ -39,6 +48,11 @@ import com.opengamma.strata.pricer.rate.RatesProvider;
  * <p>
  * This is based on an {@link ImmutableRatesProvider}, {@link LegalEntityDiscountingProvider} or {@link CreditRatesProvider}.
  * The sensitivities are calculated by finite difference.
+ * <p>
+ * The bumps of the curve parameters are independent of one another.
+ * By default they are run sequentially, but {@link #withExecutor(Executor)} can be used
+ * to run them in parallel. When computing the sensitivity of a portfolio, the list-based
+ * method builds each bumped rates provider once and values every trade against it.
  */
 public class RatesFiniteDifferenceSensitivityCalculator {
 
@@ -52,6 +66,10 @@ public class RatesFiniteDifferenceSensitivityCalculator {
    * The shift used for finite difference.
    */
   private final double shift;
+  /**
+   * The executor used to run the bumps, null to run on the calling thread.
+   */
+  private final Executor executor;
 
   /**
    * Create an instance of the finite difference calculator.
@@ -59,7 +77,27 @@ public class RatesFiniteDifferenceSensitivityCalculator {
    * @param shift  the shift used in the finite difference computation
    */
   public RatesFiniteDifferenceSensitivityCalculator(double shift) {
+    this(shift, null);
+  }
+
+  // creates an instance with an executor
+  private RatesFiniteDifferenceSensitivityCalculator(double shift, Executor executor) {
     this.shift = shift;
+    this.executor = executor;
+  }
+
+  /**
+   * Returns a copy of this calculator that runs the bumps using the specified executor.
+   * <p>
+   * Each bump of a curve parameter is independent, thus the bumps may be run in parallel.
+   * The calling thread blocks until all the bumps are complete.
+   * The value function must be thread-safe.
+   * 
+   * @param executor  the executor used to run the bumps
+   * @return the calculator
+   */
+  public RatesFiniteDifferenceSensitivityCalculator withExecutor(Executor executor) {
+    return new RatesFiniteDifferenceSensitivityCalculator(shift, ArgChecker.notNull(executor, "executor"));
   }
 
   //-------------------------------------------------------------------------
@@ -77,44 +115,83 @@ public class RatesFiniteDifferenceSensitivityCalculator {
       RatesProvider provider,
       Function<ImmutableRatesProvider, CurrencyAmount> valueFn) {
 
+    return sensitivity(provider, ImmutableList.of(valueFn), (fn, prov) -> fn.apply(prov)).get(0);
+  }
+
+  /**
+   * Computes the first order sensitivities of a function of a RatesProvider to a double by finite difference
+   * for each of a list of trades.
+   * <p>
+   * The finite difference is computed by forward type.
+   * Each bumped rates provider is built once and used to value every trade in the list.
+   * The function should return a value in the same currency for any rate provider.
+   * 
+   * @param <T>  the type of the trade
+   * @param provider  the rates provider
+   * @param trades  the trades
+   * @param valueFn  the function from a trade and rate provider to a currency amount for which the sensitivity
+   *   should be computed
+   * @return the curve sensitivity of each trade, in the same order as the trades
+   */
+  public <T> List<CurrencyParameterSensitivities> sensitivity(
+      RatesProvider provider,
+      List<T> trades,
+      BiFunction<? super T, ImmutableRatesProvider, CurrencyAmount> valueFn) {
+
     ImmutableRatesProvider immProv = provider.toImmutableRatesProvider();
-    CurrencyAmount valueInit = valueFn.apply(immProv);
-    CurrencyParameterSensitivities discounting = sensitivity(
+    List<CurrencyAmount> valuesInit = BumpTasks.run(executor, trades.size(), t -> valueFn.apply(trades.get(t), immProv));
+    List<CurrencyParameterSensitivities> discounting = sensitivity(
         immProv,
         immProv.getDiscountCurves(),
         (base, bumped) -> base.toBuilder().discountCurves(bumped).build(),
+        trades,
         valueFn,
-        valueInit);
-    CurrencyParameterSensitivities forward = sensitivity(
+        valuesInit);
+    List<CurrencyParameterSensitivities> forward = sensitivity(
         immProv,
         immProv.getIndexCurves(),
         (base, bumped) -> base.toBuilder().indexCurves(bumped).build(),
+        trades,
         valueFn,
-        valueInit);
-    return discounting.combinedWith(forward);
+        valuesInit);
+    return IntStream.range(0, trades.size())
+        .mapToObj(t -> discounting.get(t).combinedWith(forward.get(t)))
+        .collect(toImmutableList());
   }
 
-  // computes the sensitivity with respect to the curves
-  private <T> CurrencyParameterSensitivities sensitivity(
+  // computes the sensitivity of each trade with respect to the curves
+  private <T, K> List<CurrencyParameterSensitivities> sensitivity(
       ImmutableRatesProvider provider,
-      Map<T, Curve> baseCurves,
-      BiFunction<ImmutableRatesProvider, Map<T, Curve>, ImmutableRatesProvider> storeBumpedFn,
-      Function<ImmutableRatesProvider, CurrencyAmount> valueFn,
-      CurrencyAmount valueInit) {
+      Map<K, Curve> baseCurves,
+      BiFunction<ImmutableRatesProvider, Map<K, Curve>, ImmutableRatesProvider> storeBumpedFn,
+      List<T> trades,
+      BiFunction<? super T, ImmutableRatesProvider, CurrencyAmount> valueFn,
+      List<CurrencyAmount> valuesInit) {
 
-    CurrencyParameterSensitivities result = CurrencyParameterSensitivities.empty();
-    for (Entry<T, Curve> entry : baseCurves.entrySet()) {
+    int tradeCount = trades.size();
+    CurrencyParameterSensitivities[] result = new CurrencyParameterSensitivities[tradeCount];
+    Arrays.fill(result, CurrencyParameterSensitivities.empty());
+    for (Entry<K, Curve> entry : baseCurves.entrySet()) {
       Curve curve = entry.getValue();
-      DoubleArray sensitivity = DoubleArray.of(curve.getParameterCount(), i -> {
+      List<double[]> bumped = BumpTasks.run(executor, curve.getParameterCount(), i -> {
         Curve dscBumped = curve.withParameter(i, curve.getParameter(i) + shift);
-        Map<T, Curve> mapBumped = new HashMap<>(baseCurves);
+        Map<K, Curve> mapBumped = new HashMap<>(baseCurves);
         mapBumped.put(entry.getKey(), dscBumped);
         ImmutableRatesProvider providerDscBumped = storeBumpedFn.apply(provider, mapBumped);
-        return (valueFn.apply(providerDscBumped).getAmount() - valueInit.getAmount()) / shift;
+        double[] sensitivity = new double[tradeCount];
+        for (int t = 0; t < tradeCount; t++) {
+          double valueBumped = valueFn.apply(trades.get(t), providerDscBumped).getAmount();
+          sensitivity[t] = (valueBumped - valuesInit.get(t).getAmount()) / shift;
+        }
+        return sensitivity;
       });
-      result = result.combinedWith(curve.createParameterSensitivity(valueInit.getCurrency(), sensitivity));
+      for (int t = 0; t < tradeCount; t++) {
+        int tradeIndex = t;
+        DoubleArray sensitivity = DoubleArray.of(bumped.size(), i -> bumped.get(i)[tradeIndex]);
+        result[t] = result[t].combinedWith(curve.createParameterSensitivity(valuesInit.get(t).getCurrency(), sensitivity));
+      }
     }
-    return result;
+    return ImmutableList.copyOf(result);
   }
 
   //-------------------------------------------------------------------------
@@ -152,17 +229,15 @@ public class RatesFiniteDifferenceSensitivityCalculator {
     for (Pair<T, Currency> key : baseCurves.keySet()) {
       DiscountFactors discountFactors = baseCurves.get(key);
       Curve curve = checkDiscountFactors(discountFactors);
-      int paramCount = curve.getParameterCount();
-      double[] sensitivity = new double[paramCount];
-      for (int i = 0; i < paramCount; i++) {
+      List<Double> sensitivity = BumpTasks.run(executor, curve.getParameterCount(), i -> {
         Curve dscBumped = curve.withParameter(i, curve.getParameter(i) + shift);
         Map<Pair<T, Currency>, DiscountFactors> mapBumped = new HashMap<>(baseCurves);
         mapBumped.put(key, createDiscountFactors(discountFactors, dscBumped));
         ImmutableLegalEntityDiscountingProvider providerDscBumped = provider.toBuilder().set(metaProperty, mapBumped).build();
-        sensitivity[i] = (valueFn.apply(providerDscBumped).getAmount() - valueInit.getAmount()) / shift;
-      }
+        return (valueFn.apply(providerDscBumped).getAmount() - valueInit.getAmount()) / shift;
+      });
       result = result.combinedWith(
-          curve.createParameterSensitivity(valueInit.getCurrency(), DoubleArray.copyOf(sensitivity)));
+          curve.createParameterSensitivity(valueInit.getCurrency(), DoubleArray.copyOf(Doubles.toArray(sensitivity))));
     }
     return result;
   }
@@ -203,17 +278,15 @@ public class RatesFiniteDifferenceSensitivityCalculator {
       CreditDiscountFactors creditDiscountFactors = baseCurves.get(key);
       DiscountFactors discountFactors = creditDiscountFactors.toDiscountFactors();
       Curve curve = checkDiscountFactors(discountFactors);
-      int paramCount = curve.getParameterCount();
-      double[] sensitivity = new double[paramCount];
-      for (int i = 0; i < paramCount; i++) {
+      List<Double> sensitivity = BumpTasks.run(executor, curve.getParameterCount(), i -> {
         Curve dscBumped = curve.withParameter(i, curve.getParameter(i) + shift);
         Map<T, CreditDiscountFactors> mapBumped = new HashMap<>(baseCurves);
         mapBumped.put(key, createCreditDiscountFactors(creditDiscountFactors, dscBumped));
         ImmutableCreditRatesProvider providerDscBumped = provider.toBuilder().set(metaProperty, mapBumped).build();
-        sensitivity[i] = (valueFn.apply(providerDscBumped).getAmount() - valueInit.getAmount()) / shift;
-      }
+        return (valueFn.apply(providerDscBumped).getAmount() - valueInit.getAmount()) / shift;
+      });
       result = result.combinedWith(
-          curve.createParameterSensitivity(valueInit.getCurrency(), DoubleArray.copyOf(sensitivity)));
+          curve.createParameterSensitivity(valueInit.getCurrency(), DoubleArray.copyOf(Doubles.toArray(sensitivity))));
     }
     return result;
   }
@@ -231,18 +304,16 @@ public class RatesFiniteDifferenceSensitivityCalculator {
       CreditDiscountFactors creditDiscountFactors = credit.getSurvivalProbabilities();
       DiscountFactors discountFactors = creditDiscountFactors.toDiscountFactors();
       Curve curve = checkDiscountFactors(discountFactors);
-      int paramCount = curve.getParameterCount();
-      double[] sensitivity = new double[paramCount];
-      for (int i = 0; i < paramCount; i++) {
+      List<Double> sensitivity = BumpTasks.run(executor, curve.getParameterCount(), i -> {
         Curve dscBumped = curve.withParameter(i, curve.getParameter(i) + shift);
         Map<T, LegalEntitySurvivalProbabilities> mapBumped = new HashMap<>(baseCurves);
         mapBumped.put(key, LegalEntitySurvivalProbabilities.of(
             credit.getLegalEntityId(), createCreditDiscountFactors(creditDiscountFactors, dscBumped)));
         ImmutableCreditRatesProvider providerDscBumped = provider.toBuilder().set(metaProperty, mapBumped).build();
-        sensitivity[i] = (valueFn.apply(providerDscBumped).getAmount() - valueInit.getAmount()) / shift;
-      }
+        return (valueFn.apply(providerDscBumped).getAmount() - valueInit.getAmount()) / shift;
+      });
       result = result.combinedWith(
-          curve.createParameterSensitivity(valueInit.getCurrency(), DoubleArray.copyOf(sensitivity)));
+          curve.createParameterSensitivity(valueInit.getCurrency(), DoubleArray.copyOf(Doubles.toArray(sensitivity))));
     }
     return result;
   }
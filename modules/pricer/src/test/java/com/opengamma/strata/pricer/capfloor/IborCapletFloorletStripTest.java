@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.capfloor;
+
+import static com.opengamma.strata.basics.index.IborIndices.EUR_EURIBOR_3M;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static com.opengamma.strata.collect.TestHelper.dateUtc;
+import static com.opengamma.strata.product.common.PayReceive.PAY;
+import static com.opengamma.strata.product.common.PayReceive.RECEIVE;
+import static com.opengamma.strata.product.common.PutCall.CALL;
+import static com.opengamma.strata.product.common.PutCall.PUT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Offset.offset;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.opengamma.strata.basics.value.ValueSchedule;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.market.sensitivity.PointSensitivities;
+import com.opengamma.strata.market.sensitivity.PointSensitivityBuilder;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+import com.opengamma.strata.product.capfloor.IborCapletFloorletPeriod;
+import com.opengamma.strata.product.capfloor.ResolvedIborCapFloorLeg;
+
+/**
+ * Test {@link IborCapletFloorletStrip}.
+ */
+public class IborCapletFloorletStripTest {
+
+  private static final double STRIKE = 0.015;
+  private static final double NOTIONAL_VALUE = 100_000_000;
+  private static final LocalDate START = LocalDate.of(2011, 3, 17);
+  private static final LocalDate END = LocalDate.of(2016, 3, 17);
+  private static final ResolvedIborCapFloorLeg CAP = IborCapFloorDataSet.createCapFloorLeg(
+      EUR_EURIBOR_3M, START, END, ValueSchedule.of(STRIKE), ValueSchedule.of(NOTIONAL_VALUE), CALL, RECEIVE);
+  private static final ResolvedIborCapFloorLeg FLOOR = IborCapFloorDataSet.createCapFloorLeg(
+      EUR_EURIBOR_3M, START, END, ValueSchedule.of(STRIKE), ValueSchedule.of(NOTIONAL_VALUE), PUT, PAY);
+  // valuation between fixing of 3rd period and payment of 2nd period
+  private static final LocalDateDoubleTimeSeries TIME_SERIES = LocalDateDoubleTimeSeries.builder()
+      .put(date(2011, 6, 15), 0.012)
+      .put(date(2011, 9, 15), 0.0125)
+      .build();
+  private static final ZonedDateTime VALUATION = dateUtc(2011, 9, 16);
+  private static final ImmutableRatesProvider RATES = IborCapletFloorletSabrRateVolatilityDataSet.getRatesProvider(
+      VALUATION.toLocalDate(), EUR_EURIBOR_3M, TIME_SERIES);
+  private static final SabrParametersIborCapletFloorletVolatilities VOLS_SABR =
+      IborCapletFloorletSabrRateVolatilityDataSet.getVolatilities(VALUATION, EUR_EURIBOR_3M);
+  private static final BlackIborCapletFloorletExpiryStrikeVolatilities VOLS_BLACK =
+      IborCapletFloorletDataSet.createBlackVolatilities(VALUATION, EUR_EURIBOR_3M);
+
+  private static final VolatilityIborCapletFloorletPeriodPricer PRICER_BLACK = BlackIborCapletFloorletPeriodPricer.DEFAULT;
+  private static final SabrIborCapletFloorletPeriodPricer PRICER_SABR = SabrIborCapletFloorletPeriodPricer.DEFAULT;
+  private static final double TOL = 1.0e-14;
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_firstIndexAfter() {
+    IborCapletFloorletStrip test = IborCapletFloorletStrip.of(CAP, RATES, VOLS_BLACK);
+    assertThat(test.size()).isEqualTo(CAP.getCapletFloorletPeriods().size());
+    assertThat(test.firstIndexAfter(VALUATION.minusYears(1))).isEqualTo(0);
+    assertThat(test.firstIndexAfter(VALUATION)).isEqualTo(3);
+    assertThat(test.firstIndexAfter(CAP.getCapletFloorletPeriods().get(5).getFixingDateTime())).isEqualTo(6);
+    assertThat(test.firstIndexAfter(END.atStartOfDay(VALUATION.getZone()))).isEqualTo(test.size());
+  }
+
+  @Test
+  public void test_presentValue() {
+    for (ResolvedIborCapFloorLeg leg : new ResolvedIborCapFloorLeg[] {CAP, FLOOR}) {
+      IborCapletFloorletStrip test = IborCapletFloorletStrip.of(leg, RATES, VOLS_BLACK);
+      for (int split = 0; split <= test.size(); split += 4) {
+        double expectedBlack = 0d;
+        double expectedSabr = 0d;
+        for (int i = split; i < test.size(); ++i) {
+          IborCapletFloorletPeriod period = leg.getCapletFloorletPeriods().get(i);
+          expectedBlack += PRICER_BLACK.presentValue(period, RATES, VOLS_BLACK).getAmount();
+          expectedSabr += PRICER_SABR.presentValue(period, RATES, VOLS_SABR).getAmount();
+        }
+        assertThat(test.presentValue(VOLS_BLACK, split, test.size())).isCloseTo(expectedBlack, offset(NOTIONAL_VALUE * TOL));
+        assertThat(test.presentValue(VOLS_SABR, split, test.size())).isCloseTo(expectedSabr, offset(NOTIONAL_VALUE * TOL));
+      }
+    }
+  }
+
+  @Test
+  public void test_presentValueSensitivityModelParamsVolatility() {
+    IborCapletFloorletStrip test = IborCapletFloorletStrip.of(FLOOR, RATES, VOLS_BLACK);
+    PointSensitivityBuilder expected = PointSensitivityBuilder.none();
+    for (IborCapletFloorletPeriod period : FLOOR.getCapletFloorletPeriods()) {
+      expected = expected.combinedWith(PRICER_BLACK.presentValueSensitivityModelParamsVolatility(period, RATES, VOLS_BLACK));
+    }
+    PointSensitivities computed = test.presentValueSensitivityModelParamsVolatility(VOLS_BLACK, 0, test.size());
+    assertThat(computed.equalWithTolerance(expected.build(), NOTIONAL_VALUE * TOL)).isTrue();
+    assertThat(VOLS_BLACK.parameterSensitivity(computed).equalWithTolerance(
+        VOLS_BLACK.parameterSensitivity(expected.build()), NOTIONAL_VALUE * TOL)).isTrue();
+  }
+
+  @Test
+  public void test_presentValueSensitivityModelParamsSabr() {
+    IborCapletFloorletStrip test = IborCapletFloorletStrip.of(CAP, RATES, VOLS_SABR);
+    PointSensitivityBuilder expected = PointSensitivityBuilder.none();
+    for (IborCapletFloorletPeriod period : CAP.getCapletFloorletPeriods()) {
+      expected = expected.combinedWith(PRICER_SABR.presentValueSensitivityModelParamsSabr(period, RATES, VOLS_SABR));
+    }
+    PointSensitivities computed = test.presentValueSensitivityModelParamsSabr(VOLS_SABR, 0, test.size());
+    assertThat(VOLS_SABR.parameterSensitivity(computed).equalWithTolerance(
+        VOLS_SABR.parameterSensitivity(expected.build()), NOTIONAL_VALUE * TOL)).isTrue();
+  }
+
+}
@@ -12,6 +12,8 @@ import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException
 import static org.assertj.core.data.Offset.offset;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.Test;
 
@@ -123,6 +125,34 @@ public class SabrIborCapletFloorletVolatilityBootstrapperTest extends CapletStri
     assertThat(resVols.getParameters().getRhoCurve()).isEqualTo(definition.getRhoCurve().get());
   }
 
+  @Test
+  public void test_withExecutor() {
+    SabrIborCapletFloorletVolatilityBootstrapDefinition definition =
+        SabrIborCapletFloorletVolatilityBootstrapDefinition.ofFixedBeta(
+            IborCapletFloorletVolatilitiesName.of("test"),
+            USD_LIBOR_3M,
+            ACT_ACT_ISDA,
+            0.85,
+            CurveInterpolators.STEP_UPPER,
+            CurveExtrapolators.FLAT,
+            CurveExtrapolators.FLAT,
+            SabrHaganVolatilityFunctionProvider.DEFAULT);
+    DoubleMatrix volData = createFullBlackDataMatrix();
+    DoubleMatrix error = DoubleMatrix.filled(volData.rowCount(), volData.columnCount(), 1.0e-3);
+    RawOptionData data = RawOptionData.of(
+        createBlackMaturities(), createBlackStrikes(), ValueType.STRIKE, volData, error, ValueType.BLACK_VOLATILITY);
+    IborCapletFloorletVolatilityCalibrationResult expected =
+        CALIBRATOR.calibrate(definition, CALIBRATION_TIME, data, RATES_PROVIDER);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      IborCapletFloorletVolatilityCalibrationResult computed =
+          CALIBRATOR.withExecutor(executor).calibrate(definition, CALIBRATION_TIME, data, RATES_PROVIDER);
+      assertThat(computed).isEqualTo(expected);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void test_invalid_data() {
     SabrIborCapletFloorletVolatilityBootstrapDefinition definition =
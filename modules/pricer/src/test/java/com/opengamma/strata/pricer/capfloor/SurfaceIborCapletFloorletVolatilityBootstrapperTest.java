@@ -16,6 +16,8 @@ import static org.assertj.core.data.Offset.offset;
 import java.time.Period;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.Test;
 
@@ -280,6 +282,24 @@ public class SurfaceIborCapletFloorletVolatilityBootstrapperTest extends CapletS
     assertThat(res.getChiSquare()).isEqualTo(0d);
   }
 
+  @Test
+  public void test_withExecutor() {
+    SurfaceIborCapletFloorletVolatilityBootstrapDefinition definition = SurfaceIborCapletFloorletVolatilityBootstrapDefinition.of(
+        IborCapletFloorletVolatilitiesName.of("test"), USD_LIBOR_3M, ACT_ACT_ISDA, LINEAR, DOUBLE_QUADRATIC);
+    RawOptionData data = RawOptionData.of(
+        createBlackMaturities(), createBlackStrikes(), ValueType.STRIKE, createFullBlackDataMatrix(), ValueType.BLACK_VOLATILITY);
+    IborCapletFloorletVolatilityCalibrationResult expected =
+        CALIBRATOR.calibrate(definition, CALIBRATION_TIME, data, RATES_PROVIDER);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      IborCapletFloorletVolatilityCalibrationResult computed =
+          CALIBRATOR.withExecutor(executor).calibrate(definition, CALIBRATION_TIME, data, RATES_PROVIDER);
+      assertThat(computed).isEqualTo(expected);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   //-------------------------------------------------------------------------
   // remove null for one-dimensional bootstrapping
   private Pair<List<Period>, DoubleMatrix> trimData(List<Period> expiries, DoubleMatrix vols) {
@@ -162,6 +162,17 @@ public class SabrExtrapolationReplicationCmsLegPricerTest {
     assertThat(computed.getAmount()).isCloseTo(expected, offset(NOTIONAL_VALUE_0 * TOL));
   }
 
+  @Test
+  public void test_presentValue_gaussLegendre() {
+    SabrExtrapolationReplicationCmsLegPricer pricerGl =
+        new SabrExtrapolationReplicationCmsLegPricer(PERIOD_PRICER, CmsReplicationIntegration.GAUSS_LEGENDRE);
+    for (ResolvedCmsLeg leg : new ResolvedCmsLeg[] {CAP_LEG, FLOOR_LEG, COUPON_LEG}) {
+      CurrencyAmount computed = pricerGl.presentValue(leg, RATES_PROVIDER, VOLATILITIES);
+      CurrencyAmount expected = LEG_PRICER.presentValue(leg, RATES_PROVIDER, VOLATILITIES);
+      assertThat(computed.getAmount()).isCloseTo(expected.getAmount(), offset(NOTIONAL_VALUE_0 * 1.0e-8));
+    }
+  }
+
   @Test
   public void test_presentValue_afterPay() {
     CurrencyAmount computed = LEG_PRICER.presentValue(FLOOR_LEG, RATES_PROVIDER_AFTER_PERIOD, VOLATILITIES_AFTER_PERIOD);
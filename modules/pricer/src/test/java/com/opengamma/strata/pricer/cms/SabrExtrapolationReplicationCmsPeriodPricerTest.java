@@ -43,6 +43,7 @@ import com.opengamma.strata.pricer.swaption.SabrParametersSwaptionVolatilities;
 import com.opengamma.strata.pricer.swaption.SwaptionSabrRateVolatilityDataSet;
 import com.opengamma.strata.pricer.swaption.SwaptionVolatilitiesName;
 import com.opengamma.strata.product.cms.CmsPeriod;
+import com.opengamma.strata.product.cms.CmsPeriodType;
 import com.opengamma.strata.product.common.BuySell;
 import com.opengamma.strata.product.common.PutCall;
 import com.opengamma.strata.product.swap.ResolvedSwap;
@@ -768,6 +769,63 @@ public class SabrExtrapolationReplicationCmsPeriodPricerTest {
     return swap.resolve(REF_DATA);
   }
 
+  //-------------------------------------------------------------------------
+  private static final SabrExtrapolationReplicationCmsPeriodPricer PRICER_GL =
+      PRICER.withIntegration(CmsReplicationIntegration.GAUSS_LEGENDRE);
+  private static final LocalDate VALUATION_SHORT = LocalDate.of(2020, 1, 24);
+  private static final ImmutableRatesProvider RATES_PROVIDER_SHORT =
+      SwaptionSabrRateVolatilityDataSet.getRatesProviderEur(VALUATION_SHORT);
+  private static final SabrParametersSwaptionVolatilities VOLATILITIES_SHORT =
+      SwaptionSabrRateVolatilityDataSet.getVolatilitiesEur(VALUATION_SHORT, true);
+  private static final double TOL_GL = 1.0e-8;
+
+  @Test
+  public void test_integration() {
+    assertThat(PRICER.getIntegration()).isEqualTo(CmsReplicationIntegration.ADAPTIVE);
+    assertThat(PRICER_GL.getIntegration()).isEqualTo(CmsReplicationIntegration.GAUSS_LEGENDRE);
+    assertThat(PRICER.withIntegration(CmsReplicationIntegration.ADAPTIVE)).isSameAs(PRICER);
+    assertThat(SabrExtrapolationReplicationCmsPeriodPricer.of(
+        PRICER_SWAP, CUT_OFF_STRIKE, MU, CmsReplicationIntegration.GAUSS_LEGENDRE).getIntegration())
+            .isEqualTo(CmsReplicationIntegration.GAUSS_LEGENDRE);
+    assertThat(CmsReplicationIntegration.of("GaussLegendre")).isEqualTo(CmsReplicationIntegration.GAUSS_LEGENDRE);
+    assertThat(CmsReplicationIntegration.ADAPTIVE.toString()).isEqualTo("Adaptive");
+  }
+
+  @Test
+  public void test_gaussLegendre_vsAdaptive() {
+    CmsPeriod[] periods = {COUPON, CAPLET, FLOORLET, COUPON_SELL, CAPLET_ZERO, FLOORLET_ZERO};
+    CmsPeriod[] periodsShift = {COUPON, CAPLET, FLOORLET, CAPLET_NEGATIVE, FLOORLET_NEGATIVE, CAPLET_SHIFT};
+    for (CmsPeriod period : periods) {
+      assertGaussLegendre(period, RATES_PROVIDER, VOLATILITIES);
+    }
+    for (CmsPeriod period : periodsShift) {
+      assertGaussLegendre(period, RATES_PROVIDER, VOLATILITIES_SHIFT);
+      assertGaussLegendre(period, RATES_PROVIDER_SHORT, VOLATILITIES_SHORT);
+      assertGaussLegendre(period, RATES_PROVIDER_ON_FIX, VOLATILITIES_ON_FIX);
+    }
+  }
+
+  // checks the Gauss-Legendre integration against the adaptive integration
+  private void assertGaussLegendre(CmsPeriod period, RatesProvider provider, SabrParametersSwaptionVolatilities vols) {
+    double scale = NOTIONAL * period.getYearFraction();
+    double pv = PRICER.presentValue(period, provider, vols).getAmount();
+    double pvGl = PRICER_GL.presentValue(period, provider, vols).getAmount();
+    assertThat(pvGl).isCloseTo(pv, offset(scale * TOL_GL));
+    CurrencyParameterSensitivities sensi =
+        provider.parameterSensitivity(PRICER.presentValueSensitivityRates(period, provider, vols).build());
+    CurrencyParameterSensitivities sensiGl =
+        provider.parameterSensitivity(PRICER_GL.presentValueSensitivityRates(period, provider, vols).build());
+    assertThat(sensiGl.equalWithTolerance(sensi, scale * TOL_GL * 10d)).isTrue();
+    PointSensitivities sabr = PRICER.presentValueSensitivityModelParamsSabr(period, provider, vols).build();
+    PointSensitivities sabrGl = PRICER_GL.presentValueSensitivityModelParamsSabr(period, provider, vols).build();
+    assertThat(sabrGl.equalWithTolerance(sabr, scale * 1.0e-4)).isTrue();
+    if (!period.getCmsPeriodType().equals(CmsPeriodType.COUPON)) {
+      double strike = PRICER.presentValueSensitivityStrike(period, provider, vols);
+      double strikeGl = PRICER_GL.presentValueSensitivityStrike(period, provider, vols);
+      assertThat(strikeGl).isCloseTo(strike, offset(scale * 1.0e-5));
+    }
+  }
+
   //-------------------------------------------------------------------------
   private static final double TOLERANCE_K_P = 1.0E-8;
   private static final double TOLERANCE_K_PP = 1.0E-4;
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.credit;
+
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.collect.TestHelper.coverBeanEquals;
+import static com.opengamma.strata.collect.TestHelper.coverImmutableBean;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.curve.CurveName;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
+
+/**
+ * Test {@link CreditEntityRisk}.
+ */
+public class CreditEntityRiskTest {
+
+  private static final StandardId ID_ABC = StandardId.of("OG", "ABC");
+  private static final StandardId ID_DEF = StandardId.of("OG", "DEF");
+  private static final CurveName NAME = CurveName.of("impliedSpreads");
+  private static final CurrencyParameterSensitivity CS01_USD =
+      CurrencyParameterSensitivity.of(NAME, USD, DoubleArray.of(1d, 2d));
+  private static final CurrencyParameterSensitivity CS01_GBP =
+      CurrencyParameterSensitivity.of(NAME, GBP, DoubleArray.of(3d));
+
+  @Test
+  public void test_of() {
+    CreditEntityRisk test = CreditEntityRisk.of(
+        ID_ABC, USD, CS01_USD, CurrencyAmount.of(USD, 3d), CurrencyAmount.of(USD, 4d), CurrencyAmount.of(USD, 5d));
+    assertThat(test.getLegalEntityId()).isEqualTo(ID_ABC);
+    assertThat(test.getCurrency()).isEqualTo(USD);
+    assertThat(test.getBucketedCs01()).isEqualTo(CS01_USD);
+    assertThat(test.getParallelCs01()).isEqualTo(CurrencyAmount.of(USD, 3d));
+    assertThat(test.getRecovery01()).isEqualTo(CurrencyAmount.of(USD, 4d));
+    assertThat(test.getJumpToDefault()).isEqualTo(CurrencyAmount.of(USD, 5d));
+  }
+
+  @Test
+  public void test_of_currencyMismatch() {
+    assertThatIllegalArgumentException().isThrownBy(() -> CreditEntityRisk.of(
+        ID_ABC, USD, CS01_GBP, CurrencyAmount.of(USD, 3d), CurrencyAmount.of(USD, 4d), CurrencyAmount.of(USD, 5d)));
+    assertThatIllegalArgumentException().isThrownBy(() -> CreditEntityRisk.of(
+        ID_ABC, USD, CS01_USD, CurrencyAmount.of(USD, 3d), CurrencyAmount.of(USD, 4d), CurrencyAmount.of(GBP, 5d)));
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void coverage() {
+    CreditEntityRisk test = CreditEntityRisk.of(
+        ID_ABC, USD, CS01_USD, CurrencyAmount.of(USD, 3d), CurrencyAmount.of(USD, 4d), CurrencyAmount.of(USD, 5d));
+    coverImmutableBean(test);
+    CreditEntityRisk test2 = CreditEntityRisk.of(
+        ID_DEF, GBP, CS01_GBP, CurrencyAmount.of(GBP, 6d), CurrencyAmount.of(GBP, 7d), CurrencyAmount.of(GBP, 8d));
+    coverBeanEquals(test, test2);
+  }
+
+}
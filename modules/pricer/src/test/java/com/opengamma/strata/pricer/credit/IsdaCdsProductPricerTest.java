@@ -857,6 +857,87 @@ public class IsdaCdsProductPricerTest {
     assertThat(computed.getAmount()).isCloseTo(expected, offset(NOTIONAL * TOL));
   }
 
+  //-------------------------------------------------------------------------
+  @Test
+  public void legGridTest() {
+    StandardId entitySameNodes = StandardId.of("OG", "DEF");
+    StandardId entityOtherNodes = StandardId.of("OG", "GHI");
+    CreditDiscountFactors ccSameNodes = IsdaCreditDiscountFactors.of(USD, VALUATION_DATE,
+        NODAL_CC.withYValues(RATE_CC.multipliedBy(1.5)));
+    CreditDiscountFactors ccOtherNodes = IsdaCreditDiscountFactors.of(USD, VALUATION_DATE, InterpolatedNodalCurve.of(
+        METADATA_CC, TIME_CC.subArray(1), RATE_CC.subArray(1),
+        CurveInterpolators.PRODUCT_LINEAR, CurveExtrapolators.FLAT, CurveExtrapolators.PRODUCT_LINEAR));
+    ImmutableCreditRatesProvider provider = ImmutableCreditRatesProvider.builder()
+        .valuationDate(VALUATION_DATE)
+        .creditCurves(ImmutableMap.of(
+            Pair.of(LEGAL_ENTITY, USD), LegalEntitySurvivalProbabilities.of(LEGAL_ENTITY, CREDIT_CRVE),
+            Pair.of(entitySameNodes, USD), LegalEntitySurvivalProbabilities.of(entitySameNodes, ccSameNodes),
+            Pair.of(entityOtherNodes, USD), LegalEntitySurvivalProbabilities.of(entityOtherNodes, ccOtherNodes)))
+        .discountCurves(ImmutableMap.of(USD, YIELD_CRVE))
+        .recoveryRateCurves(ImmutableMap.of(
+            LEGAL_ENTITY, RECOVERY_RATES,
+            entitySameNodes, ConstantRecoveryRates.of(entitySameNodes, VALUATION_DATE, 0.4),
+            entityOtherNodes, ConstantRecoveryRates.of(entityOtherNodes, VALUATION_DATE, 0.35)))
+        .build();
+    ResolvedCds productSameNodes = Cds.of(SELL, entitySameNodes, USD, 2d * NOTIONAL, LocalDate.of(2014, 1, 4),
+        LocalDate.of(2020, 10, 20), Frequency.P3M, CALENDAR, 0.01).resolve(REF_DATA);
+    ResolvedCds productOtherNodes = Cds.of(BUY, entityOtherNodes, USD, NOTIONAL, LocalDate.of(2014, 1, 4),
+        LocalDate.of(2020, 10, 20), Frequency.P3M, CALENDAR, 0.01).resolve(REF_DATA);
+    ResolvedCds productExpired = Cds.of(BUY, LEGAL_ENTITY, USD, NOTIONAL, LocalDate.of(2012, 1, 4),
+        LocalDate.of(2013, 10, 20), Frequency.P3M, CALENDAR, 0.01).resolve(REF_DATA);
+    LocalDate settle = PRODUCT_NEXTDAY.getSettlementDateOffset().adjust(VALUATION_DATE, REF_DATA);
+
+    IsdaCdsLegGrid grid = PRICER.legGrid(PRODUCT_NEXTDAY, provider, REF_DATA);
+    assertThat(grid.getValuationDate()).isEqualTo(VALUATION_DATE);
+    assertThat(grid.getStepinDate()).isEqualTo(PRODUCT_NEXTDAY.getStepinDateOffset().adjust(VALUATION_DATE, REF_DATA));
+    assertThat(grid.toString()).contains("2020-10-20");
+    for (PriceType priceType : PriceType.values()) {
+      for (IsdaCdsProductPricer pricer : new IsdaCdsProductPricer[] {PRICER, PRICER_FIX, PRICER_CORRECT}) {
+        assertThat(pricer.price(PRODUCT_NEXTDAY, provider, grid, settle, priceType))
+            .isEqualTo(pricer.price(PRODUCT_NEXTDAY, provider, settle, priceType, REF_DATA));
+        assertThat(pricer.presentValue(productSameNodes, provider, grid, settle, priceType))
+            .isEqualTo(pricer.presentValue(productSameNodes, provider, settle, priceType, REF_DATA));
+      }
+    }
+    assertThat(PRICER.price(productExpired, provider, grid, settle, CLEAN)).isEqualTo(0d);
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> PRICER.price(productOtherNodes, provider, grid, settle, CLEAN));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> PRICER.price(PRODUCT_AFTER, RATES_PROVIDER, grid, settle, CLEAN));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> PRICER.legGrid(productExpired, provider, REF_DATA));
+    // credit curve with the same nodes, but a different day count
+    CreditDiscountFactors ccOtherDayCount = IsdaCreditDiscountFactors.of(USD, VALUATION_DATE,
+        NODAL_CC.withMetadata(METADATA_CC.toBuilder().dayCount(ACT_360).build()));
+    ImmutableCreditRatesProvider providerOtherDayCount = provider.toBuilder()
+        .creditCurves(ImmutableMap.of(
+            Pair.of(LEGAL_ENTITY, USD), LegalEntitySurvivalProbabilities.of(LEGAL_ENTITY, ccOtherDayCount)))
+        .build();
+    assertThat(grid.isApplicable(PRODUCT_NEXTDAY, provider.discountFactors(USD),
+        provider.survivalProbabilities(LEGAL_ENTITY, USD))).isTrue();
+    assertThat(grid.isApplicable(PRODUCT_NEXTDAY, providerOtherDayCount.discountFactors(USD),
+        providerOtherDayCount.survivalProbabilities(LEGAL_ENTITY, USD))).isFalse();
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> PRICER.price(PRODUCT_NEXTDAY, providerOtherDayCount, grid, settle, CLEAN));
+
+    // portfolio, with different schedules and nodes
+    List<ResolvedCds> portfolio = new ArrayList<>();
+    portfolio.add(PRODUCT_NEXTDAY);
+    portfolio.add(productSameNodes);
+    portfolio.add(productOtherNodes);
+    portfolio.add(PRODUCT_AFTER);
+    portfolio.add(productExpired);
+    portfolio.add(PRODUCT_BEFORE);
+    portfolio.add(productSameNodes);
+    List<CurrencyAmount> computed = PRICER.presentValue(portfolio, provider, settle, DIRTY, REF_DATA);
+    assertThat(computed).hasSize(portfolio.size());
+    for (int i = 0; i < portfolio.size(); i++) {
+      assertThat(computed.get(i))
+          .isEqualTo(PRICER.presentValue(portfolio.get(i), provider, settle, DIRTY, REF_DATA));
+    }
+    assertThat(PRICER.presentValue(Collections.emptyList(), provider, settle, DIRTY, REF_DATA)).isEmpty();
+  }
+
   //-------------------------------------------------------------------------
   private CreditRatesProvider createCreditRatesProvider(LocalDate valuationDate) {
     IsdaCreditDiscountFactors yc = IsdaCreditDiscountFactors.of(USD, valuationDate, NODAL_YC);
@@ -18,6 +18,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,6 +33,8 @@ import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
 import com.opengamma.strata.basics.date.DayCount;
 import com.opengamma.strata.basics.date.Tenor;
 import com.opengamma.strata.basics.index.Index;
+import com.opengamma.strata.collect.metrics.AggregatingMetricsListener;
+import com.opengamma.strata.collect.metrics.Metrics;
 import com.opengamma.strata.data.ImmutableMarketData;
 import com.opengamma.strata.data.ImmutableMarketDataBuilder;
 import com.opengamma.strata.data.MarketData;
@@ -211,6 +214,20 @@ public class CalibrationDiscountingSimple1Test {
     }
   }
 
+  @Test
+  public void calibration_metrics() {
+    AggregatingMetricsListener metrics = new AggregatingMetricsListener();
+    try {
+      Metrics.register(metrics);
+      CALIBRATOR.calibrate(CURVE_GROUP_DEFN, ALL_QUOTES, REF_DATA);
+    } finally {
+      Metrics.unregister();
+    }
+    Map<String, LongSummaryStatistics> stats = metrics.getStatistics();
+    assertThat(stats.get("calibration:" + CURVE_GROUP_NAME_STR).getCount()).isEqualTo(1);
+    assertThat(stats.get("calibrationEvaluations:" + CURVE_GROUP_NAME_STR).getSum()).isGreaterThan(0);
+  }
+
   //-------------------------------------------------------------------------
   @Disabled
   void performance() {
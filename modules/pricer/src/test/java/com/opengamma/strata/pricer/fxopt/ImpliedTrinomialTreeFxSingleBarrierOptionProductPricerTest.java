@@ -372,6 +372,57 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricerTest {
     }
   }
 
+  @Test
+  public void test_calibrateTrinomialTree_cache() {
+    ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer pricer =
+        new ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer(39, 128);
+    RecombiningTrinomialTreeData treeData = pricer.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER, VOLS);
+    assertThat(treeData).isEqualTo(DATA_39);
+    // same expiry and market data, including a provider that is equal but not the same instance
+    assertThat(pricer.calibrateTrinomialTree(CALL_UKI_C, RATE_PROVIDER, VOLS)).isSameAs(treeData);
+    assertThat(pricer.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER.toBuilder().build(), VOLS)).isSameAs(treeData);
+    // different market data
+    RecombiningTrinomialTreeData treeDataFlat = pricer.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER_FLAT, VOLS_FLAT);
+    assertThat(treeDataFlat).isNotEqualTo(treeData);
+    assertThat(pricer.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER_FLAT, VOLS_FLAT)).isSameAs(treeDataFlat);
+    // results match pricing with the explicit tree
+    assertThat(pricer.presentValue(CALL_DKO, RATE_PROVIDER, VOLS))
+        .isEqualTo(pricer.presentValue(CALL_DKO, RATE_PROVIDER, VOLS, DATA_39));
+    assertThat(pricer.presentValueSensitivityRates(CALL_DKO, RATE_PROVIDER, VOLS))
+        .isEqualTo(pricer.presentValueSensitivityRates(CALL_DKO, RATE_PROVIDER, VOLS, DATA_39));
+  }
+
+  @Test
+  public void test_calibrateTrinomialTree_noCache() {
+    ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer pricer =
+        new ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer(39, 0);
+    RecombiningTrinomialTreeData treeData = pricer.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER, VOLS);
+    assertThat(treeData).isEqualTo(DATA_39);
+    assertThat(pricer.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER, VOLS)).isNotSameAs(treeData);
+    // caching is opt-in
+    ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer pricerSteps =
+        new ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer(39);
+    assertThat(pricerSteps.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER, VOLS))
+        .isNotSameAs(pricerSteps.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER, VOLS));
+    ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer pricerDefault =
+        ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer.DEFAULT;
+    assertThat(pricerDefault.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER, VOLS))
+        .isNotSameAs(pricerDefault.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER, VOLS));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> new ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer(39, -1));
+  }
+
+  @Test
+  public void test_calibrateTrinomialTree_cacheEviction() {
+    ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer pricer =
+        new ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer(39, 1);
+    RecombiningTrinomialTreeData treeData = pricer.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER, VOLS);
+    assertThat(pricer.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER, VOLS)).isSameAs(treeData);
+    pricer.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER_FLAT, VOLS_FLAT);
+    RecombiningTrinomialTreeData recalibrated = pricer.calibrateTrinomialTree(CALL_DKO, RATE_PROVIDER, VOLS);
+    assertThat(recalibrated).isNotSameAs(treeData).isEqualTo(treeData);
+  }
+
   //-------------------------------------------------------------------------
   private void assertEqualsRelative(double computed, double expected, double relTol) {
     assertThat(computed).isCloseTo(expected, offset(Math.max(1d, Math.abs(expected)) * relTol));
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.data.Offset.offset;
+
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParameters;
+
+/**
+ * Test {@link HullWhiteOneFactorPathGenerator}.
+ */
+public class HullWhiteOneFactorPathGeneratorTest {
+
+  private static final double MEAN_REVERSION = 0.05;
+  private static final double VOL = 0.012;
+  private static final HullWhiteOneFactorPiecewiseConstantParameters PARAMETERS =
+      HullWhiteOneFactorPiecewiseConstantParameters.of(
+          MEAN_REVERSION, DoubleArray.of(VOL, 0.008, 0.01), DoubleArray.of(1d, 3d));
+  private static final Function<Double, Double> INTEREST_RATE = t -> 0.02 + 0.002 * t;
+  private static final DoubleArray TIMES = DoubleArray.of(40, i -> 0.125 * (i + 1));
+
+  @Test
+  public void test_discountFactor_martingale() {
+    HullWhiteOneFactorPathGenerator generator = HullWhiteOneFactorPathGenerator.of(TIMES, PARAMETERS, INTEREST_RATE);
+    assertThat(generator.isTangentSupported()).isFalse();
+    assertThat(generator.getTimes()).isEqualTo(TIMES);
+    int last = TIMES.size() - 1;
+    double expiry = TIMES.get(last);
+    // a zero-coupon bond paying at the last time
+    PathPayoff bond = (values, discountFactors) -> discountFactors[last];
+    MonteCarloResult test = MonteCarloEngine.ofPseudoRandom(50_000, 1L).presentValue(generator, bond);
+    double expected = Math.exp(-INTEREST_RATE.apply(expiry) * expiry);
+    assertThat(test.getPresentValue()).isCloseTo(expected, offset(3d * test.getStandardError()));
+    assertThat(test.getStandardError()).isGreaterThan(0d);
+    MonteCarloResult sobol = MonteCarloEngine.ofSobol(20_000).presentValue(generator, bond);
+    assertThat(sobol.getPresentValue()).isCloseTo(expected, offset(1e-4));
+  }
+
+  @Test
+  public void test_stateVariance() {
+    double expiry = 1d;
+    HullWhiteOneFactorPathGenerator generator =
+        HullWhiteOneFactorPathGenerator.of(DoubleArray.of(0.25, 0.5, expiry), PARAMETERS, INTEREST_RATE);
+    PathPayoff stateSquared = (values, discountFactors) -> values[2] * values[2];
+    MonteCarloResult test = MonteCarloEngine.ofSobol(20_000).presentValue(generator, stateSquared);
+    double expected = VOL * VOL * (1d - Math.exp(-2d * MEAN_REVERSION * expiry)) / (2d * MEAN_REVERSION);
+    assertThat(test.getPresentValue()).isCloseTo(expected, offset(expected * 1e-3));
+  }
+
+  @Test
+  public void test_tangentsUnsupported() {
+    HullWhiteOneFactorPathGenerator generator = HullWhiteOneFactorPathGenerator.of(TIMES, PARAMETERS, INTEREST_RATE);
+    double[] array = new double[TIMES.size()];
+    assertThatExceptionOfType(UnsupportedOperationException.class)
+        .isThrownBy(() -> generator.generatePath(array, 0, array, new double[TIMES.size()], new double[TIMES.size()]));
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Offset.offset;
+
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.opengamma.strata.basics.value.ValueDerivatives;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.surface.ConstantSurface;
+import com.opengamma.strata.market.surface.DefaultSurfaceMetadata;
+import com.opengamma.strata.market.surface.DeformedSurface;
+import com.opengamma.strata.pricer.impl.option.BlackFormulaRepository;
+import com.opengamma.strata.pricer.impl.volatility.local.DupireLocalVolatilityCalculator;
+import com.opengamma.strata.product.common.PutCall;
+
+/**
+ * Test {@link LocalVolatilityPathGenerator}.
+ */
+public class LocalVolatilityPathGeneratorTest {
+
+  private static final double SPOT = 1.25;
+  private static final double VOL = 0.15;
+  private static final double EXPIRY = 1d;
+  private static final Function<Double, Double> INTEREST_RATE = t -> 0.02;
+  private static final Function<Double, Double> DIVIDEND_RATE = t -> 0.005;
+  private static final DoubleArray TIMES = DoubleArray.of(24, i -> EXPIRY * (i + 1) / 24);
+
+  @Test
+  public void test_flatVolatility_matchesBlack() {
+    DeformedSurface localVol = new DupireLocalVolatilityCalculator().localVolatilityFromImpliedVolatility(
+        ConstantSurface.of("impliedVol", VOL), SPOT, INTEREST_RATE, DIVIDEND_RATE);
+    LocalVolatilityPathGenerator generator =
+        LocalVolatilityPathGenerator.of(TIMES, SPOT, localVol, INTEREST_RATE, DIVIDEND_RATE);
+    BlackPathGenerator black = BlackPathGenerator.of(TIMES, SPOT, VOL, INTEREST_RATE, DIVIDEND_RATE);
+    // flat local volatility is exact, thus the paths are the same
+    double[] normals = new double[TIMES.size()];
+    for (int i = 0; i < normals.length; i++) {
+      normals[i] = Math.sin(i + 1d);
+    }
+    double[] values = new double[TIMES.size()];
+    double[] blackValues = new double[TIMES.size()];
+    double[] discountFactors = new double[TIMES.size()];
+    double[] blackDiscountFactors = new double[TIMES.size()];
+    double[] tangents = new double[TIMES.size()];
+    double[] blackTangents = new double[TIMES.size()];
+    generator.generatePath(normals, 0, values, discountFactors, tangents);
+    black.generatePath(normals, 0, blackValues, blackDiscountFactors, blackTangents);
+    for (int i = 0; i < TIMES.size(); i++) {
+      assertThat(values[i]).isCloseTo(blackValues[i], offset(1e-12));
+      assertThat(discountFactors[i]).isCloseTo(blackDiscountFactors[i], offset(1e-15));
+      assertThat(tangents[i]).isCloseTo(blackTangents[i], offset(1e-12));
+    }
+    // price
+    double strike = 1.3;
+    double forward = SPOT * Math.exp(0.015 * EXPIRY);
+    double expected = Math.exp(-0.02 * EXPIRY) * BlackFormulaRepository.price(forward, strike, EXPIRY, VOL, true);
+    MonteCarloResult test = MonteCarloEngine.ofSobol(10_000)
+        .presentValue(generator, VanillaOptionPathPayoff.of(strike, PutCall.CALL));
+    assertThat(test.getPresentValue()).isCloseTo(expected, offset(2e-4));
+  }
+
+  @Test
+  public void test_skew_deltaMatchesFiniteDifference() {
+    // local volatility decreasing with the strike, independent of the spot
+    DeformedSurface localVol = DeformedSurface.of(
+        DefaultSurfaceMetadata.of("localVol"),
+        ConstantSurface.of("base", VOL),
+        point -> ValueDerivatives.of(VOL * (1d - 0.8 * (point.getSecond() - SPOT)), DoubleArray.of(1d)));
+    Function<Double, LocalVolatilityPathGenerator> generator = spot -> LocalVolatilityPathGenerator.of(
+        TIMES, spot, localVol, INTEREST_RATE, DIVIDEND_RATE);
+    VanillaOptionPathPayoff payoff = VanillaOptionPathPayoff.of(1.3, PutCall.CALL);
+    MonteCarloEngine engine = MonteCarloEngine.ofSobol(20_000);
+    MonteCarloResult test = engine.presentValueWithDelta(generator.apply(SPOT), payoff);
+    double shift = 1e-4;
+    double up = engine.presentValue(generator.apply(SPOT + shift), payoff).getPresentValue();
+    double down = engine.presentValue(generator.apply(SPOT - shift), payoff).getPresentValue();
+    assertThat(test.getDelta().getAsDouble()).isCloseTo((up - down) / (2d * shift), offset(5e-3));
+  }
+
+}
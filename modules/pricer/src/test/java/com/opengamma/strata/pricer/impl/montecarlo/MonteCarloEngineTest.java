@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2020 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.data.Offset.offset;
+
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.impl.option.BlackBarrierPriceFormulaRepository;
+import com.opengamma.strata.pricer.impl.option.BlackFormulaRepository;
+import com.opengamma.strata.product.common.PutCall;
+import com.opengamma.strata.product.option.BarrierType;
+import com.opengamma.strata.product.option.KnockType;
+import com.opengamma.strata.product.option.SimpleConstantContinuousBarrier;
+
+/**
+ * Test {@link MonteCarloEngine}.
+ */
+public class MonteCarloEngineTest {
+
+  private static final double SPOT = 100d;
+  private static final double STRIKE = 105d;
+  private static final double VOL = 0.25;
+  private static final double RATE = 0.03;
+  private static final double DIVIDEND = 0.01;
+  private static final double EXPIRY = 1.5;
+  private static final Function<Double, Double> INTEREST_RATE = t -> RATE;
+  private static final Function<Double, Double> DIVIDEND_RATE = t -> DIVIDEND;
+  private static final double FORWARD = SPOT * Math.exp((RATE - DIVIDEND) * EXPIRY);
+  private static final double DF = Math.exp(-RATE * EXPIRY);
+  private static final BlackPathGenerator ONE_STEP =
+      BlackPathGenerator.of(DoubleArray.of(EXPIRY), SPOT, VOL, INTEREST_RATE, DIVIDEND_RATE);
+  private static final BlackPathGenerator MULTI_STEP =
+      BlackPathGenerator.of(DoubleArray.of(50, i -> EXPIRY * (i + 1) / 50), SPOT, VOL, INTEREST_RATE, DIVIDEND_RATE);
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_vanilla_pseudoRandom() {
+    MonteCarloEngine engine = MonteCarloEngine.ofPseudoRandom(100_000, 1L);
+    for (PutCall putCall : PutCall.values()) {
+      VanillaOptionPathPayoff payoff = VanillaOptionPathPayoff.of(STRIKE, putCall);
+      MonteCarloResult test = engine.presentValueWithDelta(ONE_STEP, payoff);
+      double expected = DF * BlackFormulaRepository.price(FORWARD, STRIKE, EXPIRY, VOL, putCall.isCall());
+      double expectedDelta = DF * FORWARD / SPOT *
+          BlackFormulaRepository.delta(FORWARD, STRIKE, EXPIRY, VOL, putCall.isCall());
+      assertThat(test.getPathCount()).isEqualTo(100_000);
+      assertThat(test.getPresentValue()).isCloseTo(expected, offset(3d * test.getStandardError()));
+      assertThat(test.getDelta().getAsDouble())
+          .isCloseTo(expectedDelta, offset(3d * test.getDeltaStandardError().getAsDouble()));
+      assertThat(engine.presentValue(ONE_STEP, payoff).getPresentValue()).isEqualTo(test.getPresentValue());
+      assertThat(engine.presentValue(ONE_STEP, payoff).getDelta()).isEmpty();
+    }
+  }
+
+  @Test
+  public void test_vanilla_sobol() {
+    VanillaOptionPathPayoff payoff = VanillaOptionPathPayoff.of(STRIKE, PutCall.CALL);
+    double expected = DF * BlackFormulaRepository.price(FORWARD, STRIKE, EXPIRY, VOL, true);
+    MonteCarloResult test = MonteCarloEngine.ofSobol(20_000).presentValueWithDelta(MULTI_STEP, payoff);
+    MonteCarloResult pseudo = MonteCarloEngine.ofPseudoRandom(20_000, 2L).presentValue(MULTI_STEP, payoff);
+    // the Sobol error is much smaller than the pseudo-random standard error
+    assertThat(test.getPresentValue()).isCloseTo(expected, offset(0.2 * pseudo.getStandardError()));
+  }
+
+  @Test
+  public void test_deterministic_parallel() {
+    AsianOptionPathPayoff payoff = AsianOptionPathPayoff.of(STRIKE, PutCall.CALL);
+    for (MonteCarloEngine engine : new MonteCarloEngine[] {
+        MonteCarloEngine.ofPseudoRandom(10_001, 3L), MonteCarloEngine.ofSobol(10_001)}) {
+      MonteCarloResult parallel = engine.presentValueWithDelta(MULTI_STEP, payoff);
+      MonteCarloResult sequential = engine.withParallel(false).presentValueWithDelta(MULTI_STEP, payoff);
+      assertThat(parallel.getPresentValue()).isEqualTo(sequential.getPresentValue());
+      assertThat(parallel.getStandardError()).isEqualTo(sequential.getStandardError());
+      assertThat(parallel.getDelta()).isEqualTo(sequential.getDelta());
+    }
+  }
+
+  @Test
+  public void test_standardError_largeMean() {
+    // a large constant added to the payoff changes the mean but not the standard error
+    double constant = 1e9;
+    VanillaOptionPathPayoff vanilla = VanillaOptionPathPayoff.of(STRIKE, PutCall.CALL);
+    PathPayoff shifted = (values, discountFactors) -> constant + vanilla.presentValue(values, discountFactors);
+    MonteCarloEngine engine = MonteCarloEngine.ofPseudoRandom(10_001, 6L);
+    MonteCarloResult base = engine.presentValue(ONE_STEP, vanilla);
+    MonteCarloResult test = engine.presentValue(ONE_STEP, shifted);
+    assertThat(test.getPresentValue()).isCloseTo(constant + base.getPresentValue(), offset(1e-4));
+    assertThat(test.getStandardError()).isCloseTo(base.getStandardError(), offset(1e-6 * base.getStandardError()));
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_asian_oneStep() {
+    MonteCarloEngine engine = MonteCarloEngine.ofPseudoRandom(5_000, 4L);
+    MonteCarloResult asian = engine.presentValueWithDelta(ONE_STEP, AsianOptionPathPayoff.of(STRIKE, PutCall.PUT));
+    MonteCarloResult vanilla = engine.presentValueWithDelta(ONE_STEP, VanillaOptionPathPayoff.of(STRIKE, PutCall.PUT));
+    assertThat(asian.getPresentValue()).isCloseTo(vanilla.getPresentValue(), offset(1e-12));
+    assertThat(asian.getDelta().getAsDouble()).isCloseTo(vanilla.getDelta().getAsDouble(), offset(1e-12));
+  }
+
+  @Test
+  public void test_asian_cheaperThanVanilla() {
+    MonteCarloEngine engine = MonteCarloEngine.ofSobol(10_000);
+    MonteCarloResult asian = engine.presentValue(MULTI_STEP, AsianOptionPathPayoff.of(STRIKE, PutCall.CALL));
+    MonteCarloResult vanilla = engine.presentValue(MULTI_STEP, VanillaOptionPathPayoff.of(STRIKE, PutCall.CALL));
+    assertThat(asian.getPresentValue()).isLessThan(vanilla.getPresentValue());
+  }
+
+  @Test
+  public void test_barrier() {
+    // continuously monitored barrier approximated by shifting the barrier towards the spot
+    int steps = 250;
+    BlackPathGenerator generator = BlackPathGenerator.of(
+        DoubleArray.of(steps, i -> EXPIRY * (i + 1) / steps), SPOT, VOL, INTEREST_RATE, DIVIDEND_RATE);
+    double barrierLevel = 85d;
+    double shift = Math.exp(0.5826 * VOL * Math.sqrt(EXPIRY / steps));
+    SimpleConstantContinuousBarrier barrier =
+        SimpleConstantContinuousBarrier.of(BarrierType.DOWN, KnockType.KNOCK_OUT, barrierLevel);
+    SimpleConstantContinuousBarrier shifted =
+        SimpleConstantContinuousBarrier.of(BarrierType.DOWN, KnockType.KNOCK_OUT, barrierLevel * shift);
+    MonteCarloResult test = MonteCarloEngine.ofSobol(20_000)
+        .presentValue(generator, SingleBarrierOptionPathPayoff.of(STRIKE, PutCall.CALL, shifted));
+    double expected = new BlackBarrierPriceFormulaRepository()
+        .price(SPOT, STRIKE, EXPIRY, RATE - DIVIDEND, RATE, VOL, true, barrier);
+    assertThat(test.getPresentValue()).isCloseTo(expected, offset(0.02 * expected));
+    // knock-in and knock-out sum to vanilla
+    MonteCarloEngine engine = MonteCarloEngine.ofPseudoRandom(2_000, 5L);
+    SimpleConstantContinuousBarrier knockIn =
+        SimpleConstantContinuousBarrier.of(BarrierType.DOWN, KnockType.KNOCK_IN, barrierLevel);
+    double knockOutPv = engine.presentValue(generator, SingleBarrierOptionPathPayoff.of(STRIKE, PutCall.CALL, barrier))
+        .getPresentValue();
+    double knockInPv = engine.presentValue(generator, SingleBarrierOptionPathPayoff.of(STRIKE, PutCall.CALL, knockIn))
+        .getPresentValue();
+    double vanillaPv = engine.presentValue(generator, VanillaOptionPathPayoff.of(STRIKE, PutCall.CALL)).getPresentValue();
+    assertThat(knockOutPv + knockInPv).isCloseTo(vanillaPv, offset(1e-10));
+  }
+
+  @Test
+  public void test_barrier_delta() {
+    // the pathwise delta would be biased, thus the delta is calculated by bumping with the same random numbers
+    int steps = 250;
+    DoubleArray times = DoubleArray.of(steps, i -> EXPIRY * (i + 1) / steps);
+    double barrierLevel = 85d;
+    double shift = Math.exp(0.5826 * VOL * Math.sqrt(EXPIRY / steps));
+    SimpleConstantContinuousBarrier barrier =
+        SimpleConstantContinuousBarrier.of(BarrierType.DOWN, KnockType.KNOCK_OUT, barrierLevel);
+    SimpleConstantContinuousBarrier shifted =
+        SimpleConstantContinuousBarrier.of(BarrierType.DOWN, KnockType.KNOCK_OUT, barrierLevel * shift);
+    SingleBarrierOptionPathPayoff payoff = SingleBarrierOptionPathPayoff.of(STRIKE, PutCall.CALL, shifted);
+    MonteCarloEngine engine = MonteCarloEngine.ofSobol(20_000);
+    assertThat(payoff.isAdjointSupported()).isFalse();
+    assertThatIllegalArgumentException().isThrownBy(() -> engine.presentValueWithDelta(
+        BlackPathGenerator.of(times, SPOT, VOL, INTEREST_RATE, DIVIDEND_RATE), payoff));
+    double bump = 1d;
+    double pvUp = engine.presentValue(
+        BlackPathGenerator.of(times, SPOT + bump, VOL, INTEREST_RATE, DIVIDEND_RATE), payoff).getPresentValue();
+    double pvDown = engine.presentValue(
+        BlackPathGenerator.of(times, SPOT - bump, VOL, INTEREST_RATE, DIVIDEND_RATE), payoff).getPresentValue();
+    double expectedDelta = new BlackBarrierPriceFormulaRepository()
+        .priceAdjoint(SPOT, STRIKE, EXPIRY, RATE - DIVIDEND, RATE, VOL, true, barrier).getDerivative(0);
+    assertThat((pvUp - pvDown) / (2d * bump)).isCloseTo(expectedDelta, offset(0.03 * expectedDelta));
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_invalid() {
+    assertThatIllegalArgumentException().isThrownBy(() -> MonteCarloEngine.ofPseudoRandom(1, 1L));
+    assertThatIllegalArgumentException().isThrownBy(() -> MonteCarloEngine.ofSobol(0));
+    assertThatIllegalArgumentException().isThrownBy(() -> BlackPathGenerator.of(
+        DoubleArray.of(1d, 0.5), SPOT, VOL, INTEREST_RATE, DIVIDEND_RATE));
+  }
+
+  @Test
+  public void test_adjointNotSupported() {
+    // the payoff without pathwise derivatives is rejected before the simulation starts
+    PathPayoff payoff = (values, discountFactors) -> values[values.length - 1] * discountFactors[values.length - 1];
+    BlackPathGenerator generator = BlackPathGenerator.of(DoubleArray.of(1d), SPOT, VOL, INTEREST_RATE, DIVIDEND_RATE);
+    MonteCarloEngine engine = MonteCarloEngine.ofPseudoRandom(1000, 1L);
+    assertThat(payoff.isAdjointSupported()).isFalse();
+    assertThat(engine.presentValue(generator, payoff).getPresentValue()).isPositive();
+    assertThatIllegalArgumentException().isThrownBy(() -> engine.presentValueWithDelta(generator, payoff));
+  }
+
+}
@@ -8,10 +8,14 @@ package com.opengamma.strata.pricer.impl.tree;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.data.Offset.offset;
 
+import java.util.Arrays;
+
 import org.junit.jupiter.api.Test;
 
+import com.opengamma.strata.basics.value.ValueDerivatives;
 import com.opengamma.strata.collect.DoubleArrayMath;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.pricer.impl.option.BlackBarrierPriceFormulaRepository;
 import com.opengamma.strata.pricer.impl.option.BlackOneTouchCashPriceFormulaRepository;
 import com.opengamma.strata.product.common.PutCall;
@@ -135,6 +139,50 @@ public class ConstantContinuousSingleBarrierKnockoutFunctionTest {
     assertThat(DoubleArrayMath.fuzzyEquals(computedNextValues.toArray(), expectedNextValues.toArray(), tol)).isTrue();
   }
 
+  @Test
+  public void test_updateOptionValues() {
+    double spot = 130d;
+    double u = 1.05;
+    double d = 0.98;
+    double m = Math.sqrt(u * d);
+    double up = 0.29;
+    double dp = 0.25;
+    double mp = 1d - up - dp;
+    double df = 0.995;
+    ConstantContinuousSingleBarrierKnockoutFunction testUp = ConstantContinuousSingleBarrierKnockoutFunction.of(
+        STRIKE, TIME_TO_EXPIRY, PutCall.PUT, NUM, BarrierType.UP, BARRIER, REBATE);
+    ConstantContinuousSingleBarrierKnockoutFunction testDown = ConstantContinuousSingleBarrierKnockoutFunction.of(
+        STRIKE, TIME_TO_EXPIRY, PutCall.CALL, NUM, BarrierType.DOWN, 121d, REBATE);
+    for (ConstantContinuousSingleBarrierKnockoutFunction test : new ConstantContinuousSingleBarrierKnockoutFunction[] {
+        testUp, testDown }) {
+      int nNodes = 2 * NUM + 1;
+      double[] stateValue = new double[nNodes];
+      for (int k = 0; k < nNodes; ++k) {
+        stateValue[k] = spot * Math.pow(d, NUM - k) * Math.pow(m, k);
+      }
+      double[] values = new double[nNodes];
+      double[] valuesMatrix = new double[nNodes];
+      test.fillPayoffAtExpiryTrinomial(stateValue, values);
+      test.fillPayoffAtExpiryTrinomial(stateValue, valuesMatrix);
+      DoubleArray expected = test.getPayoffAtExpiryTrinomial(spot, d, m);
+      assertThat(values).containsExactly(expected.toArray());
+      for (int i = NUM - 1; i > -1; --i) {
+        int nLayer = 2 * i + 1;
+        for (int k = 0; k < nLayer; ++k) {
+          stateValue[k] = spot * Math.pow(d, i - k) * Math.pow(m, k);
+        }
+        double[][] probs = new double[nLayer][];
+        Arrays.fill(probs, new double[] {dp, mp, up });
+        DoubleArray layerState = DoubleArray.copyOf(stateValue, 0, nLayer);
+        expected = test.getNextOptionValues(df, up, mp, dp, expected, spot, d, m, i);
+        test.updateOptionValues(df, up, mp, dp, stateValue, values, spot, d, m, i);
+        test.updateOptionValues(df, DoubleMatrix.ofUnsafe(probs), layerState, valuesMatrix, i);
+        assertThat(DoubleArray.ofUnsafe(values).subArray(0, nLayer)).isEqualTo(expected);
+        assertThat(DoubleArray.ofUnsafe(valuesMatrix).subArray(0, nLayer)).isEqualTo(expected);
+      }
+    }
+  }
+
   private static final TrinomialTree TRINOMIAL_TREE = new TrinomialTree();
   private static final double SPOT = 105.;
   private static final double[] STRIKES = new double[] {81d, 97d, 105d, 105.1, 114d, 128d };
@@ -202,4 +250,46 @@ public class ConstantContinuousSingleBarrierKnockoutFunctionTest {
     }
   }
 
+  /**
+   * Test the derivatives by algorithmic differentiation against finite difference.
+   */
+  @Test
+  public void test_trinomialTree_adjoint() {
+    int nSteps = 81;
+    double vol = 0.2;
+    double interest = 0.03;
+    double dividend = 0.01;
+    double fdEps = 1.0e-6;
+    DoubleArray rebate = DoubleArray.of(nSteps + 1, i -> REBATE_AMOUNT);
+    for (LatticeSpecification lattice : new LatticeSpecification[] {
+        new CoxRossRubinsteinLatticeSpecification(), new TrigeorgisLatticeSpecification()}) {
+      for (boolean isCall : new boolean[] {true, false}) {
+        for (double strike : new double[] {97d, 114d}) {
+          OptionFunction[] functions = new OptionFunction[] {
+              ConstantContinuousSingleBarrierKnockoutFunction.of(
+                  strike, TIME, PutCall.ofPut(!isCall), nSteps, BarrierType.UP, 135d, rebate),
+              ConstantContinuousSingleBarrierKnockoutFunction.of(
+                  strike, TIME, PutCall.ofPut(!isCall), nSteps, BarrierType.DOWN, 76d, rebate)};
+          for (OptionFunction function : functions) {
+            assertThat(function.isAdjointSupported()).isTrue();
+            ValueDerivatives computed =
+                TRINOMIAL_TREE.optionPriceAdjoint(function, lattice, SPOT, vol, interest, dividend);
+            double price = TRINOMIAL_TREE.optionPrice(function, lattice, SPOT, vol, interest, dividend);
+            assertThat(computed.getValue()).isCloseTo(price, offset(1.0e-10));
+            double[] inputs = new double[] {SPOT, vol, interest, dividend};
+            for (int i = 0; i < 4; i++) {
+              double[] up = inputs.clone();
+              double[] dw = inputs.clone();
+              up[i] += fdEps;
+              dw[i] -= fdEps;
+              double priceUp = TRINOMIAL_TREE.optionPrice(function, lattice, up[0], up[1], up[2], up[3]);
+              double priceDw = TRINOMIAL_TREE.optionPrice(function, lattice, dw[0], dw[1], dw[2], dw[3]);
+              assertThat(computed.getDerivative(i)).isCloseTo(0.5 * (priceUp - priceDw) / fdEps, offset(1.0e-4));
+            }
+          }
+        }
+      }
+    }
+  }
+
 }
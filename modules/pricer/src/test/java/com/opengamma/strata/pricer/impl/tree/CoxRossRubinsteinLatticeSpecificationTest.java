@@ -6,11 +6,16 @@
 package com.opengamma.strata.pricer.impl.tree;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
 import com.opengamma.strata.collect.DoubleArrayMath;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.math.impl.differentiation.ActiveDouble;
+import com.opengamma.strata.math.impl.differentiation.Tape;
 
 /**
  * Test {@link CoxRossRubinsteinLatticeSpecification}.
@@ -36,4 +41,28 @@ public class CoxRossRubinsteinLatticeSpecificationTest {
     assertThat(DoubleArrayMath.fuzzyEquals(computed.toArray(), expected.toArray(), 1.0e-14)).isTrue();
   }
 
+  @Test
+  public void test_formula_active() {
+    CoxRossRubinsteinLatticeSpecification test = new CoxRossRubinsteinLatticeSpecification();
+    assertThat(test.isAdjointSupported()).isTrue();
+    DoubleArray expected = test.getParametersTrinomial(VOL, RATE, DT);
+    double eps = 1.0e-6;
+    DoubleArray volUp = test.getParametersTrinomial(VOL + eps, RATE, DT);
+    DoubleArray volDw = test.getParametersTrinomial(VOL - eps, RATE, DT);
+    DoubleArray rateUp = test.getParametersTrinomial(VOL, RATE + eps, DT);
+    DoubleArray rateDw = test.getParametersTrinomial(VOL, RATE - eps, DT);
+    try (Tape tape = Tape.start()) {
+      ActiveDouble vol = tape.input(VOL);
+      ActiveDouble rate = tape.input(RATE);
+      List<ActiveDouble> computed = test.getParametersTrinomial(vol, rate, DT);
+      assertThat(computed).hasSize(6);
+      for (int i = 0; i < 6; i++) {
+        assertThat(computed.get(i).getValue()).isCloseTo(expected.get(i), offset(1.0e-14));
+        DoubleArray gradient = tape.gradient(computed.get(i), vol, rate);
+        assertThat(gradient.get(0)).isCloseTo(0.5 * (volUp.get(i) - volDw.get(i)) / eps, offset(1.0e-7));
+        assertThat(gradient.get(1)).isCloseTo(0.5 * (rateUp.get(i) - rateDw.get(i)) / eps, offset(1.0e-7));
+      }
+    }
+  }
+
 }
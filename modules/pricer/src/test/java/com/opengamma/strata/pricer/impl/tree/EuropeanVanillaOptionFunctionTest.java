@@ -8,10 +8,13 @@ package com.opengamma.strata.pricer.impl.tree;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.data.Offset.offset;
 
+import java.util.Arrays;
+
 import org.junit.jupiter.api.Test;
 
 import com.opengamma.strata.collect.DoubleArrayMath;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.pricer.impl.option.BlackScholesFormulaRepository;
 import com.opengamma.strata.product.common.PutCall;
 
@@ -67,6 +70,40 @@ public class EuropeanVanillaOptionFunctionTest {
     assertThat(DoubleArrayMath.fuzzyEquals(computedNextValues.toArray(), expectedNextValues.toArray(), tol)).isTrue();
   }
 
+  @Test
+  public void test_updateOptionValues() {
+    EuropeanVanillaOptionFunction test = EuropeanVanillaOptionFunction.of(STRIKE, TIME_TO_EXPIRY, PutCall.CALL, NUM);
+    double spot = 120d;
+    double u = 1.05;
+    double d = 0.98;
+    double m = Math.sqrt(u * d);
+    double up = 0.29;
+    double dp = 0.25;
+    double mp = 1d - up - dp;
+    double df = 0.995;
+    int nNodes = 2 * NUM + 1;
+    double[] stateValue = new double[nNodes];
+    for (int k = 0; k < nNodes; ++k) {
+      stateValue[k] = spot * Math.pow(d, NUM - k) * Math.pow(m, k);
+    }
+    double[] values = new double[nNodes];
+    double[] valuesMatrix = new double[nNodes];
+    test.fillPayoffAtExpiryTrinomial(stateValue, values);
+    test.fillPayoffAtExpiryTrinomial(stateValue, valuesMatrix);
+    DoubleArray expected = test.getPayoffAtExpiryTrinomial(spot, d, m);
+    assertThat(values).containsExactly(expected.toArray());
+    for (int i = NUM - 1; i > -1; --i) {
+      int nLayer = 2 * i + 1;
+      double[][] probs = new double[nLayer][];
+      Arrays.fill(probs, new double[] {dp, mp, up });
+      expected = test.getNextOptionValues(df, up, mp, dp, expected, spot, d, m, i);
+      test.updateOptionValues(df, up, mp, dp, stateValue, values, spot, d, m, i);
+      test.updateOptionValues(df, DoubleMatrix.ofUnsafe(probs), DoubleArray.ofUnsafe(stateValue), valuesMatrix, i);
+      assertThat(DoubleArray.ofUnsafe(values).subArray(0, nLayer)).isEqualTo(expected);
+      assertThat(DoubleArray.ofUnsafe(valuesMatrix).subArray(0, nLayer)).isEqualTo(expected);
+    }
+  }
+
   private static final TrinomialTree TRINOMIAL_TREE = new TrinomialTree();
   private static final double SPOT = 105.;
   private static final double[] STRIKES = new double[] {81., 97., 105., 105.1, 114., 128. };
@@ -6,6 +6,8 @@
 package com.opengamma.strata.pricer.impl.tree;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.assertj.core.data.Offset.offset;
 
 import java.util.ArrayList;
@@ -17,7 +19,10 @@ import org.junit.jupiter.api.Test;
 import com.opengamma.strata.basics.value.ValueDerivatives;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.math.impl.differentiation.ActiveDouble;
+import com.opengamma.strata.math.impl.differentiation.Tape;
 import com.opengamma.strata.pricer.fxopt.RecombiningTrinomialTreeData;
+import com.opengamma.strata.pricer.impl.option.BlackScholesFormulaRepository;
 import com.opengamma.strata.product.common.PutCall;
 
 /**
@@ -83,4 +88,286 @@ public class TrinomialTreeTest {
     }
   }
 
+  /**
+   * Test Greeks against Black-Scholes, and consistency between lattice and tree data.
+   */
+  @Test
+  public void test_optionPriceGreeks() {
+    int nSteps = 400;
+    double dt = TIME / nSteps;
+    LatticeSpecification lattice = new CoxRossRubinsteinLatticeSpecification();
+    double vol = 0.2;
+    for (boolean isCall : new boolean[] {true, false }) {
+      for (double strike : STRIKES) {
+        for (double interest : INTERESTS) {
+          for (double dividend : DIVIDENDS) {
+            OptionFunction function = EuropeanVanillaOptionFunction.of(strike, TIME, PutCall.ofPut(!isCall), nSteps);
+            ValueDerivatives computed =
+                TRINOMIAL_TREE.optionPriceGreeks(function, lattice, SPOT, vol, interest, dividend);
+            double costOfCarry = interest - dividend;
+            assertThat(computed.getValue())
+                .isEqualTo(TRINOMIAL_TREE.optionPrice(function, lattice, SPOT, vol, interest, dividend));
+            assertThat(computed.getDerivatives().size()).isEqualTo(3);
+            assertThat(computed.getDerivative(0)).isCloseTo(
+                BlackScholesFormulaRepository.delta(SPOT, strike, TIME, vol, interest, costOfCarry, isCall),
+                offset(2.0e-3));
+            assertThat(computed.getDerivative(1)).isCloseTo(
+                BlackScholesFormulaRepository.gamma(SPOT, strike, TIME, vol, interest, costOfCarry),
+                offset(2.0e-4));
+            assertThat(computed.getDerivative(2)).isCloseTo(
+                BlackScholesFormulaRepository.theta(SPOT, strike, TIME, vol, interest, costOfCarry, isCall),
+                offset(2.0e-2));
+            ValueDerivatives computedData = TRINOMIAL_TREE.optionPriceGreeks(
+                function, treeData(lattice, nSteps, dt, vol, interest, dividend));
+            assertThat(computedData.getValue()).isEqualTo(computed.getValue());
+            assertThat(computedData.getDerivatives()).isEqualTo(computed.getDerivatives());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Test the default implementations of the in-place methods of {@code OptionFunction}.
+   */
+  @Test
+  public void test_optionPrice_defaultInPlace() {
+    int nSteps = 52;
+    double dt = TIME / nSteps;
+    LatticeSpecification lattice = new TrigeorgisLatticeSpecification();
+    double vol = 0.15;
+    double interest = 0.02;
+    double dividend = 0.01;
+    EuropeanVanillaOptionFunction underlying = EuropeanVanillaOptionFunction.of(97d, TIME, PutCall.PUT, nSteps);
+    OptionFunction function = new OptionFunction() {
+      @Override
+      public double getTimeToExpiry() {
+        return underlying.getTimeToExpiry();
+      }
+
+      @Override
+      public int getNumberOfSteps() {
+        return underlying.getNumberOfSteps();
+      }
+
+      @Override
+      public DoubleArray getPayoffAtExpiryTrinomial(DoubleArray stateValue) {
+        return underlying.getPayoffAtExpiryTrinomial(stateValue);
+      }
+    };
+    assertThat(TRINOMIAL_TREE.optionPriceGreeks(function, lattice, SPOT, vol, interest, dividend))
+        .isEqualTo(TRINOMIAL_TREE.optionPriceGreeks(underlying, lattice, SPOT, vol, interest, dividend));
+    RecombiningTrinomialTreeData data = treeData(lattice, nSteps, dt, vol, interest, dividend);
+    assertThat(TRINOMIAL_TREE.optionPriceGreeks(function, data))
+        .isEqualTo(TRINOMIAL_TREE.optionPriceGreeks(underlying, data));
+  }
+
+  /**
+   * Test the derivatives by algorithmic differentiation against finite difference and Black-Scholes.
+   */
+  @Test
+  public void test_optionPriceAdjoint() {
+    int nSteps = 150;
+    double vol = 0.2;
+    double fdEps = 1.0e-6;
+    for (LatticeSpecification lattice : new LatticeSpecification[] {
+        new CoxRossRubinsteinLatticeSpecification(), new TrigeorgisLatticeSpecification()}) {
+      for (boolean isCall : new boolean[] {true, false }) {
+        for (double strike : STRIKES) {
+          for (double interest : INTERESTS) {
+            for (double dividend : DIVIDENDS) {
+              OptionFunction function = EuropeanVanillaOptionFunction.of(strike, TIME, PutCall.ofPut(!isCall), nSteps);
+              ValueDerivatives computed =
+                  TRINOMIAL_TREE.optionPriceAdjoint(function, lattice, SPOT, vol, interest, dividend);
+              double price = TRINOMIAL_TREE.optionPrice(function, lattice, SPOT, vol, interest, dividend);
+              assertThat(computed.getValue()).isCloseTo(price, offset(1.0e-10));
+              assertThat(computed.getDerivatives().size()).isEqualTo(4);
+              double[] inputs = new double[] {SPOT, vol, interest, dividend };
+              // the payoff is not differentiable with respect to spot where the strike coincides with a node
+              boolean atNode = strike == SPOT;
+              for (int i = atNode ? 1 : 0; i < 4; i++) {
+                double[] up = inputs.clone();
+                double[] dw = inputs.clone();
+                up[i] += fdEps;
+                dw[i] -= fdEps;
+                double priceUp = TRINOMIAL_TREE.optionPrice(function, lattice, up[0], up[1], up[2], up[3]);
+                double priceDw = TRINOMIAL_TREE.optionPrice(function, lattice, dw[0], dw[1], dw[2], dw[3]);
+                assertThat(computed.getDerivative(i)).isCloseTo(0.5 * (priceUp - priceDw) / fdEps, offset(1.0e-4));
+              }
+              double costOfCarry = interest - dividend;
+              double carryRho =
+                  BlackScholesFormulaRepository.carryRho(SPOT, strike, TIME, vol, interest, costOfCarry, isCall);
+              if (!atNode) {
+                assertThat(computed.getDerivative(0)).isCloseTo(
+                    BlackScholesFormulaRepository.delta(SPOT, strike, TIME, vol, interest, costOfCarry, isCall),
+                    offset(3.0e-2));
+              }
+              // the tree vega oscillates with the position of the strike relative to the nodes
+              assertThat(computed.getDerivative(1)).isCloseTo(
+                  BlackScholesFormulaRepository.vega(SPOT, strike, TIME, vol, interest, costOfCarry),
+                  offset(2.5));
+              assertThat(computed.getDerivative(2)).isCloseTo(
+                  BlackScholesFormulaRepository.rho(SPOT, strike, TIME, vol, interest, costOfCarry, isCall),
+                  offset(1.0));
+              assertThat(computed.getDerivative(3)).isCloseTo(-carryRho, offset(1.0));
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Test the default implementations do not support algorithmic differentiation.
+   */
+  @Test
+  public void test_optionPriceAdjoint_default() {
+    int nSteps = 52;
+    double vol = 0.15;
+    double interest = 0.02;
+    double dividend = 0.01;
+    LatticeSpecification supportedLattice = new TrigeorgisLatticeSpecification();
+    LatticeSpecification lattice = (volatility, interestRate, dt) ->
+        supportedLattice.getParametersTrinomial(volatility, interestRate, dt);
+    EuropeanVanillaOptionFunction function = EuropeanVanillaOptionFunction.of(97d, TIME, PutCall.PUT, nSteps);
+    assertThat(lattice.isAdjointSupported()).isFalse();
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> TRINOMIAL_TREE.optionPriceAdjoint(function, lattice, SPOT, vol, interest, dividend));
+    try (Tape tape = Tape.start()) {
+      List<ActiveDouble> inputs = tape.inputs(DoubleArray.of(vol, interest));
+      assertThatExceptionOfType(UnsupportedOperationException.class)
+          .isThrownBy(() -> lattice.getParametersTrinomial(inputs.get(0), inputs.get(1), 0.1));
+    }
+    OptionFunction unsupported = new OptionFunction() {
+      @Override
+      public double getTimeToExpiry() {
+        return function.getTimeToExpiry();
+      }
+
+      @Override
+      public int getNumberOfSteps() {
+        return function.getNumberOfSteps();
+      }
+
+      @Override
+      public DoubleArray getPayoffAtExpiryTrinomial(DoubleArray stateValue) {
+        return function.getPayoffAtExpiryTrinomial(stateValue);
+      }
+    };
+    assertThat(unsupported.isAdjointSupported()).isFalse();
+    assertThatIllegalArgumentException().isThrownBy(
+        () -> TRINOMIAL_TREE.optionPriceAdjoint(unsupported, supportedLattice, SPOT, vol, interest, dividend));
+  }
+
+  /**
+   * Test the state values of the intermediate layers are only recorded if required.
+   */
+  @Test
+  public void test_optionPriceAdjoint_stateValueRequired() {
+    int nSteps = 40;
+    double vol = 0.15;
+    double interest = 0.02;
+    double dividend = 0.01;
+    LatticeSpecification lattice = new TrigeorgisLatticeSpecification();
+    EuropeanVanillaOptionFunction function = EuropeanVanillaOptionFunction.of(97d, TIME, PutCall.CALL, nSteps);
+    OptionFunction required = new OptionFunction() {
+      @Override
+      public double getTimeToExpiry() {
+        return function.getTimeToExpiry();
+      }
+
+      @Override
+      public int getNumberOfSteps() {
+        return function.getNumberOfSteps();
+      }
+
+      @Override
+      public DoubleArray getPayoffAtExpiryTrinomial(DoubleArray stateValue) {
+        return function.getPayoffAtExpiryTrinomial(stateValue);
+      }
+
+      @Override
+      public boolean isAdjointSupported() {
+        return true;
+      }
+
+      @Override
+      public boolean isActiveStateValueRequired() {
+        return true;
+      }
+
+      @Override
+      public void fillPayoffAtExpiryTrinomial(ActiveDouble[] stateValue, ActiveDouble[] values) {
+        function.fillPayoffAtExpiryTrinomial(stateValue, values);
+      }
+
+      @Override
+      public void updateOptionValues(
+          ActiveDouble discountFactor,
+          ActiveDouble upProbability,
+          ActiveDouble middleProbability,
+          ActiveDouble downProbability,
+          ActiveDouble[] stateValue,
+          ActiveDouble[] values,
+          int i) {
+
+        // the middle factor of the lattice is 1, thus the middle node is at spot
+        assertThat(stateValue[i].getValue()).isCloseTo(SPOT, offset(1.0e-10));
+        function.updateOptionValues(
+            discountFactor, upProbability, middleProbability, downProbability, stateValue, values, i);
+      }
+    };
+    assertThat(function.isActiveStateValueRequired()).isFalse();
+    ValueDerivatives expected = TRINOMIAL_TREE.optionPriceAdjoint(function, lattice, SPOT, vol, interest, dividend);
+    ValueDerivatives computed = TRINOMIAL_TREE.optionPriceAdjoint(required, lattice, SPOT, vol, interest, dividend);
+    assertThat(computed.getValue()).isCloseTo(expected.getValue(), offset(1.0e-12));
+    for (int i = 0; i < 4; i++) {
+      assertThat(computed.getDerivative(i)).isCloseTo(expected.getDerivative(i), offset(1.0e-10));
+    }
+    assertThat(tapeSize(function, lattice, vol, interest, dividend))
+        .isLessThan(tapeSize(required, lattice, vol, interest, dividend));
+  }
+
+  // the number of nodes recorded on the tape by the active pricing
+  private static int tapeSize(
+      OptionFunction function,
+      LatticeSpecification lattice,
+      double vol,
+      double interest,
+      double dividend) {
+
+    try (Tape tape = Tape.start()) {
+      List<ActiveDouble> inputs = tape.inputs(DoubleArray.of(SPOT, vol, interest, dividend));
+      TRINOMIAL_TREE.optionPrice(function, lattice, inputs.get(0), inputs.get(1), inputs.get(2), inputs.get(3));
+      return tape.size();
+    }
+  }
+
+  // tree data equivalent to the lattice
+  private static RecombiningTrinomialTreeData treeData(
+      LatticeSpecification lattice,
+      int nSteps,
+      double dt,
+      double vol,
+      double interest,
+      double dividend) {
+
+    double[] params = lattice.getParametersTrinomial(vol, interest - dividend, dt).toArray();
+    DoubleArray time = DoubleArray.of(nSteps + 1, i -> dt * i);
+    DoubleArray df = DoubleArray.of(nSteps, i -> Math.exp(-interest * dt));
+    double[][] stateValue = new double[nSteps + 1][];
+    stateValue[0] = new double[] {SPOT };
+    List<DoubleMatrix> prob = new ArrayList<DoubleMatrix>();
+    double[] probs = new double[] {params[5], params[4], params[3] };
+    for (int i = 0; i < nSteps; ++i) {
+      int index = i;
+      stateValue[i + 1] = DoubleArray.of(2 * i + 3,
+          j -> SPOT * Math.pow(params[2], index + 1 - j) * Math.pow(params[1], j)).toArray();
+      double[][] probMatrix = new double[2 * i + 1][];
+      Arrays.fill(probMatrix, probs);
+      prob.add(DoubleMatrix.ofUnsafe(probMatrix));
+    }
+    return RecombiningTrinomialTreeData.of(DoubleMatrix.ofUnsafe(stateValue), prob, df, time);
+  }
+
 }
@@ -11,14 +11,18 @@ import static org.assertj.core.data.Offset.offset;
 
 import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.basics.currency.Currency;
@@ -366,6 +370,46 @@ public class CurveGammaCalculatorCrossGammaTest {
     }
   }
 
+  //-------------------------------------------------------------------------
+  @Test
+  public void sensitivity_intra_portfolio() {
+    List<Function<ImmutableRatesProvider, CurrencyParameterSensitivities>> trades =
+        ImmutableList.of(this::sensiFn, this::sensiModFn, this::sensiFn);
+    for (CurveGammaCalculator calc : new CurveGammaCalculator[] {FORWARD, CENTRAL, BACKWARD}) {
+      List<CrossGammaParameterSensitivities> computed = calc.calculateCrossGammaIntraCurve(
+          RatesProviderDataSets.MULTI_CPI_USD, trades, (fn, provider) -> fn.apply(provider));
+      assertThat(computed).hasSize(3);
+      for (int i = 0; i < trades.size(); i++) {
+        assertThat(computed.get(i))
+            .isEqualTo(calc.calculateCrossGammaIntraCurve(RatesProviderDataSets.MULTI_CPI_USD, trades.get(i)));
+      }
+    }
+    List<CrossGammaParameterSensitivities> combined = CENTRAL.calculateCrossGammaIntraCurve(
+        RatesProviderDataSets.MULTI_CPI_USD_COMBINED, ImmutableList.of(1d, 2d), (factor, provider) ->
+            sensiCombinedFn(provider).multipliedBy(factor));
+    assertThat(combined.get(0)).isEqualTo(
+        CENTRAL.calculateCrossGammaIntraCurve(RatesProviderDataSets.MULTI_CPI_USD_COMBINED, this::sensiCombinedFn));
+    assertThat(combined.get(1).equalWithTolerance(combined.get(0).multipliedBy(2d), TOL)).isTrue();
+  }
+
+  @Test
+  public void sensitivity_executor() {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (CurveGammaCalculator calc : new CurveGammaCalculator[] {FORWARD, CENTRAL, BACKWARD}) {
+        CurveGammaCalculator test = calc.withExecutor(executor);
+        assertThat(test.calculateCrossGammaIntraCurve(RatesProviderDataSets.MULTI_CPI_USD, this::sensiFn))
+            .isEqualTo(calc.calculateCrossGammaIntraCurve(RatesProviderDataSets.MULTI_CPI_USD, this::sensiFn));
+        assertThat(test.calculateCrossGammaCrossCurve(RatesProviderDataSets.MULTI_CPI_USD, this::sensiFn))
+            .isEqualTo(calc.calculateCrossGammaCrossCurve(RatesProviderDataSets.MULTI_CPI_USD, this::sensiFn));
+        assertThat(test.calculateCrossGammaIntraCurve(RatesProviderDataSets.MULTI_BOND, this::sensiFnBond))
+            .isEqualTo(calc.calculateCrossGammaIntraCurve(RatesProviderDataSets.MULTI_BOND, this::sensiFnBond));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   //-------------------------------------------------------------------------
   @Test
   public void sensitivity_intra_multi_bond_curve() {
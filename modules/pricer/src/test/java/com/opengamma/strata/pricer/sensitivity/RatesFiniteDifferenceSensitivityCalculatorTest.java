@@ -7,14 +7,18 @@ package com.opengamma.strata.pricer.sensitivity;
 
 import static com.opengamma.strata.basics.currency.Currency.USD;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.assertj.core.data.Offset.offset;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.StandardId;
 import com.opengamma.strata.basics.currency.Currency;
@@ -95,6 +99,47 @@ public class RatesFiniteDifferenceSensitivityCalculatorTest {
     }
   }
 
+  @Test
+  public void sensitivity_portfolio() {
+    List<Double> trades = ImmutableList.of(1d, -2d, 0.5d);
+    List<CurrencyParameterSensitivities> computed = FD_CALCULATOR.sensitivity(
+        RatesProviderDataSets.MULTI_CPI_USD, trades, (factor, provider) -> fn(provider).multipliedBy(factor));
+    assertThat(computed).hasSize(3);
+    CurrencyParameterSensitivities expected = FD_CALCULATOR.sensitivity(RatesProviderDataSets.MULTI_CPI_USD, this::fn);
+    for (int i = 0; i < trades.size(); i++) {
+      assertThat(computed.get(i).equalWithTolerance(expected.multipliedBy(trades.get(i)), TOLERANCE_DELTA)).isTrue();
+    }
+    assertThat(FD_CALCULATOR.sensitivity(RatesProviderDataSets.MULTI_CPI_USD, ImmutableList.of(), (t, p) -> fn(p)))
+        .isEmpty();
+  }
+
+  @Test
+  public void sensitivity_executor() {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      RatesFiniteDifferenceSensitivityCalculator test = FD_CALCULATOR.withExecutor(executor);
+      assertThat(test.sensitivity(RatesProviderDataSets.MULTI_CPI_USD, this::fn))
+          .isEqualTo(FD_CALCULATOR.sensitivity(RatesProviderDataSets.MULTI_CPI_USD, this::fn));
+      assertThat(test.sensitivity(LegalEntityDiscountingProviderDataSets.ISSUER_REPO_ZERO, this::fn))
+          .isEqualTo(FD_CALCULATOR.sensitivity(LegalEntityDiscountingProviderDataSets.ISSUER_REPO_ZERO, this::fn));
+      CreditRatesProvider rates = CreditRatesProviderDataSets.createCreditRatesProvider(LocalDate.of(2014, 1, 3));
+      assertThat(test.sensitivity(rates, this::creditFunction))
+          .isEqualTo(FD_CALCULATOR.sensitivity(rates, this::creditFunction));
+      assertThatIllegalStateException()
+          .isThrownBy(() -> test.sensitivity(RatesProviderDataSets.MULTI_CPI_USD, this::failFn));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  // private function for testing. Fails if the curves are bumped
+  private CurrencyAmount failFn(ImmutableRatesProvider provider) {
+    if (!provider.equals(RatesProviderDataSets.MULTI_CPI_USD)) {
+      throw new IllegalStateException("Bumped");
+    }
+    return CurrencyAmount.zero(USD);
+  }
+
   // private function for testing. Returns the sum of rates multiplied by time
   private CurrencyAmount fn(ImmutableRatesProvider provider) {
     double result = 0.0;